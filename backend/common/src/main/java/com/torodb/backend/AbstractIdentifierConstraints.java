@@ -72,8 +72,9 @@ public abstract class AbstractIdentifierConstraints implements IdentifierConstra
         .put(FieldType.MONGO_REGEX, 'g') //Re[g]Ex
         .put(FieldType.MONGO_DB_POINTER, 'p') //DB [p]ointer
         .put(FieldType.DEPRECATED, 'z') //running out of available chars; z means "the last".
+        .put(FieldType.OVERFLOW, 'o') //[o]verflow
         .build());
-    //Letters left: f h o v
+    //Letters left: f h v
     ImmutableMap.Builder<FieldType, String> scalarFieldTypeIdentifiersBuilder =
         ImmutableMap.<FieldType, String>builder();
     Set<Character> fieldTypeIdentifierSet = new HashSet<>();
@@ -48,6 +48,9 @@ import org.jooq.Record1;
 import org.jooq.TableField;
 import org.jooq.conf.ParamType;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import javax.inject.Singleton;
@@ -228,12 +231,34 @@ public abstract class AbstractMetaDataWriteInterface implements MetaDataWriteInt
     sqlHelper.executeUpdate(dsl, statement, Context.META_INSERT);
   }
 
+  @Override
+  public void addMetaFields(DSLContext dsl, MetaDatabase database, MetaCollection collection,
+      MetaDocPart docPart, Collection<? extends MetaField> fields) {
+    List<String> statements = new ArrayList<>(fields.size());
+    for (MetaField field : fields) {
+      statements.add(getAddMetaFieldStatement(database.getName(), collection.getName(),
+          docPart.getTableRef(), field.getName(), field.getIdentifier(), field.getType()));
+    }
+    sqlHelper.executeBatchUpdate(dsl, statements, Context.META_INSERT);
+  }
+
+  @Override
+  public void addMetaScalars(DSLContext dsl, MetaDatabase database, MetaCollection collection,
+      MetaDocPart docPart, Collection<? extends MetaScalar> scalars) {
+    List<String> statements = new ArrayList<>(scalars.size());
+    for (MetaScalar scalar : scalars) {
+      statements.add(getAddMetaScalarStatement(database.getName(), collection.getName(),
+          docPart.getTableRef(), scalar.getIdentifier(), scalar.getType()));
+    }
+    sqlHelper.executeBatchUpdate(dsl, statements, Context.META_INSERT);
+  }
+
   @Override
   public void addMetaIndex(DSLContext dsl, MetaDatabase database, MetaCollection collection,
       MetaIndex index) {
     String statement = getAddMetaIndexStatement(database.getName(), collection.getName(), index
         .getName(),
-        index.isUnique());
+        index.isUnique(), index.isSparse());
     sqlHelper.executeUpdate(dsl, statement, Context.META_INSERT);
   }
 
@@ -251,7 +276,7 @@ public abstract class AbstractMetaDataWriteInterface implements MetaDataWriteInt
       MetaDocPart docPart, MetaIdentifiedDocPartIndex index) {
     String statement = getAddMetaDocPartIndexStatement(database.getName(), index.getIdentifier(),
         collection.getName(),
-        docPart.getTableRef(), index.isUnique());
+        docPart.getTableRef(), index.isUnique(), index.isSparse());
     sqlHelper.executeUpdate(dsl, statement, Context.META_INSERT);
   }
 
@@ -311,10 +336,11 @@ public abstract class AbstractMetaDataWriteInterface implements MetaDataWriteInt
   }
 
   protected String getAddMetaIndexStatement(String databaseName, String collectionName,
-      String indexName, boolean unique) {
+      String indexName, boolean unique, boolean sparse) {
     String statement = sqlHelper.dsl().insertInto(metaIndexTable)
         .set(metaIndexTable.newRecord()
-            .values(databaseName, collectionName, indexName, unique)).getSQL(ParamType.INLINED);
+            .values(databaseName, collectionName, indexName, unique, sparse))
+        .getSQL(ParamType.INLINED);
     return statement;
   }
 
@@ -337,10 +363,10 @@ public abstract class AbstractMetaDataWriteInterface implements MetaDataWriteInt
 
   protected String getAddMetaDocPartIndexStatement(String databaseName, String indexName,
       String collectionName,
-      TableRef tableRef, boolean unique) {
+      TableRef tableRef, boolean unique, boolean sparse) {
     String statement = sqlHelper.dsl().insertInto(metaDocPartIndexTable)
         .set(metaDocPartIndexTable.newRecord()
-            .values(databaseName, indexName, collectionName, tableRef, unique)).getSQL(
+            .values(databaseName, indexName, collectionName, tableRef, unique, sparse)).getSQL(
         ParamType.INLINED);
     return statement;
   }
@@ -400,11 +426,16 @@ public abstract class AbstractMetaDataWriteInterface implements MetaDataWriteInt
   @Override
   public void deleteMetaDocPartIndex(DSLContext dsl, MetaDatabase database,
       MetaCollection collection, MetaDocPart docPart, MetaIdentifiedDocPartIndex index) {
-    String statement = getCascadeDeleteMetaDocPartIndexColumnStatement(database.getName(),
-        collection.getName(), index.getIdentifier());
+    deleteMetaDocPartIndex(dsl, database.getName(), collection.getName(), index.getIdentifier());
+  }
+
+  @Override
+  public void deleteMetaDocPartIndex(DSLContext dsl, String databaseName, String collectionName,
+      String indexIdentifier) {
+    String statement = getCascadeDeleteMetaDocPartIndexColumnStatement(databaseName,
+        collectionName, indexIdentifier);
     sqlHelper.executeUpdate(dsl, statement, Context.META_DELETE);
-    statement = getDeleteMetaDocPartIndexStatement(database.getName(), collection.getName(), index
-        .getIdentifier());
+    statement = getDeleteMetaDocPartIndexStatement(databaseName, collectionName, indexIdentifier);
     sqlHelper.executeUpdate(dsl, statement, Context.META_DELETE);
   }
 
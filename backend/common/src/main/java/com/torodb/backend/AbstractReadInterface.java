@@ -25,21 +25,31 @@ import com.torodb.backend.d2r.ResultSetDocPartResult;
 import com.torodb.backend.tables.MetaDocPartTable.DocPartTableFields;
 import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
+import com.torodb.core.backend.query.AggregatedColumn;
+import com.torodb.core.backend.query.ColumnDidFilter;
+import com.torodb.core.backend.query.ColumnOrder;
+import com.torodb.core.backend.query.ConstantDidFilter;
+import com.torodb.core.backend.query.DidFilter;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.cursors.EmptyCursor;
 import com.torodb.core.cursors.IteratorCursor;
 import com.torodb.core.d2r.DocPartResult;
+import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
 import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvLong;
 import com.torodb.kvdocument.values.KvValue;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.jooq.DSLContext;
 import org.jooq.lambda.Seq;
 import org.jooq.lambda.Unchecked;
 import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -50,6 +60,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -64,6 +75,9 @@ import javax.inject.Singleton;
 @SuppressFBWarnings("SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING")
 public abstract class AbstractReadInterface implements ReadInterface {
 
+  private static final BigDecimal MIN_LONG = BigDecimal.valueOf(Long.MIN_VALUE);
+  private static final BigDecimal MAX_LONG = BigDecimal.valueOf(Long.MAX_VALUE);
+
   private final MetaDataReadInterface metaDataReadInterface;
   private final DataTypeProvider dataTypeProvider;
   private final ErrorHandler errorHandler;
@@ -330,6 +344,278 @@ public abstract class AbstractReadInterface implements ReadInterface {
   protected abstract String getReadAllCollectionDidsStatement(String schemaName,
       String rootTableName);
 
+  @Override
+  @SuppressFBWarnings(value = {"OBL_UNSATISFIED_OBLIGATION", "ODR_OPEN_DATABASE_RESOURCE"},
+      justification =
+      "ResultSet is wrapped in a Cursor<Integer>. It's iterated and closed in caller code")
+  public Cursor<Integer> getCollectionDidsWithFilter(DSLContext dsl, MetaDatabase metaDatabase,
+      MetaCollection metaCollection, DidFilter filter, List<ColumnOrder> order, long skip,
+      long limit) throws SQLException {
+    MetaDocPart rootDocPart = metaCollection.getMetaDocPartByTableRef(tableRefFactory.createRoot());
+    if (rootDocPart == null || filter == ConstantDidFilter.FALSE) {
+      return new EmptyCursor<>();
+    }
+
+    Tuple3<String, List<Tuple2<FieldType, KvValue<?>>>, List<ColumnDidFilter>> condition =
+        DidFilterSqlTranslator.translate(sqlHelper, metaDatabase.getIdentifier(), rootDocPart,
+            filter, this::appendTextCondition);
+    List<Tuple2<FieldType, KvValue<?>>> parameters = new ArrayList<>(condition.v2);
+    SqlBuilder sb = new SqlBuilder("SELECT ")
+        .quote(DocPartTableFields.DID)
+        .append(" FROM ")
+        .table(metaDatabase.getIdentifier(), rootDocPart.getIdentifier())
+        .append(" WHERE ")
+        .append(condition.v1);
+    if (order.isEmpty() && !condition.v3.isEmpty()) {
+      //documents found by a text search without an explicit sort are returned by relevance
+      appendTextScoreOrder(sb, condition.v3, value -> {
+        sb.append(sqlHelper.getPlaceholder(FieldType.STRING));
+        parameters.add(new Tuple2<>(FieldType.STRING, value));
+      });
+    }
+    appendOrderAndPage(sb, order, skip, limit);
+    String statement = sb.toString();
+    Connection connection = dsl.configuration().connectionProvider().acquire();
+    try {
+      PreparedStatement preparedStatement = connection.prepareStatement(statement);
+      int parameterIndex = 1;
+      for (Tuple2<FieldType, KvValue<?>> parameter : parameters) {
+        sqlHelper.setPreparedStatementValue(preparedStatement, parameterIndex, parameter.v1,
+            parameter.v2);
+        parameterIndex++;
+      }
+      return new DefaultDidCursor(errorHandler, preparedStatement.executeQuery());
+    } finally {
+      dsl.configuration().connectionProvider().release(connection);
+    }
+  }
+
+  @Override
+  @SuppressFBWarnings(value = {"OBL_UNSATISFIED_OBLIGATION", "ODR_OPEN_DATABASE_RESOURCE"},
+      justification =
+      "ResultSet is wrapped in a Cursor<List<KvValue<?>>>. It's iterated and closed in caller code")
+  public Cursor<List<KvValue<?>>> getCollectionGroupsWithFilter(DSLContext dsl,
+      MetaDatabase metaDatabase, MetaCollection metaCollection, DidFilter filter,
+      List<MetaField> groupFields, List<AggregatedColumn> aggregatedColumns)
+      throws SQLException {
+    MetaDocPart rootDocPart = metaCollection.getMetaDocPartByTableRef(tableRefFactory.createRoot());
+    if (rootDocPart == null || filter == ConstantDidFilter.FALSE) {
+      return new EmptyCursor<>();
+    }
+
+    Tuple3<String, List<Tuple2<FieldType, KvValue<?>>>, List<ColumnDidFilter>> condition =
+        DidFilterSqlTranslator.translate(sqlHelper, metaDatabase.getIdentifier(), rootDocPart,
+            filter, this::appendTextCondition);
+    SqlBuilder sb = new SqlBuilder("");
+    String separator = "SELECT ";
+    for (MetaField groupField : groupFields) {
+      sb.append(separator)
+          .quote(groupField.getIdentifier());
+      separator = ", ";
+    }
+    for (AggregatedColumn aggregatedColumn : aggregatedColumns) {
+      sb.append(separator);
+      appendAggregatedColumn(sb, aggregatedColumn);
+      separator = ", ";
+    }
+    sb.append(" FROM ")
+        .table(metaDatabase.getIdentifier(), rootDocPart.getIdentifier())
+        .append(" WHERE ")
+        .append(condition.v1);
+    if (groupFields.isEmpty()) {
+      //without this, an aggregation over no rows would return a group
+      sb.append(" HAVING COUNT(*) > 0");
+    } else {
+      separator = " GROUP BY ";
+      for (MetaField groupField : groupFields) {
+        sb.append(separator)
+            .quote(groupField.getIdentifier());
+        separator = ", ";
+      }
+    }
+    String statement = sb.toString();
+    Connection connection = dsl.configuration().connectionProvider().acquire();
+    try {
+      PreparedStatement preparedStatement = connection.prepareStatement(statement);
+      int parameterIndex = 1;
+      for (Tuple2<FieldType, KvValue<?>> parameter : condition.v2) {
+        sqlHelper.setPreparedStatementValue(preparedStatement, parameterIndex, parameter.v1,
+            parameter.v2);
+        parameterIndex++;
+      }
+      return new AbstractCursor<List<KvValue<?>>>(errorHandler,
+          preparedStatement.executeQuery()) {
+        @Override
+        protected List<KvValue<?>> read(ResultSet resultSet) throws SQLException {
+          List<KvValue<?>> row = new ArrayList<>(groupFields.size() + aggregatedColumns.size());
+          int columnIndex = 1;
+          for (MetaField groupField : groupFields) {
+            row.add(sqlHelper.getResultSetKvValue(groupField.getType(), resultSet, columnIndex));
+            columnIndex++;
+          }
+          for (AggregatedColumn aggregatedColumn : aggregatedColumns) {
+            row.add(readAggregatedColumn(resultSet, columnIndex, aggregatedColumn));
+            columnIndex++;
+          }
+          return row;
+        }
+      };
+    } finally {
+      dsl.configuration().connectionProvider().release(connection);
+    }
+  }
+
+  @Override
+  public Cursor<KvValue<?>> getCollectionDistinctValuesWithFilter(DSLContext dsl,
+      MetaDatabase metaDatabase, MetaCollection metaCollection, DidFilter filter, MetaField field)
+      throws SQLException {
+    MetaDocPart rootDocPart = metaCollection.getMetaDocPartByTableRef(tableRefFactory.createRoot());
+    if (rootDocPart == null || filter == ConstantDidFilter.FALSE) {
+      return new EmptyCursor<>();
+    }
+
+    Tuple3<String, List<Tuple2<FieldType, KvValue<?>>>, List<ColumnDidFilter>> condition =
+        DidFilterSqlTranslator.translate(sqlHelper, metaDatabase.getIdentifier(), rootDocPart,
+            filter, this::appendTextCondition);
+    String statement = new SqlBuilder("SELECT DISTINCT ")
+        .quote(field.getIdentifier())
+        .append(" FROM ")
+        .table(metaDatabase.getIdentifier(), rootDocPart.getIdentifier())
+        .append(" WHERE (")
+        .append(condition.v1)
+        .append(") AND ")
+        .quote(field.getIdentifier())
+        .append(" IS NOT NULL")
+        .toString();
+    Connection connection = dsl.configuration().connectionProvider().acquire();
+    try {
+      PreparedStatement preparedStatement = connection.prepareStatement(statement);
+      int parameterIndex = 1;
+      for (Tuple2<FieldType, KvValue<?>> parameter : condition.v2) {
+        sqlHelper.setPreparedStatementValue(preparedStatement, parameterIndex, parameter.v1,
+            parameter.v2);
+        parameterIndex++;
+      }
+      return new AbstractCursor<KvValue<?>>(errorHandler, preparedStatement.executeQuery()) {
+        @Override
+        protected KvValue<?> read(ResultSet resultSet) throws SQLException {
+          return sqlHelper.getResultSetKvValue(field.getType(), resultSet, 1);
+        }
+      };
+    } finally {
+      dsl.configuration().connectionProvider().release(connection);
+    }
+  }
+
+  private void appendAggregatedColumn(SqlBuilder sb, AggregatedColumn aggregatedColumn) {
+    MetaField field = aggregatedColumn.getField();
+    sb.append(aggregatedColumn.getFunction().name())
+        .append('(');
+    if (field == null) {
+      sb.append('*');
+    } else if (aggregatedColumn.getFunction() == AggregatedColumn.Function.SUM
+        && field.getType() == FieldType.INTEGER) {
+      //some backends sum on the type of the column, so integer sums could overflow
+      sb.append("CAST(")
+          .quote(field.getIdentifier())
+          .append(" AS BIGINT)");
+    } else {
+      sb.quote(field.getIdentifier());
+      if (aggregatedColumn.getFunction() != AggregatedColumn.Function.COUNT) {
+        appendBinaryCollation(sb, field.getType());
+      }
+    }
+    sb.append(')');
+  }
+
+  /**
+   * Appends the collation a column of the given type must be compared with to follow the order
+   * MongoDB uses, which compares strings by their binary representation.
+   *
+   * <p>By default nothing is appended, as the default collation of Derby already compares strings
+   * by the code points of their characters.
+   */
+  protected void appendBinaryCollation(SqlBuilder sb, FieldType type) {
+  }
+
+  private KvValue<?> readAggregatedColumn(ResultSet resultSet, int columnIndex,
+      AggregatedColumn aggregatedColumn) throws SQLException {
+    MetaField field = aggregatedColumn.getField();
+    switch (aggregatedColumn.getFunction()) {
+      case COUNT:
+        return KvLong.of(resultSet.getLong(columnIndex));
+      case SUM: {
+        assert field != null;
+        if (field.getType() == FieldType.DOUBLE) {
+          double sum = resultSet.getDouble(columnIndex);
+          return resultSet.wasNull() ? null : KvDouble.of(sum);
+        }
+        BigDecimal sum = resultSet.getBigDecimal(columnIndex);
+        if (sum == null) {
+          return null;
+        }
+        if (sum.compareTo(MIN_LONG) < 0 || sum.compareTo(MAX_LONG) > 0) {
+          return KvDouble.of(sum.doubleValue());
+        }
+        return KvLong.of(sum.longValue());
+      }
+      default:
+        assert field != null;
+        return sqlHelper.getResultSetKvValue(field.getType(), resultSet, columnIndex);
+    }
+  }
+
+  /**
+   * Appends the condition of a {@link ColumnDidFilter.Operator#TEXT_ANY} or a
+   * {@link ColumnDidFilter.Operator#TEXT_PHRASE} filter on a string column.
+   *
+   * @param parameterAppender appends a placeholder for the given string value to the condition
+   */
+  protected abstract void appendTextCondition(SqlBuilder sb, ColumnDidFilter filter,
+      Consumer<KvValue<?>> parameterAppender);
+
+  /**
+   * Appends an ORDER BY clause that sorts the rows of a root doc part from the most to the least
+   * relevant for the given text search filters.
+   *
+   * <p>By default nothing is appended, so backends that cannot rank text searches return the
+   * documents in no particular order.
+   *
+   * @param parameterAppender appends a placeholder for the given string value to the clause
+   */
+  protected void appendTextScoreOrder(SqlBuilder sb, List<ColumnDidFilter> textFilters,
+      Consumer<KvValue<?>> parameterAppender) {
+  }
+
+  /**
+   * Appends the ORDER BY and the paging clauses of a did selection.
+   *
+   * <p>Nulls are sorted the way MongoDB sorts missing attributes, which is also the way indexes
+   * on doc part columns are created, so the database can read the first rows of the index instead
+   * of sorting the whole table.
+   */
+  protected void appendOrderAndPage(SqlBuilder sb, List<ColumnOrder> order, long skip,
+      long limit) {
+    String separator = " ORDER BY ";
+    for (ColumnOrder columnOrder : order) {
+      sb.append(separator)
+          .quote(columnOrder.getColumnIdentifier());
+      appendBinaryCollation(sb, columnOrder.getType());
+      sb.append(columnOrder.isAscending() ? " ASC NULLS FIRST" : " DESC NULLS LAST");
+      separator = ", ";
+    }
+    if (skip > 0) {
+      sb.append(" OFFSET ")
+          .append(Long.toString(skip))
+          .append(" ROWS");
+    }
+    if (limit > 0) {
+      sb.append(" FETCH FIRST ")
+          .append(Long.toString(limit))
+          .append(" ROWS ONLY");
+    }
+  }
+
   @Override
   public long countAll(
       @Nonnull DSLContext dsl,
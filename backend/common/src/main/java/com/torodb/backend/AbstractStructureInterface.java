@@ -27,6 +27,7 @@ import com.torodb.core.TableRef;
 import com.torodb.core.backend.IdentifierConstraints;
 import com.torodb.core.exceptions.InvalidDatabaseException;
 import com.torodb.core.exceptions.user.UserException;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
@@ -126,6 +127,9 @@ public abstract class AbstractStructureInterface implements StructureInterface {
           .streamIndexes().iterator();
       while (metaDocPartIndexIterator.hasNext()) {
         MetaIdentifiedDocPartIndex fromMetaIndex = metaDocPartIndexIterator.next();
+        if (!createsIndex(getOrderings(fromMetaIndex))) {
+          continue;
+        }
         MetaIdentifiedDocPartIndex toMetaIndex = toMetaDocPart.streamIndexes()
             .filter(index -> index.hasSameColumns(fromMetaIndex))
             .findAny()
@@ -144,6 +148,12 @@ public abstract class AbstractStructureInterface implements StructureInterface {
     }
   }
 
+  private List<FieldIndexOrdering> getOrderings(MetaIdentifiedDocPartIndex docPartIndex) {
+    List<FieldIndexOrdering> orderings = new ArrayList<>(docPartIndex.size());
+    docPartIndex.iteratorColumns().forEachRemaining(column -> orderings.add(column.getOrdering()));
+    return orderings;
+  }
+
   protected abstract String getRenameTableStatement(String fromSchemaName, String fromTableName,
       String toTableName);
 
@@ -155,13 +165,18 @@ public abstract class AbstractStructureInterface implements StructureInterface {
 
   @Override
   public void createIndex(DSLContext dsl, String indexName, String schemaName, String tableName,
-      List<Tuple2<String, Boolean>> columnList, boolean unique)
+      List<Tuple2<String, FieldIndexOrdering>> columnList, boolean unique, boolean sparse)
       throws UserException {
     if (!dbBackend.isOnDataInsertMode(schemaName)) {
       Preconditions.checkArgument(!columnList.isEmpty(), "Can not create index on 0 columns");
+      if (!createsIndex(columnList.stream()
+          .map(Tuple2::v2)
+          .collect(Collectors.toList()))) {
+        return;
+      }
 
       String statement = getCreateIndexStatement(indexName, schemaName, tableName, columnList,
-          unique);
+          unique, sparse);
 
       sqlHelper.executeUpdateOrThrow(dsl, statement, unique ? Context.ADD_UNIQUE_INDEX :
           Context.CREATE_INDEX);
@@ -169,7 +184,8 @@ public abstract class AbstractStructureInterface implements StructureInterface {
   }
 
   protected abstract String getCreateIndexStatement(String indexName, String schemaName,
-      String tableName, List<Tuple2<String, Boolean>> columnList, boolean unique);
+      String tableName, List<Tuple2<String, FieldIndexOrdering>> columnList, boolean unique,
+      boolean sparse);
 
   @Override
   public void dropIndex(DSLContext dsl, String schemaName, String indexName) {
@@ -263,21 +279,35 @@ public abstract class AbstractStructureInterface implements StructureInterface {
   @Override
   public void createRootDocPartTable(DSLContext dsl, String schemaName, String tableName,
       TableRef tableRef) {
+    createRootDocPartTable(dsl, schemaName, tableName, tableRef, Collections.emptyList());
+  }
+
+  @Override
+  public void createRootDocPartTable(DSLContext dsl, String schemaName, String tableName,
+      TableRef tableRef, List<Tuple2<String, DataTypeForKv<?>>> columns) {
     String statement = getCreateDocPartTableStatement(schemaName, tableName, metaDataReadInterface
-        .getInternalFields(tableRef));
+        .getInternalFields(tableRef), columns);
     sqlHelper.executeStatement(dsl, statement, Context.CREATE_TABLE);
   }
 
   @Override
   public void createDocPartTable(DSLContext dsl, String schemaName, String tableName,
       TableRef tableRef, String foreignTableName) {
+    createDocPartTable(dsl, schemaName, tableName, tableRef, foreignTableName,
+        Collections.emptyList());
+  }
+
+  @Override
+  public void createDocPartTable(DSLContext dsl, String schemaName, String tableName,
+      TableRef tableRef, String foreignTableName,
+      List<Tuple2<String, DataTypeForKv<?>>> columns) {
     String statement = getCreateDocPartTableStatement(schemaName, tableName, metaDataReadInterface
-        .getInternalFields(tableRef));
+        .getInternalFields(tableRef), columns);
     sqlHelper.executeStatement(dsl, statement, Context.CREATE_TABLE);
   }
 
   protected abstract String getCreateDocPartTableStatement(String schemaName, String tableName,
-      Collection<InternalField<?>> fields);
+      Collection<InternalField<?>> fields, List<Tuple2<String, DataTypeForKv<?>>> columns);
 
   @Override
   public Stream<Function<DSLContext, String>> streamRootDocPartTableIndexesCreation(
@@ -374,4 +404,29 @@ public abstract class AbstractStructureInterface implements StructureInterface {
 
   protected abstract String getAddColumnToDocPartTableStatement(String schemaName, String tableName,
       String columnName, DataTypeForKv<?> dataType);
+
+  @Override
+  public void addColumnsToDocPartTable(DSLContext dsl, String schemaName, String tableName,
+      List<Tuple2<String, DataTypeForKv<?>>> columns) {
+    for (String statement : getAddColumnsToDocPartTableStatements(schemaName, tableName,
+        columns)) {
+      sqlHelper.executeStatement(dsl, statement, Context.ADD_COLUMN);
+    }
+  }
+
+  /**
+   * Returns the statements that add the given columns to a doc part table.
+   *
+   * <p>By default a statement is returned for each column. Backends that support several
+   * {@code ADD COLUMN} clauses on the same {@code ALTER TABLE} should override it.
+   */
+  protected List<String> getAddColumnsToDocPartTableStatements(String schemaName,
+      String tableName, List<Tuple2<String, DataTypeForKv<?>>> columns) {
+    List<String> statements = new ArrayList<>(columns.size());
+    for (Tuple2<String, DataTypeForKv<?>> column : columns) {
+      statements.add(getAddColumnToDocPartTableStatement(schemaName, tableName, column.v1(),
+          column.v2()));
+    }
+    return statements;
+  }
 }
@@ -18,7 +18,10 @@
 
 package com.torodb.backend;
 
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
 import com.torodb.backend.ErrorHandler.Context;
+import com.torodb.backend.tables.MetaDocPartTable.DocPartTableFields;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.d2r.DocPartRow;
@@ -36,6 +39,7 @@ import org.jooq.exception.DataAccessException;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -117,6 +121,96 @@ public abstract class AbstractWriteInterface implements WriteInterface {
     }
   }
 
+  @Override
+  public List<KvValue<?>> deleteCollectionDocPartsByRootField(@Nonnull DSLContext dsl,
+      @Nonnull String schemaName, @Nonnull MetaCollection metaCollection,
+      @Nonnull MetaDocPart rootDocPart, @Nonnull MetaField metaField,
+      @Nonnull Collection<KvValue<?>> values) {
+    Preconditions.checkArgument(rootDocPart.getTableRef().isRoot(),
+        "Only fields of the root doc part can be used to delete documents");
+    List<KvValue<?>> deletedValues = new ArrayList<>(values.size());
+    if (values.isEmpty()) {
+      return deletedValues;
+    }
+
+    Connection c = dsl.configuration().connectionProvider().acquire();
+    try {
+      for (List<KvValue<?>> batch : Iterables.partition(values, getMaxDeleteByFieldBatchSize())) {
+        deleteCollectionDocPartsByRootField(c, schemaName, metaCollection, rootDocPart, metaField,
+            batch, deletedValues);
+      }
+      return deletedValues;
+    } catch (SQLException ex) {
+      throw errorHandler.handleException(Context.DELETE, ex);
+    } finally {
+      dsl.configuration().connectionProvider().release(c);
+    }
+  }
+
+  protected int getMaxDeleteByFieldBatchSize() {
+    return 500;
+  }
+
+  /**
+   * Deletes the documents whose root row contains one of the given values and adds the values of
+   * the deleted documents to the given list.
+   *
+   * This implementation reads the dids of the matching documents and then deletes them from each
+   * doc part. Backends that can delete and return the affected rows in a single statement should
+   * override it.
+   */
+  protected void deleteCollectionDocPartsByRootField(Connection c, String schemaName,
+      MetaCollection metaCollection, MetaDocPart rootDocPart, MetaField metaField,
+      List<KvValue<?>> values, List<KvValue<?>> deletedValues) throws SQLException {
+    String statement = getReadRootDidsWithFieldInStatement(schemaName,
+        rootDocPart.getIdentifier(), metaField.getIdentifier(), values.size());
+    List<Integer> dids = new ArrayList<>(values.size());
+    try (PreparedStatement preparedStatement = c.prepareStatement(statement)) {
+      setFieldValues(preparedStatement, metaField, values);
+      try (ResultSet resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) {
+          dids.add(resultSet.getInt(1));
+          deletedValues.add(sqlHelper.getResultSetKvValue(metaField.getType(), resultSet, 2));
+        }
+      }
+    }
+
+    if (!dids.isEmpty()) {
+      deleteCollectionDocParts(c, schemaName, metaCollection, dids);
+    }
+  }
+
+  protected void setFieldValues(PreparedStatement preparedStatement, MetaField metaField,
+      List<KvValue<?>> values) throws SQLException {
+    int parameterIndex = 1;
+    for (KvValue<?> value : values) {
+      sqlHelper.setPreparedStatementValue(preparedStatement, parameterIndex, metaField.getType(),
+          value);
+      parameterIndex++;
+    }
+  }
+
+  private String getReadRootDidsWithFieldInStatement(String schemaName, String rootTableName,
+      String columnName, int valuesCount) {
+    StringBuilder sb = new StringBuilder()
+        .append("SELECT \"")
+        .append(DocPartTableFields.DID.fieldName)
+        .append("\",\"")
+        .append(columnName)
+        .append("\" FROM \"")
+        .append(schemaName)
+        .append("\".\"")
+        .append(rootTableName)
+        .append("\" WHERE \"")
+        .append(columnName)
+        .append("\" IN (");
+    for (int index = 0; index < valuesCount; index++) {
+      sb.append("?,");
+    }
+    sb.setCharAt(sb.length() - 1, ')');
+    return sb.toString();
+  }
+
   protected abstract String getDeleteDocPartsStatement(String schemaName, String tableName,
       Collection<Integer> dids);
 
@@ -19,6 +19,7 @@
 package com.torodb.backend;
 
 import com.google.common.base.Preconditions;
+import com.torodb.backend.BackendServiceImpl.BackgroundIndexBuild;
 import com.torodb.backend.meta.SchemaUpdater;
 import com.torodb.core.TableRefFactory;
 import com.torodb.core.backend.BackendConnection;
@@ -30,6 +31,8 @@ import com.torodb.core.d2r.IdentifierFactory;
 import com.torodb.core.d2r.ReservedIdGenerator;
 import org.apache.logging.log4j.Logger;
 
+import java.util.List;
+
 /**
  *
  */
@@ -101,6 +104,10 @@ public class BackendConnectionImpl implements BackendConnection {
     return backend.getSchemaUpdater();
   }
 
+  void buildIndexesInBackground(List<BackgroundIndexBuild> builds) {
+    backend.buildIndexesInBackground(builds);
+  }
+
   @Override
   public void close() {
     if (!closed) {
@@ -18,6 +18,7 @@
 
 package com.torodb.backend;
 
+import com.codahale.metrics.Timer;
 import com.torodb.backend.ErrorHandler.Context;
 import com.torodb.backend.meta.SchemaUpdater;
 import com.torodb.common.util.Empty;
@@ -37,6 +38,7 @@ import com.torodb.core.retrier.Retrier.Hint;
 import com.torodb.core.retrier.RetrierGiveUpException;
 import com.torodb.core.services.IdleTorodbService;
 import com.torodb.core.transaction.RollbackException;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
@@ -44,19 +46,26 @@ import com.torodb.core.transaction.metainf.MetaDocPartIndexColumn;
 import com.torodb.core.transaction.metainf.MetaIdentifiedDocPartIndex;
 import org.apache.logging.log4j.Logger;
 import org.jooq.DSLContext;
+import org.jooq.exception.DataAccessException;
 import org.jooq.lambda.tuple.Tuple2;
 
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadFactory;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 
 public class BackendServiceImpl extends IdleTorodbService implements BackendService {
@@ -72,6 +81,9 @@ public class BackendServiceImpl extends IdleTorodbService implements BackendServ
   private final TableRefFactory tableRefFactory;
   private final IdentifierFactory identifierFactory;
   private final SchemaUpdater schemaUpdater;
+  private final DataImportMetrics metrics;
+  private final IndexBuildMetrics indexBuildMetrics;
+  private final int finishTaskParallelism;
 
   /**
    * @param threadFactory the thread factory that will be used to create the startup and shutdown
@@ -83,19 +95,23 @@ public class BackendServiceImpl extends IdleTorodbService implements BackendServ
       SqlInterface sqlInterface, TableRefFactory tableRefFactory,
       IdentifierFactory identifierFactory, Retrier retrier,
       ConcurrentToolsFactory concurrentToolsFactory,
-      KvMetainfoHandler metainfoHandler, SchemaUpdater schemaUpdater) {
+      KvMetainfoHandler metainfoHandler, SchemaUpdater schemaUpdater,
+      DataImportMetrics metrics, IndexBuildMetrics indexBuildMetrics) {
     super(threadFactory);
 
     this.dbBackendService = dbBackendService;
     this.sqlInterface = sqlInterface;
     this.ridGenerator = ridGenerator;
     this.retrier = retrier;
+    this.finishTaskParallelism = concurrentToolsFactory.getDefaultMaxThreads();
     this.streamExecutor = concurrentToolsFactory.createStreamExecutor(
-        LOGGER, "backend-inner-jobs", true);
+        LOGGER, "backend-inner-jobs", true, finishTaskParallelism);
     this.metainfoHandler = metainfoHandler;
     this.tableRefFactory = tableRefFactory;
     this.identifierFactory = identifierFactory;
     this.schemaUpdater = schemaUpdater;
+    this.metrics = metrics;
+    this.indexBuildMetrics = indexBuildMetrics;
   }
 
   @Override
@@ -116,39 +132,116 @@ public class BackendServiceImpl extends IdleTorodbService implements BackendServ
   @Override
   public CompletableFuture<Empty> disableDataImportMode(MetaDatabase db)
       throws RollbackException {
-    if (!sqlInterface.getDbBackend().isOnDataInsertMode(db)) {
-      LOGGER.debug("Ignoring attempt to disable import mode on {} as it is not on that mode",
-          db.getIdentifier());
+    return disableDataImportMode(Collections.singletonList(db));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The indexes of all the given databases are created together, starting with the ones whose
+   * tables are bigger, so the slowest builds do not end up running alone at the end. Backend
+   * specific tasks are scheduled once all indexes have been scheduled.
+   */
+  @Override
+  public CompletableFuture<Empty> disableDataImportMode(
+      Collection<? extends MetaDatabase> dbs) throws RollbackException {
+    List<FinishTask> indexTasks = new ArrayList<>();
+    List<FinishTask> backendSpecificTasks = new ArrayList<>();
+    for (MetaDatabase db : dbs) {
+      if (!sqlInterface.getDbBackend().isOnDataInsertMode(db)) {
+        LOGGER.debug("Ignoring attempt to disable import mode on {} as it is not on that mode",
+            db.getIdentifier());
+        continue;
+      }
+      sqlInterface.getDbBackend().disableDataInsertMode(db);
+
+      db.streamMetaCollections().forEach(col -> col.streamContainedMetaDocParts()
+          .forEach(docPart -> {
+            //create internal indexes
+            enableInternalIndexJobs(db, col, docPart)
+                .map(job -> new FinishTask(db, docPart, job))
+                .forEach(indexTasks::add);
+            //create indexes
+            enableIndexJobs(db, docPart)
+                .map(job -> new FinishTask(db, docPart, job))
+                .forEach(indexTasks::add);
+          })
+      );
+
+      //backend specific jobs
+      sqlInterface.getStructureInterface().streamDataInsertFinishTasks(db)
+          .map(job -> {
+            return (Consumer<DSLContext>) dsl -> {
+              String index = job.apply(dsl);
+              LOGGER.info("Task {} completed", index);
+            };
+          })
+          .map(FinishTask::new)
+          .forEach(backendSpecificTasks::add);
+    }
+
+    if (indexTasks.isEmpty() && backendSpecificTasks.isEmpty()) {
       return CompletableFuture.completedFuture(Empty.getInstance());
     }
-    sqlInterface.getDbBackend().disableDataInsertMode(db);
-
-    //create internal indexes
-    Stream<Consumer<DSLContext>> createInternalIndexesJobs = db.streamMetaCollections().flatMap(
-        col -> col.streamContainedMetaDocParts().flatMap(
-            docPart -> enableInternalIndexJobs(db, col, docPart)
-        )
-    );
-
-    //create indexes
-    Stream<Consumer<DSLContext>> createIndexesJobs = db.streamMetaCollections().flatMap(
-        col -> enableIndexJobs(db, col)
-    );
-
-    //backend specific jobs
-    Stream<Consumer<DSLContext>> backendSpecificJobs = sqlInterface.getStructureInterface()
-        .streamDataInsertFinishTasks(db).map(job -> {
-          return (Consumer<DSLContext>) dsl -> {
-            String index = job.apply(dsl);
-            LOGGER.info("Task {} completed", index);
-          };
-        });
-    Stream<Consumer<DSLContext>> jobs = Stream
-        .concat(createInternalIndexesJobs, createIndexesJobs);
-    jobs = Stream.concat(jobs, backendSpecificJobs);
-    Stream<Runnable> runnables = jobs.map(this::dslConsumerToRunnable);
-
-    return streamExecutor.executeRunnables(runnables);
+
+    estimateTableSizes(indexTasks);
+    indexTasks.sort(Comparator.comparingLong((FinishTask task) -> task.tableSize).reversed());
+
+    List<FinishTask> tasks = new ArrayList<>(indexTasks.size() + backendSpecificTasks.size());
+    tasks.addAll(indexTasks);
+    tasks.addAll(backendSpecificTasks);
+
+    metrics.getPendingFinishTasks().inc(tasks.size());
+    metrics.getPendingFinishBytes().inc(tasks.stream().mapToLong(task -> task.tableSize).sum());
+    LOGGER.info("Executing {} tasks to finish the data import mode on {} databases",
+        tasks.size(), dbs.size());
+
+    return streamExecutor.executeRunnables(tasks.stream().map(this::finishTaskToRunnable));
+  }
+
+  /**
+   * Sets the table size of the given tasks, using the estimation provided by the backend.
+   *
+   * <p>The estimation is only used to schedule the tasks, so any error is logged and ignored.
+   */
+  private void estimateTableSizes(List<FinishTask> tasks) {
+    StructureInterface structureInterface = sqlInterface.getStructureInterface();
+    Map<Tuple2<String, String>, Long> sizeByTable = new HashMap<>();
+    try (Connection connection = sqlInterface.getDbBackend().createReadOnlyConnection()) {
+      DSLContext dsl = sqlInterface.getDslContextFactory().createDslContext(connection);
+      for (FinishTask task : tasks) {
+        Tuple2<String, String> table = new Tuple2<>(task.schemaName, task.tableName);
+        Long size = sizeByTable.get(table);
+        if (size == null) {
+          size = structureInterface.estimateTableSize(dsl, task.schemaName, task.tableName);
+          sizeByTable.put(table, size);
+        }
+        task.tableSize = size;
+      }
+    } catch (SQLException | DataAccessException ex) {
+      LOGGER.warn("Error while estimating the size of the imported tables. Index creation "
+          + "will not be sorted by table size", ex);
+    }
+  }
+
+  private Runnable finishTaskToRunnable(FinishTask task) {
+    Runnable runnable = dslConsumerToRunnable(dsl -> {
+      sqlInterface.getStructureInterface().prepareDataInsertFinishTask(
+          dsl, task.tableSize, finishTaskParallelism);
+      task.job.accept(dsl);
+    });
+    return () -> {
+      try (Timer.Context ctx = metrics.getFinishTaskTimer().time()) {
+        runnable.run();
+        metrics.getFinishedTasks().mark();
+      } catch (RuntimeException ex) {
+        metrics.getFailedTasks().mark();
+        throw ex;
+      } finally {
+        metrics.getPendingFinishTasks().dec();
+        metrics.getPendingFinishBytes().dec(task.tableSize);
+      }
+    };
   }
 
   private Stream<Consumer<DSLContext>> enableInternalIndexJobs(MetaDatabase db, MetaCollection col,
@@ -184,20 +277,15 @@ public class BackendServiceImpl extends IdleTorodbService implements BackendServ
     });
   }
 
-  private Stream<Consumer<DSLContext>> enableIndexJobs(MetaDatabase db, MetaCollection col) {
+  private Stream<Consumer<DSLContext>> enableIndexJobs(MetaDatabase db, MetaDocPart docPart) {
     List<Consumer<DSLContext>> consumerList = new ArrayList<>();
 
-    Iterator<? extends MetaDocPart> docPartIterator = col.streamContainedMetaDocParts().iterator();
-    while (docPartIterator.hasNext()) {
-      MetaDocPart docPart = docPartIterator.next();
+    Iterator<? extends MetaIdentifiedDocPartIndex> docPartIndexIterator = docPart.streamIndexes()
+        .iterator();
+    while (docPartIndexIterator.hasNext()) {
+      MetaIdentifiedDocPartIndex docPartIndex = docPartIndexIterator.next();
 
-      Iterator<? extends MetaIdentifiedDocPartIndex> docPartIndexIterator = docPart.streamIndexes()
-          .iterator();
-      while (docPartIndexIterator.hasNext()) {
-        MetaIdentifiedDocPartIndex docPartIndex = docPartIndexIterator.next();
-
-        consumerList.add(createIndexJob(db, docPart, docPartIndex));
-      }
+      consumerList.add(createIndexJob(db, docPart, docPartIndex));
     }
 
     return consumerList.stream();
@@ -206,19 +294,18 @@ public class BackendServiceImpl extends IdleTorodbService implements BackendServ
   private Consumer<DSLContext> createIndexJob(MetaDatabase db, MetaDocPart docPart,
       MetaIdentifiedDocPartIndex docPartIndex) {
     return dsl -> {
-      List<Tuple2<String, Boolean>> columnList = new ArrayList<>(docPartIndex.size());
+      List<Tuple2<String, FieldIndexOrdering>> columnList = new ArrayList<>(docPartIndex.size());
       for (Iterator<? extends MetaDocPartIndexColumn> indexColumnIterator = docPartIndex
           .iteratorColumns(); indexColumnIterator.hasNext();) {
         MetaDocPartIndexColumn indexColumn = indexColumnIterator.next();
-        columnList.add(new Tuple2<>(indexColumn.getIdentifier(), indexColumn.getOrdering()
-            .isAscending()));
+        columnList.add(new Tuple2<>(indexColumn.getIdentifier(), indexColumn.getOrdering()));
       }
 
       try {
         sqlInterface.getStructureInterface().createIndex(
             dsl, docPartIndex.getIdentifier(), db.getIdentifier(), docPart.getIdentifier(),
             columnList,
-            docPartIndex.isUnique());
+            docPartIndex.isUnique(), docPartIndex.isSparse());
       } catch (UserException userException) {
         throw new SystemException(userException);
       }
@@ -248,6 +335,65 @@ public class BackendServiceImpl extends IdleTorodbService implements BackendServ
     };
   }
 
+  /**
+   * Builds the given indexes without blocking the writes on their tables.
+   *
+   * <p>Each index is built on its own connection on auto commit mode, as some backends can not
+   * build indexes concurrently inside a transaction. Failures are logged and reported on the
+   * {@link IndexBuildMetrics}, and the metadata of the failed index is removed.
+   */
+  void buildIndexesInBackground(List<BackgroundIndexBuild> builds) {
+    indexBuildMetrics.getBuildingIndexes().inc(builds.size());
+    streamExecutor.executeRunnables(builds.stream().map(this::backgroundIndexBuildToRunnable));
+  }
+
+  private Runnable backgroundIndexBuildToRunnable(BackgroundIndexBuild build) {
+    return () -> {
+      try (Timer.Context ctx = indexBuildMetrics.getBuildTimer().time();
+          Connection connection = sqlInterface.getDbBackend().createWriteConnection()) {
+        connection.setAutoCommit(true);
+        DSLContext dsl = sqlInterface.getDslContextFactory().createDslContext(connection);
+
+        sqlInterface.getStructureInterface().createIndexConcurrently(dsl, build.indexName,
+            build.schemaName, build.tableName, build.columnList, build.unique, build.sparse);
+        indexBuildMetrics.getFinishedBuilds().mark();
+        LOGGER.info("Built index {} for table {} in background", build.indexName,
+            build.tableName);
+      } catch (SQLException | UserException | RuntimeException ex) {
+        indexBuildMetrics.getFailedBuilds().mark();
+        LOGGER.error("Error while building index " + build.indexName + " for table "
+            + build.tableName + " in background", ex);
+        removeFailedIndex(build);
+      } finally {
+        indexBuildMetrics.getBuildingIndexes().dec();
+      }
+    };
+  }
+
+  /**
+   * Removes the doc part index metadata of a failed background build, so the index is not
+   * expected to exist when the metadata is loaded again.
+   *
+   * <p>The in memory metadata still contains the doc part index until the backend is restarted.
+   * As the drop of a missing index is ignored, the logical index can be dropped and created again
+   * meanwhile.
+   */
+  private void removeFailedIndex(BackgroundIndexBuild build) {
+    try (Connection connection = sqlInterface.getDbBackend().createWriteConnection()) {
+      DSLContext dsl = sqlInterface.getDslContextFactory().createDslContext(connection);
+
+      sqlInterface.getStructureInterface().dropIndex(dsl, build.schemaName, build.indexName);
+      sqlInterface.getMetaDataWriteInterface().deleteMetaDocPartIndex(dsl, build.databaseName,
+          build.collectionName, build.indexName);
+      connection.commit();
+      LOGGER.info("Removed the metadata of index {} for table {}", build.indexName,
+          build.tableName);
+    } catch (SQLException | RuntimeException ex) {
+      LOGGER.error("Error while removing the metadata of index " + build.indexName
+          + " for table " + build.tableName + ". It will be removed on the next start", ex);
+    }
+  }
+
   @Override
   protected void startUp() throws Exception {
     LOGGER.debug("Starting backend...");
@@ -270,6 +416,59 @@ public class BackendServiceImpl extends IdleTorodbService implements BackendServ
   void onConnectionClosed(BackendConnectionImpl connection) {
   }
 
+  /**
+   * A task that must be executed once the data import mode finishes.
+   */
+  private static class FinishTask {
+
+    @Nullable
+    private final String schemaName;
+    @Nullable
+    private final String tableName;
+    private final Consumer<DSLContext> job;
+    private long tableSize;
+
+    public FinishTask(MetaDatabase db, MetaDocPart docPart, Consumer<DSLContext> job) {
+      this.schemaName = db.getIdentifier();
+      this.tableName = docPart.getIdentifier();
+      this.job = job;
+    }
+
+    public FinishTask(Consumer<DSLContext> job) {
+      this.schemaName = null;
+      this.tableName = null;
+      this.job = job;
+    }
+  }
+
+  /**
+   * A physical index whose metadata has been committed, but that has not been built yet.
+   */
+  static class BackgroundIndexBuild {
+
+    private final String databaseName;
+    private final String collectionName;
+    private final String schemaName;
+    private final String tableName;
+    private final String indexName;
+    private final List<Tuple2<String, FieldIndexOrdering>> columnList;
+    private final boolean unique;
+    private final boolean sparse;
+
+    BackgroundIndexBuild(String databaseName, String collectionName, String schemaName,
+        String tableName, String indexName, List<Tuple2<String, FieldIndexOrdering>> columnList,
+        boolean unique, boolean sparse) {
+      this.databaseName = databaseName;
+      this.collectionName = collectionName;
+      this.schemaName = schemaName;
+      this.tableName = tableName;
+      this.indexName = indexName;
+      this.columnList = columnList;
+      this.unique = unique;
+      this.sparse = sparse;
+    }
+  }
+
   KvMetainfoHandler getMetaInfoHandler() {
     return metainfoHandler;
   }
@@ -24,6 +24,9 @@ import com.torodb.core.backend.BackendCursor;
 import com.torodb.core.backend.BackendTransaction;
 import com.torodb.core.backend.EmptyBackendCursor;
 import com.torodb.core.backend.MetaInfoKey;
+import com.torodb.core.backend.query.AggregatedColumn;
+import com.torodb.core.backend.query.ColumnOrder;
+import com.torodb.core.backend.query.DidFilter;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.cursors.EmptyCursor;
 import com.torodb.core.exceptions.InvalidDatabaseException;
@@ -37,6 +40,7 @@ import org.jooq.lambda.tuple.Tuple2;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -120,6 +124,40 @@ public abstract class BackendTransactionImpl implements BackendTransaction {
     }
   }
 
+  @Override
+  public BackendCursor findByFilter(MetaDatabase db, MetaCollection col, DidFilter filter,
+      List<ColumnOrder> order, long skip, long limit) {
+    try {
+      Cursor<Integer> dids = sqlInterface.getReadInterface().getCollectionDidsWithFilter(dsl, db,
+          col, filter, order, skip, limit);
+      return new LazyBackendCursor(sqlInterface, dids, dsl, db, col);
+    } catch (SQLException ex) {
+      throw sqlInterface.getErrorHandler().handleException(Context.FETCH, ex);
+    }
+  }
+
+  @Override
+  public Cursor<List<KvValue<?>>> groupByFilter(MetaDatabase db, MetaCollection col,
+      DidFilter filter, List<MetaField> groupFields, List<AggregatedColumn> aggregatedColumns) {
+    try {
+      return sqlInterface.getReadInterface().getCollectionGroupsWithFilter(dsl, db, col, filter,
+          groupFields, aggregatedColumns);
+    } catch (SQLException ex) {
+      throw sqlInterface.getErrorHandler().handleException(Context.FETCH, ex);
+    }
+  }
+
+  @Override
+  public Cursor<KvValue<?>> findDistinctByFilter(MetaDatabase db, MetaCollection col,
+      DidFilter filter, MetaField field) {
+    try {
+      return sqlInterface.getReadInterface().getCollectionDistinctValuesWithFilter(dsl, db, col,
+          filter, field);
+    } catch (SQLException ex) {
+      throw sqlInterface.getErrorHandler().handleException(Context.FETCH, ex);
+    }
+  }
+
   @Override
   public BackendCursor findByFieldIn(MetaDatabase db, MetaCollection col, MetaDocPart docPart,
       Multimap<MetaField, KvValue<?>> valuesMultimap) {
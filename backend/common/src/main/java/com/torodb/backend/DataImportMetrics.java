@@ -0,0 +1,71 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.backend;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.torodb.core.metrics.ToroMetricRegistry;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Metrics that report the progress of the tasks (like index creations) executed once the data
+ * import mode finishes.
+ */
+@Singleton
+public final class DataImportMetrics {
+
+  private final Counter pendingFinishTasks;
+  private final Counter pendingFinishBytes;
+  private final Meter finishedTasks;
+  private final Meter failedTasks;
+  private final Timer finishTaskTimer;
+
+  @Inject
+  public DataImportMetrics(ToroMetricRegistry parentRegistry) {
+    ToroMetricRegistry registry = parentRegistry.createSubRegistry("DataImport");
+    pendingFinishTasks = registry.counter("pendingFinishTasks");
+    pendingFinishBytes = registry.counter("pendingFinishBytes");
+    finishedTasks = registry.meter("finishedTasks");
+    failedTasks = registry.meter("failedTasks");
+    finishTaskTimer = registry.timer("finishTaskTimer");
+  }
+
+  public Counter getPendingFinishTasks() {
+    return pendingFinishTasks;
+  }
+
+  public Counter getPendingFinishBytes() {
+    return pendingFinishBytes;
+  }
+
+  public Meter getFinishedTasks() {
+    return finishedTasks;
+  }
+
+  public Meter getFailedTasks() {
+    return failedTasks;
+  }
+
+  public Timer getFinishTaskTimer() {
+    return finishTaskTimer;
+  }
+
+}
@@ -0,0 +1,214 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.backend;
+
+import com.torodb.backend.tables.MetaDocPartTable.DocPartTableFields;
+import com.torodb.core.backend.query.AndDidFilter;
+import com.torodb.core.backend.query.ColumnDidFilter;
+import com.torodb.core.backend.query.ConstantDidFilter;
+import com.torodb.core.backend.query.DidFilter;
+import com.torodb.core.backend.query.DidFilterVisitor;
+import com.torodb.core.backend.query.NotDidFilter;
+import com.torodb.core.backend.query.OrDidFilter;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.kvdocument.values.KvValue;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Translates a {@link DidFilter} to a SQL condition over the root doc part table of a collection.
+ *
+ * <p>Conditions on the root doc part are evaluated on the root row, while conditions on other doc
+ * parts are translated to semi joins on the did. Conditions on nullable root columns are written
+ * so they are never evaluated to {@code NULL}, which means negations keep the documents that do
+ * not have the column.
+ */
+class DidFilterSqlTranslator implements DidFilterVisitor<Void, SqlBuilder> {
+
+  private final SqlHelper sqlHelper;
+  private final String schemaName;
+  private final MetaDocPart rootDocPart;
+  private final TextConditionWriter textConditionWriter;
+  private final List<Tuple2<FieldType, KvValue<?>>> parameters = new ArrayList<>();
+  private final List<ColumnDidFilter> rootTextFilters = new ArrayList<>();
+  private int negations = 0;
+
+  private DidFilterSqlTranslator(SqlHelper sqlHelper, String schemaName, MetaDocPart rootDocPart,
+      TextConditionWriter textConditionWriter) {
+    this.sqlHelper = sqlHelper;
+    this.schemaName = schemaName;
+    this.rootDocPart = rootDocPart;
+    this.textConditionWriter = textConditionWriter;
+  }
+
+  /**
+   * Returns the condition, the values of its parameters, in the order they must be set, and the
+   * text search filters on the root doc part that are not negated, which can be used to rank the
+   * selected documents.
+   */
+  static Tuple3<String, List<Tuple2<FieldType, KvValue<?>>>, List<ColumnDidFilter>> translate(
+      SqlHelper sqlHelper, String schemaName, MetaDocPart rootDocPart, DidFilter filter,
+      TextConditionWriter textConditionWriter) {
+    DidFilterSqlTranslator translator = new DidFilterSqlTranslator(sqlHelper, schemaName,
+        rootDocPart, textConditionWriter);
+    SqlBuilder sb = new SqlBuilder("");
+    filter.accept(translator, sb);
+    return new Tuple3<>(sb.toString(), translator.parameters, translator.rootTextFilters);
+  }
+
+  @Override
+  public Void visit(ConstantDidFilter filter, SqlBuilder sb) {
+    sb.append(filter.getValue() ? "1 = 1" : "1 = 0");
+    return null;
+  }
+
+  @Override
+  public Void visit(AndDidFilter filter, SqlBuilder sb) {
+    appendJunction(filter.getSubFilters(), " AND ", sb);
+    return null;
+  }
+
+  @Override
+  public Void visit(OrDidFilter filter, SqlBuilder sb) {
+    appendJunction(filter.getSubFilters(), " OR ", sb);
+    return null;
+  }
+
+  private void appendJunction(List<DidFilter> subFilters, String junction, SqlBuilder sb) {
+    sb.append('(');
+    boolean first = true;
+    for (DidFilter subFilter : subFilters) {
+      if (!first) {
+        sb.append(junction);
+      }
+      first = false;
+      subFilter.accept(this, sb);
+    }
+    sb.append(')');
+  }
+
+  @Override
+  public Void visit(NotDidFilter filter, SqlBuilder sb) {
+    sb.append("NOT (");
+    negations++;
+    filter.getSubFilter().accept(this, sb);
+    negations--;
+    sb.append(')');
+    return null;
+  }
+
+  @Override
+  public Void visit(ColumnDidFilter filter, SqlBuilder sb) {
+    if (filter.getDocPart().getIdentifier().equals(rootDocPart.getIdentifier())) {
+      if (isTextOperator(filter.getOperator()) && negations == 0) {
+        rootTextFilters.add(filter);
+      }
+      sb.append('(');
+      if (filter.getOperator() != ColumnDidFilter.Operator.NOT_NULL) {
+        sb.quote(filter.getColumnIdentifier())
+            .append(" IS NOT NULL AND ");
+      }
+      appendColumnCondition(filter, sb);
+      sb.append(')');
+    } else {
+      sb.quote(DocPartTableFields.DID)
+          .append(" IN (SELECT ")
+          .quote(DocPartTableFields.DID)
+          .append(" FROM ")
+          .table(schemaName, filter.getDocPart().getIdentifier())
+          .append(" WHERE ");
+      appendColumnCondition(filter, sb);
+      sb.append(')');
+    }
+    return null;
+  }
+
+  private void appendColumnCondition(ColumnDidFilter filter, SqlBuilder sb) {
+    if (isTextOperator(filter.getOperator())) {
+      textConditionWriter.append(sb, filter,
+          value -> appendParameter(filter.getColumnType(), value, sb));
+      return;
+    }
+    sb.quote(filter.getColumnIdentifier());
+    switch (filter.getOperator()) {
+      case EQ:
+        sb.append(" = ");
+        appendParameter(filter.getColumnType(), filter.getValues().get(0), sb);
+        break;
+      case GT:
+        sb.append(" > ");
+        appendParameter(filter.getColumnType(), filter.getValues().get(0), sb);
+        break;
+      case GTE:
+        sb.append(" >= ");
+        appendParameter(filter.getColumnType(), filter.getValues().get(0), sb);
+        break;
+      case LT:
+        sb.append(" < ");
+        appendParameter(filter.getColumnType(), filter.getValues().get(0), sb);
+        break;
+      case LTE:
+        sb.append(" <= ");
+        appendParameter(filter.getColumnType(), filter.getValues().get(0), sb);
+        break;
+      case IN:
+        sb.append(" IN (");
+        for (KvValue<?> value : filter.getValues()) {
+          appendParameter(filter.getColumnType(), value, sb);
+          sb.append(',');
+        }
+        sb.setLastChar(')');
+        break;
+      case NOT_NULL:
+        sb.append(" IS NOT NULL");
+        break;
+      default:
+        throw new AssertionError("Unexpected operator " + filter.getOperator());
+    }
+  }
+
+  private void appendParameter(FieldType type, KvValue<?> value, SqlBuilder sb) {
+    sb.append(sqlHelper.getPlaceholder(type));
+    parameters.add(new Tuple2<>(type, value));
+  }
+
+  private static boolean isTextOperator(ColumnDidFilter.Operator operator) {
+    return operator == ColumnDidFilter.Operator.TEXT_ANY
+        || operator == ColumnDidFilter.Operator.TEXT_PHRASE;
+  }
+
+  /**
+   * Writes the conditions of the text search operators, which each backend evaluates its own way.
+   */
+  @FunctionalInterface
+  interface TextConditionWriter {
+
+    /**
+     * Appends the condition of the given text search filter.
+     *
+     * @param parameterAppender appends a placeholder for the given value to the condition
+     */
+    void append(SqlBuilder sb, ColumnDidFilter filter, Consumer<KvValue<?>> parameterAppender);
+  }
+
+}
@@ -25,6 +25,7 @@ import com.torodb.core.d2r.IdentifierFactory;
 import com.torodb.core.d2r.ReservedIdGenerator;
 import com.torodb.core.exceptions.InvalidDatabaseException;
 import com.torodb.core.transaction.RollbackException;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
@@ -96,7 +97,7 @@ public class ExclusiveWriteBackendTransactionImpl extends SharedWriteBackendTran
     while (fromMetaIndexIterator.hasNext()) {
       MetaIndex fromMetaIndex = fromMetaIndexIterator.next();
       MutableMetaIndex toMetaIndex = toColl.addMetaIndex(fromMetaIndex.getName(), fromMetaIndex
-          .isUnique());
+          .isUnique(), fromMetaIndex.isSparse());
       getSqlInterface().getMetaDataWriteInterface()
           .addMetaIndex(getDsl(), toDb, toColl, toMetaIndex);
       copyIndexFields(fromMetaIndex, toDb, toColl, toMetaIndex);
@@ -171,8 +172,8 @@ public class ExclusiveWriteBackendTransactionImpl extends SharedWriteBackendTran
     while (fromMetaDocPartIndexIterator.hasNext()) {
       MetaIdentifiedDocPartIndex fromMetaDocPartIndex = fromMetaDocPartIndexIterator.next();
       MutableMetaDocPartIndex toMutableMetaDocPartIndex = toMetaDocPart.addMetaDocPartIndex(
-          fromMetaDocPartIndex.isUnique());
-      List<Tuple2<String, Boolean>> identifiers =
+          fromMetaDocPartIndex.isUnique(), fromMetaDocPartIndex.isSparse());
+      List<Tuple2<String, FieldIndexOrdering>> identifiers =
           copyMetaIndexColumns(fromMetaDocPartIndex, toMutableMetaDocPartIndex);
       MetaIdentifiedDocPartIndex toMetaDocPartIndex = toMutableMetaDocPartIndex.immutableCopy(
           identifierFactory.toIndexIdentifier(
@@ -186,10 +187,10 @@ public class ExclusiveWriteBackendTransactionImpl extends SharedWriteBackendTran
     }
   }
 
-  private List<Tuple2<String, Boolean>> copyMetaIndexColumns(
+  private List<Tuple2<String, FieldIndexOrdering>> copyMetaIndexColumns(
       MetaIdentifiedDocPartIndex fromMetaDocPartIndex,
       MutableMetaDocPartIndex toMetaDocPartIndex) {
-    List<Tuple2<String, Boolean>> identifiers = new ArrayList<>();
+    List<Tuple2<String, FieldIndexOrdering>> identifiers = new ArrayList<>();
     Iterator<? extends MetaDocPartIndexColumn> fromMetaDocPartIndexColumnIterator =
         fromMetaDocPartIndex.iteratorColumns();
     while (fromMetaDocPartIndexColumnIterator.hasNext()) {
@@ -197,7 +198,7 @@ public class ExclusiveWriteBackendTransactionImpl extends SharedWriteBackendTran
       toMetaDocPartIndex.addMetaDocPartIndexColumn(
           fromMetaDocPartIndexColumn.getIdentifier(), fromMetaDocPartIndexColumn.getOrdering());
       identifiers.add(new Tuple2<>(fromMetaDocPartIndexColumn.getIdentifier(),
-          fromMetaDocPartIndexColumn.getOrdering().isAscending()));
+          fromMetaDocPartIndexColumn.getOrdering()));
     }
     return identifiers;
   }
@@ -0,0 +1,64 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.backend;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.torodb.core.metrics.ToroMetricRegistry;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Metrics that report the progress of the indexes that are being built in background.
+ */
+@Singleton
+public final class IndexBuildMetrics {
+
+  private final Counter buildingIndexes;
+  private final Meter finishedBuilds;
+  private final Meter failedBuilds;
+  private final Timer buildTimer;
+
+  @Inject
+  public IndexBuildMetrics(ToroMetricRegistry parentRegistry) {
+    ToroMetricRegistry registry = parentRegistry.createSubRegistry("IndexBuild");
+    buildingIndexes = registry.counter("buildingIndexes");
+    finishedBuilds = registry.meter("finishedBuilds");
+    failedBuilds = registry.meter("failedBuilds");
+    buildTimer = registry.timer("buildTimer");
+  }
+
+  public Counter getBuildingIndexes() {
+    return buildingIndexes;
+  }
+
+  public Meter getFinishedBuilds() {
+    return finishedBuilds;
+  }
+
+  public Meter getFailedBuilds() {
+    return failedBuilds;
+  }
+
+  public Timer getBuildTimer() {
+    return buildTimer;
+  }
+
+}
@@ -75,8 +75,9 @@ public class KvMetainfoHandler {
     if (value.isEmpty()) {
       return new StringKvString(value);
     }
-    char c = value.charAt(0);
-    if (c < '0' || c > '9') {
+    //negative numbers start with a minus sign followed by a digit
+    int firstDigitIndex = value.charAt(0) == '-' ? 1 : 0;
+    if (firstDigitIndex >= value.length() || !isDigit(value.charAt(firstDigitIndex))) {
       return new StringKvString(value);
     }
     try {
@@ -100,6 +101,10 @@ public class KvMetainfoHandler {
     return new StringKvString(value);
   }
 
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
   private String toStorableString(KvValue<?> value) {
     return value.accept(SERIALIZER, null);
   }
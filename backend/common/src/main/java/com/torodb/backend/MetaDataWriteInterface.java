@@ -30,6 +30,8 @@ import com.torodb.core.transaction.metainf.MetaIndexField;
 import com.torodb.core.transaction.metainf.MetaScalar;
 import org.jooq.DSLContext;
 
+import java.util.Collection;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -69,6 +71,24 @@ public interface MetaDataWriteInterface {
   void addMetaScalar(@Nonnull DSLContext dsl, @Nonnull MetaDatabase database,
       @Nonnull MetaCollection collection, @Nonnull MetaDocPart docPart, @Nonnull MetaScalar scalar);
 
+  /**
+   * Adds several fields to the meta tables, which is equivalent but usually faster than calling
+   * {@link #addMetaField(DSLContext, MetaDatabase, MetaCollection, MetaDocPart, MetaField)} for
+   * each one.
+   */
+  void addMetaFields(@Nonnull DSLContext dsl, @Nonnull MetaDatabase database,
+      @Nonnull MetaCollection collection, @Nonnull MetaDocPart docPart,
+      @Nonnull Collection<? extends MetaField> fields);
+
+  /**
+   * Adds several scalars to the meta tables, which is equivalent but usually faster than calling
+   * {@link #addMetaScalar(DSLContext, MetaDatabase, MetaCollection, MetaDocPart, MetaScalar)} for
+   * each one.
+   */
+  void addMetaScalars(@Nonnull DSLContext dsl, @Nonnull MetaDatabase database,
+      @Nonnull MetaCollection collection, @Nonnull MetaDocPart docPart,
+      @Nonnull Collection<? extends MetaScalar> scalars);
+
   void addMetaIndex(@Nonnull DSLContext dsl, @Nonnull MetaDatabase database,
       @Nonnull MetaCollection collection, @Nonnull MetaIndex index);
 
@@ -95,6 +115,14 @@ public interface MetaDataWriteInterface {
       @Nonnull MetaCollection collection, @Nonnull MetaDocPart docPart,
       @Nonnull MetaIdentifiedDocPartIndex index);
 
+  /**
+   * Like {@link #deleteMetaDocPartIndex(DSLContext, MetaDatabase, MetaCollection, MetaDocPart,
+   * MetaIdentifiedDocPartIndex)}, but the index is identified by name, so it can be used when the
+   * metadata objects are not available.
+   */
+  void deleteMetaDocPartIndex(@Nonnull DSLContext dsl, @Nonnull String databaseName,
+      @Nonnull String collectionName, @Nonnull String indexIdentifier);
+
   int consumeRids(@Nonnull DSLContext dsl, @Nonnull MetaDatabase database,
       @Nonnull MetaCollection collection, @Nonnull MetaDocPart docPart, int count);
 
@@ -19,6 +19,9 @@
 package com.torodb.backend;
 
 import com.google.common.collect.Multimap;
+import com.torodb.core.backend.query.AggregatedColumn;
+import com.torodb.core.backend.query.ColumnOrder;
+import com.torodb.core.backend.query.DidFilter;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.d2r.DocPartResult;
 import com.torodb.core.transaction.metainf.MetaCollection;
@@ -64,6 +67,44 @@ public interface ReadInterface {
       @Nonnull MetaCollection metaCollection)
       throws SQLException;
 
+  /**
+   * Returns the dids of the documents of the collection that fulfill the given filter, sorted by
+   * the given columns of the root doc part.
+   *
+   * @param skip  the number of dids to skip
+   * @param limit the max number of dids to return or 0 if there is no limit
+   */
+  @Nonnull
+  Cursor<Integer> getCollectionDidsWithFilter(@Nonnull DSLContext dsl,
+      @Nonnull MetaDatabase metaDatabase, @Nonnull MetaCollection metaCollection,
+      @Nonnull DidFilter filter, @Nonnull List<ColumnOrder> order, long skip, long limit)
+      throws SQLException;
+
+  /**
+   * Returns a row for each group of root doc part rows of the documents that fulfill the given
+   * filter, with the values of the group fields followed by the aggregated columns.
+   *
+   * @see com.torodb.core.backend.BackendTransaction#groupByFilter(MetaDatabase, MetaCollection,
+   *      DidFilter, List, List)
+   */
+  @Nonnull
+  Cursor<List<KvValue<?>>> getCollectionGroupsWithFilter(@Nonnull DSLContext dsl,
+      @Nonnull MetaDatabase metaDatabase, @Nonnull MetaCollection metaCollection,
+      @Nonnull DidFilter filter, @Nonnull List<MetaField> groupFields,
+      @Nonnull List<AggregatedColumn> aggregatedColumns) throws SQLException;
+
+  /**
+   * Returns the distinct non null values of a root doc part field on the rows of the documents
+   * that fulfill the given filter.
+   *
+   * @see com.torodb.core.backend.BackendTransaction#findDistinctByFilter(MetaDatabase,
+   *      MetaCollection, DidFilter, MetaField)
+   */
+  @Nonnull
+  Cursor<KvValue<?>> getCollectionDistinctValuesWithFilter(@Nonnull DSLContext dsl,
+      @Nonnull MetaDatabase metaDatabase, @Nonnull MetaCollection metaCollection,
+      @Nonnull DidFilter filter, @Nonnull MetaField field) throws SQLException;
+
   @Nonnull
   List<DocPartResult> getCollectionResultSets(@Nonnull DSLContext dsl,
       @Nonnull MetaDatabase metaDatabase, @Nonnull MetaCollection metaCollection,
@@ -19,7 +19,10 @@
 package com.torodb.backend;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Multimap;
+import com.torodb.backend.BackendServiceImpl.BackgroundIndexBuild;
 import com.torodb.backend.ErrorHandler.Context;
+import com.torodb.backend.converters.jooq.DataTypeForKv;
 import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
 import com.torodb.core.backend.MetaInfoKey;
@@ -28,6 +31,7 @@ import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.d2r.IdentifierFactory;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.transaction.RollbackException;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
@@ -47,8 +51,11 @@ import org.jooq.lambda.tuple.Tuple2;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl implements
     SharedWriteBackendTransaction {
@@ -59,6 +66,7 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
 
   private final TableRefFactory tableRefFactory;
   private final IdentifierFactory identifierFactory;
+  private final List<BackgroundIndexBuild> backgroundIndexBuilds = new ArrayList<>();
 
   public SharedWriteBackendTransactionImpl(SqlInterface sqlInterface,
       BackendConnectionImpl backendConnection,
@@ -133,10 +141,35 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
     getSqlInterface().getMetaDataWriteInterface().addMetaDocPart(getDsl(), db, col,
         newDocPart);
 
+    createDocPartTable(db, col, newDocPart, Collections.emptyList());
+  }
+
+  @Override
+  public void addDocPartWithColumns(MetaDatabase db, MetaCollection col,
+      MutableMetaDocPart newDocPart) throws UserException {
+    Preconditions.checkState(!isClosed(), "This transaction is closed");
+
+    List<MetaScalar> newScalars = newDocPart.streamScalars().collect(Collectors.toList());
+    List<MetaField> newFields = newDocPart.streamFields().collect(Collectors.toList());
+
+    MetaDataWriteInterface metaDataWriteInterface = getSqlInterface().getMetaDataWriteInterface();
+    metaDataWriteInterface.addMetaDocPart(getDsl(), db, col, newDocPart);
+    metaDataWriteInterface.addMetaScalars(getDsl(), db, col, newDocPart, newScalars);
+    metaDataWriteInterface.addMetaFields(getDsl(), db, col, newDocPart, newFields);
+
+    createDocPartTable(db, col, newDocPart, toColumns(newScalars, newFields));
+
+    for (MetaField newField : newFields) {
+      createIndexesForNewField(db, col, newDocPart, newField);
+    }
+  }
+
+  private void createDocPartTable(MetaDatabase db, MetaCollection col, MetaDocPart newDocPart,
+      List<Tuple2<String, DataTypeForKv<?>>> columns) {
     TableRef tableRef = newDocPart.getTableRef();
     if (tableRef.isRoot()) {
       getSqlInterface().getStructureInterface().createRootDocPartTable(getDsl(), db.getIdentifier(),
-          newDocPart.getIdentifier(), tableRef);
+          newDocPart.getIdentifier(), tableRef, columns);
       getSqlInterface().getStructureInterface().streamRootDocPartTableIndexesCreation(db
           .getIdentifier(), newDocPart.getIdentifier(), tableRef)
           .forEach(consumer -> {
@@ -147,7 +180,7 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
     } else {
       getSqlInterface().getStructureInterface().createDocPartTable(getDsl(), db.getIdentifier(),
           newDocPart.getIdentifier(), tableRef,
-          col.getMetaDocPartByTableRef(tableRef.getParent().get()).getIdentifier());
+          col.getMetaDocPartByTableRef(tableRef.getParent().get()).getIdentifier(), columns);
       getSqlInterface().getStructureInterface()
           .streamDocPartTableIndexesCreation(db.getIdentifier(), newDocPart.getIdentifier(),
               tableRef,
@@ -171,6 +204,53 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
         docPart.getIdentifier(), newField.getIdentifier(), getSqlInterface().getDataTypeProvider()
         .getDataType(newField.getType()));
 
+    createIndexesForNewField(db, col, docPart, newField);
+  }
+
+  @Override
+  public void addColumns(MetaDatabase db, MetaCollection col, MutableMetaDocPart docPart,
+      List<? extends MetaScalar> newScalars, List<? extends MetaField> newFields)
+      throws UserException {
+    Preconditions.checkState(!isClosed(), "This transaction is closed");
+
+    if (newScalars.isEmpty() && newFields.isEmpty()) {
+      return;
+    }
+
+    MetaDataWriteInterface metaDataWriteInterface = getSqlInterface().getMetaDataWriteInterface();
+    metaDataWriteInterface.addMetaScalars(getDsl(), db, col, docPart, newScalars);
+    metaDataWriteInterface.addMetaFields(getDsl(), db, col, docPart, newFields);
+
+    getSqlInterface().getStructureInterface().addColumnsToDocPartTable(getDsl(),
+        db.getIdentifier(), docPart.getIdentifier(), toColumns(newScalars, newFields));
+
+    for (MetaField newField : newFields) {
+      createIndexesForNewField(db, col, docPart, newField);
+    }
+  }
+
+  private List<Tuple2<String, DataTypeForKv<?>>> toColumns(
+      List<? extends MetaScalar> newScalars, List<? extends MetaField> newFields) {
+    DataTypeProvider dataTypeProvider = getSqlInterface().getDataTypeProvider();
+    List<Tuple2<String, DataTypeForKv<?>>> columns = new ArrayList<>(
+        newScalars.size() + newFields.size());
+    for (MetaScalar newScalar : newScalars) {
+      columns.add(new Tuple2<>(newScalar.getIdentifier(),
+          dataTypeProvider.getDataType(newScalar.getType())));
+    }
+    for (MetaField newField : newFields) {
+      columns.add(new Tuple2<>(newField.getIdentifier(),
+          dataTypeProvider.getDataType(newField.getType())));
+    }
+    return columns;
+  }
+
+  /**
+   * Creates the physical indexes that can be created on the given doc part now that it contains
+   * the given field.
+   */
+  private void createIndexesForNewField(MetaDatabase db, MetaCollection col,
+      MutableMetaDocPart docPart, MetaField newField) throws UserException {
     List<Tuple2<MetaIndex, List<String>>> missingIndexes = col.getMissingIndexesForNewField(docPart,
         newField);
 
@@ -183,12 +263,12 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
               missingIndex, identifiers, newField);
 
       if (missingIndex.isMatch(docPart, identifiers, docPartIndex)) {
-        List<Tuple2<String, Boolean>> columnList = new ArrayList<>(docPartIndex.size());
+        List<Tuple2<String, FieldIndexOrdering>> columnList = new ArrayList<>(docPartIndex.size());
         for (String identifier : identifiers) {
           MetaDocPartIndexColumn docPartIndexColumn = docPartIndex
               .getMetaDocPartIndexColumnByIdentifier(identifier);
           columnList.add(new Tuple2<>(docPartIndexColumn.getIdentifier(), docPartIndexColumn
-              .getOrdering().isAscending()));
+              .getOrdering()));
         }
         MetaIdentifiedDocPartIndex identifiedDocPartIndex = docPartIndex.immutableCopy(
             identifierFactory.toIndexIdentifier(db, docPart.getIdentifier(), columnList));
@@ -205,7 +285,8 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
 
         getSqlInterface().getStructureInterface().createIndex(getDsl(), identifiedDocPartIndex
             .getIdentifier(), db.getIdentifier(),
-            docPart.getIdentifier(), columnList, docPartIndex.isUnique());
+            docPart.getIdentifier(), columnList, docPartIndex.isUnique(),
+            docPartIndex.isSparse());
         LOGGER.info("Created index {} for table {} associated to logical index {}.{}.{}",
             identifiedDocPartIndex.getIdentifier(), docPart.getIdentifier(), db.getName(), col
             .getName(), missingIndex.getName());
@@ -254,8 +335,22 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
   }
 
   @Override
-  public void createIndex(MetaDatabase db, MutableMetaCollection col, MetaIndex index) throws
-      UserException {
+  public List<KvValue<?>> deleteByFieldIn(MetaDatabase db, MetaCollection col,
+      MetaDocPart rootDocPart, Multimap<MetaField, KvValue<?>> valuesMultimap) {
+    Preconditions.checkState(!isClosed(), "This transaction is closed");
+
+    List<KvValue<?>> deletedValues = new ArrayList<>(valuesMultimap.size());
+    for (Map.Entry<MetaField, Collection<KvValue<?>>> entry : valuesMultimap.asMap().entrySet()) {
+      deletedValues.addAll(getSqlInterface().getWriteInterface()
+          .deleteCollectionDocPartsByRootField(getDsl(), db.getIdentifier(), col, rootDocPart,
+              entry.getKey(), entry.getValue()));
+    }
+    return deletedValues;
+  }
+
+  @Override
+  public void createIndex(MetaDatabase db, MutableMetaCollection col, MetaIndex index,
+      boolean background) throws UserException {
     Preconditions.checkState(!isClosed(), "This transaction is closed");
 
     Preconditions.checkArgument(!index.isUnique() || index.streamTableRefs().count() == 1,
@@ -270,23 +365,27 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
           field);
     }
 
-    createMissingDocPartIndexes(db, col, index);
+    //unique indexes are built on the transaction, as a failed background build would leave a
+    //committed unique index whose constraint is not checked
+    createMissingDocPartIndexes(db, col, index, background && !index.isUnique()
+        && !getSqlInterface().getDbBackend().isOnDataInsertMode(db));
   }
 
   private void createIndex(MetaDatabase db, MetaCollection col, MetaIndex index,
       MutableMetaDocPart docPart,
-      List<String> identifiers) throws UserException {
-    MutableMetaDocPartIndex docPartIndex = docPart.addMetaDocPartIndex(index.isUnique());
+      List<String> identifiers, boolean background) throws UserException {
+    MutableMetaDocPartIndex docPartIndex = docPart.addMetaDocPartIndex(index.isUnique(),
+        index.isSparse());
     Iterator<? extends MetaIndexField> indexFieldIterator = index.iteratorMetaIndexFieldByTableRef(
         docPart.getTableRef());
     int position = 0;
-    List<Tuple2<String, Boolean>> columnList = new ArrayList<>(identifiers.size());
+    List<Tuple2<String, FieldIndexOrdering>> columnList = new ArrayList<>(identifiers.size());
     for (String identifier : identifiers) {
       MetaIndexField indexField = indexFieldIterator.next();
       MetaDocPartIndexColumn docPartIndexColumn = docPartIndex.putMetaDocPartIndexColumn(position++,
           identifier, indexField.getOrdering());
       columnList.add(new Tuple2<>(docPartIndexColumn.getIdentifier(), docPartIndexColumn
-          .getOrdering().isAscending()));
+          .getOrdering()));
     }
     MetaIdentifiedDocPartIndex identifiedDocPartIndex = docPartIndex.immutableCopy(identifierFactory
         .toIndexIdentifier(db, docPart.getIdentifier(), columnList));
@@ -301,17 +400,28 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
           docPart, identifiedDocPartIndex, docPartIndexColumn);
     }
 
+    if (background) {
+      //the index is built once this transaction commits, as the build can not be executed inside
+      //a transaction without blocking the writes on the table
+      backgroundIndexBuilds.add(new BackgroundIndexBuild(db.getName(), col.getName(),
+          db.getIdentifier(), docPart.getIdentifier(), identifiedDocPartIndex.getIdentifier(),
+          columnList, index.isUnique(), index.isSparse()));
+      LOGGER.info("Index {} for table {} associated to logical index {}.{}.{} will be built in "
+          + "background", identifiedDocPartIndex.getIdentifier(), docPart.getIdentifier(),
+          db.getName(), col.getName(), index.getName());
+      return;
+    }
     getSqlInterface().getStructureInterface().createIndex(
         getDsl(), identifiedDocPartIndex.getIdentifier(), db.getIdentifier(), docPart
         .getIdentifier(),
-        columnList, index.isUnique());
+        columnList, index.isUnique(), index.isSparse());
     LOGGER.info("Created index {} for table {} associated to logical index {}.{}.{}",
         identifiedDocPartIndex.getIdentifier(), docPart.getIdentifier(), db.getName(),
         col.getName(), index.getName());
   }
 
   private void createMissingDocPartIndexes(MetaDatabase db, MutableMetaCollection col,
-      MetaIndex index) throws UserException {
+      MetaIndex index, boolean background) throws UserException {
     Iterator<TableRef> tableRefIterator = index.streamTableRefs().iterator();
     while (tableRefIterator.hasNext()) {
       TableRef tableRef = tableRefIterator.next();
@@ -325,7 +435,7 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
           boolean containsExactDocPartIndex = docPart.streamIndexes()
               .anyMatch(docPartIndex -> index.isMatch(docPart, identifiers, docPartIndex));
           if (!containsExactDocPartIndex) {
-            createIndex(db, col, index, docPart, identifiers);
+            createIndex(db, col, index, docPart, identifiers, background);
           }
         }
       }
@@ -383,12 +493,19 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
   public void commit() throws UserException, RollbackException {
     Preconditions.checkState(!isClosed(), "This transaction is closed");
 
+    boolean committed = false;
     try {
       getConnection().commit();
+      committed = true;
     } catch (SQLException ex) {
       getSqlInterface().getErrorHandler().handleUserException(Context.COMMIT, ex);
     } finally {
       getDsl().configuration().connectionProvider().release(getConnection());
     }
+
+    if (committed && !backgroundIndexBuilds.isEmpty()) {
+      getBackendConnection().buildIndexesInBackground(new ArrayList<>(backgroundIndexBuilds));
+      backgroundIndexBuilds.clear();
+    }
   }
 }
@@ -36,6 +36,8 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -112,6 +114,30 @@ public class SqlHelper {
     }
   }
 
+  /**
+   * Executes the given update statements as a single JDBC batch.
+   */
+  public void executeBatchUpdate(DSLContext dsl, List<String> statements, Context context) {
+    if (statements.isEmpty()) {
+      return;
+    }
+    if (statements.size() == 1) {
+      executeUpdate(dsl, statements.get(0), context);
+      return;
+    }
+    Connection c = dsl.configuration().connectionProvider().acquire();
+    try (Statement st = c.createStatement()) {
+      for (String statement : statements) {
+        st.addBatch(statement);
+      }
+      st.executeBatch();
+    } catch (SQLException ex) {
+      throw errorHandler.handleException(context, ex);
+    } finally {
+      dsl.configuration().connectionProvider().release(c);
+    }
+  }
+
   public int executeUpdateOrThrow(DSLContext dsl, String statement, Context context) throws
       UserException {
     Connection c = dsl.configuration().connectionProvider().acquire();
@@ -150,6 +176,12 @@ public class SqlHelper {
     return sqlBinding.get(resultSet, index);
   }
 
+  public KvValue<?> getResultSetKvValue(FieldType fieldType, ResultSet resultSet, int index)
+      throws SQLException {
+    return getResultSetKvValue(fieldType, dataTypeProvider.getDataType(fieldType), resultSet,
+        index);
+  }
+
   @SuppressWarnings({"unchecked"})
   public KvValue<?> getResultSetKvValue(FieldType fieldType, DataTypeForKv<?> dataTypeForKv,
       ResultSet resultSet, int index) throws SQLException {
@@ -23,6 +23,7 @@ import com.torodb.backend.meta.TorodbSchema;
 import com.torodb.core.TableRef;
 import com.torodb.core.exceptions.InvalidDatabaseException;
 import com.torodb.core.exceptions.user.UserException;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import org.jooq.DSLContext;
@@ -30,8 +31,10 @@ import org.jooq.Meta;
 import org.jooq.Schema;
 import org.jooq.lambda.tuple.Tuple2;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -57,6 +60,26 @@ public interface StructureInterface {
       @Nonnull String tableName, @Nonnull TableRef tableRef,
       @Nonnull String foreignTableName);
 
+  /**
+   * Like {@link #createRootDocPartTable(DSLContext, String, String, TableRef)}, but the table is
+   * created with the given columns too.
+   *
+   * @param columns the name and type of the columns to add besides the internal ones
+   */
+  void createRootDocPartTable(@Nonnull DSLContext dsl, @Nonnull String schemaName,
+      @Nonnull String tableName, @Nonnull TableRef tableRef,
+      @Nonnull List<Tuple2<String, DataTypeForKv<?>>> columns);
+
+  /**
+   * Like {@link #createDocPartTable(DSLContext, String, String, TableRef, String)}, but the table
+   * is created with the given columns too.
+   *
+   * @param columns the name and type of the columns to add besides the internal ones
+   */
+  void createDocPartTable(@Nonnull DSLContext dsl, @Nonnull String schemaName,
+      @Nonnull String tableName, @Nonnull TableRef tableRef,
+      @Nonnull String foreignTableName, @Nonnull List<Tuple2<String, DataTypeForKv<?>>> columns);
+
   /**
    * Returns a stream of consumers that, when executed, creates the required indexes on a root doc
    * part table.
@@ -91,6 +114,14 @@ public interface StructureInterface {
   void addColumnToDocPartTable(@Nonnull DSLContext dsl, @Nonnull String schemaName,
       @Nonnull String tableName, @Nonnull String columnName, @Nonnull DataTypeForKv<?> dataType);
 
+  /**
+   * Adds several columns to a doc part table, using as few statements as the backend supports.
+   *
+   * @param columns the name and type of the columns to add
+   */
+  void addColumnsToDocPartTable(@Nonnull DSLContext dsl, @Nonnull String schemaName,
+      @Nonnull String tableName, @Nonnull List<Tuple2<String, DataTypeForKv<?>>> columns);
+
   /**
    * Returns a stream of functions that, when executed, executes backend specific tasks that should
    * be done once the data insert mode finishes and return a label that indicate the type of
@@ -101,12 +132,89 @@ public interface StructureInterface {
    */
   public Stream<Function<DSLContext, String>> streamDataInsertFinishTasks(MetaDatabase db);
 
+  /**
+   * Returns an estimation of the size in bytes of the given table, or 0 if the backend cannot
+   * estimate it.
+   *
+   * <p>The value is used to schedule the biggest data insert finish tasks first, so it does not
+   * need to be accurate.
+   */
+  public default long estimateTableSize(@Nonnull DSLContext dsl, @Nonnull String schemaName,
+      @Nonnull String tableName) {
+    return 0;
+  }
+
+  /**
+   * Configures the session of the given {@link DSLContext} to execute a task that creates an
+   * index or analyzes a table once the data insert mode finishes.
+   *
+   * <p>The settings must only affect the current transaction.
+   *
+   * @param tableSize       the estimated size of the table on which the task works
+   * @param concurrentTasks the number of tasks that can be executed at the same time
+   */
+  public default void prepareDataInsertFinishTask(@Nonnull DSLContext dsl, long tableSize,
+      int concurrentTasks) {
+  }
+
+  /**
+   * Returns true iff an index on columns with the given orderings is actually created on the
+   * database.
+   *
+   * <p>When it is false, {@link #createIndex(DSLContext, String, String, String, List, boolean,
+   * boolean) createIndex} does nothing and the index is only kept on the metadata, so queries on
+   * those columns are evaluated without an index. By default all indexes are created.
+   */
+  public default boolean createsIndex(@Nonnull List<FieldIndexOrdering> orderings) {
+    return true;
+  }
+
+  /**
+   * Creates an index on the given columns.
+   *
+   * @param sparse true if the rows whose indexed columns are all null must not be indexed. Backends
+   *               that do not support partial indexes may ignore it and index all rows.
+   */
   void createIndex(@Nonnull DSLContext dsl, @Nonnull String indexName, @Nonnull String tableSchema,
-      @Nonnull String tableName, @Nonnull List<Tuple2<String, Boolean>> columnList, boolean unique)
-      throws UserException;
+      @Nonnull String tableName, @Nonnull List<Tuple2<String, FieldIndexOrdering>> columnList,
+      boolean unique, boolean sparse) throws UserException;
+
+  /**
+   * Creates an index without blocking the writes on its table while it is being built.
+   *
+   * <p>The given {@link DSLContext} must not be inside a transaction, as some backends can only
+   * build indexes this way on auto commit mode. If the build fails, the partially built index is
+   * dropped before the exception is thrown.
+   *
+   * <p>By default the index is created like {@link #createIndex(DSLContext, String, String,
+   * String, List, boolean, boolean)} does, so backends that do not support concurrent index builds
+   * block the writes while the index is built.
+   */
+  public default void createIndexConcurrently(@Nonnull DSLContext dsl, @Nonnull String indexName,
+      @Nonnull String tableSchema, @Nonnull String tableName,
+      @Nonnull List<Tuple2<String, FieldIndexOrdering>> columnList, boolean unique, boolean sparse)
+      throws UserException {
+    createIndex(dsl, indexName, tableSchema, tableName, columnList, unique, sparse);
+  }
 
+  /**
+   * Drops an index. Nothing is done if the index does not exist, as a failed background build may
+   * leave the metadata of an index that has not been built.
+   */
   void dropIndex(@Nonnull DSLContext dsl, @Nonnull String schemaName, @Nonnull String indexName);
 
+  /**
+   * Returns the names of the indexes of the given schema that exist but are not valid, like the
+   * ones left behind by a concurrent build that was interrupted.
+   *
+   * <p>By default an empty set is returned, as backends that do not build indexes concurrently
+   * can not leave invalid indexes.
+   */
+  public default Set<String> getInvalidIndexes(@Nonnull DSLContext dsl,
+      @Nonnull String schemaName) {
+    return Collections.emptySet();
+  }
+
   /**
    * Drops all torodb elements from the backend, including metatables and their content.
    *
@@ -22,9 +22,13 @@ import com.torodb.core.cursors.Cursor;
 import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.transaction.metainf.MetaCollection;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.kvdocument.values.KvValue;
 import org.jooq.DSLContext;
 
 import java.util.Collection;
+import java.util.List;
 
 import javax.annotation.Nonnull;
 
@@ -39,4 +43,18 @@ public interface WriteInterface {
   void deleteCollectionDocParts(@Nonnull DSLContext dsl, @Nonnull String schemaName,
       @Nonnull MetaCollection metaCollection, @Nonnull Collection<Integer> dids);
 
+  /**
+   * Deletes all the documents whose root doc part contains one of the given values on the given
+   * field.
+   *
+   * @param rootDocPart the root doc part of the collection
+   * @param metaField   a field of the root doc part
+   * @param values      the values to look for. All of them must be of the field type
+   * @return the values of the given field of the deleted documents
+   */
+  List<KvValue<?>> deleteCollectionDocPartsByRootField(@Nonnull DSLContext dsl,
+      @Nonnull String schemaName, @Nonnull MetaCollection metaCollection,
+      @Nonnull MetaDocPart rootDocPart, @Nonnull MetaField metaField,
+      @Nonnull Collection<KvValue<?>> values);
+
 }
@@ -0,0 +1,427 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.backend.converters.json;
+
+import com.google.common.io.ByteSource;
+import com.torodb.common.util.HexUtils;
+import com.torodb.kvdocument.values.KvArray;
+import com.torodb.kvdocument.values.KvBinary;
+import com.torodb.kvdocument.values.KvBinary.KvBinarySubtype;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDate;
+import com.torodb.kvdocument.values.KvDecimal128;
+import com.torodb.kvdocument.values.KvDeprecated;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDocument.DocEntry;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInstant;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvMaxKey;
+import com.torodb.kvdocument.values.KvMinKey;
+import com.torodb.kvdocument.values.KvMongoDbPointer;
+import com.torodb.kvdocument.values.KvMongoJavascript;
+import com.torodb.kvdocument.values.KvMongoJavascriptWithScope;
+import com.torodb.kvdocument.values.KvMongoObjectId;
+import com.torodb.kvdocument.values.KvMongoRegex;
+import com.torodb.kvdocument.values.KvMongoTimestamp;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvString;
+import com.torodb.kvdocument.values.KvTime;
+import com.torodb.kvdocument.values.KvUndefined;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.KvValueVisitor;
+import com.torodb.kvdocument.values.heap.ByteArrayKvMongoObjectId;
+import com.torodb.kvdocument.values.heap.ByteSourceKvBinary;
+import com.torodb.kvdocument.values.heap.DefaultKvMongoTimestamp;
+import com.torodb.kvdocument.values.heap.ListKvArray;
+import com.torodb.kvdocument.values.heap.LocalDateKvDate;
+import com.torodb.kvdocument.values.heap.LocalTimeKvTime;
+import com.torodb.kvdocument.values.heap.LongKvInstant;
+import com.torodb.kvdocument.values.heap.StringKvString;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+/**
+ * Converts {@link KvDocument documents} to JSON and back without losing type information.
+ *
+ * <p>Strings, booleans, nulls, integers, documents and arrays are written as plain JSON, so they
+ * can still be inspected with the usual JSON operators. Any other value is written as an object
+ * with a {@value #TYPE_KEY} and a {@value #VALUE_KEY} entry. As keys that start with {@code $}
+ * cannot be stored on documents, these objects cannot be confused with user documents.
+ */
+public class TypedKvValueJsonCodec {
+
+  public static final String TYPE_KEY = "$t";
+  public static final String VALUE_KEY = "$v";
+
+  private static final Encoder ENCODER = new Encoder();
+
+  private TypedKvValueJsonCodec() {
+  }
+
+  public static String toJson(KvDocument document) {
+    return toJsonObject(document).toString();
+  }
+
+  public static JsonObject toJsonObject(KvDocument document) {
+    return ENCODER.encodeDocument(document);
+  }
+
+  public static KvDocument fromJson(String json) {
+    try (JsonReader reader = Json.createReader(new StringReader(json))) {
+      return fromJsonObject(reader.readObject());
+    }
+  }
+
+  public static KvDocument fromJsonObject(JsonObject object) {
+    KvDocument.Builder builder = new KvDocument.Builder();
+    for (Map.Entry<String, JsonValue> entry : object.entrySet()) {
+      builder.putValue(entry.getKey(), decode(entry.getValue()));
+    }
+    return builder.build();
+  }
+
+  private static KvValue<?> decode(JsonValue value) {
+    switch (value.getValueType()) {
+      case NULL:
+        return KvNull.getInstance();
+      case TRUE:
+        return KvBoolean.TRUE;
+      case FALSE:
+        return KvBoolean.FALSE;
+      case STRING:
+        return new StringKvString(((JsonString) value).getString());
+      case NUMBER:
+        return KvInteger.of(((JsonNumber) value).intValueExact());
+      case ARRAY: {
+        JsonArray array = (JsonArray) value;
+        List<KvValue<?>> list = new ArrayList<>(array.size());
+        for (JsonValue child : array) {
+          list.add(decode(child));
+        }
+        return new ListKvArray(list);
+      }
+      case OBJECT: {
+        JsonObject object = (JsonObject) value;
+        if (object.containsKey(TYPE_KEY)) {
+          return decodeTyped(object.getString(TYPE_KEY), object.get(VALUE_KEY));
+        }
+        return fromJsonObject(object);
+      }
+      default:
+        throw new AssertionError("Unexpected json value type " + value.getValueType());
+    }
+  }
+
+  private static KvValue<?> decodeTyped(String type, JsonValue value) {
+    switch (type) {
+      case "long":
+        return KvLong.of(Long.parseLong(((JsonString) value).getString()));
+      case "double":
+        return KvDouble.of(Double.parseDouble(((JsonString) value).getString()));
+      case "decimal128": {
+        JsonObject object = (JsonObject) value;
+        return KvDecimal128.of(
+            Long.parseLong(object.getString("high")),
+            Long.parseLong(object.getString("low")));
+      }
+      case "date":
+        return new LocalDateKvDate(LocalDate.parse(((JsonString) value).getString()));
+      case "time":
+        return new LocalTimeKvTime(LocalTime.parse(((JsonString) value).getString()));
+      case "instant":
+        return new LongKvInstant(Long.parseLong(((JsonString) value).getString()));
+      case "binary": {
+        JsonObject object = (JsonObject) value;
+        return new ByteSourceKvBinary(
+            KvBinarySubtype.valueOf(object.getString("subtype")),
+            (byte) object.getInt("category"),
+            ByteSource.wrap(HexUtils.hex2Bytes(object.getString("data"))));
+      }
+      case "objectId":
+        return decodeObjectId((JsonString) value);
+      case "timestamp": {
+        JsonObject object = (JsonObject) value;
+        return new DefaultKvMongoTimestamp(object.getInt("secs"), object.getInt("ordinal"));
+      }
+      case "javascript":
+        return KvMongoJavascript.of(((JsonString) value).getString());
+      case "javascriptWithScope": {
+        JsonObject object = (JsonObject) value;
+        return KvMongoJavascriptWithScope.of(object.getString("js"), object.getString("scope"));
+      }
+      case "minKey":
+        return KvMinKey.getInstance();
+      case "maxKey":
+        return KvMaxKey.getInstance();
+      case "undefined":
+        return KvUndefined.getInstance();
+      case "regex": {
+        JsonObject object = (JsonObject) value;
+        return KvMongoRegex.of(object.getString("pattern"), object.getString("options"));
+      }
+      case "dbPointer": {
+        JsonObject object = (JsonObject) value;
+        return KvMongoDbPointer.of(object.getString("namespace"),
+            decodeObjectId(object.getJsonString("id")));
+      }
+      case "deprecated":
+        return KvDeprecated.of(((JsonString) value).getString());
+      default:
+        throw new IllegalArgumentException("Unknown typed json value " + type);
+    }
+  }
+
+  private static KvMongoObjectId decodeObjectId(JsonString value) {
+    return new ByteArrayKvMongoObjectId(HexUtils.hex2Bytes(value.getString()));
+  }
+
+  private static class Encoder implements KvValueVisitor<Void, Encoder.Sink> {
+
+    private JsonObject encodeDocument(KvDocument document) {
+      JsonObjectBuilder builder = Json.createObjectBuilder();
+      for (DocEntry<?> entry : document) {
+        entry.getValue().accept(this, new Sink(builder, entry.getKey()));
+      }
+      return builder.build();
+    }
+
+    private JsonArray encodeArray(KvArray array) {
+      JsonArrayBuilder builder = Json.createArrayBuilder();
+      for (KvValue<?> child : array) {
+        child.accept(this, new Sink(builder));
+      }
+      return builder.build();
+    }
+
+    private Void typed(Sink sink, String type, String value) {
+      return sink.add(Json.createObjectBuilder()
+          .add(TYPE_KEY, type)
+          .add(VALUE_KEY, value)
+          .build());
+    }
+
+    private Void typed(Sink sink, String type, JsonObjectBuilder value) {
+      return sink.add(Json.createObjectBuilder()
+          .add(TYPE_KEY, type)
+          .add(VALUE_KEY, value)
+          .build());
+    }
+
+    private Void typed(Sink sink, String type) {
+      return sink.add(Json.createObjectBuilder()
+          .add(TYPE_KEY, type)
+          .addNull(VALUE_KEY)
+          .build());
+    }
+
+    @Override
+    public Void visit(KvBoolean value, Sink arg) {
+      return arg.add(value.getPrimitiveValue() ? JsonValue.TRUE : JsonValue.FALSE);
+    }
+
+    @Override
+    public Void visit(KvNull value, Sink arg) {
+      return arg.add(JsonValue.NULL);
+    }
+
+    @Override
+    public Void visit(KvArray value, Sink arg) {
+      return arg.add(encodeArray(value));
+    }
+
+    @Override
+    public Void visit(KvInteger value, Sink arg) {
+      return arg.add(value.intValue());
+    }
+
+    @Override
+    public Void visit(KvLong value, Sink arg) {
+      return typed(arg, "long", Long.toString(value.longValue()));
+    }
+
+    @Override
+    public Void visit(KvDouble value, Sink arg) {
+      return typed(arg, "double", Double.toString(value.doubleValue()));
+    }
+
+    @Override
+    public Void visit(KvString value, Sink arg) {
+      return arg.add(value.getValue());
+    }
+
+    @Override
+    public Void visit(KvDocument value, Sink arg) {
+      return arg.add(encodeDocument(value));
+    }
+
+    @Override
+    public Void visit(KvMongoObjectId value, Sink arg) {
+      return typed(arg, "objectId", HexUtils.bytes2Hex(value.getArrayValue()));
+    }
+
+    @Override
+    public Void visit(KvInstant value, Sink arg) {
+      return typed(arg, "instant", Long.toString(value.getMillisFromUnix()));
+    }
+
+    @Override
+    public Void visit(KvDate value, Sink arg) {
+      return typed(arg, "date", value.getValue().toString());
+    }
+
+    @Override
+    public Void visit(KvTime value, Sink arg) {
+      return typed(arg, "time", value.getValue().toString());
+    }
+
+    @Override
+    public Void visit(KvBinary value, Sink arg) {
+      return typed(arg, "binary", Json.createObjectBuilder()
+          .add("subtype", value.getSubtype().name())
+          .add("category", value.getCategory())
+          .add("data", HexUtils.bytes2Hex(value.getByteSource().read())));
+    }
+
+    @Override
+    public Void visit(KvMongoTimestamp value, Sink arg) {
+      return typed(arg, "timestamp", Json.createObjectBuilder()
+          .add("secs", value.getSecondsSinceEpoch())
+          .add("ordinal", value.getOrdinal()));
+    }
+
+    @Override
+    public Void visit(KvDecimal128 value, Sink arg) {
+      return typed(arg, "decimal128", Json.createObjectBuilder()
+          .add("high", Long.toString(value.getHigh()))
+          .add("low", Long.toString(value.getLow())));
+    }
+
+    @Override
+    public Void visit(KvMongoJavascript value, Sink arg) {
+      return typed(arg, "javascript", value.getValue());
+    }
+
+    @Override
+    public Void visit(KvMongoJavascriptWithScope value, Sink arg) {
+      return typed(arg, "javascriptWithScope", Json.createObjectBuilder()
+          .add("js", value.getJs())
+          .add("scope", value.getScope()));
+    }
+
+    @Override
+    public Void visit(KvMinKey value, Sink arg) {
+      return typed(arg, "minKey");
+    }
+
+    @Override
+    public Void visit(KvMaxKey value, Sink arg) {
+      return typed(arg, "maxKey");
+    }
+
+    @Override
+    public Void visit(KvUndefined value, Sink arg) {
+      return typed(arg, "undefined");
+    }
+
+    @Override
+    public Void visit(KvMongoRegex value, Sink arg) {
+      return typed(arg, "regex", Json.createObjectBuilder()
+          .add("pattern", value.getPattern())
+          .add("options", value.getOptionsAsText()));
+    }
+
+    @Override
+    public Void visit(KvMongoDbPointer value, Sink arg) {
+      return typed(arg, "dbPointer", Json.createObjectBuilder()
+          .add("namespace", value.getNamespace())
+          .add("id", HexUtils.bytes2Hex(value.getId().getArrayValue())));
+    }
+
+    @Override
+    public Void visit(KvDeprecated value, Sink arg) {
+      return typed(arg, "deprecated", value.getValue());
+    }
+
+    /**
+     * The place where an encoded value is written: either a key of an object or the next element
+     * of an array.
+     */
+    private static class Sink {
+
+      private final JsonObjectBuilder objectBuilder;
+      private final String key;
+      private final JsonArrayBuilder arrayBuilder;
+
+      private Sink(JsonObjectBuilder objectBuilder, String key) {
+        this.objectBuilder = objectBuilder;
+        this.key = key;
+        this.arrayBuilder = null;
+      }
+
+      private Sink(JsonArrayBuilder arrayBuilder) {
+        this.objectBuilder = null;
+        this.key = null;
+        this.arrayBuilder = arrayBuilder;
+      }
+
+      private Void add(JsonValue value) {
+        if (arrayBuilder != null) {
+          arrayBuilder.add(value);
+        } else {
+          objectBuilder.add(key, value);
+        }
+        return null;
+      }
+
+      private Void add(String value) {
+        if (arrayBuilder != null) {
+          arrayBuilder.add(value);
+        } else {
+          objectBuilder.add(key, value);
+        }
+        return null;
+      }
+
+      private Void add(int value) {
+        if (arrayBuilder != null) {
+          arrayBuilder.add(value);
+        } else {
+          objectBuilder.add(key, value);
+        }
+        return null;
+      }
+    }
+  }
+}
@@ -21,8 +21,10 @@ package com.torodb.backend.guice;
 import com.google.inject.PrivateModule;
 import com.google.inject.Singleton;
 import com.torodb.backend.BackendServiceImpl;
+import com.torodb.backend.DataImportMetrics;
 import com.torodb.backend.DslContextFactory;
 import com.torodb.backend.DslContextFactoryImpl;
+import com.torodb.backend.IndexBuildMetrics;
 import com.torodb.backend.KvMetainfoHandler;
 import com.torodb.backend.SqlHelper;
 import com.torodb.backend.SqlInterface;
@@ -77,6 +79,11 @@ public class BackendModule extends PrivateModule {
         .in(Singleton.class);
     expose(SqlHelper.class);
 
+    bind(DataImportMetrics.class)
+        .in(Singleton.class);
+    bind(IndexBuildMetrics.class)
+        .in(Singleton.class);
+
     bind(BackendServiceImpl.class)
         .in(Singleton.class);
     bind(BackendService.class)
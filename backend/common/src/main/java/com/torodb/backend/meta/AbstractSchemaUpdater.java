@@ -21,8 +21,11 @@ package com.torodb.backend.meta;
 import com.google.common.io.CharStreams;
 import com.torodb.backend.BackendLoggerFactory;
 import com.torodb.backend.ErrorHandler.Context;
+import com.torodb.backend.SqlBuilder;
 import com.torodb.backend.SqlHelper;
 import com.torodb.backend.SqlInterface;
+import com.torodb.backend.tables.MetaDocPartIndexTable;
+import com.torodb.backend.tables.MetaIndexTable;
 import com.torodb.core.exceptions.InvalidDatabaseException;
 import com.torodb.core.exceptions.SystemException;
 import com.torodb.core.exceptions.ToroRuntimeException;
@@ -31,6 +34,7 @@ import org.apache.logging.log4j.Logger;
 import org.jooq.DSLContext;
 import org.jooq.Meta;
 import org.jooq.Schema;
+import org.jooq.Table;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -68,6 +72,10 @@ public abstract class AbstractSchemaUpdater implements SchemaUpdater {
       LOGGER.info("Schema '{}' created", TorodbSchema.IDENTIFIER);
     } else {
       LOGGER.info("Schema '{}' found. Checking it...", TorodbSchema.IDENTIFIER);
+      if (upgradeSchema(dsl, torodbSchema.get())) {
+        torodbSchema = sqlInterface.getStructureInterface().findTorodbSchema(dsl);
+        assert torodbSchema.isPresent();
+      }
       checkSchema(torodbSchema.get(), sqlInterface);
       LOGGER.info("Schema '{}' checked", TorodbSchema.IDENTIFIER);
     }
@@ -87,6 +95,40 @@ public abstract class AbstractSchemaUpdater implements SchemaUpdater {
     sqlInterface.getMetaDataWriteInterface().createKvTable(dsl);
   }
 
+  /**
+   * Adds the meta table columns that have been introduced after the given schema was created.
+   *
+   * @return true if the schema has been modified
+   */
+  private boolean upgradeSchema(DSLContext dsl, Schema torodbSchema) {
+    boolean upgraded = addMissingBooleanColumn(dsl, torodbSchema, MetaIndexTable.TABLE_NAME,
+        MetaIndexTable.TableFields.SPARSE.fieldName);
+    upgraded |= addMissingBooleanColumn(dsl, torodbSchema, MetaDocPartIndexTable.TABLE_NAME,
+        MetaDocPartIndexTable.TableFields.SPARSE.fieldName);
+    return upgraded;
+  }
+
+  private boolean addMissingBooleanColumn(DSLContext dsl, Schema torodbSchema, String tableName,
+      String columnName) {
+    for (Table<?> table : torodbSchema.getTables()) {
+      if (sqlInterface.getIdentifierConstraints().isSameIdentifier(table.getName(), tableName)) {
+        if (table.field(columnName) != null) {
+          return false;
+        }
+        LOGGER.info("Adding column '{}' to meta table '{}'", columnName, tableName);
+        String statement = new SqlBuilder("ALTER TABLE ")
+            .table(TorodbSchema.IDENTIFIER, table.getName())
+            .append(" ADD COLUMN ")
+            .quote(columnName)
+            .append(" boolean NOT NULL DEFAULT false")
+            .toString();
+        sqlHelper.executeUpdate(dsl, statement, Context.ADD_COLUMN);
+        return true;
+      }
+    }
+    return false;
+  }
+
   private void checkSchema(Schema torodbSchema, SqlInterface sqlInterface) throws
       InvalidDatabaseException {
     sqlInterface.getStructureInterface().checkMetaDataTables(torodbSchema);
@@ -328,7 +328,8 @@ public class SchemaValidator {
               fields.add(new IndexField(
                   resultSet.getString("COLUMN_NAME"),
                   resultSet.getInt("ORDINAL_POSITION"),
-                  resultSet.getString("ASC_OR_DESC").equals("A")));
+                  //hash indexes are not ordered, so some drivers return NULL on ASC_OR_DESC
+                  "A".equals(resultSet.getString("ASC_OR_DESC"))));
             } finally {
               this.schema = schema;
               this.name = name;
@@ -47,6 +47,7 @@ import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
 import com.torodb.core.backend.SnapshotUpdater;
 import com.torodb.core.exceptions.InvalidDatabaseException;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
@@ -69,6 +70,8 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -173,12 +176,14 @@ public class SnapshotUpdaterImpl implements SnapshotUpdater {
 
       SchemaValidator schemaValidator = new SchemaValidator(dsl, databaseRecord.getIdentifier(),
           databaseRecord.getName());
+      Set<String> invalidIndexes = sqlInterface.getStructureInterface()
+          .getInvalidIndexes(dsl, databaseRecord.getIdentifier());
 
       dsl.selectFrom(collectionTable)
           .where(collectionTable.DATABASE.eq(databaseRecord.getName()))
           .fetch()
           .forEach(
-              (col) -> analyzeCollection(metaDatabase, col, schemaValidator));
+              (col) -> analyzeCollection(metaDatabase, col, schemaValidator, invalidIndexes));
 
       checkCompleteness(databaseRecord, schemaValidator);
     }
@@ -220,7 +225,7 @@ public class SnapshotUpdaterImpl implements SnapshotUpdater {
     }
 
     private void analyzeCollection(MutableMetaDatabase database, MetaCollectionRecord collection,
-        SchemaValidator schemaValidator) {
+        SchemaValidator schemaValidator, Set<String> invalidIndexes) {
       MutableMetaCollection col = database.addMetaCollection(
           collection.getName(),
           collection.getIdentifier()
@@ -231,7 +236,8 @@ public class SnapshotUpdaterImpl implements SnapshotUpdater {
               .and(docPartTable.COLLECTION.eq(collection.getName())))
           .fetch()
           .forEach(
-              (docPart) -> analyzeDocPart(database, col, docPart, schemaValidator));
+              (docPart) -> analyzeDocPart(database, col, docPart, schemaValidator,
+                  invalidIndexes));
 
       dsl.selectFrom(indexTable)
           .where(indexTable.DATABASE.eq(database.getName())
@@ -243,7 +249,7 @@ public class SnapshotUpdaterImpl implements SnapshotUpdater {
 
     private void analyzeDocPart(MutableMetaDatabase database,
         MutableMetaCollection collection, MetaDocPartRecord<Object> docPartRecord,
-        SchemaValidator schemaValidator) {
+        SchemaValidator schemaValidator, Set<String> invalidIndexes) {
       if (!docPartRecord.getCollection().equals(collection.getName())) {
         return;
       }
@@ -280,7 +286,7 @@ public class SnapshotUpdaterImpl implements SnapshotUpdater {
           .fetch()
           .forEach(
               (docPartIndex) -> analyzeDocPartIndex(database, collection, docPart, docPartIndex,
-                  schemaValidator));
+                  schemaValidator, invalidIndexes));
     }
 
     private void analyzeField(MutableMetaDatabase database, MetaCollection collection,
@@ -344,14 +350,39 @@ public class SnapshotUpdaterImpl implements SnapshotUpdater {
 
     private void analyzeDocPartIndex(MutableMetaDatabase database, MetaCollection collection,
         MutableMetaDocPart docPart, MetaDocPartIndexRecord<Object> docPartIndex,
-        SchemaValidator schemaValidator) {
+        SchemaValidator schemaValidator, Set<String> invalidIndexes) {
       TableRef tableRef = docPartIndex.getTableRefValue(tableRefFactory);
 
       if (!tableRef.equals(docPart.getTableRef())) {
         return;
       }
 
-      if (!schemaValidator.existsIndex(docPartIndex.getIdentifier())) {
+      List<MetaDocPartIndexColumnRecord<Object>> indexColumns = dsl.selectFrom(fieldIndexTable)
+          .where(fieldIndexTable.DATABASE.eq(database.getName())
+              .and(fieldIndexTable.INDEX_IDENTIFIER.eq(docPartIndex.getIdentifier())))
+          .orderBy(fieldIndexTable.POSITION)
+          .fetch();
+      //some backends only keep the metadata of the indexes they can not use
+      boolean created = sqlInterface.getStructureInterface().createsIndex(indexColumns.stream()
+          .map(MetaDocPartIndexColumnRecord::getOrdering)
+          .collect(Collectors.toList()));
+
+      boolean exists = !created || schemaValidator.existsIndex(docPartIndex.getIdentifier());
+      if (!docPartIndex.getUnique()
+          && (!exists || invalidIndexes.contains(docPartIndex.getIdentifier()))) {
+        //non unique indexes may be built in background once their metadata has been committed,
+        //so a crash or a failed build can leave the metadata of a missing or invalid index
+        LOGGER.warn("Doc part index under {} is associated with index {}, which has not been "
+            + "completely built. The doc part index is removed", getDocPartRef(database,
+                collection, docPart), getIndexRef(database, docPart, docPartIndex));
+        sqlInterface.getStructureInterface().dropIndex(dsl, database.getIdentifier(),
+            docPartIndex.getIdentifier());
+        sqlInterface.getMetaDataWriteInterface().deleteMetaDocPartIndex(dsl, database.getName(),
+            collection.getName(), docPartIndex.getIdentifier());
+        return;
+      }
+
+      if (!exists) {
         throw new InvalidDatabaseSchemaException(database.getIdentifier(),
             "Doc part index under " + getDocPartRef(database, collection, docPart)
             + " is associated with index " + getIndexRef(database, docPart, docPartIndex)
@@ -359,16 +390,12 @@ public class SnapshotUpdaterImpl implements SnapshotUpdater {
       }
 
       MutableMetaDocPartIndex metaDocPartIndex = docPart.addMetaDocPartIndex(docPartIndex
-          .getUnique());
+          .getUnique(), docPartIndex.getSparse());
 
-      dsl.selectFrom(fieldIndexTable)
-          .where(fieldIndexTable.DATABASE.eq(database.getName())
-              .and(fieldIndexTable.INDEX_IDENTIFIER.eq(docPartIndex.getIdentifier())))
-          .orderBy(fieldIndexTable.POSITION)
-          .fetch()
-          .forEach(
-              (indexField) -> analyzeDocPartIndexColumn(database, collection, docPart,
-                  docPartIndex.getIdentifier(), metaDocPartIndex, indexField, schemaValidator));
+      indexColumns.forEach(
+          (indexField) -> analyzeDocPartIndexColumn(database, collection, docPart,
+              docPartIndex.getIdentifier(), metaDocPartIndex, indexField, schemaValidator,
+              created));
       metaDocPartIndex.immutableCopy(docPartIndex.getIdentifier());
     }
 
@@ -376,7 +403,7 @@ public class SnapshotUpdaterImpl implements SnapshotUpdater {
         MetaDocPart docPart,
         String docPartIndexIdentifier, MutableMetaDocPartIndex docPartIndex,
         MetaDocPartIndexColumnRecord<Object> indexColumn,
-        SchemaValidator schemaValidator) {
+        SchemaValidator schemaValidator, boolean created) {
       if (!indexColumn.getIndexIdentifier().equals(docPartIndexIdentifier)) {
         return;
       }
@@ -389,8 +416,11 @@ public class SnapshotUpdaterImpl implements SnapshotUpdater {
             + " but no associated field has been found");
       }
 
-      if (!schemaValidator.existsIndexColumn(docPartIndexIdentifier, indexColumn.getPosition(),
-          field.getIdentifier())) {
+      //text index columns are expressions over the column (like to_tsvector) instead of the
+      //column itself, so they can not be matched by name
+      if (created && indexColumn.getOrdering() != FieldIndexOrdering.TEXT
+          && !schemaValidator.existsIndexColumn(docPartIndexIdentifier,
+          indexColumn.getPosition(), field.getIdentifier())) {
         throw new InvalidDatabaseSchemaException(database.getIdentifier(),
             "Doc part index column " + getDocPartIndexColumnRef(database, collection, docPart,
                 docPartIndexIdentifier, indexColumn)
@@ -409,7 +439,8 @@ public class SnapshotUpdaterImpl implements SnapshotUpdater {
       if (!index.getCollection().equals(metaCollection.getName())) {
         return;
       }
-      MutableMetaIndex metaIndex = metaCollection.addMetaIndex(index.getName(), index.getUnique());
+      MutableMetaIndex metaIndex = metaCollection.addMetaIndex(index.getName(), index.getUnique(),
+          index.getSparse());
 
       dsl.selectFrom(indexFieldTable)
           .where(indexFieldTable.DATABASE.eq(db.getName())
@@ -23,15 +23,15 @@ import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
 import org.jooq.Field;
 import org.jooq.Record2;
-import org.jooq.Record5;
-import org.jooq.Row5;
+import org.jooq.Record6;
+import org.jooq.Row6;
 import org.jooq.impl.UpdatableRecordImpl;
 
 @SuppressWarnings({"checkstyle:LineLength", "checkstyle:AbbreviationAsWordInName",
     "checkstyle:MemberName", "checkstyle:OverloadMethodsDeclarationOrder"})
 public abstract class MetaDocPartIndexRecord<TableRefTypeT>
     extends UpdatableRecordImpl<MetaDocPartIndexRecord<TableRefTypeT>>
-    implements Record5<String, String, String, TableRefTypeT, Boolean> {
+    implements Record6<String, String, String, TableRefTypeT, Boolean, Boolean> {
 
   private static final long serialVersionUID = -2107968478;
 
@@ -106,6 +106,20 @@ public abstract class MetaDocPartIndexRecord<TableRefTypeT>
     return (Boolean) getValue(4);
   }
 
+  /**
+   * Setter for <code>torodb.container.sparse</code>.
+   */
+  public void setSparse(Boolean value) {
+    set(5, value);
+  }
+
+  /**
+   * Getter for <code>torodb.container.sparse</code>.
+   */
+  public Boolean getSparse() {
+    return (Boolean) getValue(5);
+  }
+
   // -------------------------------------------------------------------------
   // Primary key information
   // -------------------------------------------------------------------------
@@ -126,8 +140,8 @@ public abstract class MetaDocPartIndexRecord<TableRefTypeT>
    */
   @SuppressWarnings("unchecked")
   @Override
-  public Row5<String, String, String, TableRefTypeT, Boolean> fieldsRow() {
-    return (Row5<String, String, String, TableRefTypeT, Boolean>) super.fieldsRow();
+  public Row6<String, String, String, TableRefTypeT, Boolean, Boolean> fieldsRow() {
+    return (Row6<String, String, String, TableRefTypeT, Boolean, Boolean>) super.fieldsRow();
   }
 
   /**
@@ -135,8 +149,8 @@ public abstract class MetaDocPartIndexRecord<TableRefTypeT>
    */
   @SuppressWarnings("unchecked")
   @Override
-  public Row5<String, String, String, TableRefTypeT, Boolean> valuesRow() {
-    return (Row5<String, String, String, TableRefTypeT, Boolean>) super.valuesRow();
+  public Row6<String, String, String, TableRefTypeT, Boolean, Boolean> valuesRow() {
+    return (Row6<String, String, String, TableRefTypeT, Boolean, Boolean>) super.valuesRow();
   }
 
   /**
@@ -179,6 +193,14 @@ public abstract class MetaDocPartIndexRecord<TableRefTypeT>
     return metaDocPartTable.UNIQUE;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Field<Boolean> field6() {
+    return metaDocPartTable.SPARSE;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -219,6 +241,14 @@ public abstract class MetaDocPartIndexRecord<TableRefTypeT>
     return getUnique();
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Boolean value6() {
+    return getSparse();
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -264,16 +294,25 @@ public abstract class MetaDocPartIndexRecord<TableRefTypeT>
     return this;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public MetaDocPartIndexRecord<TableRefTypeT> value6(Boolean value) {
+    setSparse(value);
+    return this;
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
   public abstract MetaDocPartIndexRecord<TableRefTypeT> values(String database, String identifier,
-      String collection, TableRefTypeT tableRef, Boolean unique);
+      String collection, TableRefTypeT tableRef, Boolean unique, Boolean sparse);
 
   public MetaDocPartIndexRecord<TableRefTypeT> values(String database, String identifier,
-      String collection, TableRef tableRef, Boolean unique) {
-    return values(database, identifier, collection, toTableRefType(tableRef), unique);
+      String collection, TableRef tableRef, Boolean unique, Boolean sparse) {
+    return values(database, identifier, collection, toTableRefType(tableRef), unique, sparse);
   }
 
   protected abstract TableRefTypeT toTableRefType(TableRef tableRef);
@@ -21,13 +21,13 @@ package com.torodb.backend.tables.records;
 import com.torodb.backend.tables.MetaIndexTable;
 import org.jooq.Field;
 import org.jooq.Record3;
-import org.jooq.Record4;
-import org.jooq.Row4;
+import org.jooq.Record5;
+import org.jooq.Row5;
 import org.jooq.impl.UpdatableRecordImpl;
 
 @SuppressWarnings("checkstyle:OverloadMethodsDeclarationOrder")
 public abstract class MetaIndexRecord extends UpdatableRecordImpl<MetaIndexRecord>
-    implements Record4<String, String, String, Boolean> {
+    implements Record5<String, String, String, Boolean, Boolean> {
 
   private static final long serialVersionUID = -567809380986685830L;
 
@@ -87,6 +87,20 @@ public abstract class MetaIndexRecord extends UpdatableRecordImpl<MetaIndexRecor
     return (Boolean) getValue(3);
   }
 
+  /**
+   * Setter for <code>torodb.index.sparse</code>.
+   */
+  public void setSparse(Boolean value) {
+    set(4, value);
+  }
+
+  /**
+   * Getter for <code>torodb.index.sparse</code>.
+   */
+  public Boolean getSparse() {
+    return (Boolean) getValue(4);
+  }
+
   // -------------------------------------------------------------------------
   // Primary key information
   // -------------------------------------------------------------------------
@@ -107,8 +121,8 @@ public abstract class MetaIndexRecord extends UpdatableRecordImpl<MetaIndexRecor
    */
   @SuppressWarnings("unchecked")
   @Override
-  public Row4<String, String, String, Boolean> fieldsRow() {
-    return (Row4<String, String, String, Boolean>) super.fieldsRow();
+  public Row5<String, String, String, Boolean, Boolean> fieldsRow() {
+    return (Row5<String, String, String, Boolean, Boolean>) super.fieldsRow();
   }
 
   /**
@@ -116,8 +130,8 @@ public abstract class MetaIndexRecord extends UpdatableRecordImpl<MetaIndexRecor
    */
   @SuppressWarnings("unchecked")
   @Override
-  public Row4<String, String, String, Boolean> valuesRow() {
-    return (Row4<String, String, String, Boolean>) super.valuesRow();
+  public Row5<String, String, String, Boolean, Boolean> valuesRow() {
+    return (Row5<String, String, String, Boolean, Boolean>) super.valuesRow();
   }
 
   /**
@@ -152,6 +166,14 @@ public abstract class MetaIndexRecord extends UpdatableRecordImpl<MetaIndexRecor
     return metaIndexTable.UNIQUE;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Field<Boolean> field5() {
+    return metaIndexTable.SPARSE;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -184,6 +206,14 @@ public abstract class MetaIndexRecord extends UpdatableRecordImpl<MetaIndexRecor
     return getUnique();
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Boolean value5() {
+    return getSparse();
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -220,12 +250,21 @@ public abstract class MetaIndexRecord extends UpdatableRecordImpl<MetaIndexRecor
     return this;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public MetaIndexRecord value5(Boolean value) {
+    setSparse(value);
+    return this;
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
   public abstract MetaIndexRecord values(String database, String collection, String name,
-      Boolean unique);
+      Boolean unique, Boolean sparse);
 
   // -------------------------------------------------------------------------
   // Constructors
@@ -0,0 +1,140 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.backend;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.backend.BackendServiceImpl.BackgroundIndexBuild;
+import com.torodb.backend.meta.SchemaUpdater;
+import com.torodb.common.util.Empty;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.concurrent.ConcurrentToolsFactory;
+import com.torodb.core.concurrent.StreamExecutor;
+import com.torodb.core.d2r.IdentifierFactory;
+import com.torodb.core.d2r.ReservedIdGenerator;
+import com.torodb.core.metrics.DisabledMetricRegistry;
+import com.torodb.core.retrier.Retrier;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
+import org.jooq.DSLContext;
+import org.jooq.lambda.tuple.Tuple2;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.stream.Stream;
+
+public class BackendServiceImplTest {
+
+  private static final List<Tuple2<String, FieldIndexOrdering>> COLUMNS = ImmutableList.of(
+      new Tuple2<>("a_s", FieldIndexOrdering.ASC));
+
+  private StructureInterface structureInterface;
+  private MetaDataWriteInterface metaDataWriteInterface;
+  private Connection connection;
+  private DSLContext dsl;
+  private BackendServiceImpl backendService;
+
+  @Before
+  public void setUp() {
+    structureInterface = mock(StructureInterface.class);
+    metaDataWriteInterface = mock(MetaDataWriteInterface.class);
+    connection = mock(Connection.class);
+    dsl = mock(DSLContext.class);
+
+    DbBackendService dbBackend = mock(DbBackendService.class);
+    given(dbBackend.createWriteConnection()).willReturn(connection);
+    DslContextFactory dslContextFactory = mock(DslContextFactory.class);
+    given(dslContextFactory.createDslContext(connection)).willReturn(dsl);
+    SqlInterface sqlInterface = mock(SqlInterface.class);
+    given(sqlInterface.getDbBackend()).willReturn(dbBackend);
+    given(sqlInterface.getDslContextFactory()).willReturn(dslContextFactory);
+    given(sqlInterface.getStructureInterface()).willReturn(structureInterface);
+    given(sqlInterface.getMetaDataWriteInterface()).willReturn(metaDataWriteInterface);
+
+    //background builds are executed on the calling thread
+    StreamExecutor streamExecutor = mock(StreamExecutor.class);
+    given(streamExecutor.executeRunnables(any())).willAnswer(invocation -> {
+      Stream<Runnable> runnables = invocation.getArgument(0);
+      runnables.forEach(Runnable::run);
+      return CompletableFuture.completedFuture(Empty.getInstance());
+    });
+    ConcurrentToolsFactory concurrentToolsFactory = mock(ConcurrentToolsFactory.class);
+    given(concurrentToolsFactory.createStreamExecutor(any(), anyString(), anyBoolean(), anyInt()))
+        .willReturn(streamExecutor);
+
+    DisabledMetricRegistry metricRegistry = new DisabledMetricRegistry();
+    backendService = new BackendServiceImpl(mock(ThreadFactory.class),
+        mock(ReservedIdGenerator.class), dbBackend, sqlInterface, mock(TableRefFactory.class),
+        mock(IdentifierFactory.class), mock(Retrier.class), concurrentToolsFactory,
+        mock(KvMetainfoHandler.class), mock(SchemaUpdater.class),
+        new DataImportMetrics(metricRegistry), new IndexBuildMetrics(metricRegistry));
+  }
+
+  @Test
+  public void testSuccessfulBuildKeepsTheMetadata() throws Exception {
+    backendService.buildIndexesInBackground(ImmutableList.of(createBuild()));
+
+    then(connection).should().setAutoCommit(true);
+    then(structureInterface).should().createIndexConcurrently(dsl, "idx", "schema", "table",
+        COLUMNS, false, false);
+    then(structureInterface).should(never()).dropIndex(any(), anyString(), anyString());
+    then(metaDataWriteInterface).should(never()).deleteMetaDocPartIndex(any(), anyString(),
+        anyString(), anyString());
+  }
+
+  @Test
+  public void testFailedBuildRemovesTheMetadata() throws Exception {
+    willThrow(new RuntimeException("build failed")).given(structureInterface)
+        .createIndexConcurrently(dsl, "idx", "schema", "table", COLUMNS, false, false);
+
+    backendService.buildIndexesInBackground(ImmutableList.of(createBuild()));
+
+    then(structureInterface).should().dropIndex(dsl, "schema", "idx");
+    then(metaDataWriteInterface).should().deleteMetaDocPartIndex(dsl, "db", "col", "idx");
+    then(connection).should().commit();
+  }
+
+  @Test
+  public void testFailedMetadataRemovalIsNotPropagated() throws Exception {
+    willThrow(new RuntimeException("build failed")).given(structureInterface)
+        .createIndexConcurrently(dsl, "idx", "schema", "table", COLUMNS, false, false);
+    willThrow(new RuntimeException("delete failed")).given(metaDataWriteInterface)
+        .deleteMetaDocPartIndex(dsl, "db", "col", "idx");
+
+    backendService.buildIndexesInBackground(ImmutableList.of(createBuild()));
+
+    then(connection).should(never()).commit();
+  }
+
+  private static BackgroundIndexBuild createBuild() {
+    return new BackgroundIndexBuild("db", "col", "schema", "table", "idx", COLUMNS, false, false);
+  }
+
+}
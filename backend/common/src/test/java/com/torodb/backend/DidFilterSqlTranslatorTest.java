@@ -0,0 +1,165 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.backend;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.TableRef;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.backend.query.AndDidFilter;
+import com.torodb.core.backend.query.ColumnDidFilter;
+import com.torodb.core.backend.query.ColumnDidFilter.Operator;
+import com.torodb.core.backend.query.ConstantDidFilter;
+import com.torodb.core.backend.query.DidFilter;
+import com.torodb.core.backend.query.NotDidFilter;
+import com.torodb.core.backend.query.OrDidFilter;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.ImmutableMetaDocPart;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+public class DidFilterSqlTranslatorTest {
+
+  private final TableRefFactory tableRefFactory = new TableRefFactoryImpl();
+  private final TableRef rootRef = tableRefFactory.createRoot();
+  private final TableRef subRef = tableRefFactory.createChild(rootRef, "sub");
+  private final MetaDocPart rootDocPart = new ImmutableMetaDocPart.Builder(rootRef, "col")
+      .putField("a", "a_i", FieldType.INTEGER)
+      .putField("s", "s_s", FieldType.STRING)
+      .putField("sub", "sub_e", FieldType.CHILD)
+      .build();
+  private final MetaDocPart subDocPart = new ImmutableMetaDocPart.Builder(subRef, "col_sub")
+      .putField("x", "x_i", FieldType.INTEGER)
+      .putField("t", "t_s", FieldType.STRING)
+      .build();
+  private SqlHelper sqlHelper;
+
+  @Before
+  public void setUp() {
+    sqlHelper = mock(SqlHelper.class);
+    when(sqlHelper.getPlaceholder(any(FieldType.class)))
+        .then(invocation -> "?::" + invocation.getArgument(0));
+  }
+
+  @Test
+  public void testConstants() {
+    assertEquals("1 = 1", translate(ConstantDidFilter.TRUE).v1);
+    assertEquals("1 = 0", translate(ConstantDidFilter.FALSE).v1);
+  }
+
+  @Test
+  public void testRootConditionsAreNeverNull() {
+    Tuple3<String, List<Tuple2<FieldType, KvValue<?>>>, List<ColumnDidFilter>> result =
+        translate(OrDidFilter.of(ImmutableList.of(
+            NotDidFilter.of(column(rootDocPart, "a_i", FieldType.INTEGER, Operator.GT,
+                KvInteger.of(1))),
+            column(rootDocPart, "s_s", FieldType.STRING, Operator.NOT_NULL))));
+
+    assertEquals("(NOT ((\"a_i\" IS NOT NULL AND \"a_i\" > ?::INTEGER))"
+        + " OR (\"s_s\" IS NOT NULL))", result.v1);
+    assertEquals(ImmutableList.of(parameter(FieldType.INTEGER, KvInteger.of(1))), result.v2);
+  }
+
+  @Test
+  public void testNestedDocPartsAreSemiJoined() {
+    Tuple3<String, List<Tuple2<FieldType, KvValue<?>>>, List<ColumnDidFilter>> result =
+        translate(AndDidFilter.of(ImmutableList.of(
+            column(rootDocPart, "a_i", FieldType.INTEGER, Operator.LTE, KvInteger.of(7)),
+            NotDidFilter.of(OrDidFilter.of(ImmutableList.of(
+                column(subDocPart, "x_i", FieldType.INTEGER, Operator.IN, KvInteger.of(1),
+                    KvInteger.of(2)),
+                column(subDocPart, "t_s", FieldType.STRING, Operator.EQ,
+                    new StringKvString("z"))))))));
+
+    assertEquals("((\"a_i\" IS NOT NULL AND \"a_i\" <= ?::INTEGER)"
+        + " AND NOT ((\"did\" IN (SELECT \"did\" FROM \"db\".\"col_sub\""
+        + " WHERE \"x_i\" IN (?::INTEGER,?::INTEGER))"
+        + " OR \"did\" IN (SELECT \"did\" FROM \"db\".\"col_sub\" WHERE \"t_s\" = ?::STRING))))",
+        result.v1);
+    assertEquals(ImmutableList.of(
+        parameter(FieldType.INTEGER, KvInteger.of(7)),
+        parameter(FieldType.INTEGER, KvInteger.of(1)),
+        parameter(FieldType.INTEGER, KvInteger.of(2)),
+        parameter(FieldType.STRING, new StringKvString("z"))), result.v2);
+  }
+
+  @Test
+  public void testOnlyPositiveRootTextFiltersRankTheDocuments() {
+    ColumnDidFilter rootText = column(rootDocPart, "s_s", FieldType.STRING, Operator.TEXT_ANY,
+        new StringKvString("quick"), new StringKvString("fox"));
+    ColumnDidFilter negatedRootText = column(rootDocPart, "s_s", FieldType.STRING,
+        Operator.TEXT_ANY, new StringKvString("dog"));
+    ColumnDidFilter subText = column(subDocPart, "t_s", FieldType.STRING, Operator.TEXT_PHRASE,
+        new StringKvString("brown fox"));
+
+    Tuple3<String, List<Tuple2<FieldType, KvValue<?>>>, List<ColumnDidFilter>> result =
+        translate(AndDidFilter.of(ImmutableList.of(rootText, NotDidFilter.of(negatedRootText),
+            subText)));
+
+    assertEquals("((\"s_s\" IS NOT NULL AND TEXT_ANY(\"s_s\", ?::STRING, ?::STRING))"
+        + " AND NOT ((\"s_s\" IS NOT NULL AND TEXT_ANY(\"s_s\", ?::STRING)))"
+        + " AND \"did\" IN (SELECT \"did\" FROM \"db\".\"col_sub\""
+        + " WHERE TEXT_PHRASE(\"t_s\", ?::STRING)))", result.v1);
+    assertEquals(ImmutableList.of(
+        parameter(FieldType.STRING, new StringKvString("quick")),
+        parameter(FieldType.STRING, new StringKvString("fox")),
+        parameter(FieldType.STRING, new StringKvString("dog")),
+        parameter(FieldType.STRING, new StringKvString("brown fox"))), result.v2);
+    assertEquals(Collections.singletonList(rootText), result.v3);
+  }
+
+  private Tuple3<String, List<Tuple2<FieldType, KvValue<?>>>, List<ColumnDidFilter>> translate(
+      DidFilter filter) {
+    return DidFilterSqlTranslator.translate(sqlHelper, "db", rootDocPart, filter,
+        (sb, textFilter, parameterAppender) -> {
+          sb.append(textFilter.getOperator().name())
+              .append('(')
+              .quote(textFilter.getColumnIdentifier());
+          for (KvValue<?> value : textFilter.getValues()) {
+            sb.append(", ");
+            parameterAppender.accept(value);
+          }
+          sb.append(')');
+        });
+  }
+
+  private static ColumnDidFilter column(MetaDocPart docPart, String columnIdentifier,
+      FieldType type, Operator operator, KvValue<?>... values) {
+    return new ColumnDidFilter(docPart, columnIdentifier, type, operator,
+        ImmutableList.copyOf(values));
+  }
+
+  private static Tuple2<FieldType, KvValue<?>> parameter(FieldType type, KvValue<?> value) {
+    return new Tuple2<>(type, value);
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.torodb.core.backend.MetaInfoKey;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import org.jooq.DSLContext;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+public class KvMetainfoHandlerTest {
+
+  private final Map<String, String> storage = new HashMap<>();
+  private final DSLContext dsl = mock(DSLContext.class);
+  private KvMetainfoHandler handler;
+
+  @Before
+  public void setUp() {
+    MetaDataReadInterface readInterface = mock(MetaDataReadInterface.class);
+    when(readInterface.readKv(any(DSLContext.class), any(MetaInfoKey.class)))
+        .then(invocation -> Optional.ofNullable(
+            storage.get(invocation.<MetaInfoKey>getArgument(1).getKeyName())));
+    MetaDataWriteInterface writeInterface = mock(MetaDataWriteInterface.class);
+    when(writeInterface.writeMetaInfo(any(DSLContext.class), any(MetaInfoKey.class),
+        anyString()))
+        .then(invocation -> storage.put(invocation.<MetaInfoKey>getArgument(1).getKeyName(),
+            invocation.getArgument(2)));
+    SqlInterface sqlInterface = mock(SqlInterface.class);
+    when(sqlInterface.getMetaDataReadInterface()).thenReturn(readInterface);
+    when(sqlInterface.getMetaDataWriteInterface()).thenReturn(writeInterface);
+
+    handler = new KvMetainfoHandler(sqlInterface);
+  }
+
+  @Test
+  public void testNumbersRoundTrip() {
+    assertRoundTrip(KvInteger.of(12));
+    assertRoundTrip(KvInteger.of(-12));
+    assertRoundTrip(KvLong.of(-8_000_000_000L));
+    assertRoundTrip(KvLong.of(Long.MIN_VALUE));
+    assertRoundTrip(KvLong.of(Long.MAX_VALUE));
+    assertRoundTrip(KvDouble.of(-0.5));
+  }
+
+  @Test
+  public void testOtherValuesRoundTrip() {
+    assertRoundTrip(KvBoolean.TRUE);
+    assertRoundTrip(KvNull.getInstance());
+    assertRoundTrip(new StringKvString(""));
+    assertRoundTrip(new StringKvString("-"));
+    assertRoundTrip(new StringKvString("-abc"));
+  }
+
+  private void assertRoundTrip(KvValue<?> value) {
+    MetaInfoKey key = () -> "key";
+    handler.writeMetaInfo(dsl, key, value);
+    assertEquals(Optional.of(value), handler.readMetaInfo(dsl, key));
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.backend.converters.json;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.io.ByteSource;
+import com.torodb.kvdocument.values.KvBinary.KvBinarySubtype;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDecimal128;
+import com.torodb.kvdocument.values.KvDeprecated;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvMaxKey;
+import com.torodb.kvdocument.values.KvMinKey;
+import com.torodb.kvdocument.values.KvMongoDbPointer;
+import com.torodb.kvdocument.values.KvMongoJavascript;
+import com.torodb.kvdocument.values.KvMongoJavascriptWithScope;
+import com.torodb.kvdocument.values.KvMongoRegex;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvUndefined;
+import com.torodb.kvdocument.values.heap.ByteArrayKvMongoObjectId;
+import com.torodb.kvdocument.values.heap.ByteSourceKvBinary;
+import com.torodb.kvdocument.values.heap.DefaultKvMongoTimestamp;
+import com.torodb.kvdocument.values.heap.ListKvArray;
+import com.torodb.kvdocument.values.heap.LocalDateKvDate;
+import com.torodb.kvdocument.values.heap.LocalTimeKvTime;
+import com.torodb.kvdocument.values.heap.LongKvInstant;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+public class TypedKvValueJsonCodecTest {
+
+  @Test
+  public void documentsAreReadAsTheyWereWritten() {
+    KvDocument document = new KvDocument.Builder()
+        .putValue("string", new StringKvString("a string"))
+        .putValue("integer", KvInteger.of(1))
+        .putValue("long", KvLong.of(Long.MAX_VALUE))
+        .putValue("double", KvDouble.of(1.0))
+        .putValue("nan", KvDouble.of(Double.NaN))
+        .putValue("boolean", KvBoolean.TRUE)
+        .putValue("null", KvNull.getInstance())
+        .putValue("decimal", KvDecimal128.of(912012L, 912912741L))
+        .putValue("date", new LocalDateKvDate(LocalDate.of(2016, 12, 31)))
+        .putValue("time", new LocalTimeKvTime(LocalTime.of(23, 59, 1)))
+        .putValue("instant", new LongKvInstant(234123L))
+        .putValue("binary", new ByteSourceKvBinary(KvBinarySubtype.MONGO_MD5, (byte) 1,
+            ByteSource.wrap(new byte[] {1, 2, 3})))
+        .putValue("objectId", new ByteArrayKvMongoObjectId("101010101010".getBytes()))
+        .putValue("timestamp", new DefaultKvMongoTimestamp(1234, 3))
+        .putValue("javascript", KvMongoJavascript.of("function"))
+        .putValue("javascriptWithScope", KvMongoJavascriptWithScope.of("function", "{}"))
+        .putValue("minKey", KvMinKey.getInstance())
+        .putValue("maxKey", KvMaxKey.getInstance())
+        .putValue("undefined", KvUndefined.getInstance())
+        .putValue("regex", KvMongoRegex.of("hello", "gim"))
+        .putValue("dbPointer", KvMongoDbPointer.of("ns",
+            new ByteArrayKvMongoObjectId("101010101110".getBytes())))
+        .putValue("deprecated", KvDeprecated.of("deprecated"))
+        .putValue("array", new ListKvArray(Arrays.asList(KvInteger.of(1), KvLong.of(2L),
+            new KvDocument.Builder().putValue("a", KvDouble.of(3.5)).build())))
+        .putValue("document", new KvDocument.Builder()
+            .putValue("a", KvLong.of(1L))
+            .build())
+        .build();
+
+    assertEquals(document, TypedKvValueJsonCodec.fromJson(TypedKvValueJsonCodec.toJson(document)));
+  }
+
+}
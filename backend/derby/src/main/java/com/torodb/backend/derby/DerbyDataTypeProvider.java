@@ -39,6 +39,7 @@ import com.torodb.backend.derby.converters.jooq.MongoObjectIdValueConverter;
 import com.torodb.backend.derby.converters.jooq.MongoRegexValueConverter;
 import com.torodb.backend.derby.converters.jooq.MongoTimestampValueConverter;
 import com.torodb.backend.derby.converters.jooq.NullValueConverter;
+import com.torodb.backend.derby.converters.jooq.OverflowValueConverter;
 import com.torodb.backend.derby.converters.jooq.StringValueConverter;
 import com.torodb.backend.derby.converters.jooq.TimeValueConverter;
 import com.torodb.backend.derby.converters.jooq.UndefinedValueConverter;
@@ -74,6 +75,7 @@ public class DerbyDataTypeProvider extends AbstractDataTypeProvider {
             .put(FieldType.MONGO_REGEX, MongoRegexValueConverter.TYPE)
             .put(FieldType.MONGO_DB_POINTER, MongoDbPointerValueConverter.TYPE)
             .put(FieldType.DEPRECATED, DeprecatedValueConverter.TYPE)
+            .put(FieldType.OVERFLOW, OverflowValueConverter.TYPE)
             .build()
     );
   }
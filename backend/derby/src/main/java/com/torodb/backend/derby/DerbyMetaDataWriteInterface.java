@@ -159,6 +159,7 @@ public class DerbyMetaDataWriteInterface extends AbstractMetaDataWriteInterface
         .quote(MetaIndexTable.TableFields.COLLECTION).append(" varchar(32672)  NOT NULL        ,")
         .quote(MetaIndexTable.TableFields.NAME).append("     varchar(32672)  NOT NULL        ,")
         .quote(MetaIndexTable.TableFields.UNIQUE).append("     boolean  NOT NULL        ,")
+        .quote(MetaIndexTable.TableFields.SPARSE).append(" boolean NOT NULL DEFAULT false,")
         .append("    PRIMARY KEY (").quote(MetaIndexTable.TableFields.DATABASE).append(",")
         .quote(MetaIndexTable.TableFields.COLLECTION).append(",")
         .quote(MetaIndexTable.TableFields.NAME).append(")")
@@ -201,6 +202,7 @@ public class DerbyMetaDataWriteInterface extends AbstractMetaDataWriteInterface
         .quote(MetaDocPartIndexTable.TableFields.COLLECTION).append(" varchar(32672)   NOT NULL ,")
         .quote(MetaDocPartIndexTable.TableFields.TABLE_REF).append("  varchar(32672) NOT NULL ,")
         .quote(MetaDocPartIndexTable.TableFields.UNIQUE).append("     boolean  NOT NULL        ,")
+        .quote(MetaDocPartIndexTable.TableFields.SPARSE).append(" boolean NOT NULL DEFAULT false,")
         .append("    PRIMARY KEY (").quote(MetaDocPartIndexTable.TableFields.DATABASE).append(",")
         .quote(MetaDocPartIndexTable.TableFields.IDENTIFIER).append(")")
         .append(")")
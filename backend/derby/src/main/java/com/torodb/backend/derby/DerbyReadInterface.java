@@ -20,17 +20,24 @@ package com.torodb.backend.derby;
 
 import com.torodb.backend.AbstractReadInterface;
 import com.torodb.backend.InternalField;
+import com.torodb.backend.SqlBuilder;
 import com.torodb.backend.SqlHelper;
 import com.torodb.backend.tables.MetaDocPartTable.DocPartTableFields;
 import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
+import com.torodb.core.backend.query.ColumnDidFilter;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.StringKvString;
 import org.jooq.Converter;
 import org.jooq.lambda.tuple.Tuple2;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import javax.inject.Inject;
@@ -233,4 +240,53 @@ public class DerbyReadInterface extends AbstractReadInterface {
     String statement = sb.toString();
     return statement;
   }
+
+  /**
+   * Derby has no full text search, so the words and phrases are looked for with a case insensitive
+   * {@code LIKE}, which neither stems them nor takes word boundaries into account.
+   */
+  @Override
+  protected void appendTextCondition(SqlBuilder sb, ColumnDidFilter filter,
+      Consumer<KvValue<?>> parameterAppender) {
+    String separator = "(";
+    for (KvValue<?> value : filter.getValues()) {
+      sb.append(separator);
+      appendContains(sb, filter.getColumnIdentifier(), value, parameterAppender);
+      separator = " OR ";
+    }
+    sb.append(')');
+  }
+
+  /**
+   * Documents are sorted by the number of searched words and phrases their text searched columns
+   * contain, as found by the same {@code LIKE} conditions used to filter them.
+   */
+  @Override
+  protected void appendTextScoreOrder(SqlBuilder sb, List<ColumnDidFilter> textFilters,
+      Consumer<KvValue<?>> parameterAppender) {
+    String separator = " ORDER BY ";
+    for (ColumnDidFilter textFilter : textFilters) {
+      for (KvValue<?> value : textFilter.getValues()) {
+        sb.append(separator)
+            .append("CASE WHEN ");
+        appendContains(sb, textFilter.getColumnIdentifier(), value, parameterAppender);
+        sb.append(" THEN 1 ELSE 0 END");
+        separator = " + ";
+      }
+    }
+    sb.append(" DESC");
+  }
+
+  private void appendContains(SqlBuilder sb, String columnIdentifier, KvValue<?> value,
+      Consumer<KvValue<?>> parameterAppender) {
+    String pattern = value.getValue().toString().toLowerCase(Locale.ROOT)
+        .replace("\\", "\\\\")
+        .replace("%", "\\%")
+        .replace("_", "\\_");
+    sb.append("LOWER(")
+        .quote(columnIdentifier)
+        .append(") LIKE ");
+    parameterAppender.accept(new StringKvString('%' + pattern + '%'));
+    sb.append(" ESCAPE '\\'");
+  }
 }
@@ -26,6 +26,7 @@ import com.torodb.backend.SqlBuilder;
 import com.torodb.backend.SqlHelper;
 import com.torodb.backend.converters.jooq.DataTypeForKv;
 import com.torodb.core.backend.IdentifierConstraints;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
 import org.jooq.DSLContext;
 import org.jooq.lambda.tuple.Tuple2;
 
@@ -79,9 +80,20 @@ public class DerbyStructureInterface extends AbstractStructureInterface {
     return "DROP SCHEMA \"" + schemaName + "\" RESTRICT";
   }
 
+  /**
+   * Derby does not support full text indexes, so text indexes are not created. A btree would not
+   * speed up the {@code LIKE} searches used instead and long strings do not fit on its keys.
+   */
+  @Override
+  public boolean createsIndex(List<FieldIndexOrdering> orderings) {
+    return !orderings.contains(FieldIndexOrdering.TEXT);
+  }
+
   @Override
   protected String getCreateIndexStatement(String indexName, String schemaName, String tableName,
-      List<Tuple2<String, Boolean>> columnList, boolean unique) {
+      List<Tuple2<String, FieldIndexOrdering>> columnList, boolean unique, boolean sparse) {
+    //Derby does not support partial nor hash indexes, so sparse indexes contain all the rows and
+    //hashed columns are indexed on a btree
     StringBuilder sb = new StringBuilder()
         .append(unique ? "CREATE UNIQUE INDEX " : "CREATE INDEX ")
         .append("\"").append(indexName).append("\"")
@@ -90,15 +102,30 @@ public class DerbyStructureInterface extends AbstractStructureInterface {
         .append(".")
         .append("\"").append(tableName).append("\"")
         .append(" (");
-    for (Tuple2<String, Boolean> columnEntry : columnList) {
+    for (Tuple2<String, FieldIndexOrdering> columnEntry : columnList) {
       sb.append("\"").append(columnEntry.v1()).append("\" ")
-          .append(columnEntry.v2() ? "ASC," : "DESC,");
+          .append(columnEntry.v2().isAscending() ? "ASC," : "DESC,");
     }
     sb.setCharAt(sb.length() - 1, ')');
     String statement = sb.toString();
     return statement;
   }
 
+  /**
+   * Derby does not support {@code DROP INDEX IF EXISTS}, so the index is only dropped if it is
+   * found on the system tables.
+   */
+  @Override
+  public void dropIndex(DSLContext dsl, String schemaName, String indexName) {
+    boolean exists = dsl.fetchExists(dsl.selectOne()
+        .from("SYS.SYSCONGLOMERATES c JOIN SYS.SYSSCHEMAS s ON c.SCHEMAID = s.SCHEMAID")
+        .where("c.ISINDEX = TRUE AND s.SCHEMANAME = ? AND c.CONGLOMERATENAME = ?", schemaName,
+            indexName));
+    if (exists) {
+      super.dropIndex(dsl, schemaName, indexName);
+    }
+  }
+
   @Override
   protected String getDropIndexStatement(String schemaName, String indexName) {
     StringBuilder sb = new StringBuilder()
@@ -117,11 +144,11 @@ public class DerbyStructureInterface extends AbstractStructureInterface {
 
   @Override
   protected String getCreateDocPartTableStatement(String schemaName, String tableName,
-      Collection<InternalField<?>> fields) {
+      Collection<InternalField<?>> fields, List<Tuple2<String, DataTypeForKv<?>>> columns) {
     SqlBuilder sb = new SqlBuilder("CREATE TABLE ");
     sb.table(schemaName, tableName)
         .append(" (");
-    if (!fields.isEmpty()) {
+    if (!fields.isEmpty() || !columns.isEmpty()) {
       for (InternalField<?> field : fields) {
         sb.quote(field.getName()).append(' ')
             .append(field.getDataType().getCastTypeName());
@@ -130,6 +157,11 @@ public class DerbyStructureInterface extends AbstractStructureInterface {
         }
         sb.append(',');
       }
+      for (Tuple2<String, DataTypeForKv<?>> column : columns) {
+        sb.quote(column.v1()).append(' ')
+            .append(column.v2().getCastTypeName())
+            .append(',');
+      }
       sb.setLastChar(')');
     } else {
       sb.append(')');
@@ -115,4 +115,9 @@ public class DerbyMetaDocPartIndexTable
     return createField(TableFields.UNIQUE.fieldName, SQLDataType.BOOLEAN.nullable(false), this, "");
   }
 
+  @Override
+  protected TableField<DerbyMetaDocPartIndexRecord, Boolean> createSparseField() {
+    return createField(TableFields.SPARSE.fieldName, SQLDataType.BOOLEAN.nullable(false), this, "");
+  }
+
 }
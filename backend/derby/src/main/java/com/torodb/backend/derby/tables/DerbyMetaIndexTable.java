@@ -100,4 +100,9 @@ public class DerbyMetaIndexTable extends MetaIndexTable<DerbyMetaIndexRecord> {
     return createField(TableFields.UNIQUE.fieldName, SQLDataType.BOOLEAN.nullable(false), this, "");
   }
 
+  @Override
+  protected TableField<DerbyMetaIndexRecord, Boolean> createSparseField() {
+    return createField(TableFields.SPARSE.fieldName, SQLDataType.BOOLEAN.nullable(false), this, "");
+  }
+
 }
@@ -33,22 +33,25 @@ public class DerbyMetaIndexRecord extends MetaIndexRecord {
   }
 
   @Override
-  public MetaIndexRecord values(String database, String collection, String name, Boolean unique) {
+  public MetaIndexRecord values(String database, String collection, String name, Boolean unique,
+      Boolean sparse) {
 
     setDatabase(database);
     setCollection(collection);
     setName(name);
     setUnique(unique);
+    setSparse(sparse);
     return this;
   }
 
   /**
    * Create a detached, initialised MetaIndexRecord
    */
-  public DerbyMetaIndexRecord(String database, String collection, String name, Boolean unique) {
+  public DerbyMetaIndexRecord(String database, String collection, String name, Boolean unique,
+      Boolean sparse) {
     super(DerbyMetaIndexTable.INDEX);
 
-    values(database, collection, name, unique);
+    values(database, collection, name, unique, sparse);
   }
 
 }
@@ -80,5 +80,10 @@ public class DerbyDatabaseTestContext implements DatabaseTestContext {
     return dslContextFactory;
   }
 
+  @Override
+  public SchemaUpdater getSchemaUpdater() {
+    return schemaUpdater;
+  }
+
 }
 
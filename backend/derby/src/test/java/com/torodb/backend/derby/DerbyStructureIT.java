@@ -52,6 +52,7 @@ public class DerbyStructureIT extends AbstractStructureIntegrationSuite {
     typesDictionary.put(FieldType.MONGO_REGEX, "VARCHAR");
     typesDictionary.put(FieldType.MONGO_DB_POINTER, "VARCHAR");
     typesDictionary.put(FieldType.DEPRECATED, "VARCHAR");
+    typesDictionary.put(FieldType.OVERFLOW, "VARCHAR");
   }
 
   @Override
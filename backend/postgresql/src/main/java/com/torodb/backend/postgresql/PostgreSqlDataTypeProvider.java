@@ -39,6 +39,7 @@ import com.torodb.backend.postgresql.converters.jooq.MongoObjectIdValueConverter
 import com.torodb.backend.postgresql.converters.jooq.MongoRegexValueConverter;
 import com.torodb.backend.postgresql.converters.jooq.MongoTimestampValueConverter;
 import com.torodb.backend.postgresql.converters.jooq.NullValueConverter;
+import com.torodb.backend.postgresql.converters.jooq.OverflowValueConverter;
 import com.torodb.backend.postgresql.converters.jooq.StringValueConverter;
 import com.torodb.backend.postgresql.converters.jooq.TimeValueConverter;
 import com.torodb.backend.postgresql.converters.jooq.UndefinedValueConverter;
@@ -75,6 +76,7 @@ public class PostgreSqlDataTypeProvider extends AbstractDataTypeProvider {
             .put(FieldType.MONGO_REGEX, MongoRegexValueConverter.TYPE)
             .put(FieldType.MONGO_DB_POINTER, MongoDbPointerValueConverter.TYPE)
             .put(FieldType.DEPRECATED, DeprecatedValueConverter.TYPE)
+            .put(FieldType.OVERFLOW, OverflowValueConverter.TYPE)
             .build()
     );
   }
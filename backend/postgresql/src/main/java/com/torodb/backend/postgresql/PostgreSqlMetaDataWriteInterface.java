@@ -146,6 +146,7 @@ public class PostgreSqlMetaDataWriteInterface extends AbstractMetaDataWriteInter
         .quote(MetaIndexTable.TableFields.COLLECTION).append(" varchar  NOT NULL        ,")
         .quote(MetaIndexTable.TableFields.NAME).append("     varchar  NOT NULL        ,")
         .quote(MetaIndexTable.TableFields.UNIQUE).append("     boolean  NOT NULL        ,")
+        .quote(MetaIndexTable.TableFields.SPARSE).append(" boolean NOT NULL DEFAULT false,")
         .append("    PRIMARY KEY (").quote(MetaIndexTable.TableFields.DATABASE).append(",")
         .quote(MetaIndexTable.TableFields.COLLECTION).append(",")
         .quote(MetaIndexTable.TableFields.NAME).append(")")
@@ -188,6 +189,7 @@ public class PostgreSqlMetaDataWriteInterface extends AbstractMetaDataWriteInter
         .quote(MetaDocPartIndexTable.TableFields.COLLECTION).append(" varchar   NOT NULL ,")
         .quote(MetaDocPartIndexTable.TableFields.TABLE_REF).append("  varchar[] NOT NULL ,")
         .quote(MetaDocPartIndexTable.TableFields.UNIQUE).append("     boolean  NOT NULL        ,")
+        .quote(MetaDocPartIndexTable.TableFields.SPARSE).append(" boolean NOT NULL DEFAULT false,")
         .append("    PRIMARY KEY (").quote(MetaDocPartIndexTable.TableFields.DATABASE).append(",")
         .quote(MetaDocPartIndexTable.TableFields.IDENTIFIER).append(")")
         .append(")")
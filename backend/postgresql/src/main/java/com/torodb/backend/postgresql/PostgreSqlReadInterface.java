@@ -20,17 +20,23 @@ package com.torodb.backend.postgresql;
 
 import com.torodb.backend.AbstractReadInterface;
 import com.torodb.backend.InternalField;
+import com.torodb.backend.SqlBuilder;
 import com.torodb.backend.SqlHelper;
 import com.torodb.backend.tables.MetaDocPartTable.DocPartTableFields;
 import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
+import com.torodb.core.backend.query.ColumnDidFilter;
+import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.kvdocument.values.KvValue;
 import org.jooq.Converter;
 import org.jooq.lambda.tuple.Tuple2;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import javax.inject.Inject;
@@ -232,4 +238,65 @@ public class PostgreSqlReadInterface extends AbstractReadInterface {
     String statement = sb.toString();
     return statement;
   }
+
+  /**
+   * The column is converted to words with the same expression text indexes are built with, so the
+   * search can use them. Terms are parsed with {@code plainto_tsquery}, which ignores the tsquery
+   * operators they may contain, and phrases with {@code phraseto_tsquery}.
+   */
+  @Override
+  protected void appendTextCondition(SqlBuilder sb, ColumnDidFilter filter,
+      Consumer<KvValue<?>> parameterAppender) {
+    sb.append(PostgreSqlStructureInterface.getTextSearchVector(filter.getColumnIdentifier()))
+        .append(" @@ ");
+    appendTextQuery(sb, filter, parameterAppender);
+  }
+
+  /**
+   * Strings are compared with the {@code C} collation, that compares their bytes, instead of with
+   * the collation of the database, that may follow the rules of a language.
+   */
+  @Override
+  protected void appendBinaryCollation(SqlBuilder sb, FieldType type) {
+    if (type == FieldType.STRING) {
+      sb.append(" COLLATE \"C\"");
+    }
+  }
+
+  /**
+   * Documents are sorted by the sum of the {@code ts_rank} of each text searched column.
+   */
+  @Override
+  protected void appendTextScoreOrder(SqlBuilder sb, List<ColumnDidFilter> textFilters,
+      Consumer<KvValue<?>> parameterAppender) {
+    String separator = " ORDER BY ";
+    for (ColumnDidFilter textFilter : textFilters) {
+      sb.append(separator)
+          .append("COALESCE(ts_rank(")
+          .append(PostgreSqlStructureInterface.getTextSearchVector(
+              textFilter.getColumnIdentifier()))
+          .append(", ");
+      appendTextQuery(sb, textFilter, parameterAppender);
+      sb.append("), 0)");
+      separator = " + ";
+    }
+    sb.append(" DESC");
+  }
+
+  private void appendTextQuery(SqlBuilder sb, ColumnDidFilter filter,
+      Consumer<KvValue<?>> parameterAppender) {
+    String function = filter.getOperator() == ColumnDidFilter.Operator.TEXT_PHRASE
+        ? "phraseto_tsquery('" : "plainto_tsquery('";
+    String separator = "(";
+    for (KvValue<?> value : filter.getValues()) {
+      sb.append(separator)
+          .append(function)
+          .append(PostgreSqlStructureInterface.TEXT_SEARCH_CONFIGURATION)
+          .append("', ");
+      parameterAppender.accept(value);
+      sb.append(')');
+      separator = " || ";
+    }
+    sb.append(')');
+  }
 }
@@ -26,6 +26,8 @@ import com.torodb.backend.SqlBuilder;
 import com.torodb.backend.SqlHelper;
 import com.torodb.backend.converters.jooq.DataTypeForKv;
 import com.torodb.core.backend.IdentifierConstraints;
+import com.torodb.core.exceptions.user.UserException;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
@@ -33,7 +35,9 @@ import org.jooq.DSLContext;
 import org.jooq.lambda.tuple.Tuple2;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -44,6 +48,22 @@ import javax.inject.Singleton;
 @Singleton
 public class PostgreSqlStructureInterface extends AbstractStructureInterface {
 
+  /**
+   * The amount of memory that all concurrent index builds can use once the data insert mode
+   * finishes.
+   */
+  private static final long MAX_DATA_INSERT_FINISH_MEMORY = 1024L * 1024 * 1024;
+  /**
+   * The minimum value of maintenance_work_mem used by each index build, which is the PostgreSQL
+   * default.
+   */
+  private static final long MIN_DATA_INSERT_FINISH_MEMORY = 64L * 1024 * 1024;
+  /**
+   * The text search configuration used to split the text indexed columns into words. MongoDB uses
+   * english as the default language of text indexes too.
+   */
+  static final String TEXT_SEARCH_CONFIGURATION = "english";
+
   private SqlHelper sqlHelper;
 
   @Inject
@@ -99,20 +119,100 @@ public class PostgreSqlStructureInterface extends AbstractStructureInterface {
 
   @Override
   protected String getCreateIndexStatement(String indexName, String schemaName, String tableName,
-      List<Tuple2<String, Boolean>> columnList, boolean unique) {
+      List<Tuple2<String, FieldIndexOrdering>> columnList, boolean unique, boolean sparse) {
+    return getCreateIndexStatement(indexName, schemaName, tableName, columnList, unique, sparse,
+        false);
+  }
+
+  /**
+   * Builds the index with {@code CREATE INDEX CONCURRENTLY}, which does not take locks that
+   * block the writes on the table. As PostgreSQL can not run it inside a transaction block, the
+   * given {@link DSLContext} must be on auto commit mode.
+   *
+   * <p>A failed concurrent build leaves an invalid index behind, which PostgreSQL does not use
+   * on queries but keeps updating on writes, so it is dropped.
+   */
+  @Override
+  public void createIndexConcurrently(DSLContext dsl, String indexName, String schemaName,
+      String tableName, List<Tuple2<String, FieldIndexOrdering>> columnList, boolean unique,
+      boolean sparse) throws UserException {
+    Preconditions.checkArgument(!columnList.isEmpty(), "Can not create index on 0 columns");
+
+    String statement = getCreateIndexStatement(indexName, schemaName, tableName, columnList,
+        unique, sparse, true);
+    try {
+      sqlHelper.executeUpdateOrThrow(dsl, statement, unique ? Context.ADD_UNIQUE_INDEX :
+          Context.CREATE_INDEX);
+    } catch (UserException | RuntimeException ex) {
+      try {
+        sqlHelper.executeUpdate(dsl, "DROP INDEX IF EXISTS \"" + schemaName + "\".\""
+            + indexName + "\"", Context.DROP_INDEX);
+      } catch (RuntimeException dropEx) {
+        ex.addSuppressed(dropEx);
+      }
+      throw ex;
+    }
+  }
+
+  /**
+   * Returns the expression that splits a text indexed column into words. Text searches must use
+   * the same expression the index is built with, otherwise PostgreSQL can not use the index.
+   */
+  static String getTextSearchVector(String columnName) {
+    return "to_tsvector('" + TEXT_SEARCH_CONFIGURATION + "', \"" + columnName + "\")";
+  }
+
+  /**
+   * Hashed columns are indexed with a hash index, which is smaller than a btree on long values and
+   * supports equality lookups only. PostgreSQL hash indexes can not be unique nor contain more than
+   * one column.
+   *
+   * <p>Text columns are indexed with a GIN index on their words, so the index is an expression
+   * index instead of a column index. As the index does not store the column values, it can not be
+   * unique nor contain columns that are not text indexed.
+   */
+  private String getCreateIndexStatement(String indexName, String schemaName, String tableName,
+      List<Tuple2<String, FieldIndexOrdering>> columnList, boolean unique, boolean sparse,
+      boolean concurrently) {
+    boolean hashed = columnList.stream()
+        .anyMatch(columnEntry -> columnEntry.v2() == FieldIndexOrdering.HASHED);
+    Preconditions.checkArgument(!hashed || (!unique && columnList.size() == 1),
+        "Hash indexes must be on a single column and can not be unique");
+    boolean text = columnList.stream()
+        .anyMatch(columnEntry -> columnEntry.v2() == FieldIndexOrdering.TEXT);
+    Preconditions.checkArgument(!text || (!unique && columnList.stream()
+        .allMatch(columnEntry -> columnEntry.v2() == FieldIndexOrdering.TEXT)),
+        "Text indexes can only contain text columns and can not be unique");
     StringBuilder sb = new StringBuilder()
         .append(unique ? "CREATE UNIQUE INDEX " : "CREATE INDEX ")
+        .append(concurrently ? "CONCURRENTLY " : "")
         .append("\"").append(indexName).append("\"")
         .append(" ON ")
         .append("\"").append(schemaName).append("\"")
         .append(".")
         .append("\"").append(tableName).append("\"")
-        .append(" (");
-    for (Tuple2<String, Boolean> columnEntry : columnList) {
-      sb.append("\"").append(columnEntry.v1()).append("\" ")
-          .append(columnEntry.v2() ? "ASC," : "DESC,");
+        .append(hashed ? " USING hash (" : text ? " USING gin (" : " (");
+    for (Tuple2<String, FieldIndexOrdering> columnEntry : columnList) {
+      if (text) {
+        sb.append(getTextSearchVector(columnEntry.v1()));
+      } else {
+        sb.append("\"").append(columnEntry.v1()).append("\"");
+      }
+      if (!hashed && !text) {
+        //nulls are placed where sorted finds expect them, so they can be read from the index
+        sb.append(columnEntry.v2().isAscending() ? " ASC NULLS FIRST" : " DESC NULLS LAST");
+      }
+      sb.append(',');
     }
     sb.setCharAt(sb.length() - 1, ')');
+    if (sparse) {
+      //a row lacks all the indexed keys when all their columns are null
+      sb.append(" WHERE ");
+      for (Tuple2<String, FieldIndexOrdering> columnEntry : columnList) {
+        sb.append("\"").append(columnEntry.v1()).append("\" IS NOT NULL OR ");
+      }
+      sb.setLength(sb.length() - " OR ".length());
+    }
     String statement = sb.toString();
     return statement;
   }
@@ -120,7 +220,7 @@ public class PostgreSqlStructureInterface extends AbstractStructureInterface {
   @Override
   protected String getDropIndexStatement(String schemaName, String indexName) {
     StringBuilder sb = new StringBuilder()
-        .append("DROP INDEX \"")
+        .append("DROP INDEX IF EXISTS \"")
         .append(schemaName)
         .append("\".\"")
         .append(indexName)
@@ -129,6 +229,19 @@ public class PostgreSqlStructureInterface extends AbstractStructureInterface {
     return statement;
   }
 
+  /**
+   * An interrupted {@code CREATE INDEX CONCURRENTLY} leaves an index that is not marked as valid
+   * on {@code pg_index}.
+   */
+  @Override
+  public Set<String> getInvalidIndexes(DSLContext dsl, String schemaName) {
+    return dsl.fetch("SELECT c.relname FROM pg_catalog.pg_index i"
+        + " JOIN pg_catalog.pg_class c ON c.oid = i.indexrelid"
+        + " JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace"
+        + " WHERE n.nspname = ? AND NOT i.indisvalid", schemaName)
+        .intoSet(0, String.class);
+  }
+
   @Override
   protected String getCreateSchemaStatement(String schemaName) {
     return "CREATE SCHEMA IF NOT EXISTS \"" + schemaName + "\"";
@@ -136,11 +249,11 @@ public class PostgreSqlStructureInterface extends AbstractStructureInterface {
 
   @Override
   protected String getCreateDocPartTableStatement(String schemaName, String tableName,
-      Collection<InternalField<?>> fields) {
+      Collection<InternalField<?>> fields, List<Tuple2<String, DataTypeForKv<?>>> columns) {
     SqlBuilder sb = new SqlBuilder("CREATE TABLE ");
     sb.table(schemaName, tableName)
         .append(" (");
-    if (!fields.isEmpty()) {
+    if (!fields.isEmpty() || !columns.isEmpty()) {
       for (InternalField<?> field : fields) {
         sb.quote(field.getName()).append(' ')
             .append(field.getDataType().getCastTypeName());
@@ -149,6 +262,11 @@ public class PostgreSqlStructureInterface extends AbstractStructureInterface {
         }
         sb.append(',');
       }
+      for (Tuple2<String, DataTypeForKv<?>> column : columns) {
+        sb.quote(column.v1()).append(' ')
+            .append(column.v2().getCastTypeName())
+            .append(',');
+      }
       sb.setLastChar(')');
     } else {
       sb.append(')');
@@ -219,6 +337,26 @@ public class PostgreSqlStructureInterface extends AbstractStructureInterface {
     return sb.toString();
   }
 
+  @Override
+  protected List<String> getAddColumnsToDocPartTableStatements(String schemaName,
+      String tableName, List<Tuple2<String, DataTypeForKv<?>>> columns) {
+    if (columns.isEmpty()) {
+      return Collections.emptyList();
+    }
+    SqlBuilder sb = new SqlBuilder("ALTER TABLE ")
+        .table(schemaName, tableName);
+    String separator = " ";
+    for (Tuple2<String, DataTypeForKv<?>> column : columns) {
+      sb.append(separator)
+          .append("ADD COLUMN ")
+          .quote(column.v1())
+          .append(" ")
+          .append(column.v2().getCastTypeName());
+      separator = ", ";
+    }
+    return Collections.singletonList(sb.toString());
+  }
+
   @Override
   public Stream<Function<DSLContext, String>> streamDataInsertFinishTasks(MetaDatabase db) {
     return db.streamMetaCollections().flatMap(
@@ -228,6 +366,25 @@ public class PostgreSqlStructureInterface extends AbstractStructureInterface {
     );
   }
 
+  @Override
+  public long estimateTableSize(DSLContext dsl, String schemaName, String tableName) {
+    String table = new SqlBuilder("")
+        .table(schemaName, tableName)
+        .toString();
+    Object size = dsl.fetchValue("SELECT pg_relation_size(?::regclass)", table);
+    if (size == null) {
+      return 0;
+    }
+    return ((Number) size).longValue();
+  }
+
+  @Override
+  public void prepareDataInsertFinishTask(DSLContext dsl, long tableSize, int concurrentTasks) {
+    long maxMemory = MAX_DATA_INSERT_FINISH_MEMORY / Math.max(1, concurrentTasks);
+    long memory = Math.max(MIN_DATA_INSERT_FINISH_MEMORY, Math.min(tableSize, maxMemory));
+    dsl.execute("SET LOCAL maintenance_work_mem = '" + (memory / 1024) + "kB'");
+  }
+
   private Function<DSLContext, String> createAnalyzeConsumer(MetaDatabase db, MetaCollection col,
       MetaDocPart docPart) {
     return dsl -> {
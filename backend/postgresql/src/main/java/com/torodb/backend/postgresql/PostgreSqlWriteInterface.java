@@ -32,6 +32,7 @@ import com.torodb.core.d2r.DocPartRow;
 import com.torodb.core.exceptions.SystemException;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDocPart;
 import com.torodb.core.transaction.metainf.MetaField;
 import com.torodb.core.transaction.metainf.MetaScalar;
@@ -46,6 +47,8 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.Reader;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.Iterator;
@@ -96,6 +99,74 @@ public class PostgreSqlWriteInterface extends AbstractWriteInterface {
     return statement;
   }
 
+  /**
+   * Deletes the matching documents from all the doc parts with a single statement that uses data
+   * modifying CTEs, so the dids of the deleted root rows do not need to be read in advance.
+   */
+  @Override
+  protected void deleteCollectionDocPartsByRootField(Connection c, String schemaName,
+      MetaCollection metaCollection, MetaDocPart rootDocPart, MetaField metaField,
+      List<KvValue<?>> values, List<KvValue<?>> deletedValues) throws SQLException {
+    String statement = getDeleteDocPartsByRootFieldStatement(schemaName, metaCollection,
+        rootDocPart, metaField.getIdentifier(), values.size());
+    try (PreparedStatement preparedStatement = c.prepareStatement(statement)) {
+      setFieldValues(preparedStatement, metaField, values);
+      try (ResultSet resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) {
+          deletedValues.add(sqlHelper.getResultSetKvValue(metaField.getType(), resultSet, 1));
+        }
+      }
+    }
+
+    LOGGER.trace("Executed {}", statement);
+  }
+
+  private String getDeleteDocPartsByRootFieldStatement(String schemaName,
+      MetaCollection metaCollection, MetaDocPart rootDocPart, String columnName,
+      int valuesCount) {
+    StringBuilder sb = new StringBuilder()
+        .append("WITH \"deleted\" AS (DELETE FROM \"")
+        .append(schemaName)
+        .append("\".\"")
+        .append(rootDocPart.getIdentifier())
+        .append("\" WHERE \"")
+        .append(columnName)
+        .append("\" IN (");
+    for (int index = 0; index < valuesCount; index++) {
+      sb.append("?,");
+    }
+    sb.setCharAt(sb.length() - 1, ')');
+    sb.append(" RETURNING \"")
+        .append(MetaDocPartTable.DocPartTableFields.DID.fieldName)
+        .append("\",\"")
+        .append(columnName)
+        .append("\")");
+
+    Iterator<? extends MetaDocPart> docPartIterator = metaCollection.streamContainedMetaDocParts()
+        .filter(docPart -> !docPart.getTableRef().isRoot())
+        .iterator();
+    int docPartIndex = 0;
+    while (docPartIterator.hasNext()) {
+      MetaDocPart docPart = docPartIterator.next();
+      sb.append(",\"deleted_")
+          .append(docPartIndex++)
+          .append("\" AS (DELETE FROM \"")
+          .append(schemaName)
+          .append("\".\"")
+          .append(docPart.getIdentifier())
+          .append("\" WHERE \"")
+          .append(MetaDocPartTable.DocPartTableFields.DID.fieldName)
+          .append("\" IN (SELECT \"")
+          .append(MetaDocPartTable.DocPartTableFields.DID.fieldName)
+          .append("\" FROM \"deleted\"))");
+    }
+
+    sb.append(" SELECT \"")
+        .append(columnName)
+        .append("\" FROM \"deleted\"");
+    return sb.toString();
+  }
+
   @Override
   public void insertDocPartData(DSLContext dsl, String schemaName, DocPartData docPartData) throws
       UserException {
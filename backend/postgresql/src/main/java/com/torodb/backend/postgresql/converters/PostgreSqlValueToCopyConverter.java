@@ -21,6 +21,7 @@ package com.torodb.backend.postgresql.converters;
 import com.torodb.backend.postgresql.converters.jooq.MongoDbPointerValueConverter;
 import com.torodb.backend.postgresql.converters.jooq.MongoJavascriptWithScopeValueConverter;
 import com.torodb.backend.postgresql.converters.jooq.MongoRegexValueConverter;
+import com.torodb.backend.postgresql.converters.jooq.OverflowValueConverter;
 import com.torodb.backend.postgresql.converters.util.CopyEscaper;
 import com.torodb.backend.postgresql.converters.util.InstantUtils;
 import com.torodb.common.util.HexUtils;
@@ -161,7 +162,9 @@ public class PostgreSqlValueToCopyConverter implements KvValueVisitor<Void, Stri
 
   @Override
   public Void visit(KvDocument value, StringBuilder arg) {
-    throw new UnsupportedOperationException("Ouch this should not occur");
+    //only the overflow column of a doc part contains documents
+    ESCAPER.appendEscaped(arg, OverflowValueConverter.CONVERTER.to(value));
+    return null;
   }
 
   @Override
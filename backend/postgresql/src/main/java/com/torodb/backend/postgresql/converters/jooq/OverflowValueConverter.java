@@ -0,0 +1,75 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.backend.postgresql.converters.jooq;
+
+import com.torodb.backend.converters.jooq.DataTypeForKv;
+import com.torodb.backend.converters.jooq.KvValueConverter;
+import com.torodb.backend.converters.json.TypedKvValueJsonCodec;
+import com.torodb.backend.converters.sql.SqlBinding;
+import com.torodb.backend.postgresql.converters.jooq.binding.JsonBinding;
+import com.torodb.backend.postgresql.converters.sql.JsonSqlBinding;
+import com.torodb.kvdocument.types.DocumentType;
+import com.torodb.kvdocument.types.KvType;
+import com.torodb.kvdocument.values.KvDocument;
+
+/**
+ * Stores the keys of a doc part row that overflowed its relational columns as a {@code json}
+ * document.
+ *
+ * <p>{@code jsonb} is not used because it sorts the keys of objects, so documents stored on the
+ * overflow column would not be read back with the original order of their keys.
+ */
+public class OverflowValueConverter implements KvValueConverter<String, String, KvDocument> {
+
+  private static final long serialVersionUID = 1L;
+
+  public static final OverflowValueConverter CONVERTER = new OverflowValueConverter();
+
+  public static final DataTypeForKv<KvDocument> TYPE =
+      JsonBinding.fromKvValue(KvDocument.class, CONVERTER);
+
+  @Override
+  public KvType getErasuredType() {
+    return DocumentType.INSTANCE;
+  }
+
+  @Override
+  public KvDocument from(String databaseObject) {
+    return TypedKvValueJsonCodec.fromJson(databaseObject);
+  }
+
+  @Override
+  public String to(KvDocument userObject) {
+    return TypedKvValueJsonCodec.toJson(userObject);
+  }
+
+  @Override
+  public Class<String> fromType() {
+    return String.class;
+  }
+
+  @Override
+  public Class<KvDocument> toType() {
+    return KvDocument.class;
+  }
+
+  @Override
+  public SqlBinding<String> getSqlBinding() {
+    return JsonSqlBinding.INSTANCE;
+  }
+}
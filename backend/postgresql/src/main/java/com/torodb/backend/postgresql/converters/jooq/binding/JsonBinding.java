@@ -0,0 +1,54 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.backend.postgresql.converters.jooq.binding;
+
+import com.torodb.backend.converters.jooq.DataTypeForKv;
+import com.torodb.backend.converters.jooq.KvValueConverter;
+import com.torodb.kvdocument.values.KvValue;
+import org.jooq.BindingSQLContext;
+import org.jooq.Converter;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultDataType;
+
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * A binding for {@code json} columns, which, unlike {@code jsonb} ones, keep the text of the
+ * values as it is written, including the order of the keys of each object.
+ */
+public class JsonBinding<T> extends JsonbBinding<T> {
+
+  private static final long serialVersionUID = 1L;
+
+  public static <J, U extends KvValue<?>> DataTypeForKv<U> fromKvValue(Class<U> type,
+      KvValueConverter<String, J, U> converter) {
+    return DataTypeForKv.from(new DefaultDataType<>(null, String.class, "json"), converter,
+        new JsonBinding<>(converter), Types.OTHER);
+  }
+
+  public JsonBinding(Converter<String, T> converter) {
+    super(converter);
+  }
+
+  @Override
+  public void sql(BindingSQLContext<T> ctx) throws SQLException {
+    ctx.render().visit(DSL.val(ctx.convert(converter()).value())).sql("::json");
+  }
+
+}
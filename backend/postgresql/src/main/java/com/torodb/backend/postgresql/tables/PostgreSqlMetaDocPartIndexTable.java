@@ -110,4 +110,9 @@ public class PostgreSqlMetaDocPartIndexTable
     return createField(TableFields.UNIQUE.fieldName, SQLDataType.BOOLEAN.nullable(false), this, "");
   }
 
+  @Override
+  protected TableField<PostgreSqlMetaDocPartIndexRecord, Boolean> createSparseField() {
+    return createField(TableFields.SPARSE.fieldName, SQLDataType.BOOLEAN.nullable(false), this, "");
+  }
+
 }
@@ -100,4 +100,9 @@ public class PostgreSqlMetaIndexTable extends MetaIndexTable<PostgreSqlMetaIndex
     return createField(TableFields.UNIQUE.fieldName, SQLDataType.BOOLEAN.nullable(false), this, "");
   }
 
+  @Override
+  protected TableField<PostgreSqlMetaIndexRecord, Boolean> createSparseField() {
+    return createField(TableFields.SPARSE.fieldName, SQLDataType.BOOLEAN.nullable(false), this, "");
+  }
+
 }
@@ -37,12 +37,13 @@ public class PostgreSqlMetaDocPartIndexRecord extends MetaDocPartIndexRecord<Str
 
   @Override
   public PostgreSqlMetaDocPartIndexRecord values(String database, String identifier,
-      String collection, String[] tableRef, Boolean unique) {
+      String collection, String[] tableRef, Boolean unique, Boolean sparse) {
     setDatabase(database);
     setIdentifier(identifier);
     setCollection(collection);
     setTableRef(tableRef);
     setUnique(unique);
+    setSparse(sparse);
     return this;
   }
 
@@ -50,10 +51,10 @@ public class PostgreSqlMetaDocPartIndexRecord extends MetaDocPartIndexRecord<Str
    * Create a detached, initialised MetaIndexRecord
    */
   public PostgreSqlMetaDocPartIndexRecord(String database, String identifier, String collection,
-      String[] tableRef, Boolean unique) {
+      String[] tableRef, Boolean unique, Boolean sparse) {
     super(PostgreSqlMetaDocPartIndexTable.DOC_PART_INDEX);
 
-    values(database, identifier, collection, tableRef, unique);
+    values(database, identifier, collection, tableRef, unique, sparse);
   }
 
   @Override
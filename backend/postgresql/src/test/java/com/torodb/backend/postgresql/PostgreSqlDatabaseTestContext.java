@@ -71,6 +71,11 @@ public class PostgreSqlDatabaseTestContext implements DatabaseTestContext {
     return dslContextFactory;
   }
 
+  @Override
+  public SchemaUpdater getSchemaUpdater() {
+    return schemaUpdater;
+  }
+
   private void dropDatabase() throws SQLException {
     DbBackendService dbBackend = sqlInterface.getDbBackend();
     IdentifierConstraints identifierConstraints = sqlInterface.getIdentifierConstraints();
@@ -52,6 +52,7 @@ public class PostgreSqlStructureIT extends AbstractStructureIntegrationSuite {
     typesDictionary.put(FieldType.MONGO_REGEX, "jsonb");
     typesDictionary.put(FieldType.MONGO_DB_POINTER, "jsonb");
     typesDictionary.put(FieldType.DEPRECATED, "varchar");
+    typesDictionary.put(FieldType.OVERFLOW, "json");
   }
 
   @Override
@@ -0,0 +1,61 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend.postgresql;
+
+import static org.junit.Assert.assertEquals;
+
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
+import org.jooq.lambda.tuple.Tuple2;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class PostgreSqlStructureInterfaceTest {
+
+  private final PostgreSqlStructureInterface structureInterface =
+      new PostgreSqlStructureInterface(null, null, null, null);
+
+  @Test
+  public void testNotSparseIndexIsFull() {
+    assertEquals("CREATE INDEX \"idx\" ON \"schema\".\"table\" (\"a_s\" ASC NULLS FIRST)",
+        structureInterface.getCreateIndexStatement("idx", "schema", "table",
+            Collections.singletonList(new Tuple2<>("a_s", FieldIndexOrdering.ASC)), false,
+            false));
+  }
+
+  @Test
+  public void testSparseIndexIsPartialOnItsColumns() {
+    assertEquals("CREATE UNIQUE INDEX \"idx\" ON \"schema\".\"table\""
+        + " (\"a_s\" ASC NULLS FIRST,\"b_i\" DESC NULLS LAST)"
+        + " WHERE \"a_s\" IS NOT NULL OR \"b_i\" IS NOT NULL",
+        structureInterface.getCreateIndexStatement("idx", "schema", "table",
+            Arrays.asList(new Tuple2<>("a_s", FieldIndexOrdering.ASC),
+                new Tuple2<>("b_i", FieldIndexOrdering.DESC)), true, true));
+  }
+
+  @Test
+  public void testSparseHashedIndexIsPartial() {
+    assertEquals("CREATE INDEX \"idx\" ON \"schema\".\"table\" USING hash (\"a_s\")"
+        + " WHERE \"a_s\" IS NOT NULL",
+        structureInterface.getCreateIndexStatement("idx", "schema", "table",
+            Collections.singletonList(new Tuple2<>("a_s", FieldIndexOrdering.HASHED)), false,
+            true));
+  }
+}
@@ -19,23 +19,35 @@
 package com.torodb.backend.tests.common;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import com.torodb.backend.SqlBuilder;
 import com.torodb.backend.SqlInterface;
+import com.torodb.backend.meta.TorodbSchema;
 import com.torodb.backend.tables.MetaCollectionTable;
 import com.torodb.backend.tables.MetaDatabaseTable;
+import com.torodb.backend.tables.MetaDocPartIndexTable;
 import com.torodb.backend.tables.MetaDocPartTable;
+import com.torodb.backend.tables.MetaIndexTable;
 import com.torodb.backend.tables.records.MetaCollectionRecord;
 import com.torodb.backend.tables.records.MetaDatabaseRecord;
+import com.torodb.backend.tables.records.MetaDocPartIndexRecord;
 import com.torodb.backend.tables.records.MetaDocPartRecord;
+import com.torodb.backend.tables.records.MetaIndexRecord;
 import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
+import com.torodb.core.exceptions.InvalidDatabaseException;
 import com.torodb.core.impl.TableRefFactoryImpl;
 import com.torodb.core.transaction.metainf.ImmutableMetaCollection;
 import com.torodb.core.transaction.metainf.ImmutableMetaDatabase;
 import com.torodb.core.transaction.metainf.ImmutableMetaDocPart;
+import com.torodb.core.transaction.metainf.ImmutableMetaIdentifiedDocPartIndex;
+import com.torodb.core.transaction.metainf.ImmutableMetaIndex;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaIdentifiedDocPartIndex;
+import com.torodb.core.transaction.metainf.MetaIndex;
 import org.jooq.DSLContext;
 import org.jooq.Result;
 import org.junit.After;
@@ -134,6 +146,59 @@ public abstract class AbstractMetaDataIntegrationSuite {
     });
   }
 
+  @Test
+  public void metadataIndexTablesShouldBeUpgradedWithTheSparseColumn() throws Exception {
+    dbTestContext.executeOnDbConnectionWithDslContext(dslContext -> {
+      /* Given */
+      //the index meta tables as they were before indexes could be sparse
+      dropColumn(dslContext, MetaIndexTable.TABLE_NAME,
+          MetaIndexTable.TableFields.SPARSE.fieldName);
+      dropColumn(dslContext, MetaDocPartIndexTable.TABLE_NAME,
+          MetaDocPartIndexTable.TableFields.SPARSE.fieldName);
+
+      /* When */
+      try {
+        dbTestContext.getSchemaUpdater().checkOrCreate(dslContext);
+      } catch (InvalidDatabaseException e) {
+        throw new RuntimeException("The meta tables should have been upgraded", e);
+      }
+
+      /* Then */
+      MetaDatabase metaDatabase = new ImmutableMetaDatabase
+          .Builder("database_name", "database_identifier").build();
+      MetaCollection metaCollection = new ImmutableMetaCollection
+          .Builder("collection_name", "collection_identifier").build();
+      MetaDocPart metaDocPart = new ImmutableMetaDocPart
+          .Builder(new TableRefFactoryImpl().createRoot(), "docpart_identifier").build();
+      MetaIndex metaIndex = new ImmutableMetaIndex.Builder("index_name", false, true).build();
+      MetaIdentifiedDocPartIndex metaDocPartIndex = new ImmutableMetaIdentifiedDocPartIndex
+          .Builder("docpartindex_identifier", false, true).build();
+
+      sqlInterface.getMetaDataWriteInterface()
+          .addMetaIndex(dslContext, metaDatabase, metaCollection, metaIndex);
+      sqlInterface.getMetaDataWriteInterface()
+          .addMetaDocPartIndex(dslContext, metaDatabase, metaCollection, metaDocPart,
+              metaDocPartIndex);
+
+      Result<MetaIndexRecord> indexRecords = getIndexMetaTableRecords(dslContext);
+      assertEquals(1, indexRecords.size());
+      assertTrue(indexRecords.get(0).getSparse());
+
+      Result<MetaDocPartIndexRecord<Object>> docPartIndexRecords =
+          getDocPartIndexMetaTableRecords(dslContext);
+      assertEquals(1, docPartIndexRecords.size());
+      assertTrue(docPartIndexRecords.get(0).getSparse());
+    });
+  }
+
+  private void dropColumn(DSLContext dslContext, String tableName, String columnName) {
+    dslContext.execute(new SqlBuilder("ALTER TABLE ")
+        .table(TorodbSchema.IDENTIFIER, tableName)
+        .append(" DROP COLUMN ")
+        .quote(columnName)
+        .toString());
+  }
+
   private Result<MetaDatabaseRecord> getDatabaseMetaTableRecords(DSLContext dslContext) {
     MetaDatabaseTable<MetaDatabaseRecord> metaDatabaseTable = sqlInterface
         .getMetaDataReadInterface().getMetaDatabaseTable();
@@ -159,4 +224,21 @@ public abstract class AbstractMetaDataIntegrationSuite {
         .fetch();
   }
 
+  private Result<MetaIndexRecord> getIndexMetaTableRecords(DSLContext dslContext) {
+    MetaIndexTable<MetaIndexRecord> metaIndexTable = sqlInterface
+        .getMetaDataReadInterface().getMetaIndexTable();
+    return dslContext.selectFrom(metaIndexTable)
+        .where(metaIndexTable.NAME.eq("index_name"))
+        .fetch();
+  }
+
+  private Result<MetaDocPartIndexRecord<Object>> getDocPartIndexMetaTableRecords(
+      DSLContext dslContext) {
+    MetaDocPartIndexTable<Object, MetaDocPartIndexRecord<Object>> metaDocPartIndexTable =
+        sqlInterface.getMetaDataReadInterface().getMetaDocPartIndexTable();
+    return dslContext.selectFrom(metaDocPartIndexTable)
+        .where(metaDocPartIndexTable.IDENTIFIER.eq("docpartindex_identifier"))
+        .fetch();
+  }
+
 }
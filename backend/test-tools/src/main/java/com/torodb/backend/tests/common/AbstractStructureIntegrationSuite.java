@@ -20,19 +20,33 @@ package com.torodb.backend.tests.common;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import com.torodb.backend.MetaDataWriteInterface;
+import com.torodb.backend.SqlHelper;
 import com.torodb.backend.SqlInterface;
 import com.torodb.backend.converters.jooq.DataTypeForKv;
+import com.torodb.backend.meta.SnapshotUpdaterImpl;
 import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
+import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
 import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.ImmutableMetaCollection;
 import com.torodb.core.transaction.metainf.ImmutableMetaDatabase;
 import com.torodb.core.transaction.metainf.ImmutableMetaDocPart;
+import com.torodb.core.transaction.metainf.ImmutableMetaField;
+import com.torodb.core.transaction.metainf.ImmutableMetaIdentifiedDocPartIndex;
 import com.torodb.core.transaction.metainf.MetaDatabase;
+import com.torodb.core.transaction.metainf.MetaDocPartIndexColumn;
+import com.torodb.core.transaction.metainf.MetaIdentifiedDocPartIndex;
+import com.torodb.core.transaction.metainf.MetainfoRepository;
+import com.torodb.core.transaction.metainf.MetainfoRepository.SnapshotStage;
+import com.torodb.core.transaction.metainf.impl.metainfo.mvcc.MvccMetainfoRepository;
 import org.jooq.DSLContext;
+import org.jooq.lambda.tuple.Tuple2;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -42,6 +56,7 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collections;
 
 public abstract class AbstractStructureIntegrationSuite {
 
@@ -249,6 +264,96 @@ public abstract class AbstractStructureIntegrationSuite {
     });
   }
 
+  @Test
+  public void droppingAMissingIndexShouldBeTolerated() throws Exception {
+    dbTestContext.executeOnDbConnectionWithDslContext(dslContext -> {
+      /* Given */
+      createSchema(dslContext);
+      createRootTable(dslContext, "root_table");
+
+      /* When */
+      sqlInterface.getStructureInterface().dropIndex(dslContext, SCHEMA_NAME, "missing_index");
+
+      /* Then */
+      //reaching this point means no exception was thrown
+    });
+  }
+
+  @Test
+  public void existingHashedIndexShouldBeLoadedOnRestart() throws Exception {
+    assertThatExistingIndexIsLoaded(FieldIndexOrdering.HASHED);
+  }
+
+  @Test
+  public void existingTextIndexShouldBeLoadedOnRestart() throws Exception {
+    assertThatExistingIndexIsLoaded(FieldIndexOrdering.TEXT);
+  }
+
+  private void assertThatExistingIndexIsLoaded(FieldIndexOrdering ordering) throws Exception {
+    /* Given */
+    TableRef rootTableRef = tableRefFactory.createRoot();
+    ImmutableMetaField metaField = new ImmutableMetaField("name", "name_s", FieldType.STRING);
+    ImmutableMetaIdentifiedDocPartIndex metaDocPartIndex = new ImmutableMetaIdentifiedDocPartIndex
+        .Builder("root_table_name_idx", false, false)
+        .addColumn("name_s", ordering)
+        .build();
+    ImmutableMetaDocPart metaDocPart = new ImmutableMetaDocPart
+        .Builder(rootTableRef, "root_table")
+        .put(metaField)
+        .put(metaDocPartIndex)
+        .build();
+    ImmutableMetaCollection metaCollection = new ImmutableMetaCollection
+        .Builder("collection_name", "collection_name").put(metaDocPart).build();
+    ImmutableMetaDatabase metaDatabase = new ImmutableMetaDatabase.Builder(SCHEMA_NAME, SCHEMA_NAME)
+        .put(metaCollection).build();
+
+    dbTestContext.executeOnDbConnectionWithDslContext(dslContext -> {
+      MetaDataWriteInterface metaDataWriter = sqlInterface.getMetaDataWriteInterface();
+      metaDataWriter.addMetaDatabase(dslContext, metaDatabase);
+      metaDataWriter.addMetaCollection(dslContext, metaDatabase, metaCollection);
+      metaDataWriter.addMetaDocPart(dslContext, metaDatabase, metaCollection, metaDocPart);
+      metaDataWriter.addMetaField(dslContext, metaDatabase, metaCollection, metaDocPart,
+          metaField);
+      metaDataWriter.addMetaDocPartIndex(dslContext, metaDatabase, metaCollection, metaDocPart,
+          metaDocPartIndex);
+      metaDataWriter.addMetaDocPartIndexColumn(dslContext, metaDatabase, metaCollection,
+          metaDocPart, metaDocPartIndex, metaDocPartIndex.getMetaDocPartIndexColumnByPosition(0));
+
+      createSchema(dslContext);
+      createRootTable(dslContext, "root_table");
+      DataTypeForKv<?> dataType = sqlInterface.getDataTypeProvider().getDataType(FieldType.STRING);
+      sqlInterface.getStructureInterface()
+          .addColumnToDocPartTable(dslContext, SCHEMA_NAME, "root_table", "name_s", dataType);
+      try {
+        sqlInterface.getStructureInterface().createIndex(dslContext, "root_table_name_idx",
+            SCHEMA_NAME, "root_table", Collections.singletonList(new Tuple2<>("name_s", ordering)),
+            false, false);
+      } catch (UserException e) {
+        throw new RuntimeException("Wrong test invocation", e);
+      }
+    });
+
+    /* When */
+    MetainfoRepository metainfoRepository = new MvccMetainfoRepository();
+    new SnapshotUpdaterImpl(sqlInterface, new SqlHelper(sqlInterface.getDataTypeProvider(),
+        sqlInterface.getErrorHandler()), null, tableRefFactory)
+        .updateSnapshot(metainfoRepository);
+
+    /* Then */
+    try (SnapshotStage snapshotStage = metainfoRepository.startSnapshotStage()) {
+      MetaIdentifiedDocPartIndex loadedIndex = snapshotStage.createImmutableSnapshot()
+          .getMetaDatabaseByName(SCHEMA_NAME)
+          .getMetaCollectionByName("collection_name")
+          .getMetaDocPartByTableRef(rootTableRef)
+          .getMetaDocPartIndexByIdentifier("root_table_name_idx");
+      assertNotNull("The existing index should be loaded", loadedIndex);
+
+      MetaDocPartIndexColumn loadedColumn = loadedIndex.getMetaDocPartIndexColumnByPosition(0);
+      assertEquals("name_s", loadedColumn.getIdentifier());
+      assertEquals(ordering, loadedColumn.getOrdering());
+    }
+  }
+
   private void createSchema(DSLContext dslContext) {
     sqlInterface.getStructureInterface().createSchema(dslContext, SCHEMA_NAME);
   }
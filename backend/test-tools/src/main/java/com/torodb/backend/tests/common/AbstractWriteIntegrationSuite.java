@@ -0,0 +1,203 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend.tests.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.torodb.backend.SqlInterface;
+import com.torodb.backend.converters.jooq.DataTypeForKv;
+import com.torodb.core.TableRef;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.ImmutableMetaCollection;
+import com.torodb.core.transaction.metainf.ImmutableMetaDocPart;
+import com.torodb.core.transaction.metainf.ImmutableMetaField;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvValue;
+import org.jooq.DSLContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public abstract class AbstractWriteIntegrationSuite {
+
+  private static final String SCHEMA_NAME = "schema_name";
+
+  private static final String ROOT_TABLE = "root_table";
+
+  private static final String CHILD_TABLE = "root_table_sub";
+
+  private SqlInterface sqlInterface;
+
+  private DatabaseTestContext dbTestContext;
+
+  private TableRefFactory tableRefFactory = new TableRefFactoryImpl();
+
+  private TableRef rootTableRef = tableRefFactory.createRoot();
+
+  private TableRef childTableRef = tableRefFactory.createChild(rootTableRef, "sub");
+
+  private ImmutableMetaField idField = new ImmutableMetaField("_id", "_id_i", FieldType.INTEGER);
+
+  private ImmutableMetaField xField = new ImmutableMetaField("x", "x_i", FieldType.INTEGER);
+
+  private ImmutableMetaDocPart rootDocPart = new ImmutableMetaDocPart
+      .Builder(rootTableRef, ROOT_TABLE).put(idField).build();
+
+  private ImmutableMetaCollection metaCollection = new ImmutableMetaCollection
+      .Builder("collection_name", "collection_name")
+      .put(rootDocPart)
+      .put(new ImmutableMetaDocPart.Builder(childTableRef, CHILD_TABLE).put(xField).build())
+      .build();
+
+  @Before
+  public void setUp() throws Exception {
+    dbTestContext = getDatabaseTestContext();
+    sqlInterface = dbTestContext.getSqlInterface();
+    dbTestContext.setupDatabase();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    dbTestContext.tearDownDatabase();
+  }
+
+  protected abstract DatabaseTestContext getDatabaseTestContext();
+
+  @Test
+  public void deletingByRootFieldShouldDeleteNestedDocParts() throws Exception {
+    dbTestContext.executeOnDbConnectionWithDslContext(dslContext -> {
+      /* Given */
+      createTables(dslContext);
+      insertDocument(dslContext, 1);
+      insertDocument(dslContext, 2);
+
+      /* When */
+      List<KvValue<?>> deletedValues = sqlInterface.getWriteInterface()
+          .deleteCollectionDocPartsByRootField(dslContext, SCHEMA_NAME, metaCollection,
+              rootDocPart, idField, Arrays.asList(KvInteger.of(1), KvInteger.of(3)));
+
+      /* Then */
+      assertEquals(Collections.singletonList(KvInteger.of(1)), deletedValues);
+      assertEquals(Collections.singletonList(2), readDids(dslContext, ROOT_TABLE));
+      assertEquals(Collections.singletonList(2), readDids(dslContext, CHILD_TABLE));
+    });
+  }
+
+  @Test
+  public void deletingByRootFieldWithoutValuesShouldDeleteNothing() throws Exception {
+    dbTestContext.executeOnDbConnectionWithDslContext(dslContext -> {
+      /* Given */
+      createTables(dslContext);
+      insertDocument(dslContext, 1);
+
+      /* When */
+      List<KvValue<?>> deletedValues = sqlInterface.getWriteInterface()
+          .deleteCollectionDocPartsByRootField(dslContext, SCHEMA_NAME, metaCollection,
+              rootDocPart, idField, Collections.emptyList());
+
+      /* Then */
+      assertTrue(deletedValues.isEmpty());
+      assertEquals(Collections.singletonList(1), readDids(dslContext, ROOT_TABLE));
+      assertEquals(Collections.singletonList(1), readDids(dslContext, CHILD_TABLE));
+    });
+  }
+
+  @Test
+  public void deletingByRootFieldShouldSupportManyValues() throws Exception {
+    dbTestContext.executeOnDbConnectionWithDslContext(dslContext -> {
+      /* Given */
+      createTables(dslContext);
+      int docs = 1200;
+      List<KvValue<?>> values = new ArrayList<>(docs);
+      for (int did = 1; did <= docs; did++) {
+        insertDocument(dslContext, did);
+        values.add(KvInteger.of(did));
+      }
+
+      /* When */
+      List<KvValue<?>> deletedValues = sqlInterface.getWriteInterface()
+          .deleteCollectionDocPartsByRootField(dslContext, SCHEMA_NAME, metaCollection,
+              rootDocPart, idField, values);
+
+      /* Then */
+      assertEquals(docs, deletedValues.size());
+      assertTrue(readDids(dslContext, ROOT_TABLE).isEmpty());
+      assertTrue(readDids(dslContext, CHILD_TABLE).isEmpty());
+    });
+  }
+
+  private void createTables(DSLContext dslContext) {
+    DataTypeForKv<?> dataType = sqlInterface.getDataTypeProvider()
+        .getDataType(FieldType.INTEGER);
+
+    sqlInterface.getStructureInterface().createSchema(dslContext, SCHEMA_NAME);
+    sqlInterface.getStructureInterface().createRootDocPartTable(dslContext, SCHEMA_NAME,
+        ROOT_TABLE, rootTableRef);
+    sqlInterface.getStructureInterface().addColumnToDocPartTable(dslContext, SCHEMA_NAME,
+        ROOT_TABLE, idField.getIdentifier(), dataType);
+    sqlInterface.getStructureInterface().createDocPartTable(dslContext, SCHEMA_NAME,
+        CHILD_TABLE, childTableRef, ROOT_TABLE);
+    sqlInterface.getStructureInterface().addColumnToDocPartTable(dslContext, SCHEMA_NAME,
+        CHILD_TABLE, xField.getIdentifier(), dataType);
+  }
+
+  /**
+   * Inserts a document whose did and _id are the given value and that has a sub document.
+   */
+  private void insertDocument(DSLContext dslContext, int did) {
+    Connection connection = dslContext.configuration().connectionProvider().acquire();
+    try (Statement statement = connection.createStatement()) {
+      statement.executeUpdate("INSERT INTO \"schema_name\".\"root_table\" (\"did\", \"_id_i\") "
+          + "VALUES (" + did + ", " + did + ")");
+      statement.executeUpdate("INSERT INTO \"schema_name\".\"root_table_sub\" "
+          + "(\"did\", \"rid\", \"seq\", \"x_i\") VALUES (" + did + ", " + did + ", 0, " + did
+          + ")");
+    } catch (SQLException e) {
+      throw new RuntimeException("Wrong test invocation", e);
+    }
+  }
+
+  private List<Integer> readDids(DSLContext dslContext, String tableName) {
+    Connection connection = dslContext.configuration().connectionProvider().acquire();
+    List<Integer> dids = new ArrayList<>();
+    try (Statement statement = connection.createStatement();
+        ResultSet result = statement.executeQuery("SELECT \"did\" FROM \"schema_name\".\""
+            + tableName + "\" ORDER BY \"did\"")) {
+      while (result.next()) {
+        dids.add(result.getInt(1));
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Wrong test invocation", e);
+    }
+    return dids;
+  }
+
+}
@@ -20,6 +20,7 @@ package com.torodb.backend.tests.common;
 
 import com.torodb.backend.DslContextFactory;
 import com.torodb.backend.SqlInterface;
+import com.torodb.backend.meta.SchemaUpdater;
 import org.jooq.DSLContext;
 
 import java.sql.Connection;
@@ -36,6 +37,8 @@ public interface DatabaseTestContext {
 
   public DslContextFactory getDslContextFactory();
 
+  public SchemaUpdater getSchemaUpdater();
+
   public default void executeOnDbConnectionWithDslContext(Consumer<DSLContext> consumer)
       throws SQLException {
 
@@ -23,6 +23,7 @@ import com.torodb.common.util.Empty;
 import com.torodb.core.transaction.RollbackException;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 
+import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
 
 public interface BackendService extends Service {
@@ -38,6 +39,25 @@ public interface BackendService extends Service {
   public CompletableFuture<Empty> disableDataImportMode(MetaDatabase metaDb)
       throws RollbackException;
 
+  /**
+   * Disables the data import mode on several databases at once.
+   *
+   * <p>Implementations are encouraged to schedule the expensive tasks of all the given databases
+   * together (for example, building the biggest indexes first), instead of finishing one database
+   * before starting the next one. By default each database is disabled independently.
+   */
+  public default CompletableFuture<Empty> disableDataImportMode(
+      Collection<? extends MetaDatabase> metaDbs) throws RollbackException {
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[metaDbs.size()];
+    int i = 0;
+    for (MetaDatabase metaDb : metaDbs) {
+      futures[i] = disableDataImportMode(metaDb);
+      i++;
+    }
+    return CompletableFuture.allOf(futures)
+        .thenApply(ignore -> Empty.getInstance());
+  }
+
   /**
    * Sets the backend on a state where inserts are faster.
    *
@@ -19,6 +19,9 @@
 package com.torodb.core.backend;
 
 import com.google.common.collect.Multimap;
+import com.torodb.core.backend.query.AggregatedColumn;
+import com.torodb.core.backend.query.ColumnOrder;
+import com.torodb.core.backend.query.DidFilter;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.exceptions.InvalidDatabaseException;
 import com.torodb.core.transaction.metainf.MetaCollection;
@@ -28,6 +31,8 @@ import com.torodb.core.transaction.metainf.MetaField;
 import com.torodb.kvdocument.values.KvValue;
 import org.jooq.lambda.tuple.Tuple2;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -50,6 +55,52 @@ public interface BackendTransaction extends AutoCloseable {
   public BackendCursor findByField(MetaDatabase db, MetaCollection col,
       MetaDocPart docPart, MetaField field, KvValue<?> value);
 
+  /**
+   * Returns a cursor that iterates over all documents that fulfill the given filter.
+   */
+  public default BackendCursor findByFilter(MetaDatabase db, MetaCollection col,
+      DidFilter filter) {
+    return findByFilter(db, col, filter, Collections.emptyList(), 0, 0);
+  }
+
+  /**
+   * Returns a cursor that iterates over the documents that fulfill the given filter in the given
+   * order, skipping the first {@code skip} ones and returning at most {@code limit} documents.
+   *
+   * @param order the columns of the root doc part the documents are sorted by. If it is empty,
+   *              the order is undefined
+   * @param skip  the number of documents to skip
+   * @param limit the max number of documents to return or 0 if there is no limit
+   */
+  public BackendCursor findByFilter(MetaDatabase db, MetaCollection col, DidFilter filter,
+      List<ColumnOrder> order, long skip, long limit);
+
+  /**
+   * Groups the root doc part rows of the documents that fulfill the given filter by the given
+   * fields and returns a row for each group.
+   *
+   * <p>Each row contains the value of each group field (or null if the documents of the group do
+   * not have a value on it) followed by the value of each aggregated column (or null if there are
+   * no values to aggregate). Groups are returned in no particular order and groups without
+   * documents are never returned.
+   *
+   * @param groupFields       the fields of the root doc part the rows are grouped by. If it is
+   *                          empty, all documents are aggregated on a single group
+   * @param aggregatedColumns the functions to compute on each group
+   */
+  public Cursor<List<KvValue<?>>> groupByFilter(MetaDatabase db, MetaCollection col,
+      DidFilter filter, List<MetaField> groupFields, List<AggregatedColumn> aggregatedColumns);
+
+  /**
+   * Returns the distinct non null values the given field of the root doc part contains on the
+   * documents that fulfill the given filter, in no particular order.
+   *
+   * @param field a field of the root doc part. As each type is stored on a different field,
+   *              values of other types must be read with other calls
+   */
+  public Cursor<KvValue<?>> findDistinctByFilter(MetaDatabase db, MetaCollection col,
+      DidFilter filter, MetaField field);
+
   /**
    * Return a cursor that iterates over all documents that fulfill the query.
    *
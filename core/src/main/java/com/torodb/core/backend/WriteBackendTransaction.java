@@ -18,6 +18,7 @@
 
 package com.torodb.core.backend;
 
+import com.google.common.collect.Multimap;
 import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.transaction.RollbackException;
@@ -33,6 +34,8 @@ import com.torodb.core.transaction.metainf.MutableMetaDocPart;
 import com.torodb.kvdocument.values.KvValue;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
 
 public interface WriteBackendTransaction extends BackendTransaction {
   
@@ -119,6 +122,57 @@ public interface WriteBackendTransaction extends BackendTransaction {
   public void addScalar(MetaDatabase db, MetaCollection col, MetaDocPart docPart,
       MetaScalar newScalar);
 
+  /**
+   * Adds several scalars and fields to a doc part.
+   *
+   * <p>It is equivalent to call {@link #addScalar(MetaDatabase, MetaCollection, MetaDocPart,
+   * MetaScalar) } for each scalar and then {@link #addField(MetaDatabase, MetaCollection,
+   * MutableMetaDocPart, MetaField) } for each field, but implementations can add all the columns
+   * using less (and cheaper) statements.
+   *
+   * @param db         the database that contains the given collection. It must have been added
+   *                   before
+   * @param col        the collection that contains the given docPart. It must have been added
+   *                   before
+   * @param docPart    the docPart where the scalars and fields will be added. It must have been
+   *                   added before
+   * @param newScalars the scalars to add
+   * @param newFields  the fields to add
+   */
+  public default void addColumns(MetaDatabase db, MetaCollection col, MutableMetaDocPart docPart,
+      List<? extends MetaScalar> newScalars, List<? extends MetaField> newFields)
+      throws UserException, RollbackException {
+    for (MetaScalar newScalar : newScalars) {
+      addScalar(db, col, docPart, newScalar);
+    }
+    for (MetaField newField : newFields) {
+      addField(db, col, docPart, newField);
+    }
+  }
+
+  /**
+   * Adds a docPart to a collection including all the {@link MetaDocPart#streamScalars() scalars}
+   * and {@link MetaDocPart#streamFields() fields} it contains.
+   *
+   * <p>It is equivalent to call {@link #addDocPart(MetaDatabase, MetaCollection, MetaDocPart) }
+   * and then {@link #addColumns(MetaDatabase, MetaCollection, MutableMetaDocPart, List, List) },
+   * but implementations can create the table with all its columns at once.
+   *
+   * @param db         the database that contains the given collection. It must have been added
+   *                   before.
+   * @param col        the collection where the doc part will be added. It must have been added
+   *                   before
+   * @param newDocPart the docPart to add
+   */
+  public default void addDocPartWithColumns(MetaDatabase db, MetaCollection col,
+      MutableMetaDocPart newDocPart) throws UserException, RollbackException {
+    addDocPart(db, col, newDocPart);
+    addColumns(db, col, newDocPart,
+        newDocPart.streamScalars().collect(Collectors.toList()),
+        newDocPart.streamFields().collect(Collectors.toList())
+    );
+  }
+
   /**
    * Reserves a given number of rids on the given doc part.
    *
@@ -145,6 +199,22 @@ public interface WriteBackendTransaction extends BackendTransaction {
 
   public void deleteDids(MetaDatabase db, MetaCollection col, Collection<Integer> dids);
 
+  /**
+   * Deletes the documents whose root doc part contains one of the given values.
+   *
+   * Unlike {@link #deleteDids(MetaDatabase, MetaCollection, Collection)}, the dids of the
+   * documents to delete do not need to be known, which lets backends delete them in fewer
+   * statements.
+   *
+   * @param db             the database that contains the given collection
+   * @param col            the collection that contains the given doc part
+   * @param rootDocPart    the root doc part of the collection
+   * @param valuesMultimap the values to look for, grouped by the field that can contain them
+   * @return the values of the deleted documents
+   */
+  public List<KvValue<?>> deleteByFieldIn(MetaDatabase db, MetaCollection col,
+      MetaDocPart rootDocPart, Multimap<MetaField, KvValue<?>> valuesMultimap);
+
   /**
    * Create a logical index on doc part. If not yet existing, a physical index will be created for
    * each existent and future doc part fields and scalars that satisfy logical index definition.
@@ -153,8 +223,26 @@ public interface WriteBackendTransaction extends BackendTransaction {
    * @param col
    * @param index
    */
-  public void createIndex(MetaDatabase db, MutableMetaCollection col, MetaIndex index) 
-      throws UserException;
+  public default void createIndex(MetaDatabase db, MutableMetaCollection col, MetaIndex index)
+      throws UserException {
+    createIndex(db, col, index, false);
+  }
+
+  /**
+   * Like {@link #createIndex(MetaDatabase, MutableMetaCollection, MetaIndex)}, but if
+   * {@code background} is true the physical indexes on the existent doc parts may be built once
+   * this transaction commits, without blocking the writes on their tables.
+   *
+   * The metadata of the index is stored on this transaction, but the backend will not use the
+   * physical indexes until they are completely built.
+   *
+   * @param db
+   * @param col
+   * @param index
+   * @param background true if the existent data should be indexed in background
+   */
+  public void createIndex(MetaDatabase db, MutableMetaCollection col, MetaIndex index,
+      boolean background) throws UserException;
 
   /**
    * Drop a logical index on doc part. Physical indexes that satisfy logical index definition and
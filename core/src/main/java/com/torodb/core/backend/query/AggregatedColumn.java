@@ -0,0 +1,93 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.core.backend.query;
+
+import com.google.common.base.Preconditions;
+import com.torodb.core.transaction.metainf.MetaField;
+
+import javax.annotation.Nullable;
+
+/**
+ * An aggregate function computed over the rows of each group of a grouping on the root doc part
+ * of a collection.
+ *
+ * <p>Like on SQL, null values are ignored by all functions but {@link Function#COUNT} on rows.
+ */
+public class AggregatedColumn {
+
+  private final Function function;
+  @Nullable
+  private final MetaField field;
+
+  /**
+   * @param field the field of the root doc part the function is computed on or null to count the
+   *              rows of each group
+   */
+  public AggregatedColumn(Function function, @Nullable MetaField field) {
+    Preconditions.checkArgument(field != null || function == Function.COUNT,
+        "only %s can be computed on rows", Function.COUNT);
+    this.function = function;
+    this.field = field;
+  }
+
+  /**
+   * Returns an aggregated column that counts the rows of each group.
+   */
+  public static AggregatedColumn countRows() {
+    return new AggregatedColumn(Function.COUNT, null);
+  }
+
+  public Function getFunction() {
+    return function;
+  }
+
+  /**
+   * Returns the field the function is computed on or null if the rows of each group are counted.
+   */
+  @Nullable
+  public MetaField getField() {
+    return field;
+  }
+
+  @Override
+  public String toString() {
+    return function + "(" + (field == null ? "*" : field.getIdentifier()) + ")";
+  }
+
+  public static enum Function {
+    /**
+     * The number of rows (or non null values) of the group, as a long.
+     */
+    COUNT,
+    /**
+     * The sum of the values of the group, as a double on double fields and as a long on integral
+     * fields (or as a double if it does not fit on a long).
+     */
+    SUM,
+    /**
+     * The smallest value of the group, with the type of the field.
+     */
+    MIN,
+    /**
+     * The greatest value of the group, with the type of the field.
+     */
+    MAX
+  }
+
+}
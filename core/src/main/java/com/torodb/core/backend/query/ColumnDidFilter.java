@@ -0,0 +1,121 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.backend.query;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.List;
+
+/**
+ * A filter that is fulfilled by the documents that have at least one row on the given doc part
+ * whose column fulfills the operator.
+ *
+ * <p>Values are always of the type stored on the column.
+ */
+public class ColumnDidFilter extends DidFilter {
+
+  private final MetaDocPart docPart;
+  private final String columnIdentifier;
+  private final FieldType columnType;
+  private final Operator operator;
+  private final ImmutableList<KvValue<?>> values;
+
+  public ColumnDidFilter(MetaDocPart docPart, String columnIdentifier, FieldType columnType,
+      Operator operator, List<KvValue<?>> values) {
+    Preconditions.checkArgument(operator.acceptsValueCount(values.size()),
+        "%s values is not a valid number of values for operator %s", values.size(), operator);
+    this.docPart = docPart;
+    this.columnIdentifier = columnIdentifier;
+    this.columnType = columnType;
+    this.operator = operator;
+    this.values = ImmutableList.copyOf(values);
+  }
+
+  public MetaDocPart getDocPart() {
+    return docPart;
+  }
+
+  public String getColumnIdentifier() {
+    return columnIdentifier;
+  }
+
+  public FieldType getColumnType() {
+    return columnType;
+  }
+
+  public Operator getOperator() {
+    return operator;
+  }
+
+  public ImmutableList<KvValue<?>> getValues() {
+    return values;
+  }
+
+  @Override
+  public <R, A> R accept(DidFilterVisitor<R, A> visitor, A arg) {
+    return visitor.visit(this, arg);
+  }
+
+  @Override
+  public String toString() {
+    return docPart.getIdentifier() + '.' + columnIdentifier + ' ' + operator + ' ' + values;
+  }
+
+  public static enum Operator {
+    EQ,
+    GT,
+    GTE,
+    LT,
+    LTE,
+    /**
+     * The column is equal to one of the values.
+     */
+    IN,
+    /**
+     * The column has a value, whatever it is.
+     */
+    NOT_NULL,
+    /**
+     * The column is a string that contains at least one of the words of the values. Words are
+     * compared as the full text search of the backend does, which usually ignores the case and
+     * stems the words.
+     */
+    TEXT_ANY,
+    /**
+     * The column is a string that contains the words of the value in the same order.
+     */
+    TEXT_PHRASE;
+
+    boolean acceptsValueCount(int count) {
+      switch (this) {
+        case IN:
+        case TEXT_ANY:
+          return count > 0;
+        case NOT_NULL:
+          return count == 0;
+        default:
+          return count == 1;
+      }
+    }
+  }
+
+}
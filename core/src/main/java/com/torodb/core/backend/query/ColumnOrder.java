@@ -0,0 +1,57 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.backend.query;
+
+import com.torodb.core.transaction.metainf.FieldType;
+
+/**
+ * An ordering criteria on a column of the root doc part of a collection.
+ *
+ * <p>Null values are sorted as MongoDB sorts missing attributes: before any other value on
+ * ascending orders and after them on descending ones.
+ */
+public class ColumnOrder {
+
+  private final String columnIdentifier;
+  private final FieldType type;
+  private final boolean ascending;
+
+  public ColumnOrder(String columnIdentifier, FieldType type, boolean ascending) {
+    this.columnIdentifier = columnIdentifier;
+    this.type = type;
+    this.ascending = ascending;
+  }
+
+  public String getColumnIdentifier() {
+    return columnIdentifier;
+  }
+
+  public FieldType getType() {
+    return type;
+  }
+
+  public boolean isAscending() {
+    return ascending;
+  }
+
+  @Override
+  public String toString() {
+    return columnIdentifier + (ascending ? " ASC" : " DESC");
+  }
+
+}
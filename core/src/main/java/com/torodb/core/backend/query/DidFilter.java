@@ -0,0 +1,35 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.backend.query;
+
+/**
+ * A condition on the rows of the doc part tables of a collection that selects the dids of the
+ * documents that fulfill it.
+ *
+ * <p>Unlike {@link com.torodb.core.language.querycriteria.QueryCriteria query criterias}, did
+ * filters are expressed over doc parts and columns, so backends can translate them to SQL without
+ * knowing how documents are mapped to tables.
+ */
+public abstract class DidFilter {
+
+  DidFilter() {
+  }
+
+  public abstract <R, A> R accept(DidFilterVisitor<R, A> visitor, A arg);
+
+}
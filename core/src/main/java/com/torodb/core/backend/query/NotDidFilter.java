@@ -0,0 +1,59 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.backend.query;
+
+/**
+ * A filter that is fulfilled when its subfilter is not.
+ */
+public class NotDidFilter extends DidFilter {
+
+  private final DidFilter subFilter;
+
+  private NotDidFilter(DidFilter subFilter) {
+    this.subFilter = subFilter;
+  }
+
+  /**
+   * Returns a filter equivalent to the negation of the given one, simplifying constants and double
+   * negations.
+   */
+  public static DidFilter of(DidFilter subFilter) {
+    if (subFilter instanceof ConstantDidFilter) {
+      return ConstantDidFilter.of(!((ConstantDidFilter) subFilter).getValue());
+    }
+    if (subFilter instanceof NotDidFilter) {
+      return ((NotDidFilter) subFilter).getSubFilter();
+    }
+    return new NotDidFilter(subFilter);
+  }
+
+  public DidFilter getSubFilter() {
+    return subFilter;
+  }
+
+  @Override
+  public <R, A> R accept(DidFilterVisitor<R, A> visitor, A arg) {
+    return visitor.visit(this, arg);
+  }
+
+  @Override
+  public String toString() {
+    return "not " + subFilter;
+  }
+
+}
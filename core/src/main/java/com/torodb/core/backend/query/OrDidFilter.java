@@ -0,0 +1,75 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.backend.query;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * A filter that is fulfilled when at least one of its subfilters is fulfilled.
+ */
+public class OrDidFilter extends DidFilter {
+
+  private final ImmutableList<DidFilter> subFilters;
+
+  private OrDidFilter(List<DidFilter> subFilters) {
+    this.subFilters = ImmutableList.copyOf(subFilters);
+  }
+
+  /**
+   * Returns a filter equivalent to the disjunction of the given ones, simplifying the constant
+   * ones.
+   */
+  public static DidFilter of(List<DidFilter> subFilters) {
+    ImmutableList.Builder<DidFilter> nonConstant = ImmutableList.builder();
+    for (DidFilter subFilter : subFilters) {
+      if (subFilter == ConstantDidFilter.TRUE) {
+        return ConstantDidFilter.TRUE;
+      }
+      if (subFilter != ConstantDidFilter.FALSE) {
+        nonConstant.add(subFilter);
+      }
+    }
+    ImmutableList<DidFilter> filters = nonConstant.build();
+    switch (filters.size()) {
+      case 0:
+        return ConstantDidFilter.FALSE;
+      case 1:
+        return filters.get(0);
+      default:
+        return new OrDidFilter(filters);
+    }
+  }
+
+  public ImmutableList<DidFilter> getSubFilters() {
+    return subFilters;
+  }
+
+  @Override
+  public <R, A> R accept(DidFilterVisitor<R, A> visitor, A arg) {
+    return visitor.visit(this, arg);
+  }
+
+  @Override
+  public String toString() {
+    return "(" + Joiner.on(" or ").join(subFilters) + ")";
+  }
+
+}
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 import javax.annotation.Nonnull;
 
@@ -64,6 +65,11 @@ public interface Cursor<E> extends AutoCloseable, Iterator<E> {
     return new TransformCursor<>(this, transformation);
   }
 
+  @Nonnull
+  default Cursor<E> filter(Predicate<E> predicate) {
+    return new FilterCursor<>(this, predicate);
+  }
+
   @Nonnull
   default BatchCursor<E> batch(int size) {
     return new BatchCursor<>(this, size);
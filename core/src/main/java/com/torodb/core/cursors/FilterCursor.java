@@ -0,0 +1,65 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.cursors;
+
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * A cursor that only iterates over the elements of its delegate that fulfill a predicate.
+ */
+public class FilterCursor<E> implements Cursor<E> {
+
+  private final Cursor<E> delegate;
+  private final Predicate<E> predicate;
+  private E nextElement;
+  private boolean nextCalculated = false;
+
+  public FilterCursor(Cursor<E> delegate, Predicate<E> predicate) {
+    this.delegate = delegate;
+    this.predicate = predicate;
+  }
+
+  @Override
+  public void close() {
+    delegate.close();
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!nextCalculated && delegate.hasNext()) {
+      E candidate = delegate.next();
+      if (predicate.test(candidate)) {
+        nextElement = candidate;
+        nextCalculated = true;
+      }
+    }
+    return nextCalculated;
+  }
+
+  @Override
+  public E next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    E result = nextElement;
+    nextElement = null;
+    nextCalculated = false;
+    return result;
+  }
+}
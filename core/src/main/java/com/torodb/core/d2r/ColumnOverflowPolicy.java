@@ -0,0 +1,59 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.d2r;
+
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.MetaCollection;
+import com.torodb.core.transaction.metainf.MetaDatabase;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+
+/**
+ * Decides which keys of a document are stored on their own column and which ones are stored, all
+ * together, on the overflow column of their doc part.
+ *
+ * <p>Keys that are stored on the overflow column do not create new columns, which keeps collections
+ * with sparse or high cardinality keys from ending with very wide tables, but they cannot be used
+ * to filter or index at the SQL level. That is why policies are not asked about keys that are
+ * indexed, or that contain indexed keys, which always get their own columns.
+ */
+public interface ColumnOverflowPolicy {
+
+  /**
+   * The name of the {@link FieldType#OVERFLOW overflow} field of each doc part.
+   */
+  String OVERFLOW_FIELD_NAME = "_overflow";
+
+  /**
+   * A policy that never overflows, so each key and type pair has its own column.
+   */
+  ColumnOverflowPolicy NEVER = (db, col, docPart, key, type) -> false;
+
+  /**
+   * Returns true iff the given key and type pair, that has not been mapped to a column of the given
+   * doc part yet, must be stored on the overflow column.
+   *
+   * @param db      the database of the document
+   * @param col     the collection of the document
+   * @param docPart the doc part where the key would be stored
+   * @param key     the key
+   * @param type    the type of the value associated with the key
+   */
+  boolean isOverflowed(MetaDatabase db, MetaCollection col, MetaDocPart docPart,
+      String key, FieldType type);
+
+}
@@ -21,6 +21,7 @@ package com.torodb.core.d2r;
 import com.torodb.core.TableRef;
 import com.torodb.core.backend.IdentifierConstraints;
 import com.torodb.core.exceptions.SystemException;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
 import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
@@ -106,13 +107,13 @@ public class DefaultIdentifierFactory implements IdentifierFactory {
 
   @Override
   public String toIndexIdentifier(MetaDatabase metaDatabase, String tableName,
-      Iterable<Tuple2<String, Boolean>> columns) {
+      Iterable<Tuple2<String, FieldIndexOrdering>> columns) {
     NameChain nameChain = new NameChain(separatorString);
     nameChain.add(tableName);
 
-    for (Tuple2<String, Boolean> column : columns) {
+    for (Tuple2<String, FieldIndexOrdering> column : columns) {
       nameChain.add(column.v1());
-      nameChain.add(column.v2() ? "a" : "d");
+      nameChain.add(toOrderingName(column.v2()));
     }
 
     IdentifierChecker identifierChecker = new IndexIdentifierChecker(metaDatabase);
@@ -120,6 +121,21 @@ public class DefaultIdentifierFactory implements IdentifierFactory {
     return generateUniqueIdentifier(nameChain, identifierChecker, "idx");
   }
 
+  private static String toOrderingName(FieldIndexOrdering ordering) {
+    switch (ordering) {
+      case ASC:
+        return "a";
+      case DESC:
+        return "d";
+      case HASHED:
+        return "h";
+      case TEXT:
+        return "t";
+      default:
+        throw new AssertionError("Unexpected ordering " + ordering);
+    }
+  }
+
   private String generateUniqueIdentifier(NameChain nameChain,
       IdentifierChecker uniqueIdentifierChecker) {
     return generateUniqueIdentifier(nameChain, uniqueIdentifierChecker, null);
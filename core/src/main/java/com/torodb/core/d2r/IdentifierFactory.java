@@ -19,6 +19,7 @@
 package com.torodb.core.d2r;
 
 import com.torodb.core.TableRef;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
 import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
@@ -51,5 +52,5 @@ public interface IdentifierFactory {
 
   @Nonnull
   String toIndexIdentifier(@Nonnull MetaDatabase metaSnapshot, String tableName,
-      @Nonnull Iterable<Tuple2<String, Boolean>> identifiers);
+      @Nonnull Iterable<Tuple2<String, FieldIndexOrdering>> identifiers);
 }
@@ -0,0 +1,59 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.d2r;
+
+import com.google.common.base.Preconditions;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.MetaCollection;
+import com.torodb.core.transaction.metainf.MetaDatabase;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+
+/**
+ * A {@link ColumnOverflowPolicy} that maps keys to columns in the order they are found until a
+ * doc part has a given number of fields. Once that limit is reached, new keys are stored on the
+ * overflow column.
+ *
+ * <p>As the keys that appear on most documents are usually found first, this keeps the frequent
+ * keys relational and moves the rare ones to the overflow column. The {@value #ID_KEY} key of the
+ * root doc part is never overflowed, as documents are looked up by it.
+ */
+public class MaxColumnsOverflowPolicy implements ColumnOverflowPolicy {
+
+  private static final String ID_KEY = "_id";
+
+  private final int maxFieldsPerDocPart;
+
+  public MaxColumnsOverflowPolicy(int maxFieldsPerDocPart) {
+    Preconditions.checkArgument(maxFieldsPerDocPart > 0,
+        "The maximum number of fields per doc part must be positive");
+    this.maxFieldsPerDocPart = maxFieldsPerDocPart;
+  }
+
+  @Override
+  public boolean isOverflowed(MetaDatabase db, MetaCollection col, MetaDocPart docPart,
+      String key, FieldType type) {
+    if (docPart.getTableRef().isRoot() && key.equals(ID_KEY)) {
+      return false;
+    }
+    if (docPart.getMetaFieldByNameAndType(key, type) != null) {
+      return false;
+    }
+    return docPart.streamFields().count() >= maxFieldsPerDocPart;
+  }
+
+}
@@ -19,26 +19,40 @@
 package com.torodb.core.d2r.impl;
 
 import com.torodb.core.TableRef;
+import com.torodb.core.d2r.ColumnOverflowPolicy;
 import com.torodb.core.d2r.IdentifierFactory;
 import com.torodb.core.d2r.ReservedIdGenerator;
 import com.torodb.core.d2r.ReservedIdGenerator.DocPartRidGenerator;
 import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.MetaDatabase;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaIndexField;
 import com.torodb.core.transaction.metainf.MutableMetaCollection;
 import com.torodb.core.transaction.metainf.MutableMetaDocPart;
 
+import java.util.Iterator;
+import java.util.Optional;
+
 public class CollectionMetaInfo {
 
   private final MetaDatabase metaDatabase;
   private final MutableMetaCollection metaCollection;
   private final IdentifierFactory identifierFactory;
   private final DocPartRidGenerator docPartRidGenerator;
+  private final ColumnOverflowPolicy columnOverflowPolicy;
 
   public CollectionMetaInfo(MetaDatabase metaDatabase, MutableMetaCollection metaCollection,
       IdentifierFactory identifierFactory, ReservedIdGenerator ridGenerator) {
+    this(metaDatabase, metaCollection, identifierFactory, ridGenerator, ColumnOverflowPolicy.NEVER);
+  }
+
+  public CollectionMetaInfo(MetaDatabase metaDatabase, MutableMetaCollection metaCollection,
+      IdentifierFactory identifierFactory, ReservedIdGenerator ridGenerator,
+      ColumnOverflowPolicy columnOverflowPolicy) {
     this.metaDatabase = metaDatabase;
     this.metaCollection = metaCollection;
     this.identifierFactory = identifierFactory;
+    this.columnOverflowPolicy = columnOverflowPolicy;
     this.docPartRidGenerator = ridGenerator.getDocPartRidGenerator(metaDatabase.getName(),
         metaCollection.getName());
   }
@@ -62,6 +76,53 @@ public class CollectionMetaInfo {
     return identifierFactory.toFieldIdentifier(metaDocPart, field, fieldType);
   }
 
+  /**
+   * Returns true iff the given key and type pair must be stored on the overflow column of the
+   * given doc part.
+   *
+   * <p>Keys that are indexed, or whose values contain indexed keys, are never overflowed whatever
+   * the {@link ColumnOverflowPolicy} says, as only columns can be indexed.
+   */
+  public boolean isOverflowed(MetaDocPart metaDocPart, String field, FieldType fieldType) {
+    if (isIndexed(metaDocPart.getTableRef(), field)) {
+      return false;
+    }
+    return columnOverflowPolicy.isOverflowed(metaDatabase, metaCollection, metaDocPart, field,
+        fieldType);
+  }
+
+  private boolean isIndexed(TableRef tableRef, String field) {
+    return metaCollection.streamContainedMetaIndexes().anyMatch(index -> {
+      Iterator<? extends MetaIndexField> indexFields = index.iteratorFields();
+      while (indexFields.hasNext()) {
+        if (isStoredOn(indexFields.next(), tableRef, field)) {
+          return true;
+        }
+      }
+      return false;
+    });
+  }
+
+  /**
+   * Returns true iff the given index field is the given key of the given doc part or is stored
+   * inside the values of that key.
+   */
+  private static boolean isStoredOn(MetaIndexField indexField, TableRef tableRef, String field) {
+    TableRef ref = indexField.getTableRef();
+    if (ref.equals(tableRef)) {
+      return indexField.getFieldName().equals(field);
+    }
+    Optional<TableRef> parent = ref.getParent();
+    while (parent.isPresent()) {
+      if (parent.get().equals(tableRef)) {
+        return ref.getName().equals(field);
+      }
+      ref = parent.get();
+      parent = ref.getParent();
+    }
+    return false;
+  }
+
   public String getScalarIdentifier(FieldType fieldType) {
     return identifierFactory.toFieldIdentifierForScalar(fieldType);
   }
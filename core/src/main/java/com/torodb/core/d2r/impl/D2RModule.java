@@ -20,6 +20,7 @@ package com.torodb.core.d2r.impl;
 
 import com.google.inject.PrivateModule;
 import com.google.inject.assistedinject.FactoryModuleBuilder;
+import com.torodb.core.d2r.ColumnOverflowPolicy;
 import com.torodb.core.d2r.D2RTranslator;
 import com.torodb.core.d2r.D2RTranslatorFactory;
 import com.torodb.core.d2r.R2DTranslator;
@@ -29,8 +30,21 @@ import com.torodb.core.d2r.R2DTranslator;
  */
 public class D2RModule extends PrivateModule {
 
+  private final ColumnOverflowPolicy columnOverflowPolicy;
+
+  public D2RModule() {
+    this(ColumnOverflowPolicy.NEVER);
+  }
+
+  public D2RModule(ColumnOverflowPolicy columnOverflowPolicy) {
+    this.columnOverflowPolicy = columnOverflowPolicy;
+  }
+
   @Override
   protected void configure() {
+    bind(ColumnOverflowPolicy.class)
+        .toInstance(columnOverflowPolicy);
+
     install(new FactoryModuleBuilder()
         .implement(D2RTranslator.class, D2RTranslatorStack.class)
         .build(D2RTranslatorFactory.class)
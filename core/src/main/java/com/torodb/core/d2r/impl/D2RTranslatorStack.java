@@ -22,6 +22,7 @@ import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
 import com.torodb.core.TableRefFactory;
 import com.torodb.core.d2r.CollectionData;
+import com.torodb.core.d2r.ColumnOverflowPolicy;
 import com.torodb.core.d2r.D2RTranslator;
 import com.torodb.core.d2r.IdentifierFactory;
 import com.torodb.core.d2r.ReservedIdGenerator;
@@ -35,12 +36,18 @@ public class D2RTranslatorStack implements D2RTranslator {
   private final DocPartDataCollection docPartDataCollection;
   private final D2Relational d2Relational;
 
+  public D2RTranslatorStack(TableRefFactory tableRefFactory, IdentifierFactory identifierFactory,
+      ReservedIdGenerator ridGenerator, MetaDatabase database, MutableMetaCollection collection) {
+    this(tableRefFactory, identifierFactory, ridGenerator, ColumnOverflowPolicy.NEVER, database,
+        collection);
+  }
+
   @Inject
   public D2RTranslatorStack(TableRefFactory tableRefFactory, IdentifierFactory identifierFactory,
-      ReservedIdGenerator ridGenerator, @Assisted MetaDatabase database,
-      @Assisted MutableMetaCollection collection) {
+      ReservedIdGenerator ridGenerator, ColumnOverflowPolicy columnOverflowPolicy,
+      @Assisted MetaDatabase database, @Assisted MutableMetaCollection collection) {
     this.collectionMetaInfo = new CollectionMetaInfo(database, collection, identifierFactory,
-        ridGenerator);
+        ridGenerator, columnOverflowPolicy);
     this.docPartDataCollection = new DocPartDataCollection(collectionMetaInfo);
     this.d2Relational = new D2Relational(tableRefFactory, docPartDataCollection);
   }
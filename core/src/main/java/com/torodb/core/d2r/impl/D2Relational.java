@@ -19,6 +19,7 @@
 package com.torodb.core.d2r.impl;
 
 import com.torodb.core.TableRefFactory;
+import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.impl.model.DocPartDataImpl;
 import com.torodb.core.transaction.metainf.impl.model.DocPartRowImpl;
 import com.torodb.core.transaction.metainf.impl.model.PathStack;
@@ -63,7 +64,9 @@ public class D2Relational {
       for (DocEntry<?> entry : value) {
         String key = entry.getKey();
         KvValue<?> entryValue = entry.getValue();
-        if (isScalar(entryValue.getType())) {
+        if (docPartData.isOverflowed(key, FieldType.from(entryValue.getType()))) {
+          docPartRow.addOverflowed(key, entryValue);
+        } else if (isScalar(entryValue.getType())) {
           docPartRow.addScalar(key, entryValue);
         } else {
           docPartRow.addChild(key, entryValue);
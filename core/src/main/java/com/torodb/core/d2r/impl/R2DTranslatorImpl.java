@@ -33,6 +33,7 @@ import com.torodb.core.transaction.metainf.MetaField;
 import com.torodb.core.transaction.metainf.MetaScalar;
 import com.torodb.kvdocument.values.KvBoolean;
 import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDocument.DocEntry;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.kvdocument.values.heap.ListKvArray;
 
@@ -137,6 +138,12 @@ public class R2DTranslatorImpl implements R2DTranslator {
         KvValue<?> value = row.getUserValue(fieldIndex, metaField.getType());
         fieldIndex++;
         if (value != null) {
+          if (metaField.getType() == FieldType.OVERFLOW) {
+            for (DocEntry<?> overflowed : (KvDocument) value) {
+              documentBuilder.putValue(overflowed.getKey(), overflowed.getValue());
+            }
+            continue;
+          }
           if (metaField.getType() == FieldType.CHILD) {
             value = getChildValue(value, metaField.getName(), childFieldDocPartCell);
           }
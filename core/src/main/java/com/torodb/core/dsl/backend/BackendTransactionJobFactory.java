@@ -26,6 +26,8 @@ import com.torodb.core.transaction.metainf.MetaField;
 import com.torodb.core.transaction.metainf.MetaScalar;
 import com.torodb.core.transaction.metainf.MutableMetaDocPart;
 
+import java.util.List;
+
 public interface BackendTransactionJobFactory {
 
   AddDatabaseDdlJob createAddDatabaseDdlJob(MetaDatabase db);
@@ -40,6 +42,21 @@ public interface BackendTransactionJobFactory {
   AddScalarDddlJob createAddScalarDdlJob(MetaDatabase db, MetaCollection col, MetaDocPart docPart,
       MetaScalar scalar);
 
+  /**
+   * Creates a job that adds a doc part and all the scalars and fields it contains, which lets the
+   * backend create the table with all its columns at once.
+   */
+  AddDocPartDdlJob createAddDocPartWithColumnsDdlJob(MetaDatabase db, MetaCollection col,
+      MutableMetaDocPart docPart);
+
+  /**
+   * Creates a job that adds several scalars and fields to an existing doc part, which lets the
+   * backend add all the columns with a single statement.
+   */
+  AddColumnsDdlJob createAddColumnsDdlJob(MetaDatabase db, MetaCollection col,
+      MutableMetaDocPart docPart, List<? extends MetaScalar> scalars,
+      List<? extends MetaField> fields);
+
   InsertBackendJob insert(MetaDatabase db, MetaCollection col, DocPartData data);
 
 }
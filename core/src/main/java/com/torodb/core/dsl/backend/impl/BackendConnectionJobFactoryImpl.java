@@ -20,6 +20,7 @@ package com.torodb.core.dsl.backend.impl;
 
 import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.dsl.backend.AddCollectionDdlJob;
+import com.torodb.core.dsl.backend.AddColumnsDdlJob;
 import com.torodb.core.dsl.backend.AddDatabaseDdlJob;
 import com.torodb.core.dsl.backend.AddDocPartDdlJob;
 import com.torodb.core.dsl.backend.AddFieldDdlJob;
@@ -33,6 +34,8 @@ import com.torodb.core.transaction.metainf.MetaField;
 import com.torodb.core.transaction.metainf.MetaScalar;
 import com.torodb.core.transaction.metainf.MutableMetaDocPart;
 
+import java.util.List;
+
 public class BackendConnectionJobFactoryImpl implements BackendTransactionJobFactory {
 
   @Override
@@ -64,6 +67,19 @@ public class BackendConnectionJobFactoryImpl implements BackendTransactionJobFac
     return new AddScalarDdlJobImpl(db, col, docPart, scalar);
   }
 
+  @Override
+  public AddDocPartDdlJob createAddDocPartWithColumnsDdlJob(MetaDatabase db, MetaCollection col,
+      MutableMetaDocPart docPart) {
+    return new AddDocPartWithColumnsDdlJobImpl(db, col, docPart);
+  }
+
+  @Override
+  public AddColumnsDdlJob createAddColumnsDdlJob(MetaDatabase db, MetaCollection col,
+      MutableMetaDocPart docPart, List<? extends MetaScalar> scalars,
+      List<? extends MetaField> fields) {
+    return new AddColumnsDdlJobImpl(db, col, docPart, scalars, fields);
+  }
+
   @Override
   public InsertBackendJob insert(MetaDatabase db, MetaCollection col, DocPartData data) {
     return new InsertBackendJobImpl(db, col, data);
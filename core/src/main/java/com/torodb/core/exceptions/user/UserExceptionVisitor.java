@@ -30,6 +30,8 @@ public interface UserExceptionVisitor<R, A> {
 
   public R visit(UnsupportedCompoundIndexException userException, A arg);
 
+  public R visit(UnsupportedOverflowedIndexException userException, A arg);
+
   public R visit(UpdateException userException, A arg);
 
   public R visit(UniqueIndexViolationException userException, A arg);
@@ -0,0 +1,75 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.language.querycriteria;
+
+import com.torodb.core.language.AttributeReference;
+import com.torodb.kvdocument.values.KvValue;
+
+/**
+ * A criteria that is fulfilled when the referenced attribute compares with the given value as the
+ * operator requires.
+ */
+public class ComparisonQueryCriteria extends AttributeQueryCriteria {
+
+  private final Operator operator;
+  private final KvValue<?> value;
+
+  public ComparisonQueryCriteria(AttributeReference attributeReference, Operator operator,
+      KvValue<?> value) {
+    super(attributeReference);
+    this.operator = operator;
+    this.value = value;
+  }
+
+  public Operator getOperator() {
+    return operator;
+  }
+
+  public KvValue<?> getValue() {
+    return value;
+  }
+
+  @Override
+  public <R, A> R accept(QueryCriteriaVisitor<R, A> visitor, A arg) {
+    return visitor.visit(this, arg);
+  }
+
+  @Override
+  public String toString() {
+    return getAttributeReference() + " " + operator.getSymbol() + " " + value;
+  }
+
+  public static enum Operator {
+    EQ("="),
+    GT(">"),
+    GTE(">="),
+    LT("<"),
+    LTE("<=");
+
+    private final String symbol;
+
+    private Operator(String symbol) {
+      this.symbol = symbol;
+    }
+
+    public String getSymbol() {
+      return symbol;
+    }
+  }
+
+}
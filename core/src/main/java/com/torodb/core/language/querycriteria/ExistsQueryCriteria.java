@@ -0,0 +1,41 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.language.querycriteria;
+
+import com.torodb.core.language.AttributeReference;
+
+/**
+ * A criteria that is fulfilled when the referenced attribute exists, whatever its value is.
+ */
+public class ExistsQueryCriteria extends AttributeQueryCriteria {
+
+  public ExistsQueryCriteria(AttributeReference attributeReference) {
+    super(attributeReference);
+  }
+
+  @Override
+  public <R, A> R accept(QueryCriteriaVisitor<R, A> visitor, A arg) {
+    return visitor.visit(this, arg);
+  }
+
+  @Override
+  public String toString() {
+    return "exists " + getAttributeReference();
+  }
+
+}
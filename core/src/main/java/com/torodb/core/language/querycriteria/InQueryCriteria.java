@@ -0,0 +1,52 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.language.querycriteria;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.Collection;
+
+/**
+ * A criteria that is fulfilled when the referenced attribute is equal to one of the given values.
+ */
+public class InQueryCriteria extends AttributeQueryCriteria {
+
+  private final ImmutableList<KvValue<?>> values;
+
+  public InQueryCriteria(AttributeReference attributeReference, Collection<KvValue<?>> values) {
+    super(attributeReference);
+    this.values = ImmutableList.copyOf(values);
+  }
+
+  public ImmutableList<KvValue<?>> getValues() {
+    return values;
+  }
+
+  @Override
+  public <R, A> R accept(QueryCriteriaVisitor<R, A> visitor, A arg) {
+    return visitor.visit(this, arg);
+  }
+
+  @Override
+  public String toString() {
+    return getAttributeReference() + " in " + values;
+  }
+
+}
@@ -0,0 +1,33 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.language.querycriteria;
+
+/**
+ * A condition that documents may fulfill, expressed over their attributes.
+ *
+ * <p>Query criterias follow the MongoDB semantics: an attribute condition is fulfilled if the
+ * referenced attribute, or any element of it if it is an array, fulfills it.
+ */
+public abstract class QueryCriteria {
+
+  QueryCriteria() {
+  }
+
+  public abstract <R, A> R accept(QueryCriteriaVisitor<R, A> visitor, A arg);
+
+}
@@ -0,0 +1,79 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.core.language.querycriteria;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.language.AttributeReference;
+
+import java.util.List;
+
+/**
+ * A criteria that is fulfilled when the text indexed attributes contain the searched words.
+ *
+ * <p>It follows the MongoDB {@code $text} semantics: if there are phrases, the attributes must
+ * contain all of them; otherwise they must contain at least one of the terms. In both cases, they
+ * must not contain any of the negated terms. Words are compared as the full text search of the
+ * backend does, which usually ignores the case and stems them.
+ */
+public class TextQueryCriteria extends QueryCriteria {
+
+  private final ImmutableList<AttributeReference> attributeReferences;
+  private final ImmutableList<String> terms;
+  private final ImmutableList<String> negatedTerms;
+  private final ImmutableList<String> phrases;
+
+  /**
+   * @param attributeReferences the attributes of the text index of the collection
+   */
+  public TextQueryCriteria(List<AttributeReference> attributeReferences, List<String> terms,
+      List<String> negatedTerms, List<String> phrases) {
+    this.attributeReferences = ImmutableList.copyOf(attributeReferences);
+    this.terms = ImmutableList.copyOf(terms);
+    this.negatedTerms = ImmutableList.copyOf(negatedTerms);
+    this.phrases = ImmutableList.copyOf(phrases);
+  }
+
+  public ImmutableList<AttributeReference> getAttributeReferences() {
+    return attributeReferences;
+  }
+
+  public ImmutableList<String> getTerms() {
+    return terms;
+  }
+
+  public ImmutableList<String> getNegatedTerms() {
+    return negatedTerms;
+  }
+
+  public ImmutableList<String> getPhrases() {
+    return phrases;
+  }
+
+  @Override
+  public <R, A> R accept(QueryCriteriaVisitor<R, A> visitor, A arg) {
+    return visitor.visit(this, arg);
+  }
+
+  @Override
+  public String toString() {
+    return attributeReferences + " text search " + terms + " not " + negatedTerms + " phrases "
+        + phrases;
+  }
+
+}
@@ -20,7 +20,17 @@ package com.torodb.core.transaction.metainf;
 
 public enum FieldIndexOrdering {
   ASC(true),
-  DESC(false);
+  DESC(false),
+  /**
+   * The field is indexed by the hash of its value, so the index can only be used on equality
+   * lookups.
+   */
+  HASHED(true),
+  /**
+   * The words of the field are indexed, so the index can only be used on full text searches. Only
+   * string fields are indexed.
+   */
+  TEXT(true);
 
   private final boolean ascending;
 
@@ -31,4 +41,11 @@ public enum FieldIndexOrdering {
   public boolean isAscending() {
     return ascending;
   }
+
+  /**
+   * Returns true iff the fields of the given type can be indexed with this ordering.
+   */
+  public boolean isCompatible(FieldType type) {
+    return this != TEXT || type == FieldType.STRING;
+  }
 }
@@ -71,7 +71,14 @@ public enum FieldType {
   UNDEFINED,
   MONGO_REGEX,
   MONGO_DB_POINTER,
-  DEPRECATED;
+  DEPRECATED,
+  /**
+   * The type of the column where a doc part stores, as a single document, the keys that a
+   * {@link com.torodb.core.d2r.ColumnOverflowPolicy} decided not to map to their own columns.
+   *
+   * <p>There is no {@link KvType} that is translated to this type.
+   */
+  OVERFLOW;
 
   private static final FromKvTypeVisitor FROM_KVTYPE_VISITOR = new FromKvTypeVisitor();
 
@@ -21,13 +21,13 @@ package com.torodb.core.transaction.metainf;
 import com.google.common.base.Preconditions;
 import com.torodb.core.TableRef;
 import com.torodb.core.annotations.DoNotChange;
+import com.torodb.core.util.PersistentHashMap;
 import org.jooq.lambda.Seq;
 import org.jooq.lambda.tuple.Tuple2;
 
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -38,43 +38,45 @@ public class ImmutableMetaCollection implements MetaCollection {
 
   private final String name;
   private final String identifier;
-  private final Map<TableRef, ImmutableMetaDocPart> docPartsByTableRef;
-  private final Map<String, ImmutableMetaDocPart> docPartsByIdentifier;
-  private final Map<String, ImmutableMetaIndex> indexesByName;
+  private final PersistentHashMap<TableRef, ImmutableMetaDocPart> docPartsByTableRef;
+  private final PersistentHashMap<String, ImmutableMetaDocPart> docPartsByIdentifier;
+  private final PersistentHashMap<String, ImmutableMetaIndex> indexesByName;
 
   public ImmutableMetaCollection(String colName, String colId,
       Iterable<ImmutableMetaDocPart> docParts, Iterable<ImmutableMetaIndex> indexes) {
     this.name = colName;
     this.identifier = colId;
 
-    HashMap<TableRef, ImmutableMetaDocPart> byTableRef = new HashMap<>();
-    HashMap<String, ImmutableMetaDocPart> byDbName = new HashMap<>();
+    PersistentHashMap<TableRef, ImmutableMetaDocPart> byTableRef = PersistentHashMap.empty();
+    PersistentHashMap<String, ImmutableMetaDocPart> byDbName = PersistentHashMap.empty();
     for (ImmutableMetaDocPart table : docParts) {
-      byTableRef.put(table.getTableRef(), table);
-      byDbName.put(table.getIdentifier(), table);
+      byTableRef = byTableRef.plus(table.getTableRef(), table);
+      byDbName = byDbName.plus(table.getIdentifier(), table);
     }
-    this.docPartsByTableRef = Collections.unmodifiableMap(byTableRef);
-    this.docPartsByIdentifier = Collections.unmodifiableMap(byDbName);
+    this.docPartsByTableRef = byTableRef;
+    this.docPartsByIdentifier = byDbName;
 
-    HashMap<String, ImmutableMetaIndex> indexesByName = new HashMap<>();
+    PersistentHashMap<String, ImmutableMetaIndex> indexesByName = PersistentHashMap.empty();
     for (ImmutableMetaIndex index : indexes) {
-      indexesByName.put(index.getName(), index);
+      indexesByName = indexesByName.plus(index.getName(), index);
     }
-    this.indexesByName = Collections.unmodifiableMap(indexesByName);
+    this.indexesByName = indexesByName;
   }
 
   public ImmutableMetaCollection(String colName, String colId,
       @DoNotChange Map<String, ImmutableMetaDocPart> docPartsById,
       Map<String, ImmutableMetaIndex> indexesByName) {
+    this(colName, colId, docPartsById.values(), indexesByName.values());
+  }
+
+  private ImmutableMetaCollection(String colName, String colId,
+      PersistentHashMap<TableRef, ImmutableMetaDocPart> docPartsByTableRef,
+      PersistentHashMap<String, ImmutableMetaDocPart> docPartsByIdentifier,
+      PersistentHashMap<String, ImmutableMetaIndex> indexesByName) {
     this.name = colName;
     this.identifier = colId;
-
-    this.docPartsByIdentifier = docPartsById;
-    this.docPartsByTableRef = new HashMap<>();
-    for (ImmutableMetaDocPart table : docPartsById.values()) {
-      docPartsByTableRef.put(table.getTableRef(), table);
-    }
-
+    this.docPartsByTableRef = docPartsByTableRef;
+    this.docPartsByIdentifier = docPartsByIdentifier;
     this.indexesByName = indexesByName;
   }
 
@@ -90,7 +92,7 @@ public class ImmutableMetaCollection implements MetaCollection {
 
   @Override
   public Stream<ImmutableMetaDocPart> streamContainedMetaDocParts() {
-    return docPartsByIdentifier.values().stream();
+    return docPartsByIdentifier.values();
   }
 
   @Override
@@ -105,7 +107,7 @@ public class ImmutableMetaCollection implements MetaCollection {
 
   @Override
   public Stream<ImmutableMetaIndex> streamContainedMetaIndexes() {
-    return indexesByName.values().stream();
+    return indexesByName.values();
   }
 
   @Override
@@ -141,34 +143,38 @@ public class ImmutableMetaCollection implements MetaCollection {
         .collect(Collectors.toList());
   }
 
+  /**
+   * A builder that shares with the collection it starts from, and with the one it builds, all the
+   * doc parts and indexes it does not change.
+   */
   public static class Builder {
 
     private boolean built = false;
     private final String name;
     private final String identifier;
-    private final Map<String, ImmutableMetaDocPart> docPartsByIdentifier;
-    private final Map<String, ImmutableMetaIndex> indexesByName;
+    private PersistentHashMap<TableRef, ImmutableMetaDocPart> docPartsByTableRef;
+    private PersistentHashMap<String, ImmutableMetaDocPart> docPartsByIdentifier;
+    private PersistentHashMap<String, ImmutableMetaIndex> indexesByName;
 
     public Builder(String name, String identifier) {
       this.name = name;
       this.identifier = identifier;
-      this.docPartsByIdentifier = new HashMap<>();
-      this.indexesByName = new HashMap<>();
+      this.docPartsByTableRef = PersistentHashMap.empty();
+      this.docPartsByIdentifier = PersistentHashMap.empty();
+      this.indexesByName = PersistentHashMap.empty();
     }
 
     public Builder(String name, String identifier, int expectedDocParts, int expectedIndexes) {
-      this.name = name;
-      this.identifier = identifier;
-      this.docPartsByIdentifier = new HashMap<>(expectedDocParts);
-      this.indexesByName = new HashMap<>(expectedIndexes);
+      this(name, identifier);
     }
 
     public Builder(ImmutableMetaCollection other) {
       this.name = other.getName();
       this.identifier = other.getIdentifier();
 
-      docPartsByIdentifier = new HashMap<>(other.docPartsByIdentifier);
-      this.indexesByName = new HashMap<>(other.indexesByName);
+      this.docPartsByTableRef = other.docPartsByTableRef;
+      this.docPartsByIdentifier = other.docPartsByIdentifier;
+      this.indexesByName = other.indexesByName;
     }
 
     public Builder put(ImmutableMetaDocPart.Builder tableBuilder) {
@@ -177,7 +183,12 @@ public class ImmutableMetaCollection implements MetaCollection {
 
     public Builder put(ImmutableMetaDocPart table) {
       Preconditions.checkState(!built, "This builder has already been built");
-      docPartsByIdentifier.put(table.getIdentifier(), table);
+      ImmutableMetaDocPart oldTable = docPartsByIdentifier.get(table.getIdentifier());
+      if (oldTable != null && docPartsByTableRef.get(oldTable.getTableRef()) == oldTable) {
+        docPartsByTableRef = docPartsByTableRef.minus(oldTable.getTableRef());
+      }
+      docPartsByIdentifier = docPartsByIdentifier.plus(table.getIdentifier(), table);
+      docPartsByTableRef = docPartsByTableRef.plus(table.getTableRef(), table);
       return this;
     }
 
@@ -187,25 +198,36 @@ public class ImmutableMetaCollection implements MetaCollection {
 
     public Builder put(ImmutableMetaIndex index) {
       Preconditions.checkState(!built, "This builder has already been built");
-      indexesByName.put(index.getName(), index);
+      indexesByName = indexesByName.plus(index.getName(), index);
       return this;
     }
 
     public Builder remove(MetaIndex index) {
       Preconditions.checkState(!built, "This builder has already been built");
-      indexesByName.remove(index.getName());
+      indexesByName = indexesByName.minus(index.getName());
       return this;
     }
 
+    private boolean containsRootDocPart() {
+      Optional<ImmutableMetaDocPart> anyDocPart = docPartsByIdentifier.values().findAny();
+      if (!anyDocPart.isPresent()) {
+        return true;
+      }
+      TableRef tableRef = anyDocPart.get().getTableRef();
+      while (!tableRef.isRoot()) {
+        tableRef = tableRef.getParent().get();
+      }
+      return docPartsByTableRef.containsKey(tableRef);
+    }
+
     public ImmutableMetaCollection build() {
       Preconditions.checkState(!built, "This builder has already been built");
-      Preconditions.checkState(
-          docPartsByIdentifier.values().isEmpty() || docPartsByIdentifier.values().stream()
-          .anyMatch((dp) -> dp.getTableRef().isRoot()),
+      Preconditions.checkState(containsRootDocPart(),
           "Tryng to create a MetaCollection without a root doc part"
       );
       built = true;
-      return new ImmutableMetaCollection(name, identifier, docPartsByIdentifier, indexesByName);
+      return new ImmutableMetaCollection(name, identifier, docPartsByTableRef,
+          docPartsByIdentifier, indexesByName);
     }
   }
 
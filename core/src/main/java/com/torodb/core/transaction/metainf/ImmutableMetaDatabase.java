@@ -15,12 +15,11 @@
  * You should have received a copy of the GNU Affero General Public License
  * along with this program. If not, see <http://www.gnu.org/licenses/>.
  */
-
 package com.torodb.core.transaction.metainf;
 
 import com.google.common.base.Preconditions;
+import com.torodb.core.util.PersistentHashMap;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Stream;
 
@@ -31,32 +30,37 @@ public class ImmutableMetaDatabase implements MetaDatabase {
 
   private final String name;
   private final String identifier;
-  private final Map<String, ImmutableMetaCollection> collectionsById;
-  private final Map<String, ImmutableMetaCollection> collectionsByName;
+  private final PersistentHashMap<String, ImmutableMetaCollection> collectionsById;
+  private final PersistentHashMap<String, ImmutableMetaCollection> collectionsByName;
 
   public ImmutableMetaDatabase(String name, String identifier,
       Iterable<ImmutableMetaCollection> collections) {
     this.name = name;
     this.identifier = identifier;
 
-    collectionsById = new HashMap<>();
-    collectionsByName = new HashMap<>();
+    PersistentHashMap<String, ImmutableMetaCollection> byId = PersistentHashMap.empty();
+    PersistentHashMap<String, ImmutableMetaCollection> byName = PersistentHashMap.empty();
 
     for (ImmutableMetaCollection collection : collections) {
-      collectionsById.put(collection.getIdentifier(), collection);
-      collectionsByName.put(collection.getName(), collection);
+      byId = byId.plus(collection.getIdentifier(), collection);
+      byName = byName.plus(collection.getName(), collection);
     }
+    this.collectionsById = byId;
+    this.collectionsByName = byName;
   }
 
   public ImmutableMetaDatabase(String name, String identifier,
       Map<String, ImmutableMetaCollection> collectionsById) {
+    this(name, identifier, collectionsById.values());
+  }
+
+  private ImmutableMetaDatabase(String name, String identifier,
+      PersistentHashMap<String, ImmutableMetaCollection> collectionsById,
+      PersistentHashMap<String, ImmutableMetaCollection> collectionsByName) {
     this.name = name;
     this.identifier = identifier;
     this.collectionsById = collectionsById;
-    this.collectionsByName = new HashMap<>(collectionsById.size());
-    for (ImmutableMetaCollection collection : collectionsById.values()) {
-      collectionsByName.put(collection.getName(), collection);
-    }
+    this.collectionsByName = collectionsByName;
   }
 
   @Override
@@ -71,7 +75,7 @@ public class ImmutableMetaDatabase implements MetaDatabase {
 
   @Override
   public Stream<ImmutableMetaCollection> streamMetaCollections() {
-    return collectionsById.values().stream();
+    return collectionsById.values();
   }
 
   @Override
@@ -98,29 +102,32 @@ public class ImmutableMetaDatabase implements MetaDatabase {
     private boolean built = false;
     private final String name;
     private final String identifier;
-    private final Map<String, ImmutableMetaCollection> collectionsById;
+    private PersistentHashMap<String, ImmutableMetaCollection> collectionsById;
+    private PersistentHashMap<String, ImmutableMetaCollection> collectionsByName;
 
     public Builder(String name, String identifier) {
       this.name = name;
       this.identifier = identifier;
-      collectionsById = new HashMap<>();
+      collectionsById = PersistentHashMap.empty();
+      collectionsByName = PersistentHashMap.empty();
     }
 
     public Builder(String name, String identifier, int expectedCollections) {
-      this.name = name;
-      this.identifier = identifier;
-      collectionsById = new HashMap<>(expectedCollections);
+      this(name, identifier);
     }
 
     public Builder(ImmutableMetaDatabase other) {
       this.name = other.name;
       this.identifier = other.identifier;
-      this.collectionsById = new HashMap<>(other.collectionsById);
+      this.collectionsById = other.collectionsById;
+      this.collectionsByName = other.collectionsByName;
     }
 
     public Builder put(ImmutableMetaCollection collection) {
       Preconditions.checkState(!built, "This builder has already been built");
-      collectionsById.put(collection.getIdentifier(), collection);
+      removeByName(collectionsById.get(collection.getIdentifier()));
+      collectionsById = collectionsById.plus(collection.getIdentifier(), collection);
+      collectionsByName = collectionsByName.plus(collection.getName(), collection);
       return this;
     }
 
@@ -130,14 +137,21 @@ public class ImmutableMetaDatabase implements MetaDatabase {
 
     public Builder remove(MetaCollection metaCol) {
       Preconditions.checkState(!built, "This builder has already been built");
-      collectionsById.remove(metaCol.getIdentifier());
+      removeByName(collectionsById.get(metaCol.getIdentifier()));
+      collectionsById = collectionsById.minus(metaCol.getIdentifier());
       return this;
     }
 
+    private void removeByName(ImmutableMetaCollection oldCol) {
+      if (oldCol != null && collectionsByName.get(oldCol.getName()) == oldCol) {
+        collectionsByName = collectionsByName.minus(oldCol.getName());
+      }
+    }
+
     public ImmutableMetaDatabase build() {
       Preconditions.checkState(!built, "This builder has already been built");
       built = true;
-      return new ImmutableMetaDatabase(name, identifier, collectionsById);
+      return new ImmutableMetaDatabase(name, identifier, collectionsById, collectionsByName);
     }
   }
 
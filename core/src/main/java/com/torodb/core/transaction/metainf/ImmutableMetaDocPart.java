@@ -19,15 +19,14 @@
 package com.torodb.core.transaction.metainf;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Table;
 import com.torodb.core.TableRef;
 import com.torodb.core.annotations.DoNotChange;
+import com.torodb.core.util.PersistentHashMap;
 
 import java.util.Collections;
 import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Stream;
 
@@ -38,10 +37,11 @@ public class ImmutableMetaDocPart implements MetaDocPart {
 
   private final TableRef tableRef;
   private final String identifier;
-  private final Table<String, FieldType, ImmutableMetaField> fieldsByNameAndType;
-  private final Map<String, ImmutableMetaField> fieldsByIdentifier;
+  private final PersistentHashMap<String, ImmutableMap<FieldType, ImmutableMetaField>>
+      fieldsByNameAndType;
+  private final PersistentHashMap<String, ImmutableMetaField> fieldsByIdentifier;
   private final EnumMap<FieldType, ImmutableMetaScalar> scalars;
-  private final Map<String, ImmutableMetaIdentifiedDocPartIndex> indexesByIdentifier;
+  private final PersistentHashMap<String, ImmutableMetaIdentifiedDocPartIndex> indexesByIdentifier;
 
   public ImmutableMetaDocPart(TableRef tableRef, String dbName) {
     this(tableRef, dbName, Collections.emptyMap(), Maps.newEnumMap(FieldType.class), Collections
@@ -54,12 +54,21 @@ public class ImmutableMetaDocPart implements MetaDocPart {
       @DoNotChange Map<String, ImmutableMetaIdentifiedDocPartIndex> indexes) {
     this.tableRef = tableRef;
     this.identifier = dbName;
-    this.fieldsByIdentifier = columns;
-    this.fieldsByNameAndType = HashBasedTable.create(columns.size(), 10);
-    columns.values().forEach((column) -> fieldsByNameAndType.put(column.getName(), column
-        .getType(), column));
+    Builder fieldsBuilder = new Builder(tableRef, dbName);
+    columns.values().forEach(fieldsBuilder::put);
+    this.fieldsByIdentifier = fieldsBuilder.fields;
+    this.fieldsByNameAndType = fieldsBuilder.fieldsByNameAndType;
     this.scalars = scalars;
-    this.indexesByIdentifier = indexes;
+    this.indexesByIdentifier = PersistentHashMap.copyOf(indexes);
+  }
+
+  private ImmutableMetaDocPart(Builder builder) {
+    this.tableRef = builder.tableRef;
+    this.identifier = builder.identifier;
+    this.fieldsByIdentifier = builder.fields;
+    this.fieldsByNameAndType = builder.fieldsByNameAndType;
+    this.scalars = builder.scalars;
+    this.indexesByIdentifier = builder.indexes;
   }
 
   @Override
@@ -74,7 +83,7 @@ public class ImmutableMetaDocPart implements MetaDocPart {
 
   @Override
   public Stream<ImmutableMetaField> streamFields() {
-    return fieldsByIdentifier.values().stream();
+    return fieldsByIdentifier.values();
   }
 
   @Override
@@ -84,12 +93,20 @@ public class ImmutableMetaDocPart implements MetaDocPart {
 
   @Override
   public Stream<ImmutableMetaField> streamMetaFieldByName(String columnDocName) {
-    return fieldsByNameAndType.row(columnDocName).values().stream();
+    ImmutableMap<FieldType, ImmutableMetaField> byType = fieldsByNameAndType.get(columnDocName);
+    if (byType == null) {
+      return Stream.empty();
+    }
+    return byType.values().stream();
   }
 
   @Override
   public ImmutableMetaField getMetaFieldByNameAndType(String columnDocName, FieldType type) {
-    return fieldsByNameAndType.get(columnDocName, type);
+    ImmutableMap<FieldType, ImmutableMetaField> byType = fieldsByNameAndType.get(columnDocName);
+    if (byType == null) {
+      return null;
+    }
+    return byType.get(type);
   }
 
   @Override
@@ -104,7 +121,7 @@ public class ImmutableMetaDocPart implements MetaDocPart {
 
   @Override
   public Stream<ImmutableMetaIdentifiedDocPartIndex> streamIndexes() {
-    return indexesByIdentifier.values().stream();
+    return indexesByIdentifier.values();
   }
 
   @Override
@@ -122,45 +139,80 @@ public class ImmutableMetaDocPart implements MetaDocPart {
     return this;
   }
 
+  /**
+   * A builder that shares with the doc part it starts from, and with the one it builds, all the
+   * fields and indexes it does not change, so adding a field to a wide doc part does not copy the
+   * other ones.
+   */
   public static class Builder {
 
     private boolean built = false;
     private final TableRef tableRef;
     private final String identifier;
-    private final HashMap<String, ImmutableMetaField> fields;
+    private PersistentHashMap<String, ImmutableMetaField> fields;
+    private PersistentHashMap<String, ImmutableMap<FieldType, ImmutableMetaField>>
+        fieldsByNameAndType;
     private final EnumMap<FieldType, ImmutableMetaScalar> scalars;
-    private final HashMap<String, ImmutableMetaIdentifiedDocPartIndex> indexes;
+    private PersistentHashMap<String, ImmutableMetaIdentifiedDocPartIndex> indexes;
 
     public Builder(TableRef tableRef, String identifier) {
       this.tableRef = tableRef;
       this.identifier = identifier;
-      this.fields = new HashMap<>();
+      this.fields = PersistentHashMap.empty();
+      this.fieldsByNameAndType = PersistentHashMap.empty();
       this.scalars = new EnumMap<>(FieldType.class);
-      this.indexes = new HashMap<>();
+      this.indexes = PersistentHashMap.empty();
     }
 
     public Builder(ImmutableMetaDocPart other) {
       this.tableRef = other.getTableRef();
       this.identifier = other.getIdentifier();
-      this.fields = new HashMap<>(other.fieldsByIdentifier);
+      this.fields = other.fieldsByIdentifier;
+      this.fieldsByNameAndType = other.fieldsByNameAndType;
       this.scalars = new EnumMap<>(other.scalars);
-      this.indexes = new HashMap<>(other.indexesByIdentifier);
+      this.indexes = other.indexesByIdentifier;
     }
 
     public Builder(TableRef tableRef, String identifier, int expectedColumns, int expectedIndexes) {
-      this.tableRef = tableRef;
-      this.identifier = identifier;
-      this.fields = new HashMap<>(expectedColumns);
-      this.scalars = new EnumMap<>(FieldType.class);
-      this.indexes = new HashMap<>(expectedIndexes);
+      this(tableRef, identifier);
     }
 
     public Builder put(ImmutableMetaField column) {
       Preconditions.checkState(!built, "This builder has already been built");
-      fields.put(column.getIdentifier(), column);
+      ImmutableMetaField oldColumn = fields.get(column.getIdentifier());
+      if (oldColumn != null) {
+        removeByNameAndType(oldColumn);
+      }
+      fields = fields.plus(column.getIdentifier(), column);
+
+      EnumMap<FieldType, ImmutableMetaField> byType = new EnumMap<>(FieldType.class);
+      ImmutableMap<FieldType, ImmutableMetaField> oldByType =
+          fieldsByNameAndType.get(column.getName());
+      if (oldByType != null) {
+        byType.putAll(oldByType);
+      }
+      byType.put(column.getType(), column);
+      fieldsByNameAndType = fieldsByNameAndType.plus(column.getName(),
+          Maps.immutableEnumMap(byType));
       return this;
     }
 
+    private void removeByNameAndType(ImmutableMetaField column) {
+      ImmutableMap<FieldType, ImmutableMetaField> oldByType =
+          fieldsByNameAndType.get(column.getName());
+      if (oldByType == null || oldByType.get(column.getType()) != column) {
+        return;
+      }
+      EnumMap<FieldType, ImmutableMetaField> byType = new EnumMap<>(oldByType);
+      byType.remove(column.getType());
+      if (byType.isEmpty()) {
+        fieldsByNameAndType = fieldsByNameAndType.minus(column.getName());
+      } else {
+        fieldsByNameAndType = fieldsByNameAndType.plus(column.getName(),
+            Maps.immutableEnumMap(byType));
+      }
+    }
+
     public Builder put(ImmutableMetaScalar scalar) {
       scalars.put(scalar.getType(), scalar);
       return this;
@@ -172,7 +224,7 @@ public class ImmutableMetaDocPart implements MetaDocPart {
 
     public Builder put(ImmutableMetaIdentifiedDocPartIndex index) {
       Preconditions.checkState(!built, "This builder has already been built");
-      indexes.put(index.getIdentifier(), index);
+      indexes = indexes.plus(index.getIdentifier(), index);
       return this;
     }
 
@@ -187,14 +239,14 @@ public class ImmutableMetaDocPart implements MetaDocPart {
 
     public Builder remove(MetaIdentifiedDocPartIndex index) {
       Preconditions.checkState(!built, "This builder has already been built");
-      indexes.remove(index.getIdentifier());
+      indexes = indexes.minus(index.getIdentifier());
       return this;
     }
 
     public ImmutableMetaDocPart build() {
       Preconditions.checkState(!built, "This builder has already been built");
       built = true;
-      return new ImmutableMetaDocPart(tableRef, identifier, fields, scalars, indexes);
+      return new ImmutableMetaDocPart(this);
     }
   }
 }
@@ -45,7 +45,12 @@ public class ImmutableMetaIdentifiedDocPartIndex extends AbstractMetaDocPartInde
 
   public ImmutableMetaIdentifiedDocPartIndex(String identifier, boolean unique,
       @DoNotChange List<ImmutableMetaDocPartIndexColumn> columns) {
-    super(unique);
+    this(identifier, unique, false, columns);
+  }
+
+  public ImmutableMetaIdentifiedDocPartIndex(String identifier, boolean unique, boolean sparse,
+      @DoNotChange List<ImmutableMetaDocPartIndexColumn> columns) {
+    super(unique, sparse);
     this.identifier = identifier;
     this.columnsByPosition = columns;
     this.columnsByIdentifier = new HashMap<>();
@@ -103,23 +108,31 @@ public class ImmutableMetaIdentifiedDocPartIndex extends AbstractMetaDocPartInde
     private boolean built = false;
     private final String identifier;
     private final boolean unique;
+    private final boolean sparse;
     private final ArrayList<ImmutableMetaDocPartIndexColumn> columns;
 
     public Builder(String identifier, boolean unique) {
+      this(identifier, unique, false);
+    }
+
+    public Builder(String identifier, boolean unique, boolean sparse) {
       this.identifier = identifier;
       this.unique = unique;
+      this.sparse = sparse;
       this.columns = new ArrayList<>();
     }
 
     public Builder(ImmutableMetaIdentifiedDocPartIndex other) {
       this.identifier = other.getIdentifier();
       this.unique = other.isUnique();
+      this.sparse = other.isSparse();
       this.columns = new ArrayList<>(other.columnsByPosition);
     }
 
-    public Builder(String identifier, boolean unique, int expectedColumns) {
+    public Builder(String identifier, boolean unique, boolean sparse, int expectedColumns) {
       this.identifier = identifier;
       this.unique = unique;
+      this.sparse = sparse;
       this.columns = new ArrayList<>(expectedColumns);
     }
 
@@ -139,7 +152,7 @@ public class ImmutableMetaIdentifiedDocPartIndex extends AbstractMetaDocPartInde
     public ImmutableMetaIdentifiedDocPartIndex build() {
       Preconditions.checkState(!built, "This builder has already been built");
       built = true;
-      return new ImmutableMetaIdentifiedDocPartIndex(identifier, unique, columns);
+      return new ImmutableMetaIdentifiedDocPartIndex(identifier, unique, sparse, columns);
     }
   }
 
@@ -15,14 +15,12 @@
  * You should have received a copy of the GNU Affero General Public License
  * along with this program. If not, see <http://www.gnu.org/licenses/>.
  */
-
 package com.torodb.core.transaction.metainf;
 
 import com.google.common.base.Preconditions;
 import com.torodb.core.annotations.DoNotChange;
+import com.torodb.core.util.PersistentHashMap;
 
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Stream;
 
@@ -31,31 +29,33 @@ import java.util.stream.Stream;
  */
 public class ImmutableMetaSnapshot implements MetaSnapshot {
 
-  private final Map<String, ImmutableMetaDatabase> dbsByIdentifier;
-  private final Map<String, ImmutableMetaDatabase> dbsByName;
+  private final PersistentHashMap<String, ImmutableMetaDatabase> dbsByIdentifier;
+  private final PersistentHashMap<String, ImmutableMetaDatabase> dbsByName;
 
   public ImmutableMetaSnapshot(Iterable<ImmutableMetaDatabase> dbs) {
-    Map<String, ImmutableMetaDatabase> byName = new HashMap<>();
-    Map<String, ImmutableMetaDatabase> byId = new HashMap<>();
+    PersistentHashMap<String, ImmutableMetaDatabase> byName = PersistentHashMap.empty();
+    PersistentHashMap<String, ImmutableMetaDatabase> byId = PersistentHashMap.empty();
     for (ImmutableMetaDatabase database : dbs) {
-      byName.put(database.getName(), database);
-      byId.put(database.getIdentifier(), database);
+      byName = byName.plus(database.getName(), database);
+      byId = byId.plus(database.getIdentifier(), database);
     }
-    this.dbsByName = Collections.unmodifiableMap(byName);
-    this.dbsByIdentifier = Collections.unmodifiableMap(byId);
+    this.dbsByName = byName;
+    this.dbsByIdentifier = byId;
   }
 
   public ImmutableMetaSnapshot(@DoNotChange Map<String, ImmutableMetaDatabase> dbsById) {
-    this.dbsByIdentifier = Collections.unmodifiableMap(dbsById);
-    this.dbsByName = new HashMap<>(dbsById.size());
-    for (ImmutableMetaDatabase schema : dbsById.values()) {
-      dbsByName.put(schema.getName(), schema);
-    }
+    this(dbsById.values());
+  }
+
+  private ImmutableMetaSnapshot(PersistentHashMap<String, ImmutableMetaDatabase> dbsByIdentifier,
+      PersistentHashMap<String, ImmutableMetaDatabase> dbsByName) {
+    this.dbsByIdentifier = dbsByIdentifier;
+    this.dbsByName = dbsByName;
   }
 
   @Override
   public Stream<ImmutableMetaDatabase> streamMetaDatabases() {
-    return dbsByIdentifier.values().stream();
+    return dbsByIdentifier.values();
   }
 
   @Override
@@ -73,21 +73,28 @@ public class ImmutableMetaSnapshot implements MetaSnapshot {
     return this;
   }
 
+  /**
+   * A builder that shares with the snapshot it starts from, and with the one it builds, all the
+   * databases it does not change.
+   */
   public static class Builder {
 
     private boolean built = false;
-    private final Map<String, ImmutableMetaDatabase> dbsByIdentifier;
+    private PersistentHashMap<String, ImmutableMetaDatabase> dbsByIdentifier;
+    private PersistentHashMap<String, ImmutableMetaDatabase> dbsByName;
 
     public Builder() {
-      dbsByIdentifier = new HashMap<>();
+      dbsByIdentifier = PersistentHashMap.empty();
+      dbsByName = PersistentHashMap.empty();
     }
 
     public Builder(int expectedDbs) {
-      dbsByIdentifier = new HashMap<>(expectedDbs);
+      this();
     }
 
     public Builder(ImmutableMetaSnapshot other) {
-      this.dbsByIdentifier = new HashMap<>(other.dbsByIdentifier);
+      this.dbsByIdentifier = other.dbsByIdentifier;
+      this.dbsByName = other.dbsByName;
     }
 
     public Builder put(ImmutableMetaDatabase.Builder dbBuilder) {
@@ -96,20 +103,29 @@ public class ImmutableMetaSnapshot implements MetaSnapshot {
 
     public Builder put(ImmutableMetaDatabase db) {
       Preconditions.checkState(!built, "This builder has already been built");
-      dbsByIdentifier.put(db.getIdentifier(), db);
+      removeByName(dbsByIdentifier.get(db.getIdentifier()));
+      dbsByIdentifier = dbsByIdentifier.plus(db.getIdentifier(), db);
+      dbsByName = dbsByName.plus(db.getName(), db);
       return this;
     }
 
     public Builder remove(MetaDatabase metaDb) {
       Preconditions.checkState(!built, "This builder has already been built");
-      dbsByIdentifier.remove(metaDb.getIdentifier());
+      removeByName(dbsByIdentifier.get(metaDb.getIdentifier()));
+      dbsByIdentifier = dbsByIdentifier.minus(metaDb.getIdentifier());
       return this;
     }
 
+    private void removeByName(ImmutableMetaDatabase oldDb) {
+      if (oldDb != null && dbsByName.get(oldDb.getName()) == oldDb) {
+        dbsByName = dbsByName.minus(oldDb.getName());
+      }
+    }
+
     public ImmutableMetaSnapshot build() {
       Preconditions.checkState(!built, "This builder has already been built");
       built = true;
-      return new ImmutableMetaSnapshot(dbsByIdentifier);
+      return new ImmutableMetaSnapshot(dbsByIdentifier, dbsByName);
     }
   }
 }
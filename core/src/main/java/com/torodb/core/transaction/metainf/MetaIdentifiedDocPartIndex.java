@@ -31,7 +31,8 @@ public interface MetaIdentifiedDocPartIndex extends MetaDocPartIndex {
   public abstract ImmutableMetaIdentifiedDocPartIndex immutableCopy();
 
   public default String defautToString() {
-    return "docPartIndex{" + "id:" + getIdentifier() + ", unique:" + isUnique() + '}';
+    return "docPartIndex{" + "id:" + getIdentifier() + ", unique:" + isUnique() + ", sparse:"
+        + isSparse() + '}';
   }
 
 }
@@ -106,14 +106,14 @@ public class WrapperMutableMetaCollection implements MutableMetaCollection {
   }
 
   @Override
-  public MutableMetaIndex addMetaIndex(String name, boolean unique)
+  public MutableMetaIndex addMetaIndex(String name, boolean unique, boolean sparse)
       throws IllegalArgumentException {
     if (getMetaIndexByName(name) != null) {
       throw new IllegalArgumentException("There is another index whose name is " + name);
     }
 
     WrapperMutableMetaIndex result = createMetaIndex(
-        new ImmutableMetaIndex(name, unique));
+        new ImmutableMetaIndex(name, unique, sparse));
 
     indexesByName.put(name, new Tuple2<>(result, MetaElementState.ADDED));
     changeConsumer.accept(this);
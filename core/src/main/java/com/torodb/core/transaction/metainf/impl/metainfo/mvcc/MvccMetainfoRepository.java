@@ -15,7 +15,6 @@
  * You should have received a copy of the GNU Affero General Public License
  * along with this program. If not, see <http://www.gnu.org/licenses/>.
  */
-
 package com.torodb.core.transaction.metainf.impl.metainfo.mvcc;
 
 import com.google.common.base.Preconditions;
@@ -30,48 +29,42 @@ import com.torodb.core.transaction.metainf.WrapperMutableMetaSnapshot;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.logging.log4j.Logger;
 
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
 
+/**
+ * A {@link MetainfoRepository} that publishes its snapshots on an atomic reference.
+ *
+ * <p>Snapshot stages just read the current snapshot, so they never wait for a merge. Merges are
+ * validated against the snapshot that is current when they start and published only if no other
+ * snapshot has been published since then. As the changes of a merge are applied on the backend
+ * between these two points, merges are executed one at a time so a validated merge is never
+ * rejected when it is published.
+ */
 public class MvccMetainfoRepository implements MetainfoRepository {
 
   private static final Logger LOGGER = D2RLoggerFactory.get(MvccMetainfoRepository.class);
-  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
-  private ImmutableMetaSnapshot currentSnapshot;
+  private final ReentrantLock mergeLock = new ReentrantLock();
+  private final AtomicReference<ImmutableMetaSnapshot> currentSnapshot;
   private NoChangeMergeStage noChangeMergeStage = new NoChangeMergeStage();
 
   @Inject
   public MvccMetainfoRepository() {
-    this.currentSnapshot = new ImmutableMetaSnapshot.Builder().build();
+    this(new ImmutableMetaSnapshot.Builder().build());
   }
 
   public MvccMetainfoRepository(ImmutableMetaSnapshot currentView) {
-    this.currentSnapshot = currentView;
+    this.currentSnapshot = new AtomicReference<>(currentView);
   }
 
   @Override
   @Nonnull
-  @SuppressFBWarnings(value = {"RCN_REDUNDANT_NULLCHECK_OF_NONNULL_VALUE", "UL_UNRELEASED_LOCK"})
   public SnapshotStage startSnapshotStage() {
-    ReadLock readLock = lock.readLock();
-    LOGGER.trace("Trying to create a {}", MvccSnapshotStage.class);
-    readLock.lock();
-    SnapshotStage snapshotStage = null;
-    try {
-      snapshotStage = new MvccSnapshotStage(readLock);
-      LOGGER.trace("{} created", MvccSnapshotStage.class);
-    } finally {
-      if (snapshotStage == null) {
-        LOGGER.error("Error while trying to create a {}", MvccMergerStage.class);
-        readLock.unlock();
-      }
-    }
-    assert snapshotStage != null;
-    return snapshotStage;
+    LOGGER.trace("Creating a {}", MvccSnapshotStage.class);
+    return new MvccSnapshotStage(currentSnapshot.get());
   }
 
   @Override
@@ -82,15 +75,15 @@ public class MvccMetainfoRepository implements MetainfoRepository {
 
     MergerStage mergeStage = null;
     if (newSnapshot.hasChanged()) {
-      lock.writeLock().lock();
+      mergeLock.lock();
 
       try {
-        mergeStage = new MvccMergerStage(newSnapshot, lock.writeLock());
+        mergeStage = new MvccMergerStage(newSnapshot, currentSnapshot.get());
         LOGGER.trace("{} created", MvccMergerStage.class);
       } finally {
         if (mergeStage == null) {
           LOGGER.error("Error while trying to create a {}", MvccMergerStage.class);
-          lock.writeLock().unlock();
+          mergeLock.unlock();
         }
       }
     } else {
@@ -100,19 +93,19 @@ public class MvccMetainfoRepository implements MetainfoRepository {
     return mergeStage;
   }
 
-  private class MvccSnapshotStage implements SnapshotStage {
+  private static class MvccSnapshotStage implements SnapshotStage {
 
-    private final ReentrantReadWriteLock.ReadLock readLock;
+    private final ImmutableMetaSnapshot snapshot;
     private boolean open = true;
 
-    public MvccSnapshotStage(ReentrantReadWriteLock.ReadLock readLock) {
-      this.readLock = readLock;
+    public MvccSnapshotStage(ImmutableMetaSnapshot snapshot) {
+      this.snapshot = snapshot;
     }
 
     @Override
     public ImmutableMetaSnapshot createImmutableSnapshot() {
       Preconditions.checkState(open, "This stage is closed");
-      return currentSnapshot;
+      return snapshot;
     }
 
     @Override
@@ -123,10 +116,7 @@ public class MvccMetainfoRepository implements MetainfoRepository {
 
     @Override
     public void close() {
-      if (open) {
-        open = false;
-        readLock.unlock();
-      }
+      open = false;
     }
 
   }
@@ -134,26 +124,28 @@ public class MvccMetainfoRepository implements MetainfoRepository {
   private class MvccMergerStage implements MergerStage {
 
     private final MutableMetaSnapshot changedSnapshot;
-    private final ReentrantReadWriteLock.WriteLock writeLock;
+    private final ImmutableMetaSnapshot baseSnapshot;
     private boolean open = true;
     private final ImmutableMetaSnapshot.Builder snapshotBuilder;
 
-    public MvccMergerStage(MutableMetaSnapshot changedView, WriteLock writeLock) {
+    public MvccMergerStage(MutableMetaSnapshot changedView, ImmutableMetaSnapshot baseSnapshot) {
       this.changedSnapshot = changedView;
-      this.writeLock = writeLock;
-      snapshotBuilder = new SnapshotMerger(currentSnapshot, changedView)
+      this.baseSnapshot = baseSnapshot;
+      snapshotBuilder = new SnapshotMerger(baseSnapshot, changedView)
           .merge();
     }
 
     @Override
     public void commit() {
       Preconditions.checkState(open, "This stage is already closed");
-      Preconditions.checkState(lock.writeLock().isHeldByCurrentThread(), "Trying to "
-          + "apply changes without holding the write lock");
+      Preconditions.checkState(mergeLock.isHeldByCurrentThread(), "Trying to "
+          + "apply changes without holding the merge lock");
 
-      assert assertCheck(currentSnapshot, changedSnapshot);
+      assert assertCheck(baseSnapshot, changedSnapshot);
 
-      MvccMetainfoRepository.this.currentSnapshot = snapshotBuilder.build();
+      boolean published = currentSnapshot.compareAndSet(baseSnapshot, snapshotBuilder.build());
+      Preconditions.checkState(published, "The snapshot this merge was validated against is not "
+          + "the current one");
     }
 
     @Override
@@ -161,7 +153,7 @@ public class MvccMetainfoRepository implements MetainfoRepository {
       if (open) {
         open = false;
 
-        writeLock.unlock();
+        mergeLock.unlock();
       }
     }
 
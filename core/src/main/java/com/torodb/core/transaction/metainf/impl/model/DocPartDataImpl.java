@@ -20,6 +20,7 @@ package com.torodb.core.transaction.metainf.impl.model;
 
 import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.d2r.DocPartRow;
+import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.MetaDocPart;
 import com.torodb.core.transaction.metainf.MetaField;
 import com.torodb.core.transaction.metainf.MetaScalar;
@@ -49,6 +50,10 @@ public class  DocPartDataImpl implements DocPartData {
     return docPartRow;
   }
 
+  public boolean isOverflowed(String key, FieldType type) {
+    return metadata.isOverflowed(key, type);
+  }
+
   public MetaDocPart getMetaDocPart() {
     return metadata.getMetaDocPart();
   }
@@ -19,6 +19,7 @@
 package com.torodb.core.transaction.metainf.impl.model;
 
 import com.google.common.collect.Iterators;
+import com.torodb.core.d2r.ColumnOverflowPolicy;
 import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.d2r.DocPartRow;
 import com.torodb.core.d2r.InternalFields;
@@ -43,6 +44,8 @@ public class DocPartRowImpl implements DocPartRow {
   private final ArrayList<KvValue<?>> scalarAttributes;
   private final TableMetadata tableMetadata;
   private final DocPartDataImpl tableInfo;
+  private KvDocument.Builder overflowBuilder;
+  private int overflowPosition;
 
   public DocPartRowImpl(TableMetadata tableMetadata, Integer seq, DocPartRowImpl parentRow,
       DocPartDataImpl tableInfo) {
@@ -80,6 +83,15 @@ public class DocPartRowImpl implements DocPartRow {
     }
   }
 
+  public void addOverflowed(String key, KvValue<?> value) {
+    if (overflowBuilder == null) {
+      overflowPosition = findFieldPosition(ColumnOverflowPolicy.OVERFLOW_FIELD_NAME,
+          FieldType.OVERFLOW);
+      overflowBuilder = new KvDocument.Builder();
+    }
+    overflowBuilder.putValue(key, value);
+  }
+
   public void addArrayItem(KvValue<?> value) {
     Integer position = findScalarPosition(FieldType.from(value.getType()));
     scalarAttributes.set(position, value);
@@ -143,6 +155,10 @@ public class DocPartRowImpl implements DocPartRow {
 
   @Override
   public Iterable<KvValue<?>> getFieldValues() {
+    if (overflowBuilder != null) {
+      fieldAttributes.set(overflowPosition, overflowBuilder.build());
+      overflowBuilder = null;
+    }
     int columns = this.getDocPartData().fieldColumnsCount();
     int attrs = this.fieldAttributes.size();
     if (columns == attrs) {
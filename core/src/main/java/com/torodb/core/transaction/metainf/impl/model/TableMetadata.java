@@ -40,6 +40,7 @@ public class TableMetadata {
 
   private final Table<String, FieldType, Integer> fieldOrder;
   private final Map<FieldType, Integer> scalarOrder;
+  private final Table<String, FieldType, Boolean> overflowedFields;
 
   private final List<MetaField> orderedFields;
   private final List<MetaScalar> orderedScalars;
@@ -50,6 +51,7 @@ public class TableMetadata {
     this.metaDocPart = collectionMetaInfo.findMetaDocPart(tableRef);
     this.fieldOrder = HashBasedTable.create();
     this.scalarOrder = new EnumMap<>(FieldType.class);
+    this.overflowedFields = HashBasedTable.create();
     this.orderedFields = new ArrayList<>(64);
     this.orderedScalars = new ArrayList<>(64);
   }
@@ -80,6 +82,18 @@ public class TableMetadata {
     return idx;
   }
 
+  protected boolean isOverflowed(String key, FieldType type) {
+    if (fieldOrder.contains(key, type)) {
+      return false;
+    }
+    Boolean overflowed = overflowedFields.get(key, type);
+    if (overflowed == null) {
+      overflowed = collectionMetaInfo.isOverflowed(metaDocPart, key, type);
+      overflowedFields.put(key, type, overflowed);
+    }
+    return overflowed;
+  }
+
   protected int findScalarPosition(FieldType type) {
     Integer idx = scalarOrder.get(type);
     if (idx == null) {
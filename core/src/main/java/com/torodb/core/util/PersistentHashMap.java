@@ -0,0 +1,405 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.util;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * An immutable hash map whose updates return a new map that shares all but the modified path with
+ * the original one.
+ *
+ * <p>It is implemented as a hash array mapped trie, so {@link #plus(Object, Object) plus} and
+ * {@link #minus(Object) minus} only copy, at most, as many small arrays as levels the trie has,
+ * instead of the whole map.
+ *
+ * <p>Null keys and values are not supported.
+ */
+@Immutable
+public final class PersistentHashMap<K, V> implements Iterable<Map.Entry<K, V>> {
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  @SuppressWarnings("rawtypes")
+  private static final PersistentHashMap EMPTY = new PersistentHashMap<>(BitmapNode.EMPTY, 0);
+
+  private final Node<K, V> root;
+  private final int size;
+
+  private PersistentHashMap(Node<K, V> root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <K, V> PersistentHashMap<K, V> empty() {
+    return EMPTY;
+  }
+
+  public static <K, V> PersistentHashMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+    PersistentHashMap<K, V> result = empty();
+    for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+      result = result.plus(entry.getKey(), entry.getValue());
+    }
+    return result;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Nullable
+  public V get(Object key) {
+    return root.get(0, hash(key), key);
+  }
+
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  /**
+   * Returns a map that contains the same entries than this one, but where the given key is
+   * associated with the given value.
+   */
+  public PersistentHashMap<K, V> plus(K key, V value) {
+    Objects.requireNonNull(key, "key");
+    Objects.requireNonNull(value, "value");
+    int hash = hash(key);
+    boolean added = root.get(0, hash, key) == null;
+    Node<K, V> newRoot = root.plus(0, hash, new Leaf<>(key, value));
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentHashMap<>(newRoot, added ? size + 1 : size);
+  }
+
+  /**
+   * Returns a map that contains the same entries than this one, except the one whose key is the
+   * given one.
+   */
+  public PersistentHashMap<K, V> minus(Object key) {
+    Node<K, V> newRoot = root.minus(0, hash(key), key);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentHashMap<>(newRoot, size - 1);
+  }
+
+  public Stream<Map.Entry<K, V>> entries() {
+    return root.stream().map(leaf -> leaf);
+  }
+
+  public Stream<K> keys() {
+    return root.stream().map(Leaf::getKey);
+  }
+
+  public Stream<V> values() {
+    return root.stream().map(Leaf::getValue);
+  }
+
+  @Override
+  public Iterator<Map.Entry<K, V>> iterator() {
+    return entries().iterator();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    entries().forEach(entry -> {
+      if (sb.length() > 1) {
+        sb.append(", ");
+      }
+      sb.append(entry.getKey()).append('=').append(entry.getValue());
+    });
+    return sb.append('}').toString();
+  }
+
+  private static int hash(Object key) {
+    int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private static int bit(int hash, int shift) {
+    return 1 << ((hash >>> shift) & MASK);
+  }
+
+  private static Object[] insert(Object[] array, int idx, Object element) {
+    Object[] result = new Object[array.length + 1];
+    System.arraycopy(array, 0, result, 0, idx);
+    result[idx] = element;
+    System.arraycopy(array, idx, result, idx + 1, array.length - idx);
+    return result;
+  }
+
+  private static Object[] replace(Object[] array, int idx, Object element) {
+    Object[] result = array.clone();
+    result[idx] = element;
+    return result;
+  }
+
+  private static Object[] remove(Object[] array, int idx) {
+    Object[] result = new Object[array.length - 1];
+    System.arraycopy(array, 0, result, 0, idx);
+    System.arraycopy(array, idx + 1, result, idx, array.length - idx - 1);
+    return result;
+  }
+
+  private static class Leaf<K, V> extends SimpleImmutableEntry<K, V> {
+
+    private static final long serialVersionUID = 1L;
+
+    private Leaf(K key, V value) {
+      super(key, value);
+    }
+  }
+
+  private abstract static class Node<K, V> {
+
+    @Nullable
+    abstract V get(int shift, int hash, Object key);
+
+    /**
+     * Returns a node that contains the given leaf or this same node if it already contains the
+     * same value associated with the same key.
+     */
+    abstract Node<K, V> plus(int shift, int hash, Leaf<K, V> leaf);
+
+    /**
+     * Returns a node that does not contain the given key or this same node if it didn't contain
+     * it.
+     */
+    abstract Node<K, V> minus(int shift, int hash, Object key);
+
+    abstract Stream<Leaf<K, V>> stream();
+
+    /**
+     * Returns the only leaf this node contains or null if it contains more than one.
+     */
+    @Nullable
+    abstract Leaf<K, V> getSingleLeaf();
+  }
+
+  /**
+   * A node that stores its children, which can be {@link Leaf leafs} or other nodes, on a compact
+   * array indexed by the bits set on a bitmap.
+   */
+  private static class BitmapNode<K, V> extends Node<K, V> {
+
+    @SuppressWarnings("rawtypes")
+    private static final BitmapNode EMPTY = new BitmapNode<>(0, new Object[0]);
+
+    private final int bitmap;
+    private final Object[] children;
+
+    private BitmapNode(int bitmap, Object[] children) {
+      this.bitmap = bitmap;
+      this.children = children;
+    }
+
+    private int index(int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    V get(int shift, int hash, Object key) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return null;
+      }
+      Object child = children[index(bit)];
+      if (child instanceof Leaf) {
+        Leaf<K, V> leaf = (Leaf<K, V>) child;
+        return leaf.getKey().equals(key) ? leaf.getValue() : null;
+      }
+      return ((Node<K, V>) child).get(shift + BITS, hash, key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    Node<K, V> plus(int shift, int hash, Leaf<K, V> leaf) {
+      int bit = bit(hash, shift);
+      int idx = index(bit);
+      if ((bitmap & bit) == 0) {
+        return new BitmapNode<>(bitmap | bit, insert(children, idx, leaf));
+      }
+      Object child = children[idx];
+      Object newChild;
+      if (child instanceof Leaf) {
+        Leaf<K, V> oldLeaf = (Leaf<K, V>) child;
+        if (oldLeaf.getKey().equals(leaf.getKey())) {
+          if (oldLeaf.getValue() == leaf.getValue()) {
+            return this;
+          }
+          newChild = leaf;
+        } else {
+          newChild = createNode(shift + BITS, oldLeaf, hash, leaf);
+        }
+      } else {
+        Node<K, V> oldNode = (Node<K, V>) child;
+        newChild = oldNode.plus(shift + BITS, hash, leaf);
+        if (newChild == oldNode) {
+          return this;
+        }
+      }
+      return new BitmapNode<>(bitmap, replace(children, idx, newChild));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V> createNode(int shift, Leaf<K, V> leaf1, int hash2,
+        Leaf<K, V> leaf2) {
+      int hash1 = hash(leaf1.getKey());
+      if (hash1 == hash2) {
+        return new CollisionNode<>(hash1, new Object[] {leaf1, leaf2});
+      }
+      return ((BitmapNode<K, V>) EMPTY)
+          .plus(shift, hash1, leaf1)
+          .plus(shift, hash2, leaf2);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    Node<K, V> minus(int shift, int hash, Object key) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int idx = index(bit);
+      Object child = children[idx];
+      if (child instanceof Leaf) {
+        if (!((Leaf<K, V>) child).getKey().equals(key)) {
+          return this;
+        }
+        return new BitmapNode<>(bitmap & ~bit, remove(children, idx));
+      }
+      Node<K, V> oldNode = (Node<K, V>) child;
+      Node<K, V> newNode = oldNode.minus(shift + BITS, hash, key);
+      if (newNode == oldNode) {
+        return this;
+      }
+      Leaf<K, V> singleLeaf = newNode.getSingleLeaf();
+      return new BitmapNode<>(bitmap,
+          replace(children, idx, singleLeaf != null ? singleLeaf : newNode));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    Stream<Leaf<K, V>> stream() {
+      return Arrays.stream(children)
+          .flatMap(child -> child instanceof Leaf
+              ? Stream.of((Leaf<K, V>) child)
+              : ((Node<K, V>) child).stream());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    Leaf<K, V> getSingleLeaf() {
+      if (children.length == 1 && children[0] instanceof Leaf) {
+        return (Leaf<K, V>) children[0];
+      }
+      return null;
+    }
+  }
+
+  /**
+   * A node that stores leafs whose keys have the same hash.
+   */
+  private static class CollisionNode<K, V> extends Node<K, V> {
+
+    private final int hash;
+    private final Object[] leafs;
+
+    private CollisionNode(int hash, Object[] leafs) {
+      this.hash = hash;
+      this.leafs = leafs;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int indexOf(Object key) {
+      for (int i = 0; i < leafs.length; i++) {
+        if (((Leaf<K, V>) leafs[i]).getKey().equals(key)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    V get(int shift, int hash, Object key) {
+      if (hash != this.hash) {
+        return null;
+      }
+      int idx = indexOf(key);
+      return idx < 0 ? null : ((Leaf<K, V>) leafs[idx]).getValue();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    Node<K, V> plus(int shift, int hash, Leaf<K, V> leaf) {
+      if (hash != this.hash) {
+        return new BitmapNode<K, V>(bit(this.hash, shift), new Object[] {this})
+            .plus(shift, hash, leaf);
+      }
+      int idx = indexOf(leaf.getKey());
+      if (idx < 0) {
+        return new CollisionNode<>(hash, insert(leafs, leafs.length, leaf));
+      }
+      if (((Leaf<K, V>) leafs[idx]).getValue() == leaf.getValue()) {
+        return this;
+      }
+      return new CollisionNode<>(hash, replace(leafs, idx, leaf));
+    }
+
+    @Override
+    Node<K, V> minus(int shift, int hash, Object key) {
+      if (hash != this.hash) {
+        return this;
+      }
+      int idx = indexOf(key);
+      if (idx < 0) {
+        return this;
+      }
+      return new CollisionNode<>(hash, remove(leafs, idx));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    Stream<Leaf<K, V>> stream() {
+      return Arrays.stream(leafs).map(leaf -> (Leaf<K, V>) leaf);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    Leaf<K, V> getSingleLeaf() {
+      return leafs.length == 1 ? (Leaf<K, V>) leafs[0] : null;
+    }
+  }
+}
@@ -22,9 +22,12 @@ import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
 import com.torodb.core.impl.TableRefFactoryImpl;
 import com.torodb.core.transaction.metainf.*;
+import org.jooq.lambda.tuple.Tuple2;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static org.junit.Assert.assertEquals;
 
 public class IdentifierFactoryImplTest {
@@ -320,6 +323,17 @@ public class IdentifierFactoryImplTest {
     assertEquals(expectedResult, result);
   }
 
+  @Test
+  public void hashedIndexToIdentifierTest() {
+    MetaDatabase metaDatabase = new ImmutableMetaDatabase.Builder("database", "database").build();
+    String hashedIdentifier = identifierFactory.toIndexIdentifier(metaDatabase, "collecti_on",
+        Arrays.asList(new Tuple2<>("token_s", FieldIndexOrdering.HASHED)));
+    String ascIdentifier = identifierFactory.toIndexIdentifier(metaDatabase, "collecti_on",
+        Arrays.asList(new Tuple2<>("token_s", FieldIndexOrdering.ASC)));
+    assertEquals("collecti_on_token_s_h_idx", hashedIdentifier);
+    assertEquals("collecti_on_token_s_a_idx", ascIdentifier);
+  }
+
   private TableRef createTableRef(String... names) {
     TableRef tableRef = tableRefFactory.createRoot();
 
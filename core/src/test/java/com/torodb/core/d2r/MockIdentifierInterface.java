@@ -79,6 +79,7 @@ public class MockIdentifierInterface implements IdentifierConstraints {
     FIELD_TYPE_IDENTIFIERS[FieldType.STRING.ordinal()] = 's'; // [s]tring
     FIELD_TYPE_IDENTIFIERS[FieldType.TIME.ordinal()] = 't'; // [t]ime
     FIELD_TYPE_IDENTIFIERS[FieldType.CHILD.ordinal()] = 'e'; // [e]lement
+    FIELD_TYPE_IDENTIFIERS[FieldType.OVERFLOW.ordinal()] = 'o'; // [o]verflow
   }
 
   @Override
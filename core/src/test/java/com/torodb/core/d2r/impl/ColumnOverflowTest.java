@@ -0,0 +1,185 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.d2r.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import com.google.common.collect.Lists;
+import com.torodb.core.TableRef;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.d2r.ColumnOverflowPolicy;
+import com.torodb.core.d2r.D2RTranslator;
+import com.torodb.core.d2r.DefaultIdentifierFactory;
+import com.torodb.core.d2r.DocPartData;
+import com.torodb.core.d2r.DocPartRow;
+import com.torodb.core.d2r.IdentifierFactory;
+import com.torodb.core.d2r.MaxColumnsOverflowPolicy;
+import com.torodb.core.d2r.MemoryRidGenerator;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.ImmutableMetaCollection;
+import com.torodb.core.transaction.metainf.ImmutableMetaDatabase;
+import com.torodb.core.transaction.metainf.ImmutableMetaIndex;
+import com.torodb.core.transaction.metainf.ImmutableMetaIndexField;
+import com.torodb.core.transaction.metainf.ImmutableMetaSnapshot;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.core.transaction.metainf.MetainfoRepository.SnapshotStage;
+import com.torodb.core.transaction.metainf.MutableMetaDatabase;
+import com.torodb.core.transaction.metainf.MutableMetaSnapshot;
+import com.torodb.core.transaction.metainf.impl.metainfo.mvcc.MvccMetainfoRepository;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.ListKvArray;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ColumnOverflowTest {
+
+  private static final String DB = "test";
+  private static final String COLL = "coll";
+
+  private final TableRefFactory tableRefFactory = new TableRefFactoryImpl();
+
+  private D2RTranslator translator;
+
+  @Before
+  public void setUp() {
+    translator = createTranslator(new ImmutableMetaCollection.Builder(COLL, COLL).build());
+  }
+
+  private D2RTranslator createTranslator(ImmutableMetaCollection collection) {
+    ImmutableMetaSnapshot currentView = new ImmutableMetaSnapshot.Builder()
+        .put(new ImmutableMetaDatabase.Builder(DB, DB)
+            .put(collection)
+            .build())
+        .build();
+    MutableMetaSnapshot mutableSnapshot;
+    try (SnapshotStage snapshot = new MvccMetainfoRepository(currentView).startSnapshotStage()) {
+      mutableSnapshot = snapshot.createMutableSnapshot();
+    }
+
+    IdentifierFactory identifierFactory =
+        new DefaultIdentifierFactory(new MockIdentifierInterface());
+    MutableMetaDatabase db = mutableSnapshot.getMetaDatabaseByName(DB);
+    return new D2RTranslatorStack(tableRefFactory, identifierFactory,
+        new MemoryRidGenerator(), new MaxColumnsOverflowPolicy(2), db,
+        db.getMetaCollectionByName(COLL));
+  }
+
+  @Test
+  public void rareKeysAreStoredOnTheOverflowColumn() {
+    KvDocument subdoc = new KvDocument.Builder()
+        .putValue("c", KvInteger.of(3))
+        .build();
+    ListKvArray array = new ListKvArray(Arrays.asList(KvInteger.of(4), KvInteger.of(5)));
+
+    translator.translate(new KvDocument.Builder()
+        .putValue("_id", KvInteger.of(1))
+        .putValue("a", KvInteger.of(2))
+        .putValue("b", subdoc)
+        .putValue("d", array)
+        .build());
+
+    Iterator<DocPartData> docPartIt = translator.getCollectionDataAccumulator()
+        .orderedDocPartData().iterator();
+    DocPartData rootDocPart = docPartIt.next();
+    assertFalse("Overflowed children must not create new doc parts", docPartIt.hasNext());
+
+    List<MetaField> fields = Lists.newArrayList(rootDocPart.orderedMetaFieldIterator());
+    assertEquals(3, fields.size());
+    assertEquals("_id", fields.get(0).getName());
+    assertEquals("a", fields.get(1).getName());
+    assertEquals(ColumnOverflowPolicy.OVERFLOW_FIELD_NAME, fields.get(2).getName());
+    assertEquals(FieldType.OVERFLOW, fields.get(2).getType());
+
+    DocPartRow row = rootDocPart.iterator().next();
+    List<KvValue<?>> values = Lists.newArrayList(row.getFieldValues());
+    assertEquals(KvInteger.of(1), values.get(0));
+    assertEquals(KvInteger.of(2), values.get(1));
+    assertEquals(new KvDocument.Builder()
+        .putValue("b", subdoc)
+        .putValue("d", array)
+        .build(), values.get(2));
+  }
+
+  @Test
+  public void indexedKeysAreNeverOverflowed() {
+    TableRef rootRef = tableRefFactory.createRoot();
+    translator = createTranslator(new ImmutableMetaCollection.Builder(COLL, COLL)
+        .put(new ImmutableMetaIndex.Builder("b_c", false)
+            .add(new ImmutableMetaIndexField(0, tableRefFactory.createChild(rootRef, "b"), "c",
+                FieldIndexOrdering.ASC)))
+        .put(new ImmutableMetaIndex.Builder("d", false)
+            .add(new ImmutableMetaIndexField(0, rootRef, "d", FieldIndexOrdering.ASC)))
+        .build());
+
+    translator.translate(new KvDocument.Builder()
+        .putValue("_id", KvInteger.of(1))
+        .putValue("a", KvInteger.of(2))
+        .putValue("b", new KvDocument.Builder()
+            .putValue("c", KvInteger.of(3))
+            .build())
+        .putValue("d", KvInteger.of(4))
+        .putValue("e", KvInteger.of(5))
+        .build());
+
+    Iterator<DocPartData> docPartIt = translator.getCollectionDataAccumulator()
+        .orderedDocPartData().iterator();
+    DocPartData rootDocPart = docPartIt.next();
+    List<String> fieldNames = Lists.newArrayList(rootDocPart.orderedMetaFieldIterator())
+        .stream()
+        .map(MetaField::getName)
+        .collect(Collectors.toList());
+    assertEquals(Arrays.asList("_id", "a", "b", "d", ColumnOverflowPolicy.OVERFLOW_FIELD_NAME),
+        fieldNames);
+    assertEquals(tableRefFactory.createChild(rootRef, "b"), docPartIt.next().getMetaDocPart()
+        .getTableRef());
+    assertFalse(docPartIt.hasNext());
+  }
+
+  @Test
+  public void rowsWithoutRareKeysHaveANullOverflowValue() {
+    translator.translate(new KvDocument.Builder()
+        .putValue("_id", KvInteger.of(1))
+        .putValue("a", KvInteger.of(2))
+        .putValue("b", KvInteger.of(3))
+        .build());
+    translator.translate(new KvDocument.Builder()
+        .putValue("_id", KvInteger.of(2))
+        .putValue("a", KvInteger.of(3))
+        .build());
+
+    DocPartData rootDocPart = translator.getCollectionDataAccumulator()
+        .orderedDocPartData().iterator().next();
+    Iterator<DocPartRow> rowIt = rootDocPart.iterator();
+    rowIt.next();
+    List<KvValue<?>> values = Lists.newArrayList(rowIt.next().getFieldValues());
+    assertEquals(3, values.size());
+    assertNull(values.get(2));
+  }
+
+}
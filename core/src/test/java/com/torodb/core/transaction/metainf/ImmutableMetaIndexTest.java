@@ -0,0 +1,82 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.transaction.metainf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.torodb.core.TableRef;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+public class ImmutableMetaIndexTest {
+
+  private final TableRef rootRef = new TableRefFactoryImpl().createRoot();
+  private final ImmutableMetaIndex compoundIndex = new ImmutableMetaIndex.Builder("compound", false)
+      .add(new ImmutableMetaIndexField(0, rootRef, "tenantId", FieldIndexOrdering.ASC))
+      .add(new ImmutableMetaIndexField(1, rootRef, "createdAt", FieldIndexOrdering.DESC))
+      .build();
+
+  @Test
+  public void compoundIndexNeedsAllItsFields() {
+    ImmutableMetaDocPart docPart = new ImmutableMetaDocPart.Builder(rootRef, "root")
+        .putField("tenantId", "tenantId_s", FieldType.STRING)
+        .build();
+
+    assertFalse(compoundIndex.isCompatible(docPart));
+  }
+
+  @Test
+  public void compoundIndexIsCreatedForEachCombinationOfTypes() {
+    ImmutableMetaDocPart docPart = new ImmutableMetaDocPart.Builder(rootRef, "root")
+        .putField("tenantId", "tenantId_s", FieldType.STRING)
+        .putField("createdAt", "createdAt_t", FieldType.INSTANT)
+        .putField("createdAt", "createdAt_l", FieldType.LONG)
+        .putField("other", "other_s", FieldType.STRING)
+        .build();
+
+    assertTrue(compoundIndex.isCompatible(docPart));
+    Set<List<String>> identifiers = Sets.newHashSet(
+        compoundIndex.iteratorMetaDocPartIndexesIdentifiers(docPart));
+    assertEquals(ImmutableSet.of(
+        ImmutableList.of("tenantId_s", "createdAt_t"),
+        ImmutableList.of("tenantId_s", "createdAt_l")),
+        identifiers);
+  }
+
+  @Test
+  public void sparseIndexDoesNotMatchNonSparseIndex() {
+    ImmutableMetaIndex sparseIndex = new ImmutableMetaIndex.Builder("sparse", false, true)
+        .add(new ImmutableMetaIndexField(0, rootRef, "tenantId", FieldIndexOrdering.ASC))
+        .add(new ImmutableMetaIndexField(1, rootRef, "createdAt", FieldIndexOrdering.DESC))
+        .build();
+
+    assertTrue(sparseIndex.isSparse());
+    assertFalse(compoundIndex.isSparse());
+    assertFalse(sparseIndex.isMatch(compoundIndex));
+    assertTrue(sparseIndex.isMatch(new ImmutableMetaIndex.Builder(sparseIndex).build()));
+  }
+
+}
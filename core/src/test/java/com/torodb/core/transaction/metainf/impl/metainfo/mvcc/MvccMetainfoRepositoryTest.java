@@ -328,6 +328,37 @@ public class MvccMetainfoRepositoryTest {
     executeConcurrent(MILLIS_TO_WAIT, writerRunnable1, writerRunnable2, readerRunnable);
   }
 
+  /**
+   * Tests that snapshots can be read while a merge is being applied.
+   */
+  @Test
+  public void testSnapshotDoesNotWaitForMerge() throws Throwable {
+    MutableMetaSnapshot mutableSnapshot;
+    try (SnapshotStage snapshotStage = repository.startSnapshotStage()) {
+      mutableSnapshot = snapshotStage.createMutableSnapshot();
+    }
+    mutableSnapshot.addMetaDatabase(dbName, dbId);
+
+    ExecutorService es = Executors.newSingleThreadExecutor();
+    try (MergerStage mergeStage = repository.startMerge(mutableSnapshot)) {
+      Future<ImmutableMetaSnapshot> readSnapshot = es.submit(() -> {
+        try (SnapshotStage snapshotStage = repository.startSnapshotStage()) {
+          return snapshotStage.createImmutableSnapshot();
+        }
+      });
+      Assert.assertNull(readSnapshot.get(MILLIS_TO_WAIT, TimeUnit.MILLISECONDS)
+          .getMetaDatabaseByName(dbName));
+
+      mergeStage.commit();
+    } finally {
+      es.shutdown();
+    }
+
+    try (SnapshotStage snapshotStage = repository.startSnapshotStage()) {
+      Assert.assertNotNull(snapshotStage.createImmutableSnapshot().getMetaDatabaseByName(dbName));
+    }
+  }
+
   private void executeConcurrent(long maxMillis, Runnable... runnables) throws TimeoutException,
       Throwable {
     assert runnables.length > 0 : "at least one runnable must be sent";
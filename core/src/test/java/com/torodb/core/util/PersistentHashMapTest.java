@@ -0,0 +1,130 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class PersistentHashMapTest {
+
+  @Test
+  public void testPlusAndMinus() {
+    Map<Integer, String> expected = new HashMap<>();
+    PersistentHashMap<Integer, String> map = PersistentHashMap.empty();
+    for (int i = 0; i < 5000; i++) {
+      expected.put(i, "v" + i);
+      map = map.plus(i, "v" + i);
+    }
+    assertMapEquals(expected, map);
+
+    for (int i = 0; i < 5000; i += 3) {
+      expected.remove(i);
+      map = map.minus(i);
+    }
+    assertMapEquals(expected, map);
+  }
+
+  @Test
+  public void testUpdatesDoNotModifyTheOriginal() {
+    PersistentHashMap<String, String> original = PersistentHashMap.<String, String>empty()
+        .plus("a", "1")
+        .plus("b", "2");
+
+    PersistentHashMap<String, String> modified = original.plus("a", "3").minus("b");
+
+    assertEquals("1", original.get("a"));
+    assertEquals("2", original.get("b"));
+    assertEquals(2, original.size());
+    assertEquals("3", modified.get("a"));
+    assertFalse(modified.containsKey("b"));
+    assertEquals(1, modified.size());
+  }
+
+  @Test
+  public void testNoOpUpdatesReturnTheSameMap() {
+    String value = "value";
+    PersistentHashMap<String, String> map = PersistentHashMap.<String, String>empty()
+        .plus("key", value);
+
+    assertSame(map, map.plus("key", value));
+    assertSame(map, map.minus("otherKey"));
+  }
+
+  @Test
+  public void testCollisions() {
+    CollidingKey a = new CollidingKey("a");
+    CollidingKey b = new CollidingKey("b");
+    CollidingKey c = new CollidingKey("c");
+
+    PersistentHashMap<CollidingKey, Integer> map = PersistentHashMap.<CollidingKey, Integer>empty()
+        .plus(a, 1)
+        .plus(b, 2)
+        .plus(c, 3)
+        .plus(new CollidingKey("b"), 4);
+
+    assertEquals(3, map.size());
+    assertEquals(Integer.valueOf(1), map.get(a));
+    assertEquals(Integer.valueOf(4), map.get(b));
+    assertEquals(Integer.valueOf(3), map.get(c));
+
+    map = map.minus(a).minus(c);
+    assertEquals(1, map.size());
+    assertNull(map.get(a));
+    assertEquals(Integer.valueOf(4), map.get(b));
+
+    map = map.minus(b);
+    assertTrue(map.isEmpty());
+  }
+
+  private static <K, V> void assertMapEquals(Map<K, V> expected, PersistentHashMap<K, V> map) {
+    assertEquals(expected.size(), map.size());
+    for (Map.Entry<K, V> entry : expected.entrySet()) {
+      assertEquals(entry.getValue(), map.get(entry.getKey()));
+    }
+    assertEquals(expected, map.entries()
+        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+  }
+
+  private static class CollidingKey {
+
+    private final String name;
+
+    private CollidingKey(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public int hashCode() {
+      return 42;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof CollidingKey && ((CollidingKey) obj).name.equals(name);
+    }
+  }
+}
@@ -18,28 +18,29 @@
 
 package com.torodb.kvdocument.conversion.json;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.torodb.kvdocument.values.KvDocument;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
-@SuppressWarnings("unchecked")
+/**
+ * A {@link JsonParser} that builds the documents while the JSON tokens are read, using a
+ * {@link JsonTokenToKvValueConverter}.
+ */
 public class JacksonJsonParser implements JsonParser {
 
-  private static final ObjectMapper mapper = new ObjectMapper();
-  private static final MapToKvValueConverter converter = new MapToKvValueConverter();
-  private static final TypeReference<List<HashMap<String, Object>>> typeReference =
-      new TypeReference<List<HashMap<String, Object>>>() {};
+  private static final JsonFactory factory = new JsonFactory();
+  private static final JsonTokenToKvValueConverter converter = new JsonTokenToKvValueConverter();
 
   @Override
   public KvDocument createFromJson(String json) {
-    try {
-      return converter.convert(mapper.readValue(json, HashMap.class));
+    try (com.fasterxml.jackson.core.JsonParser parser = factory.createParser(json)) {
+      return readDocument(parser);
     } catch (IOException e) {
       throw new RuntimeException("Unparseable document: " + json);
     }
@@ -47,8 +48,8 @@ public class JacksonJsonParser implements JsonParser {
 
   @Override
   public List<KvDocument> createListFromJson(String json) {
-    try {
-      return converter.convert((List<Map<String, Object>>) mapper.readValue(json, typeReference));
+    try (com.fasterxml.jackson.core.JsonParser parser = factory.createParser(json)) {
+      return readDocumentList(parser);
     } catch (IOException e) {
       throw new RuntimeException("Unparseable document: " + json);
     }
@@ -56,8 +57,8 @@ public class JacksonJsonParser implements JsonParser {
 
   @Override
   public KvDocument createFrom(InputStream is) {
-    try {
-      return converter.convert(mapper.readValue(is, HashMap.class));
+    try (com.fasterxml.jackson.core.JsonParser parser = factory.createParser(is)) {
+      return readDocument(parser);
     } catch (IOException e) {
       throw new RuntimeException("Unparseable document from InputStream", e);
     }
@@ -65,8 +66,8 @@ public class JacksonJsonParser implements JsonParser {
 
   @Override
   public List<KvDocument> createListFrom(InputStream is) {
-    try {
-      return converter.convert((List<Map<String, Object>>) mapper.readValue(is, typeReference));
+    try (com.fasterxml.jackson.core.JsonParser parser = factory.createParser(is)) {
+      return readDocumentList(parser);
     } catch (IOException e) {
       throw new RuntimeException("Unparseable document from InputStream", e);
     }
@@ -81,4 +82,23 @@ public class JacksonJsonParser implements JsonParser {
   public List<KvDocument> createListFromResource(String name) {
     return createListFrom(this.getClass().getClassLoader().getResourceAsStream(name));
   }
+
+  private KvDocument readDocument(com.fasterxml.jackson.core.JsonParser parser)
+      throws IOException {
+    parser.nextToken();
+    return converter.convertDocument(parser);
+  }
+
+  private List<KvDocument> readDocumentList(com.fasterxml.jackson.core.JsonParser parser)
+      throws IOException {
+    if (parser.nextToken() != JsonToken.START_ARRAY) {
+      throw new JsonParseException("An array of documents was expected",
+          parser.getCurrentLocation());
+    }
+    List<KvDocument> docs = new ArrayList<>();
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      docs.add(converter.convertDocument(parser));
+    }
+    return docs;
+  }
 }
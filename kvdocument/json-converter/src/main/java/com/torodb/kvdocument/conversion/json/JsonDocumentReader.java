@@ -0,0 +1,86 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.kvdocument.conversion.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.torodb.kvdocument.values.KvDocument;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads a sequence of documents separated by whitespace, like newline delimited JSON files, one
+ * document at a time.
+ *
+ * <p>Documents are built while the input is parsed, so only the document that is being read is
+ * kept in memory. Errors found while reading the input are thrown as
+ * {@link UncheckedIOException}.
+ */
+public class JsonDocumentReader implements Iterator<KvDocument>, Closeable {
+
+  private static final JsonFactory factory = new JsonFactory();
+  private static final JsonTokenToKvValueConverter converter = new JsonTokenToKvValueConverter();
+
+  private final JsonParser parser;
+  private boolean tokenFetched = false;
+
+  /**
+   * Creates a reader of the given stream, which is closed when this reader is closed.
+   */
+  public JsonDocumentReader(InputStream is) throws IOException {
+    this.parser = factory.createParser(is);
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (!tokenFetched) {
+      try {
+        parser.nextToken();
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+      tokenFetched = true;
+    }
+    return parser.getCurrentToken() != null;
+  }
+
+  @Override
+  public KvDocument next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    tokenFetched = false;
+    try {
+      return converter.convertDocument(parser);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    parser.close();
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.kvdocument.conversion.json;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.torodb.common.util.HexUtils;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInstant;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvNumeric;
+import com.torodb.kvdocument.values.KvString;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.ByteArrayKvMongoObjectId;
+import com.torodb.kvdocument.values.heap.InstantKvInstant;
+import com.torodb.kvdocument.values.heap.ListKvArray;
+import com.torodb.kvdocument.values.heap.LongKvInstant;
+import com.torodb.kvdocument.values.heap.MapKvDocument;
+import com.torodb.kvdocument.values.heap.StringKvString;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Builds {@link KvValue KvValues} directly from the tokens of a Jackson {@link JsonParser}.
+ *
+ * <p>Unlike {@link MapToKvValueConverter}, no intermediate map is created and the order of the
+ * fields of each document is kept. Special objects ({@code $oid} and {@code $date}) are
+ * translated like {@link MapToKvValueConverter} does.
+ */
+public class JsonTokenToKvValueConverter {
+
+  private static final DateTimeFormatter DATE_FORMATTER =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSX");
+
+  /**
+   * Reads the document that starts on the current token of the given parser.
+   *
+   * <p>When this method returns, the parser is on the last token of the document.
+   */
+  public KvDocument convertDocument(JsonParser parser) throws IOException {
+    if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+      throw new JsonParseException("A document was expected, but " + parser.getCurrentToken()
+          + " was found", parser.getCurrentLocation());
+    }
+    KvValue<?> value = convertObject(parser);
+    if (!(value instanceof KvDocument)) {
+      throw new JsonParseException("A document was expected, but " + value.getType()
+          + " was found", parser.getCurrentLocation());
+    }
+    return (KvDocument) value;
+  }
+
+  /**
+   * Reads the value that starts on the current token of the given parser.
+   *
+   * <p>When this method returns, the parser is on the last token of the value.
+   */
+  public KvValue<?> convertValue(JsonParser parser) throws IOException {
+    JsonToken token = parser.getCurrentToken();
+    if (token == null) {
+      throw new JsonParseException("Unexpected end of input", parser.getCurrentLocation());
+    }
+    switch (token) {
+      case START_OBJECT:
+        return convertObject(parser);
+      case START_ARRAY:
+        return convertArray(parser);
+      case VALUE_STRING:
+        return new StringKvString(parser.getText());
+      case VALUE_NUMBER_INT:
+        switch (parser.getNumberType()) {
+          case INT:
+            return KvInteger.of(parser.getIntValue());
+          case LONG:
+            return KvLong.of(parser.getLongValue());
+          default:
+            throw new JsonParseException("Number " + parser.getText() + " does not fit on a long",
+                parser.getCurrentLocation());
+        }
+      case VALUE_NUMBER_FLOAT:
+        return KvDouble.of(parser.getDoubleValue());
+      case VALUE_TRUE:
+        return KvBoolean.TRUE;
+      case VALUE_FALSE:
+        return KvBoolean.FALSE;
+      case VALUE_NULL:
+        return KvNull.getInstance();
+      default:
+        throw new JsonParseException("Unexpected token " + token, parser.getCurrentLocation());
+    }
+  }
+
+  private KvValue<?> convertObject(JsonParser parser) throws IOException {
+    LinkedHashMap<String, KvValue<?>> docMap = new LinkedHashMap<>();
+    JsonToken token = parser.nextToken();
+    if (token == JsonToken.FIELD_NAME) {
+      //jackson interns field names by default, so they are not interned again here
+      String firstKey = parser.getCurrentName();
+      parser.nextToken();
+      KvValue<?> firstValue = convertValue(parser);
+      token = parser.nextToken();
+      if (token == JsonToken.END_OBJECT && firstKey.startsWith("$")
+          && firstValue != KvNull.getInstance()) {
+        return buildSpecialObject(firstKey, firstValue);
+      }
+      docMap.put(firstKey, firstValue);
+    }
+    while (token == JsonToken.FIELD_NAME) {
+      String key = parser.getCurrentName();
+      parser.nextToken();
+      docMap.put(key, convertValue(parser));
+      token = parser.nextToken();
+    }
+    if (token != JsonToken.END_OBJECT) {
+      throw new JsonParseException("Unexpected token " + token + " inside a document",
+          parser.getCurrentLocation());
+    }
+    return new MapKvDocument(docMap);
+  }
+
+  private KvValue<?> convertArray(JsonParser parser) throws IOException {
+    List<KvValue<?>> values = new ArrayList<>();
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      values.add(convertValue(parser));
+    }
+    return new ListKvArray(values);
+  }
+
+  private KvValue<?> buildSpecialObject(String key, KvValue<?> value) {
+    if ("$oid".equals(key) && value instanceof KvString) {
+      return new ByteArrayKvMongoObjectId(HexUtils.hex2Bytes(((KvString) value).getValue()));
+    }
+    if ("$date".equals(key)) {
+      return parseDate(key, value);
+    }
+    throw new RuntimeException("Unexpected special object type: " + key);
+  }
+
+  private KvInstant parseDate(String key, KvValue<?> value) {
+    if (value instanceof KvString) {
+      try {
+        return new InstantKvInstant(Instant.from(DATE_FORMATTER.parse(
+            ((KvString) value).getValue())));
+      } catch (DateTimeParseException e) {
+        throw new RuntimeException("Unexpected error parsing date", e);
+      }
+    }
+    if (value instanceof KvNumeric) {
+      return new LongKvInstant(((KvNumeric<?>) value).longValue());
+    }
+    throw new RuntimeException("Unexpected date object type: " + key);
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.kvdocument.conversion.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvInstant;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+public class JsonDocumentReaderTest {
+
+  @Test
+  public void testReadLines() throws IOException {
+    String json = "{\"b\": 1, \"a\": {\"$date\": 0}, \"c\": [1, 2]}\n"
+        + "{\"a\": 3000000000, \"$b\": 1}\n"
+        + "\n"
+        + "{}\n";
+    try (JsonDocumentReader reader = new JsonDocumentReader(
+        new ByteArrayInputStream(json.getBytes(Charsets.UTF_8)))) {
+      assertTrue(reader.hasNext());
+      KvDocument first = reader.next();
+      assertEquals(ImmutableList.of("b", "a", "c"), Lists.newArrayList(first.getKeys()));
+      assertEquals(KvInteger.of(1), first.get("b"));
+      assertTrue(first.get("a") instanceof KvInstant);
+
+      KvDocument second = reader.next();
+      assertEquals(KvLong.of(3000000000L), second.get("a"));
+      assertEquals(KvInteger.of(1), second.get("$b"));
+
+      assertEquals(0, reader.next().size());
+      assertFalse(reader.hasNext());
+    }
+  }
+
+}
@@ -23,13 +23,17 @@ import com.torodb.core.logging.LoggerFactory;
 import com.torodb.mongodb.commands.CmdImplMapSupplier;
 import com.torodb.mongodb.commands.impl.admin.ListCollectionsImplementation;
 import com.torodb.mongodb.commands.impl.admin.ListIndexesImplementation;
+import com.torodb.mongodb.commands.impl.aggregation.AggregateImplementation;
 import com.torodb.mongodb.commands.impl.aggregation.CountImplementation;
+import com.torodb.mongodb.commands.impl.aggregation.DistinctImplementation;
 import com.torodb.mongodb.commands.impl.diagnostic.CollStatsImplementation;
 import com.torodb.mongodb.commands.impl.diagnostic.ListDatabasesImplementation;
 import com.torodb.mongodb.commands.impl.general.FindImplementation;
 import com.torodb.mongodb.commands.signatures.admin.ListCollectionsCommand;
 import com.torodb.mongodb.commands.signatures.admin.ListIndexesCommand;
+import com.torodb.mongodb.commands.signatures.aggregation.AggregateCommand;
 import com.torodb.mongodb.commands.signatures.aggregation.CountCommand;
+import com.torodb.mongodb.commands.signatures.aggregation.DistinctCommand;
 import com.torodb.mongodb.commands.signatures.diagnostic.CollStatsCommand;
 import com.torodb.mongodb.commands.signatures.diagnostic.ListDatabasesCommand;
 import com.torodb.mongodb.commands.signatures.general.FindCommand;
@@ -56,6 +60,8 @@ public class GeneralTransactionCmdImpl implements CmdImplMapSupplier<MongodTrans
         .put(ListCollectionsCommand.INSTANCE, new ListCollectionsImplementation(loggerFactory))
         .put(ListIndexesCommand.INSTANCE, new ListIndexesImplementation())
         .put(CountCommand.INSTANCE, new CountImplementation())
+        .put(AggregateCommand.INSTANCE, new AggregateImplementation(loggerFactory))
+        .put(DistinctCommand.INSTANCE, new DistinctImplementation(loggerFactory))
         .put(CollStatsCommand.INSTANCE, new CollStatsImplementation(loggerFactory))
         .put(ListDatabasesCommand.INSTANCE, new ListDatabasesImplementation())
         .put(FindCommand.INSTANCE, new FindImplementation(loggerFactory))
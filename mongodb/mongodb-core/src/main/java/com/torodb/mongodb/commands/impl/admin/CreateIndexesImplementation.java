@@ -30,7 +30,9 @@ import com.torodb.mongodb.commands.pojos.index.IndexOptions.KnownType;
 import com.torodb.mongodb.commands.pojos.index.type.AscIndexType;
 import com.torodb.mongodb.commands.pojos.index.type.DefaultIndexTypeVisitor;
 import com.torodb.mongodb.commands.pojos.index.type.DescIndexType;
+import com.torodb.mongodb.commands.pojos.index.type.HashedIndexType;
 import com.torodb.mongodb.commands.pojos.index.type.IndexType;
+import com.torodb.mongodb.commands.pojos.index.type.TextIndexType;
 import com.torodb.mongodb.commands.signatures.admin.CreateIndexesCommand.CreateIndexesArgument;
 import com.torodb.mongodb.commands.signatures.admin.CreateIndexesCommand.CreateIndexesResult;
 import com.torodb.mongodb.core.WriteMongodTransaction;
@@ -41,6 +43,7 @@ import com.torodb.mongowp.commands.Command;
 import com.torodb.mongowp.commands.Request;
 import com.torodb.mongowp.exceptions.CommandFailed;
 import com.torodb.torod.IndexFieldInfo;
+import com.torodb.torod.IndexInfo;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -80,18 +83,16 @@ public class CreateIndexesImplementation implements
           return Status.from(ErrorCode.CANNOT_CREATE_INDEX, "Index keys cannot be empty.");
         }
 
-        if (indexOptions.isBackground()) {
+        if (indexOptions.getPartialFilterExpression() != null
+            && !indexOptions.isSparseOrEquivalentPartial()) {
           throw new CommandFailed("createIndexes",
-              "Building index in background is not supported right now");
+              "Only partial filter expressions like {<key>: {$exists: true}} on single key indexes "
+              + "are supported right now");
         }
 
-        if (indexOptions.isSparse()) {
-          throw new CommandFailed("createIndexes",
-              "Sparse index are not supported right now");
-        }
-
-        List<IndexFieldInfo> fields = new ArrayList<>(indexOptions.getKeys().size());
-        for (IndexOptions.Key indexKey : indexOptions.getKeys()) {
+        List<IndexOptions.Key> indexKeys = indexOptions.getExpandedKeys();
+        List<IndexFieldInfo> fields = new ArrayList<>(indexKeys.size());
+        for (IndexOptions.Key indexKey : indexKeys) {
           AttributeReference.Builder attRefBuilder = new AttributeReference.Builder();
           for (String key : indexKey.getKeys()) {
             attRefBuilder.addObjectKey(key);
@@ -112,11 +113,36 @@ public class CreateIndexesImplementation implements
                 "Index of type " + indexType.getName() + " is not supported right now");
           }
 
-          fields.add(new IndexFieldInfo(attRefBuilder.build(), ordering.get().isAscending()));
+          fields.add(new IndexFieldInfo(attRefBuilder.build(), ordering.get()));
+        }
+
+        String hashedIndexError = indexOptions.getHashedIndexError();
+        if (hashedIndexError != null) {
+          return Status.from(ErrorCode.CANNOT_CREATE_INDEX, hashedIndexError);
+        }
+
+        String textIndexError = indexOptions.getTextIndexError();
+        if (textIndexError != null) {
+          return Status.from(ErrorCode.CANNOT_CREATE_INDEX, textIndexError);
+        }
+
+        if (fields.stream().anyMatch(field -> field.getOrdering() == FieldIndexOrdering.TEXT)) {
+          Optional<IndexInfo> otherTextIndex = context.getTorodTransaction()
+              .getIndexesInfo(req.getDatabase(), arg.getCollection())
+              .filter(indexInfo -> !indexInfo.getName().equals(indexOptions.getName())
+                  && indexInfo.getFields().stream()
+                      .anyMatch(field -> field.getOrdering() == FieldIndexOrdering.TEXT))
+              .findAny();
+          if (otherTextIndex.isPresent()) {
+            return Status.from(ErrorCode.CANNOT_CREATE_INDEX, "only one text index per "
+                + "collection allowed, found existing text index "
+                + otherTextIndex.get().getName());
+          }
         }
 
         if (context.getTorodTransaction().createIndex(req.getDatabase(), arg.getCollection(),
-            indexOptions.getName(), fields, indexOptions.isUnique())) {
+            indexOptions.getName(), fields, indexOptions.isUnique(),
+            indexOptions.isSparseOrEquivalentPartial(), indexOptions.isBackground())) {
           indexesAfter++;
         }
       }
@@ -153,5 +179,15 @@ public class CreateIndexesImplementation implements
     public Optional<FieldIndexOrdering> visit(DescIndexType indexType, Void arg) {
       return Optional.of(FieldIndexOrdering.DESC);
     }
+
+    @Override
+    public Optional<FieldIndexOrdering> visit(HashedIndexType indexType, Void arg) {
+      return Optional.of(FieldIndexOrdering.HASHED);
+    }
+
+    @Override
+    public Optional<FieldIndexOrdering> visit(TextIndexType indexType, Void arg) {
+      return Optional.of(FieldIndexOrdering.TEXT);
+    }
   }
 }
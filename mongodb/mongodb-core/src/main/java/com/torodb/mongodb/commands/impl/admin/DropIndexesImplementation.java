@@ -59,7 +59,8 @@ public class DropIndexesImplementation implements
       } else {
         if (arg.getKeys().stream().anyMatch(key -> !(KnownType.contains(key.getType())) || (key
             .getType() != KnownType.asc.getIndexType() && key.getType() != KnownType.desc
-            .getIndexType()))) {
+            .getIndexType() && key.getType() != KnownType.hashed.getIndexType()
+            && key.getType() != KnownType.text.getIndexType()))) {
           return getStatusForIndexNotFoundWithKeys(arg);
         }
 
@@ -116,8 +117,7 @@ public class DropIndexesImplementation implements
       IndexFieldInfo field = fieldsIterator.next();
       IndexOptions.Key key = keysIterator.next();
 
-      if ((field.isAscending() && key.getType() != KnownType.asc.getIndexType()) || (!field
-          .isAscending() && key.getType() != KnownType.desc.getIndexType()) || (field
+      if (key.getType() != KnownType.fromOrdering(field.getOrdering()) || (field
           .getAttributeReference().getKeys().size() != key.getKeys().size())) {
         return false;
       }
@@ -57,7 +57,7 @@ public class ListIndexesImplementation implements
                         arg.getCollection(),
                         false,
                         indexInfo.isUnique(),
-                        false,
+                        indexInfo.isSparse(),
                         0,
                         indexInfo.getFields().stream()
                             .map(field -> new IndexOptions.Key(extractKeys(field), extractType(
@@ -88,8 +88,7 @@ public class ListIndexesImplementation implements
   }
 
   private IndexType extractType(IndexFieldInfo indexFieldInfo) {
-    return indexFieldInfo.isAscending() ? KnownType.asc.getIndexType() : KnownType.desc
-        .getIndexType();
+    return KnownType.fromOrdering(indexFieldInfo.getOrdering());
   }
 
 }
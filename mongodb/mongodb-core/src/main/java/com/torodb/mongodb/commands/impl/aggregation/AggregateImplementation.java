@@ -0,0 +1,225 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.commands.impl.aggregation;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.cursors.Cursor;
+import com.torodb.core.document.ToroDocument;
+import com.torodb.core.language.querycriteria.AndQueryCriteria;
+import com.torodb.core.language.querycriteria.QueryCriteria;
+import com.torodb.core.language.querycriteria.TrueQueryCriteria;
+import com.torodb.core.logging.LoggerFactory;
+import com.torodb.kvdocument.conversion.mongowp.ToBsonDocumentTranslator;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDocument.DocEntry;
+import com.torodb.mongodb.commands.impl.ReadTorodbCommandImpl;
+import com.torodb.mongodb.commands.impl.aggregation.AggregationStages.GroupStage;
+import com.torodb.mongodb.commands.pojos.CursorResult;
+import com.torodb.mongodb.commands.signatures.aggregation.AggregateCommand.AggregateArgument;
+import com.torodb.mongodb.commands.signatures.aggregation.AggregateCommand.AggregateResult;
+import com.torodb.mongodb.core.MongodTransaction;
+import com.torodb.mongowp.ErrorCode;
+import com.torodb.mongowp.Status;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.commands.Command;
+import com.torodb.mongowp.commands.Request;
+import com.torodb.mongowp.exceptions.CommandFailed;
+import com.torodb.torod.AccumulatorInfo;
+import com.torodb.torod.SortFieldInfo;
+import com.torodb.torod.TorodTransaction;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Runs an aggregation pipeline, letting the database evaluate as many of its first stages as
+ * possible.
+ *
+ * <p>The {@code $match} stages at the beginning of the pipeline are evaluated by the database. If
+ * they are followed by a {@code $group} stage whose {@code _id} is null or a field path or by a
+ * {@code $count} stage, the documents are grouped by the database too. Otherwise the
+ * {@code $sort}, {@code $skip} and {@code $limit} stages that follow them (in that order) are
+ * evaluated by the database.
+ *
+ * <p>The remaining stages are evaluated in memory over the documents the database returns, which
+ * are streamed through them so stages like {@code $match} or {@code $limit} do not need to read
+ * all documents at once.
+ */
+@Singleton
+public class AggregateImplementation
+    implements ReadTorodbCommandImpl<AggregateArgument, AggregateResult> {
+
+  private static final String ID_KEY = "_id";
+  private static final int DEFAULT_BATCH_SIZE = 101;
+
+  private final Logger logger;
+
+  @Inject
+  public AggregateImplementation(LoggerFactory loggerFactory) {
+    this.logger = loggerFactory.apply(this.getClass());
+  }
+
+  @Override
+  public Status<AggregateResult> apply(Request req,
+      Command<? super AggregateArgument, ? super AggregateResult> command, AggregateArgument arg,
+      MongodTransaction context) {
+    logger.trace("Aggregate on {} pipeline {}", arg.getCollection(), arg.getPipeline());
+
+    if (arg.getBatchSize() > Integer.MAX_VALUE) {
+      return Status.from(ErrorCode.COMMAND_FAILED, "Only batchSize equals or lower than "
+          + Integer.MAX_VALUE + " is supported");
+    }
+    int batchSize = arg.getBatchSize() == 0 ? DEFAULT_BATCH_SIZE : (int) arg.getBatchSize();
+
+    List<BsonDocument> batch;
+    try {
+      List<BsonDocument> pipeline = arg.getPipeline();
+      int pushedDownStages = countPushedDownStages(pipeline);
+      List<Function<Stream<KvDocument>, Stream<KvDocument>>> inMemoryStages = new ArrayList<>();
+      for (BsonDocument stage : pipeline.subList(pushedDownStages, pipeline.size())) {
+        inMemoryStages.add(AggregationStages.translate(stage));
+      }
+
+      try (Cursor<KvDocument> cursor = pushDown(context.getTorodTransaction(), req.getDatabase(),
+          arg.getCollection(), pipeline.subList(0, pushedDownStages))) {
+        Stream<KvDocument> docs = StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED), false);
+        for (Function<Stream<KvDocument>, Stream<KvDocument>> stage : inMemoryStages) {
+          docs = stage.apply(docs);
+        }
+        batch = docs.limit(batchSize)
+            .map(ToBsonDocumentTranslator.getInstance())
+            .collect(Collectors.toList());
+      }
+    } catch (CommandFailed ex) {
+      return Status.from(ex);
+    }
+
+    return Status.ok(new AggregateResult(CursorResult.createSingleBatchCursor(req.getDatabase(),
+        arg.getCollection(), batch.iterator())));
+  }
+
+  /**
+   * Returns how many stages at the beginning of the pipeline can be evaluated by the database.
+   */
+  private int countPushedDownStages(List<BsonDocument> pipeline) throws CommandFailed {
+    int stageIndex = 0;
+    while (stageIndex < pipeline.size() && isStage(pipeline, stageIndex, AggregationStages.MATCH)) {
+      stageIndex++;
+    }
+    if (isStage(pipeline, stageIndex, AggregationStages.COUNT)) {
+      return stageIndex + 1;
+    }
+    if (isStage(pipeline, stageIndex, AggregationStages.GROUP)) {
+      GroupStage group = AggregationStages.parseGroup(
+          AggregationStages.getStageSpec(pipeline.get(stageIndex)));
+      return group.isGroupedByAttribute() ? stageIndex + 1 : stageIndex;
+    }
+    for (String stageName : ImmutableList.of(AggregationStages.SORT, AggregationStages.SKIP,
+        AggregationStages.LIMIT)) {
+      if (isStage(pipeline, stageIndex, stageName)) {
+        stageIndex++;
+      }
+    }
+    return stageIndex;
+  }
+
+  private boolean isStage(List<BsonDocument> pipeline, int stageIndex, String stageName) {
+    return stageIndex < pipeline.size()
+        && AggregationStages.getStageName(pipeline.get(stageIndex)).equals(stageName);
+  }
+
+  /**
+   * Returns a cursor over the result of the given stages, which are evaluated by the database.
+   *
+   * @param stages the stages to evaluate, as selected by {@link #countPushedDownStages(List)}
+   */
+  private Cursor<KvDocument> pushDown(TorodTransaction transaction, String db, String collection,
+      List<BsonDocument> stages) throws CommandFailed {
+    List<QueryCriteria> matches = new ArrayList<>();
+    List<SortFieldInfo> sort = Collections.emptyList();
+    long skip = 0;
+    long limit = 0;
+    for (BsonDocument stage : stages) {
+      switch (AggregationStages.getStageName(stage)) {
+        case AggregationStages.MATCH:
+          matches.add(AggregationStages.parseMatch(AggregationStages.getStageSpec(stage)));
+          break;
+        case AggregationStages.GROUP: {
+          GroupStage group = AggregationStages.parseGroup(AggregationStages.getStageSpec(stage));
+          return transaction.groupByCriteria(db, collection, and(matches), group.getGroupBy(),
+              group.getAccumulators());
+        }
+        case AggregationStages.COUNT: {
+          String field = AggregationStages.parseCount(AggregationStages.getStageSpec(stage));
+          return transaction.groupByCriteria(db, collection, and(matches), null,
+              ImmutableList.of(new AccumulatorInfo(field, AccumulatorInfo.Operator.COUNT, null)))
+              .transform(this::removeId);
+        }
+        case AggregationStages.SORT:
+          sort = AggregationStages.parseSort(AggregationStages.getStageSpec(stage));
+          break;
+        case AggregationStages.SKIP:
+          skip = AggregationStages.parseSkip(AggregationStages.getStageSpec(stage));
+          break;
+        case AggregationStages.LIMIT:
+          limit = AggregationStages.parseLimit(AggregationStages.getStageSpec(stage));
+          break;
+        default:
+          throw new AssertionError("Unexpected stage " + stage);
+      }
+    }
+    return transaction.findByCriteria(db, collection, and(matches), sort, skip, limit)
+        .asDocCursor()
+        .transform(ToroDocument::getRoot);
+  }
+
+  private QueryCriteria and(List<QueryCriteria> criterias) {
+    switch (criterias.size()) {
+      case 0:
+        return TrueQueryCriteria.getInstance();
+      case 1:
+        return criterias.get(0);
+      default:
+        return new AndQueryCriteria(criterias);
+    }
+  }
+
+  private KvDocument removeId(KvDocument doc) {
+    KvDocument.Builder builder = new KvDocument.Builder();
+    for (DocEntry<?> entry : doc) {
+      if (!entry.getKey().equals(ID_KEY)) {
+        builder.putValue(entry.getKey(), entry.getValue());
+      }
+    }
+    return builder.build();
+  }
+
+}
@@ -0,0 +1,521 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.commands.impl.aggregation;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.querycriteria.QueryCriteria;
+import com.torodb.core.util.AttributeRefKvDocResolver;
+import com.torodb.kvdocument.conversion.mongowp.MongoWpConverter;
+import com.torodb.kvdocument.values.KvArray;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDocument.DocEntry;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.mongodb.language.QueryCriteriaTranslator;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.BsonDocument.Entry;
+import com.torodb.mongowp.bson.BsonValue;
+import com.torodb.mongowp.exceptions.CommandFailed;
+import com.torodb.torod.AccumulatorInfo;
+import com.torodb.torod.SortFieldInfo;
+import com.torodb.torod.query.DocumentGrouper;
+import com.torodb.torod.query.DocumentSorter;
+import com.torodb.torod.query.QueryCriteriaMatcher;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+/**
+ * Parses the stages of an aggregation pipeline and evaluates them in memory.
+ *
+ * <p>Expressions are limited to field paths (like {@code "$a.b"}), constants and documents whose
+ * values are field paths or constants. Operator expressions and system variables are rejected with
+ * a {@link CommandFailed}.
+ */
+class AggregationStages {
+
+  static final String MATCH = "$match";
+  static final String PROJECT = "$project";
+  static final String GROUP = "$group";
+  static final String SORT = "$sort";
+  static final String SKIP = "$skip";
+  static final String LIMIT = "$limit";
+  static final String UNWIND = "$unwind";
+  static final String COUNT = "$count";
+
+  private static final String COMMAND_NAME = "aggregate";
+  private static final String ID_KEY = "_id";
+  private static final Splitter PATH_SPLITTER = Splitter.on('.');
+
+  private AggregationStages() {
+  }
+
+  static String getStageName(BsonDocument stage) {
+    return stage.getFirstEntry().getKey();
+  }
+
+  static BsonValue<?> getStageSpec(BsonDocument stage) {
+    return stage.getFirstEntry().getValue();
+  }
+
+  /**
+   * Returns a function that applies the given stage to a stream of documents.
+   */
+  static Function<Stream<KvDocument>, Stream<KvDocument>> translate(BsonDocument stage)
+      throws CommandFailed {
+    BsonValue<?> spec = getStageSpec(stage);
+    switch (getStageName(stage)) {
+      case MATCH: {
+        QueryCriteria criteria = parseMatch(spec);
+        return docs -> docs.filter(doc -> QueryCriteriaMatcher.matches(criteria, doc));
+      }
+      case PROJECT:
+        return parseProject(spec);
+      case GROUP:
+        return parseGroup(spec)::group;
+      case SORT: {
+        List<SortFieldInfo> sort = parseSort(spec);
+        return docs -> docs.sorted(DocumentSorter.createRootComparator(sort));
+      }
+      case SKIP: {
+        long skip = parseSkip(spec);
+        return docs -> docs.skip(skip);
+      }
+      case LIMIT: {
+        long limit = parseLimit(spec);
+        return docs -> docs.limit(limit);
+      }
+      case UNWIND:
+        return parseUnwind(spec);
+      case COUNT: {
+        String field = parseCount(spec);
+        return docs -> count(docs, field);
+      }
+      default:
+        throw new CommandFailed(COMMAND_NAME, "Pipeline stage " + getStageName(stage)
+            + " is not supported right now");
+    }
+  }
+
+  static QueryCriteria parseMatch(BsonValue<?> spec) throws CommandFailed {
+    if (!spec.isDocument()) {
+      throw new CommandFailed(COMMAND_NAME, "the match filter must be an expression in an object");
+    }
+    return QueryCriteriaTranslator.translate(COMMAND_NAME, spec.asDocument());
+  }
+
+  static List<SortFieldInfo> parseSort(BsonValue<?> spec) throws CommandFailed {
+    if (!spec.isDocument() || spec.asDocument().isEmpty()) {
+      throw new CommandFailed(COMMAND_NAME, "$sort key specification must be a non empty object");
+    }
+    List<SortFieldInfo> sort = new ArrayList<>(spec.asDocument().size());
+    for (Entry<?> entry : spec.asDocument()) {
+      BsonValue<?> value = entry.getValue();
+      long order = value.isNumber() ? value.asNumber().longValue() : 0;
+      if (order != 1 && order != -1) {
+        throw new CommandFailed(COMMAND_NAME, "$sort key ordering must be 1 (for ascending) or -1 "
+            + "(for descending). Other sort specifications are not supported right now");
+      }
+      sort.add(new SortFieldInfo(toAttributeReference(entry.getKey()), order > 0));
+    }
+    return sort;
+  }
+
+  static long parseSkip(BsonValue<?> spec) throws CommandFailed {
+    if (!spec.isNumber() || spec.asNumber().longValue() < 0) {
+      throw new CommandFailed(COMMAND_NAME, "$skip must be a non-negative number");
+    }
+    return spec.asNumber().longValue();
+  }
+
+  static long parseLimit(BsonValue<?> spec) throws CommandFailed {
+    if (!spec.isNumber() || spec.asNumber().longValue() <= 0) {
+      throw new CommandFailed(COMMAND_NAME, "$limit must be a positive number");
+    }
+    return spec.asNumber().longValue();
+  }
+
+  static String parseCount(BsonValue<?> spec) throws CommandFailed {
+    if (!spec.isString() || spec.asString().getValue().isEmpty()) {
+      throw new CommandFailed(COMMAND_NAME, "the count field must be a non-empty string");
+    }
+    String field = spec.asString().getValue();
+    if (field.startsWith("$") || field.contains(".")) {
+      throw new CommandFailed(COMMAND_NAME, "the count field cannot be a $-prefixed path or "
+          + "contain '.'");
+    }
+    return field;
+  }
+
+  static GroupStage parseGroup(BsonValue<?> spec) throws CommandFailed {
+    if (!spec.isDocument()) {
+      throw new CommandFailed(COMMAND_NAME, "a group's fields must be specified in an object");
+    }
+    BsonValue<?> id = spec.asDocument().get(ID_KEY);
+    if (id == null) {
+      throw new CommandFailed(COMMAND_NAME, "a group specification must include an _id");
+    }
+    checkExpression(id);
+
+    List<AccumulatorInfo> accumulators = new ArrayList<>(spec.asDocument().size() - 1);
+    for (Entry<?> entry : spec.asDocument()) {
+      if (!entry.getKey().equals(ID_KEY)) {
+        accumulators.add(parseAccumulator(entry));
+      }
+    }
+    return new GroupStage(id, accumulators);
+  }
+
+  private static AccumulatorInfo parseAccumulator(Entry<?> entry) throws CommandFailed {
+    String name = entry.getKey();
+    if (name.contains(".")) {
+      throw new CommandFailed(COMMAND_NAME, "the group aggregate field name '" + name
+          + "' cannot contain '.'");
+    }
+    BsonValue<?> value = entry.getValue();
+    if (!value.isDocument() || value.asDocument().size() != 1) {
+      throw new CommandFailed(COMMAND_NAME, "the group aggregate field '" + name + "' must be "
+          + "defined as an expression inside an object");
+    }
+    String operatorName = value.asDocument().getFirstEntry().getKey();
+    BsonValue<?> argument = value.asDocument().getFirstEntry().getValue();
+    AccumulatorInfo.Operator operator;
+    switch (operatorName) {
+      case "$sum":
+        if (argument.isNumber() && Double.compare(argument.asNumber().doubleValue(), 1) == 0) {
+          return new AccumulatorInfo(name, AccumulatorInfo.Operator.COUNT, null);
+        }
+        operator = AccumulatorInfo.Operator.SUM;
+        break;
+      case "$avg":
+        operator = AccumulatorInfo.Operator.AVG;
+        break;
+      case "$min":
+        operator = AccumulatorInfo.Operator.MIN;
+        break;
+      case "$max":
+        operator = AccumulatorInfo.Operator.MAX;
+        break;
+      default:
+        throw new CommandFailed(COMMAND_NAME, "Accumulator " + operatorName + " is not supported "
+            + "right now");
+    }
+    if (!isFieldPath(argument)) {
+      throw new CommandFailed(COMMAND_NAME, "Only field paths are supported as the argument of "
+          + operatorName + " right now");
+    }
+    return new AccumulatorInfo(name, operator, toFieldPath(argument));
+  }
+
+  private static Function<Stream<KvDocument>, Stream<KvDocument>> parseProject(BsonValue<?> spec)
+      throws CommandFailed {
+    if (!spec.isDocument() || spec.asDocument().isEmpty()) {
+      throw new CommandFailed(COMMAND_NAME, "$project specification must be a non empty object");
+    }
+    boolean includeId = true;
+    Set<String> included = new LinkedHashSet<>();
+    Set<String> excluded = new LinkedHashSet<>();
+    Map<String, BsonValue<?>> computed = new LinkedHashMap<>();
+    for (Entry<?> entry : spec.asDocument()) {
+      String key = entry.getKey();
+      BsonValue<?> value = entry.getValue();
+      if (key.contains(".")) {
+        throw new CommandFailed(COMMAND_NAME, "Projections on nested attributes are not "
+            + "supported right now");
+      }
+      if (value.isBoolean() || value.isNumber()) {
+        boolean include = value.isBoolean() ? value.asBoolean().getPrimitiveValue()
+            : Double.compare(value.asNumber().doubleValue(), 0) != 0;
+        if (key.equals(ID_KEY)) {
+          includeId = include;
+        } else if (include) {
+          included.add(key);
+        } else {
+          excluded.add(key);
+        }
+      } else {
+        checkExpression(value);
+        computed.put(key, value);
+      }
+    }
+    if (!excluded.isEmpty() && (!included.isEmpty() || !computed.isEmpty())) {
+      throw new CommandFailed(COMMAND_NAME, "Bad projection specification, cannot exclude fields "
+          + "other than '_id' in an inclusion projection");
+    }
+    if (!includeId) {
+      excluded.add(ID_KEY);
+    }
+    if (included.isEmpty() && computed.isEmpty()) {
+      return docs -> docs.map(doc -> exclude(doc, excluded));
+    }
+    if (includeId) {
+      included.add(ID_KEY);
+    }
+    return docs -> docs.map(doc -> include(doc, included, computed));
+  }
+
+  private static KvDocument exclude(KvDocument doc, Set<String> excluded) {
+    KvDocument.Builder builder = new KvDocument.Builder();
+    for (DocEntry<?> entry : doc) {
+      if (!excluded.contains(entry.getKey())) {
+        builder.putValue(entry.getKey(), entry.getValue());
+      }
+    }
+    return builder.build();
+  }
+
+  private static KvDocument include(KvDocument doc, Set<String> included,
+      Map<String, BsonValue<?>> computed) {
+    KvDocument.Builder builder = new KvDocument.Builder();
+    for (DocEntry<?> entry : doc) {
+      if (included.contains(entry.getKey()) && !computed.containsKey(entry.getKey())) {
+        builder.putValue(entry.getKey(), entry.getValue());
+      }
+    }
+    for (Map.Entry<String, BsonValue<?>> entry : computed.entrySet()) {
+      KvValue<?> value = evaluate(entry.getValue(), doc);
+      if (value != null) {
+        builder.putValue(entry.getKey(), value);
+      }
+    }
+    return builder.build();
+  }
+
+  private static Function<Stream<KvDocument>, Stream<KvDocument>> parseUnwind(BsonValue<?> spec)
+      throws CommandFailed {
+    BsonValue<?> path;
+    String indexField = null;
+    boolean preserve = false;
+    if (spec.isDocument()) {
+      path = spec.asDocument().get("path");
+      for (Entry<?> entry : spec.asDocument()) {
+        switch (entry.getKey()) {
+          case "path":
+            break;
+          case "includeArrayIndex":
+            if (!entry.getValue().isString() || entry.getValue().asString().getValue().isEmpty()
+                || entry.getValue().asString().getValue().startsWith("$")) {
+              throw new CommandFailed(COMMAND_NAME, "includeArrayIndex option to $unwind stage "
+                  + "must be a non-empty string that does not start with '$'");
+            }
+            indexField = entry.getValue().asString().getValue();
+            break;
+          case "preserveNullAndEmptyArrays":
+            if (!entry.getValue().isBoolean()) {
+              throw new CommandFailed(COMMAND_NAME, "preserveNullAndEmptyArrays option to "
+                  + "$unwind stage must be a boolean");
+            }
+            preserve = entry.getValue().asBoolean().getPrimitiveValue();
+            break;
+          default:
+            throw new CommandFailed(COMMAND_NAME, "unrecognized option to $unwind stage: "
+                + entry.getKey());
+        }
+      }
+    } else {
+      path = spec;
+    }
+    if (path == null || !isFieldPath(path)) {
+      throw new CommandFailed(COMMAND_NAME, "$unwind path must be a field path prefixed with '$'");
+    }
+    List<String> keys = PATH_SPLITTER.splitToList(path.asString().getValue().substring(1));
+    AttributeReference attRef = toFieldPath(path);
+    String finalIndexField = indexField;
+    boolean finalPreserve = preserve;
+    return docs -> docs.flatMap(doc -> unwind(doc, attRef, keys, finalIndexField,
+        finalPreserve));
+  }
+
+  private static Stream<KvDocument> unwind(KvDocument doc, AttributeReference attRef,
+      List<String> keys, @Nullable String indexField, boolean preserve) {
+    KvValue<?> value = AttributeRefKvDocResolver.resolve(attRef, doc).orElse(null);
+    if (value instanceof KvArray && !((KvArray) value).isEmpty()) {
+      KvArray array = (KvArray) value;
+      return IntStream.range(0, array.size())
+          .mapToObj(index -> withIndex(withValue(doc, keys, 0, array.get(index)), indexField,
+              KvLong.of(index)));
+    }
+    if (!preserve && (value == null || value instanceof KvNull || value instanceof KvArray)) {
+      return Stream.empty();
+    }
+    //non array values are unwound as if they were arrays with a single element
+    return Stream.of(withIndex(doc, indexField, KvNull.getInstance()));
+  }
+
+  private static KvDocument withIndex(KvDocument doc, @Nullable String indexField,
+      KvValue<?> index) {
+    if (indexField == null) {
+      return doc;
+    }
+    return withValue(doc, ImmutableList.of(indexField), 0, index);
+  }
+
+  /**
+   * Returns a copy of the given document where the attribute on the given path has the given
+   * value. The documents that contain the attribute must exist, but the attribute itself may not.
+   */
+  private static KvDocument withValue(KvDocument doc, List<String> keys, int keyIndex,
+      KvValue<?> value) {
+    String key = keys.get(keyIndex);
+    boolean last = keyIndex == keys.size() - 1;
+    KvDocument.Builder builder = new KvDocument.Builder();
+    for (DocEntry<?> entry : doc) {
+      if (!entry.getKey().equals(key)) {
+        builder.putValue(entry.getKey(), entry.getValue());
+      } else if (last) {
+        builder.putValue(key, value);
+      } else {
+        builder.putValue(key, withValue((KvDocument) entry.getValue(), keys, keyIndex + 1, value));
+      }
+    }
+    if (last && !doc.containsKey(key)) {
+      builder.putValue(key, value);
+    }
+    return builder.build();
+  }
+
+  private static Stream<KvDocument> count(Stream<KvDocument> docs, String field) {
+    long count = docs.count();
+    if (count == 0) {
+      return Stream.empty();
+    }
+    return Stream.of(new KvDocument.Builder()
+        .putValue(field, count <= Integer.MAX_VALUE ? KvInteger.of((int) count) : KvLong.of(count))
+        .build());
+  }
+
+  /**
+   * Returns the value of the given expression on the given document or null if it refers to an
+   * attribute the document does not contain.
+   */
+  @Nullable
+  static KvValue<?> evaluate(BsonValue<?> expression, KvDocument doc) {
+    if (isFieldPath(expression)) {
+      return AttributeRefKvDocResolver.resolve(toFieldPath(expression), doc).orElse(null);
+    }
+    if (expression.isDocument()) {
+      KvDocument.Builder builder = new KvDocument.Builder();
+      for (Entry<?> entry : expression.asDocument()) {
+        KvValue<?> value = evaluate(entry.getValue(), doc);
+        if (value != null) {
+          builder.putValue(entry.getKey(), value);
+        }
+      }
+      return builder.build();
+    }
+    return MongoWpConverter.translate(expression);
+  }
+
+  private static void checkExpression(BsonValue<?> expression) throws CommandFailed {
+    if (expression.isString() && expression.asString().getValue().startsWith("$$")) {
+      throw new CommandFailed(COMMAND_NAME, "Variables like " + expression.asString().getValue()
+          + " are not supported right now");
+    }
+    if (expression.isDocument()) {
+      for (Entry<?> entry : expression.asDocument()) {
+        if (entry.getKey().startsWith("$")) {
+          throw new CommandFailed(COMMAND_NAME, "Expression " + entry.getKey() + " is not "
+              + "supported right now");
+        }
+        checkExpression(entry.getValue());
+      }
+    }
+  }
+
+  private static boolean isFieldPath(BsonValue<?> expression) {
+    if (!expression.isString()) {
+      return false;
+    }
+    String path = expression.asString().getValue();
+    return path.length() > 1 && path.charAt(0) == '$' && path.charAt(1) != '$';
+  }
+
+  private static AttributeReference toFieldPath(BsonValue<?> expression) {
+    return toAttributeReference(expression.asString().getValue().substring(1));
+  }
+
+  private static AttributeReference toAttributeReference(String path) {
+    AttributeReference.Builder refBuilder = new AttributeReference.Builder();
+    for (String subKey : PATH_SPLITTER.split(path)) {
+      refBuilder.addObjectKey(subKey);
+    }
+    return refBuilder.build();
+  }
+
+  /**
+   * A parsed {@code $group} stage.
+   */
+  static class GroupStage {
+
+    private final BsonValue<?> id;
+    private final List<AccumulatorInfo> accumulators;
+
+    private GroupStage(BsonValue<?> id, List<AccumulatorInfo> accumulators) {
+      this.id = id;
+      this.accumulators = accumulators;
+    }
+
+    /**
+     * Returns true iff the documents are grouped by a single attribute (or all of them on the same
+     * group), so the grouping can be done by {@link
+     * com.torodb.torod.TorodTransaction#groupByCriteria(String, String, QueryCriteria,
+     * AttributeReference, List)}.
+     */
+    boolean isGroupedByAttribute() {
+      return id.isNull() || isFieldPath(id);
+    }
+
+    /**
+     * Returns the attribute the documents are grouped by, or null if all documents belong to the
+     * same group.
+     *
+     * @throws IllegalStateException if the documents are not grouped by an attribute
+     */
+    @Nullable
+    AttributeReference getGroupBy() {
+      if (!isGroupedByAttribute()) {
+        throw new IllegalStateException("Documents are grouped by the expression " + id);
+      }
+      return id.isNull() ? null : toFieldPath(id);
+    }
+
+    List<AccumulatorInfo> getAccumulators() {
+      return accumulators;
+    }
+
+    private Stream<KvDocument> group(Stream<KvDocument> docs) {
+      DocumentGrouper grouper = new DocumentGrouper(accumulators);
+      docs.forEach(doc -> grouper.getGroup(evaluate(id, doc)).add(doc));
+      return grouper.getResult().stream();
+    }
+  }
+}
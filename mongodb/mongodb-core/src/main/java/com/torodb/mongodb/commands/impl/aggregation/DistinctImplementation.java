@@ -0,0 +1,87 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.commands.impl.aggregation;
+
+import com.google.common.base.Splitter;
+import com.torodb.core.cursors.Cursor;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.querycriteria.QueryCriteria;
+import com.torodb.core.logging.LoggerFactory;
+import com.torodb.kvdocument.conversion.mongowp.MongoWpConverter;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.mongodb.commands.impl.ReadTorodbCommandImpl;
+import com.torodb.mongodb.commands.signatures.aggregation.DistinctCommand.DistinctArgument;
+import com.torodb.mongodb.commands.signatures.aggregation.DistinctCommand.DistinctResult;
+import com.torodb.mongodb.core.MongodTransaction;
+import com.torodb.mongodb.language.QueryCriteriaTranslator;
+import com.torodb.mongowp.Status;
+import com.torodb.mongowp.bson.BsonValue;
+import com.torodb.mongowp.commands.Command;
+import com.torodb.mongowp.commands.Request;
+import com.torodb.mongowp.exceptions.CommandFailed;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Returns the distinct values of a field, letting the database compute them when the field is
+ * stored on the root doc part and the query can be evaluated by the database.
+ */
+@Singleton
+public class DistinctImplementation
+    implements ReadTorodbCommandImpl<DistinctArgument, DistinctResult> {
+
+  private final Logger logger;
+
+  @Inject
+  public DistinctImplementation(LoggerFactory loggerFactory) {
+    this.logger = loggerFactory.apply(this.getClass());
+  }
+
+  @Override
+  public Status<DistinctResult> apply(Request req,
+      Command<? super DistinctArgument, ? super DistinctResult> command, DistinctArgument arg,
+      MongodTransaction context) {
+    logger.trace("Distinct {} on {} with query {}", arg.getKey(), arg.getCollection(),
+        arg.getQuery());
+
+    QueryCriteria criteria;
+    try {
+      criteria = QueryCriteriaTranslator.translate("distinct", arg.getQuery());
+    } catch (CommandFailed ex) {
+      return Status.from(ex);
+    }
+    AttributeReference.Builder refBuilder = new AttributeReference.Builder();
+    for (String subKey : Splitter.on('.').split(arg.getKey())) {
+      refBuilder.addObjectKey(subKey);
+    }
+
+    List<BsonValue<?>> values = new ArrayList<>();
+    try (Cursor<KvValue<?>> cursor = context.getTorodTransaction().findDistinct(
+        req.getDatabase(), arg.getCollection(), refBuilder.build(), criteria)) {
+      cursor.forEachRemaining(value -> values.add(MongoWpConverter.translate(value)));
+    }
+    return Status.ok(new DistinctResult(values));
+  }
+
+}
@@ -18,16 +18,15 @@
 
 package com.torodb.mongodb.commands.impl.general;
 
-import com.torodb.core.language.AttributeReference;
-import com.torodb.core.language.AttributeReference.Builder;
+import com.torodb.core.cursors.IteratorCursor;
+import com.torodb.core.language.querycriteria.QueryCriteria;
 import com.torodb.core.logging.LoggerFactory;
-import com.torodb.kvdocument.values.KvValue;
 import com.torodb.mongodb.commands.impl.WriteTorodbCommandImpl;
 import com.torodb.mongodb.commands.signatures.general.DeleteCommand.DeleteArgument;
 import com.torodb.mongodb.commands.signatures.general.DeleteCommand.DeleteStatement;
 import com.torodb.mongodb.core.MongodMetrics;
 import com.torodb.mongodb.core.WriteMongodTransaction;
-import com.torodb.mongowp.ErrorCode;
+import com.torodb.mongodb.language.QueryCriteriaTranslator;
 import com.torodb.mongowp.Status;
 import com.torodb.mongowp.bson.BsonDocument;
 import com.torodb.mongowp.commands.Command;
@@ -36,6 +35,7 @@ import com.torodb.mongowp.exceptions.CommandFailed;
 import com.torodb.torod.SharedWriteTorodTransaction;
 import org.apache.logging.log4j.Logger;
 
+import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -62,25 +62,16 @@ public class DeleteImplementation implements WriteTorodbCommandImpl<DeleteArgume
     for (DeleteStatement deleteStatement : arg.getStatements()) {
       BsonDocument query = deleteStatement.getQuery();
 
-      switch (query.size()) {
-        case 0: {
-          deleted += context.getTorodTransaction()
-              .deleteAll(req.getDatabase(), arg.getCollection());
-          break;
-        }
-        case 1: {
-          try {
-            logDeleteCommand(arg);
-            deleted += deleteByAttribute(context.getTorodTransaction(), req.getDatabase(), arg
-                .getCollection(), query);
-          } catch (CommandFailed ex) {
-            return Status.from(ex);
-          }
-          break;
-        }
-        default: {
-          return Status.from(ErrorCode.COMMAND_FAILED,
-              "The given query is not supported right now");
+      if (query.isEmpty()) {
+        deleted += context.getTorodTransaction()
+            .deleteAll(req.getDatabase(), arg.getCollection());
+      } else {
+        try {
+          logDeleteCommand(arg);
+          deleted += deleteByCriteria(context.getTorodTransaction(), req.getDatabase(), arg
+              .getCollection(), query);
+        } catch (CommandFailed ex) {
+          return Status.from(ex);
         }
       }
     }
@@ -89,11 +80,14 @@ public class DeleteImplementation implements WriteTorodbCommandImpl<DeleteArgume
 
   }
 
-  private long deleteByAttribute(SharedWriteTorodTransaction transaction, String db, String col,
+  private long deleteByCriteria(SharedWriteTorodTransaction transaction, String db, String col,
       BsonDocument query) throws CommandFailed {
-    Builder refBuilder = new AttributeReference.Builder();
-    KvValue<?> kvValue = AttrRefHelper.calculateValueAndAttRef(query, refBuilder);
-    return transaction.deleteByAttRef(db, col, refBuilder.build(), kvValue);
+    QueryCriteria criteria = QueryCriteriaTranslator.translate("delete", query);
+    List<Integer> dids = transaction.findByCriteria(db, col, criteria)
+        .asDidCursor()
+        .getRemaining();
+    transaction.delete(db, col, new IteratorCursor<>(dids.iterator()));
+    return dids.size();
   }
 
   private void logDeleteCommand(DeleteArgument arg) {
@@ -18,29 +18,37 @@
 
 package com.torodb.mongodb.commands.impl.general;
 
+import com.google.common.base.Splitter;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.language.AttributeReference;
-import com.torodb.core.language.AttributeReference.Builder;
+import com.torodb.core.language.querycriteria.QueryCriteria;
 import com.torodb.core.logging.LoggerFactory;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
 import com.torodb.kvdocument.conversion.mongowp.ToBsonDocumentTranslator;
 import com.torodb.kvdocument.values.KvDocument;
-import com.torodb.kvdocument.values.KvValue;
 import com.torodb.mongodb.commands.impl.ReadTorodbCommandImpl;
 import com.torodb.mongodb.commands.pojos.CursorResult;
 import com.torodb.mongodb.commands.signatures.general.FindCommand.FindArgument;
 import com.torodb.mongodb.commands.signatures.general.FindCommand.FindResult;
 import com.torodb.mongodb.core.MongodTransaction;
+import com.torodb.mongodb.language.QueryCriteriaTranslator;
 import com.torodb.mongowp.ErrorCode;
 import com.torodb.mongowp.Status;
 import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.BsonDocument.Entry;
+import com.torodb.mongowp.bson.BsonValue;
 import com.torodb.mongowp.commands.Command;
 import com.torodb.mongowp.commands.Request;
 import com.torodb.mongowp.exceptions.CommandFailed;
+import com.torodb.torod.IndexFieldInfo;
+import com.torodb.torod.SortFieldInfo;
 import com.torodb.torod.TorodTransaction;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.OptionalLong;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -65,26 +73,18 @@ public class FindImplementation implements ReadTorodbCommandImpl<FindArgument, F
 
     Cursor<BsonDocument> cursor;
 
-    switch (filter.size()) {
-      case 0: {
-        cursor = context.getTorodTransaction().findAll(req.getDatabase(), arg.getCollection())
-            .asDocCursor()
-            .transform(t -> t.getRoot())
+    if (filter.isEmpty() && arg.getSort().isEmpty() && arg.getSkip() == 0
+        && arg.getLimit() == 0) {
+      cursor = context.getTorodTransaction().findAll(req.getDatabase(), arg.getCollection())
+          .asDocCursor()
+          .transform(t -> t.getRoot())
+          .transform(ToBsonDocumentTranslator.getInstance());
+    } else {
+      try {
+        cursor = getByCriteriaCursor(context.getTorodTransaction(), req.getDatabase(), arg)
             .transform(ToBsonDocumentTranslator.getInstance());
-        break;
-      }
-      case 1: {
-        try {
-          cursor = getByAttributeCursor(context.getTorodTransaction(), req.getDatabase(), arg
-              .getCollection(), filter)
-              .transform(ToBsonDocumentTranslator.getInstance());
-        } catch (CommandFailed ex) {
-          return Status.from(ex);
-        }
-        break;
-      }
-      default: {
-        return Status.from(ErrorCode.COMMAND_FAILED, "The given query is not supported right now");
+      } catch (CommandFailed ex) {
+        return Status.from(ex);
       }
     }
 
@@ -103,17 +103,65 @@ public class FindImplementation implements ReadTorodbCommandImpl<FindArgument, F
 
   }
 
-  private Cursor<KvDocument> getByAttributeCursor(TorodTransaction transaction, String db,
-      String col, BsonDocument filter) throws CommandFailed {
-
-    Builder refBuilder = new AttributeReference.Builder();
-    KvValue<?> kvValue = AttrRefHelper.calculateValueAndAttRef(filter, refBuilder);
+  private Cursor<KvDocument> getByCriteriaCursor(TorodTransaction transaction, String db,
+      FindArgument arg) throws CommandFailed {
+    QueryCriteria criteria = QueryCriteriaTranslator.translate("find", arg.getFilter(),
+        () -> getTextIndexAttributes(transaction, db, arg.getCollection()));
+    List<SortFieldInfo> sort = translateSort(arg.getSort());
+    if (arg.getSkip() < 0) {
+      throw new CommandFailed("find", "skip value must be non-negative");
+    }
+    //a negative limit means that only one batch must be returned, which is always the case here
+    long limit = Math.abs(arg.getLimit());
 
-    return transaction.findByAttRef(db, col, refBuilder.build(), kvValue)
+    return transaction.findByCriteria(db, arg.getCollection(), criteria, sort, arg.getSkip(),
+        limit)
         .asDocCursor()
         .transform(t -> t.getRoot());
   }
 
+  private List<AttributeReference> getTextIndexAttributes(TorodTransaction transaction, String db,
+      String collection) {
+    return transaction.getIndexesInfo(db, collection)
+        .flatMap(indexInfo -> indexInfo.getFields().stream())
+        .filter(field -> field.getOrdering() == FieldIndexOrdering.TEXT)
+        .map(IndexFieldInfo::getAttributeReference)
+        .collect(Collectors.toList());
+  }
+
+  private List<SortFieldInfo> translateSort(BsonDocument sort) throws CommandFailed {
+    List<SortFieldInfo> result = new ArrayList<>(sort.size());
+    for (Entry<?> entry : sort) {
+      BsonValue<?> value = entry.getValue();
+      if (isTextScore(value)) {
+        if (sort.size() > 1) {
+          throw new CommandFailed("find", "Sort on textScore together with other attributes is "
+              + "not supported right now");
+        }
+        //text searches without other sort are always returned by relevance
+        continue;
+      }
+      if (!value.isNumber() || value.asNumber().doubleValue() == 0) {
+        throw new CommandFailed("find", "Sort on " + entry.getKey() + " must be 1 or -1. "
+            + "Other sort specifications are not supported right now");
+      }
+      AttributeReference.Builder refBuilder = new AttributeReference.Builder();
+      for (String subKey : Splitter.on('.').split(entry.getKey())) {
+        refBuilder.addObjectKey(subKey);
+      }
+      result.add(new SortFieldInfo(refBuilder.build(), value.asNumber().doubleValue() > 0));
+    }
+    return result;
+  }
+
+  private boolean isTextScore(BsonValue<?> value) {
+    if (!value.isDocument() || value.asDocument().size() != 1) {
+      return false;
+    }
+    BsonValue<?> meta = value.asDocument().get("$meta");
+    return meta != null && meta.isString() && meta.asString().getValue().equals("textScore");
+  }
+
   private void logFindCommand(FindArgument arg) {
     logger.trace("Find into {} filter {}", arg.getCollection(), arg.getFilter());
   }
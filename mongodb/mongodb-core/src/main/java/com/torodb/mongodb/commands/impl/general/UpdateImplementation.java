@@ -25,9 +25,9 @@ import com.torodb.core.exceptions.UserWrappedException;
 import com.torodb.core.exceptions.user.UpdateException;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.language.AttributeReference;
-import com.torodb.core.language.AttributeReference.Builder;
 import com.torodb.core.language.AttributeReference.Key;
 import com.torodb.core.language.AttributeReference.ObjectKey;
+import com.torodb.core.language.querycriteria.QueryCriteria;
 import com.torodb.core.transaction.metainf.FieldIndexOrdering;
 import com.torodb.kvdocument.conversion.mongowp.MongoWpConverter;
 import com.torodb.kvdocument.values.KvDocument;
@@ -41,6 +41,7 @@ import com.torodb.mongodb.commands.signatures.general.UpdateCommand.UpsertResult
 import com.torodb.mongodb.core.MongodMetrics;
 import com.torodb.mongodb.core.WriteMongodTransaction;
 import com.torodb.mongodb.language.ObjectIdFactory;
+import com.torodb.mongodb.language.QueryCriteriaTranslator;
 import com.torodb.mongodb.language.UpdateActionTranslator;
 import com.torodb.mongodb.language.update.SetDocumentUpdateAction;
 import com.torodb.mongodb.language.update.UpdateAction;
@@ -93,25 +94,16 @@ public class UpdateImplementation implements WriteTorodbCommandImpl<UpdateArgume
         BsonDocument query = updateStatement.getQuery();
         UpdateAction updateAction = UpdateActionTranslator.translate(updateStatement.getUpdate());
         Cursor<ToroDocument> candidatesCursor;
-        switch (query.size()) {
-          case 0: {
-            candidatesCursor = context.getTorodTransaction()
-                .findAll(req.getDatabase(), arg.getCollection())
-                .asDocCursor();
-            break;
-          }
-          case 1: {
-            try {
-              candidatesCursor = findByAttribute(context.getTorodTransaction(), req.getDatabase(),
-                  arg.getCollection(), query);
-            } catch (CommandFailed ex) {
-              return Status.from(ex);
-            }
-            break;
-          }
-          default: {
-            return Status.from(ErrorCode.COMMAND_FAILED,
-                "The given query is not supported right now");
+        if (query.isEmpty()) {
+          candidatesCursor = context.getTorodTransaction()
+              .findAll(req.getDatabase(), arg.getCollection())
+              .asDocCursor();
+        } else {
+          try {
+            candidatesCursor = findByCriteria(context.getTorodTransaction(), req.getDatabase(),
+                arg.getCollection(), query);
+          } catch (CommandFailed ex) {
+            return Status.from(ex);
           }
         }
 
@@ -212,12 +204,11 @@ public class UpdateImplementation implements WriteTorodbCommandImpl<UpdateArgume
     return builder.build();
   }
 
-  private Cursor<ToroDocument> findByAttribute(SharedWriteTorodTransaction transaction, String db,
-      String col, BsonDocument query) throws CommandFailed, UserException {
-    Builder refBuilder = new AttributeReference.Builder();
-    KvValue<?> kvValue = AttrRefHelper.calculateValueAndAttRef(query, refBuilder);
+  private Cursor<ToroDocument> findByCriteria(SharedWriteTorodTransaction transaction, String db,
+      String col, BsonDocument query) throws CommandFailed {
+    QueryCriteria criteria = QueryCriteriaTranslator.translate("update", query);
 
-    return transaction.findByAttRef(db, col, refBuilder.build(), kvValue).asDocCursor();
+    return transaction.findByCriteria(db, col, criteria).asDocCursor();
   }
 
 }
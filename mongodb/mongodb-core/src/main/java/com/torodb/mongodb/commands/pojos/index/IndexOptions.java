@@ -20,6 +20,7 @@ package com.torodb.mongodb.commands.pojos.index;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
 import com.torodb.mongodb.commands.pojos.index.type.AscIndexType;
 import com.torodb.mongodb.commands.pojos.index.type.DescIndexType;
 import com.torodb.mongodb.commands.pojos.index.type.GeoHaystackIndexType;
@@ -62,6 +63,13 @@ public class IndexOptions {
   private static final String EXPIRE_AFTER_SECONDS_FIELD_NAME = "expireAfterSeconds";
   private static final String KEYS_FIELD_NAME = "key";
   private static final String STORAGE_ENGINE_FIELD_NAME = "storageEngine";
+  private static final String PARTIAL_FILTER_EXPRESSION_FIELD_NAME = "partialFilterExpression";
+  private static final String EXISTS_OPERATOR = "$exists";
+  private static final String WEIGHTS_FIELD_NAME = "weights";
+  private static final String DEFAULT_LANGUAGE_FIELD_NAME = "default_language";
+  private static final String TEXT_KEY = "_fts";
+  private static final String TEXT_EXTRA_KEY = "_ftsx";
+  private static final String WILDCARD_KEY = "$**";
   private static final NumberField<?> VERSION_FIELD = new NumberField<>(VERSION_FIELD_NAME);
   private static final StringField NAME_FIELD = new StringField(NAME_FIELD_NAME);
   private static final StringField NAMESPACE_FIELD = new StringField(NAMESPACE_FIELD_NAME);
@@ -176,6 +184,119 @@ public class IndexOptions {
     return otherProps;
   }
 
+  /**
+   * Returns the partial filter expression of this index or null if it has not been specified.
+   */
+  @Nullable
+  public BsonValue<?> getPartialFilterExpression() {
+    return otherProps.get(PARTIAL_FILTER_EXPRESSION_FIELD_NAME);
+  }
+
+  /**
+   * Returns true if this index only indexes the documents that contain its key, either because it
+   * is sparse or because its partial filter expression is {@code {<key>: {$exists: true}}}.
+   *
+   * <p>Partial filter expressions that select the documents by other conditions can not be
+   * expressed this way.
+   */
+  public boolean isSparseOrEquivalentPartial() {
+    BsonValue<?> filter = getPartialFilterExpression();
+    if (filter == null) {
+      return sparse;
+    }
+    if (keys.size() != 1 || !filter.isDocument() || filter.asDocument().size() != 1) {
+      return false;
+    }
+    Entry<?> filterEntry = filter.asDocument().getFirstEntry();
+    if (!filterEntry.getKey().equals(PATH_JOINER.join(keys.get(0).getKeys()))
+        || !filterEntry.getValue().isDocument()) {
+      return false;
+    }
+    BsonDocument condition = filterEntry.getValue().asDocument();
+    BsonValue<?> exists = condition.get(EXISTS_OPERATOR);
+    return condition.size() == 1 && exists != null && exists.isBoolean()
+        && exists.asBoolean().getPrimitiveValue();
+  }
+
+  /**
+   * Returns the reason why this index can not be created if it is a hashed index on more than one
+   * key or a unique hashed index, or null otherwise.
+   */
+  @Nullable
+  public String getHashedIndexError() {
+    if (keys.stream().noneMatch(key -> key.getType() == HashedIndexType.INSTANCE)) {
+      return null;
+    }
+    if (keys.size() > 1) {
+      return "Currently only single field hashed index supported.";
+    }
+    if (unique) {
+      return "Currently hashed indexes cannot guarantee uniqueness. Use a regular index.";
+    }
+    return null;
+  }
+
+  /**
+   * Returns the keys of this index, with the attributes of a text index as text keys.
+   *
+   * <p>MongoDB normalizes the key pattern of text indexes to {@code {_fts: "text", _ftsx: 1}} and
+   * stores the indexed attributes as the keys of the {@code weights} option, which is the way they
+   * are replicated. This normalized key pattern is replaced by a text key for each attribute.
+   */
+  public List<Key> getExpandedKeys() {
+    boolean normalizedText = keys.stream()
+        .anyMatch(key -> key.getType() == TextIndexType.INSTANCE
+            && key.getKeys().equals(Collections.singletonList(TEXT_KEY)));
+    BsonValue<?> weights = otherProps.get(WEIGHTS_FIELD_NAME);
+    if (!normalizedText || weights == null || !weights.isDocument()) {
+      return getKeys();
+    }
+    List<Key> expandedKeys = new ArrayList<>(keys.size());
+    for (Key key : keys) {
+      List<String> path = key.getKeys();
+      if (path.equals(Collections.singletonList(TEXT_KEY))) {
+        for (Entry<?> weight : weights.asDocument()) {
+          expandedKeys.add(new Key(PATH_SPLITER.splitToList(weight.getKey()),
+              TextIndexType.INSTANCE));
+        }
+      } else if (!path.equals(Collections.singletonList(TEXT_EXTRA_KEY))) {
+        expandedKeys.add(key);
+      }
+    }
+    return expandedKeys;
+  }
+
+  /**
+   * Returns the reason why this index can not be created if it is a text index that is not
+   * supported, or null otherwise.
+   *
+   * <p>Text indexes can only contain text keys, must not be unique and must use english as their
+   * default language. The weights of their attributes are ignored.
+   */
+  @Nullable
+  public String getTextIndexError() {
+    List<Key> expandedKeys = getExpandedKeys();
+    if (expandedKeys.stream().noneMatch(key -> key.getType() == TextIndexType.INSTANCE)) {
+      return null;
+    }
+    if (expandedKeys.stream().anyMatch(key -> key.getType() != TextIndexType.INSTANCE)) {
+      return "Currently text indexes can only contain text keys.";
+    }
+    if (expandedKeys.stream().anyMatch(key -> key.getKeys().contains(WILDCARD_KEY))) {
+      return "Currently wildcard text indexes are not supported.";
+    }
+    if (unique) {
+      return "Currently text indexes cannot guarantee uniqueness.";
+    }
+    BsonValue<?> defaultLanguage = otherProps.get(DEFAULT_LANGUAGE_FIELD_NAME);
+    if (defaultLanguage != null && !(defaultLanguage.isString()
+        && (defaultLanguage.asString().getValue().equals("english")
+        || defaultLanguage.asString().getValue().equals("en")))) {
+      return "Currently english is the only supported default_language of text indexes.";
+    }
+    return null;
+  }
+
   public BsonDocument marshall() {
 
     BsonDocumentBuilder keysDoc = new BsonDocumentBuilder();
@@ -387,6 +508,24 @@ public class IndexOptions {
       return indexType;
     }
 
+    /**
+     * Returns the index type that indexes a field with the given ordering.
+     */
+    public static IndexType fromOrdering(FieldIndexOrdering ordering) {
+      switch (ordering) {
+        case ASC:
+          return asc.getIndexType();
+        case DESC:
+          return desc.getIndexType();
+        case HASHED:
+          return hashed.getIndexType();
+        case TEXT:
+          return text.getIndexType();
+        default:
+          throw new AssertionError("Unexpected ordering " + ordering);
+      }
+    }
+
     public static boolean contains(IndexType indexType) {
       for (KnownType knownType : values()) {
         if (knownType.indexType == indexType) {
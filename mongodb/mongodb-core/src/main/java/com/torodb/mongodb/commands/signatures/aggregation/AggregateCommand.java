@@ -0,0 +1,197 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.commands.signatures.aggregation;
+
+import com.google.common.collect.Lists;
+import com.torodb.mongodb.commands.pojos.CursorResult;
+import com.torodb.mongodb.commands.signatures.aggregation.AggregateCommand.AggregateArgument;
+import com.torodb.mongodb.commands.signatures.aggregation.AggregateCommand.AggregateResult;
+import com.torodb.mongowp.bson.BsonArray;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.BsonValue;
+import com.torodb.mongowp.commands.impl.AbstractNotAliasableCommand;
+import com.torodb.mongowp.exceptions.BadValueException;
+import com.torodb.mongowp.exceptions.NoSuchKeyException;
+import com.torodb.mongowp.exceptions.TypesMismatchException;
+import com.torodb.mongowp.fields.ArrayField;
+import com.torodb.mongowp.fields.DocField;
+import com.torodb.mongowp.fields.NumberField;
+import com.torodb.mongowp.fields.StringField;
+import com.torodb.mongowp.utils.BsonDocumentBuilder;
+import com.torodb.mongowp.utils.BsonReaderTool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * The {@code aggregate} command, that runs an aggregation pipeline over a collection.
+ *
+ * <p>The result is always returned as a cursor, even if the request does not contain the
+ * {@code cursor} option.
+ */
+public class AggregateCommand
+    extends AbstractNotAliasableCommand<AggregateArgument, AggregateResult> {
+
+  public static final AggregateCommand INSTANCE = new AggregateCommand();
+  private static final String COMMAND_NAME = "aggregate";
+
+  private AggregateCommand() {
+    super(COMMAND_NAME);
+  }
+
+  @Override
+  public Class<? extends AggregateArgument> getArgClass() {
+    return AggregateArgument.class;
+  }
+
+  @Override
+  public AggregateArgument unmarshallArg(BsonDocument requestDoc)
+      throws TypesMismatchException, NoSuchKeyException, BadValueException {
+    return AggregateArgument.unmarshall(requestDoc);
+  }
+
+  @Override
+  public BsonDocument marshallArg(AggregateArgument request) {
+    return request.marshall();
+  }
+
+  @Override
+  public Class<? extends AggregateResult> getResultClass() {
+    return AggregateResult.class;
+  }
+
+  @Override
+  public BsonDocument marshallResult(AggregateResult reply) {
+    return reply.marshall();
+  }
+
+  @Override
+  public AggregateResult unmarshallResult(BsonDocument replyDoc)
+      throws TypesMismatchException, NoSuchKeyException, BadValueException {
+    return AggregateResult.unmarshall(replyDoc);
+  }
+
+  public static class AggregateArgument {
+
+    private static final StringField COLLECTION_FIELD = new StringField(COMMAND_NAME);
+    private static final ArrayField PIPELINE_FIELD = new ArrayField("pipeline");
+    private static final DocField CURSOR_FIELD = new DocField("cursor");
+    private static final NumberField BATCH_SIZE_FIELD = new NumberField("batchSize");
+
+    private final String collection;
+    private final List<BsonDocument> pipeline;
+    @Nonnegative
+    private final long batchSize;
+
+    /**
+     * @param pipeline  the stages of the pipeline, each one a document with a single field
+     * @param batchSize the max number of documents to return on the first batch or 0 to use the
+     *                  default batch size
+     */
+    public AggregateArgument(String collection, List<BsonDocument> pipeline,
+        @Nonnegative long batchSize) {
+      this.collection = collection;
+      this.pipeline = pipeline;
+      this.batchSize = batchSize;
+    }
+
+    @Nonnull
+    public String getCollection() {
+      return collection;
+    }
+
+    public List<BsonDocument> getPipeline() {
+      return Collections.unmodifiableList(pipeline);
+    }
+
+    @Nonnegative
+    public long getBatchSize() {
+      return batchSize;
+    }
+
+    private static AggregateArgument unmarshall(BsonDocument requestDoc)
+        throws TypesMismatchException, NoSuchKeyException, BadValueException {
+      String collection = BsonReaderTool.getString(requestDoc, COLLECTION_FIELD);
+
+      BsonArray pipelineArray = BsonReaderTool.getArray(requestDoc, PIPELINE_FIELD);
+      List<BsonDocument> pipeline = Lists.newArrayListWithCapacity(pipelineArray.size());
+      for (BsonValue<?> element : pipelineArray) {
+        if (!element.isDocument() || element.asDocument().size() != 1) {
+          throw new BadValueException("A pipeline stage specification object must contain "
+              + "exactly one field.");
+        }
+        pipeline.add(element.asDocument());
+      }
+
+      long batchSize = 0;
+      BsonDocument cursor = BsonReaderTool.getDocument(requestDoc, CURSOR_FIELD, null);
+      if (cursor != null && cursor.containsKey(BATCH_SIZE_FIELD.getFieldName())) {
+        batchSize = BsonReaderTool.getNumeric(cursor, BATCH_SIZE_FIELD).longValue();
+        if (batchSize < 0) {
+          throw new BadValueException("Cursor batchSize must not be negative");
+        }
+      }
+      return new AggregateArgument(collection, pipeline, batchSize);
+    }
+
+    private BsonDocument marshall() {
+      List<BsonValue<?>> stages = new ArrayList<>(pipeline);
+      BsonDocumentBuilder cursor = new BsonDocumentBuilder();
+      if (batchSize != 0) {
+        cursor.appendNumber(BATCH_SIZE_FIELD, batchSize);
+      }
+      return new BsonDocumentBuilder()
+          .append(COLLECTION_FIELD, collection)
+          .append(PIPELINE_FIELD, stages)
+          .append(CURSOR_FIELD, cursor.build())
+          .build();
+    }
+  }
+
+  public static class AggregateResult {
+
+    private static final DocField CURSOR_FIELD = new DocField("cursor");
+    private final CursorResult<BsonDocument> cursor;
+
+    public AggregateResult(CursorResult<BsonDocument> cursor) {
+      this.cursor = cursor;
+    }
+
+    public CursorResult<BsonDocument> getCursor() {
+      return cursor;
+    }
+
+    private static AggregateResult unmarshall(BsonDocument reply)
+        throws TypesMismatchException, NoSuchKeyException, BadValueException {
+      BsonDocument cursorDoc = BsonReaderTool.getDocument(reply, CURSOR_FIELD);
+
+      return new AggregateResult(CursorResult.unmarshall(cursorDoc, BsonValue::asDocument));
+    }
+
+    private BsonDocument marshall() {
+      return new BsonDocumentBuilder()
+          .append(CURSOR_FIELD, cursor.marshall(doc -> doc))
+          .build();
+    }
+  }
+}
@@ -20,7 +20,11 @@ package com.torodb.mongodb.commands.signatures.aggregation;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.torodb.mongodb.commands.signatures.aggregation.AggregateCommand.AggregateArgument;
+import com.torodb.mongodb.commands.signatures.aggregation.AggregateCommand.AggregateResult;
 import com.torodb.mongodb.commands.signatures.aggregation.CountCommand.CountArgument;
+import com.torodb.mongodb.commands.signatures.aggregation.DistinctCommand.DistinctArgument;
+import com.torodb.mongodb.commands.signatures.aggregation.DistinctCommand.DistinctResult;
 import com.torodb.mongowp.commands.Command;
 import com.torodb.mongowp.commands.CommandImplementation;
 
@@ -33,7 +37,9 @@ import java.util.Map;
 public class AggregationCommands implements Iterable<Command> {
 
   private final ImmutableList<Command> commands = ImmutableList.<Command>of(
-      CountCommand.INSTANCE
+      CountCommand.INSTANCE,
+      AggregateCommand.INSTANCE,
+      DistinctCommand.INSTANCE
   );
 
   @Override
@@ -47,9 +53,15 @@ public class AggregationCommands implements Iterable<Command> {
 
     public abstract CommandImplementation<CountArgument, Long, ? super ContextT> getCountImplementation();
 
+    public abstract CommandImplementation<AggregateArgument, AggregateResult, ? super ContextT> getAggregateImplementation();
+
+    public abstract CommandImplementation<DistinctArgument, DistinctResult, ? super ContextT> getDistinctImplementation();
+
     private Map<Command<?, ?>, CommandImplementation<?, ?, ? super ContextT>> createMap() {
       return ImmutableMap.<Command<?, ?>, CommandImplementation<?, ?, ? super ContextT>>builder()
           .put(CountCommand.INSTANCE, getCountImplementation())
+          .put(AggregateCommand.INSTANCE, getAggregateImplementation())
+          .put(DistinctCommand.INSTANCE, getDistinctImplementation())
           .build();
     }
 
@@ -65,7 +65,7 @@ public class CountCommand extends AbstractNotAliasableCommand<CountArgument, Lon
 
   @Override
   public BsonDocument marshallArg(CountArgument request) {
-    throw new UnsupportedOperationException("Not supported yet."); //TODO
+    return request.marshall();
   }
 
   @Override
@@ -189,6 +189,24 @@ public class CountCommand extends AbstractNotAliasableCommand<CountArgument, Lon
 
       return new CountArgument(collection, query, hint, limit, skip);
     }
+
+    private BsonDocument marshall() {
+      BsonDocumentBuilder builder = new BsonDocumentBuilder()
+          .append(COUNT_FIELD, collection);
+      if (query != null && !query.isEmpty()) {
+        builder.append(QUERY_FIELD, query);
+      }
+      if (limit != 0) {
+        builder.append(LIMIT_FIELD, limit);
+      }
+      if (skip != 0) {
+        builder.append(SKIP_FIELD, skip);
+      }
+      if (hint != null) {
+        builder.appendUnsafe(HINT_FIELD_NAME, DefaultBsonValues.newString(hint));
+      }
+      return builder.build();
+    }
   }
 
 }
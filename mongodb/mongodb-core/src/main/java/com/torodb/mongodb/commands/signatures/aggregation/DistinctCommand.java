@@ -0,0 +1,179 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.commands.signatures.aggregation;
+
+import com.google.common.collect.Lists;
+import com.torodb.mongodb.commands.signatures.aggregation.DistinctCommand.DistinctArgument;
+import com.torodb.mongodb.commands.signatures.aggregation.DistinctCommand.DistinctResult;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.BsonValue;
+import com.torodb.mongowp.bson.utils.DefaultBsonValues;
+import com.torodb.mongowp.commands.impl.AbstractNotAliasableCommand;
+import com.torodb.mongowp.exceptions.BadValueException;
+import com.torodb.mongowp.exceptions.NoSuchKeyException;
+import com.torodb.mongowp.exceptions.TypesMismatchException;
+import com.torodb.mongowp.fields.ArrayField;
+import com.torodb.mongowp.fields.DocField;
+import com.torodb.mongowp.fields.StringField;
+import com.torodb.mongowp.utils.BsonDocumentBuilder;
+import com.torodb.mongowp.utils.BsonReaderTool;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The {@code distinct} command, that returns the distinct values a field has on the documents of
+ * a collection that fulfill an optional query.
+ */
+public class DistinctCommand extends AbstractNotAliasableCommand<DistinctArgument, DistinctResult> {
+
+  public static final DistinctCommand INSTANCE = new DistinctCommand();
+  private static final String COMMAND_NAME = "distinct";
+
+  private DistinctCommand() {
+    super(COMMAND_NAME);
+  }
+
+  @Override
+  public Class<? extends DistinctArgument> getArgClass() {
+    return DistinctArgument.class;
+  }
+
+  @Override
+  public DistinctArgument unmarshallArg(BsonDocument requestDoc)
+      throws TypesMismatchException, NoSuchKeyException, BadValueException {
+    return DistinctArgument.unmarshall(requestDoc);
+  }
+
+  @Override
+  public BsonDocument marshallArg(DistinctArgument request) {
+    return request.marshall();
+  }
+
+  @Override
+  public Class<? extends DistinctResult> getResultClass() {
+    return DistinctResult.class;
+  }
+
+  @Override
+  public BsonDocument marshallResult(DistinctResult reply) {
+    return reply.marshall();
+  }
+
+  @Override
+  public DistinctResult unmarshallResult(BsonDocument replyDoc)
+      throws TypesMismatchException, NoSuchKeyException {
+    return DistinctResult.unmarshall(replyDoc);
+  }
+
+  public static class DistinctArgument {
+
+    private static final StringField COLLECTION_FIELD = new StringField(COMMAND_NAME);
+    private static final StringField KEY_FIELD = new StringField("key");
+    private static final DocField QUERY_FIELD = new DocField("query");
+
+    private final String collection;
+    private final String key;
+    private final BsonDocument query;
+
+    /**
+     * @param key   the path of the field whose values are returned
+     * @param query the query the documents must fulfill, which is empty if all documents are
+     *              considered
+     */
+    public DistinctArgument(String collection, String key, BsonDocument query) {
+      this.collection = collection;
+      this.key = key;
+      this.query = query;
+    }
+
+    @Nonnull
+    public String getCollection() {
+      return collection;
+    }
+
+    @Nonnull
+    public String getKey() {
+      return key;
+    }
+
+    @Nonnull
+    public BsonDocument getQuery() {
+      return query;
+    }
+
+    private static DistinctArgument unmarshall(BsonDocument requestDoc)
+        throws TypesMismatchException, NoSuchKeyException, BadValueException {
+      String collection = BsonReaderTool.getString(requestDoc, COLLECTION_FIELD);
+      String key = BsonReaderTool.getString(requestDoc, KEY_FIELD);
+      if (key.isEmpty()) {
+        throw new BadValueException("The distinct key must not be empty");
+      }
+
+      BsonDocument query;
+      try {
+        query = BsonReaderTool.getDocument(requestDoc, QUERY_FIELD);
+      } catch (NoSuchKeyException ex) {
+        query = DefaultBsonValues.EMPTY_DOC;
+      } catch (TypesMismatchException ex) {
+        //like on count, some drivers send null when no query is specified
+        query = DefaultBsonValues.EMPTY_DOC;
+      }
+      return new DistinctArgument(collection, key, query);
+    }
+
+    private BsonDocument marshall() {
+      BsonDocumentBuilder builder = new BsonDocumentBuilder()
+          .append(COLLECTION_FIELD, collection)
+          .append(KEY_FIELD, key);
+      if (!query.isEmpty()) {
+        builder.append(QUERY_FIELD, query);
+      }
+      return builder.build();
+    }
+  }
+
+  public static class DistinctResult {
+
+    private static final ArrayField VALUES_FIELD = new ArrayField("values");
+
+    private final List<BsonValue<?>> values;
+
+    public DistinctResult(List<BsonValue<?>> values) {
+      this.values = values;
+    }
+
+    public List<BsonValue<?>> getValues() {
+      return Collections.unmodifiableList(values);
+    }
+
+    private static DistinctResult unmarshall(BsonDocument reply)
+        throws TypesMismatchException, NoSuchKeyException {
+      return new DistinctResult(Lists.newArrayList(BsonReaderTool.getArray(reply, VALUES_FIELD)));
+    }
+
+    private BsonDocument marshall() {
+      return new BsonDocumentBuilder()
+          .append(VALUES_FIELD, values)
+          .build();
+    }
+  }
+}
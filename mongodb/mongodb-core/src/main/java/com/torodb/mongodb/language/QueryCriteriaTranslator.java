@@ -0,0 +1,325 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.mongodb.language;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Splitter;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.querycriteria.AndQueryCriteria;
+import com.torodb.core.language.querycriteria.ComparisonQueryCriteria;
+import com.torodb.core.language.querycriteria.ComparisonQueryCriteria.Operator;
+import com.torodb.core.language.querycriteria.ExistsQueryCriteria;
+import com.torodb.core.language.querycriteria.InQueryCriteria;
+import com.torodb.core.language.querycriteria.NotQueryCriteria;
+import com.torodb.core.language.querycriteria.OrQueryCriteria;
+import com.torodb.core.language.querycriteria.QueryCriteria;
+import com.torodb.core.language.querycriteria.TextQueryCriteria;
+import com.torodb.core.language.querycriteria.TrueQueryCriteria;
+import com.torodb.kvdocument.conversion.mongowp.MongoWpConverter;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.BsonDocument.Entry;
+import com.torodb.mongowp.bson.BsonValue;
+import com.torodb.mongowp.exceptions.CommandFailed;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+/**
+ * Translates the filter document of a find, update or delete command into a
+ * {@link QueryCriteria}.
+ *
+ * <p>Keys on the same document are implicitly and-ed. Dotted keys are split on their dots and
+ * each part is interpreted as an object key. The supported operators are {@code $and},
+ * {@code $or}, {@code $nor}, {@code $eq}, {@code $ne}, {@code $gt}, {@code $gte}, {@code $lt},
+ * {@code $lte}, {@code $in}, {@code $nin}, {@code $exists}, {@code $not} and, on the commands
+ * that support it, {@code $text}. Any other operator is rejected with a {@link CommandFailed}.
+ */
+public class QueryCriteriaTranslator {
+
+  private static final Splitter WORD_SPLITTER = Splitter.on(CharMatcher.whitespace())
+      .omitEmptyStrings();
+
+  QueryCriteriaTranslator() {
+  }
+
+  /**
+   * Translates the given filter, rejecting the {@code $text} operators it may contain.
+   */
+  public static QueryCriteria translate(String commandName, BsonDocument filter)
+      throws CommandFailed {
+    return new Translation(commandName, null).translateDocument(filter);
+  }
+
+  /**
+   * Translates the given filter, including the {@code $text} operator it may contain.
+   *
+   * @param textIndexAttributes returns the attributes of the text index of the collection or an
+   *                            empty list if it does not have one. It is only called when the
+   *                            filter contains a {@code $text} operator.
+   */
+  public static QueryCriteria translate(String commandName, BsonDocument filter,
+      Supplier<List<AttributeReference>> textIndexAttributes) throws CommandFailed {
+    return new Translation(commandName, textIndexAttributes).translateDocument(filter);
+  }
+
+  private static class Translation {
+
+    private final String commandName;
+    @Nullable
+    private final Supplier<List<AttributeReference>> textIndexAttributes;
+    private boolean textTranslated = false;
+
+    private Translation(String commandName,
+        @Nullable Supplier<List<AttributeReference>> textIndexAttributes) {
+      this.commandName = commandName;
+      this.textIndexAttributes = textIndexAttributes;
+    }
+
+    private QueryCriteria translateDocument(BsonDocument filter) throws CommandFailed {
+      List<QueryCriteria> conjunction = new ArrayList<>(filter.size());
+      for (Entry<?> entry : filter) {
+        String key = entry.getKey();
+        if (key.startsWith("$")) {
+          conjunction.add(translateLogicalOperator(key, entry.getValue()));
+        } else {
+          conjunction.add(translateAttribute(toAttributeReference(key), entry.getValue()));
+        }
+      }
+      return and(conjunction);
+    }
+
+    private QueryCriteria translateLogicalOperator(String operator, BsonValue<?> value)
+        throws CommandFailed {
+      switch (operator) {
+        case "$and":
+          return and(translateDocumentArray(operator, value));
+        case "$or":
+          return or(translateDocumentArray(operator, value));
+        case "$nor":
+          return new NotQueryCriteria(or(translateDocumentArray(operator, value)));
+        case "$text":
+          return translateText(value);
+        default:
+          throw unsupported("Top level operator " + operator + " is not supported right now");
+      }
+    }
+
+    private QueryCriteria translateText(BsonValue<?> value) throws CommandFailed {
+      if (textIndexAttributes == null) {
+        throw unsupported("$text is not supported on " + commandName + " right now");
+      }
+      if (textTranslated) {
+        throw new CommandFailed(commandName, "Too many text expressions");
+      }
+      textTranslated = true;
+      if (!value.isDocument()) {
+        throw new CommandFailed(commandName, "$text expects an object");
+      }
+      String search = null;
+      for (Entry<?> entry : value.asDocument()) {
+        BsonValue<?> option = entry.getValue();
+        switch (entry.getKey()) {
+          case "$search":
+            if (!option.isString()) {
+              throw new CommandFailed(commandName, "$search needs a String");
+            }
+            search = option.asString().getValue();
+            break;
+          case "$language":
+            if (!option.isString() || !(option.asString().getValue().equals("english")
+                || option.asString().getValue().equals("en"))) {
+              throw unsupported("Only english text searches are supported right now");
+            }
+            break;
+          case "$caseSensitive":
+          case "$diacriticSensitive":
+            if (isTrue(option)) {
+              throw unsupported(entry.getKey() + " text searches are not supported right now");
+            }
+            break;
+          default:
+            throw new CommandFailed(commandName, "extra fields not allowed in $text: "
+                + entry.getKey());
+        }
+      }
+      if (search == null) {
+        throw new CommandFailed(commandName, "$search needs a String");
+      }
+      List<AttributeReference> attributes = textIndexAttributes.get();
+      if (attributes.isEmpty()) {
+        throw new CommandFailed(commandName, "text index required for $text query");
+      }
+
+      //text between quotes is a phrase and words that start with a minus are negated
+      List<String> terms = new ArrayList<>();
+      List<String> negatedTerms = new ArrayList<>();
+      List<String> phrases = new ArrayList<>();
+      String[] parts = search.split("\"", -1);
+      for (int i = 0; i < parts.length; i++) {
+        if (i % 2 == 1) {
+          String phrase = parts[i].trim();
+          if (!phrase.isEmpty()) {
+            phrases.add(phrase);
+          }
+        } else {
+          for (String word : WORD_SPLITTER.split(parts[i])) {
+            if (!word.startsWith("-")) {
+              terms.add(word);
+            } else if (word.length() > 1) {
+              negatedTerms.add(word.substring(1));
+            }
+          }
+        }
+      }
+      return new TextQueryCriteria(attributes, terms, negatedTerms, phrases);
+    }
+
+    private List<QueryCriteria> translateDocumentArray(String operator, BsonValue<?> value)
+        throws CommandFailed {
+      if (!value.isArray() || value.asArray().asList().isEmpty()) {
+        throw new CommandFailed(commandName, operator + " must be a nonempty array");
+      }
+      List<QueryCriteria> result = new ArrayList<>();
+      for (BsonValue<?> child : value.asArray()) {
+        if (!child.isDocument()) {
+          throw new CommandFailed(commandName, operator + " entries need to be full objects");
+        }
+        result.add(translateDocument(child.asDocument()));
+      }
+      return result;
+    }
+
+    private QueryCriteria translateAttribute(AttributeReference attRef, BsonValue<?> value)
+        throws CommandFailed {
+      if (!isOperatorDocument(value)) {
+        return new ComparisonQueryCriteria(attRef, Operator.EQ, MongoWpConverter.translate(value));
+      }
+      List<QueryCriteria> conjunction = new ArrayList<>();
+      for (Entry<?> entry : value.asDocument()) {
+        conjunction.add(translateAttributeOperator(attRef, entry.getKey(), entry.getValue()));
+      }
+      return and(conjunction);
+    }
+
+    private QueryCriteria translateAttributeOperator(AttributeReference attRef, String operator,
+        BsonValue<?> value) throws CommandFailed {
+      switch (operator) {
+        case "$eq":
+          return comparison(attRef, Operator.EQ, value);
+        case "$ne":
+          return new NotQueryCriteria(comparison(attRef, Operator.EQ, value));
+        case "$gt":
+          return comparison(attRef, Operator.GT, value);
+        case "$gte":
+          return comparison(attRef, Operator.GTE, value);
+        case "$lt":
+          return comparison(attRef, Operator.LT, value);
+        case "$lte":
+          return comparison(attRef, Operator.LTE, value);
+        case "$in":
+          return in(attRef, operator, value);
+        case "$nin":
+          return new NotQueryCriteria(in(attRef, operator, value));
+        case "$exists": {
+          QueryCriteria exists = new ExistsQueryCriteria(attRef);
+          return isTrue(value) ? exists : new NotQueryCriteria(exists);
+        }
+        case "$not": {
+          if (!isOperatorDocument(value)) {
+            throw new CommandFailed(commandName, "$not needs a document of operators");
+          }
+          return new NotQueryCriteria(translateAttribute(attRef, value));
+        }
+        default:
+          throw unsupported("Operator " + operator + " is not supported right now");
+      }
+    }
+
+    private QueryCriteria comparison(AttributeReference attRef, Operator operator,
+        BsonValue<?> value) {
+      return new ComparisonQueryCriteria(attRef, operator, MongoWpConverter.translate(value));
+    }
+
+    private QueryCriteria in(AttributeReference attRef, String operator, BsonValue<?> value)
+        throws CommandFailed {
+      if (!value.isArray()) {
+        throw new CommandFailed(commandName, operator + " needs an array");
+      }
+      List<KvValue<?>> values = new ArrayList<>();
+      for (BsonValue<?> child : value.asArray()) {
+        if (isOperatorDocument(child)) {
+          throw new CommandFailed(commandName, "cannot nest $ under " + operator);
+        }
+        values.add(MongoWpConverter.translate(child));
+      }
+      return new InQueryCriteria(attRef, values);
+    }
+
+    private boolean isTrue(BsonValue<?> value) {
+      if (value.isBoolean()) {
+        return value.asBoolean().getPrimitiveValue();
+      }
+      if (value.isNumber()) {
+        return value.asNumber().doubleValue() != 0;
+      }
+      return !value.isNull();
+    }
+
+    private boolean isOperatorDocument(BsonValue<?> value) {
+      if (!value.isDocument() || value.asDocument().isEmpty()) {
+        return false;
+      }
+      return value.asDocument().getFirstEntry().getKey().startsWith("$");
+    }
+
+    private CommandFailed unsupported(String message) {
+      return new CommandFailed(commandName, message);
+    }
+
+    private static AttributeReference toAttributeReference(String key) {
+      AttributeReference.Builder builder = new AttributeReference.Builder();
+      for (String subKey : Splitter.on('.').split(key)) {
+        builder.addObjectKey(subKey);
+      }
+      return builder.build();
+    }
+
+    private static QueryCriteria and(List<QueryCriteria> conjunction) {
+      switch (conjunction.size()) {
+        case 0:
+          return TrueQueryCriteria.getInstance();
+        case 1:
+          return conjunction.get(0);
+        default:
+          return new AndQueryCriteria(conjunction);
+      }
+    }
+
+    private static QueryCriteria or(List<QueryCriteria> disjunction) {
+      if (disjunction.size() == 1) {
+        return disjunction.get(0);
+      }
+      return new OrQueryCriteria(disjunction);
+    }
+  }
+
+}
@@ -27,7 +27,10 @@ import com.torodb.mongowp.client.core.MongoClient;
 import com.torodb.mongowp.exceptions.MongoException;
 import com.torodb.mongowp.exceptions.NotMasterException;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 import javax.annotation.Nonnull;
@@ -48,6 +51,27 @@ public interface DbCloner extends Service {
       MongodServer localServer, @Nonnull CloneOptions opts)
       throws CloningException, NotMasterException, MongoException;
 
+  /**
+   * Clones several databases from the same remote client.
+   * <p>
+   * The default implementation clones them one after the other, but implementations are free to
+   * clone collections from different databases at the same time.
+   *
+   * @param optsByDstDb  the options to use, indexed by the destiny database
+   * @param remoteClient
+   * @param localServer
+   * @throws CloningException
+   * @throws NotMasterException if the write permission supplier of any of the options is
+   *                            evaluated to false
+   */
+  public default void cloneDatabases(@Nonnull Map<String, CloneOptions> optsByDstDb,
+      @Nonnull MongoClient remoteClient, MongodServer localServer)
+      throws CloningException, NotMasterException, MongoException {
+    for (Map.Entry<String, CloneOptions> entry : optsByDstDb.entrySet()) {
+      cloneDatabase(entry.getKey(), remoteClient, localServer, entry.getValue());
+    }
+  }
+
   public static class CloneOptions {
 
     private final boolean cloneData;
@@ -59,6 +83,8 @@ public interface DbCloner extends Service {
     private final Supplier<Boolean> writePermissionSupplier;
     private final Predicate<String> collectionFilter;
     private final IndexFilter indexFilter;
+    private final Set<String> collsWithClonedData;
+    private final Consumer<String> collDataClonedListener;
 
     public CloneOptions(
         boolean cloneData,
@@ -70,6 +96,24 @@ public interface DbCloner extends Service {
         Supplier<Boolean> writePermissionSupplier,
         Predicate<String> collectionFilter,
         IndexFilter indexFilter) {
+      this(cloneData, cloneIndexes, slaveOk, snapshot, dbToClone, collsToIgnore,
+          writePermissionSupplier, collectionFilter, indexFilter, Collections.emptySet(),
+          collName -> {
+          });
+    }
+
+    public CloneOptions(
+        boolean cloneData,
+        boolean cloneIndexes,
+        boolean slaveOk,
+        boolean snapshot,
+        String dbToClone,
+        Set<String> collsToIgnore,
+        Supplier<Boolean> writePermissionSupplier,
+        Predicate<String> collectionFilter,
+        IndexFilter indexFilter,
+        Set<String> collsWithClonedData,
+        Consumer<String> collDataClonedListener) {
       this.cloneData = cloneData;
       this.cloneIndexes = cloneIndexes;
       this.slaveOk = slaveOk;
@@ -79,6 +123,8 @@ public interface DbCloner extends Service {
       this.writePermissionSupplier = writePermissionSupplier;
       this.collectionFilter = collectionFilter;
       this.indexFilter = indexFilter;
+      this.collsWithClonedData = collsWithClonedData;
+      this.collDataClonedListener = collDataClonedListener;
     }
 
     /**
@@ -144,6 +190,29 @@ public interface DbCloner extends Service {
     public IndexFilter getIndexFilter() {
       return indexFilter;
     }
+
+    /**
+     * Returns the collections whose data has already been cloned by a previous execution.
+     * <p>
+     * Cloners can use it as a hint to do not clone the data of these collections again, but
+     * their indexes must be cloned if {@link #isCloneIndexes()} is true.
+     *
+     * @return a set of collections whose data does not need to be cloned
+     */
+    @Nonnull
+    public Set<String> getCollsWithClonedData() {
+      return collsWithClonedData;
+    }
+
+    /**
+     * Returns a consumer that cloners can notify each time the data of a collection is completely
+     * cloned.
+     * <p>
+     * It can be called from several threads at the same time.
+     */
+    public Consumer<String> getCollDataClonedListener() {
+      return collDataClonedListener;
+    }
   }
 
   public static class CloningException extends ToroRuntimeException {
@@ -24,8 +24,10 @@ import akka.japi.tuple.Tuple3;
 import akka.stream.ActorMaterializer;
 import akka.stream.FlowShape;
 import akka.stream.Graph;
+import akka.stream.KillSwitches;
 import akka.stream.Materializer;
 import akka.stream.OverflowStrategy;
+import akka.stream.SharedKillSwitch;
 import akka.stream.UniformFanInShape;
 import akka.stream.UniformFanOutShape;
 import akka.stream.javadsl.Balance;
@@ -59,6 +61,8 @@ import com.torodb.mongodb.commands.signatures.admin.CreateIndexesCommand.CreateI
 import com.torodb.mongodb.commands.signatures.admin.CreateIndexesCommand.CreateIndexesResult;
 import com.torodb.mongodb.commands.signatures.admin.DropCollectionCommand;
 import com.torodb.mongodb.commands.signatures.admin.ListCollectionsCommand.ListCollectionsResult.Entry;
+import com.torodb.mongodb.commands.signatures.aggregation.CountCommand;
+import com.torodb.mongodb.commands.signatures.aggregation.CountCommand.CountArgument;
 import com.torodb.mongodb.commands.signatures.general.InsertCommand;
 import com.torodb.mongodb.commands.signatures.general.InsertCommand.InsertArgument;
 import com.torodb.mongodb.commands.signatures.general.InsertCommand.InsertResult;
@@ -72,8 +76,10 @@ import com.torodb.mongodb.utils.NamespaceUtil;
 import com.torodb.mongowp.Status;
 import com.torodb.mongowp.WriteConcern;
 import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.utils.DefaultBsonValues;
 import com.torodb.mongowp.client.core.MongoClient;
 import com.torodb.mongowp.client.core.MongoConnection;
+import com.torodb.mongowp.client.core.MongoConnection.RemoteCommandResponse;
 import com.torodb.mongowp.commands.Command;
 import com.torodb.mongowp.commands.Request;
 import com.torodb.mongowp.commands.impl.CollectionCommandArgument;
@@ -89,15 +95,24 @@ import org.apache.logging.log4j.Logger;
 import java.time.Clock;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * This class is used to clone databases using a client, so remote and local databases can be
@@ -115,7 +130,23 @@ import java.util.function.Function;
 @Beta
 public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
 
+  /**
+   * Collections are only split on ranges that contain at least this number of documents.
+   */
+  private static final long MIN_DOCS_PER_RANGE = 1_000_000;
   private final Logger logger;
+  private final ConcurrentToolsFactory concurrentToolsFactory;
+  /**
+   * The number of collections that can be cloned at the same time, which is also the number of
+   * remote cursors that can be open at the same time.
+   */
+  private final int maxParallelCollections;
+  /**
+   * Limits the number of insert transactions that can be executed at the same time, whatever the
+   * collection they belong to.
+   */
+  private final Semaphore writePermits;
+  private final IdRangeSplitter rangeSplitter;
   /**
    * The number of parallel task that can be used to clone each collection.
    */
@@ -128,9 +159,11 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
   private final CommitHeuristic commitHeuristic;
   private final Clock clock;
   private final Retrier retrier;
+  private ExecutorService schedulerExecutor;
 
   public AkkaDbCloner(ThreadFactory threadFactory,
       ConcurrentToolsFactory concurrentToolsFactory,
+      int maxParallelCollections, int maxWriteConnections, int maxRangesPerCollection,
       int maxParallelInsertTasks, int cursorBatchBufferSize,
       CommitHeuristic commitHeuristic, Clock clock, Retrier retrier, LoggerFactory loggerFactory) {
     super(threadFactory,
@@ -139,7 +172,17 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
         "akka-db-cloner"
     );
     this.logger = loggerFactory.apply(this.getClass());
-
+    this.concurrentToolsFactory = concurrentToolsFactory;
+
+    this.maxParallelCollections = maxParallelCollections;
+    Preconditions.checkArgument(maxParallelCollections >= 1, "The number of parallel "
+        + "collections must be higher than 0, but " + maxParallelCollections + " was used");
+    Preconditions.checkArgument(maxWriteConnections >= 1, "The number of write connections "
+        + "must be higher than 0, but " + maxWriteConnections + " was used");
+    this.writePermits = new Semaphore(maxWriteConnections, true);
+    Preconditions.checkArgument(maxRangesPerCollection >= 1, "The number of ranges per "
+        + "collection must be higher than 0, but " + maxRangesPerCollection + " was used");
+    this.rangeSplitter = new IdRangeSplitter(MIN_DOCS_PER_RANGE, maxRangesPerCollection);
     this.maxParallelInsertTasks = maxParallelInsertTasks;
     Preconditions.checkArgument(maxParallelInsertTasks >= 1, "The number of parallel insert "
         + "tasks level must be higher than 0, but " + maxParallelInsertTasks + " was used");
@@ -159,16 +202,59 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
     return logger;
   }
 
+  @Override
+  protected void startUp() throws Exception {
+    super.startUp();
+    schedulerExecutor = concurrentToolsFactory.createExecutorServiceWithMaxThreads(
+        "db-cloner-scheduler", maxParallelCollections);
+  }
+
+  @Override
+  protected void shutDown() throws Exception {
+    if (schedulerExecutor != null) {
+      schedulerExecutor.shutdownNow();
+    }
+    super.shutDown();
+  }
+
   @Override
   public void cloneDatabase(String dstDb, MongoClient remoteClient,
       MongodServer localServer, CloneOptions opts) throws CloningException,
       NotMasterException, MongoException {
+    cloneDatabases(Collections.singletonMap(dstDb, opts), remoteClient, localServer);
+  }
+
+  /**
+   * Clones the given databases, scheduling the collections of all of them on a single queue.
+   * <p>
+   * Up to {@link #maxParallelCollections} collections are cloned at the same time, each one using
+   * its own remote cursor. Collections with more documents are scheduled first, so the biggest
+   * ones do not end up being cloned alone at the end of the process. Indexes are cloned once all
+   * data has been cloned.
+   */
+  @Override
+  public void cloneDatabases(Map<String, CloneOptions> optsByDstDb, MongoClient remoteClient,
+      MongodServer localServer) throws CloningException, NotMasterException, MongoException {
     Preconditions.checkState(isRunning(), "This db cloner is not running");
 
-    if (!remoteClient.isRemote() && opts.getDbToClone().equals(dstDb)) {
-      logger.warn("Trying to clone a database to itself! Ignoring it");
-      return;
+    List<CollectionCloneTask> tasks = new ArrayList<>();
+    for (Map.Entry<String, CloneOptions> dbEntry : optsByDstDb.entrySet()) {
+      String dstDb = dbEntry.getKey();
+      CloneOptions opts = dbEntry.getValue();
+
+      if (!remoteClient.isRemote() && opts.getDbToClone().equals(dstDb)) {
+        logger.warn("Trying to clone a database to itself! Ignoring it");
+        continue;
+      }
+      tasks.addAll(prepareDatabase(dstDb, remoteClient, localServer, opts));
     }
+
+    cloneData(tasks, remoteClient, localServer);
+    cloneIndexes(tasks, remoteClient, localServer);
+  }
+
+  private List<CollectionCloneTask> prepareDatabase(String dstDb, MongoClient remoteClient,
+      MongodServer localServer, CloneOptions opts) throws NotMasterException {
     String fromDb = opts.getDbToClone();
 
     CursorResult<Entry> listCollections = getRemoteCollections(remoteClient, fromDb);
@@ -183,23 +269,28 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
       throw new NotMasterException("Destiny database cannot be written "
           + "after get collections info");
     }
-    
-    cloneDatabase(collsToClone, dstDb, remoteClient, localServer, opts);
-  }
 
-  private void cloneDatabase(List<Entry> collsToClone, String dstDb, MongoClient remoteClient,
-      MongodServer localServer, CloneOptions opts) throws MongoException {
+    List<Entry> collsToPrepare = collsToClone.stream()
+        .filter(entry -> !opts.getCollsWithClonedData().contains(entry.getCollectionName()))
+        .collect(Collectors.toList());
+    if (collsToPrepare.size() != collsToClone.size()) {
+      logger.info("The data of {} collections of {} was already cloned",
+          collsToClone.size() - collsToPrepare.size(), fromDb);
+    }
+
+    prepareCollections(collsToPrepare, localServer, dstDb);
 
-    prepareCollections(collsToClone, localServer, dstDb);
-    
+    List<CollectionCloneTask> tasks = new ArrayList<>(collsToClone.size());
     try (MongoConnection remoteConnection = remoteClient.openConnection()) {
-      if (opts.isCloneData()) {
-        cloneData(collsToClone, remoteConnection, dstDb, localServer, opts);
-      }
-      if (opts.isCloneIndexes()) {
-        cloneIndexes(collsToClone, remoteConnection, dstDb, localServer, opts);
+      for (Entry entry : collsToClone) {
+        boolean dataCloned = opts.getCollsWithClonedData().contains(entry.getCollectionName());
+        long estimatedCount = opts.isCloneData() && !dataCloned
+            ? estimateCount(remoteConnection, fromDb, entry.getCollectionName())
+            : 0;
+        tasks.add(new CollectionCloneTask(dstDb, opts, entry, dataCloned, estimatedCount));
       }
     }
+    return tasks;
   }
 
   private CursorResult<Entry> getRemoteCollections(MongoClient remoteClient, String fromDb) {
@@ -217,67 +308,189 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
     }
   }
 
-  private void cloneData(List<Entry> collsToClone, MongoConnection remoteConnection, String dstDb,
-      MongodServer localServer, CloneOptions opts) throws MongoException {
+  /**
+   * Returns the number of documents the remote collection has or 0 if it cannot be known.
+   * <p>
+   * The value is only used to decide which collections are cloned first, so errors are ignored.
+   */
+  private long estimateCount(MongoConnection remoteConnection, String fromDb, String collName) {
+    try {
+      RemoteCommandResponse<Long> reply = remoteConnection.execute(
+          CountCommand.INSTANCE,
+          fromDb,
+          true,
+          new CountArgument(collName, DefaultBsonValues.EMPTY_DOC, null, 0, 0)
+      );
+      if (reply.isOk() && reply.getCommandReply().isPresent()) {
+        return reply.getCommandReply().get();
+      }
+      logger.debug("It was impossible to count the documents on {}.{}: {}", fromDb, collName,
+          reply.getErrorDesc());
+    } catch (RuntimeException ex) {
+      logger.debug("It was impossible to count the documents on " + fromDb + "." + collName, ex);
+    }
+    return 0;
+  }
 
-    String fromDb = opts.getDbToClone();
-    Materializer materializer = ActorMaterializer.create(getActorSystem());
-    
-    for (Entry entry : collsToClone) {
-      logger.info("Cloning collection data {}.{} into {}.{}",
-          fromDb, entry.getCollectionName(), dstDb,
-          entry.getCollectionName());
+  private void cloneData(List<CollectionCloneTask> tasks, MongoClient remoteClient,
+      MongodServer localServer) throws MongoException {
+    List<CollectionCloneTask> sortedTasks = tasks.stream()
+        .filter(task -> task.getOpts().isCloneData() && !task.isDataCloned())
+        .sorted(Comparator.comparingLong(CollectionCloneTask::getEstimatedCount).reversed())
+        .collect(Collectors.toList());
+    if (sortedTasks.isEmpty()) {
+      return;
+    }
 
-      try {
-        cloneCollection(localServer, remoteConnection, dstDb,
-            opts, materializer, entry);
-      } catch (CompletionException completionException) {
-        Throwable cause = completionException.getCause();
-        if (cause instanceof RollbackException) {
-          throw (RollbackException) cause;
-        }
+    ActorMaterializer materializer = ActorMaterializer.create(getActorSystem());
+    SharedKillSwitch killSwitch = KillSwitches.shared("clone-data");
+
+    AtomicReference<Throwable> firstFailure = new AtomicReference<>();
 
-        throw completionException;
+    List<Future<?>> futures = new ArrayList<>(sortedTasks.size());
+    try {
+      for (CollectionCloneTask task : sortedTasks) {
+        futures.add(schedulerExecutor.submit(() -> {
+          try {
+            cloneCollection(localServer, remoteClient, materializer, killSwitch, task);
+            task.getOpts().getCollDataClonedListener().accept(task.getCollectionName());
+          } catch (Throwable ex) {
+            if (firstFailure.compareAndSet(null, ex)) {
+              killSwitch.abort(ex);
+            }
+            throw ex;
+          }
+          return null;
+        }));
       }
+      awaitAll(futures);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      killSwitch.abort(ex);
+      futures.forEach(future -> future.cancel(true));
+      throw new CloningException("Interrupted while cloning collections", ex);
+    } finally {
+      materializer.shutdown();
     }
-  }
 
-  private void cloneIndexes(List<Entry> collsToClone, MongoConnection remoteConnection, 
-      String dstDb, MongodServer localServer, CloneOptions opts) {
-    String fromDb = opts.getDbToClone();
-    for (Entry entry : collsToClone) {
-      logger.info("Cloning collection indexes {}.{} into {}.{}",
-          fromDb, entry.getCollectionName(), dstDb,
-          entry.getCollectionName());
+    Throwable cause = firstFailure.get();
+    if (cause != null) {
+      if (cause instanceof CompletionException && cause.getCause() != null) {
+        cause = cause.getCause();
+      }
+      if (cause instanceof RollbackException) {
+        throw (RollbackException) cause;
+      }
+      if (cause instanceof MongoException) {
+        throw (MongoException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new CloningException(cause);
+    }
+  }
 
+  /**
+   * Waits until all the given futures are done, even if some of them fail.
+   * <p>
+   * Their failures are ignored, so callers that need them must keep track of them on the tasks.
+   */
+  static void awaitAll(List<? extends Future<?>> futures) throws InterruptedException {
+    for (Future<?> future : futures) {
       try {
-        cloneIndex(localServer, dstDb, dstDb, remoteConnection,
-            opts, entry.getCollectionName(),
-            entry.getCollectionName());
-      } catch (CompletionException completionException) {
-        Throwable cause = completionException.getCause();
-        if (cause instanceof RollbackException) {
-          throw (RollbackException) cause;
-        }
+        future.get();
+      } catch (ExecutionException ex) {
+        //the failure has already been tracked by the task
+      }
+    }
+  }
 
-        throw completionException;
+  private void cloneIndexes(List<CollectionCloneTask> tasks, MongoClient remoteClient,
+      MongodServer localServer) {
+    List<CollectionCloneTask> indexTasks = tasks.stream()
+        .filter(task -> task.getOpts().isCloneIndexes())
+        .collect(Collectors.toList());
+    if (indexTasks.isEmpty()) {
+      return;
+    }
+    try (MongoConnection remoteConnection = remoteClient.openConnection()) {
+      for (CollectionCloneTask task : indexTasks) {
+        String fromDb = task.getOpts().getDbToClone();
+        String dstDb = task.getDstDb();
+        String collName = task.getCollectionName();
+        logger.info("Cloning collection indexes {}.{} into {}.{}",
+            fromDb, collName, dstDb, collName);
+
+        try {
+          cloneIndex(localServer, dstDb, dstDb, remoteConnection,
+              task.getOpts(), collName, collName);
+        } catch (CompletionException completionException) {
+          Throwable cause = completionException.getCause();
+          if (cause instanceof RollbackException) {
+            throw (RollbackException) cause;
+          }
+
+          throw completionException;
+        }
       }
     }
   }
 
-  private void cloneCollection(MongodServer localServer,
-      MongoConnection remoteConnection, String toDb, CloneOptions opts,
-      Materializer materializer, Entry collToClone) throws MongoException {
+  private void cloneCollection(MongodServer localServer, MongoClient remoteClient,
+      Materializer materializer, SharedKillSwitch killSwitch, CollectionCloneTask task)
+      throws MongoException {
+    String toDb = task.getDstDb();
+    String collName = task.getCollectionName();
+    CloneOptions opts = task.getOpts();
 
-    String collName = collToClone.getCollectionName();
+    List<MongoConnection> remoteConnections = new ArrayList<>();
+    try {
+      MongoConnection firstConnection = remoteClient.openConnection();
+      remoteConnections.add(firstConnection);
+
+      List<BsonDocument> rangeQueries = rangeSplitter.split(firstConnection,
+          opts.getDbToClone(), collName, task.getEstimatedCount(), opts.isSlaveOk());
+
+      logger.info("Cloning collection data {}.{} into {}.{} using {} ranges",
+          opts.getDbToClone(), collName, toDb, collName, rangeQueries.size());
+
+      List<MongoCursor<BsonDocument>> cursors = new ArrayList<>(rangeQueries.size());
+      for (BsonDocument rangeQuery : rangeQueries) {
+        MongoConnection remoteConnection;
+        if (cursors.isEmpty()) {
+          remoteConnection = firstConnection;
+        } else {
+          remoteConnection = remoteClient.openConnection();
+          remoteConnections.add(remoteConnection);
+        }
+        cursors.add(openCursor(remoteConnection, collName, rangeQuery, opts));
+      }
 
-    MongoCursor<BsonDocument> cursor = openCursor(remoteConnection, collName, opts);
+      cloneCollection(localServer, cursors, toDb, materializer, killSwitch, collName);
+    } finally {
+      remoteConnections.forEach(MongoConnection::close);
+    }
+  }
 
-    CollectionIterator iterator = new CollectionIterator(cursor, retrier);
+  /**
+   * Clones the documents returned by the given cursors, which must select disjoint ranges of the
+   * same collection.
+   * <p>
+   * The collection is only considered as cloned once all cursors have been consumed.
+   */
+  private void cloneCollection(MongodServer localServer, List<MongoCursor<BsonDocument>> cursors,
+      String toDb, Materializer materializer, SharedKillSwitch killSwitch, String collName) {
 
-    Source<BsonDocument, NotUsed> source = Source.fromIterator(() -> iterator)
-        .buffer(cursorBatchBufferSize, OverflowStrategy.backpressure())
-        .async();
+    int rangeBufferSize = Math.max(1, cursorBatchBufferSize / cursors.size());
+    Source<BsonDocument, NotUsed> source;
+    if (cursors.size() == 1) {
+      source = createRangeSource(cursors.get(0), rangeBufferSize);
+    } else {
+      source = Source.from(cursors)
+          .flatMapMerge(cursors.size(), cursor -> createRangeSource(cursor, rangeBufferSize));
+    }
+    source = source.via(killSwitch.flow());
 
     Flow<BsonDocument, Pair<Integer, Integer>, NotUsed> inserterFlow;
     if (maxParallelInsertTasks == 1) {
@@ -323,6 +536,15 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
     }
   }
 
+  private Source<BsonDocument, NotUsed> createRangeSource(MongoCursor<BsonDocument> cursor,
+      int bufferSize) {
+    CollectionIterator iterator = new CollectionIterator(cursor, retrier);
+
+    return Source.fromIterator(() -> iterator)
+        .buffer(bufferSize, OverflowStrategy.backpressure())
+        .async();
+  }
+
   private Tuple3<Integer, Integer, Instant> postInsertFold(String toDb,
       String toCol, Tuple3<Integer, Integer, Instant> acum,
       Pair<Integer, Integer> newBatch) {
@@ -382,6 +604,7 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
   private int insertDocuments(MongodServer localServer, String toDb, String collection,
       List<BsonDocument> docsToInsert) throws RollbackException {
 
+    writePermits.acquireUninterruptibly();
     try (WriteMongodTransaction transaction = createWriteMongodTransaction(localServer)) {
 
       Status<InsertResult> insertResult = transaction.execute(
@@ -409,11 +632,13 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
       return insertedDocs;
     } catch (UserException ex) {
       throw new CloningException("Unexpected error while cloning documents", ex);
+    } finally {
+      writePermits.release();
     }
   }
 
   private MongoCursor<BsonDocument> openCursor(MongoConnection remoteConnection, String collection,
-      CloneOptions opts) throws MongoException {
+      BsonDocument query, CloneOptions opts) throws MongoException {
     //TODO: enable exhaust?
     EnumSet<QueryOption> queryFlags = EnumSet.of(QueryOption.NO_CURSOR_TIMEOUT);
     if (opts.isSlaveOk()) {
@@ -422,7 +647,7 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
     return remoteConnection.query(
         opts.getDbToClone(),
         collection,
-        null,
+        query.isEmpty() ? null : query,
         0,
         0,
         new QueryOptions(queryFlags),
@@ -637,6 +862,44 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
 
   }
 
+  private static class CollectionCloneTask {
+
+    private final String dstDb;
+    private final CloneOptions opts;
+    private final Entry entry;
+    private final boolean dataCloned;
+    private final long estimatedCount;
+
+    public CollectionCloneTask(String dstDb, CloneOptions opts, Entry entry,
+        boolean dataCloned, long estimatedCount) {
+      this.dstDb = dstDb;
+      this.opts = opts;
+      this.entry = entry;
+      this.dataCloned = dataCloned;
+      this.estimatedCount = estimatedCount;
+    }
+
+    public String getDstDb() {
+      return dstDb;
+    }
+
+    public CloneOptions getOpts() {
+      return opts;
+    }
+
+    public String getCollectionName() {
+      return entry.getCollectionName();
+    }
+
+    public boolean isDataCloned() {
+      return dataCloned;
+    }
+
+    public long getEstimatedCount() {
+      return estimatedCount;
+    }
+  }
+
   private static class CollectionIterator implements Iterator<BsonDocument> {
 
     private final MongoCursor<BsonDocument> cursor;
@@ -0,0 +1,261 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.mongodb.utils.cloner;
+
+import com.google.common.primitives.Ints;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.BsonObjectId;
+import com.torodb.mongowp.bson.BsonType;
+import com.torodb.mongowp.bson.BsonValue;
+import com.torodb.mongowp.bson.impl.ByteArrayBsonObjectId;
+import com.torodb.mongowp.bson.utils.DefaultBsonValues;
+import com.torodb.mongowp.client.core.MongoConnection;
+import com.torodb.mongowp.commands.pojos.MongoCursor;
+import com.torodb.mongowp.commands.pojos.MongoCursor.Batch;
+import com.torodb.mongowp.exceptions.MongoException;
+import com.torodb.mongowp.messages.request.QueryMessage.QueryOption;
+import com.torodb.mongowp.messages.request.QueryMessage.QueryOptions;
+import com.torodb.mongowp.utils.BsonDocumentBuilder;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+
+/**
+ * Splits a remote collection on several {@code _id} ranges that can be read with independent
+ * cursors.
+ * <p>
+ * Only the lowest and the highest {@code _id} are read from the collection. When they are numbers
+ * or object ids, the bounds are interpolated between them (object ids by their timestamp), so the
+ * ranges are balanced as long as the ids are evenly distributed. Other ids can not be
+ * interpolated, so the document at position {@code i * count / ranges} is read instead, which
+ * makes the server walk the {@code _id} index up to it. As MongoDB range queries only match values
+ * of the same type than the bound, collections whose lowest and highest {@code _id} have
+ * different types are never split.
+ */
+class IdRangeSplitter {
+
+  private static final String ID_KEY = "_id";
+  private static final BsonDocument ID_ASC = DefaultBsonValues.newDocument(ID_KEY,
+      DefaultBsonValues.INT32_ONE);
+  private static final BsonDocument ID_DESC = DefaultBsonValues.newDocument(ID_KEY,
+      DefaultBsonValues.newInt(-1));
+
+  private final long minDocsPerRange;
+  private final int maxRanges;
+
+  public IdRangeSplitter(long minDocsPerRange, int maxRanges) {
+    this.minDocsPerRange = minDocsPerRange;
+    this.maxRanges = maxRanges;
+  }
+
+  /**
+   * Returns the queries that select each range of the collection.
+   * <p>
+   * The returned list contains a single empty query when the collection should not be split.
+   */
+  public List<BsonDocument> split(MongoConnection connection, String db, String col,
+      long estimatedCount, boolean slaveOk) throws MongoException {
+    int ranges = (int) Math.min(maxRanges, estimatedCount / minDocsPerRange);
+    if (ranges <= 1) {
+      return Collections.singletonList(DefaultBsonValues.EMPTY_DOC);
+    }
+    QueryOptions queryOptions = createQueryOptions(slaveOk);
+
+    Optional<BsonValue<?>> min = findId(connection, db, col, 0, ID_ASC, queryOptions);
+    Optional<BsonValue<?>> max = findId(connection, db, col, 0, ID_DESC, queryOptions);
+    if (!min.isPresent() || !max.isPresent()
+        || !isSameBracket(min.get(), max.get())) {
+      return Collections.singletonList(DefaultBsonValues.EMPTY_DOC);
+    }
+
+    Optional<List<BsonValue<?>>> interpolatedBounds = interpolateBounds(min.get(), max.get(),
+        ranges);
+    if (interpolatedBounds.isPresent()) {
+      return createRangeQueries(interpolatedBounds.get());
+    }
+
+    List<BsonValue<?>> bounds = new ArrayList<>(ranges - 1);
+    for (int i = 1; i < ranges; i++) {
+      long skip = i * (estimatedCount / ranges);
+      if (skip > Integer.MAX_VALUE) {
+        break;
+      }
+      Optional<BsonValue<?>> bound = findId(connection, db, col, (int) skip, ID_ASC,
+          queryOptions);
+      if (!bound.isPresent()) {
+        break;
+      }
+      if (bounds.isEmpty() || !bounds.get(bounds.size() - 1).equals(bound.get())) {
+        bounds.add(bound.get());
+      }
+    }
+    return createRangeQueries(bounds);
+  }
+
+  /**
+   * Returns the sorted bounds that split the interval between the given ids on the given number of
+   * ranges of the same width, or an empty optional if ids of their type can not be interpolated.
+   * <p>
+   * Bounds equal to the lowest id or to the previous bound are discarded, as they would only
+   * delimit empty ranges.
+   */
+  static Optional<List<BsonValue<?>>> interpolateBounds(BsonValue<?> min, BsonValue<?> max,
+      int ranges) {
+    List<BsonValue<?>> bounds = new ArrayList<>(ranges - 1);
+    if (isIntegral(min) && isIntegral(max)) {
+      BigInteger lower = BigInteger.valueOf(min.asNumber().longValue());
+      BigInteger width = BigInteger.valueOf(max.asNumber().longValue()).subtract(lower);
+      long previous = lower.longValue();
+      for (int i = 1; i < ranges; i++) {
+        long bound = lower.add(width.multiply(BigInteger.valueOf(i))
+            .divide(BigInteger.valueOf(ranges)))
+            .longValue();
+        if (bound > previous) {
+          bounds.add(DefaultBsonValues.newLong(bound));
+          previous = bound;
+        }
+      }
+    } else if ((isIntegral(min) || min.getType() == BsonType.DOUBLE)
+        && (isIntegral(max) || max.getType() == BsonType.DOUBLE)) {
+      double lower = min.asNumber().doubleValue();
+      double width = max.asNumber().doubleValue() - lower;
+      double previous = lower;
+      for (int i = 1; i < ranges; i++) {
+        double bound = lower + width * i / ranges;
+        if (bound > previous) {
+          bounds.add(DefaultBsonValues.newDouble(bound));
+          previous = bound;
+        }
+      }
+    } else if (min.getType() == BsonType.OBJECT_ID && max.getType() == BsonType.OBJECT_ID) {
+      long lower = getTimestamp((BsonObjectId) min);
+      long width = getTimestamp((BsonObjectId) max) - lower;
+      long previous = lower;
+      for (int i = 1; i < ranges; i++) {
+        long bound = lower + width * i / ranges;
+        if (bound > previous) {
+          bounds.add(createObjectId(bound));
+          previous = bound;
+        }
+      }
+    } else {
+      return Optional.empty();
+    }
+    return Optional.of(bounds);
+  }
+
+  private static boolean isIntegral(BsonValue<?> value) {
+    return value.getType() == BsonType.INT32 || value.getType() == BsonType.INT64;
+  }
+
+  /**
+   * Returns the seconds since epoch stored on the first four bytes of the given object id.
+   */
+  private static long getTimestamp(BsonObjectId objectId) {
+    return Ints.fromByteArray(objectId.toByteArray()) & 0xFFFFFFFFL;
+  }
+
+  /**
+   * Returns the lowest object id with the given timestamp.
+   */
+  private static BsonObjectId createObjectId(long timestamp) {
+    byte[] bytes = new byte[12];
+    System.arraycopy(Ints.toByteArray((int) timestamp), 0, bytes, 0, 4);
+    return new ByteArrayBsonObjectId(bytes);
+  }
+
+  /**
+   * Creates the queries that select the ranges delimited by the given sorted bounds.
+   * <p>
+   * Each bound is included on the range it starts, so {@code n} bounds generate {@code n + 1}
+   * ranges and the first and the last ones are open.
+   */
+  static List<BsonDocument> createRangeQueries(List<BsonValue<?>> bounds) {
+    if (bounds.isEmpty()) {
+      return Collections.singletonList(DefaultBsonValues.EMPTY_DOC);
+    }
+    List<BsonDocument> queries = new ArrayList<>(bounds.size() + 1);
+    BsonValue<?> lower = null;
+    for (BsonValue<?> upper : bounds) {
+      queries.add(createRangeQuery(lower, upper));
+      lower = upper;
+    }
+    queries.add(createRangeQuery(lower, null));
+    return queries;
+  }
+
+  private static BsonDocument createRangeQuery(@Nullable BsonValue<?> lower,
+      @Nullable BsonValue<?> upper) {
+    BsonDocumentBuilder condition = new BsonDocumentBuilder();
+    if (lower != null) {
+      condition.appendUnsafe("$gte", lower);
+    }
+    if (upper != null) {
+      condition.appendUnsafe("$lt", upper);
+    }
+    return DefaultBsonValues.newDocument(ID_KEY, condition.build());
+  }
+
+  static boolean isSameBracket(BsonValue<?> value1, BsonValue<?> value2) {
+    if (value1.isNumber() && value2.isNumber()) {
+      return true;
+    }
+    return value1.getType() == value2.getType();
+  }
+
+  private Optional<BsonValue<?>> findId(MongoConnection connection, String db, String col,
+      int skip, BsonDocument sortBy, QueryOptions queryOptions) throws MongoException {
+    MongoCursor<BsonDocument> cursor = connection.query(
+        db,
+        col,
+        DefaultBsonValues.EMPTY_DOC,
+        skip,
+        1,
+        queryOptions,
+        sortBy,
+        DefaultBsonValues.newDocument(ID_KEY, DefaultBsonValues.INT32_ONE)
+    );
+    try {
+      Batch<BsonDocument> batch = cursor.fetchBatch();
+      try {
+        if (!batch.hasNext()) {
+          return Optional.empty();
+        }
+        return Optional.ofNullable(batch.next().get(ID_KEY));
+      } finally {
+        batch.close();
+      }
+    } finally {
+      cursor.close();
+    }
+  }
+
+  private static QueryOptions createQueryOptions(boolean slaveOk) {
+    EnumSet<QueryOption> queryFlags = EnumSet.noneOf(QueryOption.class);
+    if (slaveOk) {
+      queryFlags.add(QueryOption.SLAVE_OK);
+    }
+    return new QueryOptions(queryFlags);
+  }
+}
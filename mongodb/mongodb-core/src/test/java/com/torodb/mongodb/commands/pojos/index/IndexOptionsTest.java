@@ -0,0 +1,106 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.commands.pojos.index;
+
+import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newBoolean;
+import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newDocument;
+import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newInt;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.torodb.mongodb.commands.pojos.index.IndexOptions.IndexVersion;
+import com.torodb.mongodb.commands.pojos.index.IndexOptions.Key;
+import com.torodb.mongodb.commands.pojos.index.type.AscIndexType;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.BsonValue;
+import com.torodb.mongowp.utils.BsonDocumentBuilder;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+public class IndexOptionsTest {
+
+  @Test
+  public void testSparseWithoutPartialFilter() {
+    assertTrue(createIndexOptions(true, null, "a").isSparseOrEquivalentPartial());
+    assertFalse(createIndexOptions(false, null, "a").isSparseOrEquivalentPartial());
+  }
+
+  @Test
+  public void testExistsPartialFilterOnTheKey() {
+    assertTrue(createIndexOptions(false, exists("a", true), "a")
+        .isSparseOrEquivalentPartial());
+    assertTrue(createIndexOptions(false, exists("a.b", true), "a.b")
+        .isSparseOrEquivalentPartial());
+  }
+
+  @Test
+  public void testPartialFiltersThatAreNotEquivalentToSparse() {
+    //the filter is not $exists: true
+    assertFalse(createIndexOptions(false, exists("a", false), "a")
+        .isSparseOrEquivalentPartial());
+    assertFalse(createIndexOptions(false, exists("a", newInt(1)), "a")
+        .isSparseOrEquivalentPartial());
+    assertFalse(createIndexOptions(false, newDocument("a", newInt(1)), "a")
+        .isSparseOrEquivalentPartial());
+    assertFalse(createIndexOptions(false, newDocument("a", new BsonDocumentBuilder()
+        .appendUnsafe("$exists", newBoolean(true))
+        .appendUnsafe("$gt", newInt(5))
+        .build()), "a").isSparseOrEquivalentPartial());
+    //the filter is not only on the key
+    assertFalse(createIndexOptions(false, exists("b", true), "a")
+        .isSparseOrEquivalentPartial());
+    assertFalse(createIndexOptions(false, new BsonDocumentBuilder()
+        .appendUnsafe("a", newDocument("$exists", newBoolean(true)))
+        .appendUnsafe("b", newDocument("$exists", newBoolean(true)))
+        .build(), "a").isSparseOrEquivalentPartial());
+    //the index has more than one key
+    assertFalse(createIndexOptions(false, exists("a", true), "a", "b")
+        .isSparseOrEquivalentPartial());
+  }
+
+  @Test
+  public void testPartialFilterPrevailsOverSparse() {
+    assertFalse(createIndexOptions(true, exists("b", true), "a")
+        .isSparseOrEquivalentPartial());
+  }
+
+  private static BsonDocument exists(String path, boolean exists) {
+    return exists(path, newBoolean(exists));
+  }
+
+  private static BsonDocument exists(String path, BsonValue<?> exists) {
+    return newDocument(path, newDocument("$exists", exists));
+  }
+
+  private static IndexOptions createIndexOptions(boolean sparse,
+      @Nullable BsonDocument partialFilter, String... paths) {
+    List<Key> keys = Arrays.stream(paths)
+        .map(path -> new Key(Arrays.asList(path.split("\\.")), AscIndexType.INSTANCE))
+        .collect(Collectors.toList());
+    BsonDocument otherProps = partialFilter == null ? null
+        : newDocument("partialFilterExpression", partialFilter);
+    return new IndexOptions(IndexVersion.V1, "idx", "db", "col", false, false, sparse, 0, keys,
+        null, otherProps);
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.utils.cloner;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class AkkaDbClonerTest {
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newCachedThreadPool();
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void awaitAllWaitsForTheCollectionsThatAreStillCloning() throws Exception {
+    CountDownLatch failed = new CountDownLatch(1);
+    CountDownLatch releaseCloning = new CountDownLatch(1);
+    CountDownLatch cloned = new CountDownLatch(1);
+
+    List<Future<?>> futures = Arrays.asList(
+        executor.submit(() -> {
+          failed.countDown();
+          throw new IllegalStateException("the collection could not be cloned");
+        }),
+        executor.submit(() -> {
+          releaseCloning.await();
+          cloned.countDown();
+          throw new IllegalStateException("the collection was aborted");
+        })
+    );
+    assertTrue(failed.await(10, TimeUnit.SECONDS));
+
+    Future<?> awaitAll = executor.submit(() -> {
+      AkkaDbCloner.awaitAll(futures);
+      return null;
+    });
+
+    Thread.sleep(100);
+    assertFalse("awaitAll should wait until the collection that is still cloning finishes",
+        awaitAll.isDone());
+
+    releaseCloning.countDown();
+    awaitAll.get(10, TimeUnit.SECONDS);
+    assertTrue(cloned.await(0, TimeUnit.SECONDS));
+  }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.mongodb.utils.cloner;
+
+import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newDocument;
+import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newDouble;
+import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newInt;
+import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newLong;
+import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newString;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Ints;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.BsonObjectId;
+import com.torodb.mongowp.bson.BsonValue;
+import com.torodb.mongowp.bson.impl.ByteArrayBsonObjectId;
+import com.torodb.mongowp.bson.utils.DefaultBsonValues;
+import com.torodb.mongowp.utils.BsonDocumentBuilder;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+public class IdRangeSplitterTest {
+
+  @Test
+  public void testNoBounds() {
+    List<BsonDocument> queries = IdRangeSplitter.createRangeQueries(Collections.emptyList());
+
+    assertEquals(Collections.singletonList(DefaultBsonValues.EMPTY_DOC), queries);
+  }
+
+  @Test
+  public void testRangeQueries() {
+    List<BsonValue<?>> bounds = Lists.newArrayList(newInt(10), newInt(20));
+
+    List<BsonDocument> queries = IdRangeSplitter.createRangeQueries(bounds);
+
+    assertEquals(3, queries.size());
+    assertEquals(newDocument("_id", newDocument("$lt", newInt(10))), queries.get(0));
+    assertEquals(
+        newDocument("_id", new BsonDocumentBuilder()
+            .appendUnsafe("$gte", newInt(10))
+            .appendUnsafe("$lt", newInt(20))
+            .build()),
+        queries.get(1)
+    );
+    assertEquals(newDocument("_id", newDocument("$gte", newInt(20))), queries.get(2));
+  }
+
+  @Test
+  public void testInterpolateIntegralBounds() {
+    assertEquals(Lists.newArrayList(newLong(25), newLong(50), newLong(75)),
+        IdRangeSplitter.interpolateBounds(newInt(0), newLong(100), 4).get());
+  }
+
+  @Test
+  public void testInterpolateDiscardsEmptyRanges() {
+    assertEquals(Collections.singletonList(newLong(1)),
+        IdRangeSplitter.interpolateBounds(newInt(0), newInt(2), 4).get());
+  }
+
+  @Test
+  public void testInterpolateDoubleBounds() {
+    assertEquals(Collections.singletonList(newDouble(0.5)),
+        IdRangeSplitter.interpolateBounds(newDouble(0), newInt(1), 2).get());
+  }
+
+  @Test
+  public void testInterpolateObjectIdBounds() {
+    List<BsonValue<?>> bounds = IdRangeSplitter.interpolateBounds(createObjectId(100, 7),
+        createObjectId(200, 3), 2).get();
+
+    assertEquals(1, bounds.size());
+    assertArrayEquals(createObjectId(150, 0).toByteArray(),
+        ((BsonObjectId) bounds.get(0)).toByteArray());
+  }
+
+  @Test
+  public void testStringsAreNotInterpolated() {
+    assertFalse(IdRangeSplitter.interpolateBounds(newString("a"), newString("z"), 4)
+        .isPresent());
+  }
+
+  @Test
+  public void testSameBracket() {
+    assertTrue(IdRangeSplitter.isSameBracket(newInt(1), newLong(1000)));
+    assertTrue(IdRangeSplitter.isSameBracket(newString("a"), newString("z")));
+    assertFalse(IdRangeSplitter.isSameBracket(newInt(1), newString("a")));
+  }
+
+  private static BsonObjectId createObjectId(int timestamp, int counter) {
+    byte[] bytes = new byte[12];
+    System.arraycopy(Ints.toByteArray(timestamp), 0, bytes, 0, 4);
+    System.arraycopy(Ints.toByteArray(counter), 0, bytes, 8, 4);
+    return new ByteArrayBsonObjectId(bytes);
+  }
+
+}
@@ -0,0 +1,214 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.mongodb.repl;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+import com.torodb.core.backend.MetaInfoKey;
+import com.torodb.core.exceptions.user.UserException;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvNumeric;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import com.torodb.mongodb.core.MongodServer;
+import com.torodb.mongodb.language.Namespace;
+import com.torodb.mongowp.OpTime;
+import com.torodb.mongowp.bson.BsonDateTime;
+import com.torodb.mongowp.bson.utils.DefaultBsonValues;
+import com.torodb.mongowp.bson.utils.TimestampToDateTime;
+import com.torodb.torod.ReadOnlyTorodTransaction;
+import com.torodb.torod.SharedWriteTorodTransaction;
+import com.torodb.torod.TorodConnection;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Stores the progress of an initial sync on the backend metainfo, so a failed initial sync can be
+ * resumed instead of cloning everything again.
+ * <p>
+ * The stored progress contains the remote operation the initial sync started at and the
+ * collections whose data has been completely cloned. Namespaces are stored as a single string
+ * where each one is prefixed by a {@code $}, which cannot be used on database or collection
+ * names.
+ */
+@ThreadSafe
+class InitialSyncCheckpoint {
+
+  private static final String PREFIX = "repl.initialSync.";
+  private static final MetaInfoKey IN_PROGRESS_KEY = () -> PREFIX + "inProgress";
+  private static final MetaInfoKey HASH_KEY = () -> PREFIX + "hash";
+  private static final MetaInfoKey OPTIME_I_KEY = () -> PREFIX + "optime_i";
+  private static final MetaInfoKey OPTIME_T_KEY = () -> PREFIX + "optime_t";
+  private static final MetaInfoKey CLONED_KEY = () -> PREFIX + "clonedCollections";
+  private static final char SEPARATOR = '$';
+
+  private final MongodServer server;
+  private final Set<Namespace> cloned = new HashSet<>();
+
+  InitialSyncCheckpoint(MongodServer server) {
+    this.server = server;
+  }
+
+  /**
+   * Returns the progress of the last initial sync if it didn't finish.
+   */
+  public synchronized Optional<Progress> load() {
+    try (TorodConnection conn = server.getTorodServer().openConnection();
+        ReadOnlyTorodTransaction trans = conn.openReadOnlyTransaction()) {
+      Optional<KvValue<?>> inProgress = trans.readMetaInfo(IN_PROGRESS_KEY);
+      if (!inProgress.isPresent() || !inProgress.get().equals(KvBoolean.TRUE)) {
+        return Optional.empty();
+      }
+      long hash = readLong(trans.readMetaInfo(HASH_KEY), HASH_KEY);
+      long optimeAsLong = readLong(trans.readMetaInfo(OPTIME_I_KEY), OPTIME_I_KEY);
+      long term = readLong(trans.readMetaInfo(OPTIME_T_KEY), OPTIME_T_KEY);
+      BsonDateTime optimeAsDateTime = DefaultBsonValues.newDateTime(optimeAsLong);
+      OpTime opTime = new OpTime(
+          TimestampToDateTime.toTimestamp(optimeAsDateTime, DefaultBsonValues::newTimestamp),
+          term
+      );
+
+      cloned.clear();
+      trans.readMetaInfo(CLONED_KEY)
+          .map(value -> parseNamespaces(value.getValue().toString()))
+          .ifPresent(cloned::addAll);
+
+      return Optional.of(new Progress(hash, opTime, cloned));
+    }
+  }
+
+  /**
+   * Stores that a new initial sync started at the given remote operation.
+   */
+  public synchronized void start(long hash, OpTime opTime) throws UserException {
+    cloned.clear();
+    try (TorodConnection conn = server.getTorodServer().openConnection();
+        SharedWriteTorodTransaction trans = conn.openWriteTransaction(false)) {
+      //TODO: This should be stored as timestamp once TORODB-189 is resolved
+      long optimeAsLong = opTime.toOldBson().getMillisFromUnix();
+
+      trans.writeMetaInfo(HASH_KEY, KvLong.of(hash));
+      trans.writeMetaInfo(OPTIME_I_KEY, KvLong.of(optimeAsLong));
+      trans.writeMetaInfo(OPTIME_T_KEY, KvLong.of(opTime.getTerm()));
+      trans.writeMetaInfo(CLONED_KEY, new StringKvString(""));
+      trans.writeMetaInfo(IN_PROGRESS_KEY, KvBoolean.TRUE);
+      trans.commit();
+    }
+  }
+
+  /**
+   * Stores that the data of the given collection has been completely cloned.
+   */
+  public synchronized void markCloned(Namespace namespace) throws UserException {
+    if (!cloned.add(namespace)) {
+      return;
+    }
+    try (TorodConnection conn = server.getTorodServer().openConnection();
+        SharedWriteTorodTransaction trans = conn.openWriteTransaction(false)) {
+      trans.writeMetaInfo(CLONED_KEY, new StringKvString(serializeNamespaces(cloned)));
+      trans.commit();
+    }
+  }
+
+  /**
+   * Forgets the stored progress, so the next initial sync starts from scratch.
+   */
+  public synchronized void clear() throws UserException {
+    cloned.clear();
+    try (TorodConnection conn = server.getTorodServer().openConnection();
+        SharedWriteTorodTransaction trans = conn.openWriteTransaction(false)) {
+      trans.writeMetaInfo(IN_PROGRESS_KEY, KvBoolean.FALSE);
+      trans.writeMetaInfo(CLONED_KEY, new StringKvString(""));
+      trans.commit();
+    }
+  }
+
+  static String serializeNamespaces(Set<Namespace> namespaces) {
+    StringBuilder sb = new StringBuilder();
+    for (Namespace namespace : namespaces) {
+      sb.append(SEPARATOR)
+          .append(namespace.getDatabase())
+          .append('.')
+          .append(namespace.getCollection());
+    }
+    return sb.toString();
+  }
+
+  static Set<Namespace> parseNamespaces(String serialized) {
+    ImmutableSet.Builder<Namespace> namespaces = ImmutableSet.builder();
+    for (String fullName : Splitter.on(SEPARATOR).omitEmptyStrings().split(serialized)) {
+      int dotIndex = fullName.indexOf('.');
+      if (dotIndex < 0) {
+        throw new IllegalStateException("Unexpected namespace " + fullName + " on the "
+            + "metainfo key " + CLONED_KEY.getKeyName());
+      }
+      namespaces.add(new Namespace(
+          fullName.substring(0, dotIndex),
+          fullName.substring(dotIndex + 1)
+      ));
+    }
+    return namespaces.build();
+  }
+
+  private static long readLong(Optional<KvValue<?>> value, MetaInfoKey key) {
+    if (!value.isPresent() || !(value.get() instanceof KvNumeric)) {
+      throw new IllegalStateException("A numeric value was expected on metainfo key "
+          + key.getKeyName() + " but " + value + " was found");
+    }
+    return ((KvNumeric<?>) value.get()).longValue();
+  }
+
+  public static class Progress {
+
+    private final long hash;
+    private final OpTime opTime;
+    private final ImmutableSet<Namespace> clonedNamespaces;
+
+    private Progress(long hash, OpTime opTime, Set<Namespace> clonedNamespaces) {
+      this.hash = hash;
+      this.opTime = opTime;
+      this.clonedNamespaces = ImmutableSet.copyOf(clonedNamespaces);
+    }
+
+    /**
+     * The hash of the remote operation the initial sync started at.
+     */
+    public long getHash() {
+      return hash;
+    }
+
+    /**
+     * The optime of the remote operation the initial sync started at.
+     */
+    public OpTime getOpTime() {
+      return opTime;
+    }
+
+    /**
+     * The collections whose data has been completely cloned.
+     */
+    public ImmutableSet<Namespace> getClonedNamespaces() {
+      return clonedNamespaces;
+    }
+  }
+}
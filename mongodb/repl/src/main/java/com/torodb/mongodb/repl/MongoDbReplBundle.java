@@ -101,7 +101,7 @@ public class MongoDbReplBundle extends AbstractBundle<MongoDbReplExtInt> {
     Injector replInjector = config.getEssentialInjector().createChildInjector(
         essentialOverrideModule,
         new HubModule(),
-        new MongoDbReplModule(),
+        new MongoDbReplModule(config.getLocalOplogBufferConfig()),
         new OplogApplierServiceModule()
     );
     this.replCoordinator = replInjector.getInstance(ReplCoordinator.class);
@@ -186,6 +186,7 @@ public class MongoDbReplBundle extends AbstractBundle<MongoDbReplExtInt> {
         config.getReplSetName(),
         config.getSyncSourceSeed(),
         essentialOverrideModule,
+        config.getGroupCommitPolicy(),
         replBundleConfig
     );
   }
@@ -26,6 +26,8 @@ import com.torodb.core.metrics.ToroMetricRegistry;
 import com.torodb.core.supervision.Supervisor;
 import com.torodb.mongodb.core.MongoDbCoreBundle;
 import com.torodb.mongodb.repl.filters.ReplicationFilters;
+import com.torodb.mongodb.repl.oplogreplier.batch.GroupCommitPolicy;
+import com.torodb.mongodb.repl.oplogreplier.fetcher.LocalOplogBufferConfig;
 import com.torodb.mongowp.client.wrapper.MongoClientConfiguration;
 
 import java.util.Optional;
@@ -42,6 +44,8 @@ public class MongoDbReplConfig implements BundleConfig {
   private final ConsistencyHandler consistencyHandler;
   private final Optional<ToroMetricRegistry> metricRegistry;
   private final LoggerFactory loggerFactory;
+  private final GroupCommitPolicy groupCommitPolicy;
+  private final LocalOplogBufferConfig localOplogBufferConfig;
   private final BundleConfig generalConfig;
 
   public MongoDbReplConfig(MongoDbCoreBundle coreBundle,
@@ -49,6 +53,27 @@ public class MongoDbReplConfig implements BundleConfig {
       String replSetName, ConsistencyHandler consistencyHandler, 
       Optional<ToroMetricRegistry> metricRegistry,
       LoggerFactory loggerFactory, BundleConfig generalConfig) {
+    this(coreBundle, mongoClientConfiguration, userReplFilter, replSetName, consistencyHandler,
+        metricRegistry, loggerFactory, GroupCommitPolicy.disabled(), generalConfig);
+  }
+
+  public MongoDbReplConfig(MongoDbCoreBundle coreBundle,
+      MongoClientConfiguration mongoClientConfiguration, ReplicationFilters userReplFilter,
+      String replSetName, ConsistencyHandler consistencyHandler,
+      Optional<ToroMetricRegistry> metricRegistry,
+      LoggerFactory loggerFactory, GroupCommitPolicy groupCommitPolicy,
+      BundleConfig generalConfig) {
+    this(coreBundle, mongoClientConfiguration, userReplFilter, replSetName, consistencyHandler,
+        metricRegistry, loggerFactory, groupCommitPolicy, LocalOplogBufferConfig.defaults(),
+        generalConfig);
+  }
+
+  public MongoDbReplConfig(MongoDbCoreBundle coreBundle,
+      MongoClientConfiguration mongoClientConfiguration, ReplicationFilters userReplFilter,
+      String replSetName, ConsistencyHandler consistencyHandler,
+      Optional<ToroMetricRegistry> metricRegistry,
+      LoggerFactory loggerFactory, GroupCommitPolicy groupCommitPolicy,
+      LocalOplogBufferConfig localOplogBufferConfig, BundleConfig generalConfig) {
     this.coreBundle = coreBundle;
     this.mongoClientConfiguration = mongoClientConfiguration;
     this.userReplFilter = userReplFilter;
@@ -56,6 +81,8 @@ public class MongoDbReplConfig implements BundleConfig {
     this.consistencyHandler = consistencyHandler;
     this.metricRegistry = metricRegistry;
     this.loggerFactory = loggerFactory;
+    this.groupCommitPolicy = groupCommitPolicy;
+    this.localOplogBufferConfig = localOplogBufferConfig;
     this.generalConfig = generalConfig;
   }
 
@@ -87,6 +114,14 @@ public class MongoDbReplConfig implements BundleConfig {
     return loggerFactory;
   }
 
+  public GroupCommitPolicy getGroupCommitPolicy() {
+    return groupCommitPolicy;
+  }
+
+  public LocalOplogBufferConfig getLocalOplogBufferConfig() {
+    return localOplogBufferConfig;
+  }
+
   @Override
   public Injector getEssentialInjector() {
     return generalConfig.getEssentialInjector();
@@ -24,6 +24,8 @@ import com.torodb.core.logging.LoggerFactory;
 import com.torodb.core.metrics.ToroMetricRegistry;
 import com.torodb.mongodb.core.MongoDbCoreBundle;
 import com.torodb.mongodb.repl.filters.ReplicationFilters;
+import com.torodb.mongodb.repl.oplogreplier.batch.GroupCommitPolicy;
+import com.torodb.mongodb.repl.oplogreplier.fetcher.LocalOplogBufferConfig;
 import com.torodb.mongowp.client.wrapper.MongoClientConfiguration;
 
 import java.util.Optional;
@@ -37,6 +39,8 @@ public class MongoDbReplConfigBuilder {
   private ConsistencyHandler consistencyHandler;
   private Optional<ToroMetricRegistry> metricRegistry;
   private LoggerFactory loggerFactory;
+  private GroupCommitPolicy groupCommitPolicy = GroupCommitPolicy.disabled();
+  private LocalOplogBufferConfig localOplogBufferConfig = LocalOplogBufferConfig.defaults();
   private final BundleConfig generalConfig;
 
   public MongoDbReplConfigBuilder(BundleConfig generalConfig) {
@@ -79,6 +83,17 @@ public class MongoDbReplConfigBuilder {
     return this;
   }
 
+  public MongoDbReplConfigBuilder setGroupCommitPolicy(GroupCommitPolicy groupCommitPolicy) {
+    this.groupCommitPolicy = groupCommitPolicy;
+    return this;
+  }
+
+  public MongoDbReplConfigBuilder setLocalOplogBufferConfig(
+      LocalOplogBufferConfig localOplogBufferConfig) {
+    this.localOplogBufferConfig = localOplogBufferConfig;
+    return this;
+  }
+
   public MongoDbReplConfig build() {
     Preconditions.checkNotNull(coreBundle, "core bundle must be not null");
     Preconditions.checkNotNull(mongoClientConfiguration, "mongo client configuration must be not "
@@ -89,9 +104,13 @@ public class MongoDbReplConfigBuilder {
     Preconditions.checkNotNull(generalConfig, "general config must be not null");
     Preconditions.checkNotNull(metricRegistry, "metric registry must be not null");
     Preconditions.checkNotNull(loggerFactory, "logger factory must be not null");
+    Preconditions.checkNotNull(groupCommitPolicy, "group commit policy must be not null");
+    Preconditions.checkNotNull(localOplogBufferConfig, "local oplog buffer config must be not "
+        + "null");
 
     return new MongoDbReplConfig(coreBundle, mongoClientConfiguration, replicationFilters,
-        replSetName, consistencyHandler, metricRegistry, loggerFactory, generalConfig);
+        replSetName, consistencyHandler, metricRegistry, loggerFactory, groupCommitPolicy,
+        localOplogBufferConfig, generalConfig);
   }
 
 }
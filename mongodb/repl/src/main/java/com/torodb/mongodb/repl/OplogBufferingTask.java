@@ -0,0 +1,204 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.mongodb.repl;
+
+import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newDocument;
+import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newInt;
+
+import com.google.common.net.HostAndPort;
+import com.torodb.mongodb.commands.pojos.OplogOperationParser;
+import com.torodb.mongodb.repl.oplogreplier.fetcher.LocalOplogBuffer;
+import com.torodb.mongowp.OpTime;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.client.core.MongoClient;
+import com.torodb.mongowp.client.core.MongoConnection;
+import com.torodb.mongowp.commands.oplog.OplogOperation;
+import com.torodb.mongowp.commands.pojos.MongoCursor;
+import com.torodb.mongowp.commands.pojos.MongoCursor.Batch;
+import com.torodb.mongowp.exceptions.OplogStartMissingException;
+import com.torodb.mongowp.messages.request.QueryMessage.QueryOption;
+import com.torodb.mongowp.messages.request.QueryMessage.QueryOptions;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Copies the remote oplog into a {@link LocalOplogBuffer} while the initial sync clones the
+ * databases, so the remote oplog can roll over without making the initial sync fail.
+ * <p>
+ * The task tails the remote oplog from the given optime until it is {@link #stop() stopped}.
+ * Once it is stopped, the buffer can be safely read by other threads.
+ */
+@ThreadSafe
+class OplogBufferingTask implements Runnable, AutoCloseable {
+
+  private static final String OPLOG_DB = "local";
+  private static final String OPLOG_COL = "oplog.rs";
+  private static final BsonDocument NATURAL_ORDER_SORT = newDocument("$natural", newInt(1));
+  private static final long EMPTY_FETCH_SLEEP_MILLIS = 100;
+
+  private final Logger logger;
+  private final MongoClient remoteClient;
+  private final HostAndPort syncSource;
+  private final OpTime from;
+  private final LocalOplogBuffer buffer;
+  private final CountDownLatch finished = new CountDownLatch(1);
+  private volatile boolean stopRequested = false;
+  private volatile OpTime lastFetched = null;
+  private volatile Throwable error = null;
+
+  public OplogBufferingTask(Logger logger, MongoClient remoteClient, HostAndPort syncSource,
+      OpTime from, LocalOplogBuffer buffer) {
+    this.logger = logger;
+    this.remoteClient = remoteClient;
+    this.syncSource = syncSource;
+    this.from = from;
+    this.buffer = buffer;
+  }
+
+  @Override
+  public void run() {
+    try (MongoConnection connection = remoteClient.openConnection()) {
+      MongoCursor<BsonDocument> cursor = connection.query(
+          OPLOG_DB,
+          OPLOG_COL,
+          newDocument("ts", newDocument("$gte", from.getTimestamp())),
+          0,
+          0,
+          new QueryOptions(EnumSet.of(
+              QueryOption.AWAIT_DATA,
+              QueryOption.TAILABLE_CURSOR,
+              QueryOption.SLAVE_OK
+          )),
+          NATURAL_ORDER_SORT,
+          null
+      );
+      try {
+        while (!stopRequested) {
+          if (!bufferBatch(cursor)) {
+            Thread.sleep(EMPTY_FETCH_SLEEP_MILLIS);
+          }
+        }
+      } finally {
+        cursor.close();
+      }
+      logger.debug("{} remote oplog entries have been buffered", buffer.size());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      error = ex;
+    } catch (Throwable ex) {
+      logger.warn("Error while buffering the remote oplog", ex);
+      error = ex;
+    } finally {
+      finished.countDown();
+    }
+  }
+
+  /**
+   * Stores the next fetched batch on the buffer.
+   *
+   * @return true iff some operation was fetched
+   */
+  private boolean bufferBatch(MongoCursor<BsonDocument> cursor) throws Exception {
+    if (cursor.isClosed()) {
+      throw new IllegalStateException("The remote oplog cursor has been closed");
+    }
+    Batch<BsonDocument> batch = cursor.tryFetchBatch();
+    if (batch == null) {
+      return false;
+    }
+    try {
+      if (!batch.hasNext()) {
+        return false;
+      }
+      while (batch.hasNext()) {
+        BsonDocument doc = batch.next();
+        OplogOperation op = OplogOperationParser.fromBson(doc);
+        if (lastFetched == null && !op.getOpTime().equals(from)) {
+          throw new OplogStartMissingException(syncSource);
+        }
+        buffer.append(doc);
+        lastFetched = op.getOpTime();
+      }
+      synchronized (this) {
+        notifyAll();
+      }
+      return true;
+    } finally {
+      batch.close();
+    }
+  }
+
+  /**
+   * Waits until the operation with the given optime has been buffered.
+   *
+   * @return true iff all operations until the given one have been buffered or false if the task
+   *         failed
+   */
+  public boolean awaitFetched(OpTime target) throws InterruptedException {
+    synchronized (this) {
+      while (!isFetched(target) && finished.getCount() > 0) {
+        wait(EMPTY_FETCH_SLEEP_MILLIS);
+      }
+    }
+    return isFetched(target);
+  }
+
+  private boolean isFetched(OpTime target) {
+    OpTime last = lastFetched;
+    return error == null && last != null && last.compareTo(target) >= 0;
+  }
+
+  /**
+   * Stops the task and waits until it finishes.
+   */
+  public void stop() throws InterruptedException {
+    stopRequested = true;
+    finished.await();
+  }
+
+  public LocalOplogBuffer getBuffer() {
+    return buffer;
+  }
+
+  public Optional<Throwable> getError() {
+    return Optional.ofNullable(error);
+  }
+
+  /**
+   * Stops the task and deletes the buffer.
+   */
+  @Override
+  public void close() {
+    try {
+      stop();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    try {
+      buffer.close();
+    } catch (IOException ex) {
+      logger.warn("Error while deleting the local oplog buffer", ex);
+    }
+  }
+}
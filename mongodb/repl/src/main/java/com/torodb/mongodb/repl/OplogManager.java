@@ -18,12 +18,10 @@
 
 package com.torodb.mongodb.repl;
 
-import static com.torodb.mongowp.bson.utils.DefaultBsonValues.EMPTY_DOC;
-import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newLong;
-
 import com.google.common.base.Preconditions;
 import com.torodb.common.util.Empty;
 import com.torodb.core.annotations.TorodbIdleService;
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.logging.LoggerFactory;
 import com.torodb.core.retrier.Retrier;
@@ -31,21 +29,16 @@ import com.torodb.core.retrier.Retrier.Hint;
 import com.torodb.core.retrier.RetrierAbortException;
 import com.torodb.core.retrier.RetrierGiveUpException;
 import com.torodb.core.services.IdleTorodbService;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvNumeric;
+import com.torodb.kvdocument.values.KvValue;
 import com.torodb.mongodb.annotations.Locked;
-import com.torodb.mongodb.commands.signatures.general.DeleteCommand;
-import com.torodb.mongodb.commands.signatures.general.DeleteCommand.DeleteArgument;
-import com.torodb.mongodb.commands.signatures.general.DeleteCommand.DeleteStatement;
 import com.torodb.mongodb.commands.signatures.general.FindCommand;
 import com.torodb.mongodb.commands.signatures.general.FindCommand.FindArgument;
 import com.torodb.mongodb.commands.signatures.general.FindCommand.FindResult;
-import com.torodb.mongodb.commands.signatures.general.InsertCommand;
-import com.torodb.mongodb.commands.signatures.general.InsertCommand.InsertArgument;
-import com.torodb.mongodb.commands.signatures.general.InsertCommand.InsertResult;
 import com.torodb.mongodb.core.MongodConnection;
 import com.torodb.mongodb.core.MongodServer;
 import com.torodb.mongodb.core.ReadOnlyMongodTransaction;
-import com.torodb.mongodb.core.WriteMongodTransaction;
-import com.torodb.mongowp.ErrorCode;
 import com.torodb.mongowp.OpTime;
 import com.torodb.mongowp.Status;
 import com.torodb.mongowp.bson.BsonDateTime;
@@ -55,12 +48,17 @@ import com.torodb.mongowp.bson.utils.TimestampToDateTime;
 import com.torodb.mongowp.commands.Request;
 import com.torodb.mongowp.commands.oplog.OplogOperation;
 import com.torodb.mongowp.exceptions.MongoException;
-import com.torodb.mongowp.utils.BsonDocumentBuilder;
+import com.torodb.mongowp.exceptions.NoSuchKeyException;
+import com.torodb.mongowp.exceptions.TypesMismatchException;
 import com.torodb.mongowp.utils.BsonReaderTool;
+import com.torodb.torod.ReadOnlyTorodTransaction;
+import com.torodb.torod.SharedWriteTorodTransaction;
+import com.torodb.torod.TorodTransaction;
 import org.apache.logging.log4j.Logger;
 
 import java.io.Closeable;
 import java.util.Iterator;
+import java.util.Optional;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -75,9 +73,15 @@ import javax.inject.Inject;
 public class OplogManager extends IdleTorodbService {
 
   private static final String KEY = "lastAppliedOplogEntry";
-  private static final BsonDocument DOC_QUERY = EMPTY_DOC;
+  /**
+   * The database where the last applied operation was stored before it was moved to the backend
+   * metainfo. It is only read to be able to continue replicating from old installations.
+   */
   private static final String OPLOG_DB = "torodb";
   private static final String OPLOG_COL = "oplog.replication";
+  private static final MetaInfoKey HASH_KEY = () -> "repl." + KEY + ".hash";
+  private static final MetaInfoKey OPTIME_I_KEY = () -> "repl." + KEY + ".optime_i";
+  private static final MetaInfoKey OPTIME_T_KEY = () -> "repl." + KEY + ".optime_t";
 
   private final Logger logger;
   private final ReadWriteLock lock = new ReentrantReadWriteLock();
@@ -136,41 +140,14 @@ public class OplogManager extends IdleTorodbService {
 
     try {
       retrier.retry(() -> {
-        try (WriteMongodTransaction transaction = connection.openWriteTransaction()) {
-          Status<Long> deleteResult = transaction.execute(
-              new Request(OPLOG_DB, null, true, null),
-              DeleteCommand.INSTANCE,
-              new DeleteArgument.Builder(OPLOG_COL)
-                  .addStatement(new DeleteStatement(DOC_QUERY, false))
-                  .build()
-          );
-          if (!deleteResult.isOk()) {
-            throw new RetrierAbortException(new MongoException(deleteResult));
-          }
+        try (SharedWriteTorodTransaction transaction = connection.getTorodConnection()
+            .openWriteTransaction(false)) {
           //TODO: This should be stored as timestamp once TORODB-189 is resolved
           long optimeAsLong = opTime.toOldBson().getMillisFromUnix();
 
-          Status<InsertResult> insertResult = transaction.execute(
-              new Request(OPLOG_DB, null, true, null),
-              InsertCommand.INSTANCE,
-              new InsertArgument.Builder(OPLOG_COL)
-                  .addDocument(
-                      new BsonDocumentBuilder()
-                          .appendUnsafe(KEY, new BsonDocumentBuilder()
-                              .appendUnsafe("hash", newLong(hash))
-                              .appendUnsafe("optime_i", DefaultBsonValues.newLong(optimeAsLong))
-                              .appendUnsafe("optime_t", newLong(opTime.getTerm()))
-                              .build()
-                          ).build()
-                  ).build()
-          );
-          if (insertResult.isOk() && insertResult.getResult().getN() != 1) {
-            throw new RetrierAbortException(new MongoException(ErrorCode.OPERATION_FAILED,
-                "More than one element inserted"));
-          }
-          if (!insertResult.isOk()) {
-            throw new RetrierAbortException(new MongoException(insertResult));
-          }
+          transaction.writeMetaInfo(HASH_KEY, KvLong.of(hash));
+          transaction.writeMetaInfo(OPTIME_I_KEY, KvLong.of(optimeAsLong));
+          transaction.writeMetaInfo(OPTIME_T_KEY, KvLong.of(opTime.getTerm()));
           transaction.commit();
           return Empty.getInstance();
         } catch (UserException ex) {
@@ -186,46 +163,91 @@ public class OplogManager extends IdleTorodbService {
   private void loadState() throws OplogManagerPersistException {
     try {
       retrier.retry(() -> {
-        try (ReadOnlyMongodTransaction transaction = connection.openReadOnlyTransaction()) {
-          Status<FindResult> status = transaction.execute(
-              new Request(OPLOG_DB, null, true, null),
-              FindCommand.INSTANCE,
-              new FindArgument.Builder()
-                  .setCollection(OPLOG_COL)
-                  .setSlaveOk(true)
-                  .build()
-          );
-          if (!status.isOk()) {
-            throw new RetrierAbortException(new MongoException(status));
-          }
-
-          Iterator<BsonDocument> batch = status.getResult().getCursor().getFirstBatch();
-          if (!batch.hasNext()) {
-            lastAppliedHash = 0;
-            lastAppliedOpTime = OpTime.EPOCH;
-          } else {
-            BsonDocument doc = batch.next();
-
-            BsonDocument subDoc = BsonReaderTool.getDocument(doc, KEY);
-            lastAppliedHash = BsonReaderTool.getLong(subDoc, "hash");
-
-            long optimeAsLong = BsonReaderTool.getLong(subDoc, "optime_i");
-            BsonDateTime optimeAsDateTime = DefaultBsonValues.newDateTime(optimeAsLong);
-
-            lastAppliedOpTime = new OpTime(
-                TimestampToDateTime.toTimestamp(optimeAsDateTime, DefaultBsonValues::newTimestamp),
-                BsonReaderTool.getLong(subDoc, "optime_t")
-            );
-          }
-          notifyLastAppliedOpTimeChange();
-          return Empty.getInstance();
+        boolean loaded;
+        try (ReadOnlyTorodTransaction transaction = connection.getTorodConnection()
+            .openReadOnlyTransaction()) {
+          loaded = loadStateFromMetaInfo(transaction);
+        }
+        if (!loaded) {
+          loadLegacyState();
         }
+        notifyLastAppliedOpTimeChange();
+        return Empty.getInstance();
       }, Hint.INFREQUENT_ROLLBACK);
     } catch (RetrierGiveUpException ex) {
       throw new OplogManagerPersistException(ex);
     }
   }
 
+  private boolean loadStateFromMetaInfo(TorodTransaction transaction) {
+    Optional<KvValue<?>> hash = transaction.readMetaInfo(HASH_KEY);
+    if (!hash.isPresent()) {
+      return false;
+    }
+    long optimeAsLong = readLongMetaInfo(transaction, OPTIME_I_KEY);
+    BsonDateTime optimeAsDateTime = DefaultBsonValues.newDateTime(optimeAsLong);
+
+    lastAppliedHash = toLong(HASH_KEY, hash.get());
+    lastAppliedOpTime = new OpTime(
+        TimestampToDateTime.toTimestamp(optimeAsDateTime, DefaultBsonValues::newTimestamp),
+        readLongMetaInfo(transaction, OPTIME_T_KEY)
+    );
+    return true;
+  }
+
+  private long readLongMetaInfo(TorodTransaction transaction, MetaInfoKey key) {
+    return toLong(key, transaction.readMetaInfo(key)
+        .orElseThrow(() -> new IllegalStateException("The metainfo key " + key.getKeyName()
+            + " should be stored but it was not found"))
+    );
+  }
+
+  private long toLong(MetaInfoKey key, KvValue<?> value) {
+    if (!(value instanceof KvNumeric)) {
+      throw new IllegalStateException("A numeric value was expected on metainfo key "
+          + key.getKeyName() + " but " + value + " was found");
+    }
+    return ((KvNumeric<?>) value).longValue();
+  }
+
+  /**
+   * Loads the state from the collection used to store it before it was moved to the metainfo.
+   */
+  private void loadLegacyState() throws TypesMismatchException, NoSuchKeyException {
+    try (ReadOnlyMongodTransaction transaction = connection.openReadOnlyTransaction()) {
+      Status<FindResult> status = transaction.execute(
+          new Request(OPLOG_DB, null, true, null),
+          FindCommand.INSTANCE,
+          new FindArgument.Builder()
+              .setCollection(OPLOG_COL)
+              .setSlaveOk(true)
+              .build()
+      );
+      if (!status.isOk()) {
+        throw new RetrierAbortException(new MongoException(status));
+      }
+
+      Iterator<BsonDocument> batch = status.getResult().getCursor().getFirstBatch();
+      if (!batch.hasNext()) {
+        lastAppliedHash = 0;
+        lastAppliedOpTime = OpTime.EPOCH;
+      } else {
+        BsonDocument doc = batch.next();
+
+        BsonDocument subDoc = BsonReaderTool.getDocument(doc, KEY);
+        lastAppliedHash = BsonReaderTool.getLong(subDoc, "hash");
+
+        long optimeAsLong = BsonReaderTool.getLong(subDoc, "optime_i");
+        BsonDateTime optimeAsDateTime = DefaultBsonValues.newDateTime(optimeAsLong);
+
+        lastAppliedOpTime = new OpTime(
+            TimestampToDateTime.toTimestamp(optimeAsDateTime, DefaultBsonValues::newTimestamp),
+            BsonReaderTool.getLong(subDoc, "optime_t")
+        );
+      }
+    }
+  }
+
   public static class OplogManagerPersistException extends Exception {
 
     private static final long serialVersionUID = -2352073393613989057L;
@@ -34,6 +34,7 @@ import com.torodb.mongodb.core.MongodServer;
 import com.torodb.mongodb.filters.IndexFilter;
 import com.torodb.mongodb.filters.NamespaceFilter;
 import com.torodb.mongodb.language.Namespace;
+import com.torodb.mongodb.repl.InitialSyncCheckpoint.Progress;
 import com.torodb.mongodb.repl.OplogManager.OplogManagerPersistException;
 import com.torodb.mongodb.repl.OplogManager.ReadOplogTransaction;
 import com.torodb.mongodb.repl.OplogManager.WriteOplogTransaction;
@@ -45,6 +46,9 @@ import com.torodb.mongodb.repl.oplogreplier.OplogApplier.UnexpectedOplogApplierE
 import com.torodb.mongodb.repl.oplogreplier.RollbackReplicationException;
 import com.torodb.mongodb.repl.oplogreplier.StopReplicationException;
 import com.torodb.mongodb.repl.oplogreplier.fetcher.LimitedOplogFetcher;
+import com.torodb.mongodb.repl.oplogreplier.fetcher.LocalOplogBuffer;
+import com.torodb.mongodb.repl.oplogreplier.fetcher.LocalOplogBufferConfig;
+import com.torodb.mongodb.repl.oplogreplier.fetcher.LocalOplogBufferFetcher;
 import com.torodb.mongodb.repl.oplogreplier.fetcher.OplogFetcher;
 import com.torodb.mongodb.utils.DbCloner;
 import com.torodb.mongodb.utils.DbCloner.CloneOptions;
@@ -67,19 +71,33 @@ import com.torodb.torod.TorodConnection;
 import com.torodb.torod.TorodServer;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ThreadFactory;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 
 public class RecoveryService extends RunnableTorodbService {
 
   private static final int MAX_ATTEMPTS = 10;
+  private static final int OPLOG_BUFFER_SEGMENT_SIZE = 64 * 1024 * 1024;
+  private static final int OPLOG_BUFFER_BATCH_SIZE = 1000;
+  private static final String OPLOG_BUFFER_PREFIX = "torodb-oplog-buffer";
   private final Logger logger;
+  private final ThreadFactory threadFactory;
   private final Callback callback;
   private final OplogManager oplogManager;
   private final SyncSourceProvider syncSourceProvider;
@@ -90,6 +108,8 @@ public class RecoveryService extends RunnableTorodbService {
   private final OplogApplier oplogApplier;
   private final NamespaceFilter namespaceFilter;
   private final IndexFilter indexFilter;
+  private final LocalOplogBufferConfig oplogBufferConfig;
+  private final InitialSyncCheckpoint checkpoint;
 
   @Inject
   public RecoveryService(
@@ -104,9 +124,11 @@ public class RecoveryService extends RunnableTorodbService {
       OplogApplier oplogApplier,
       NamespaceFilter namespaceFilter,
       IndexFilter indexFilter,
+      LocalOplogBufferConfig oplogBufferConfig,
       LoggerFactory lf) {
     super(callback, threadFactory);
     this.logger = lf.apply(this.getClass());
+    this.threadFactory = threadFactory;
     this.callback = callback;
     this.oplogManager = oplogManager;
     this.syncSourceProvider = syncSourceProvider;
@@ -117,6 +139,8 @@ public class RecoveryService extends RunnableTorodbService {
     this.oplogApplier = oplogApplier;
     this.namespaceFilter = namespaceFilter;
     this.indexFilter = indexFilter;
+    this.oplogBufferConfig = oplogBufferConfig;
+    this.checkpoint = new InitialSyncCheckpoint(server);
   }
 
   @Override
@@ -200,74 +224,95 @@ public class RecoveryService extends RunnableTorodbService {
 
       try (OplogReader reader = oplogReaderProvider.newReader(remoteConnection)) {
 
-        OplogOperation lastClonedOp = reader.getLastOp();
-        OpTime lastRemoteOptime1 = lastClonedOp.getOpTime();
-
-        try (WriteOplogTransaction oplogTransaction = oplogManager.createWriteTransaction()) {
-          logger.info("Remote database cloning started");
-          oplogTransaction.truncate();
-          logger.info("Local databases dropping started");
-          Status<?> status = dropDatabases();
-          if (!status.isOk()) {
-            throw new TryAgainException("Error while trying to drop collections: "
-                + status);
-          }
-          logger.info("Local databases dropping finished");
-          if (!isRunning()) {
-            logger.warn("Recovery stopped before it can finish");
-            return false;
-          }
-          logger.info("Remote database cloning started");
-          cloneDatabases(remoteClient);
-          logger.info("Remote database cloning finished");
-
-          oplogTransaction.forceNewValue(lastClonedOp.getHash(), lastClonedOp.getOpTime());
-        }
-
-        if (!isRunning()) {
-          logger.warn("Recovery stopped before it can finish");
-          return false;
+        Optional<Progress> progress = checkpoint.load();
+        long startHash;
+        OpTime lastRemoteOptime1;
+        Set<Namespace> clonedNamespaces;
+        if (progress.isPresent()) {
+          startHash = progress.get().getHash();
+          lastRemoteOptime1 = progress.get().getOpTime();
+          clonedNamespaces = progress.get().getClonedNamespaces();
+          logger.info("Resuming the initial sync started at {}. The data of {} collections was "
+              + "already cloned", lastRemoteOptime1, clonedNamespaces.size());
+        } else {
+          OplogOperation lastClonedOp = reader.getLastOp();
+          startHash = lastClonedOp.getHash();
+          lastRemoteOptime1 = lastClonedOp.getOpTime();
+          clonedNamespaces = Collections.emptySet();
         }
 
-        TorodServer torodServer = server.getTorodServer();
-
-        try (TorodConnection connection = torodServer.openConnection();
-            SharedWriteTorodTransaction trans = connection.openWriteTransaction(false)) {
-          OpTime lastRemoteOptime2 = reader.getLastOp().getOpTime();
-          logger.info("First oplog application started");
-          applyOplog(reader, lastRemoteOptime1, lastRemoteOptime2);
-          trans.commit();
-          logger.info("First oplog application finished");
-
-          if (!isRunning()) {
-            logger.warn("Recovery stopped before it can finish");
-            return false;
+        try (OplogBufferingTask bufferingTask =
+            startOplogBuffering(remoteClient, syncSource, lastRemoteOptime1)) {
+          try (WriteOplogTransaction oplogTransaction = oplogManager.createWriteTransaction()) {
+            if (!progress.isPresent()) {
+              logger.info("Remote database cloning started");
+              oplogTransaction.truncate();
+              logger.info("Local databases dropping started");
+              Status<?> status = dropDatabases();
+              if (!status.isOk()) {
+                throw new TryAgainException("Error while trying to drop collections: "
+                    + status);
+              }
+              logger.info("Local databases dropping finished");
+              checkpoint.start(startHash, lastRemoteOptime1);
+            }
+            if (!isRunning()) {
+              logger.warn("Recovery stopped before it can finish");
+              return false;
+            }
+            logger.info("Remote database cloning started");
+            cloneDatabases(remoteClient, clonedNamespaces);
+            logger.info("Remote database cloning finished");
+
+            oplogTransaction.forceNewValue(startHash, lastRemoteOptime1);
           }
 
-          OplogOperation lastOperation = reader.getLastOp();
-          OpTime lastRemoteOptime3 = lastOperation.getOpTime();
-          logger.info("Second oplog application started");
-          applyOplog(reader, lastRemoteOptime2, lastRemoteOptime3);
-          trans.commit();
-          logger.info("Second oplog application finished");
-
           if (!isRunning()) {
             logger.warn("Recovery stopped before it can finish");
             return false;
           }
 
-          logger.info("Index rebuild started");
-          rebuildIndexes();
-          trans.commit();
-          logger.info("Index rebuild finished");
-          if (!isRunning()) {
-            logger.warn("Recovery stopped before it can finish");
-            return false;
+          TorodServer torodServer = server.getTorodServer();
+
+          try (TorodConnection connection = torodServer.openConnection();
+              SharedWriteTorodTransaction trans = connection.openWriteTransaction(false)) {
+            OpTime lastRemoteOptime2 = reader.getLastOp().getOpTime();
+            logger.info("First oplog application started");
+            applyOplog(reader, bufferingTask, lastRemoteOptime1, lastRemoteOptime2);
+            trans.commit();
+            logger.info("First oplog application finished");
+
+            if (!isRunning()) {
+              logger.warn("Recovery stopped before it can finish");
+              return false;
+            }
+
+            OplogOperation lastOperation = reader.getLastOp();
+            OpTime lastRemoteOptime3 = lastOperation.getOpTime();
+            logger.info("Second oplog application started");
+            applyOplog(reader, lastRemoteOptime2, lastRemoteOptime3);
+            trans.commit();
+            logger.info("Second oplog application finished");
+
+            if (!isRunning()) {
+              logger.warn("Recovery stopped before it can finish");
+              return false;
+            }
+
+            logger.info("Index rebuild started");
+            rebuildIndexes();
+            trans.commit();
+            logger.info("Index rebuild finished");
+            if (!isRunning()) {
+              logger.warn("Recovery stopped before it can finish");
+              return false;
+            }
+
+            trans.commit();
           }
-
-          trans.commit();
         }
       } catch (OplogStartMissingException ex) {
+        discardCheckpoint();
         throw new TryAgainException(ex);
       } catch (OplogOperationUnsupported ex) {
         throw new TryAgainException(ex);
@@ -279,6 +324,7 @@ public class RecoveryService extends RunnableTorodbService {
         throw new FatalErrorException(ex);
       }
 
+      discardCheckpoint();
       callback.setConsistentState(true);
 
       logger.info("Initial sync finished");
@@ -288,20 +334,34 @@ public class RecoveryService extends RunnableTorodbService {
     return true;
   }
 
+  /**
+   * Forgets the progress of the current initial sync, so the next attempt starts from scratch.
+   */
+  private void discardCheckpoint() throws FatalErrorException {
+    try {
+      checkpoint.clear();
+    } catch (UserException | RollbackException ex) {
+      throw new FatalErrorException(ex);
+    }
+  }
+
   private void enableDataImportMode(String db) {
     logger.trace("Starting data import mode on {}", db);
     server.getTorodServer().enableDataImportMode(db).join();
     logger.debug("Data import mode started on {}", db);
   }
 
-  private void disableDataImportMode(String db) {
-    logger.trace("Ending data import mode on {}", db);
-    server.getTorodServer().disableDataImportMode(db)
+  private void disableDataImportMode(List<String> dbs) {
+    if (dbs.isEmpty()) {
+      return;
+    }
+    logger.trace("Ending data import mode on {}", dbs);
+    server.getTorodServer().disableDataImportMode(dbs)
         .whenComplete((empty, error) -> {
           if (error == null) {
-            logger.debug("Data import mode on database {} ended", db);
+            logger.debug("Data import mode on databases {} ended", dbs);
           } else {
-            logger.error("Error while disabling import mode on database " + db, error);
+            logger.error("Error while disabling import mode on databases " + dbs, error);
           }
         })
         .join();
@@ -328,13 +388,35 @@ public class RecoveryService extends RunnableTorodbService {
     return Status.ok();
   }
 
-  private void cloneDatabases(@Nonnull MongoClient remoteClient) throws CloningException,
-      MongoException, UserException {
+  private void cloneDatabases(@Nonnull MongoClient remoteClient,
+      Set<Namespace> clonedNamespaces) throws CloningException, MongoException, UserException {
 
-    streamRemoteDatabases(remoteClient)
+    List<String> databases = streamRemoteDatabases(remoteClient)
         .map(ListDatabasesReply.DatabaseEntry::getName)
         .filter(this::isReplicable)
-        .forEach(databaseName -> cloneDatabase(databaseName, remoteClient));
+        .collect(Collectors.toList());
+
+    Map<String, CloneOptions> optsByDb = new LinkedHashMap<>();
+    for (String databaseName : databases) {
+      Set<String> clonedColls = clonedNamespaces.stream()
+          .filter(namespace -> namespace.getDatabase().equals(databaseName))
+          .map(Namespace::getCollection)
+          .collect(Collectors.toSet());
+      optsByDb.put(databaseName, createCloneOptions(databaseName, clonedColls));
+    }
+
+    List<String> importingDbs = new ArrayList<>(databases.size());
+    try {
+      for (String databaseName : databases) {
+        enableDataImportMode(databaseName);
+        importingDbs.add(databaseName);
+      }
+      cloner.cloneDatabases(optsByDb, remoteClient, server);
+    } catch (MongoException ex) {
+      throw new CloningException(ex);
+    } finally {
+      disableDataImportMode(importingDbs);
+    }
   }
 
   private Stream<ListDatabasesReply.DatabaseEntry> streamRemoteDatabases(MongoClient remoteClient)
@@ -356,11 +438,11 @@ public class RecoveryService extends RunnableTorodbService {
     }
   }
 
-  private void cloneDatabase(String databaseName, MongoClient remoteClient) {
+  private CloneOptions createCloneOptions(String databaseName, Set<String> clonedColls) {
     MyWritePermissionSupplier writePermissionSupplier =
         new MyWritePermissionSupplier(databaseName);
 
-    CloneOptions options = new CloneOptions(
+    return new CloneOptions(
         true,
         true,
         true,
@@ -369,19 +451,84 @@ public class RecoveryService extends RunnableTorodbService {
         Collections.<String>emptySet(),
         writePermissionSupplier,
         (colName) -> namespaceFilter.filter(new Namespace(databaseName, colName)),
-        indexFilter
+        indexFilter,
+        clonedColls,
+        colName -> markCloned(new Namespace(databaseName, colName))
     );
+  }
 
+  private void markCloned(Namespace namespace) {
     try {
-      enableDataImportMode(databaseName);
-      cloner.cloneDatabase(databaseName, remoteClient, server, options);
-    } catch (MongoException ex) {
-      throw new CloningException(ex);
-    } finally {
-      disableDataImportMode(databaseName);
+      checkpoint.markCloned(namespace);
+    } catch (UserException | RollbackException ex) {
+      logger.warn("It was impossible to store that " + namespace.getDatabase() + "."
+          + namespace.getCollection() + " was cloned. It will be cloned again if the initial "
+          + "sync is resumed", ex);
     }
   }
 
+  /**
+   * Starts copying the remote oplog from the given optime into a local buffer, which can be
+   * used to apply the oplog once the databases are cloned even if the remote oplog rolled over.
+   *
+   * @return the task that buffers the oplog or null if the buffer could not be created
+   */
+  @Nullable
+  private OplogBufferingTask startOplogBuffering(MongoClient remoteClient,
+      HostAndPort syncSource, OpTime from) {
+    LocalOplogBuffer buffer;
+    try {
+      Optional<Path> parent = oplogBufferConfig.getDirectory();
+      Path directory = parent.isPresent()
+          ? Files.createTempDirectory(parent.get(), OPLOG_BUFFER_PREFIX)
+          : Files.createTempDirectory(OPLOG_BUFFER_PREFIX);
+      buffer = new LocalOplogBuffer(
+          directory,
+          OPLOG_BUFFER_SEGMENT_SIZE,
+          oplogBufferConfig.getMaxSize()
+      );
+    } catch (IOException ex) {
+      logger.warn("It was impossible to create the local oplog buffer. The remote oplog will "
+          + "be read once the databases are cloned", ex);
+      return null;
+    }
+    OplogBufferingTask task = new OplogBufferingTask(logger, remoteClient, syncSource, from,
+        buffer);
+    threadFactory.newThread(task).start();
+    return task;
+  }
+
+  /**
+   * Applies all the oplog operations whose optime is higher than <em>from</em> but lower or equal
+   * than <em>to</em>, reading them from the local buffer if it contains all of them or from the
+   * remote server otherwise.
+   */
+  private void applyOplog(
+      OplogReader remoteOplog,
+      @Nullable OplogBufferingTask bufferingTask,
+      OpTime from,
+      OpTime to) throws TryAgainException, MongoException, FatalErrorException {
+    if (bufferingTask != null) {
+      try {
+        if (bufferingTask.awaitFetched(to)) {
+          bufferingTask.stop();
+          logger.info("Applying {} buffered oplog entries",
+              bufferingTask.getBuffer().size());
+          OplogFetcher fetcher = new LocalOplogBufferFetcher(bufferingTask.getBuffer(), from, to,
+              OPLOG_BUFFER_BATCH_SIZE);
+          applyOplog(fetcher, to);
+          return;
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new TryAgainException(ex);
+      }
+      logger.warn("The local oplog buffer cannot be used, the remote oplog will be read instead",
+          bufferingTask.getError().orElse(null));
+    }
+    applyOplog(remoteOplog, from, to);
+  }
+
   /**
    * Applies all the oplog operations stored on the remote server whose optime is higher than
    * <em>from</em> but lower or equal than <em>to</em>.
@@ -398,11 +545,14 @@ public class RecoveryService extends RunnableTorodbService {
     }
     OplogOperation firstOp = oplogCursor.next();
     if (!firstOp.getOpTime().equals(from)) {
+      discardCheckpoint();
       throw new TryAgainException("Remote oplog does not cointain our last operation");
     }
 
-    OplogFetcher fetcher = new LimitedOplogFetcher(oplogCursor);
+    applyOplog(new LimitedOplogFetcher(oplogCursor), to);
+  }
 
+  private void applyOplog(OplogFetcher fetcher, OpTime to) throws FatalErrorException {
     ApplierContext context = new ApplierContext.Builder()
         .setReapplying(true)
         .setUpdatesAsUpserts(true)
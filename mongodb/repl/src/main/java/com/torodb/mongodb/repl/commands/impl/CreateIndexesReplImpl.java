@@ -20,6 +20,7 @@ package com.torodb.mongodb.repl.commands.impl;
 
 import com.google.common.collect.ImmutableList;
 import com.torodb.core.exceptions.user.UnsupportedCompoundIndexException;
+import com.torodb.core.exceptions.user.UnsupportedOverflowedIndexException;
 import com.torodb.core.exceptions.user.UnsupportedUniqueIndexException;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.language.AttributeReference;
@@ -32,7 +33,9 @@ import com.torodb.mongodb.commands.pojos.index.IndexOptions.KnownType;
 import com.torodb.mongodb.commands.pojos.index.type.AscIndexType;
 import com.torodb.mongodb.commands.pojos.index.type.DefaultIndexTypeVisitor;
 import com.torodb.mongodb.commands.pojos.index.type.DescIndexType;
+import com.torodb.mongodb.commands.pojos.index.type.HashedIndexType;
 import com.torodb.mongodb.commands.pojos.index.type.IndexType;
+import com.torodb.mongodb.commands.pojos.index.type.TextIndexType;
 import com.torodb.mongodb.commands.signatures.admin.CreateIndexesCommand.CreateIndexesArgument;
 import com.torodb.mongodb.commands.signatures.admin.CreateIndexesCommand.CreateIndexesResult;
 import com.torodb.mongodb.filters.IndexFilter;
@@ -112,17 +115,23 @@ public class CreateIndexesReplImpl
           return Status.from(ErrorCode.CANNOT_CREATE_INDEX, "Index keys cannot be empty.");
         }
 
-        if (indexOptions.isBackground()) {
-          logger.info("Building index in background is not supported. Ignoring option");
-        }
-
-        if (indexOptions.isSparse()) {
-          logger.info("Sparse index are not supported. Ignoring option");
+        if (indexOptions.getPartialFilterExpression() != null
+            && !indexOptions.isSparseOrEquivalentPartial()) {
+          //a full index contains all the entries of the partial one, but a full unique index
+          //would reject documents the primary accepted
+          if (indexOptions.isUnique()) {
+            logger.info("Unique index {} has a not supported partial filter expression. Skipping "
+                + "index.", indexOptions.getName());
+            continue;
+          }
+          logger.info("Partial filter expressions other than {<key>: {$exists: true}} on single "
+              + "key indexes are not supported. Ignoring option");
         }
 
         boolean skipIndex = false;
-        List<IndexFieldInfo> fields = new ArrayList<>(indexOptions.getKeys().size());
-        for (IndexOptions.Key indexKey : indexOptions.getKeys()) {
+        List<IndexOptions.Key> indexKeys = indexOptions.getExpandedKeys();
+        List<IndexFieldInfo> fields = new ArrayList<>(indexKeys.size());
+        for (IndexOptions.Key indexKey : indexKeys) {
           AttributeReference.Builder attRefBuilder = new AttributeReference.Builder();
           for (String key : indexKey.getKeys()) {
             attRefBuilder.addObjectKey(key);
@@ -148,24 +157,37 @@ public class CreateIndexesReplImpl
             break;
           }
 
-          fields.add(new IndexFieldInfo(attRefBuilder.build(), ordering.get().isAscending()));
+          fields.add(new IndexFieldInfo(attRefBuilder.build(), ordering.get()));
         }
 
         if (skipIndex) {
           continue;
         }
 
+        String hashedIndexError = indexOptions.getHashedIndexError();
+        if (hashedIndexError != null) {
+          logger.info(hashedIndexError + " Skipping index.");
+          continue;
+        }
+
+        String textIndexError = indexOptions.getTextIndexError();
+        if (textIndexError != null) {
+          logger.info(textIndexError + " Skipping index.");
+          continue;
+        }
+
         try {
           logger.info("Creating index {} on collection {}.{}",
               indexOptions.getName(), req.getDatabase(), arg.getCollection());
 
           if (trans.createIndex(req.getDatabase(), arg.getCollection(), indexOptions.getName(),
-              fields, indexOptions.isUnique())) {
+              fields, indexOptions.isUnique(), indexOptions.isSparseOrEquivalentPartial(),
+              indexOptions.isBackground())) {
             indexesAfter++;
           }
         } catch (UnsupportedCompoundIndexException ex) {
-          String note =
-              "Compound indexes are not supported. Skipping index.";
+          String note = "Compound index with keys on distinct subdocuments is not supported. "
+              + "Skipping index.";
           logger.info(note);
           continue;
         } catch (UnsupportedUniqueIndexException ex) {
@@ -173,6 +195,11 @@ public class CreateIndexesReplImpl
               "Unique index with keys on distinct subdocuments is not supported. Skipping index.";
           logger.info(note);
           continue;
+        } catch (UnsupportedOverflowedIndexException ex) {
+          String note = "Index with keys that may be stored on an overflow column is not "
+              + "supported. Skipping index.";
+          logger.info(note);
+          continue;
         }
       }
 
@@ -206,6 +233,16 @@ public class CreateIndexesReplImpl
     public Optional<FieldIndexOrdering> visit(DescIndexType indexType, Void arg) {
       return Optional.of(FieldIndexOrdering.DESC);
     }
+
+    @Override
+    public Optional<FieldIndexOrdering> visit(HashedIndexType indexType, Void arg) {
+      return Optional.of(FieldIndexOrdering.HASHED);
+    }
+
+    @Override
+    public Optional<FieldIndexOrdering> visit(TextIndexType indexType, Void arg) {
+      return Optional.of(FieldIndexOrdering.TEXT);
+    }
   }
 
 }
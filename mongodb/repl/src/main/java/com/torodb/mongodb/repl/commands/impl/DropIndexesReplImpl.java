@@ -125,8 +125,7 @@ public class DropIndexesReplImpl extends ReplCommandImpl<DropIndexesArgument, Dr
       IndexFieldInfo field = fieldsIterator.next();
       IndexOptions.Key key = keysIterator.next();
 
-      if ((field.isAscending() && key.getType() != KnownType.asc.getIndexType()) || (!field
-          .isAscending() && key.getType() != KnownType.desc.getIndexType()) || (field
+      if (key.getType() != KnownType.fromOrdering(field.getOrdering()) || (field
           .getAttributeReference().getKeys().size() != key.getKeys().size())) {
         return false;
       }
@@ -68,6 +68,9 @@ public class AkkaDbClonerProvider implements Provider<AkkaDbCloner> {
     return new AkkaDbCloner(
         threadFactory,
         concurrentToolsFactory,
+        Math.max(1, parallelLevel / 2),
+        Math.max(1, parallelLevel),
+        Math.max(1, parallelLevel / 2),
         Math.max(1, parallelLevel - 1),
         parallelLevel * docsPerTransaction,
         commitHeuristic,
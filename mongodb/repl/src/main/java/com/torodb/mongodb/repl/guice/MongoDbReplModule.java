@@ -24,6 +24,7 @@ import com.google.inject.assistedinject.FactoryModuleBuilder;
 import com.torodb.mongodb.repl.RecoveryService;
 import com.torodb.mongodb.repl.ReplCoordinator;
 import com.torodb.mongodb.repl.ReplCoordinatorStateMachine;
+import com.torodb.mongodb.repl.oplogreplier.fetcher.LocalOplogBufferConfig;
 import com.torodb.mongodb.utils.DbCloner;
 import com.torodb.mongodb.utils.cloner.CommitHeuristic;
 
@@ -31,6 +32,16 @@ import javax.inject.Singleton;
 
 public class MongoDbReplModule extends PrivateModule {
 
+  private final LocalOplogBufferConfig oplogBufferConfig;
+
+  public MongoDbReplModule() {
+    this(LocalOplogBufferConfig.defaults());
+  }
+
+  public MongoDbReplModule(LocalOplogBufferConfig oplogBufferConfig) {
+    this.oplogBufferConfig = oplogBufferConfig;
+  }
+
   @Override
   protected void configure() {
     expose(ReplCoordinator.class);
@@ -41,6 +52,8 @@ public class MongoDbReplModule extends PrivateModule {
     bind(ReplCoordinatorStateMachine.class)
         .in(Singleton.class);
 
+    bind(LocalOplogBufferConfig.class)
+        .toInstance(oplogBufferConfig);
     install(new FactoryModuleBuilder()
         .implement(RecoveryService.class, RecoveryService.class)
         .build(RecoveryService.RecoveryServiceFactory.class)
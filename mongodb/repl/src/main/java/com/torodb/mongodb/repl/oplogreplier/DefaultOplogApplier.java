@@ -33,6 +33,7 @@ import akka.stream.javadsl.Keep;
 import akka.stream.javadsl.RunnableGraph;
 import akka.stream.javadsl.Sink;
 import akka.stream.javadsl.Source;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
 import com.google.common.base.Throwables;
 import com.torodb.common.util.Empty;
@@ -50,6 +51,7 @@ import com.torodb.mongodb.repl.oplogreplier.batch.BatchAnalyzer.BatchAnalyzerFac
 import com.torodb.mongodb.repl.oplogreplier.batch.OplogBatch;
 import com.torodb.mongodb.repl.oplogreplier.batch.OplogBatchChecker;
 import com.torodb.mongodb.repl.oplogreplier.batch.OplogBatchFilter;
+import com.torodb.mongodb.repl.oplogreplier.batch.SingleOpAnalyzedOplogBatch;
 import com.torodb.mongodb.repl.oplogreplier.fetcher.OplogFetcher;
 import com.torodb.mongowp.commands.oplog.OplogOperation;
 import org.apache.logging.log4j.Logger;
@@ -68,6 +70,8 @@ import java.util.function.BiFunction;
 import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
 
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 
 public class DefaultOplogApplier implements OplogApplier {
@@ -108,6 +112,7 @@ public class DefaultOplogApplier implements OplogApplier {
   public ApplyingJob apply(OplogFetcher fetcher, ApplierContext applierContext) {
 
     Materializer materializer = ActorMaterializer.create(actorSystem);
+    LastAppliedOpPersister lastAppliedOpPersister = new LastAppliedOpPersister(applierContext);
 
     RunnableGraph<Pair<UniqueKillSwitch, CompletionStage<Done>>> graph = createOplogSource(fetcher)
         .async()
@@ -124,7 +129,7 @@ public class DefaultOplogApplier implements OplogApplier {
         })
         .map(this::metricExecution)
         .toMat(
-            Sink.foreach(this::storeLastAppliedOp),
+            Sink.foreach(lastAppliedOpPersister::onBatchApplied),
             (killSwitch, completionStage) -> new Pair<>(killSwitch, completionStage)
         );
 
@@ -135,6 +140,7 @@ public class DefaultOplogApplier implements OplogApplier {
         .thenApply(done -> Empty.getInstance())
         .whenComplete((done, t) -> {
           fetcher.close();
+          lastAppliedOpPersister.flush();
           if (done != null) {
             logger.trace("Oplog replication stream finished normally");
           } else {
@@ -228,14 +234,71 @@ public class DefaultOplogApplier implements OplogApplier {
         });
   }
 
-  private AnalyzedStreamElement storeLastAppliedOp(AnalyzedStreamElement streamElement) throws
-      OplogManagerPersistException {
-    assert !streamElement.rawBatch.isEmpty();
-    OplogOperation lastOp = streamElement.rawBatch.getLastOperation();
+  private void storeLastAppliedOp(OplogOperation lastOp) throws OplogManagerPersistException {
     try (WriteOplogTransaction writeTrans = oplogManager.createWriteTransaction()) {
       writeTrans.forceNewValue(lastOp.getHash(), lastOp.getOpTime());
     }
-    return streamElement;
+  }
+
+  /**
+   * Stores the last applied operation once each batch is applied.
+   *
+   * When the applier context guarantees that operations can be safely reapplied (as updates are
+   * executed as upserts), the last applied operation is only persisted once each
+   * {@link BatchLimits#getMaxUnpersistedBatches()} batches. In the worst case, the operations
+   * applied after the last persisted one are reapplied after a crash. Batches that contain
+   * operations that are not CUD operations (like database commands) are always persisted.
+   */
+  @ThreadSafe
+  private class LastAppliedOpPersister {
+
+    private final boolean idempotent;
+    private int unpersistedBatches = 0;
+    @Nullable
+    private OplogOperation unpersistedOp = null;
+
+    private LastAppliedOpPersister(ApplierContext context) {
+      this.idempotent = context.treatUpdateAsUpsert();
+    }
+
+    private synchronized void onBatchApplied(AnalyzedStreamElement streamElement) throws
+        OplogManagerPersistException {
+      assert !streamElement.rawBatch.isEmpty();
+      OplogOperation lastOp = streamElement.rawBatch.getLastOperation();
+      unpersistedBatches++;
+
+      if (!idempotent || unpersistedBatches >= batchLimits.getMaxUnpersistedBatches()
+          || containsSingleOps(streamElement)) {
+        persist(lastOp);
+      } else {
+        unpersistedOp = lastOp;
+      }
+    }
+
+    /**
+     * Persists the last applied operation if it has not been persisted yet.
+     */
+    private synchronized void flush() {
+      if (unpersistedOp != null) {
+        try {
+          persist(unpersistedOp);
+        } catch (OplogManagerPersistException ex) {
+          logger.warn("It was not possible to store the last applied operation. Operations "
+              + "after the last stored one will be reapplied", ex);
+        }
+      }
+    }
+
+    private void persist(OplogOperation lastOp) throws OplogManagerPersistException {
+      storeLastAppliedOp(lastOp);
+      unpersistedBatches = 0;
+      unpersistedOp = null;
+    }
+
+    private boolean containsSingleOps(AnalyzedStreamElement streamElement) {
+      return streamElement.analyzedBatch.stream()
+          .anyMatch(analyzed -> analyzed instanceof SingleOpAnalyzedOplogBatch);
+    }
   }
 
   private AnalyzedStreamElement metricExecution(AnalyzedStreamElement streamElement) {
@@ -266,10 +329,23 @@ public class DefaultOplogApplier implements OplogApplier {
 
     private final int maxSize;
     private final FiniteDuration maxPeriod;
+    private final int maxUnpersistedBatches;
 
     public BatchLimits(int maxSize, java.time.Duration maxPeriod) {
+      this(maxSize, maxPeriod, 1);
+    }
+
+    /**
+     * @param maxUnpersistedBatches the max number of batches that can be applied without storing
+     *                              the last applied operation when operations can be safely
+     *                              reapplied. Use 1 to store it after each batch.
+     */
+    public BatchLimits(int maxSize, java.time.Duration maxPeriod, int maxUnpersistedBatches) {
+      Preconditions.checkArgument(maxUnpersistedBatches > 0,
+          "The max number of unpersisted batches must be positive");
       this.maxSize = maxSize;
       this.maxPeriod = new FiniteDuration(maxPeriod.toMillis(), TimeUnit.MILLISECONDS);
+      this.maxUnpersistedBatches = maxUnpersistedBatches;
     }
 
     public int getMaxSize() {
@@ -279,6 +355,10 @@ public class DefaultOplogApplier implements OplogApplier {
     public FiniteDuration getMaxPeriod() {
       return maxPeriod;
     }
+
+    public int getMaxUnpersistedBatches() {
+      return maxUnpersistedBatches;
+    }
   }
 
   private static class RawStreamElement {
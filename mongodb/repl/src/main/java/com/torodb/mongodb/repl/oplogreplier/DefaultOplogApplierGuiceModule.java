@@ -35,6 +35,8 @@ import com.torodb.mongodb.repl.oplogreplier.analyzed.AnalyzedOpReducer;
 import com.torodb.mongodb.repl.oplogreplier.batch.AnalyzedOplogBatchExecutor;
 import com.torodb.mongodb.repl.oplogreplier.batch.BatchAnalyzer;
 import com.torodb.mongodb.repl.oplogreplier.batch.ConcurrentOplogBatchExecutor;
+import com.torodb.mongodb.repl.oplogreplier.batch.GroupCommitPolicy;
+import com.torodb.mongodb.repl.oplogreplier.batch.NamespaceDependencyAnalyzer;
 import com.torodb.mongodb.repl.oplogreplier.batch.NamespaceJobExecutor;
 import com.torodb.mongodb.repl.oplogreplier.batch.OplogBatchChecker;
 import com.torodb.mongodb.repl.oplogreplier.batch.OplogBatchFilter;
@@ -62,7 +64,7 @@ public class DefaultOplogApplierGuiceModule extends PrivateModule {
         .to(DefaultOplogApplier.class)
         .in(Singleton.class);
     bind(DefaultOplogApplier.BatchLimits.class)
-        .toInstance(new DefaultOplogApplier.BatchLimits(1000, Duration.ofSeconds(2)));
+        .toInstance(new DefaultOplogApplier.BatchLimits(1000, Duration.ofSeconds(2), 10));
     bind(OplogApplierMetrics.class)
         .in(Singleton.class);
 
@@ -80,6 +82,8 @@ public class DefaultOplogApplierGuiceModule extends PrivateModule {
 
     bind(AnalyzedOpReducer.class)
         .toInstance(new AnalyzedOpReducer(false));
+    bind(NamespaceDependencyAnalyzer.class)
+        .in(Singleton.class);
     bind(NamespaceJobExecutor.class)
         .in(Singleton.class);
 
@@ -101,6 +105,8 @@ public class DefaultOplogApplierGuiceModule extends PrivateModule {
         .toInstance(config.getReplCoreBundle().getExternalInterface().getOplogManager());
     bind(MongodServer.class)
         .toInstance(config.getMongoDbCoreBundle().getExternalInterface().getMongodServer());
+    bind(GroupCommitPolicy.class)
+        .toInstance(config.getGroupCommitPolicy());
   }
 
   @Provides
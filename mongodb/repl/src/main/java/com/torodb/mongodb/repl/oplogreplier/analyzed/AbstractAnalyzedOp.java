@@ -23,6 +23,7 @@ import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.mongowp.ErrorCode;
 import com.torodb.mongowp.Status;
+import com.torodb.mongowp.bson.BsonDocument;
 import com.torodb.mongowp.commands.oplog.InsertOplogOperation;
 import com.torodb.mongowp.commands.oplog.UpdateOplogOperation;
 
@@ -47,11 +48,17 @@ public abstract class AbstractAnalyzedOp extends AnalyzedOp {
     this.calculateFun = calculateFun;
   }
 
-  abstract AnalyzedOp andThenInsert(KvDocument doc);
+  /**
+   * Returns the op that results of inserting the document calculated by the given function.
+   *
+   * The function ignores its argument. It is evaluated when the document to insert is calculated,
+   * so documents that are overwritten by later ops on the same batch are never translated.
+   */
+  abstract AnalyzedOp andThenInsert(Function<KvDocument, KvDocument> insertFun);
 
   @Override
   AnalyzedOp andThenInsert(InsertOplogOperation op) {
-    return andThenInsert(MongoWpConverter.toEagerDocument(op.getDocToInsert()));
+    return andThenInsert(createInsertFun(op));
   }
 
   @Override
@@ -59,7 +66,7 @@ public abstract class AbstractAnalyzedOp extends AnalyzedOp {
 
   @Override
   AnalyzedOp andThenUpsertSet(UpdateOplogOperation op) {
-    return andThenInsert(UpdateActionsTool.applyAsUpsert(op));
+    return andThenInsert(createUpdateSetAsDocument(op));
   }
 
   @Override
@@ -94,6 +101,21 @@ public abstract class AbstractAnalyzedOp extends AnalyzedOp {
 
   protected final Function<KvDocument, KvDocument> createUpdateSetAsDocument(
       UpdateOplogOperation op) {
+    return updateSetAsDocument(op);
+  }
+
+  protected final Function<KvDocument, KvDocument> createUpdateMergeChain(UpdateOplogOperation op) {
+    assert calculateFun != null;
+
+    return updateMergeChain(calculateFun, op);
+  }
+
+  static Function<KvDocument, KvDocument> createInsertFun(InsertOplogOperation op) {
+    BsonDocument docToInsert = op.getDocToInsert();
+    return (ignored) -> MongoWpConverter.toEagerDocument(docToInsert);
+  }
+
+  static Function<KvDocument, KvDocument> updateSetAsDocument(UpdateOplogOperation op) {
     //This is more a warning than an upsertion. Remove if want to do fancy things
     assert UpdateActionsTool.isSetModification(op);
 
@@ -103,14 +125,17 @@ public abstract class AbstractAnalyzedOp extends AnalyzedOp {
     return (ignored) -> UpdateActionsTool.applyAsUpsert(op);
   }
 
-  protected final Function<KvDocument, KvDocument> createUpdateMergeChain(UpdateOplogOperation op) {
+  /**
+   * Returns a function that applies the given update on the document calculated by the given
+   * function.
+   */
+  static Function<KvDocument, KvDocument> updateMergeChain(
+      Function<KvDocument, KvDocument> previousFun, UpdateOplogOperation op) {
     //A simple assertion to fail before the callback is called when an illegal update is recived
     assert UpdateActionsTool.parseUpdateAction(op) != null;
 
-    assert calculateFun != null;
-
     return (fetch) -> UpdateActionsTool.applyModification(
-        calculateFun.apply(fetch),
+        previousFun.apply(fetch),
         UpdateActionsTool.parseUpdateAction(op)
     );
   }
@@ -0,0 +1,291 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl.oplogreplier.analyzed;
+
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+import com.torodb.mongowp.bson.BsonObjectId;
+import com.torodb.mongowp.bson.BsonValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A map from document ids to the {@link AnalyzedOp} that reduces all the operations on each
+ * document.
+ *
+ * It is an open addressing (linear probing) hash table that caches the hash of each id, so no
+ * entry object is allocated per document and each operation is reduced with a single lookup,
+ * which is significant on batches with thousands of operations.
+ *
+ * Ids are stored as typed keys instead of as {@link BsonValue bson values}: int, long and object
+ * ids are compared by their primitive bits and string ids by their string, so the common ids are
+ * neither hashed nor compared through the bson value. Ids of other types fall back to the
+ * equality defined by {@link BsonValue}. Ids of different types are always different, as they
+ * are on the backend, which stores each type of id on its own column.
+ */
+@NotThreadSafe
+public class AnalyzedOpMap {
+
+  private static final int MIN_CAPACITY = 16;
+  private static final float LOAD_FACTOR = 0.6f;
+
+  private static final byte NO_KEY = 0;
+  private static final byte INT32_KEY = 1;
+  private static final byte INT64_KEY = 2;
+  private static final byte OBJECT_ID_KEY = 3;
+  private static final byte STRING_KEY = 4;
+  private static final byte OTHER_KEY = 5;
+
+  private byte[] keyTypes;
+  /**
+   * The value of int and long ids or the first 8 bytes of object ids.
+   */
+  private long[] keyBits;
+  /**
+   * The last 4 bytes of object ids.
+   */
+  private int[] keyExtraBits;
+  /**
+   * The string of string ids or the bson value of ids of other types.
+   */
+  private Object[] keyObjects;
+  private int[] hashes;
+  private AnalyzedOp[] values;
+  private int size;
+  private int resizeThreshold;
+
+  //the key of the last looked up id, so each id is decoded once when it is found and then added
+  @Nullable
+  private BsonValue<?> lookupId;
+  private byte lookupType;
+  private long lookupBits;
+  private int lookupExtraBits;
+  @Nullable
+  private Object lookupObject;
+  private int lookupHash;
+
+  public AnalyzedOpMap() {
+    this(MIN_CAPACITY);
+  }
+
+  public AnalyzedOpMap(int expectedSize) {
+    Preconditions.checkArgument(expectedSize >= 0, "The expected size must be non negative");
+    init(capacityFor(expectedSize));
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Nullable
+  public AnalyzedOp get(BsonValue<?> docId) {
+    lookup(docId);
+    return values[probe()];
+  }
+
+  /**
+   * Returns the analyzed ops stored on this map, in no particular order.
+   */
+  public List<AnalyzedOp> values() {
+    List<AnalyzedOp> result = new ArrayList<>(size);
+    for (int slot = 0; slot < keyTypes.length; slot++) {
+      if (keyTypes[slot] != NO_KEY) {
+        result.add(values[slot]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the slot that contains the given id or, if it is not contained, the complement
+   * ({@code ~slot}, which is negative) of the free slot where it has to be
+   * {@link #addAt(int, BsonValue, AnalyzedOp) added}.
+   *
+   * The id is not added by this method, so nothing is left on the map if the value to add cannot
+   * be calculated. Slots are valid until another id is added.
+   */
+  int findSlot(BsonValue<?> docId) {
+    lookup(docId);
+    int slot = probe();
+    if (keyTypes[slot] != NO_KEY) {
+      return slot;
+    }
+    if (size >= resizeThreshold) {
+      resize();
+      slot = probe();
+    }
+    return ~slot;
+  }
+
+  AnalyzedOp getAt(int slot) {
+    assert keyTypes[slot] != NO_KEY : "The slot " + slot + " is empty";
+    return values[slot];
+  }
+
+  void setAt(int slot, AnalyzedOp op) {
+    assert keyTypes[slot] != NO_KEY : "The slot " + slot + " is empty";
+    values[slot] = Preconditions.checkNotNull(op);
+  }
+
+  /**
+   * Adds the given id and op on the given free slot, as returned (complemented) by
+   * {@link #findSlot(BsonValue)}.
+   */
+  void addAt(int freeSlot, BsonValue<?> docId, AnalyzedOp op) {
+    assert keyTypes[freeSlot] == NO_KEY : "The slot " + freeSlot + " is not empty";
+    values[freeSlot] = Preconditions.checkNotNull(op);
+    lookup(docId);
+    keyTypes[freeSlot] = lookupType;
+    keyBits[freeSlot] = lookupBits;
+    keyExtraBits[freeSlot] = lookupExtraBits;
+    keyObjects[freeSlot] = lookupObject;
+    hashes[freeSlot] = lookupHash;
+    size++;
+  }
+
+  /**
+   * Decodes the key of the given id, unless it is the last looked up one.
+   */
+  private void lookup(BsonValue<?> docId) {
+    if (docId == lookupId) {
+      return;
+    }
+    long bits = 0;
+    int extraBits = 0;
+    Object object = null;
+    int hash;
+    switch (docId.getType()) {
+      case INT32:
+        lookupType = INT32_KEY;
+        bits = docId.asInt32().getValue();
+        hash = Long.hashCode(bits);
+        break;
+      case INT64:
+        lookupType = INT64_KEY;
+        bits = docId.asInt64().getValue();
+        hash = Long.hashCode(bits) + 1;
+        break;
+      case OBJECT_ID:
+        lookupType = OBJECT_ID_KEY;
+        byte[] bytes = ((BsonObjectId) docId).toByteArray();
+        bits = Longs.fromByteArray(bytes);
+        extraBits = Ints.fromBytes(bytes[8], bytes[9], bytes[10], bytes[11]);
+        hash = Long.hashCode(bits) * 31 + extraBits;
+        break;
+      case STRING:
+        lookupType = STRING_KEY;
+        object = docId.asString().getValue();
+        hash = object.hashCode();
+        break;
+      default:
+        lookupType = OTHER_KEY;
+        object = docId;
+        hash = object.hashCode();
+        break;
+    }
+    lookupId = docId;
+    lookupBits = bits;
+    lookupExtraBits = extraBits;
+    lookupObject = object;
+    lookupHash = spread(hash);
+  }
+
+  /**
+   * Returns the slot that contains the last looked up id or the free slot where the search
+   * stopped.
+   */
+  private int probe() {
+    int mask = keyTypes.length - 1;
+    int slot = lookupHash & mask;
+    while (keyTypes[slot] != NO_KEY && !isLookupKeyAt(slot)) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private boolean isLookupKeyAt(int slot) {
+    return hashes[slot] == lookupHash
+        && keyTypes[slot] == lookupType
+        && keyBits[slot] == lookupBits
+        && keyExtraBits[slot] == lookupExtraBits
+        && (lookupObject == null || lookupObject.equals(keyObjects[slot]));
+  }
+
+  private void resize() {
+    byte[] oldKeyTypes = keyTypes;
+    long[] oldKeyBits = keyBits;
+    int[] oldKeyExtraBits = keyExtraBits;
+    Object[] oldKeyObjects = keyObjects;
+    int[] oldHashes = hashes;
+    AnalyzedOp[] oldValues = values;
+
+    init(oldKeyTypes.length * 2);
+
+    int mask = keyTypes.length - 1;
+    for (int oldSlot = 0; oldSlot < oldKeyTypes.length; oldSlot++) {
+      if (oldKeyTypes[oldSlot] != NO_KEY) {
+        int slot = oldHashes[oldSlot] & mask;
+        while (keyTypes[slot] != NO_KEY) {
+          slot = (slot + 1) & mask;
+        }
+        keyTypes[slot] = oldKeyTypes[oldSlot];
+        keyBits[slot] = oldKeyBits[oldSlot];
+        keyExtraBits[slot] = oldKeyExtraBits[oldSlot];
+        keyObjects[slot] = oldKeyObjects[oldSlot];
+        hashes[slot] = oldHashes[oldSlot];
+        values[slot] = oldValues[oldSlot];
+      }
+    }
+  }
+
+  private void init(int capacity) {
+    keyTypes = new byte[capacity];
+    keyBits = new long[capacity];
+    keyExtraBits = new int[capacity];
+    keyObjects = new Object[capacity];
+    hashes = new int[capacity];
+    values = new AnalyzedOp[capacity];
+    resizeThreshold = (int) (capacity * LOAD_FACTOR);
+  }
+
+  private static int capacityFor(int expectedSize) {
+    int capacity = MIN_CAPACITY;
+    while (capacity * LOAD_FACTOR <= expectedSize) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  /**
+   * Spreads the bits of the hash code, as linear probing is sensitive to clustered hashes.
+   */
+  private static int spread(int hashCode) {
+    int hash = hashCode * 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+}
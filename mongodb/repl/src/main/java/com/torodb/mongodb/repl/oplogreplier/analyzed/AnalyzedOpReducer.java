@@ -22,11 +22,8 @@ import com.google.common.base.Preconditions;
 import com.torodb.kvdocument.conversion.mongowp.MongoWpConverter;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.mongodb.repl.oplogreplier.ApplierContext;
-import com.torodb.mongowp.bson.BsonValue;
 import com.torodb.mongowp.commands.oplog.CollectionOplogOperation;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.stream.Stream;
 
 /**
@@ -40,9 +37,9 @@ public class AnalyzedOpReducer {
     this.onDebug = onDebug;
   }
 
-  public Map<BsonValue<?>, AnalyzedOp> analyzeAndReduce(
-      Stream<CollectionOplogOperation> ops, ApplierContext context) {
-    HashMap<BsonValue<?>, AnalyzedOp> map = new HashMap<>();
+  public AnalyzedOpMap analyzeAndReduce(Stream<CollectionOplogOperation> ops,
+      ApplierContext context) {
+    AnalyzedOpMap map = new AnalyzedOpMap();
 
     ops.forEach(op -> {
       analyzeAndReduce(map, op, context);
@@ -51,21 +48,25 @@ public class AnalyzedOpReducer {
     return map;
   }
 
-  public void analyzeAndReduce(Map<BsonValue<?>, AnalyzedOp> map,
-      CollectionOplogOperation op, ApplierContext context) {
+  public void analyzeAndReduce(AnalyzedOpMap map, CollectionOplogOperation op,
+      ApplierContext context) {
     Preconditions.checkArgument(op.getDocId() != null,
         "Modifications without _id cannot be replicated on parallel");
 
-    AnalyzedOp oldOp = map.get(op.getDocId());
-    if (oldOp == null) {
+    int slot = map.findSlot(op.getDocId());
+    if (slot >= 0) {
+      //a mutable op returns itself, a debugging one the op that replaces it
+      map.setAt(slot, map.getAt(slot).apply(op, context));
+    } else {
       KvValue<?> translated = MongoWpConverter.translate(op.getDocId());
+      AnalyzedOp emptyOp;
       if (onDebug) {
-        oldOp = new DebuggingAnalyzedOp(translated);
+        emptyOp = new DebuggingAnalyzedOp(translated);
       } else {
-        oldOp = new NoopAnalyzedOp(translated);
+        emptyOp = new MutableAnalyzedOp(translated);
       }
+      //the id is only added once its op has been calculated, so a failure leaves no trace
+      map.addAt(~slot, op.getDocId(), emptyOp.apply(op, context));
     }
-    AnalyzedOp newAnalyzedOp = oldOp.apply(op, context);
-    map.put(op.getDocId(), newAnalyzedOp);
   }
 }
@@ -45,8 +45,8 @@ public class DeleteCreateAnalyzedOp extends AbstractAnalyzedOp {
   }
 
   @Override
-  public AnalyzedOp andThenInsert(KvDocument doc) {
-    return new DeleteCreateAnalyzedOp(getMongoDocId(), doc);
+  public AnalyzedOp andThenInsert(Function<KvDocument, KvDocument> insertFun) {
+    return new DeleteCreateAnalyzedOp(getMongoDocId(), insertFun);
   }
 
   @Override
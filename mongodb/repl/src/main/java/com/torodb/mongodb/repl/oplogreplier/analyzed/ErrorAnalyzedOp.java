@@ -23,6 +23,8 @@ import com.torodb.kvdocument.values.KvValue;
 import com.torodb.mongowp.commands.oplog.DeleteOplogOperation;
 import com.torodb.mongowp.commands.oplog.UpdateOplogOperation;
 
+import java.util.function.Function;
+
 /**
  *
  */
@@ -33,7 +35,7 @@ public class ErrorAnalyzedOp extends AbstractAnalyzedOp {
   }
 
   @Override
-  public AnalyzedOp andThenInsert(KvDocument doc) {
+  public AnalyzedOp andThenInsert(Function<KvDocument, KvDocument> insertFun) {
     return this;
   }
 
@@ -0,0 +1,210 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl.oplogreplier.analyzed;
+
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.mongowp.ErrorCode;
+import com.torodb.mongowp.Status;
+import com.torodb.mongowp.commands.oplog.DeleteOplogOperation;
+import com.torodb.mongowp.commands.oplog.InsertOplogOperation;
+import com.torodb.mongowp.commands.oplog.UpdateOplogOperation;
+
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * An {@link AnalyzedOp} that is modified in place by each operation applied on it, so reducing a
+ * batch creates a single op per document instead of one per operation.
+ *
+ * Its transitions are the ones of the immutable ops, starting on {@link NoopAnalyzedOp}. The new
+ * state is calculated before it is stored, so an operation that cannot be analyzed leaves the op
+ * unchanged.
+ */
+@NotThreadSafe
+public class MutableAnalyzedOp extends AnalyzedOp {
+
+  private final KvValue<?> mongoDocId;
+  private AnalyzedOpType type;
+  @Nullable
+  private Function<KvDocument, KvDocument> calculateFun;
+
+  MutableAnalyzedOp(KvValue<?> mongoDocId) {
+    this.mongoDocId = mongoDocId;
+    this.type = AnalyzedOpType.NOOP;
+    this.calculateFun = Function.identity();
+  }
+
+  @Override
+  public KvValue<?> getMongoDocId() {
+    return mongoDocId;
+  }
+
+  @Override
+  public AnalyzedOpType getType() {
+    return type;
+  }
+
+  @Override
+  public KvDocument calculateDocToInsert(Function<AnalyzedOp, KvDocument> fetchedDocFun) {
+    if (calculateFun == null) {
+      return null;
+    }
+    KvDocument fetchedDoc = null;
+    if (requiresFetch()) {
+      fetchedDoc = fetchedDocFun.apply(this);
+    }
+    return calculateFun.apply(fetchedDoc);
+  }
+
+  @Override
+  public Status<?> getMismatchErrorMessage() throws UnsupportedOperationException {
+    if (!requiresMatch()) {
+      throw new UnsupportedOperationException();
+    }
+    return Status.from(ErrorCode.OPERATION_FAILED);
+  }
+
+  @Override
+  AnalyzedOp andThenInsert(InsertOplogOperation op) {
+    return andThenInsert(AbstractAnalyzedOp.createInsertFun(op));
+  }
+
+  private AnalyzedOp andThenInsert(Function<KvDocument, KvDocument> insertFun) {
+    switch (type) {
+      case NOOP:
+      case DELETE_CREATE:
+      case UPSERT_MOD:
+      case DELETE:
+        return set(AnalyzedOpType.DELETE_CREATE, insertFun);
+      case UPDATE_MOD:
+      case UPDATE_SET:
+      case UPDATE_DELETE:
+        return set(AnalyzedOpType.UPDATE_SET, insertFun);
+      case ERROR:
+        return this;
+      default:
+        throw unexpectedType();
+    }
+  }
+
+  @Override
+  AnalyzedOp andThenUpdateMod(UpdateOplogOperation op) {
+    switch (type) {
+      case NOOP:
+        return set(AnalyzedOpType.UPDATE_MOD, NoopAnalyzedOp.updateModOnFetched(op));
+      case DELETE_CREATE:
+      case UPDATE_MOD:
+      case UPDATE_SET:
+      case UPSERT_MOD:
+        return set(type, AbstractAnalyzedOp.updateMergeChain(calculateFun, op));
+      case DELETE:
+        return set(AnalyzedOpType.ERROR, null);
+      case UPDATE_DELETE:
+      case ERROR:
+        return this;
+      default:
+        throw unexpectedType();
+    }
+  }
+
+  @Override
+  AnalyzedOp andThenUpdateSet(UpdateOplogOperation op) {
+    switch (type) {
+      case NOOP:
+      case UPDATE_MOD:
+      case UPDATE_SET:
+        return set(AnalyzedOpType.UPDATE_SET, AbstractAnalyzedOp.updateSetAsDocument(op));
+      case DELETE_CREATE:
+      case UPSERT_MOD:
+        return set(AnalyzedOpType.DELETE_CREATE, AbstractAnalyzedOp.updateSetAsDocument(op));
+      case DELETE:
+        return set(AnalyzedOpType.ERROR, null);
+      case UPDATE_DELETE:
+      case ERROR:
+        return this;
+      default:
+        throw unexpectedType();
+    }
+  }
+
+  @Override
+  AnalyzedOp andThenUpsertMod(UpdateOplogOperation op) {
+    switch (type) {
+      case NOOP:
+        return set(AnalyzedOpType.UPSERT_MOD,
+            NoopAnalyzedOp.upsertModOnFetched(mongoDocId, op));
+      case DELETE_CREATE:
+      case UPDATE_SET:
+      case UPSERT_MOD:
+        return set(type, AbstractAnalyzedOp.updateMergeChain(calculateFun, op));
+      case UPDATE_MOD:
+      case UPDATE_DELETE:
+        return set(AnalyzedOpType.UPDATE_SET, AbstractAnalyzedOp.updateSetAsDocument(op));
+      case DELETE:
+        return set(AnalyzedOpType.DELETE_CREATE, AbstractAnalyzedOp.updateSetAsDocument(op));
+      case ERROR:
+        return this;
+      default:
+        throw unexpectedType();
+    }
+  }
+
+  @Override
+  AnalyzedOp andThenUpsertSet(UpdateOplogOperation op) {
+    return andThenInsert(AbstractAnalyzedOp.updateSetAsDocument(op));
+  }
+
+  @Override
+  AnalyzedOp andThenDelete(DeleteOplogOperation op) {
+    switch (type) {
+      case NOOP:
+      case DELETE_CREATE:
+      case UPSERT_MOD:
+      case DELETE:
+        return set(AnalyzedOpType.DELETE, null);
+      case UPDATE_MOD:
+      case UPDATE_SET:
+      case UPDATE_DELETE:
+        return set(AnalyzedOpType.UPDATE_DELETE, null);
+      case ERROR:
+        return this;
+      default:
+        throw unexpectedType();
+    }
+  }
+
+  private AnalyzedOp set(AnalyzedOpType newType,
+      @Nullable Function<KvDocument, KvDocument> newCalculateFun) {
+    this.type = newType;
+    this.calculateFun = newCalculateFun;
+    return this;
+  }
+
+  private AssertionError unexpectedType() {
+    return new AssertionError("Unexpected analyzed op type " + type);
+  }
+
+  @Override
+  public String toString() {
+    return type + "(" + mongoDocId + ')';
+  }
+}
@@ -39,21 +39,13 @@ public class NoopAnalyzedOp extends AbstractAnalyzedOp {
   }
 
   @Override
-  public AnalyzedOp andThenInsert(KvDocument doc) {
-    return new DeleteCreateAnalyzedOp(getMongoDocId(), doc);
+  public AnalyzedOp andThenInsert(Function<KvDocument, KvDocument> insertFun) {
+    return new DeleteCreateAnalyzedOp(getMongoDocId(), insertFun);
   }
 
   @Override
   public AnalyzedOp andThenUpdateMod(UpdateOplogOperation op) {
-    //A simple assertion to fail before the callback is called when an illegal update is recived
-    assert UpdateActionsTool.parseUpdateAction(op) != null;
-
-    Function<KvDocument, KvDocument> calculateFun = (fetched) -> {
-      UpdateAction updateAction = UpdateActionsTool.parseUpdateAction(op);
-      return UpdateActionsTool.applyModification(fetched, updateAction);
-    };
-
-    return new UpdateModAnalyzedOp(getMongoDocId(), calculateFun);
+    return new UpdateModAnalyzedOp(getMongoDocId(), updateModOnFetched(op));
   }
 
   @Override
@@ -63,30 +55,43 @@ public class NoopAnalyzedOp extends AbstractAnalyzedOp {
 
   @Override
   public AnalyzedOp andThenUpsertMod(UpdateOplogOperation op) {
+    return new UpsertModAnalyzedOp(getMongoDocId(), upsertModOnFetched(getMongoDocId(), op));
+  }
+
+  @Override
+  public AnalyzedOp andThenDelete(DeleteOplogOperation op) {
+    return new DeleteAnalyzedOp(getMongoDocId());
+  }
+
+  @Override
+  public String toString() {
+    return "noop(" + getMongoDocId() + ')';
+  }
+
+  static Function<KvDocument, KvDocument> updateModOnFetched(UpdateOplogOperation op) {
     //A simple assertion to fail before the callback is called when an illegal update is recived
     assert UpdateActionsTool.parseUpdateAction(op) != null;
 
-    Function<KvDocument, KvDocument> calculateFun = (fetched) -> {
+    return (fetched) -> {
+      UpdateAction updateAction = UpdateActionsTool.parseUpdateAction(op);
+      return UpdateActionsTool.applyModification(fetched, updateAction);
+    };
+  }
+
+  static Function<KvDocument, KvDocument> upsertModOnFetched(KvValue<?> mongoDocId,
+      UpdateOplogOperation op) {
+    //A simple assertion to fail before the callback is called when an illegal update is recived
+    assert UpdateActionsTool.parseUpdateAction(op) != null;
+
+    return (fetched) -> {
       KvDocument newFetched = fetched;
       if (newFetched == null) {
         LinkedHashMap<String, KvValue<?>> map = new LinkedHashMap<>(1);
-        map.put(DefaultIdUtils.ID_KEY, getMongoDocId());
+        map.put(DefaultIdUtils.ID_KEY, mongoDocId);
         newFetched = new MapKvDocument(map);
       }
       UpdateAction updateAction = UpdateActionsTool.parseUpdateAction(op);
       return UpdateActionsTool.applyModification(newFetched, updateAction);
     };
-
-    return new UpsertModAnalyzedOp(getMongoDocId(), calculateFun);
-  }
-
-  @Override
-  public AnalyzedOp andThenDelete(DeleteOplogOperation op) {
-    return new DeleteAnalyzedOp(getMongoDocId());
-  }
-
-  @Override
-  public String toString() {
-    return "noop(" + getMongoDocId() + ')';
   }
 }
@@ -23,6 +23,8 @@ import com.torodb.kvdocument.values.KvValue;
 import com.torodb.mongowp.commands.oplog.DeleteOplogOperation;
 import com.torodb.mongowp.commands.oplog.UpdateOplogOperation;
 
+import java.util.function.Function;
+
 /**
  *
  */
@@ -33,8 +35,8 @@ public class UpdateDeleteAnalyzedOp extends AbstractAnalyzedOp {
   }
 
   @Override
-  public AnalyzedOp andThenInsert(KvDocument doc) {
-    return new UpdateSetAnalyzedOp(getMongoDocId(), doc);
+  public AnalyzedOp andThenInsert(Function<KvDocument, KvDocument> insertFun) {
+    return new UpdateSetAnalyzedOp(getMongoDocId(), insertFun);
   }
 
   @Override
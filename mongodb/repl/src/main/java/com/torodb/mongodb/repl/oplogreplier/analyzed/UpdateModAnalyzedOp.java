@@ -35,8 +35,8 @@ public class UpdateModAnalyzedOp extends AbstractAnalyzedOp {
   }
 
   @Override
-  public AnalyzedOp andThenInsert(KvDocument doc) {
-    return new UpdateSetAnalyzedOp(getMongoDocId(), doc);
+  public AnalyzedOp andThenInsert(Function<KvDocument, KvDocument> insertFun) {
+    return new UpdateSetAnalyzedOp(getMongoDocId(), insertFun);
   }
 
   @Override
@@ -39,8 +39,8 @@ public class UpdateSetAnalyzedOp extends AbstractAnalyzedOp {
   }
 
   @Override
-  public AnalyzedOp andThenInsert(KvDocument doc) {
-    return new UpdateSetAnalyzedOp(getMongoDocId(), doc);
+  public AnalyzedOp andThenInsert(Function<KvDocument, KvDocument> insertFun) {
+    return new UpdateSetAnalyzedOp(getMongoDocId(), insertFun);
   }
 
   @Override
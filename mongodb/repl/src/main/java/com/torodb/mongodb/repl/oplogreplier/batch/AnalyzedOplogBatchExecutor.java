@@ -61,6 +61,7 @@ public interface AnalyzedOplogBatchExecutor extends Service,
     private final Histogram cudBatchSize;
     private final Timer cudBatchTimer;
     private final Timer namespaceBatchTimer;
+    private final Histogram groupCommitSize;
 
     @Inject
     public AnalyzedOplogBatchExecutorMetrics(ToroMetricRegistry parentRegistry) {
@@ -68,6 +69,7 @@ public interface AnalyzedOplogBatchExecutor extends Service,
       this.cudBatchSize = registry.histogram("batchSize");
       this.cudBatchTimer = registry.timer("cudTimer");
       this.namespaceBatchTimer = registry.timer("namespaceTimer");
+      this.groupCommitSize = registry.histogram("groupCommitSize");
     }
 
     protected ToroMetricRegistry getRegistry() {
@@ -98,6 +100,14 @@ public interface AnalyzedOplogBatchExecutor extends Service,
       return namespaceBatchTimer;
     }
 
+    /**
+     * Returns the histogram of namespace jobs applied on each transaction when
+     * {@link GroupCommitPolicy group commit} is enabled.
+     */
+    public Histogram getGroupCommitSize() {
+      return groupCommitSize;
+    }
+
     @Nonnull
     private String getMapKey(OplogOperation oplogOp) {
       if (oplogOp instanceof DbCmdOplogOperation) {
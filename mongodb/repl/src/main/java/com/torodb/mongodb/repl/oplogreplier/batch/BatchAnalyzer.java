@@ -18,21 +18,17 @@
 
 package com.torodb.mongodb.repl.oplogreplier.batch;
 
-import static com.torodb.mongowp.commands.oplog.OplogOperationType.DB;
-import static com.torodb.mongowp.commands.oplog.OplogOperationType.DB_CMD;
-import static com.torodb.mongowp.commands.oplog.OplogOperationType.INSERT;
-import static com.torodb.mongowp.commands.oplog.OplogOperationType.UPDATE;
-
 import com.google.common.collect.ImmutableSet;
 import com.google.inject.assistedinject.Assisted;
 import com.torodb.core.logging.LoggerFactory;
 import com.torodb.mongodb.repl.oplogreplier.ApplierContext;
 import com.torodb.mongodb.repl.oplogreplier.analyzed.AnalyzedOpReducer;
+import com.torodb.mongodb.repl.oplogreplier.batch.NamespaceDependencyAnalyzer.Dependency;
 import com.torodb.mongodb.utils.NamespaceUtil;
 import com.torodb.mongowp.commands.oplog.CollectionOplogOperation;
-import com.torodb.mongowp.commands.oplog.DbCmdOplogOperation;
 import com.torodb.mongowp.commands.oplog.OplogOperation;
 import org.apache.logging.log4j.Logger;
+import org.jooq.lambda.tuple.Tuple2;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -40,11 +36,23 @@ import java.util.function.Function;
 
 import javax.inject.Inject;
 
+/**
+ * Splits a list of oplog operations on {@link AnalyzedOplogBatch analyzed batches}.
+ *
+ * Database commands and CUD operations on system collections cannot be applied as part of a
+ * {@link CudAnalyzedOplogBatch}, so they are applied alone on a
+ * {@link SingleOpAnalyzedOplogBatch}. To avoid flushing the parallelism each time one of them is
+ * found, the namespaces they touch are analyzed with a {@link NamespaceDependencyAnalyzer}. The
+ * following CUD operations on unrelated namespaces are added to the CUD batch that precedes them,
+ * so they are applied before them. Only a CUD operation on a namespace touched by one of these
+ * commands (or a command whose namespaces are not known) closes the current CUD batch.
+ */
 public class BatchAnalyzer implements Function<List<OplogOperation>, List<AnalyzedOplogBatch>> {
 
   private final Logger logger;
   private final ApplierContext context;
   private final AnalyzedOpReducer analyzedOpReducer;
+  private final NamespaceDependencyAnalyzer dependencyAnalyzer;
   private static final ImmutableSet<String> SYSTEM_COLLECTIONS = ImmutableSet.<String>builder()
       .add(NamespaceUtil.NAMESPACES_COLLECTION)
       .add(NamespaceUtil.INDEXES_COLLECTION)
@@ -54,38 +62,36 @@ public class BatchAnalyzer implements Function<List<OplogOperation>, List<Analyz
 
   @Inject
   public BatchAnalyzer(@Assisted ApplierContext context, LoggerFactory lf,
-      AnalyzedOpReducer analyzedOpReducer) {
+      AnalyzedOpReducer analyzedOpReducer, NamespaceDependencyAnalyzer dependencyAnalyzer) {
     this.logger = lf.apply(this.getClass());
     this.context = context;
     this.analyzedOpReducer = analyzedOpReducer;
+    this.dependencyAnalyzer = dependencyAnalyzer;
   }
 
   @Override
   public List<AnalyzedOplogBatch> apply(List<OplogOperation> oplogOps) {
-    List<AnalyzedOplogBatch> result = new ArrayList<>();
+    BatchBuilder builder = new BatchBuilder();
 
-    int fromExcluded = -1;
-
-    for (int i = 0; i < oplogOps.size(); i++) {
-      OplogOperation op = oplogOps.get(i);
+    for (OplogOperation op : oplogOps) {
       switch (op.getType()) {
         case DB:
         case NOOP:
           logger.debug("Ignoring operation {}", op);
+          builder.addIgnored(op);
           break;
         case DB_CMD:
-          addParallelToBatch(oplogOps, fromExcluded, i, result);
-          fromExcluded = i;
-          result.add(new SingleOpAnalyzedOplogBatch((DbCmdOplogOperation) op));
+          builder.addSingleOp(op);
           break;
         case DELETE:
         case INSERT:
         case UPDATE: {
           //CUD operations on system collection must be addressed sequentially
-          if (SYSTEM_COLLECTIONS.contains(((CollectionOplogOperation) op).getCollection())) {
-            addParallelToBatch(oplogOps, fromExcluded, i, result);
-            fromExcluded = i;
-            result.add(new SingleOpAnalyzedOplogBatch(op));
+          CollectionOplogOperation colOp = (CollectionOplogOperation) op;
+          if (SYSTEM_COLLECTIONS.contains(colOp.getCollection())) {
+            builder.addSingleOp(op);
+          } else {
+            builder.addCud(colOp);
           }
           break;
         }
@@ -93,19 +99,63 @@ public class BatchAnalyzer implements Function<List<OplogOperation>, List<Analyz
           throw new AssertionError("Found an unknown oplog operation " + op);
       }
     }
-    addParallelToBatch(oplogOps, fromExcluded, oplogOps.size(), result);
 
-    return result;
+    return builder.build();
   }
 
-  private void addParallelToBatch(List<OplogOperation> allOperations, int fromExcluded,
-      int toExcluded, List<AnalyzedOplogBatch> batches) {
-    int from = fromExcluded + 1;
-    if (from == toExcluded) {
-      return;
+  private class BatchBuilder {
+
+    private final List<AnalyzedOplogBatch> result = new ArrayList<>();
+    private final List<OplogOperation> cudOps = new ArrayList<>();
+    /**
+     * The operations that must be applied alone once the current CUD batch is applied.
+     */
+    private final List<Tuple2<OplogOperation, Dependency>> delayedOps = new ArrayList<>();
+
+    private void addIgnored(OplogOperation op) {
+      cudOps.add(op);
+    }
+
+    private void addSingleOp(OplogOperation op) {
+      Dependency dependency = dependencyAnalyzer.analyze(op);
+      if (dependency.isGlobal()) {
+        flush();
+        result.add(new SingleOpAnalyzedOplogBatch(op));
+      } else if (cudOps.isEmpty()) {
+        assert delayedOps.isEmpty();
+        result.add(new SingleOpAnalyzedOplogBatch(op));
+      } else {
+        logger.trace("Operation {} touches {}, following CUD operations on other namespaces "
+            + "will be applied before it", op, dependency);
+        delayedOps.add(new Tuple2<>(op, dependency));
+      }
+    }
+
+    private void addCud(CollectionOplogOperation op) {
+      boolean conflicts = delayedOps.stream()
+          .anyMatch(delayed -> delayed.v2().conflictsWith(op.getDatabase(), op.getCollection()));
+      if (conflicts) {
+        flush();
+      }
+      cudOps.add(op);
+    }
+
+    private void flush() {
+      if (!cudOps.isEmpty()) {
+        result.add(new CudAnalyzedOplogBatch(new ArrayList<>(cudOps), context,
+            analyzedOpReducer));
+        cudOps.clear();
+      }
+      for (Tuple2<OplogOperation, Dependency> delayedOp : delayedOps) {
+        result.add(new SingleOpAnalyzedOplogBatch(delayedOp.v1()));
+      }
+      delayedOps.clear();
+    }
+
+    private List<AnalyzedOplogBatch> build() {
+      flush();
+      return result;
     }
-    batches.add(new CudAnalyzedOplogBatch(allOperations.subList(from, toExcluded), context,
-        analyzedOpReducer));
   }
 
   public static interface BatchAnalyzerFactory {
@@ -41,7 +41,6 @@ import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionException;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -54,12 +53,22 @@ public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecut
   private final ConcurrentOplogBatchExecutorMetrics concurrentMetrics;
   private final SubBatchHeuristic subBatchHeuristic;
 
-  @Inject
   public ConcurrentOplogBatchExecutor(OplogOperationApplier oplogOperationApplier,
       MongodServer server, Retrier retrier, ConcurrentToolsFactory concurrentToolsFactory,
       NamespaceJobExecutor namespaceJobExecutor, LoggerFactory lf,
       ConcurrentOplogBatchExecutorMetrics concurrentMetrics, SubBatchHeuristic subBatchHeuristic) {
-    super(concurrentMetrics, oplogOperationApplier, server, retrier, namespaceJobExecutor);
+    this(oplogOperationApplier, server, retrier, concurrentToolsFactory, namespaceJobExecutor, lf,
+        concurrentMetrics, subBatchHeuristic, GroupCommitPolicy.disabled());
+  }
+
+  @Inject
+  public ConcurrentOplogBatchExecutor(OplogOperationApplier oplogOperationApplier,
+      MongodServer server, Retrier retrier, ConcurrentToolsFactory concurrentToolsFactory,
+      NamespaceJobExecutor namespaceJobExecutor, LoggerFactory lf,
+      ConcurrentOplogBatchExecutorMetrics concurrentMetrics, SubBatchHeuristic subBatchHeuristic,
+      GroupCommitPolicy groupCommitPolicy) {
+    super(concurrentMetrics, oplogOperationApplier, server, retrier, namespaceJobExecutor,
+        groupCommitPolicy);
     this.streamExecutor = concurrentToolsFactory.createStreamExecutor(
         lf.apply(this.getClass()), "concurrent-oplog-batch-executor", true);
     this.concurrentMetrics = concurrentMetrics;
@@ -85,18 +94,30 @@ public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecut
   @Override
   public void execute(CudAnalyzedOplogBatch cudBatch, ApplierContext context) throws UserException {
     assert isRunning() : "The service is on state " + state() + " instead of RUNNING";
-    List<NamespaceJob> namespaceJobList = cudBatch.streamNamespaceJobs().flatMap(this::split)
-        .collect(Collectors.toList());
-    concurrentMetrics.getSubBatchSizeMeter().mark(namespaceJobList.size());
-    concurrentMetrics.getSubBatchSizeHistogram().update(namespaceJobList.size());
-
-    Stream<Callable<Empty>> callables = namespaceJobList.stream()
-        .map((Function<NamespaceJob, Callable<Empty>>) (NamespaceJob namespaceJob) -> () -> {
-          execute(namespaceJob, context);
-          return Empty.getInstance();
-        });
+    List<Callable<Empty>> callables;
+    if (getGroupCommitPolicy().isEnabled()) {
+      //namespace jobs are grouped before they are split, so the sub batches of a big job are still
+      //executed concurrently and only small jobs of different namespaces share a transaction
+      List<NamespaceJob> namespaceJobList = cudBatch.streamNamespaceJobs()
+          .collect(Collectors.toList());
+      callables = getGroupCommitPolicy().group(namespaceJobList.iterator()).stream()
+          .flatMap(group -> {
+            if (group.size() == 1) {
+              return split(group.get(0)).map(job -> createCallable(job, context));
+            }
+            return Stream.of(createCallable(group, context));
+          })
+          .collect(Collectors.toList());
+    } else {
+      callables = cudBatch.streamNamespaceJobs().flatMap(this::split)
+          .map(job -> createCallable(job, context))
+          .collect(Collectors.toList());
+    }
+    concurrentMetrics.getSubBatchSizeMeter().mark(callables.size());
+    concurrentMetrics.getSubBatchSizeHistogram().update(callables.size());
+
     try {
-      streamExecutor.execute(callables)
+      streamExecutor.execute(callables.stream())
           .join();
     } catch (CompletionException ex) {
       Throwable cause = ex.getCause();
@@ -109,6 +130,20 @@ public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecut
     }
   }
 
+  private Callable<Empty> createCallable(NamespaceJob job, ApplierContext context) {
+    return () -> {
+      execute(job, context);
+      return Empty.getInstance();
+    };
+  }
+
+  private Callable<Empty> createCallable(List<NamespaceJob> group, ApplierContext context) {
+    return () -> {
+      executeGroup(group, context);
+      return Empty.getInstance();
+    };
+  }
+
   private void execute(NamespaceJob job, ApplierContext applierContext)
       throws OplogManagerPersistException, UserException, NamespaceJobExecutionException {
     assert isRunning() : "The service is not running";
@@ -117,6 +152,14 @@ public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecut
     }
   }
 
+  private void executeGroup(List<NamespaceJob> group, ApplierContext applierContext)
+      throws UserException, NamespaceJobExecutionException {
+    assert isRunning() : "The service is not running";
+    try (MongodConnection connection = getServer().openConnection()) {
+      executeGroup(group, applierContext, connection);
+    }
+  }
+
   private Stream<NamespaceJob> split(NamespaceJob namespaceJob) {
     Collection<AnalyzedOp> jobs = namespaceJob.getJobs();
 
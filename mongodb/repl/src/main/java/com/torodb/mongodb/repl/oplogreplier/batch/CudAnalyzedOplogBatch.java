@@ -26,21 +26,18 @@ import static com.torodb.mongowp.commands.oplog.OplogOperationType.UPDATE;
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Table;
 import com.torodb.mongodb.repl.oplogreplier.ApplierContext;
-import com.torodb.mongodb.repl.oplogreplier.analyzed.AnalyzedOp;
+import com.torodb.mongodb.repl.oplogreplier.analyzed.AnalyzedOpMap;
 import com.torodb.mongodb.repl.oplogreplier.analyzed.AnalyzedOpReducer;
-import com.torodb.mongowp.bson.BsonValue;
 import com.torodb.mongowp.commands.oplog.CollectionOplogOperation;
 import com.torodb.mongowp.commands.oplog.OplogOperation;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Stream;
 
 public class CudAnalyzedOplogBatch extends AnalyzedOplogBatch {
 
   private final List<OplogOperation> originalBatch;
-  private final Table<String, String, Map<BsonValue<?>, AnalyzedOp>> jobs;
+  private final Table<String, String, AnalyzedOpMap> jobs;
 
   public CudAnalyzedOplogBatch(List<OplogOperation> operations, ApplierContext context,
       AnalyzedOpReducer analyzedOpReducer) {
@@ -94,9 +91,9 @@ public class CudAnalyzedOplogBatch extends AnalyzedOplogBatch {
     String database = op.getDatabase();
     String collection = op.getCollection();
 
-    Map<BsonValue<?>, AnalyzedOp> byDocAnalyzedOps = jobs.get(database, collection);
+    AnalyzedOpMap byDocAnalyzedOps = jobs.get(database, collection);
     if (byDocAnalyzedOps == null) {
-      byDocAnalyzedOps = new HashMap<>();
+      byDocAnalyzedOps = new AnalyzedOpMap();
       jobs.put(database, collection, byDocAnalyzedOps);
     }
     analyzedOpReducer.analyzeAndReduce(byDocAnalyzedOps, op, context);
@@ -0,0 +1,126 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl.oplogreplier.batch;
+
+import com.google.common.base.Preconditions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Defines how several {@link NamespaceJob namespace jobs} can be applied on a single transaction.
+ *
+ * When group commit is disabled, each namespace job is applied and committed on its own
+ * transaction. When it is enabled, consecutive jobs are applied on the same transaction until the
+ * number of operations or the time spent on the transaction reaches the limits of this policy.
+ */
+@Immutable
+public class GroupCommitPolicy {
+
+  private static final GroupCommitPolicy DISABLED = new GroupCommitPolicy(false, 1, Duration.ZERO);
+
+  private final boolean enabled;
+  private final int maxOpsPerCommit;
+  private final Duration maxCommitDelay;
+
+  private GroupCommitPolicy(boolean enabled, int maxOpsPerCommit, Duration maxCommitDelay) {
+    this.enabled = enabled;
+    this.maxOpsPerCommit = maxOpsPerCommit;
+    this.maxCommitDelay = maxCommitDelay;
+  }
+
+  /**
+   * Returns a policy where each namespace job is committed on its own transaction.
+   */
+  public static GroupCommitPolicy disabled() {
+    return DISABLED;
+  }
+
+  /**
+   * Returns a policy where namespace jobs are grouped on the same transaction.
+   *
+   * @param maxOpsPerCommit the max number of operations that are applied on a single transaction.
+   *                        A single namespace job with more operations than that is applied on its
+   *                        own transaction.
+   * @param maxCommitDelay  the max time a transaction can be open before it is committed. No more
+   *                        jobs are added to a transaction once this time is reached.
+   */
+  public static GroupCommitPolicy enabled(int maxOpsPerCommit, Duration maxCommitDelay) {
+    Preconditions.checkArgument(maxOpsPerCommit > 0, "The max number of operations per commit "
+        + "must be positive");
+    Preconditions.checkArgument(!maxCommitDelay.isNegative(), "The max commit delay must not be "
+        + "negative");
+    return new GroupCommitPolicy(true, maxOpsPerCommit, maxCommitDelay);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public int getMaxOpsPerCommit() {
+    return maxOpsPerCommit;
+  }
+
+  public Duration getMaxCommitDelay() {
+    return maxCommitDelay;
+  }
+
+  /**
+   * Splits the given jobs into groups that should be applied on the same transaction.
+   *
+   * Groups are created greedily, preserving the order of the given jobs, so that the number of
+   * operations of each group does not exceed {@link #getMaxOpsPerCommit()}. If the policy is
+   * disabled, each job is returned on its own group.
+   */
+  public List<List<NamespaceJob>> group(Iterator<NamespaceJob> jobs) {
+    List<List<NamespaceJob>> result = new ArrayList<>();
+    List<NamespaceJob> currentGroup = new ArrayList<>();
+    int currentOps = 0;
+
+    while (jobs.hasNext()) {
+      NamespaceJob job = jobs.next();
+      int jobOps = job.getJobs().size();
+      if (!currentGroup.isEmpty() && (!enabled || currentOps + jobOps > maxOpsPerCommit)) {
+        result.add(currentGroup);
+        currentGroup = new ArrayList<>();
+        currentOps = 0;
+      }
+      currentGroup.add(job);
+      currentOps += jobOps;
+    }
+    if (!currentGroup.isEmpty()) {
+      result.add(currentGroup);
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    if (!enabled) {
+      return "GroupCommitPolicy{disabled}";
+    }
+    return "GroupCommitPolicy{maxOpsPerCommit=" + maxOpsPerCommit + ", maxCommitDelay="
+        + maxCommitDelay + '}';
+  }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl.oplogreplier.batch;
+
+import com.google.common.collect.ImmutableSet;
+import com.torodb.mongodb.commands.pojos.index.IndexOptions;
+import com.torodb.mongodb.utils.NamespaceUtil;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.BsonValue;
+import com.torodb.mongowp.commands.oplog.CollectionOplogOperation;
+import com.torodb.mongowp.commands.oplog.DbCmdOplogOperation;
+import com.torodb.mongowp.commands.oplog.InsertOplogOperation;
+import com.torodb.mongowp.commands.oplog.OplogOperation;
+import com.torodb.mongowp.exceptions.MongoException;
+
+import java.util.Objects;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+/**
+ * Classifies the operations that cannot be applied as part of a {@link CudAnalyzedOplogBatch} by
+ * the namespaces they touch.
+ *
+ * The {@link Dependency dependency} of an operation is used by {@link BatchAnalyzer} to decide
+ * whether the CUD operations that follow it on the oplog can be applied before it.
+ */
+@ThreadSafe
+public class NamespaceDependencyAnalyzer {
+
+  private static final ImmutableSet<String> COLLECTION_COMMANDS = ImmutableSet.of(
+      "create", "createIndexes", "drop", "dropIndexes", "deleteIndexes");
+  private static final ImmutableSet<String> DATABASE_COMMANDS = ImmutableSet.of(
+      "dropDatabase");
+
+  @Inject
+  public NamespaceDependencyAnalyzer() {
+  }
+
+  public Dependency analyze(OplogOperation op) {
+    switch (op.getType()) {
+      case DB_CMD:
+        return analyzeCommand((DbCmdOplogOperation) op);
+      case DELETE:
+      case INSERT:
+      case UPDATE:
+        return analyzeCud((CollectionOplogOperation) op);
+      case DB:
+      case NOOP:
+      default:
+        return Dependency.global();
+    }
+  }
+
+  private Dependency analyzeCommand(DbCmdOplogOperation op) {
+    BsonDocument request = op.getRequest();
+    if (request.isEmpty()) {
+      return Dependency.global();
+    }
+    String commandName = request.getFirstEntry().getKey();
+    if (DATABASE_COMMANDS.contains(commandName)) {
+      return Dependency.database(op.getDatabase());
+    }
+    if (COLLECTION_COMMANDS.contains(commandName)) {
+      BsonValue<?> collection = request.getFirstEntry().getValue();
+      if (collection.isString()) {
+        return Dependency.collection(op.getDatabase(), collection.asString().getValue());
+      }
+    }
+    return Dependency.global();
+  }
+
+  private Dependency analyzeCud(CollectionOplogOperation op) {
+    if (!NamespaceUtil.isSystem(op.getCollection())) {
+      return Dependency.collection(op.getDatabase(), op.getCollection());
+    }
+    if (op instanceof InsertOplogOperation
+        && NamespaceUtil.isIndexesMetaCollection(op.getCollection())) {
+      try {
+        IndexOptions indexOptions = IndexOptions.unmarshall(
+            ((InsertOplogOperation) op).getDocToInsert());
+        if (indexOptions.getCollection() != null) {
+          return Dependency.collection(op.getDatabase(), indexOptions.getCollection());
+        }
+      } catch (MongoException ex) {
+        //the index cannot be parsed, so the whole database is considered
+      }
+    }
+    return Dependency.database(op.getDatabase());
+  }
+
+  /**
+   * The set of namespaces an operation touches.
+   *
+   * It can be a single collection, a whole database or everything (a <em>global</em> dependency),
+   * which is used when the namespaces touched by the operation are not known.
+   */
+  @Immutable
+  public static final class Dependency {
+
+    private static final Dependency GLOBAL = new Dependency(null, null);
+
+    @Nullable
+    private final String database;
+    @Nullable
+    private final String collection;
+
+    private Dependency(@Nullable String database, @Nullable String collection) {
+      this.database = database;
+      this.collection = collection;
+    }
+
+    public static Dependency global() {
+      return GLOBAL;
+    }
+
+    public static Dependency database(String database) {
+      return new Dependency(Objects.requireNonNull(database), null);
+    }
+
+    public static Dependency collection(String database, String collection) {
+      return new Dependency(Objects.requireNonNull(database), Objects.requireNonNull(collection));
+    }
+
+    public boolean isGlobal() {
+      return database == null;
+    }
+
+    /**
+     * Returns true iff an operation on the given collection could be affected by an operation with
+     * this dependency.
+     */
+    public boolean conflictsWith(String database, String collection) {
+      if (isGlobal()) {
+        return true;
+      }
+      if (!this.database.equals(database)) {
+        return false;
+      }
+      return this.collection == null || this.collection.equals(collection);
+    }
+
+    @Override
+    public String toString() {
+      if (isGlobal()) {
+        return "global";
+      }
+      if (collection == null) {
+        return database;
+      }
+      return database + '.' + collection;
+    }
+  }
+}
@@ -35,8 +35,11 @@ import com.torodb.mongodb.utils.DefaultIdUtils;
 import com.torodb.mongowp.Status;
 import org.jooq.lambda.tuple.Tuple2;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -58,44 +61,41 @@ public class NamespaceJobExecutor {
       throws RollbackException, UserException, NamespaceJobExecutionException,
       UniqueIndexViolationException {
 
-    Map<AnalyzedOp, Integer> fetchDids = fetchDids(job, transaction, optimisticDeleteAndCreate);
+    Map<AnalyzedOp, Integer> fetchDids = fetchDids(job, transaction);
+    Set<KvValue<?>> deletedIds = deleteByIds(job, transaction, optimisticDeleteAndCreate);
 
-    List<Status<?>> errors = findErrors(job, fetchDids);
+    List<Status<?>> errors = findErrors(job, fetchDids, deletedIds);
     if (!errors.isEmpty()) {
       throw new NamespaceJobExecutionException(job, errors);
     }
-    if (errors.isEmpty()) {
-      Map<AnalyzedOp, ToroDocument> fetchDocs = fetchDocs(job, transaction, fetchDids);
-      deleteDocs(job, transaction, fetchDids);
-      insertDocs(job, transaction, fetchDocs);
-    }
-
+    Map<AnalyzedOp, ToroDocument> fetchDocs = fetchDocs(job, transaction, fetchDids);
+    deleteDocs(job, transaction, fetchDids);
+    insertDocs(job, transaction, fetchDocs);
   }
 
   /**
-   * Returns a map whose entries are the did of each analyzed op that requires to fetch them.
+   * Returns a map whose entries are the did of each analyzed op that requires to fetch the
+   * document it modifies.
    *
    * @param job
    * @param transaction
    * @return
-   * @see AnalyzedOp#requiresToFetchToroId()
+   * @see AnalyzedOp#requiresFetch()
    */
   private static Map<AnalyzedOp, Integer> fetchDids(NamespaceJob job,
-      WriteMongodTransaction transaction, boolean optimisticDeleteAndCreate) {
-
-    Stream<AnalyzedOp> filteredJobs = job.getJobs().stream()
-        .filter(AnalyzedOp::requiresToFetchToroId);
-
-    if (optimisticDeleteAndCreate) {
-      filteredJobs = filteredJobs.filter(op -> op.getType() != AnalyzedOpType.DELETE_CREATE);
-    }
+      WriteMongodTransaction transaction) {
 
-    Map<KvValue<?>, AnalyzedOp> mapToFetch = filteredJobs
+    Map<KvValue<?>, AnalyzedOp> mapToFetch = job.getJobs().stream()
+        .filter(AnalyzedOp::requiresFetch)
         .collect(Collectors.toMap(
             op -> op.getMongoDocId(),
             Function.identity()
         ));
 
+    if (mapToFetch.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
     return transaction.getTorodTransaction()
         .findByAttRefInProjection(
             job.getDatabase(),
@@ -110,17 +110,58 @@ public class NamespaceJobExecutor {
         );
   }
 
+  /**
+   * Deletes the documents modified by the analyzed ops that delete them but do not require to
+   * fetch them, without reading their dids first.
+   *
+   * @param job
+   * @param transaction
+   * @param optimisticDeleteAndCreate if true, {@link AnalyzedOpType#DELETE_CREATE} ops are not
+   *                                  deleted
+   * @return the ids of the documents that have been deleted
+   */
+  private static Set<KvValue<?>> deleteByIds(NamespaceJob job,
+      WriteMongodTransaction transaction, boolean optimisticDeleteAndCreate) {
+
+    Stream<AnalyzedOp> filteredJobs = job.getJobs().stream()
+        .filter(AnalyzedOp::deletes)
+        .filter(op -> !op.requiresFetch());
+
+    if (optimisticDeleteAndCreate) {
+      filteredJobs = filteredJobs.filter(op -> op.getType() != AnalyzedOpType.DELETE_CREATE);
+    }
+
+    List<KvValue<?>> idsToDelete = filteredJobs
+        .map(AnalyzedOp::getMongoDocId)
+        .collect(Collectors.toList());
+
+    if (idsToDelete.isEmpty()) {
+      return Collections.emptySet();
+    }
+
+    return new HashSet<>(transaction.getTorodTransaction()
+        .deleteByAttRefIn(
+            job.getDatabase(),
+            job.getCollection(),
+            _ID_ATT_REF,
+            idsToDelete)
+    );
+  }
+
   /**
    * Returns a list of all mismatching errors on the given job.
    *
    * @param job
    * @param fetchDids
+   * @param deletedIds
    * @return
    */
-  private List<Status<?>> findErrors(NamespaceJob job, Map<AnalyzedOp, Integer> fetchDids) {
+  private List<Status<?>> findErrors(NamespaceJob job, Map<AnalyzedOp, Integer> fetchDids,
+      Set<KvValue<?>> deletedIds) {
     return job.getJobs().stream()
         .filter(AnalyzedOp::requiresMatch) //only care about ops that requires a match
-        .filter(op -> !fetchDids.containsKey(op)) //only care about ops that did not match
+        .filter(op -> op.requiresFetch() ? !fetchDids.containsKey(op) :
+            !deletedIds.contains(op.getMongoDocId())) //only care about ops that did not match
         .map(AnalyzedOp::getMismatchErrorMessage)
         .collect(Collectors.toList());
   }
@@ -54,17 +54,28 @@ public class SimpleAnalyzedOplogBatchExecutor extends AbstractService
   private final MongodServer server;
   private final Retrier retrier;
   private final NamespaceJobExecutor namespaceJobExecutor;
+  private final GroupCommitPolicy groupCommitPolicy;
 
-  @Inject
   public SimpleAnalyzedOplogBatchExecutor(
       AnalyzedOplogBatchExecutorMetrics metrics,
       OplogOperationApplier oplogOperationApplier, MongodServer server,
       Retrier retrier, NamespaceJobExecutor namespaceJobExecutor) {
+    this(metrics, oplogOperationApplier, server, retrier, namespaceJobExecutor,
+        GroupCommitPolicy.disabled());
+  }
+
+  @Inject
+  public SimpleAnalyzedOplogBatchExecutor(
+      AnalyzedOplogBatchExecutorMetrics metrics,
+      OplogOperationApplier oplogOperationApplier, MongodServer server,
+      Retrier retrier, NamespaceJobExecutor namespaceJobExecutor,
+      GroupCommitPolicy groupCommitPolicy) {
     this.metrics = metrics;
     this.oplogOperationApplier = oplogOperationApplier;
     this.server = server;
     this.retrier = retrier;
     this.namespaceJobExecutor = namespaceJobExecutor;
+    this.groupCommitPolicy = groupCommitPolicy;
   }
 
   @Override
@@ -95,12 +106,73 @@ public class SimpleAnalyzedOplogBatchExecutor extends AbstractService
     try (MongodConnection connection = server.openConnection()) {
 
       Iterator<NamespaceJob> it = cudBatch.streamNamespaceJobs().iterator();
-      while (it.hasNext()) {
-        execute(it.next(), context, connection);
+      if (groupCommitPolicy.isEnabled()) {
+        for (List<NamespaceJob> group : groupCommitPolicy.group(it)) {
+          executeGroup(group, context, connection);
+        }
+      } else {
+        while (it.hasNext()) {
+          execute(it.next(), context, connection);
+        }
+      }
+    }
+  }
+
+  /**
+   * Applies the given namespace jobs using as few transactions as the
+   * {@link GroupCommitPolicy group commit policy} allows.
+   *
+   * Jobs are applied on the same transaction until the max commit delay of the policy is reached.
+   * If a job cannot be applied optimistically, the transaction is rolled back and the jobs that
+   * were not committed yet are applied again pessimistically.
+   */
+  protected void executeGroup(List<NamespaceJob> group, ApplierContext applierContext,
+      MongodConnection connection) throws RollbackException, UserException,
+      NamespaceJobExecutionException {
+    try (Context timerContext = metrics.getNamespaceBatchTimer().time()) {
+      boolean optimisticDeleteAndCreate = applierContext.isReapplying().orElse(true);
+      int committed = 0;
+      while (committed < group.size()) {
+        List<NamespaceJob> pending = group.subList(committed, group.size());
+        try {
+          committed += executeGroup(pending, applierContext, connection,
+              optimisticDeleteAndCreate);
+        } catch (UniqueIndexViolationException ex) {
+          assert optimisticDeleteAndCreate : "Unique index violations should not happen when "
+              + "pesimistic delete and create is executed";
+          committed += executeGroup(pending, applierContext, connection, false);
+        }
       }
     }
   }
 
+  /**
+   * Applies a prefix of the given jobs on a single transaction and commits it.
+   *
+   * @return the number of jobs that have been applied and committed, which is always positive
+   */
+  private int executeGroup(List<NamespaceJob> jobs, ApplierContext applierContext,
+      MongodConnection connection, boolean optimisticDeleteAndCreate)
+      throws RollbackException, UserException, NamespaceJobExecutionException,
+      UniqueIndexViolationException {
+    long maxDelayNanos = groupCommitPolicy.getMaxCommitDelay().toNanos();
+    long start = System.nanoTime();
+    int applied = 0;
+    try (WriteMongodTransaction mongoTransaction = connection.openWriteTransaction()) {
+      for (NamespaceJob job : jobs) {
+        namespaceJobExecutor.apply(job, mongoTransaction, applierContext,
+            optimisticDeleteAndCreate);
+        applied++;
+        if (System.nanoTime() - start >= maxDelayNanos) {
+          break;
+        }
+      }
+      mongoTransaction.commit();
+    }
+    metrics.getGroupCommitSize().update(applied);
+    return applied;
+  }
+
   protected void execute(NamespaceJob job, ApplierContext applierContext,
       MongodConnection connection) throws RollbackException, UserException,
       NamespaceJobExecutionException {
@@ -188,4 +260,8 @@ public class SimpleAnalyzedOplogBatchExecutor extends AbstractService
   protected MongodServer getServer() {
     return server;
   }
+
+  protected GroupCommitPolicy getGroupCommitPolicy() {
+    return groupCommitPolicy;
+  }
 }
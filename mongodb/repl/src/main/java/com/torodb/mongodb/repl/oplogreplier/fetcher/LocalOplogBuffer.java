@@ -0,0 +1,294 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl.oplogreplier.fetcher;
+
+import com.google.common.base.Preconditions;
+import com.torodb.core.logging.DefaultLoggerFactory;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.org.bson.utils.MongoBsonTranslator;
+import org.apache.logging.log4j.Logger;
+import org.bson.BsonBinaryWriter;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * An append only store of oplog entries backed by memory mapped segment files.
+ * <p>
+ * Each entry is stored as its BSON representation prefixed by its length. Segments are
+ * preallocated with a fixed size, so a zero length marks the end of the entries stored on a
+ * segment. Documents are read in the same order they were appended. The segments cannot use more
+ * than the max size of the buffer, so an append that needs more space fails.
+ * <p>
+ * Only one thread can append entries and documents should only be read once all of them have
+ * been appended. All segments are unmapped and their files deleted when the buffer is closed, so
+ * iterators cannot be used once the buffer is closed.
+ */
+@NotThreadSafe
+public class LocalOplogBuffer implements Closeable {
+
+  private static final Logger LOGGER = DefaultLoggerFactory.get(LocalOplogBuffer.class);
+  private static final BsonDocumentCodec CODEC = new BsonDocumentCodec();
+  private final Path directory;
+  private final int segmentSize;
+  private final long maxSize;
+  private final List<Path> segments = new ArrayList<>();
+  private final Set<MappedByteBuffer> mappedBuffers = Collections.newSetFromMap(
+      new IdentityHashMap<>());
+  private MappedByteBuffer currentSegment;
+  private long allocatedBytes;
+  private long size;
+  private boolean closed;
+
+  public LocalOplogBuffer(Path directory, int segmentSize) {
+    this(directory, segmentSize, Long.MAX_VALUE);
+  }
+
+  public LocalOplogBuffer(Path directory, int segmentSize, long maxSize) {
+    Preconditions.checkArgument(segmentSize > 4, "The segment size must be higher than 4 bytes");
+    Preconditions.checkArgument(maxSize > 0, "The max size must be positive");
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Returns the number of documents that have been appended.
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Appends the given document.
+   *
+   * @throws IOException if the document cannot be stored, including when the buffer would need
+   *                     more than its max size to store it
+   */
+  public void append(BsonDocument doc) throws IOException {
+    Preconditions.checkState(!closed, "The buffer is closed");
+    byte[] bytes = encode(doc);
+    int entrySize = 4 + bytes.length;
+    //the last 4 bytes of each segment are reserved to the end mark
+    if (currentSegment == null || currentSegment.remaining() < entrySize + 4) {
+      long capacity = Math.min(Math.max(segmentSize, entrySize + 4), maxSize - allocatedBytes);
+      if (capacity < entrySize + 4) {
+        throw new IOException("The local oplog buffer on " + directory + " reached its max size "
+            + "of " + maxSize + " bytes");
+      }
+      if (currentSegment != null) {
+        release(currentSegment);
+      }
+      currentSegment = createSegment((int) capacity);
+    }
+    currentSegment.putInt(bytes.length);
+    currentSegment.put(bytes);
+    size++;
+  }
+
+  /**
+   * Returns an iterator over the appended documents.
+   * <p>
+   * The returned iterator throws {@link UncheckedIOException} if a segment cannot be read.
+   */
+  public Iterator<BsonDocument> iterator() {
+    Preconditions.checkState(!closed, "The buffer is closed");
+    return new SegmentsIterator(new ArrayList<>(segments));
+  }
+
+  private MappedByteBuffer createSegment(int capacity) throws IOException {
+    Path segment = directory.resolve(String.format(Locale.ROOT, "oplog-%06d.seg",
+        segments.size()));
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      segments.add(segment);
+      allocatedBytes += capacity;
+      return track(channel.map(MapMode.READ_WRITE, 0, capacity));
+    }
+  }
+
+  private MappedByteBuffer track(MappedByteBuffer buffer) {
+    mappedBuffers.add(buffer);
+    return buffer;
+  }
+
+  private void release(MappedByteBuffer buffer) {
+    if (mappedBuffers.remove(buffer)) {
+      unmap(buffer);
+    }
+  }
+
+  private static byte[] encode(BsonDocument doc) {
+    BasicOutputBuffer output = new BasicOutputBuffer();
+    try (BsonBinaryWriter writer = new BsonBinaryWriter(output)) {
+      CODEC.encode(writer, MongoBsonTranslator.translate(doc), EncoderContext.builder().build());
+    }
+    return output.toByteArray();
+  }
+
+  private static BsonDocument decode(byte[] bytes) {
+    return MongoBsonTranslator.translate(new RawBsonDocument(bytes));
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    currentSegment = null;
+    try {
+      //mapped files are kept until their buffers are garbage collected and some platforms cannot
+      //delete them while they are mapped
+      for (MappedByteBuffer buffer : mappedBuffers) {
+        unmap(buffer);
+      }
+      mappedBuffers.clear();
+    } finally {
+      for (Path segment : segments) {
+        Files.deleteIfExists(segment);
+      }
+      Files.deleteIfExists(directory);
+    }
+  }
+
+  /**
+   * Releases the memory mapping of the given buffer without waiting until it is garbage collected.
+   * <p>
+   * The JDK does not offer a public way to do that, so the cleaner of the buffer is invoked by
+   * reflection: through {@code sun.misc.Unsafe#invokeCleaner} since Java 9 and through
+   * {@code sun.nio.ch.DirectBuffer#cleaner} on Java 8. If it is not possible, a warning is logged
+   * and the mapping is released when the buffer is collected.
+   */
+  private static void unmap(MappedByteBuffer buffer) {
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Method invokeCleaner = findMethod(unsafeClass, "invokeCleaner", ByteBuffer.class);
+      if (invokeCleaner != null) {
+        Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+        theUnsafe.setAccessible(true);
+        invokeCleaner.invoke(theUnsafe.get(null), buffer);
+      } else {
+        //java 8 does not have Unsafe#invokeCleaner, but its buffers expose their cleaner
+        Method cleanerMethod = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+        Object cleaner = cleanerMethod.invoke(buffer);
+        if (cleaner != null) {
+          cleaner.getClass().getMethod("clean").invoke(cleaner);
+        }
+      }
+    } catch (ReflectiveOperationException | RuntimeException | LinkageError ex) {
+      LOGGER.warn("It was impossible to unmap a segment of the local oplog buffer. It will be "
+          + "unmapped once it is garbage collected", ex);
+    }
+  }
+
+  @Nullable
+  private static Method findMethod(Class<?> clazz, String name, Class<?>... parameterTypes) {
+    try {
+      return clazz.getMethod(name, parameterTypes);
+    } catch (NoSuchMethodException ex) {
+      return null;
+    }
+  }
+
+  private class SegmentsIterator implements Iterator<BsonDocument> {
+
+    private final Iterator<Path> segments;
+    private MappedByteBuffer current;
+    private BsonDocument next;
+
+    public SegmentsIterator(List<Path> segments) {
+      this.segments = segments.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next == null) {
+        next = computeNext();
+      }
+      return next != null;
+    }
+
+    @Override
+    public BsonDocument next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      BsonDocument result = next;
+      next = null;
+      return result;
+    }
+
+    private BsonDocument computeNext() {
+      //once closed, the segments may be unmapped and reading them would crash the JVM
+      Preconditions.checkState(!closed, "The buffer is closed");
+      while (true) {
+        if (current != null && current.remaining() >= 4) {
+          int length = current.getInt();
+          if (length > 0) {
+            byte[] bytes = new byte[length];
+            current.get(bytes);
+            return decode(bytes);
+          }
+        }
+        if (current != null) {
+          release(current);
+          current = null;
+        }
+        if (!segments.hasNext()) {
+          return null;
+        }
+        current = map(segments.next());
+      }
+    }
+
+    private MappedByteBuffer map(Path segment) {
+      try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+        return track(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl.oplogreplier.fetcher;
+
+import com.google.common.base.Preconditions;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Defines where the {@link LocalOplogBuffer local oplog buffer} used while the databases are
+ * cloned stores its files and how much disk it can use.
+ *
+ * When the buffer reaches its max size, buffering stops and the remote oplog is read once the
+ * databases are cloned.
+ */
+@Immutable
+public class LocalOplogBufferConfig {
+
+  private static final LocalOplogBufferConfig DEFAULT = new LocalOplogBufferConfig(null,
+      Long.MAX_VALUE);
+
+  @Nullable
+  private final Path directory;
+  private final long maxSize;
+
+  private LocalOplogBufferConfig(@Nullable Path directory, long maxSize) {
+    this.directory = directory;
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Returns a configuration that stores the buffer on the system temporary directory without
+   * limiting its size.
+   */
+  public static LocalOplogBufferConfig defaults() {
+    return DEFAULT;
+  }
+
+  /**
+   * Returns a configuration with the given directory and max size.
+   *
+   * @param directory the directory where the buffer files are stored or empty to use the system
+   *                  temporary directory. Each buffer creates its own subdirectory on it.
+   * @param maxSize   the max number of bytes the buffer files can use
+   */
+  public static LocalOplogBufferConfig create(Optional<Path> directory, long maxSize) {
+    Preconditions.checkArgument(maxSize > 0, "The max size of the buffer must be positive");
+    return new LocalOplogBufferConfig(directory.orElse(null), maxSize);
+  }
+
+  public Optional<Path> getDirectory() {
+    return Optional.ofNullable(directory);
+  }
+
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  @Override
+  public String toString() {
+    return "LocalOplogBufferConfig{directory=" + directory + ", maxSize=" + maxSize + '}';
+  }
+
+}
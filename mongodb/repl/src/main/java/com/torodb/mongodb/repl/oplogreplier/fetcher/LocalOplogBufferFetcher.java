@@ -0,0 +1,98 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.mongodb.repl.oplogreplier.fetcher;
+
+import com.torodb.mongodb.commands.pojos.OplogOperationParser;
+import com.torodb.mongodb.repl.oplogreplier.FinishedOplogBatch;
+import com.torodb.mongodb.repl.oplogreplier.NormalOplogBatch;
+import com.torodb.mongodb.repl.oplogreplier.RollbackReplicationException;
+import com.torodb.mongodb.repl.oplogreplier.StopReplicationException;
+import com.torodb.mongodb.repl.oplogreplier.batch.OplogBatch;
+import com.torodb.mongowp.OpTime;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.commands.oplog.OplogOperation;
+import com.torodb.mongowp.exceptions.BadValueException;
+import com.torodb.mongowp.exceptions.NoSuchKeyException;
+import com.torodb.mongowp.exceptions.TypesMismatchException;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * An {@link OplogFetcher} that reads the operations stored on a {@link LocalOplogBuffer} whose
+ * optime is higher than <em>from</em> but lower or equal than <em>to</em>.
+ */
+public class LocalOplogBufferFetcher implements OplogFetcher {
+
+  private final Iterator<BsonDocument> iterator;
+  private final OpTime from;
+  private final OpTime to;
+  private final int batchSize;
+  private boolean finished;
+
+  public LocalOplogBufferFetcher(LocalOplogBuffer buffer, OpTime from, OpTime to,
+      int batchSize) {
+    this.iterator = buffer.iterator();
+    this.from = from;
+    this.to = to;
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  public OplogBatch fetch() throws StopReplicationException, RollbackReplicationException {
+    if (finished) {
+      return FinishedOplogBatch.getInstance();
+    }
+    List<OplogOperation> ops = new ArrayList<>(batchSize);
+    try {
+      while (ops.size() < batchSize && iterator.hasNext()) {
+        OplogOperation op = OplogOperationParser.fromBson(iterator.next());
+        if (op.getOpTime().compareTo(from) <= 0) {
+          continue;
+        }
+        int comparison = op.getOpTime().compareTo(to);
+        if (comparison <= 0) {
+          ops.add(op);
+        }
+        if (comparison >= 0) {
+          finished = true;
+          break;
+        }
+      }
+      if (!iterator.hasNext()) {
+        finished = true;
+      }
+    } catch (BadValueException | TypesMismatchException | NoSuchKeyException ex) {
+      throw new StopReplicationException("Unexpected operation on the local oplog buffer", ex);
+    } catch (UncheckedIOException ex) {
+      throw new StopReplicationException("Error while reading the local oplog buffer", ex);
+    }
+    if (ops.isEmpty()) {
+      return FinishedOplogBatch.getInstance();
+    }
+    return new NormalOplogBatch(ops, true);
+  }
+
+  @Override
+  public void close() {
+    finished = true;
+  }
+
+}
@@ -18,13 +18,18 @@
 
 package com.torodb.mongodb.repl.sharding.isolation;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.IndexNotFoundException;
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.querycriteria.QueryCriteria;
+import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.kvdocument.values.KvValue;
+import com.torodb.torod.AccumulatorInfo;
 import com.torodb.torod.CollectionInfo;
 import com.torodb.torod.IndexInfo;
+import com.torodb.torod.SortFieldInfo;
 import com.torodb.torod.TorodConnection;
 import com.torodb.torod.TorodTransaction;
 import com.torodb.torod.cursors.TorodCursor;
@@ -32,6 +37,7 @@ import org.jooq.lambda.tuple.Tuple2;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 public abstract class TransDecorator<D extends TorodTransaction, C extends TorodConnection>
@@ -111,6 +117,24 @@ public abstract class TransDecorator<D extends TorodTransaction, C extends Torod
     return decorated.findByAttRefIn(dbName, colName, attRef, values);
   }
 
+  @Override
+  public TorodCursor findByCriteria(String dbName, String colName, QueryCriteria criteria,
+      List<SortFieldInfo> sort, long skip, long limit) {
+    return decorated.findByCriteria(dbName, colName, criteria, sort, skip, limit);
+  }
+
+  @Override
+  public Cursor<KvDocument> groupByCriteria(String dbName, String colName, QueryCriteria criteria,
+      AttributeReference groupBy, List<AccumulatorInfo> accumulators) {
+    return decorated.groupByCriteria(dbName, colName, criteria, groupBy, accumulators);
+  }
+
+  @Override
+  public Cursor<KvValue<?>> findDistinct(String dbName, String colName, AttributeReference attRef,
+      QueryCriteria criteria) {
+    return decorated.findDistinct(dbName, colName, attRef, criteria);
+  }
+
   @Override
   public Cursor<Tuple2<Integer, KvValue<?>>> findByAttRefInProjection(String dbName, String colName,
       AttributeReference attRef,
@@ -145,6 +169,11 @@ public abstract class TransDecorator<D extends TorodTransaction, C extends Torod
     return decorated.getIndexInfo(dbName, colName, idxName);
   }
 
+  @Override
+  public Optional<KvValue<?>> readMetaInfo(MetaInfoKey key) {
+    return decorated.readMetaInfo(key);
+  }
+
   @Override
   public void close() {
     decorated.close();
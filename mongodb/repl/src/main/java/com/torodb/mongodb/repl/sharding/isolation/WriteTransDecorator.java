@@ -18,6 +18,7 @@
 
 package com.torodb.mongodb.repl.sharding.isolation;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.document.ToroDocument;
 import com.torodb.core.exceptions.user.UserException;
@@ -30,6 +31,7 @@ import com.torodb.torod.SharedWriteTorodTransaction;
 import com.torodb.torod.TorodConnection;
 import com.torodb.torod.cursors.TorodCursor;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -74,6 +76,12 @@ public abstract class WriteTransDecorator<D extends SharedWriteTorodTransaction,
     return getDecorated().deleteByAttRef(dbName, colName, attRef, value);
   }
 
+  @Override
+  public List<KvValue<?>> deleteByAttRefIn(String dbName, String colName,
+      AttributeReference attRef, Collection<KvValue<?>> values) {
+    return getDecorated().deleteByAttRefIn(dbName, colName, attRef, values);
+  }
+
   @Override
   public void dropCollection(String db, String collection) throws RollbackException, UserException {
     getDecorated().dropCollection(db, collection);
@@ -91,8 +99,10 @@ public abstract class WriteTransDecorator<D extends SharedWriteTorodTransaction,
 
   @Override
   public boolean createIndex(String dbName, String colName, String indexName,
-      List<IndexFieldInfo> fields, boolean unique) throws UserException {
-    return getDecorated().createIndex(dbName, colName, indexName, fields, unique);
+      List<IndexFieldInfo> fields, boolean unique, boolean sparse, boolean background)
+      throws UserException {
+    return getDecorated().createIndex(dbName, colName, indexName, fields, unique, sparse,
+        background);
   }
 
   @Override
@@ -100,6 +110,11 @@ public abstract class WriteTransDecorator<D extends SharedWriteTorodTransaction,
     return getDecorated().dropIndex(dbName, colName, indexName);
   }
 
+  @Override
+  public KvValue<?> writeMetaInfo(MetaInfoKey key, KvValue<?> newValue) {
+    return getDecorated().writeMetaInfo(key, newValue);
+  }
+
   @Override
   public void commit() throws RollbackException, UserException {
     getDecorated().commit();
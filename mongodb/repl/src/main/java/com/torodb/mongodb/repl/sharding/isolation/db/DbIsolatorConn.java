@@ -18,6 +18,7 @@
 
 package com.torodb.mongodb.repl.sharding.isolation.db;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.mongodb.repl.sharding.isolation.ConnDecorator;
 import com.torodb.torod.ExclusiveWriteTorodTransaction;
 import com.torodb.torod.ReadOnlyTorodTransaction;
@@ -39,6 +40,10 @@ public class DbIsolatorConn extends ConnDecorator<DbIsolatorServer> {
     return getServer().convertIndexName(indexName);
   }
 
+  final MetaInfoKey convertMetaInfoKey(MetaInfoKey key) {
+    return getServer().convertMetaInfoKey(key);
+  }
+
   final boolean isVisibleDatabase(String dbName) {
     return getServer().isVisibleDatabase(dbName);
   }
@@ -19,14 +19,17 @@
 package com.torodb.mongodb.repl.sharding.isolation.db;
 
 import com.torodb.common.util.Empty;
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.logging.LoggerFactory;
 import com.torodb.core.services.IdleTorodbService;
 import com.torodb.torod.TorodConnection;
 import com.torodb.torod.TorodServer;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadFactory;
+import java.util.stream.Collectors;
 
 
 public class DbIsolatorServer extends IdleTorodbService implements TorodServer {
@@ -57,6 +60,11 @@ public class DbIsolatorServer extends IdleTorodbService implements TorodServer {
     return indexName + "_" + shardId;
   }
 
+  final MetaInfoKey convertMetaInfoKey(MetaInfoKey key) {
+    String keyName = key.getKeyName() + "_" + shardId;
+    return () -> keyName;
+  }
+
   final boolean isVisibleDatabase(String dbName) {
     return dbName.endsWith("_" + dbName);
   }
@@ -66,6 +74,14 @@ public class DbIsolatorServer extends IdleTorodbService implements TorodServer {
     return decorated.disableDataImportMode(convertDatabaseName(dbName));
   }
 
+  @Override
+  public CompletableFuture<Empty> disableDataImportMode(Collection<String> dbNames) {
+    return decorated.disableDataImportMode(dbNames.stream()
+        .map(this::convertDatabaseName)
+        .collect(Collectors.toList())
+    );
+  }
+
   @Override
   public CompletableFuture<Empty> enableDataImportMode(String dbName) {
     return decorated.enableDataImportMode(convertDatabaseName(dbName));
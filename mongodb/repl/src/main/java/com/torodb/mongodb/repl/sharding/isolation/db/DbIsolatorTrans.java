@@ -18,20 +18,26 @@
 
 package com.torodb.mongodb.repl.sharding.isolation.db;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.IndexNotFoundException;
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.querycriteria.QueryCriteria;
+import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.mongodb.repl.sharding.isolation.TransDecorator;
+import com.torodb.torod.AccumulatorInfo;
 import com.torodb.torod.CollectionInfo;
 import com.torodb.torod.IndexInfo;
+import com.torodb.torod.SortFieldInfo;
 import com.torodb.torod.TorodTransaction;
 import com.torodb.torod.cursors.TorodCursor;
 import org.jooq.lambda.tuple.Tuple2;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -54,6 +60,15 @@ public class DbIsolatorTrans<D extends TorodTransaction>
     return getConnection().isVisibleDatabase(dbName);
   }
 
+  final MetaInfoKey convertMetaInfoKey(MetaInfoKey key) {
+    return getConnection().convertMetaInfoKey(key);
+  }
+
+  @Override
+  public Optional<KvValue<?>> readMetaInfo(MetaInfoKey key) {
+    return super.readMetaInfo(convertMetaInfoKey(key));
+  }
+
   @Override
   public IndexInfo getIndexInfo(String dbName, String colName, String idxName) throws
       IndexNotFoundException {
@@ -88,6 +103,26 @@ public class DbIsolatorTrans<D extends TorodTransaction>
     return super.findByAttRefInProjection(convertDatabaseName(dbName), colName, attRef, values);
   }
 
+  @Override
+  public TorodCursor findByCriteria(String dbName, String colName, QueryCriteria criteria,
+      List<SortFieldInfo> sort, long skip, long limit) {
+    return super.findByCriteria(convertDatabaseName(dbName), colName, criteria, sort, skip,
+        limit);
+  }
+
+  @Override
+  public Cursor<KvDocument> groupByCriteria(String dbName, String colName, QueryCriteria criteria,
+      AttributeReference groupBy, List<AccumulatorInfo> accumulators) {
+    return super.groupByCriteria(convertDatabaseName(dbName), colName, criteria, groupBy,
+        accumulators);
+  }
+
+  @Override
+  public Cursor<KvValue<?>> findDistinct(String dbName, String colName, AttributeReference attRef,
+      QueryCriteria criteria) {
+    return super.findDistinct(convertDatabaseName(dbName), colName, attRef, criteria);
+  }
+
   @Override
   public TorodCursor findByAttRefIn(String dbName, String colName, AttributeReference attRef,
       Collection<KvValue<?>> values) {
@@ -18,6 +18,7 @@
 
 package com.torodb.mongodb.repl.sharding.isolation.db;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.document.ToroDocument;
 import com.torodb.core.exceptions.user.UserException;
@@ -29,6 +30,7 @@ import com.torodb.torod.IndexFieldInfo;
 import com.torodb.torod.SharedWriteTorodTransaction;
 import com.torodb.torod.cursors.TorodCursor;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -71,6 +73,13 @@ public class DbIsolatorWriteTrans<D extends SharedWriteTorodTransaction> extends
     return getDecorated().deleteByAttRef(convertDatabaseName(dbName), colName, attRef, value);
   }
 
+  @Override
+  public List<KvValue<?>> deleteByAttRefIn(String dbName, String colName,
+      AttributeReference attRef, Collection<KvValue<?>> values) {
+    return getDecorated().deleteByAttRefIn(convertDatabaseName(dbName), colName, attRef,
+        values);
+  }
+
   @Override
   public void dropCollection(String db, String collection) throws RollbackException, UserException {
     getDecorated().dropCollection(convertDatabaseName(db), collection);
@@ -89,13 +98,16 @@ public class DbIsolatorWriteTrans<D extends SharedWriteTorodTransaction> extends
 
   @Override
   public boolean createIndex(String dbName, String colName, String indexName,
-      List<IndexFieldInfo> fields, boolean unique) throws UserException {
+      List<IndexFieldInfo> fields, boolean unique, boolean sparse, boolean background)
+      throws UserException {
     return getDecorated().createIndex(
         convertDatabaseName(dbName),
         colName,
         convertIndexName(indexName),
         fields,
-        unique
+        unique,
+        sparse,
+        background
     );
   }
 
@@ -108,6 +120,11 @@ public class DbIsolatorWriteTrans<D extends SharedWriteTorodTransaction> extends
     );
   }
 
+  @Override
+  public KvValue<?> writeMetaInfo(MetaInfoKey key, KvValue<?> newValue) {
+    return getDecorated().writeMetaInfo(convertMetaInfoKey(key), newValue);
+  }
+
   @Override
   public void commit() throws RollbackException, UserException {
     getDecorated().commit();
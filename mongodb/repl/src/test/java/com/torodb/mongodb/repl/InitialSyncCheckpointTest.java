@@ -0,0 +1,88 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.mongodb.repl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import com.torodb.mongodb.core.MongodServer;
+import com.torodb.mongodb.language.Namespace;
+import com.torodb.mongodb.repl.InitialSyncCheckpoint.Progress;
+import com.torodb.mongowp.OpTime;
+import com.torodb.mongowp.bson.utils.DefaultBsonValues;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.Set;
+
+public class InitialSyncCheckpointTest {
+
+  @Test
+  public void testEmptyNamespaces() {
+    String serialized = InitialSyncCheckpoint.serializeNamespaces(ImmutableSet.of());
+
+    assertEquals("", serialized);
+    assertTrue(InitialSyncCheckpoint.parseNamespaces(serialized).isEmpty());
+  }
+
+  @Test
+  public void testNamespacesRoundTrip() {
+    Set<Namespace> namespaces = ImmutableSet.of(
+        new Namespace("db1", "col1"),
+        new Namespace("db1", "col.with.dots"),
+        new Namespace("2db", "1e5")
+    );
+
+    String serialized = InitialSyncCheckpoint.serializeNamespaces(namespaces);
+
+    assertTrue(serialized.startsWith("$"));
+    assertEquals(namespaces, InitialSyncCheckpoint.parseNamespaces(serialized));
+  }
+
+  @Test
+  public void testStoreAndLoad() throws Exception {
+    MongoDbCoreBundleServiceBundle bundle = MongoDbCoreBundleServiceBundle.createBundle();
+    bundle.start().join();
+    try {
+      MongodServer server = bundle.getExternalInterface().getExternalInterface()
+          .getMongodServer();
+      InitialSyncCheckpoint checkpoint = new InitialSyncCheckpoint(server);
+      assertFalse(checkpoint.load().isPresent());
+
+      //negative hashes and terms are as usual as positive ones
+      OpTime opTime = new OpTime(DefaultBsonValues.newTimestamp(1500000000, 3), -1);
+      checkpoint.start(-4_611_686_018_427_387_904L, opTime);
+      checkpoint.markCloned(new Namespace("db1", "col1"));
+
+      Optional<Progress> progress = new InitialSyncCheckpoint(server).load();
+      assertTrue(progress.isPresent());
+      assertEquals(-4_611_686_018_427_387_904L, progress.get().getHash());
+      assertEquals(opTime, progress.get().getOpTime());
+      assertEquals(ImmutableSet.of(new Namespace("db1", "col1")),
+          progress.get().getClonedNamespaces());
+
+      checkpoint.clear();
+      assertFalse(new InitialSyncCheckpoint(server).load().isPresent());
+    } finally {
+      bundle.stop().join();
+    }
+  }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl.oplogreplier.analyzed;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.primitives.Ints;
+import com.torodb.mongowp.bson.BsonValue;
+import com.torodb.mongowp.bson.impl.ByteArrayBsonObjectId;
+import com.torodb.mongowp.bson.utils.DefaultBsonValues;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+public class AnalyzedOpMapTest {
+
+  @Test
+  public void testEmpty() {
+    AnalyzedOpMap map = new AnalyzedOpMap();
+
+    assertTrue(map.isEmpty());
+    assertTrue(map.values().isEmpty());
+    assertNull(map.get(DefaultBsonValues.newInt(1)));
+  }
+
+  @Test
+  public void testSameSlot() {
+    AnalyzedOpMap map = new AnalyzedOpMap();
+    AnalyzedOp op1 = mock(AnalyzedOp.class);
+    AnalyzedOp op2 = mock(AnalyzedOp.class);
+
+    int freeSlot = map.findSlot(DefaultBsonValues.newString("id"));
+    assertTrue(freeSlot < 0);
+    map.addAt(~freeSlot, DefaultBsonValues.newString("id"), op1);
+
+    int otherSlot = map.findSlot(DefaultBsonValues.newString("id"));
+    assertEquals(~freeSlot, otherSlot);
+    assertSame(op1, map.getAt(otherSlot));
+    map.setAt(otherSlot, op2);
+
+    assertEquals(1, map.size());
+    assertSame(op2, map.get(DefaultBsonValues.newString("id")));
+  }
+
+  @Test
+  public void testTypedKeys() {
+    AnalyzedOpMap map = new AnalyzedOpMap();
+    AnalyzedOp intOp = mock(AnalyzedOp.class);
+    AnalyzedOp longOp = mock(AnalyzedOp.class);
+    AnalyzedOp objectIdOp = mock(AnalyzedOp.class);
+    AnalyzedOp stringOp = mock(AnalyzedOp.class);
+    AnalyzedOp doubleOp = mock(AnalyzedOp.class);
+
+    add(map, DefaultBsonValues.newInt(1), intOp);
+    add(map, DefaultBsonValues.newLong(1), longOp);
+    add(map, createObjectId(1), objectIdOp);
+    add(map, DefaultBsonValues.newString("1"), stringOp);
+    add(map, DefaultBsonValues.newDouble(1), doubleOp);
+
+    //equal ids found by value, ids of different types are different
+    assertEquals(5, map.size());
+    assertSame(intOp, map.get(DefaultBsonValues.newInt(1)));
+    assertSame(longOp, map.get(DefaultBsonValues.newLong(1)));
+    assertSame(objectIdOp, map.get(createObjectId(1)));
+    assertSame(stringOp, map.get(DefaultBsonValues.newString(new String("1"))));
+    assertSame(doubleOp, map.get(DefaultBsonValues.newDouble(1)));
+    assertNull(map.get(createObjectId(2)));
+    assertNull(map.get(DefaultBsonValues.newLong(2)));
+  }
+
+  @Test
+  public void testObjectIdsThatOnlyDifferOnTheLastBytes() {
+    AnalyzedOpMap map = new AnalyzedOpMap();
+    AnalyzedOp op1 = mock(AnalyzedOp.class);
+    AnalyzedOp op2 = mock(AnalyzedOp.class);
+
+    add(map, createObjectId(1), op1);
+    add(map, createObjectId(2), op2);
+
+    assertEquals(2, map.size());
+    assertSame(op1, map.get(createObjectId(1)));
+    assertSame(op2, map.get(createObjectId(2)));
+  }
+
+  @Test
+  public void testFindingDoesNotAdd() {
+    AnalyzedOpMap map = new AnalyzedOpMap(0);
+
+    for (int i = 0; i < 100; i++) {
+      assertTrue(map.findSlot(DefaultBsonValues.newInt(i)) < 0);
+    }
+
+    assertTrue(map.isEmpty());
+    assertTrue(map.values().isEmpty());
+    assertNull(map.get(DefaultBsonValues.newInt(1)));
+  }
+
+  @Test
+  public void testResize() {
+    AnalyzedOpMap map = new AnalyzedOpMap();
+    Map<BsonValue<?>, AnalyzedOp> expected = new HashMap<>();
+
+    for (int i = 0; i < 10_000; i++) {
+      BsonValue<?> docId = i % 2 == 0 ? DefaultBsonValues.newInt(i)
+          : DefaultBsonValues.newString("id" + i);
+      AnalyzedOp op = mock(AnalyzedOp.class);
+      map.addAt(~map.findSlot(docId), docId, op);
+      expected.put(docId, op);
+    }
+
+    assertEquals(expected.size(), map.size());
+    for (Map.Entry<BsonValue<?>, AnalyzedOp> entry : expected.entrySet()) {
+      assertSame(entry.getValue(), map.get(entry.getKey()));
+    }
+    assertEquals(new HashSet<>(expected.values()), new HashSet<>(map.values()));
+  }
+
+  private static void add(AnalyzedOpMap map, BsonValue<?> docId, AnalyzedOp op) {
+    int freeSlot = map.findSlot(docId);
+    assertTrue(freeSlot < 0);
+    map.addAt(~freeSlot, docId, op);
+  }
+
+  /**
+   * Returns an object id whose 8 first bytes are always the same.
+   */
+  private static BsonValue<?> createObjectId(int counter) {
+    byte[] bytes = new byte[12];
+    Arrays.fill(bytes, 0, 8, (byte) 7);
+    System.arraycopy(Ints.toByteArray(counter), 0, bytes, 8, 4);
+    return new ByteArrayBsonObjectId(bytes);
+  }
+
+}
@@ -0,0 +1,209 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.mongodb.repl.oplogreplier.analyzed;
+
+import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newDocument;
+import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newInt;
+import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.torodb.kvdocument.conversion.mongowp.MongoWpConverter;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.mongodb.repl.oplogreplier.ApplierContext;
+import com.torodb.mongodb.repl.oplogreplier.OpTimeFactory;
+import com.torodb.mongodb.utils.DefaultIdUtils;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.BsonValue;
+import com.torodb.mongowp.commands.oplog.CollectionOplogOperation;
+import com.torodb.mongowp.commands.oplog.DeleteOplogOperation;
+import com.torodb.mongowp.commands.oplog.InsertOplogOperation;
+import com.torodb.mongowp.commands.oplog.OplogVersion;
+import com.torodb.mongowp.commands.oplog.UpdateOplogOperation;
+import com.torodb.mongowp.utils.BsonDocumentBuilder;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class AnalyzedOpReducerTest {
+
+  private final OpTimeFactory opTimeFactory = new OpTimeFactory();
+  private final AnalyzedOpReducer reducer = new AnalyzedOpReducer(false);
+
+  @Test
+  public void testReducesLikeAHashMap() {
+    List<CollectionOplogOperation> ops = createMixedBatch(new Random(4321), 5_000, 300);
+
+    for (boolean updatesAsUpserts : new boolean[] {false, true}) {
+      ApplierContext context = new ApplierContext.Builder()
+          .setReapplying(true)
+          .setUpdatesAsUpserts(updatesAsUpserts)
+          .build();
+
+      AnalyzedOpMap map = reducer.analyzeAndReduce(ops.stream(), context);
+      Map<BsonValue<?>, AnalyzedOp> expected = reduceOnHashMap(ops, context);
+
+      assertEquals(expected.size(), map.size());
+      for (Map.Entry<BsonValue<?>, AnalyzedOp> entry : expected.entrySet()) {
+        assertEquivalent(entry.getValue(), map.get(entry.getKey()));
+      }
+    }
+  }
+
+  @Test
+  public void testFailedOpsAreNotAdded() {
+    ApplierContext context = new ApplierContext.Builder()
+        .setReapplying(true)
+        .setUpdatesAsUpserts(true)
+        .build();
+    AnalyzedOpMap map = new AnalyzedOpMap();
+    UpdateOplogOperation wrongUpdate = new UpdateOplogOperation(
+        newDocument(DefaultIdUtils.ID_KEY, newInt(1)), "db", "col", opTimeFactory.newOpTime(),
+        1, OplogVersion.V1, false, newDocument("$unknownModifier", newDocument("a", newInt(1))),
+        false);
+
+    try {
+      reducer.analyzeAndReduce(map, wrongUpdate, context);
+      fail("An update with an unknown modifier should not be analyzed");
+    } catch (RuntimeException ex) {
+      //expected
+    }
+
+    assertEquals(0, map.size());
+    assertNull(map.get(newInt(1)));
+
+    reducer.analyzeAndReduce(map, insert(1, 1), context);
+    assertEquals(AnalyzedOpType.DELETE_CREATE, map.get(newInt(1)).getType());
+  }
+
+  @Test
+  public void testReusesTheOpOfEachDocument() {
+    ApplierContext context = new ApplierContext.Builder()
+        .setReapplying(true)
+        .setUpdatesAsUpserts(false)
+        .build();
+    AnalyzedOpMap map = new AnalyzedOpMap();
+
+    reducer.analyzeAndReduce(map, insert(2, 1), context);
+    AnalyzedOp op = map.get(newInt(2));
+    reducer.analyzeAndReduce(map, update(2, newDocument("$inc", newDocument("a", newInt(1))),
+        false), context);
+    reducer.analyzeAndReduce(map, delete(2), context);
+    reducer.analyzeAndReduce(map, insert(2, 5), context);
+
+    assertSame(op, map.get(newInt(2)));
+    assertEquals(AnalyzedOpType.DELETE_CREATE, op.getType());
+    assertEquals(KvInteger.of(5), op.calculateDocToInsert(null).get("a"));
+  }
+
+  /**
+   * Reduces the given ops like the reducer did before it used {@link AnalyzedOpMap}.
+   */
+  private static Map<BsonValue<?>, AnalyzedOp> reduceOnHashMap(
+      List<CollectionOplogOperation> ops, ApplierContext context) {
+    Map<BsonValue<?>, AnalyzedOp> map = new HashMap<>();
+    for (CollectionOplogOperation op : ops) {
+      AnalyzedOp oldOp = map.get(op.getDocId());
+      if (oldOp == null) {
+        oldOp = new NoopAnalyzedOp(MongoWpConverter.translate(op.getDocId()));
+      }
+      map.put(op.getDocId(), oldOp.apply(op, context));
+    }
+    return map;
+  }
+
+  private static void assertEquivalent(AnalyzedOp expected, AnalyzedOp actual) {
+    assertNotNull("There is no analyzed op for " + expected.getMongoDocId(), actual);
+    assertEquals(expected.getMongoDocId(), actual.getMongoDocId());
+    assertEquals(expected.getType(), actual.getType());
+    KvDocument fetched = new KvDocument.Builder()
+        .putValue(DefaultIdUtils.ID_KEY, expected.getMongoDocId())
+        .putValue("fetched", KvBoolean.TRUE)
+        .build();
+    assertEquals(expected.calculateDocToInsert(op -> fetched),
+        actual.calculateDocToInsert(op -> fetched));
+  }
+
+  /**
+   * Returns a batch of inserts, updates (set and mod, upserts or not) and deletes on the given
+   * number of documents, half of them with int ids and the other half with string ids.
+   */
+  private List<CollectionOplogOperation> createMixedBatch(Random random, int size, int docs) {
+    List<CollectionOplogOperation> ops = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      int doc = random.nextInt(docs);
+      switch (random.nextInt(6)) {
+        case 0:
+        case 1:
+          ops.add(insert(doc, i));
+          break;
+        //an upsert modification after an update modification cannot be reduced, so the oplog
+        //flags modifications as upserts only when all updates are treated as upserts
+        case 2:
+          ops.add(update(doc, newDocument("$set", newDocument("a", newInt(i))), false));
+          break;
+        case 3:
+          ops.add(update(doc, newDocument("$inc", newDocument("b", newInt(1))), false));
+          break;
+        case 4:
+          ops.add(update(doc, new BsonDocumentBuilder()
+              .appendUnsafe(DefaultIdUtils.ID_KEY, docId(doc))
+              .appendUnsafe("a", newInt(i))
+              .build(), random.nextBoolean()));
+          break;
+        default:
+          ops.add(delete(doc));
+          break;
+      }
+    }
+    return ops;
+  }
+
+  private InsertOplogOperation insert(int doc, int value) {
+    BsonDocument bsonDoc = new BsonDocumentBuilder()
+        .appendUnsafe(DefaultIdUtils.ID_KEY, docId(doc))
+        .appendUnsafe("a", newInt(value))
+        .build();
+    return new InsertOplogOperation(bsonDoc, "db", "col", opTimeFactory.newOpTime(), value,
+        OplogVersion.V1, false);
+  }
+
+  private UpdateOplogOperation update(int doc, BsonDocument modification, boolean upsert) {
+    return new UpdateOplogOperation(newDocument(DefaultIdUtils.ID_KEY, docId(doc)), "db", "col",
+        opTimeFactory.newOpTime(), doc, OplogVersion.V1, false, modification, upsert);
+  }
+
+  private DeleteOplogOperation delete(int doc) {
+    return new DeleteOplogOperation(newDocument(DefaultIdUtils.ID_KEY, docId(doc)), "db", "col",
+        opTimeFactory.newOpTime(), doc, OplogVersion.V1, false, false);
+  }
+
+  private static BsonValue<?> docId(int doc) {
+    return doc % 2 == 0 ? newInt(doc) : newString("id" + doc);
+  }
+
+}
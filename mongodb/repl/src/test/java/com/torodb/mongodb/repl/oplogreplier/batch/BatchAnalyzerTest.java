@@ -0,0 +1,202 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.mongodb.repl.oplogreplier.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Lists;
+import com.torodb.core.logging.DefaultLoggerFactory;
+import com.torodb.mongodb.repl.oplogreplier.ApplierContext;
+import com.torodb.mongodb.repl.oplogreplier.OpTimeFactory;
+import com.torodb.mongodb.repl.oplogreplier.analyzed.AnalyzedOpReducer;
+import com.torodb.mongodb.utils.DefaultIdUtils;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.utils.DefaultBsonValues;
+import com.torodb.mongowp.commands.oplog.DbCmdOplogOperation;
+import com.torodb.mongowp.commands.oplog.InsertOplogOperation;
+import com.torodb.mongowp.commands.oplog.OplogOperation;
+import com.torodb.mongowp.commands.oplog.OplogVersion;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+public class BatchAnalyzerTest {
+
+  private final OpTimeFactory opTimeFactory = new OpTimeFactory();
+  private int opCounter;
+  private BatchAnalyzer batchAnalyzer;
+
+  @Before
+  public void setUp() {
+    ApplierContext context = new ApplierContext.Builder()
+        .setReapplying(true)
+        .setUpdatesAsUpserts(true)
+        .build();
+    batchAnalyzer = new BatchAnalyzer(context, DefaultLoggerFactory.getInstance(),
+        new AnalyzedOpReducer(false), new NamespaceDependencyAnalyzer());
+    opCounter = 0;
+  }
+
+  @Test
+  public void testOnlyCudOperations() {
+    OplogOperation insert1 = createInsert("col1");
+    OplogOperation insert2 = createInsert("col2");
+
+    List<AnalyzedOplogBatch> result = batchAnalyzer.apply(Lists.newArrayList(insert1, insert2));
+
+    assertEquals(1, result.size());
+    assertCud(result.get(0), insert1, insert2);
+  }
+
+  @Test
+  public void testCudOnOtherCollectionIsAppliedBeforeCommand() {
+    OplogOperation insert1 = createInsert("col1");
+    OplogOperation drop2 = createCommand("drop", "col2");
+    OplogOperation insert3 = createInsert("col3");
+
+    List<AnalyzedOplogBatch> result = batchAnalyzer.apply(
+        Lists.newArrayList(insert1, drop2, insert3));
+
+    assertEquals(2, result.size());
+    assertCud(result.get(0), insert1, insert3);
+    assertSingle(result.get(1), drop2);
+  }
+
+  @Test
+  public void testCudOnSameCollectionIsABarrier() {
+    OplogOperation insert1 = createInsert("col1");
+    OplogOperation drop2 = createCommand("drop", "col2");
+    OplogOperation insert3 = createInsert("col3");
+    OplogOperation insert2 = createInsert("col2");
+
+    List<AnalyzedOplogBatch> result = batchAnalyzer.apply(
+        Lists.newArrayList(insert1, drop2, insert3, insert2));
+
+    assertEquals(3, result.size());
+    assertCud(result.get(0), insert1, insert3);
+    assertSingle(result.get(1), drop2);
+    assertCud(result.get(2), insert2);
+  }
+
+  @Test
+  public void testDropDatabaseIsABarrierForItsCollections() {
+    OplogOperation insert1 = createInsert("col1");
+    OplogOperation dropDatabase = createCommand("dropDatabase", 1);
+    OplogOperation insert2 = createInsert("col2");
+
+    List<AnalyzedOplogBatch> result = batchAnalyzer.apply(
+        Lists.newArrayList(insert1, dropDatabase, insert2));
+
+    assertEquals(3, result.size());
+    assertCud(result.get(0), insert1);
+    assertSingle(result.get(1), dropDatabase);
+    assertCud(result.get(2), insert2);
+  }
+
+  @Test
+  public void testUnknownCommandIsAGlobalBarrier() {
+    OplogOperation insert1 = createInsert("col1");
+    OplogOperation unknown = createCommand("unknownCommand", "col2");
+    OplogOperation insert3 = createInsert("col3");
+
+    List<AnalyzedOplogBatch> result = batchAnalyzer.apply(
+        Lists.newArrayList(insert1, unknown, insert3));
+
+    assertEquals(3, result.size());
+    assertCud(result.get(0), insert1);
+    assertSingle(result.get(1), unknown);
+    assertCud(result.get(2), insert3);
+  }
+
+  @Test
+  public void testDelayedCommandsKeepTheirOrder() {
+    OplogOperation insert1 = createInsert("col1");
+    OplogOperation create2 = createCommand("create", "col2");
+    OplogOperation drop3 = createCommand("drop", "col3");
+    OplogOperation insert4 = createInsert("col4");
+
+    List<AnalyzedOplogBatch> result = batchAnalyzer.apply(
+        Lists.newArrayList(insert1, create2, drop3, insert4));
+
+    assertEquals(3, result.size());
+    assertCud(result.get(0), insert1, insert4);
+    assertSingle(result.get(1), create2);
+    assertSingle(result.get(2), drop3);
+  }
+
+  @Test
+  public void testCommandWithoutPreviousCud() {
+    OplogOperation drop1 = createCommand("drop", "col1");
+    OplogOperation insert2 = createInsert("col2");
+
+    List<AnalyzedOplogBatch> result = batchAnalyzer.apply(Lists.newArrayList(drop1, insert2));
+
+    assertEquals(2, result.size());
+    assertSingle(result.get(0), drop1);
+    assertCud(result.get(1), insert2);
+  }
+
+  private void assertCud(AnalyzedOplogBatch batch, OplogOperation... expectedOps) {
+    assertTrue("A CUD batch was expected but " + batch + " was found",
+        batch instanceof CudAnalyzedOplogBatch);
+    assertEquals(Lists.newArrayList(expectedOps),
+        ((CudAnalyzedOplogBatch) batch).getOriginalBatch());
+  }
+
+  private void assertSingle(AnalyzedOplogBatch batch, OplogOperation expectedOp) {
+    assertTrue("A single op batch was expected but " + batch + " was found",
+        batch instanceof SingleOpAnalyzedOplogBatch);
+    assertEquals(expectedOp, ((SingleOpAnalyzedOplogBatch) batch).getOperation());
+  }
+
+  private OplogOperation createInsert(String collection) {
+    int i = opCounter++;
+    return new InsertOplogOperation(
+        DefaultBsonValues.newDocument(DefaultIdUtils.ID_KEY, DefaultBsonValues.newInt(i)),
+        "aDb",
+        collection,
+        opTimeFactory.newOpTime(i),
+        i,
+        OplogVersion.V1,
+        false);
+  }
+
+  private OplogOperation createCommand(String commandName, String collection) {
+    return createCommand(DefaultBsonValues.newDocument(commandName,
+        DefaultBsonValues.newString(collection)));
+  }
+
+  private OplogOperation createCommand(String commandName, int value) {
+    return createCommand(DefaultBsonValues.newDocument(commandName,
+        DefaultBsonValues.newInt(value)));
+  }
+
+  private OplogOperation createCommand(BsonDocument request) {
+    int i = opCounter++;
+    return new DbCmdOplogOperation(
+        request,
+        "aDb",
+        opTimeFactory.newOpTime(i),
+        i,
+        OplogVersion.V1,
+        false);
+  }
+
+}
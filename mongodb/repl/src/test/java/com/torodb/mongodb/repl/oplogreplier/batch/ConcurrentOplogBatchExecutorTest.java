@@ -46,6 +46,7 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -91,13 +92,17 @@ public class ConcurrentOplogBatchExecutorTest {
 
     doNothing().when(streamExecutor).awaitRunning();
 
+    executor = createExecutor(GroupCommitPolicy.disabled());
+  }
+
+  private ConcurrentOplogBatchExecutor createExecutor(GroupCommitPolicy groupCommitPolicy) {
     ConcurrentOplogBatchExecutor realExecutor = new ConcurrentOplogBatchExecutor(applier, server,
         retrier, concurrentToolsFactory, namespaceJobExecutor, DefaultLoggerFactory.getInstance(),
-        metrics, subBatchHeuristic);
+        metrics, subBatchHeuristic, groupCommitPolicy);
     realExecutor.startAsync();
     realExecutor.awaitRunning();
 
-    executor = spy(realExecutor);
+    return spy(realExecutor);
   }
 
   @Test
@@ -111,24 +116,8 @@ public class ConcurrentOplogBatchExecutorTest {
     CudAnalyzedOplogBatch batch = mock(CudAnalyzedOplogBatch.class);
     List<NamespaceJob> jobs = new ArrayList<>();
     for (int i = 0; i < batchSize; i++) {
-      jobs.add(
-          new NamespaceJob(
-              "db",
-              "col",
-              Lists.newArrayList(
-                  Stream.iterate(createAnalyzedOp(null), this::createAnalyzedOp)
-                      .limit(opsPerJob)
-                      .iterator()
-              )
-          )
-      );
+      jobs.add(createNamespaceJob("col", opsPerJob));
     }
-    AtomicInteger callablesCounter = new AtomicInteger(0);
-
-    ApplierContext context = new ApplierContext.Builder()
-        .setReapplying(true)
-        .setUpdatesAsUpserts(true)
-        .build();
     Histogram mockHistogram = mock(Histogram.class);
     Meter mockMeter = mock(Meter.class);
 
@@ -136,6 +125,47 @@ public class ConcurrentOplogBatchExecutorTest {
     given(subBatchHeuristic.getSubBatchSize(any())).willReturn(subBatchSize);
     given(metrics.getSubBatchSizeHistogram()).willReturn(mockHistogram);
     given(metrics.getSubBatchSizeMeter()).willReturn(mockMeter);
+    AtomicInteger callablesCounter = countExecutedCallables();
+
+    //WHEN
+    executor.execute(batch, createContext());
+
+    //THEN
+    then(mockHistogram).should().update(expectedSize);
+    then(mockMeter).should().mark(expectedSize);
+    assertEquals(expectedSize, callablesCounter.get());
+  }
+
+  @Test
+  public void testGroupCommitKeepsBigJobsConcurrent() throws Exception {
+    int subBatchSize = 10;
+    executor = createExecutor(GroupCommitPolicy.enabled(50, Duration.ofSeconds(1)));
+    //GIVEN
+    CudAnalyzedOplogBatch batch = mock(CudAnalyzedOplogBatch.class);
+    List<NamespaceJob> jobs = new ArrayList<>();
+    //a job bigger than a commit is split into sub batches
+    jobs.add(createNamespaceJob("big", 100));
+    //small jobs on different namespaces share a transaction
+    jobs.add(createNamespaceJob("small1", 5));
+    jobs.add(createNamespaceJob("small2", 5));
+    jobs.add(createNamespaceJob("small3", 5));
+    int expectedSize = 100 / subBatchSize + 1;
+
+    given(batch.streamNamespaceJobs()).willReturn(jobs.stream());
+    given(subBatchHeuristic.getSubBatchSize(any())).willReturn(subBatchSize);
+    given(metrics.getSubBatchSizeHistogram()).willReturn(mock(Histogram.class));
+    given(metrics.getSubBatchSizeMeter()).willReturn(mock(Meter.class));
+    AtomicInteger callablesCounter = countExecutedCallables();
+
+    //WHEN
+    executor.execute(batch, createContext());
+
+    //THEN
+    assertEquals(expectedSize, callablesCounter.get());
+  }
+
+  private AtomicInteger countExecutedCallables() {
+    AtomicInteger callablesCounter = new AtomicInteger(0);
     given(streamExecutor.execute(any()))
         .willAnswer(new Answer<CompletableFuture<?>>() {
           @Override
@@ -149,14 +179,26 @@ public class ConcurrentOplogBatchExecutorTest {
             return completableFuture;
           }
         });
+    return callablesCounter;
+  }
 
-    //WHEN
-    executor.execute(batch, context);
+  private ApplierContext createContext() {
+    return new ApplierContext.Builder()
+        .setReapplying(true)
+        .setUpdatesAsUpserts(true)
+        .build();
+  }
 
-    //THEN
-    then(mockHistogram).should().update(expectedSize);
-    then(mockMeter).should().mark(expectedSize);
-    assertEquals(expectedSize, callablesCounter.get());
+  private NamespaceJob createNamespaceJob(String collection, int ops) {
+    return new NamespaceJob(
+        "db",
+        collection,
+        Lists.newArrayList(
+            Stream.iterate(createAnalyzedOp(null), this::createAnalyzedOp)
+                .limit(ops)
+                .iterator()
+        )
+    );
   }
 
   private AnalyzedOp createAnalyzedOp(AnalyzedOp ignored) {
@@ -0,0 +1,102 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl.oplogreplier.batch;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.Lists;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.mongodb.repl.oplogreplier.analyzed.AnalyzedOp;
+import com.torodb.mongodb.repl.oplogreplier.analyzed.DebuggingAnalyzedOp;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class GroupCommitPolicyTest {
+
+  private int idFactory;
+
+  @Before
+  public void setUp() {
+    idFactory = 0;
+  }
+
+  @Test
+  public void testDisabled() {
+    List<NamespaceJob> jobs = Lists.newArrayList(
+        createJob("col1", 1), createJob("col2", 1), createJob("col3", 1));
+
+    List<List<NamespaceJob>> groups = GroupCommitPolicy.disabled().group(jobs.iterator());
+
+    assertEquals(3, groups.size());
+    for (int i = 0; i < jobs.size(); i++) {
+      assertEquals(Lists.newArrayList(jobs.get(i)), groups.get(i));
+    }
+  }
+
+  @Test
+  public void testEnabled() {
+    NamespaceJob job1 = createJob("col1", 3);
+    NamespaceJob job2 = createJob("col2", 5);
+    NamespaceJob job3 = createJob("col3", 4);
+    NamespaceJob job4 = createJob("col4", 20);
+    NamespaceJob job5 = createJob("col5", 1);
+
+    GroupCommitPolicy policy = GroupCommitPolicy.enabled(10, Duration.ofSeconds(1));
+    List<List<NamespaceJob>> groups = policy.group(
+        Lists.newArrayList(job1, job2, job3, job4, job5).iterator());
+
+    assertEquals(4, groups.size());
+    assertEquals(Lists.newArrayList(job1, job2), groups.get(0));
+    assertEquals(Lists.newArrayList(job3), groups.get(1));
+    assertEquals("A job bigger than the limit must be on its own group",
+        Lists.newArrayList(job4), groups.get(2));
+    assertEquals(Lists.newArrayList(job5), groups.get(3));
+  }
+
+  @Test
+  public void testEmpty() {
+    GroupCommitPolicy policy = GroupCommitPolicy.enabled(10, Duration.ofSeconds(1));
+
+    assertEquals(0, policy.group(new ArrayList<NamespaceJob>().iterator()).size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonPositiveMaxOps() {
+    GroupCommitPolicy.enabled(0, Duration.ofSeconds(1));
+  }
+
+  private NamespaceJob createJob(String col, int ops) {
+    return new NamespaceJob("db", col, Lists.newArrayList(
+        Stream.iterate(createAnalyzedOp(null), this::createAnalyzedOp)
+            .limit(ops)
+            .iterator()
+    ));
+  }
+
+  private AnalyzedOp createAnalyzedOp(AnalyzedOp ignored) {
+    int id = idFactory++;
+    return new DebuggingAnalyzedOp(KvInteger.of(id));
+  }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl.oplogreplier.batch;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.torodb.mongodb.repl.oplogreplier.batch.NamespaceDependencyAnalyzer.Dependency;
+import org.junit.Test;
+
+public class NamespaceDependencyTest {
+
+  @Test
+  public void testGlobal() {
+    Dependency dependency = Dependency.global();
+
+    assertTrue(dependency.isGlobal());
+    assertTrue(dependency.conflictsWith("db1", "col1"));
+    assertTrue(dependency.conflictsWith("db2", "col2"));
+  }
+
+  @Test
+  public void testDatabase() {
+    Dependency dependency = Dependency.database("db1");
+
+    assertFalse(dependency.isGlobal());
+    assertTrue(dependency.conflictsWith("db1", "col1"));
+    assertTrue(dependency.conflictsWith("db1", "col2"));
+    assertFalse(dependency.conflictsWith("db2", "col1"));
+  }
+
+  @Test
+  public void testCollection() {
+    Dependency dependency = Dependency.collection("db1", "col1");
+
+    assertFalse(dependency.isGlobal());
+    assertTrue(dependency.conflictsWith("db1", "col1"));
+    assertFalse(dependency.conflictsWith("db1", "col2"));
+    assertFalse(dependency.conflictsWith("db2", "col1"));
+  }
+
+}
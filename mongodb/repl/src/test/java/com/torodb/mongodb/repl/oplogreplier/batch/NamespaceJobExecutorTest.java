@@ -0,0 +1,137 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl.oplogreplier.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.mongodb.core.WriteMongodTransaction;
+import com.torodb.mongodb.repl.oplogreplier.ApplierContext;
+import com.torodb.mongodb.repl.oplogreplier.analyzed.AnalyzedOp;
+import com.torodb.mongodb.repl.oplogreplier.analyzed.AnalyzedOpType;
+import com.torodb.mongowp.Status;
+import com.torodb.torod.SharedWriteTorodTransaction;
+import com.torodb.torod.cursors.EmptyTorodCursor;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+public class NamespaceJobExecutorTest {
+
+  private static final String DB_NAME = "db";
+  private static final String COL_NAME = "col";
+
+  private final NamespaceJobExecutor executor = new NamespaceJobExecutor();
+  private final ApplierContext applierContext = new ApplierContext.Builder()
+      .setReapplying(false)
+      .setUpdatesAsUpserts(false)
+      .build();
+  private WriteMongodTransaction mongoTransaction;
+  private SharedWriteTorodTransaction torodTransaction;
+
+  @Before
+  public void setUp() {
+    mongoTransaction = mock(WriteMongodTransaction.class);
+    torodTransaction = mock(SharedWriteTorodTransaction.class);
+    given(mongoTransaction.getTorodTransaction()).willReturn(torodTransaction);
+    given(torodTransaction.fetch(anyString(), anyString(), any()))
+        .willReturn(new EmptyTorodCursor());
+  }
+
+  @Test
+  public void unmatchedReplacesAreReportedAsMismatches() throws Exception {
+    //the backend does not find the _id when the root field is missing or has other type
+    AnalyzedOp op = mockOp(KvInteger.of(1), AnalyzedOpType.UPDATE_SET);
+    given(torodTransaction.deleteByAttRefIn(eq(DB_NAME), eq(COL_NAME), any(), any()))
+        .willReturn(Collections.emptyList());
+
+    try {
+      executor.apply(createJob(op), mongoTransaction, applierContext, true);
+      fail("A mismatch was expected");
+    } catch (NamespaceJobExecutionException ex) {
+      assertEquals(1, ex.getErrors().size());
+    }
+    then(torodTransaction).should(never()).insert(anyString(), anyString(), any());
+  }
+
+  @Test
+  public void matchedReplacesAreInserted() throws Exception {
+    AnalyzedOp op = mockOp(KvInteger.of(1), AnalyzedOpType.UPDATE_SET);
+    given(torodTransaction.deleteByAttRefIn(eq(DB_NAME), eq(COL_NAME), any(), any()))
+        .willReturn(Collections.singletonList(KvInteger.of(1)));
+
+    executor.apply(createJob(op), mongoTransaction, applierContext, true);
+
+    then(torodTransaction).should().deleteByAttRefIn(eq(DB_NAME), eq(COL_NAME), any(),
+        eq(Collections.singletonList(KvInteger.of(1))));
+    then(torodTransaction).should().insert(eq(DB_NAME), eq(COL_NAME), any());
+  }
+
+  @Test
+  public void optimisticDeleteCreatesAreNotDeleted() throws Exception {
+    AnalyzedOp op = mockOp(KvInteger.of(1), AnalyzedOpType.DELETE_CREATE);
+
+    executor.apply(createJob(op), mongoTransaction, applierContext, true);
+
+    then(torodTransaction).should(never()).deleteByAttRefIn(anyString(), anyString(), any(),
+        any());
+    then(torodTransaction).should().insert(eq(DB_NAME), eq(COL_NAME), any());
+  }
+
+  @Test
+  public void pessimisticDeleteCreatesDoNotRequireAMatch() throws Exception {
+    AnalyzedOp op = mockOp(KvInteger.of(1), AnalyzedOpType.DELETE_CREATE);
+    given(torodTransaction.deleteByAttRefIn(eq(DB_NAME), eq(COL_NAME), any(), any()))
+        .willReturn(Collections.emptyList());
+
+    executor.apply(createJob(op), mongoTransaction, applierContext, false);
+
+    then(torodTransaction).should().deleteByAttRefIn(eq(DB_NAME), eq(COL_NAME), any(),
+        eq(Collections.singletonList(KvInteger.of(1))));
+    then(torodTransaction).should().insert(eq(DB_NAME), eq(COL_NAME), any());
+  }
+
+  private AnalyzedOp mockOp(KvValue<?> mongoDocId, AnalyzedOpType type) {
+    AnalyzedOp op = mock(AnalyzedOp.class);
+    Status<?> mismatch = mock(Status.class);
+    given(op.getType()).willReturn(type);
+    given(op.getMongoDocId()).willAnswer(invocation -> mongoDocId);
+    given(op.getMismatchErrorMessage()).willAnswer(invocation -> mismatch);
+    given(op.calculateDocToInsert(any())).willReturn(new KvDocument.Builder()
+        .putValue("_id", mongoDocId)
+        .build());
+    return op;
+  }
+
+  private NamespaceJob createJob(AnalyzedOp op) {
+    return new NamespaceJob(DB_NAME, COL_NAME, Collections.singletonList(op));
+  }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl.oplogreplier.fetcher;
+
+import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newDocument;
+import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newInt;
+import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newLong;
+import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newString;
+import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newTimestamp;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.torodb.mongodb.repl.oplogreplier.batch.OplogBatch;
+import com.torodb.mongowp.OpTime;
+import com.torodb.mongowp.bson.BsonTimestamp;
+import com.torodb.mongowp.utils.BsonDocumentBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class LocalOplogBufferFetcherTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private LocalOplogBuffer buffer;
+
+  @Before
+  public void setUp() throws IOException {
+    buffer = new LocalOplogBuffer(temporaryFolder.newFolder().toPath(), 1024);
+    for (int i = 1; i <= 10; i++) {
+      buffer.append(new BsonDocumentBuilder()
+          .appendUnsafe("ts", newTimestamp(i, 0))
+          .appendUnsafe("h", newLong(i))
+          .appendUnsafe("v", newInt(2))
+          .appendUnsafe("op", newString("i"))
+          .appendUnsafe("ns", newString("aDb.aCol"))
+          .appendUnsafe("o", newDocument("_id", newInt(i)))
+          .build()
+      );
+    }
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    buffer.close();
+  }
+
+  @Test
+  public void testOperationsBetweenFromAndTo() throws Exception {
+    LocalOplogBufferFetcher fetcher = new LocalOplogBufferFetcher(buffer, opTime(3), opTime(7),
+        2);
+
+    assertEquals(timestamps(4, 5), fetchTimestamps(fetcher));
+    assertEquals(timestamps(6, 7), fetchTimestamps(fetcher));
+    assertTrue("The fetcher should finish once the last operation is fetched",
+        fetcher.fetch().isLastOne());
+  }
+
+  @Test
+  public void testLastOperationIsFetchedOnTheSameBatch() throws Exception {
+    LocalOplogBufferFetcher fetcher = new LocalOplogBufferFetcher(buffer, opTime(0), opTime(10),
+        100);
+
+    assertEquals(timestamps(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), fetchTimestamps(fetcher));
+    assertTrue(fetcher.fetch().isLastOne());
+  }
+
+  @Test
+  public void testNoOperationAfterFrom() throws Exception {
+    LocalOplogBufferFetcher fetcher = new LocalOplogBufferFetcher(buffer, opTime(10),
+        opTime(20), 2);
+
+    OplogBatch batch = fetcher.fetch();
+    assertEquals(Collections.emptyList(), batch.getOps());
+    assertTrue(batch.isLastOne());
+  }
+
+  private static OpTime opTime(int secs) {
+    return new OpTime(newTimestamp(secs, 0));
+  }
+
+  private static List<BsonTimestamp> timestamps(int... secs) {
+    return Arrays.stream(secs)
+        .mapToObj(sec -> newTimestamp(sec, 0))
+        .collect(Collectors.toList());
+  }
+
+  private static List<BsonTimestamp> fetchTimestamps(LocalOplogBufferFetcher fetcher)
+      throws Exception {
+    return fetcher.fetch().getOps().stream()
+        .map(op -> op.getOpTime().getTimestamp())
+        .collect(Collectors.toList());
+  }
+
+}
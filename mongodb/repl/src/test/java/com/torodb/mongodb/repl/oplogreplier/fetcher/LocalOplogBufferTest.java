@@ -0,0 +1,107 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.mongodb.repl.oplogreplier.fetcher;
+
+import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newDocument;
+import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newInt;
+import static com.torodb.mongowp.bson.utils.DefaultBsonValues.newString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.Lists;
+import com.torodb.mongowp.bson.BsonDocument;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+public class LocalOplogBufferTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testEmpty() throws IOException {
+    try (LocalOplogBuffer buffer = new LocalOplogBuffer(temporaryFolder.newFolder().toPath(),
+        1024)) {
+      assertEquals(0, buffer.size());
+      assertFalse(buffer.iterator().hasNext());
+    }
+  }
+
+  @Test
+  public void testSeveralSegments() throws IOException {
+    File folder = temporaryFolder.newFolder();
+    List<BsonDocument> docs = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      docs.add(newDocument("_id", newInt(i)));
+    }
+    //bigger than a segment
+    docs.add(newDocument("big", newString(new String(new char[300]).replace('\0', 'a'))));
+
+    try (LocalOplogBuffer buffer = new LocalOplogBuffer(folder.toPath(), 128)) {
+      for (BsonDocument doc : docs) {
+        buffer.append(doc);
+      }
+      assertEquals(docs.size(), buffer.size());
+      assertEquals(docs, Lists.newArrayList(buffer.iterator()));
+    }
+    assertFalse("The buffer files should be deleted on close", folder.exists());
+  }
+
+  @Test
+  public void testMaxSize() throws IOException {
+    try (LocalOplogBuffer buffer = new LocalOplogBuffer(temporaryFolder.newFolder().toPath(),
+        128, 200)) {
+      int appended = 0;
+      try {
+        while (appended < 100) {
+          buffer.append(newDocument("_id", newInt(appended)));
+          appended++;
+        }
+        fail("An IOException was expected once the buffer reached its max size");
+      } catch (IOException ex) {
+        //expected
+      }
+      assertTrue("Some documents should fit on the buffer", appended > 0);
+      assertEquals(appended, buffer.size());
+      assertEquals(appended, Lists.newArrayList(buffer.iterator()).size());
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testIteratorCannotBeUsedOnceClosed() throws IOException {
+    Iterator<BsonDocument> iterator;
+    try (LocalOplogBuffer buffer = new LocalOplogBuffer(temporaryFolder.newFolder().toPath(),
+        128)) {
+      buffer.append(newDocument("_id", newInt(1)));
+      buffer.append(newDocument("_id", newInt(2)));
+      iterator = buffer.iterator();
+      iterator.next();
+    }
+    iterator.next();
+  }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod;
+
+import com.google.common.base.Preconditions;
+import com.torodb.core.language.AttributeReference;
+
+import javax.annotation.Nullable;
+
+/**
+ * A value computed over the documents of each group of a grouping.
+ */
+public class AccumulatorInfo {
+
+  private final String name;
+  private final Operator operator;
+  @Nullable
+  private final AttributeReference attributeReference;
+
+  /**
+   * @param name               the attribute of the result documents that will contain the value
+   * @param attributeReference the attribute the value is computed on or null if the operator is
+   *                           {@link Operator#COUNT}
+   */
+  public AccumulatorInfo(String name, Operator operator,
+      @Nullable AttributeReference attributeReference) {
+    Preconditions.checkArgument(attributeReference != null || operator == Operator.COUNT,
+        "%s needs an attribute", operator);
+    this.name = name;
+    this.operator = operator;
+    this.attributeReference = attributeReference;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Operator getOperator() {
+    return operator;
+  }
+
+  @Nullable
+  public AttributeReference getAttributeReference() {
+    return attributeReference;
+  }
+
+  @Override
+  public String toString() {
+    return name + ": " + operator + "(" + (attributeReference == null ? "" : attributeReference)
+        + ")";
+  }
+
+  /**
+   * The accumulators, with the semantics of the MongoDB {@code $group} ones.
+   */
+  public static enum Operator {
+    /**
+     * The number of documents of the group.
+     */
+    COUNT,
+    /**
+     * The sum of the numeric values of the attribute, ignoring other values. It is 0 if there are
+     * no numeric values.
+     */
+    SUM,
+    /**
+     * The average of the numeric values of the attribute, ignoring other values. It is null if
+     * there are no numeric values.
+     */
+    AVG,
+    /**
+     * The smallest value of the attribute, ignoring nulls and missing values.
+     */
+    MIN,
+    /**
+     * The greatest value of the attribute, ignoring nulls and missing values.
+     */
+    MAX
+  }
+}
@@ -19,16 +19,21 @@
 package com.torodb.torod;
 
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
 
 public class IndexFieldInfo {
 
   private final AttributeReference attributeReference;
-  private final boolean ascending;
+  private final FieldIndexOrdering ordering;
 
   public IndexFieldInfo(AttributeReference attributeReference, boolean ascending) {
+    this(attributeReference, ascending ? FieldIndexOrdering.ASC : FieldIndexOrdering.DESC);
+  }
+
+  public IndexFieldInfo(AttributeReference attributeReference, FieldIndexOrdering ordering) {
     super();
     this.attributeReference = attributeReference;
-    this.ascending = ascending;
+    this.ordering = ordering;
   }
 
   public AttributeReference getAttributeReference() {
@@ -36,6 +41,10 @@ public class IndexFieldInfo {
   }
 
   public boolean isAscending() {
-    return ascending;
+    return ordering.isAscending();
+  }
+
+  public FieldIndexOrdering getOrdering() {
+    return ordering;
   }
 }
@@ -20,6 +20,7 @@ package com.torodb.torod;
 
 import com.google.common.collect.ImmutableList;
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
 
 import javax.annotation.Nonnull;
 import javax.json.Json;
@@ -33,13 +34,20 @@ public class IndexInfo {
 
   private final String name;
   private final boolean unique;
+  private final boolean sparse;
   private final JsonObject properties;
   private final ImmutableList<IndexFieldInfo> fields;
 
   public IndexInfo(@Nonnull String name, boolean unique, @Nonnull JsonObject properties,
       ImmutableList<IndexFieldInfo> fields) {
+    this(name, unique, false, properties, fields);
+  }
+
+  public IndexInfo(@Nonnull String name, boolean unique, boolean sparse,
+      @Nonnull JsonObject properties, ImmutableList<IndexFieldInfo> fields) {
     this.name = name;
     this.unique = unique;
+    this.sparse = sparse;
     this.properties = properties;
     this.fields = fields;
   }
@@ -53,6 +61,10 @@ public class IndexInfo {
     return unique;
   }
 
+  public boolean isSparse() {
+    return sparse;
+  }
+
   @Nonnull
   public JsonObject getProperties() {
     return properties;
@@ -67,12 +79,18 @@ public class IndexInfo {
 
     private final String name;
     private final boolean isUnique;
+    private final boolean isSparse;
     private final JsonObjectBuilder propertiesBuilder;
     private final ImmutableList.Builder<IndexFieldInfo> fieldsBuilder;
 
     public Builder(@Nonnull String name, boolean isUnique) {
+      this(name, isUnique, false);
+    }
+
+    public Builder(@Nonnull String name, boolean isUnique, boolean isSparse) {
       this.name = name;
       this.isUnique = isUnique;
+      this.isSparse = isSparse;
       this.propertiesBuilder = Json.createObjectBuilder();
       this.fieldsBuilder = ImmutableList.builder();
     }
@@ -82,8 +100,13 @@ public class IndexInfo {
       return this;
     }
 
+    public Builder addField(AttributeReference attributeReference, FieldIndexOrdering ordering) {
+      fieldsBuilder.add(new IndexFieldInfo(attributeReference, ordering));
+      return this;
+    }
+
     public IndexInfo build() {
-      return new IndexInfo(name, isUnique,
+      return new IndexInfo(name, isUnique, isSparse,
           propertiesBuilder.build(),
           fieldsBuilder.build());
     }
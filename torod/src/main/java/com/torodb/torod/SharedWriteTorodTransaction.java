@@ -18,6 +18,7 @@
 
 package com.torodb.torod;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.cursors.IteratorCursor;
 import com.torodb.core.document.ToroDocument;
@@ -27,8 +28,11 @@ import com.torodb.core.transaction.RollbackException;
 import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.torod.cursors.TorodCursor;
+import org.jooq.lambda.tuple.Tuple2;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -55,6 +59,22 @@ public interface SharedWriteTorodTransaction extends TorodTransaction {
   public long deleteByAttRef(String dbName, String colName, AttributeReference attRef,
       KvValue<?> value);
 
+  /**
+   * Deletes all documents whose attribute reference contains one of the given values.
+   *
+   * The default implementation looks for the dids of the matching documents and then deletes
+   * them, but implementations are encouraged to do it in a more efficient way.
+   *
+   * @return the values of the deleted documents
+   */
+  public default List<KvValue<?>> deleteByAttRefIn(String dbName, String colName,
+      AttributeReference attRef, Collection<KvValue<?>> values) {
+    List<Tuple2<Integer, KvValue<?>>> found = findByAttRefInProjection(dbName, colName, attRef,
+        values).getRemaining();
+    delete(dbName, colName, new IteratorCursor<>(found.stream().map(Tuple2::v1).iterator()));
+    return found.stream().map(Tuple2::v2).collect(Collectors.toList());
+  }
+
   public void dropCollection(String db, String collection) throws RollbackException, UserException;
 
   public void createCollection(String db, String collection)
@@ -62,11 +82,47 @@ public interface SharedWriteTorodTransaction extends TorodTransaction {
 
   public void dropDatabase(String db) throws RollbackException, UserException;
 
+  public default boolean createIndex(String dbName, String colName, String indexName,
+      List<IndexFieldInfo> fields, boolean unique) throws UserException {
+    return createIndex(dbName, colName, indexName, fields, unique, false);
+  }
+
+  /**
+   * Like {@link #createIndex(java.lang.String, java.lang.String, java.lang.String,
+   * java.util.List, boolean) }, but if {@code background} is true the existent documents may be
+   * indexed once this transaction commits, without blocking the writes on the collection.
+   *
+   * @return true if the index has been created, false if it already existed
+   */
+  public default boolean createIndex(String dbName, String colName, String indexName,
+      List<IndexFieldInfo> fields, boolean unique, boolean background) throws UserException {
+    return createIndex(dbName, colName, indexName, fields, unique, false, background);
+  }
+
+  /**
+   * Like {@link #createIndex(java.lang.String, java.lang.String, java.lang.String,
+   * java.util.List, boolean, boolean) }, but if {@code sparse} is true the documents that do not
+   * contain any of the indexed fields are not indexed.
+   *
+   * @return true if the index has been created, false if it already existed
+   */
   public boolean createIndex(String dbName, String colName, String indexName,
-      List<IndexFieldInfo> fields, boolean unique) throws UserException;
+      List<IndexFieldInfo> fields, boolean unique, boolean sparse, boolean background)
+      throws UserException;
 
   public boolean dropIndex(String dbName, String colName, String indexName);
 
+  /**
+   * Stores the given value on the metainfo key-value storage.
+   *
+   * The value is written as part of this transaction, so it is only visible once the transaction
+   * is committed.
+   *
+   * @return the old value or null if none was stored
+   * @see com.torodb.core.backend.WriteBackendTransaction#writeMetaInfo(MetaInfoKey, KvValue)
+   */
+  public KvValue<?> writeMetaInfo(MetaInfoKey key, KvValue<?> newValue);
+
   public void commit() throws RollbackException, UserException;
 
 }
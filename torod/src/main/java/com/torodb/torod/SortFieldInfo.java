@@ -0,0 +1,44 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.torod;
+
+import com.torodb.core.language.AttributeReference;
+
+public class SortFieldInfo {
+
+  private final AttributeReference attributeReference;
+  private final boolean ascending;
+
+  public SortFieldInfo(AttributeReference attributeReference, boolean ascending) {
+    this.attributeReference = attributeReference;
+    this.ascending = ascending;
+  }
+
+  public AttributeReference getAttributeReference() {
+    return attributeReference;
+  }
+
+  public boolean isAscending() {
+    return ascending;
+  }
+
+  @Override
+  public String toString() {
+    return attributeReference + (ascending ? " ASC" : " DESC");
+  }
+}
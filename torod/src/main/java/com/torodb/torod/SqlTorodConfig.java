@@ -21,20 +21,32 @@ package com.torodb.torod;
 import com.google.inject.Injector;
 import com.torodb.core.backend.BackendBundle;
 import com.torodb.core.bundle.BundleConfigImpl;
+import com.torodb.core.d2r.ColumnOverflowPolicy;
 import com.torodb.core.supervision.Supervisor;
 
 
 public class SqlTorodConfig extends BundleConfigImpl {
   private final BackendBundle backendBundle;
+  private final ColumnOverflowPolicy columnOverflowPolicy;
 
   public SqlTorodConfig(BackendBundle backendBundle, Injector essentialInjector,
       Supervisor supervisor) {
+    this(backendBundle, essentialInjector, supervisor, ColumnOverflowPolicy.NEVER);
+  }
+
+  public SqlTorodConfig(BackendBundle backendBundle, Injector essentialInjector,
+      Supervisor supervisor, ColumnOverflowPolicy columnOverflowPolicy) {
     super(essentialInjector, supervisor);
     this.backendBundle = backendBundle;
+    this.columnOverflowPolicy = columnOverflowPolicy;
   }
 
   public BackendBundle getBackendBundle() {
     return backendBundle;
   }
+
+  public ColumnOverflowPolicy getColumnOverflowPolicy() {
+    return columnOverflowPolicy;
+  }
   
 }
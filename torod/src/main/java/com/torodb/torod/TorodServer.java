@@ -21,6 +21,7 @@ package com.torodb.torod;
 import com.torodb.common.util.Empty;
 import com.torodb.core.services.TorodbService;
 
+import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -32,5 +33,17 @@ public interface TorodServer extends TorodbService {
 
   public CompletableFuture<Empty> disableDataImportMode(String dbName);
 
+  /**
+   * Disables the data import mode on several databases at once, letting the backend schedule the
+   * expensive tasks of all of them together.
+   */
+  public default CompletableFuture<Empty> disableDataImportMode(Collection<String> dbNames) {
+    CompletableFuture<?>[] futures = dbNames.stream()
+        .map(this::disableDataImportMode)
+        .toArray(CompletableFuture<?>[]::new);
+    return CompletableFuture.allOf(futures)
+        .thenApply(ignore -> Empty.getInstance());
+  }
+
   public CompletableFuture<Empty> enableDataImportMode(String dbName);
 }
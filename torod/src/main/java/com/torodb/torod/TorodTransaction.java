@@ -18,18 +18,25 @@
 
 package com.torodb.torod;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.IndexNotFoundException;
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.querycriteria.QueryCriteria;
+import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.torod.cursors.TorodCursor;
 import org.jooq.lambda.tuple.Tuple2;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Stream;
 
+import javax.annotation.Nullable;
+
 public interface TorodTransaction extends AutoCloseable {
 
   public boolean isClosed();
@@ -58,6 +65,52 @@ public interface TorodTransaction extends AutoCloseable {
   public TorodCursor findByAttRefIn(String dbName, String colName, AttributeReference attRef,
       Collection<KvValue<?>> values);
 
+  /**
+   * Returns a cursor that iterates over the documents of the collection that fulfill the given
+   * criteria.
+   */
+  public default TorodCursor findByCriteria(String dbName, String colName,
+      QueryCriteria criteria) {
+    return findByCriteria(dbName, colName, criteria, Collections.emptyList(), 0, 0);
+  }
+
+  /**
+   * Like {@link #findByCriteria(java.lang.String, java.lang.String,
+   * com.torodb.core.language.querycriteria.QueryCriteria) }, but the documents are iterated in
+   * the given order, the first {@code skip} ones are skipped and at most {@code limit} are
+   * returned (or all of them if {@code limit} is 0).
+   */
+  public TorodCursor findByCriteria(String dbName, String colName, QueryCriteria criteria,
+      List<SortFieldInfo> sort, long skip, long limit);
+
+  /**
+   * Groups the documents of the collection that fulfill the given criteria by the value of the
+   * given attribute and returns a document for each group, like the MongoDB {@code $group} stage
+   * does.
+   *
+   * <p>Each returned document contains the key of its group on {@code _id} and the value of each
+   * accumulator on the attribute named after it. Groups are returned in no particular order.
+   *
+   * @param groupBy the attribute the documents are grouped by or null to aggregate all of them on
+   *                a single group
+   * @see com.torodb.torod.query.DocumentGrouper
+   */
+  public Cursor<KvDocument> groupByCriteria(String dbName, String colName, QueryCriteria criteria,
+      @Nullable AttributeReference groupBy, List<AccumulatorInfo> accumulators);
+
+  /**
+   * Returns the distinct values the given attribute has on the documents of the collection that
+   * fulfill the given criteria, like the MongoDB {@code distinct} command does.
+   *
+   * <p>Elements of array values are returned instead of the arrays that contain them and numbers
+   * of different types that represent the same number are returned once. Values are returned in
+   * no particular order.
+   *
+   * @see com.torodb.torod.query.DistinctValues
+   */
+  public Cursor<KvValue<?>> findDistinct(String dbName, String colName, AttributeReference attRef,
+      QueryCriteria criteria);
+
   /**
    * Like {@link #findByAttRefIn(java.lang.String, java.lang.String,
    * com.torodb.core.language.AttributeReference, java.util.Collection)
@@ -84,6 +137,13 @@ public interface TorodTransaction extends AutoCloseable {
   public IndexInfo getIndexInfo(String dbName, String colName, String idxName) throws
       IndexNotFoundException;
 
+  /**
+   * Reads the value associated with the given key on the metainfo key-value storage.
+   *
+   * @see com.torodb.core.backend.BackendTransaction#readMetaInfo(MetaInfoKey)
+   */
+  public Optional<KvValue<?>> readMetaInfo(MetaInfoKey key);
+
   @Override
   public void close();
 
@@ -57,7 +57,7 @@ public class SqlTorodModule extends PrivateModule {
 
     install(new EssentialToDefaultModule());
 
-    install(new D2RModule());
+    install(new D2RModule(config.getColumnOverflowPolicy()));
 
     install(new FactoryModuleBuilder()
         .implement(SameThreadInsertPipeline.class, SameThreadInsertPipeline.class)
@@ -15,94 +15,224 @@
  * You should have received a copy of the GNU Affero General Public License
  * along with this program. If not, see <http://www.gnu.org/licenses/>.
  */
-
 package com.torodb.torod.impl.memory;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
 import com.torodb.core.document.ToroDocument;
 import com.torodb.core.exceptions.user.UniqueIndexViolationException;
+import com.torodb.core.transaction.RollbackException;
+import com.torodb.core.util.PersistentHashMap;
 import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.torod.IndexInfo;
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.jooq.lambda.tuple.Tuple2;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.function.Consumer;
-import java.util.function.IntSupplier;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.NotThreadSafe;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
+ * An in memory multi version store.
  *
+ * <p>Each committed state is an immutable {@link Snapshot} whose collections are stored on
+ * persistent maps, so readers just take the last published snapshot and never block. Writers
+ * work on a private copy of the snapshot that shares everything they don't modify and lock each
+ * collection they write until they are closed, so writers on different collections run
+ * concurrently. On commit, the collections a transaction has locked are copied on the last
+ * published snapshot.
  */
 @ThreadSafe
 public class MemoryData {
 
   private static final String _ID = "_id";
-  
-  private Table<String, String, Map<Integer, KvDocument>> data = HashBasedTable.create();
-  private Table<String, String, Map<String, IndexInfo>> indexes = HashBasedTable.create();
+  private static final long LOCK_TIMEOUT_MILLIS = 10_000;
+
+  private final AtomicReference<Snapshot> published = new AtomicReference<>(Snapshot.EMPTY);
+  private final ConcurrentHashMap<Tuple2<String, String>, ReentrantLock> collectionLocks =
+      new ConcurrentHashMap<>();
+  private final ReentrantLock metaInfoLock = new ReentrantLock();
   private final AtomicInteger idGenerator = new AtomicInteger();
-  private ReadWriteLock lock = new ReentrantReadWriteLock(true);
 
   public MdReadTransaction openReadTransaction() {
-    lock.readLock().lock();
-    try {
-      return new MdReadTransaction(data, indexes);
-    } finally {
-      lock.readLock().unlock();
-    }
+    return new MdReadTransaction(published.get());
   }
 
-  @SuppressFBWarnings(value = {"UL_UNRELEASED_LOCK"})
   public MdWriteTransaction openWriteTransaction() {
-    Lock writeLock = lock.writeLock();
-    writeLock.lock();
+    return new MdWriteTransaction(this);
+  }
+
+  /**
+   * Removes all the data, without waiting for the open write transactions.
+   */
+  public void clear() {
+    published.set(Snapshot.EMPTY);
+  }
+
+  private ReentrantLock getCollectionLock(Tuple2<String, String> colRef) {
+    return collectionLocks.computeIfAbsent(colRef, ignore -> new ReentrantLock());
+  }
+
+  private static void lock(ReentrantLock lock, Object lockedElement) {
+    boolean locked;
     try {
-      return new MdWriteTransaction(data, indexes, () -> idGenerator.incrementAndGet(),
-          this::onCommit, writeLock);
-    } catch (Throwable ex) {
-      writeLock.unlock();
-      throw ex;
+      locked = lock.tryLock(LOCK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new RollbackException("Interrupted while waiting for the lock on " + lockedElement,
+          ex);
+    }
+    if (!locked) {
+      throw new RollbackException("Timeout while waiting for the lock on " + lockedElement);
     }
   }
 
-  private void onCommit(MdTransaction trans) {
-    this.data = trans.getData();
-    this.indexes = trans.getIndexes();
+  /**
+   * An immutable state of the store.
+   */
+  @Immutable
+  static class Snapshot {
+
+    private static final Snapshot EMPTY = new Snapshot(
+        PersistentHashMap.empty(), PersistentHashMap.empty());
+
+    private final PersistentHashMap<String, PersistentHashMap<String, MdCollection>> dbs;
+    private final PersistentHashMap<String, KvValue<?>> metaInfo;
+
+    private Snapshot(PersistentHashMap<String, PersistentHashMap<String, MdCollection>> dbs,
+        PersistentHashMap<String, KvValue<?>> metaInfo) {
+      this.dbs = dbs;
+      this.metaInfo = metaInfo;
+    }
+
+    @Nullable
+    MdCollection getCollection(String db, String col) {
+      PersistentHashMap<String, MdCollection> cols = dbs.get(db);
+      if (cols == null) {
+        return null;
+      }
+      return cols.get(col);
+    }
+
+    Snapshot withCollection(String db, String col, @Nullable MdCollection collection) {
+      PersistentHashMap<String, MdCollection> cols = dbs.get(db);
+      if (collection == null) {
+        if (cols == null) {
+          return this;
+        }
+        cols = cols.minus(col);
+        return new Snapshot(cols.isEmpty() ? dbs.minus(db) : dbs.plus(db, cols), metaInfo);
+      }
+      if (cols == null) {
+        cols = PersistentHashMap.empty();
+      }
+      return new Snapshot(dbs.plus(db, cols.plus(col, collection)), metaInfo);
+    }
+
+    Snapshot withMetaInfo(String key, KvValue<?> value) {
+      return new Snapshot(dbs, metaInfo.plus(key, value));
+    }
   }
 
-  public static class MdTransaction implements AutoCloseable {
+  /**
+   * An immutable version of a collection, with its documents indexed by did and by {@code _id}.
+   */
+  @Immutable
+  static class MdCollection {
 
-    private boolean closed = false;
-    Table<String, String, Map<Integer, KvDocument>> data;
-    Table<String, String, Map<String, IndexInfo>> indexes;
+    private static final MdCollection EMPTY = new MdCollection(
+        PersistentHashMap.empty(), PersistentHashMap.empty(), PersistentHashMap.empty());
+
+    private final PersistentHashMap<Integer, KvDocument> docs;
+    private final PersistentHashMap<KvValue<?>, Integer> idIndex;
+    private final PersistentHashMap<String, IndexInfo> indexes;
 
-    public MdTransaction(Table<String, String, Map<Integer, KvDocument>> data,
-        Table<String, String, Map<String, IndexInfo>> indexes) {
-      this.data = data;
+    private MdCollection(PersistentHashMap<Integer, KvDocument> docs,
+        PersistentHashMap<KvValue<?>, Integer> idIndex,
+        PersistentHashMap<String, IndexInfo> indexes) {
+      this.docs = docs;
+      this.idIndex = idIndex;
       this.indexes = indexes;
     }
 
-    public Table<String, String, Map<Integer, KvDocument>> getData() {
-      return data;
+    int size() {
+      return docs.size();
     }
 
-    public Table<String, String, Map<String, IndexInfo>> getIndexes() {
-      return indexes;
+    @Nullable
+    KvDocument getDocument(int did) {
+      return docs.get(did);
+    }
+
+    @Nullable
+    Integer getDidById(KvValue<?> mongoId) {
+      return idIndex.get(mongoId);
+    }
+
+    Stream<ToroDocument> streamDocuments() {
+      return docs.entries().map(entry -> new ToroDocument(entry.getKey(), entry.getValue()));
+    }
+
+    Stream<IndexInfo> streamIndexes() {
+      return indexes.values();
+    }
+
+    boolean containsIndex(String indexName) {
+      return indexes.containsKey(indexName);
+    }
+
+    MdCollection plus(int did, KvDocument doc) {
+      KvValue<?> mongoId = doc.get(_ID);
+      return new MdCollection(
+          docs.plus(did, doc),
+          mongoId != null ? idIndex.plus(mongoId, did) : idIndex,
+          indexes);
+    }
+
+    MdCollection minus(int did) {
+      KvDocument doc = docs.get(did);
+      if (doc == null) {
+        return this;
+      }
+      KvValue<?> mongoId = doc.get(_ID);
+      return new MdCollection(
+          docs.minus(did),
+          mongoId != null ? idIndex.minus(mongoId) : idIndex,
+          indexes);
+    }
+
+    MdCollection clear() {
+      return new MdCollection(PersistentHashMap.empty(), PersistentHashMap.empty(), indexes);
+    }
+
+    MdCollection withoutIndex(String indexName) {
+      return new MdCollection(docs, idIndex, indexes.minus(indexName));
+    }
+  }
+
+  public abstract static class MdTransaction implements AutoCloseable {
+
+    private boolean closed = false;
+
+    protected abstract Snapshot getSnapshot();
+
+    public Optional<KvValue<?>> readMetaInfo(String key) {
+      return Optional.ofNullable(getSnapshot().metaInfo.get(key));
     }
 
     public boolean isClosed() {
@@ -110,24 +240,71 @@ public class MemoryData {
     }
 
     public boolean existsDatabase(String db) {
-      return data.containsRow(db);
+      return getSnapshot().dbs.containsKey(db);
     }
 
     public boolean existsCollection(String db, String col) {
-      return data.contains(db, col);
+      return getSnapshot().getCollection(db, col) != null;
     }
 
     public Stream<ToroDocument> streamCollection(String db, String col) {
-      Map<Integer, KvDocument> map = data.get(db, col);
-      if (map == null) {
+      MdCollection collection = getSnapshot().getCollection(db, col);
+      if (collection == null) {
         return Stream.empty();
       }
-      return map.entrySet().stream()
-          .map(this::entryToDocument);
+      return collection.streamDocuments();
+    }
+
+    public long countAll(String db, String col) {
+      MdCollection collection = getSnapshot().getCollection(db, col);
+      if (collection == null) {
+        return 0;
+      }
+      return collection.size();
+    }
+
+    public Optional<ToroDocument> findById(String db, String col, KvValue<?> mongoId) {
+      MdCollection collection = getSnapshot().getCollection(db, col);
+      if (collection == null) {
+        return Optional.empty();
+      }
+      Integer did = collection.getDidById(mongoId);
+      if (did == null) {
+        return Optional.empty();
+      }
+      return Optional.of(new ToroDocument(did, collection.getDocument(did)));
+    }
+
+    public Optional<ToroDocument> fetch(String db, String col, int did) {
+      MdCollection collection = getSnapshot().getCollection(db, col);
+      if (collection == null) {
+        return Optional.empty();
+      }
+      KvDocument doc = collection.getDocument(did);
+      if (doc == null) {
+        return Optional.empty();
+      }
+      return Optional.of(new ToroDocument(did, doc));
     }
 
     public Stream<String> streamDbs() {
-      return data.rowKeySet().stream();
+      return getSnapshot().dbs.keys();
+    }
+
+    public Stream<String> streamCollections(String db) {
+      PersistentHashMap<String, MdCollection> cols = getSnapshot().dbs.get(db);
+      if (cols == null) {
+        return Stream.empty();
+      }
+      return cols.keys();
+    }
+
+    public Stream<IndexInfo> streamIndexes(String db, String col) {
+      MdCollection collection = getSnapshot().getCollection(db, col);
+      if (collection == null) {
+        return Stream.empty();
+      }
+      return collection.streamIndexes();
     }
 
     @Override
@@ -138,12 +315,9 @@ public class MemoryData {
     }
 
     public Stream<ToroDocument> streamAllDocs() {
-      return data.values().stream().flatMap(map -> map.entrySet().stream()).map(
-          this::entryToDocument);
-    }
-
-    private ToroDocument entryToDocument(Map.Entry<Integer, KvDocument> entry) {
-      return new ToroDocument(entry.getKey(), entry.getValue());
+      return getSnapshot().dbs.values()
+          .flatMap(PersistentHashMap::values)
+          .flatMap(MdCollection::streamDocuments);
     }
 
   }
@@ -151,129 +325,207 @@ public class MemoryData {
   @NotThreadSafe
   public static class MdReadTransaction extends MdTransaction {
 
-    public MdReadTransaction(Table<String, String, Map<Integer, KvDocument>> data,
-        Table<String, String, Map<String, IndexInfo>> indexes) {
-      super(data, indexes);
+    private final Snapshot snapshot;
+
+    MdReadTransaction(Snapshot snapshot) {
+      this.snapshot = snapshot;
+    }
+
+    @Override
+    protected Snapshot getSnapshot() {
+      return snapshot;
     }
 
   }
 
+  /**
+   * A transaction that modifies its own copy of the snapshot.
+   *
+   * <p>Before a collection is modified for the first time, it is locked and its last committed
+   * version is copied on the private snapshot, so each collection is modified by a single
+   * transaction at the same time and no committed change is lost. Locks are released when the
+   * transaction is closed. As locks are taken in the order collections are used, a timeout is
+   * used to break deadlocks by throwing a {@link RollbackException}.
+   */
   @NotThreadSafe
   public static class MdWriteTransaction extends MdTransaction {
 
-    final Table<String, String, Map<Integer, KvDocument>> initialData;
-    private final IntSupplier idGenerator;
-    private final Consumer<MdTransaction> commitConsumer;
-    private final Lock lock;
-
-    public MdWriteTransaction(
-        Table<String, String, Map<Integer, KvDocument>> data,
-        Table<String, String, Map<String, IndexInfo>> indexes,
-        IntSupplier idGenerator,
-        Consumer<MdTransaction> commitConsumer,
-        Lock lock) {
-      super(HashBasedTable.create(data), HashBasedTable.create(indexes));
-      this.idGenerator = idGenerator;
-      this.commitConsumer = commitConsumer;
-      this.lock = lock;
-      this.initialData = data;
-    }
-
-    public void clear() {
+    private final MemoryData memoryData;
+    private final Set<Tuple2<String, String>> lockedCollections = new LinkedHashSet<>();
+    private final Map<String, KvValue<?>> writtenMetaInfo = new HashMap<>();
+    private boolean metaInfoLocked = false;
+    private Snapshot snapshot;
+
+    MdWriteTransaction(MemoryData memoryData) {
+      this.memoryData = memoryData;
+      this.snapshot = memoryData.published.get();
+    }
+
+    @Override
+    protected Snapshot getSnapshot() {
+      return snapshot;
+    }
+
+    private void checkOpen() {
       Preconditions.checkState(!isClosed(), "This transaction is closed");
-      data.clear();
     }
 
-    Map<Integer, KvDocument> getMap(String db, String col) {
-      Map<Integer, KvDocument> map = data.get(db, col);
-      if (map == null) {
-        map = new HashMap<>();
-        data.put(db, col, map);
+    @Nullable
+    private MdCollection lockCollection(String db, String col) {
+      checkOpen();
+      Tuple2<String, String> colRef = new Tuple2<>(db, col);
+      if (!lockedCollections.contains(colRef)) {
+        lock(memoryData.getCollectionLock(colRef), "collection " + db + '.' + col);
+        lockedCollections.add(colRef);
+        snapshot = snapshot.withCollection(db, col,
+            memoryData.published.get().getCollection(db, col));
       }
-      return map;
+      return snapshot.getCollection(db, col);
+    }
+
+    private void setCollection(String db, String col, @Nullable MdCollection collection) {
+      assert lockedCollections.contains(new Tuple2<>(db, col));
+      snapshot = snapshot.withCollection(db, col, collection);
     }
 
     void insert(String db, String col, Stream<KvDocument> docs)
         throws UniqueIndexViolationException {
-      Map<Integer, KvDocument> map = getMap(db, col);
+      MdCollection collection = lockCollection(db, col);
+      if (collection == null) {
+        collection = MdCollection.EMPTY;
+      }
       List<KvDocument> docList = docs.collect(Collectors.toList());
 
-      Optional<KvDocument> repeatedDoc = docList.stream()
-          .filter(doc -> {
-            KvValue<?> mongoId = doc.get(_ID);
-            if (mongoId != null) {
-              Optional<KvDocument> withSameId = map.values().stream()
-                  .filter(otherDoc -> mongoId.equals(otherDoc.get(_ID)))
-                  .findAny();
-              return withSameId.isPresent();
-            }
-            return false;
-          })
-          .findAny();
-      if (repeatedDoc.isPresent()) {
-        throw new UniqueIndexViolationException(_ID, repeatedDoc.get());
+      Set<KvValue<?>> newIds = new HashSet<>();
+      for (KvDocument doc : docList) {
+        KvValue<?> mongoId = doc.get(_ID);
+        if (mongoId != null
+            && (collection.getDidById(mongoId) != null || !newIds.add(mongoId))) {
+          throw new UniqueIndexViolationException(_ID, doc);
+        }
       }
 
-      docList.forEach(doc -> {
-        int id = idGenerator.getAsInt();
-        map.put(id, doc);
-      });
+      for (KvDocument doc : docList) {
+        collection = collection.plus(memoryData.idGenerator.incrementAndGet(), doc);
+      }
+      setCollection(db, col, collection);
     }
 
     long delete(String dbName, String colName, Stream<Integer> dids) {
-      Map<Integer, KvDocument> map = getMap(dbName, colName);
-      return dids.map(did -> {
-        return map.remove(did) != null;
-      })
-          .filter(b -> b)
-          .count();
+      MdCollection collection = lockCollection(dbName, colName);
+      if (collection == null) {
+        return 0;
+      }
+      long count = 0;
+      for (Integer did : (Iterable<Integer>) dids::iterator) {
+        MdCollection newCollection = collection.minus(did);
+        if (newCollection != collection) {
+          count++;
+          collection = newCollection;
+        }
+      }
+      setCollection(dbName, colName, collection);
+      return count;
     }
 
     long deleteAll(String dbName, String colName) {
-      Map<Integer, KvDocument> map = data.get(dbName, colName);
-      if (map == null) {
+      MdCollection collection = lockCollection(dbName, colName);
+      if (collection == null) {
         return 0;
       }
-      int count = map.size();
-      map.clear();
-      return count;
+      setCollection(dbName, colName, collection.clear());
+      return collection.size();
     }
 
     void dropCollection(String dbName, String colName) {
-      data.remove(dbName, colName);
+      lockCollection(dbName, colName);
+      setCollection(dbName, colName, null);
     }
 
     void renameCollection(String fromDb, String fromCollection, String toDb, String toCollection) {
-      Map<Integer, KvDocument> col = data.remove(fromDb, fromCollection);
-      if (col != null) {
-        data.put(toDb, toCollection, col);
+      MdCollection collection = lockCollection(fromDb, fromCollection);
+      lockCollection(toDb, toCollection);
+      if (collection != null) {
+        setCollection(fromDb, fromCollection, null);
+        setCollection(toDb, toCollection, collection);
       }
     }
 
     void createCollection(String dbName, String colName) {
-      getMap(dbName, colName);
+      if (lockCollection(dbName, colName) == null) {
+        setCollection(dbName, colName, MdCollection.EMPTY);
+      }
     }
 
     void dropDatabase(String dbName) {
-      HashSet<String> columns = new HashSet<>(data.row(dbName).keySet());
+      Set<String> colNames = Stream.concat(
+          streamCollections(dbName),
+          new MdReadTransaction(memoryData.published.get()).streamCollections(dbName))
+          .collect(Collectors.toSet());
+
+      for (String colName : colNames) {
+        dropCollection(dbName, colName);
+      }
+    }
+
+    boolean dropIndex(String dbName, String colName, String indexName) {
+      MdCollection collection = lockCollection(dbName, colName);
+      if (collection == null || !collection.containsIndex(indexName)) {
+        return false;
+      }
+      setCollection(dbName, colName, collection.withoutIndex(indexName));
+      return true;
+    }
 
-      for (String colName : columns) {
-        data.remove(dbName, colName);
+    KvValue<?> writeMetaInfo(String key, KvValue<?> newValue) {
+      checkOpen();
+      if (!metaInfoLocked) {
+        lock(memoryData.metaInfoLock, "the metainfo");
+        metaInfoLocked = true;
       }
+      KvValue<?> oldValue = writtenMetaInfo.containsKey(key)
+          ? writtenMetaInfo.get(key)
+          : memoryData.published.get().metaInfo.get(key);
+      writtenMetaInfo.put(key, newValue);
+      snapshot = snapshot.withMetaInfo(key, newValue);
+      return oldValue;
     }
 
     void rollback() {
-      this.data = initialData;
+      checkOpen();
+      writtenMetaInfo.clear();
+      snapshot = memoryData.published.get();
     }
 
     void commit() {
-      commitConsumer.accept(this);
+      checkOpen();
+      memoryData.published.updateAndGet(this::applyChanges);
+      writtenMetaInfo.clear();
+    }
+
+    private Snapshot applyChanges(Snapshot current) {
+      Snapshot result = current;
+      for (Tuple2<String, String> colRef : lockedCollections) {
+        result = result.withCollection(colRef.v1, colRef.v2,
+            snapshot.getCollection(colRef.v1, colRef.v2));
+      }
+      for (Map.Entry<String, KvValue<?>> entry : writtenMetaInfo.entrySet()) {
+        result = result.withMetaInfo(entry.getKey(), entry.getValue());
+      }
+      return result;
     }
 
     @Override
     public void close() {
       if (!isClosed()) {
-        lock.unlock();
+        for (Tuple2<String, String> colRef : lockedCollections) {
+          memoryData.getCollectionLock(colRef).unlock();
+        }
+        lockedCollections.clear();
+        if (metaInfoLocked) {
+          memoryData.metaInfoLock.unlock();
+          metaInfoLocked = false;
+        }
       }
       super.close();
     }
@@ -75,9 +75,7 @@ public class MemoryTorodServer extends IdleTorodbService implements TorodServer
   @Override
   protected void shutDown() throws Exception {
     openConnections.invalidateAll();
-    try (MemoryData.MdWriteTransaction trans = data.openWriteTransaction()) {
-      trans.clear();
-    }
+    data.clear();
   }
 
   MemoryData getData() {
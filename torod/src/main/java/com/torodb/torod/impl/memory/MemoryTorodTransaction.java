@@ -18,6 +18,7 @@
 
 package com.torodb.torod.impl.memory;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.cursors.IteratorCursor;
 import com.torodb.core.cursors.TransformCursor;
@@ -25,24 +26,32 @@ import com.torodb.core.document.ToroDocument;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.IndexNotFoundException;
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.querycriteria.ComparisonQueryCriteria;
+import com.torodb.core.language.querycriteria.QueryCriteria;
 import com.torodb.core.util.AttributeRefKvDocResolver;
 import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.kvdocument.values.KvValue;
+import com.torodb.torod.AccumulatorInfo;
 import com.torodb.torod.CollectionInfo;
 import com.torodb.torod.CollectionInfo.Type;
 import com.torodb.torod.IndexInfo;
+import com.torodb.torod.SortFieldInfo;
 import com.torodb.torod.TorodTransaction;
 import com.torodb.torod.cursors.DocTorodCursor;
 import com.torodb.torod.cursors.TorodCursor;
+import com.torodb.torod.query.DistinctValues;
+import com.torodb.torod.query.DocumentGrouper;
+import com.torodb.torod.query.DocumentSorter;
+import com.torodb.torod.query.QueryCriteriaMatcher;
 import org.jooq.lambda.tuple.Tuple2;
 
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.annotation.Nullable;
 import javax.json.Json;
 
 /**
@@ -50,6 +59,8 @@ import javax.json.Json;
  */
 public abstract class MemoryTorodTransaction implements TorodTransaction {
 
+  private static final String ID_KEY = "_id";
+
   private boolean closed = false;
   private final MemoryTorodConnection connection;
 
@@ -86,7 +97,7 @@ public abstract class MemoryTorodTransaction implements TorodTransaction {
 
   @Override
   public long countAll(String dbName, String colName) {
-    return getTransaction().streamCollection(dbName, colName).count();
+    return getTransaction().countAll(dbName, colName);
   }
 
   @Override
@@ -96,6 +107,9 @@ public abstract class MemoryTorodTransaction implements TorodTransaction {
 
   Stream<ToroDocument> streamByAttRef(String dbName, String colName, AttributeReference attRef,
       KvValue<?> value) {
+    if (isIdReference(attRef)) {
+      return streamOptional(getTransaction().findById(dbName, colName, value));
+    }
     return getTransaction().streamCollection(dbName, colName)
         .filter(doc -> {
           Optional<KvValue<?>> resolved = AttributeRefKvDocResolver.resolve(
@@ -113,6 +127,12 @@ public abstract class MemoryTorodTransaction implements TorodTransaction {
   @Override
   public TorodCursor findByAttRefIn(String dbName, String colName, AttributeReference attRef,
       Collection<KvValue<?>> values) {
+    if (isIdReference(attRef)) {
+      return createCursor(values.stream()
+          .distinct()
+          .flatMap(value -> streamOptional(getTransaction().findById(dbName, colName, value)))
+      );
+    }
     return createCursor(getTransaction().streamCollection(dbName, colName)
             .filter(doc -> {
               Optional<KvValue<?>> resolved = AttributeRefKvDocResolver.resolve(
@@ -122,6 +142,48 @@ public abstract class MemoryTorodTransaction implements TorodTransaction {
     );
   }
 
+  @Override
+  public TorodCursor findByCriteria(String dbName, String colName, QueryCriteria criteria,
+      List<SortFieldInfo> sort, long skip, long limit) {
+    Stream<ToroDocument> docs;
+    if (isIdEquality(criteria)) {
+      ComparisonQueryCriteria comparison = (ComparisonQueryCriteria) criteria;
+      docs = streamByAttRef(dbName, colName, comparison.getAttributeReference(),
+          comparison.getValue());
+    } else {
+      docs = getTransaction().streamCollection(dbName, colName)
+          .filter(doc -> QueryCriteriaMatcher.matches(criteria, doc.getRoot()));
+    }
+    return createCursor(DocumentSorter.sortAndPage(docs, sort, skip, limit));
+  }
+
+  @Override
+  public Cursor<KvDocument> groupByCriteria(String dbName, String colName, QueryCriteria criteria,
+      @Nullable AttributeReference groupBy, List<AccumulatorInfo> accumulators) {
+    Stream<KvDocument> docs = getTransaction().streamCollection(dbName, colName)
+        .map(ToroDocument::getRoot)
+        .filter(doc -> QueryCriteriaMatcher.matches(criteria, doc));
+    return new IteratorCursor<>(DocumentGrouper.group(docs, groupBy, accumulators).iterator());
+  }
+
+  @Override
+  public Cursor<KvValue<?>> findDistinct(String dbName, String colName, AttributeReference attRef,
+      QueryCriteria criteria) {
+    Stream<KvDocument> docs = getTransaction().streamCollection(dbName, colName)
+        .map(ToroDocument::getRoot)
+        .filter(doc -> QueryCriteriaMatcher.matches(criteria, doc));
+    return new IteratorCursor<>(DistinctValues.distinct(docs, attRef).iterator());
+  }
+
+  private boolean isIdEquality(QueryCriteria criteria) {
+    if (!(criteria instanceof ComparisonQueryCriteria)) {
+      return false;
+    }
+    ComparisonQueryCriteria comparison = (ComparisonQueryCriteria) criteria;
+    return comparison.getOperator() == ComparisonQueryCriteria.Operator.EQ
+        && isIdReference(comparison.getAttributeReference());
+  }
+
   @Override
   public Cursor<Tuple2<Integer, KvValue<?>>> findByAttRefInProjection(String dbName,
       String colName, AttributeReference attRef, Collection<KvValue<?>> values) {
@@ -136,14 +198,25 @@ public abstract class MemoryTorodTransaction implements TorodTransaction {
 
   @Override
   public TorodCursor fetch(String dbName, String colName, Cursor<Integer> didCursor) {
-    Map<Integer, KvDocument> colData = getTransaction().data.get(dbName, colName);
     return createCursor(didCursor.getRemaining().stream()
-        .map(did -> new Tuple2<>(did, colData.get(did)))
-        .filter(tuple -> tuple.v2 != null)
-        .map(tuple -> new ToroDocument(tuple.v1, tuple.v2))
+        .flatMap(did -> streamOptional(getTransaction().fetch(dbName, colName, did)))
     );
   }
 
+  /**
+   * Returns true iff the given reference points to the {@code _id} of the root document, which is
+   * indexed on each collection.
+   */
+  private static boolean isIdReference(AttributeReference attRef) {
+    List<AttributeReference.Key<?>> keys = attRef.getKeys();
+    return keys.size() == 1 && keys.get(0) instanceof AttributeReference.ObjectKey
+        && ID_KEY.equals(((AttributeReference.ObjectKey) keys.get(0)).getKey());
+  }
+
+  private static Stream<ToroDocument> streamOptional(Optional<ToroDocument> doc) {
+    return doc.map(Stream::of).orElseGet(Stream::empty);
+  }
+
   private TorodCursor createCursor(Stream<ToroDocument> docsStream) {
     return new DocTorodCursor(new IteratorCursor<>(docsStream.iterator()));
   }
@@ -165,14 +238,14 @@ public abstract class MemoryTorodTransaction implements TorodTransaction {
 
   @Override
   public Stream<CollectionInfo> getCollectionsInfo(String dbName) {
-    return getTransaction().data.row(dbName).keySet().stream()
+    return getTransaction().streamCollections(dbName)
         .map(colName -> getCollectionInfoPrivate(colName));
   }
 
   @Override
   public CollectionInfo getCollectionInfo(String dbName, String colName) throws
       CollectionNotFoundException {
-    if (!getTransaction().data.contains(dbName, colName)) {
+    if (!getTransaction().existsCollection(dbName, colName)) {
       throw new CollectionNotFoundException(dbName, colName);
     }
     return getCollectionInfoPrivate(colName);
@@ -184,12 +257,7 @@ public abstract class MemoryTorodTransaction implements TorodTransaction {
 
   @Override
   public Stream<IndexInfo> getIndexesInfo(String dbName, String colName) {
-    Map<String, IndexInfo> indexesOnTable = getTransaction().getIndexes()
-        .get(dbName, colName);
-    if (indexesOnTable == null) {
-      return Stream.empty();
-    }
-    return indexesOnTable.values().stream();
+    return getTransaction().streamIndexes(dbName, colName);
   }
 
   @Override
@@ -201,6 +269,11 @@ public abstract class MemoryTorodTransaction implements TorodTransaction {
             new IndexNotFoundException(dbName, colName, idxName));
   }
 
+  @Override
+  public Optional<KvValue<?>> readMetaInfo(MetaInfoKey key) {
+    return getTransaction().readMetaInfo(key.getKeyName());
+  }
+
   @Override
   public void close() {
     if (!closed) {
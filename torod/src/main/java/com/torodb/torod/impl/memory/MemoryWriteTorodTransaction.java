@@ -18,6 +18,7 @@
 
 package com.torodb.torod.impl.memory;
 
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.document.ToroDocument;
 import com.torodb.core.exceptions.user.UserException;
@@ -27,11 +28,9 @@ import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.torod.ExclusiveWriteTorodTransaction;
 import com.torodb.torod.IndexFieldInfo;
-import com.torodb.torod.IndexInfo;
 import com.torodb.torod.impl.memory.MemoryData.MdTransaction;
 
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Stream;
 
 /**
@@ -60,9 +59,7 @@ public class MemoryWriteTorodTransaction extends MemoryTorodTransaction implemen
 
   @Override
   public long deleteAll(String dbName, String colName) {
-    long count = trans.streamCollection(dbName, colName).count();
-    trans.deleteAll(dbName, colName);
-    return count;
+    return trans.deleteAll(dbName, colName);
   }
 
   @Override
@@ -103,18 +100,18 @@ public class MemoryWriteTorodTransaction extends MemoryTorodTransaction implemen
 
   @Override
   public boolean createIndex(String dbName, String colName, String indexName,
-      List<IndexFieldInfo> fields, boolean unique) {
+      List<IndexFieldInfo> fields, boolean unique, boolean sparse, boolean background) {
     return false;
   }
 
   @Override
   public boolean dropIndex(String dbName, String colName, String indexName) {
-    Map<String, IndexInfo> indexesOnTable = getTransaction().getIndexes()
-        .get(dbName, colName);
-    if (indexesOnTable == null) {
-      return false;
-    }
-    return indexesOnTable.remove(indexName) != null;
+    return trans.dropIndex(dbName, colName, indexName);
+  }
+
+  @Override
+  public KvValue<?> writeMetaInfo(MetaInfoKey key, KvValue<?> newValue) {
+    return trans.writeMetaInfo(key.getKeyName(), newValue);
   }
 
   @Override
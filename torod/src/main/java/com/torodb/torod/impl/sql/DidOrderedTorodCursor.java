@@ -0,0 +1,146 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.torod.impl.sql;
+
+import com.google.common.base.Preconditions;
+import com.torodb.core.cursors.Cursor;
+import com.torodb.core.cursors.IteratorCursor;
+import com.torodb.core.document.ToroDocument;
+import com.torodb.torod.cursors.TorodCursor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A {@link TorodCursor} whose documents are returned in the order of a sorted did cursor.
+ *
+ * <p>Documents are fetched in batches of dids. The rows of each batch are read with a
+ * {@code did IN (...)} condition, so the database returns them in any order. The fetched
+ * documents are reordered by the position of their did on the batch.
+ */
+public class DidOrderedTorodCursor implements TorodCursor {
+
+  private static final int BATCH_SIZE = 1000;
+
+  private final Cursor<Integer> didCursor;
+  private final Function<Cursor<Integer>, Cursor<ToroDocument>> fetcher;
+  private DocCursor docCursor;
+  private boolean usedAsDidCursor = false;
+
+  /**
+   * @param didCursor the sorted cursor of the dids of the documents
+   * @param fetcher   a function that returns the documents with the dids of the given cursor, in
+   *                  any order
+   */
+  public DidOrderedTorodCursor(@Nonnull Cursor<Integer> didCursor,
+      @Nonnull Function<Cursor<Integer>, Cursor<ToroDocument>> fetcher) {
+    this.didCursor = didCursor;
+    this.fetcher = fetcher;
+  }
+
+  @Override
+  public Cursor<ToroDocument> asDocCursor() {
+    Preconditions.checkState(!usedAsDidCursor, "This cursor has already been used as a did cursor");
+
+    if (docCursor == null) {
+      docCursor = new DocCursor();
+    }
+
+    return docCursor;
+  }
+
+  @Override
+  public Cursor<Integer> asDidCursor() {
+    Preconditions.checkState(docCursor == null, "This cursor has already been used as a doc "
+        + "cursor");
+    usedAsDidCursor = true;
+    return didCursor;
+  }
+
+  static List<ToroDocument> sortByDid(List<Integer> dids, List<ToroDocument> docs) {
+    Map<Integer, ToroDocument> docsByDid = new HashMap<>(docs.size() * 2);
+    for (ToroDocument doc : docs) {
+      docsByDid.put(doc.getId(), doc);
+    }
+    List<ToroDocument> sorted = new ArrayList<>(docs.size());
+    for (Integer did : dids) {
+      ToroDocument doc = docsByDid.get(did);
+      if (doc != null) {
+        sorted.add(doc);
+      }
+    }
+    return sorted;
+  }
+
+  private class DocCursor implements Cursor<ToroDocument> {
+
+    @Override
+    public boolean hasNext() {
+      return didCursor.hasNext();
+    }
+
+    @Override
+    public ToroDocument next() {
+      //the documents removed after their dids were read are skipped
+      while (hasNext()) {
+        List<ToroDocument> batch = getNextBatch(1);
+        if (!batch.isEmpty()) {
+          return batch.get(0);
+        }
+      }
+      throw new NoSuchElementException();
+    }
+
+    @Override
+    public List<ToroDocument> getNextBatch(int maxResults) {
+      Preconditions.checkArgument(maxResults > 0, "max results must be at least 1, but "
+          + maxResults + " was recived");
+
+      List<Integer> dids = didCursor.getNextBatch(maxResults);
+      if (dids.isEmpty()) {
+        return Collections.emptyList();
+      }
+      List<ToroDocument> docs;
+      try (Cursor<ToroDocument> docCursor = fetcher.apply(new IteratorCursor<>(dids.iterator()))) {
+        docs = docCursor.getRemaining();
+      }
+      return sortByDid(dids, docs);
+    }
+
+    @Override
+    public List<ToroDocument> getRemaining() {
+      List<ToroDocument> allDocuments = new ArrayList<>();
+      while (didCursor.hasNext()) {
+        allDocuments.addAll(getNextBatch(BATCH_SIZE));
+      }
+      return allDocuments;
+    }
+
+    @Override
+    public void close() {
+      didCursor.close();
+    }
+  }
+}
@@ -35,9 +35,12 @@ import com.torodb.core.transaction.metainf.ImmutableMetaSnapshot;
 import com.torodb.torod.TorodServer;
 import com.torodb.torod.pipeline.InsertPipelineFactory;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -125,6 +128,19 @@ public class SqlTorodServer extends IdleTorodbService implements TorodServer {
     return backend.disableDataImportMode(metaDb);
   }
 
+  @Override
+  public CompletableFuture<Empty> disableDataImportMode(Collection<String> dbNames) {
+    ImmutableMetaSnapshot snapshot = internalTransactionManager.takeMetaSnapshot();
+    List<ImmutableMetaDatabase> metaDbs = dbNames.stream()
+        .map(snapshot::getMetaDatabaseByName)
+        .filter(metaDb -> metaDb != null)
+        .collect(Collectors.toList());
+    if (metaDbs.isEmpty()) {
+      return CompletableFuture.completedFuture(Empty.getInstance());
+    }
+    return backend.disableDataImportMode(metaDbs);
+  }
+
   D2RTranslatorFactory getD2RTranslatorFactory() {
     return d2RTranslatorFactory;
   }
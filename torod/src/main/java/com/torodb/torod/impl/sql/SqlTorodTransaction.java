@@ -23,14 +23,23 @@ import com.google.common.collect.Multimap;
 import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
 import com.torodb.core.backend.BackendCursor;
+import com.torodb.core.backend.BackendTransaction;
+import com.torodb.core.backend.MetaInfoKey;
+import com.torodb.core.backend.query.AggregatedColumn;
+import com.torodb.core.backend.query.ColumnOrder;
+import com.torodb.core.backend.query.DidFilter;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.cursors.EmptyCursor;
+import com.torodb.core.cursors.IteratorCursor;
 import com.torodb.core.d2r.R2DTranslator;
+import com.torodb.core.document.ToroDocument;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.IndexNotFoundException;
 import com.torodb.core.language.AttributeReference;
 import com.torodb.core.language.AttributeReference.Key;
 import com.torodb.core.language.AttributeReference.ObjectKey;
+import com.torodb.core.language.querycriteria.QueryCriteria;
+import com.torodb.core.language.querycriteria.TextQueryCriteria;
 import com.torodb.core.transaction.InternalTransaction;
 import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.MetaCollection;
@@ -38,22 +47,40 @@ import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
 import com.torodb.core.transaction.metainf.MetaField;
 import com.torodb.core.transaction.metainf.MetaIndex;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvNumeric;
 import com.torodb.kvdocument.values.KvValue;
+import com.torodb.torod.AccumulatorInfo;
 import com.torodb.torod.CollectionInfo;
 import com.torodb.torod.CollectionInfo.Type;
 import com.torodb.torod.IndexInfo;
+import com.torodb.torod.SortFieldInfo;
 import com.torodb.torod.TorodLoggerFactory;
 import com.torodb.torod.TorodTransaction;
+import com.torodb.torod.cursors.DocTorodCursor;
 import com.torodb.torod.cursors.EmptyTorodCursor;
 import com.torodb.torod.cursors.TorodCursor;
+import com.torodb.torod.query.DidFilterPlanner;
+import com.torodb.torod.query.DistinctValues;
+import com.torodb.torod.query.DocumentGrouper;
+import com.torodb.torod.query.DocumentSorter;
+import com.torodb.torod.query.QueryCriteriaMatcher;
+import com.torodb.torod.query.TextScorer;
 import org.apache.logging.log4j.Logger;
+import org.jooq.lambda.Seq;
 import org.jooq.lambda.tuple.Tuple2;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.annotation.Nullable;
 import javax.json.Json;
 
 /**
@@ -253,6 +280,268 @@ public abstract class SqlTorodTransaction<T extends InternalTransaction>
     );
   }
 
+  @Override
+  public TorodCursor findByCriteria(String dbName, String colName, QueryCriteria criteria,
+      List<SortFieldInfo> sort, long skip, long limit) {
+    MetaDatabase db = getInternalTransaction().getMetaSnapshot().getMetaDatabaseByName(dbName);
+    if (db == null) {
+      LOGGER.trace("Db with name " + dbName + " does not exist. An empty cursor is returned");
+      return new EmptyTorodCursor();
+    }
+    MetaCollection col = db.getMetaCollectionByName(colName);
+    if (col == null) {
+      LOGGER.trace("Collection " + dbName + '.' + colName
+          + " does not exist. An empty cursor is returned");
+      return new EmptyTorodCursor();
+    }
+
+    DidFilterPlanner planner = new DidFilterPlanner(getConnection().getServer()
+        .getTableRefFactory());
+    Optional<DidFilter> filter = planner.plan(col, criteria);
+    Optional<List<ColumnOrder>> order = planner.planOrder(col, sort);
+    if (filter.isPresent() && order.isPresent()) {
+      BackendTransaction backendTrans = getInternalTransaction().getBackendTransaction();
+      Cursor<Integer> didCursor = backendTrans
+          .findByFilter(db, col, filter.get(), order.get(), skip, limit)
+          .asDidCursor();
+      //dids may be sorted by the given sort or by the relevance of a text search
+      return new DidOrderedTorodCursor(didCursor, dids ->
+          toToroCursor(backendTrans.fetch(db, col, dids)).asDocCursor());
+    }
+
+    Cursor<ToroDocument> candidates;
+    if (filter.isPresent()) {
+      LOGGER.debug("Sort {} on {}.{} will be done in memory", sort, dbName, colName);
+      candidates = toToroCursor(getInternalTransaction()
+          .getBackendTransaction()
+          .findByFilter(db, col, filter.get()))
+          .asDocCursor();
+    } else {
+      LOGGER.debug("Criteria {} on {}.{} will be evaluated in memory", criteria, dbName, colName);
+      candidates = toToroCursor(getInternalTransaction()
+          .getBackendTransaction()
+          .findAll(db, col))
+          .asDocCursor()
+          .filter(doc -> QueryCriteriaMatcher.matches(criteria, doc.getRoot()));
+    }
+    //documents found by a text search without an explicit sort are returned by relevance, as the
+    //backends do
+    Optional<TextQueryCriteria> textSearch = sort.isEmpty() ? TextScorer.getTextSearch(criteria)
+        : Optional.empty();
+    if (sort.isEmpty() && !textSearch.isPresent() && skip == 0 && limit == 0) {
+      return new DocTorodCursor(candidates);
+    }
+    List<ToroDocument> docs;
+    try {
+      docs = candidates.getRemaining();
+    } finally {
+      candidates.close();
+    }
+    if (textSearch.isPresent()) {
+      docs = TextScorer.sortByScore(docs, textSearch.get());
+    }
+    return new DocTorodCursor(new IteratorCursor<>(
+        DocumentSorter.sortAndPage(docs.stream(), sort, skip, limit).iterator()));
+  }
+
+  @Override
+  public Cursor<KvDocument> groupByCriteria(String dbName, String colName, QueryCriteria criteria,
+      @Nullable AttributeReference groupBy, List<AccumulatorInfo> accumulators) {
+    MetaDatabase db = getInternalTransaction().getMetaSnapshot().getMetaDatabaseByName(dbName);
+    if (db == null) {
+      LOGGER.trace("Db with name " + dbName + " does not exist. An empty cursor is returned");
+      return new EmptyCursor<>();
+    }
+    MetaCollection col = db.getMetaCollectionByName(colName);
+    if (col == null) {
+      LOGGER.trace("Collection " + dbName + '.' + colName
+          + " does not exist. An empty cursor is returned");
+      return new EmptyCursor<>();
+    }
+
+    DidFilterPlanner planner = new DidFilterPlanner(getConnection().getServer()
+        .getTableRefFactory());
+    Optional<DidFilter> filter = planner.plan(col, criteria);
+    if (filter.isPresent()) {
+      Optional<List<KvDocument>> groups = groupOnDatabase(planner, db, col, filter.get(),
+          groupBy, accumulators);
+      if (groups.isPresent()) {
+        return new IteratorCursor<>(groups.get().iterator());
+      }
+    }
+
+    LOGGER.debug("Group by {} on {}.{} will be done in memory", groupBy, dbName, colName);
+    List<KvDocument> groups;
+    try (Cursor<ToroDocument> candidates = findByCriteria(dbName, colName, criteria)
+        .asDocCursor()) {
+      groups = DocumentGrouper.group(Seq.seq(candidates).map(ToroDocument::getRoot), groupBy,
+          accumulators);
+    }
+    return new IteratorCursor<>(groups.iterator());
+  }
+
+  /**
+   * Groups the documents on the database or returns an empty optional if some of the attributes
+   * may be stored outside the root doc part.
+   *
+   * <p>As each type of an attribute is stored on a different column, the database returns a group
+   * for each type of the key and computes the accumulators for each type of their attribute, so
+   * these partial results are merged in memory.
+   */
+  private Optional<List<KvDocument>> groupOnDatabase(DidFilterPlanner planner, MetaDatabase db,
+      MetaCollection col, DidFilter filter, @Nullable AttributeReference groupBy,
+      List<AccumulatorInfo> accumulators) {
+    List<MetaField> groupFields = Collections.emptyList();
+    if (groupBy != null) {
+      Optional<List<MetaField>> fields = planner.planRootFields(col, groupBy);
+      if (!fields.isPresent()) {
+        return Optional.empty();
+      }
+      groupFields = fields.get();
+    }
+    //the first aggregated column counts the rows of the group
+    List<AggregatedColumn> aggregatedColumns = new ArrayList<>();
+    aggregatedColumns.add(AggregatedColumn.countRows());
+    //the indexes of the aggregated columns each accumulator is computed from
+    List<List<Integer>> accumulatorColumns = new ArrayList<>(accumulators.size());
+    for (AccumulatorInfo accumulator : accumulators) {
+      List<Integer> columnIndexes = new ArrayList<>();
+      if (accumulator.getOperator() != AccumulatorInfo.Operator.COUNT) {
+        Optional<List<MetaField>> fields = planner.planRootFields(col,
+            accumulator.getAttributeReference());
+        if (!fields.isPresent()) {
+          return Optional.empty();
+        }
+        for (MetaField field : fields.get()) {
+          if (accumulator.getOperator() == AccumulatorInfo.Operator.SUM
+              || accumulator.getOperator() == AccumulatorInfo.Operator.AVG) {
+            if (isNumeric(field.getType())) {
+              columnIndexes.add(aggregatedColumns.size());
+              aggregatedColumns.add(new AggregatedColumn(AggregatedColumn.Function.SUM, field));
+              columnIndexes.add(aggregatedColumns.size());
+              aggregatedColumns.add(new AggregatedColumn(AggregatedColumn.Function.COUNT, field));
+            }
+          } else if (field.getType() != FieldType.NULL) {
+            if (!isNumeric(field.getType()) && field.getType() != FieldType.STRING) {
+              LOGGER.debug("{} cannot be computed by the database on {} values", accumulator,
+                  field.getType());
+              return Optional.empty();
+            }
+            columnIndexes.add(aggregatedColumns.size());
+            aggregatedColumns.add(new AggregatedColumn(
+                accumulator.getOperator() == AccumulatorInfo.Operator.MIN
+                    ? AggregatedColumn.Function.MIN : AggregatedColumn.Function.MAX, field));
+          }
+        }
+      }
+      accumulatorColumns.add(columnIndexes);
+    }
+
+    DocumentGrouper grouper = new DocumentGrouper(accumulators);
+    int groupFieldCount = groupFields.size();
+    try (Cursor<List<KvValue<?>>> rows = getInternalTransaction()
+        .getBackendTransaction()
+        .groupByFilter(db, col, filter, groupFields, aggregatedColumns)) {
+      while (rows.hasNext()) {
+        List<KvValue<?>> row = rows.next();
+        KvValue<?> key = row.subList(0, groupFieldCount).stream()
+            .filter(value -> value != null)
+            .findAny()
+            .orElse(null);
+        DocumentGrouper.Group group = grouper.getGroup(key);
+        List<KvValue<?>> aggregatedValues = row.subList(groupFieldCount, row.size());
+        for (int i = 0; i < accumulators.size(); i++) {
+          List<Integer> columnIndexes = accumulatorColumns.get(i);
+          switch (accumulators.get(i).getOperator()) {
+            case COUNT:
+              group.addPartialResult(i, null, getCount(aggregatedValues.get(0)));
+              break;
+            case SUM:
+            case AVG:
+              for (int j = 0; j < columnIndexes.size(); j += 2) {
+                int sumIndex = columnIndexes.get(j);
+                group.addPartialResult(i, toSumValue(aggregatedColumns.get(sumIndex),
+                    aggregatedValues.get(sumIndex)),
+                    getCount(aggregatedValues.get(columnIndexes.get(j + 1))));
+              }
+              break;
+            default:
+              for (int columnIndex : columnIndexes) {
+                group.addPartialResult(i, aggregatedValues.get(columnIndex), 1);
+              }
+              break;
+          }
+        }
+      }
+    }
+    return Optional.of(grouper.getResult());
+  }
+
+  @Override
+  public Cursor<KvValue<?>> findDistinct(String dbName, String colName, AttributeReference attRef,
+      QueryCriteria criteria) {
+    MetaDatabase db = getInternalTransaction().getMetaSnapshot().getMetaDatabaseByName(dbName);
+    if (db == null) {
+      LOGGER.trace("Db with name " + dbName + " does not exist. An empty cursor is returned");
+      return new EmptyCursor<>();
+    }
+    MetaCollection col = db.getMetaCollectionByName(colName);
+    if (col == null) {
+      LOGGER.trace("Collection " + dbName + '.' + colName
+          + " does not exist. An empty cursor is returned");
+      return new EmptyCursor<>();
+    }
+
+    DistinctValues distinctValues = new DistinctValues();
+    DidFilterPlanner planner = new DidFilterPlanner(getConnection().getServer()
+        .getTableRefFactory());
+    Optional<DidFilter> filter = planner.plan(col, criteria);
+    Optional<List<MetaField>> fields = planner.planRootFields(col, attRef);
+    if (filter.isPresent() && fields.isPresent()) {
+      //each type is stored on its own column, so the values of each one are read separately
+      for (MetaField field : fields.get()) {
+        try (Cursor<KvValue<?>> values = getInternalTransaction()
+            .getBackendTransaction()
+            .findDistinctByFilter(db, col, filter.get(), field)) {
+          values.forEachRemaining(distinctValues::add);
+        }
+      }
+    } else {
+      LOGGER.debug("Distinct values of {} on {}.{} will be computed in memory", attRef, dbName,
+          colName);
+      try (Cursor<ToroDocument> candidates = findByCriteria(dbName, colName, criteria)
+          .asDocCursor()) {
+        candidates.forEachRemaining(doc -> distinctValues.addDocument(doc.getRoot(), attRef));
+      }
+    }
+    return new IteratorCursor<>(distinctValues.getValues().iterator());
+  }
+
+  private static boolean isNumeric(FieldType type) {
+    return type == FieldType.INTEGER || type == FieldType.LONG || type == FieldType.DOUBLE;
+  }
+
+  private static long getCount(KvValue<?> count) {
+    return ((KvNumeric<?>) count).longValue();
+  }
+
+  /**
+   * The database sums integer columns as longs, but MongoDB only returns a long when the sum of
+   * integers does not fit on an integer.
+   */
+  @Nullable
+  private static KvValue<?> toSumValue(AggregatedColumn sumColumn, @Nullable KvValue<?> sum) {
+    MetaField field = sumColumn.getField();
+    assert field != null;
+    if (sum instanceof KvLong && field.getType() == FieldType.INTEGER) {
+      long longSum = ((KvLong) sum).longValue();
+      if (longSum >= Integer.MIN_VALUE && longSum <= Integer.MAX_VALUE) {
+        return KvInteger.of((int) longSum);
+      }
+    }
+    return sum;
+  }
+
   @Override
   public Cursor<Tuple2<Integer, KvValue<?>>> findByAttRefInProjection(String dbName,
       String colName, AttributeReference attRef, Collection<KvValue<?>> values) {
@@ -379,15 +668,20 @@ public abstract class SqlTorodTransaction<T extends InternalTransaction>
     return createIndexInfo(idx);
   }
 
+  @Override
+  public Optional<KvValue<?>> readMetaInfo(MetaInfoKey key) {
+    return getInternalTransaction().getBackendTransaction().readMetaInfo(key);
+  }
+
   protected IndexInfo createIndexInfo(MetaIndex metaIndex) {
     IndexInfo.Builder indexInfoBuilder = new IndexInfo.Builder(metaIndex.getName(), metaIndex
-        .isUnique());
+        .isUnique(), metaIndex.isSparse());
 
     metaIndex.iteratorFields()
         .forEachRemaining(metaIndexField ->
             indexInfoBuilder.addField(
                 getAttrivuteReference(metaIndexField.getTableRef(), metaIndexField.getFieldName()),
-                metaIndexField.getOrdering().isAscending()));
+                metaIndexField.getOrdering()));
 
     return indexInfoBuilder.build();
   }
@@ -19,11 +19,15 @@
 package com.torodb.torod.impl.sql;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
 import com.torodb.core.TableRef;
+import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.DatabaseNotFoundException;
 import com.torodb.core.exceptions.user.UnsupportedCompoundIndexException;
+import com.torodb.core.exceptions.user.UnsupportedOverflowedIndexException;
 import com.torodb.core.exceptions.user.UnsupportedUniqueIndexException;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.language.AttributeReference;
@@ -51,7 +55,9 @@ import org.jooq.lambda.tuple.Tuple3;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
@@ -159,6 +165,44 @@ public abstract class SqlWriteTorodTransaction<T extends WriteInternalTransactio
     return dids.size();
   }
 
+  @Override
+  public List<KvValue<?>> deleteByAttRefIn(String dbName, String colName,
+      AttributeReference attRef, Collection<KvValue<?>> values) {
+    MetaDatabase db = getInternalTransaction().getMetaSnapshot().getMetaDatabaseByName(dbName);
+    if (db == null) {
+      return Collections.emptyList();
+    }
+    MetaCollection col = db.getMetaCollectionByName(colName);
+    if (col == null) {
+      return Collections.emptyList();
+    }
+
+    TableRef tableRef = extractTableRef(attRef);
+    if (!tableRef.isRoot()) {
+      return SharedWriteTorodTransaction.super.deleteByAttRefIn(dbName, colName, attRef, values);
+    }
+    String lastKey = extractKeyName(attRef.getKeys().get(attRef.getKeys().size() - 1));
+
+    MetaDocPart docPart = col.getMetaDocPartByTableRef(tableRef);
+    if (docPart == null) {
+      return Collections.emptyList();
+    }
+
+    Multimap<MetaField, KvValue<?>> valuesMap = ArrayListMultimap.create();
+    for (KvValue<?> value : values) {
+      MetaField field = docPart.getMetaFieldByNameAndType(lastKey, FieldType.from(value.getType()));
+      if (field != null) {
+        valuesMap.put(field, value);
+      }
+    }
+    if (valuesMap.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    return getInternalTransaction().getBackendTransaction()
+        .deleteByFieldIn(db, col, docPart, valuesMap);
+  }
+
   @Override
   public void dropCollection(String db, String collection) throws RollbackException, UserException {
     MutableMetaDatabase metaDb = getMetaDatabaseOrThrowException(db);
@@ -187,11 +231,8 @@ public abstract class SqlWriteTorodTransaction<T extends WriteInternalTransactio
 
   @Override
   public boolean createIndex(String dbName, String colName, String indexName,
-      List<IndexFieldInfo> fields, boolean unique) throws UserException {
-    if (fields.size() > 1) {
-      throw new UnsupportedCompoundIndexException(dbName, colName, indexName);
-    }
-      
+      List<IndexFieldInfo> fields, boolean unique, boolean sparse, boolean background)
+      throws UserException {
     MutableMetaDatabase metaDb = getOrCreateMetaDatabase(dbName);
     MutableMetaCollection metaColl = getOrCreateMetaCollection(metaDb, colName);
 
@@ -199,27 +240,30 @@ public abstract class SqlWriteTorodTransaction<T extends WriteInternalTransactio
         .size());
     for (IndexFieldInfo field : fields) {
       AttributeReference attRef = field.getAttributeReference();
-      FieldIndexOrdering ordering = field.isAscending() ? FieldIndexOrdering.ASC :
-          FieldIndexOrdering.DESC;
+      FieldIndexOrdering ordering = field.getOrdering();
       TableRef tableRef = extractTableRef(attRef);
       String lastKey = extractKeyName(attRef.getKeys().get(attRef.getKeys().size() - 1));
       indexFieldDefs.add(new Tuple3<>(tableRef, lastKey, ordering));
     }
 
-    if (unique) {
-      TableRef anyIndexTableRef = indexFieldDefs.stream()
-          .findAny().get().v1();
-      boolean isUniqueIndexWithMutlipleTableRefs = indexFieldDefs.stream()
-          .anyMatch(t -> !t.v1().equals(anyIndexTableRef));
+    TableRef anyIndexTableRef = indexFieldDefs.stream()
+        .findAny().get().v1();
+    boolean isIndexWithMutlipleTableRefs = indexFieldDefs.stream()
+        .anyMatch(t -> !t.v1().equals(anyIndexTableRef));
 
-      if (isUniqueIndexWithMutlipleTableRefs) {
+    if (isIndexWithMutlipleTableRefs) {
+      //compound indexes are mapped to multi column indexes, so all their fields must be stored
+      //on the same doc part
+      if (unique) {
         throw new UnsupportedUniqueIndexException(dbName, colName, indexName);
       }
+      throw new UnsupportedCompoundIndexException(dbName, colName, indexName);
     }
 
     boolean indexExists = metaColl.streamContainedMetaIndexes()
         .anyMatch(index -> index.getName().equals(indexName) || (index.isUnique() == unique
-            && index.size() == indexFieldDefs.size() && Seq.seq(index.iteratorFields())
+            && index.isSparse() == sparse && index.size() == indexFieldDefs.size()
+            && Seq.seq(index.iteratorFields())
             .allMatch(indexField -> {
               Tuple3<TableRef, String, FieldIndexOrdering> indexFieldDef =
                   indexFieldDefs.get(indexField.getPosition());
@@ -229,16 +273,41 @@ public abstract class SqlWriteTorodTransaction<T extends WriteInternalTransactio
             })));
 
     if (!indexExists) {
-      MutableMetaIndex metaIndex = metaColl.addMetaIndex(indexName, unique);
+      //keys on an overflow column cannot be indexed and, once an index exists, the keys it uses
+      //are never overflowed, so it must be rejected if any of them may have been overflowed
+      boolean mayBeOverflowed = indexFieldDefs.stream()
+          .anyMatch(indexFieldDef -> isOverflowedOnPath(metaColl, indexFieldDef.v1()));
+      if (mayBeOverflowed) {
+        throw new UnsupportedOverflowedIndexException(dbName, colName, indexName);
+      }
+      MutableMetaIndex metaIndex = metaColl.addMetaIndex(indexName, unique, sparse);
       for (Tuple3<TableRef, String, FieldIndexOrdering> indexFieldDef : indexFieldDefs) {
         metaIndex.addMetaIndexField(indexFieldDef.v1(), indexFieldDef.v2(), indexFieldDef.v3());
       }
-      getInternalTransaction().getBackendTransaction().createIndex(metaDb, metaColl, metaIndex);
+      getInternalTransaction().getBackendTransaction().createIndex(metaDb, metaColl, metaIndex,
+          background);
     }
 
     return !indexExists;
   }
 
+  /**
+   * Returns true iff the doc part of the given table ref or any of its ancestors has an overflow
+   * column.
+   */
+  private static boolean isOverflowedOnPath(MutableMetaCollection metaColl, TableRef tableRef) {
+    Optional<TableRef> ref = Optional.of(tableRef);
+    while (ref.isPresent()) {
+      MetaDocPart docPart = metaColl.getMetaDocPartByTableRef(ref.get());
+      if (docPart != null && docPart.streamFields()
+          .anyMatch(field -> field.getType() == FieldType.OVERFLOW)) {
+        return true;
+      }
+      ref = ref.get().getParent();
+    }
+    return false;
+  }
+
   @SuppressFBWarnings(value = "RV_RETURN_VALUE_IGNORED_NO_SIDE_EFFECT",
       justification = "Findbugs thinks MutableMetaCollection#removeMetaIndexByName"
       + "has no side effect")
@@ -264,6 +333,12 @@ public abstract class SqlWriteTorodTransaction<T extends WriteInternalTransactio
     return true;
   }
 
+  @Override
+  public KvValue<?> writeMetaInfo(MetaInfoKey key, KvValue<?> newValue) {
+    Preconditions.checkState(!isClosed());
+    return getInternalTransaction().getBackendTransaction().writeMetaInfo(key, newValue);
+  }
+
   @Nonnull
   protected MutableMetaDatabase getOrCreateMetaDatabase(String dbName) {
     MutableMetaSnapshot metaSnapshot = getInternalTransaction().getMetaSnapshot();
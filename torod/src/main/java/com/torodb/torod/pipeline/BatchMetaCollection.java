@@ -127,9 +127,9 @@ public class BatchMetaCollection implements MutableMetaCollection {
   }
 
   @Override
-  public MutableMetaIndex addMetaIndex(String name, boolean unique)
+  public MutableMetaIndex addMetaIndex(String name, boolean unique, boolean sparse)
       throws IllegalArgumentException {
-    return delegate.addMetaIndex(name, unique);
+    return delegate.addMetaIndex(name, unique, sparse);
   }
 
   @Override
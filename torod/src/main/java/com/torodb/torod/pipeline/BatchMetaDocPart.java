@@ -168,9 +168,9 @@ public class BatchMetaDocPart implements MutableMetaDocPart {
   }
 
   @Override
-  public MutableMetaDocPartIndex addMetaDocPartIndex(boolean unique)
+  public MutableMetaDocPartIndex addMetaDocPartIndex(boolean unique, boolean sparse)
       throws IllegalArgumentException {
-    return delegate.addMetaDocPartIndex(unique);
+    return delegate.addMetaDocPartIndex(unique, sparse);
   }
 
   @Override
@@ -18,6 +18,7 @@
 
 package com.torodb.torod.pipeline;
 
+import com.google.common.collect.Lists;
 import com.torodb.core.d2r.CollectionData;
 import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.dsl.backend.BackendTransactionJob;
@@ -30,6 +31,7 @@ import com.torodb.torod.TorodLoggerFactory;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Function;
 
 /**
@@ -59,21 +61,17 @@ public class DefaultToBackendFunction implements
           + BatchMetaDocPart.class;
       BatchMetaDocPart metaDocPart = (BatchMetaDocPart) docPartData.getMetaDocPart();
       if (metaDocPart.isCreatedOnCurrentBatch()) {
-        jobs.add(factory.createAddDocPartDdlJob(database, collection, metaDocPart));
-        metaDocPart.streamScalars()
-            .map((scalar) -> factory.createAddScalarDdlJob(database, collection, metaDocPart,
-                scalar))
-            .forEachOrdered((job) -> jobs.add(job));
-        metaDocPart.streamFields()
-            .map((field) -> factory.createAddFieldDdlJob(database, collection, metaDocPart, field))
-            .forEachOrdered((job) -> jobs.add(job));
+        //the table is created with all its columns at once
+        jobs.add(factory.createAddDocPartWithColumnsDdlJob(database, collection, metaDocPart));
       } else {
-        //it already exists, we only need to add the new scalars and fields
-        for (ImmutableMetaScalar newScalar : metaDocPart.getOnBatchModifiedMetaScalars()) {
-          jobs.add(factory.createAddScalarDdlJob(database, collection, metaDocPart, newScalar));
-        }
-        for (ImmutableMetaField newField : metaDocPart.getOnBatchModifiedMetaFields()) {
-          jobs.add(factory.createAddFieldDdlJob(database, collection, metaDocPart, newField));
+        //it already exists, we only need to add the new scalars and fields, all at once
+        List<ImmutableMetaScalar> newScalars = Lists.newArrayList(
+            metaDocPart.getOnBatchModifiedMetaScalars());
+        List<ImmutableMetaField> newFields = Lists.newArrayList(
+            metaDocPart.getOnBatchModifiedMetaFields());
+        if (!newScalars.isEmpty() || !newFields.isEmpty()) {
+          jobs.add(factory.createAddColumnsDdlJob(database, collection, metaDocPart, newScalars,
+              newFields));
         }
       }
 
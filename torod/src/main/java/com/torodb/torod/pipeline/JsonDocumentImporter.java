@@ -0,0 +1,206 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.pipeline;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
+import com.torodb.core.exceptions.user.UserException;
+import com.torodb.core.transaction.RollbackException;
+import com.torodb.kvdocument.conversion.json.JsonDocumentReader;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.torod.SharedWriteTorodTransaction;
+import com.torodb.torod.TorodConnection;
+import com.torodb.torod.TorodLoggerFactory;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Imports files that contain a sequence of JSON documents, like newline delimited JSON files, into
+ * a collection.
+ *
+ * <p>Documents are built while the file is parsed and streamed to the {@link InsertPipeline} of
+ * consecutive write transactions, each one containing at most {@code docsPerTransaction}
+ * documents, so the file is never completely loaded on memory. Regular files are read through
+ * memory mapped regions.
+ *
+ * <p>Each transaction is committed before the next one is opened, so if an error is found the
+ * documents inserted by the already committed transactions are kept.
+ */
+public class JsonDocumentImporter {
+
+  private static final Logger LOGGER = TorodLoggerFactory.get(JsonDocumentImporter.class);
+  private static final long MAPPED_REGION_SIZE = 64L * 1024 * 1024;
+
+  private final TorodConnection connection;
+  private final int docsPerTransaction;
+  private final boolean concurrent;
+  private final long mappedRegionSize;
+
+  /**
+   * @param docsPerTransaction the max number of documents inserted on each transaction
+   * @param concurrent         if the documents can be translated and inserted by several threads,
+   *                           as on {@link TorodConnection#openWriteTransaction(boolean)}
+   */
+  public JsonDocumentImporter(TorodConnection connection, int docsPerTransaction,
+      boolean concurrent) {
+    this(connection, docsPerTransaction, concurrent, MAPPED_REGION_SIZE);
+  }
+
+  JsonDocumentImporter(TorodConnection connection, int docsPerTransaction, boolean concurrent,
+      long mappedRegionSize) {
+    Preconditions.checkArgument(docsPerTransaction > 0,
+        "The number of documents per transaction must be higher than 0, but %s was recived",
+        docsPerTransaction);
+    Preconditions.checkArgument(mappedRegionSize > 0,
+        "The size of the mapped regions must be higher than 0, but %s was recived",
+        mappedRegionSize);
+    this.connection = connection;
+    this.docsPerTransaction = docsPerTransaction;
+    this.concurrent = concurrent;
+    this.mappedRegionSize = mappedRegionSize;
+  }
+
+  /**
+   * Imports the documents of the given file and returns how many documents have been imported.
+   */
+  public long importFile(String dbName, String colName, Path file) throws IOException,
+      RollbackException, UserException {
+    InputStream is;
+    if (Files.isRegularFile(file)) {
+      is = new MappedFileInputStream(FileChannel.open(file, StandardOpenOption.READ),
+          mappedRegionSize);
+    } else {
+      is = Files.newInputStream(file);
+    }
+    return importFrom(dbName, colName, is);
+  }
+
+  /**
+   * Imports the documents read from the given stream, which is closed once they are read, and
+   * returns how many documents have been imported.
+   */
+  public long importFrom(String dbName, String colName, InputStream is) throws IOException,
+      RollbackException, UserException {
+    long imported = 0;
+    try (JsonDocumentReader reader = new JsonDocumentReader(is)) {
+      while (reader.hasNext()) {
+        imported += insertChunk(dbName, colName, reader);
+        LOGGER.debug("{} documents imported on {}.{}", imported, dbName, colName);
+      }
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+    return imported;
+  }
+
+  private int insertChunk(String dbName, String colName, Iterator<KvDocument> docs)
+      throws RollbackException, UserException {
+    AtomicInteger inserted = new AtomicInteger();
+    Stream<KvDocument> chunk = StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+        Iterators.limit(docs, docsPerTransaction), Spliterator.ORDERED | Spliterator.NONNULL),
+        false)
+        .peek(doc -> inserted.incrementAndGet());
+    try (SharedWriteTorodTransaction transaction = connection.openWriteTransaction(concurrent)) {
+      transaction.insert(dbName, colName, chunk);
+      transaction.commit();
+    }
+    return inserted.get();
+  }
+
+  /**
+   * An {@link InputStream} that reads a file by mapping consecutive regions of it on memory, so
+   * files bigger than the max size of a {@link MappedByteBuffer} can be read too.
+   */
+  private static class MappedFileInputStream extends InputStream {
+
+    private final FileChannel channel;
+    private final long size;
+    private final long regionSize;
+    private long nextRegionPosition = 0;
+    private MappedByteBuffer region;
+
+    private MappedFileInputStream(FileChannel channel, long regionSize) throws IOException {
+      this.channel = channel;
+      this.size = channel.size();
+      this.regionSize = regionSize;
+    }
+
+    /**
+     * Maps the next region of the file if the current one has been completely read, returning
+     * false if there is nothing else to read.
+     */
+    private boolean prepareRegion() throws IOException {
+      while (region == null || !region.hasRemaining()) {
+        if (nextRegionPosition >= size) {
+          return false;
+        }
+        long mappedSize = Math.min(regionSize, size - nextRegionPosition);
+        region = channel.map(MapMode.READ_ONLY, nextRegionPosition, mappedSize);
+        nextRegionPosition += mappedSize;
+      }
+      return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (!prepareRegion()) {
+        return -1;
+      }
+      return region.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      if (length == 0) {
+        return 0;
+      }
+      if (!prepareRegion()) {
+        return -1;
+      }
+      int read = Math.min(length, region.remaining());
+      region.get(buffer, offset, read);
+      return read;
+    }
+
+    @Override
+    public int available() {
+      return region == null ? 0 : region.remaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,607 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.torod.query;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.TableRef;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.backend.query.AndDidFilter;
+import com.torodb.core.backend.query.ColumnOrder;
+import com.torodb.core.backend.query.ColumnDidFilter;
+import com.torodb.core.backend.query.ConstantDidFilter;
+import com.torodb.core.backend.query.DidFilter;
+import com.torodb.core.backend.query.NotDidFilter;
+import com.torodb.core.backend.query.OrDidFilter;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.AttributeReference.Key;
+import com.torodb.core.language.AttributeReference.ObjectKey;
+import com.torodb.core.language.querycriteria.AndQueryCriteria;
+import com.torodb.core.language.querycriteria.ComparisonQueryCriteria;
+import com.torodb.core.language.querycriteria.ExistsQueryCriteria;
+import com.torodb.core.language.querycriteria.InQueryCriteria;
+import com.torodb.core.language.querycriteria.NotQueryCriteria;
+import com.torodb.core.language.querycriteria.OrQueryCriteria;
+import com.torodb.core.language.querycriteria.QueryCriteria;
+import com.torodb.core.language.querycriteria.QueryCriteriaVisitor;
+import com.torodb.core.language.querycriteria.TextQueryCriteria;
+import com.torodb.core.language.querycriteria.TrueQueryCriteria;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.MetaCollection;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.kvdocument.values.KvArray;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvNumeric;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import com.torodb.torod.SortFieldInfo;
+import com.torodb.torod.TorodLoggerFactory;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+/**
+ * Translates {@link QueryCriteria query criterias} to {@link DidFilter did filters} over the doc
+ * parts of a collection.
+ *
+ * <p>Each attribute condition is translated to conditions on the columns that can store the
+ * referenced attribute: the fields with the same name on the doc part of its parent and, for
+ * arrays, the scalars of its own doc part. Only the columns whose type can be compared with the
+ * given value are used, so a condition on a number is evaluated on the integer, long and double
+ * columns but not on the string ones.
+ *
+ * <p>Criterias that cannot be evaluated exactly on the columns (like equalities with documents,
+ * references to array positions or attributes that may be stored on an overflow column) are not
+ * planned, so the caller has to evaluate them in memory.
+ */
+public class DidFilterPlanner {
+
+  private static final Logger LOGGER = TorodLoggerFactory.get(DidFilterPlanner.class);
+  private static final BigDecimal MIN_INTEGER = BigDecimal.valueOf(Integer.MIN_VALUE);
+  private static final BigDecimal MAX_INTEGER = BigDecimal.valueOf(Integer.MAX_VALUE);
+  private static final BigDecimal MIN_LONG = BigDecimal.valueOf(Long.MIN_VALUE);
+  private static final BigDecimal MAX_LONG = BigDecimal.valueOf(Long.MAX_VALUE);
+
+  private final TableRefFactory tableRefFactory;
+
+  public DidFilterPlanner(TableRefFactory tableRefFactory) {
+    this.tableRefFactory = tableRefFactory;
+  }
+
+  /**
+   * Returns the filter that selects the documents of the collection that fulfill the criteria or
+   * an empty optional if the criteria cannot be translated.
+   */
+  public Optional<DidFilter> plan(MetaCollection col, QueryCriteria criteria) {
+    try {
+      return Optional.of(criteria.accept(new PlannerVisitor(col), null));
+    } catch (UnsupportedCriteriaException ex) {
+      LOGGER.debug("Criteria {} cannot be translated to a did filter: {}", criteria,
+          ex.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Returns the columns of the root doc part the documents must be sorted by to follow the given
+   * sort or an empty optional if the sort cannot be done on the database.
+   *
+   * <p>Only attributes on the root document whose values share a single type (ignoring nulls) can
+   * be sorted by the database. Attributes that are documents or arrays on some documents or that
+   * may be stored on an overflow column must be sorted in memory.
+   */
+  public Optional<List<ColumnOrder>> planOrder(MetaCollection col, List<SortFieldInfo> sort) {
+    MetaDocPart rootDocPart = col.getMetaDocPartByTableRef(tableRefFactory.createRoot());
+    if (rootDocPart == null || sort.isEmpty()) {
+      return Optional.of(Collections.emptyList());
+    }
+    List<ColumnOrder> order = new ArrayList<>(sort.size());
+    try {
+      checkNotOverflowed(rootDocPart);
+      for (SortFieldInfo sortField : sort) {
+        if (sortField.getAttributeReference().getKeys().size() != 1) {
+          throw new UnsupportedCriteriaException("only attributes of the root document can be "
+              + "sorted by");
+        }
+        Path path = resolvePath(col, sortField.getAttributeReference());
+        if (path.childDocPart != null) {
+          throw new UnsupportedCriteriaException(path.lastKey + " contains documents or arrays");
+        }
+        List<Column> columns = path.streamValueColumns()
+            .filter(column -> column.type != FieldType.NULL)
+            .collect(Collectors.toList());
+        if (columns.size() > 1) {
+          throw new UnsupportedCriteriaException(path.lastKey + " contains values of "
+              + columns.size() + " types");
+        }
+        if (columns.size() == 1) {
+          Column column = columns.get(0);
+          order.add(new ColumnOrder(column.identifier, column.type, sortField.isAscending()));
+        }
+      }
+    } catch (UnsupportedCriteriaException ex) {
+      LOGGER.debug("Sort {} cannot be done by the database: {}", sort, ex.getMessage());
+      return Optional.empty();
+    }
+    return Optional.of(order);
+  }
+
+  /**
+   * Returns the fields of the root doc part that store the values of the given attribute or an
+   * empty optional if some of its values may be stored elsewhere.
+   *
+   * <p>Like on {@link #planOrder(MetaCollection, List)}, only attributes on the root document that
+   * never contain documents or arrays and that cannot be stored on an overflow column are
+   * supported. The returned list includes the {@link FieldType#NULL} field, if any.
+   */
+  public Optional<List<MetaField>> planRootFields(MetaCollection col, AttributeReference attRef) {
+    try {
+      if (attRef.getKeys().size() != 1) {
+        throw new UnsupportedCriteriaException("only attributes of the root document are stored "
+            + "on the root doc part");
+      }
+      Path path = resolvePath(col, attRef);
+      if (path.childDocPart != null) {
+        throw new UnsupportedCriteriaException(path.lastKey + " contains documents or arrays");
+      }
+      if (path.parentDocPart == null) {
+        return Optional.of(Collections.emptyList());
+      }
+      return Optional.of(path.parentDocPart.streamMetaFieldByName(path.lastKey)
+          .collect(Collectors.<MetaField>toList()));
+    } catch (UnsupportedCriteriaException ex) {
+      LOGGER.debug("Attribute {} cannot be read from the root doc part: {}", attRef,
+          ex.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  private class PlannerVisitor implements QueryCriteriaVisitor<DidFilter, Void> {
+
+    private final MetaCollection col;
+
+    private PlannerVisitor(MetaCollection col) {
+      this.col = col;
+    }
+
+    @Override
+    public DidFilter visit(TrueQueryCriteria criteria, Void arg) {
+      return ConstantDidFilter.TRUE;
+    }
+
+    @Override
+    public DidFilter visit(AndQueryCriteria criteria, Void arg) {
+      return AndDidFilter.of(criteria.getSubQueryCriterias().stream()
+          .map(subCriteria -> subCriteria.accept(this, arg))
+          .collect(Collectors.toList()));
+    }
+
+    @Override
+    public DidFilter visit(OrQueryCriteria criteria, Void arg) {
+      return OrDidFilter.of(criteria.getSubQueryCriterias().stream()
+          .map(subCriteria -> subCriteria.accept(this, arg))
+          .collect(Collectors.toList()));
+    }
+
+    @Override
+    public DidFilter visit(NotQueryCriteria criteria, Void arg) {
+      return NotDidFilter.of(criteria.getSubQueryCriteria().accept(this, arg));
+    }
+
+    @Override
+    public DidFilter visit(ComparisonQueryCriteria criteria, Void arg) {
+      KvValue<?> value = criteria.getValue();
+      checkScalar(value);
+      Path path = resolvePath(col, criteria.getAttributeReference());
+      if (value instanceof KvNull) {
+        switch (criteria.getOperator()) {
+          case EQ:
+          case GTE:
+          case LTE:
+            return nullOrMissing(path);
+          default:
+            return ConstantDidFilter.FALSE;
+        }
+      }
+      return OrDidFilter.of(path.streamValueColumns()
+          .map(column -> column.filter(criteria.getOperator(), value))
+          .collect(Collectors.toList()));
+    }
+
+    @Override
+    public DidFilter visit(InQueryCriteria criteria, Void arg) {
+      criteria.getValues().forEach(DidFilterPlanner::checkScalar);
+      Path path = resolvePath(col, criteria.getAttributeReference());
+
+      List<DidFilter> filters = new ArrayList<>();
+      path.streamValueColumns().forEach(column -> {
+        List<KvValue<?>> columnValues = criteria.getValues().stream()
+            .filter(value -> !(value instanceof KvNull))
+            .map(column::toColumnValue)
+            .filter(Optional::isPresent)
+            .map(Optional::get)
+            .distinct()
+            .collect(Collectors.toList());
+        if (columnValues.size() == 1) {
+          filters.add(column.createFilter(ColumnDidFilter.Operator.EQ, columnValues));
+        } else if (!columnValues.isEmpty()) {
+          filters.add(column.createFilter(ColumnDidFilter.Operator.IN, columnValues));
+        }
+      });
+      if (criteria.getValues().stream().anyMatch(value -> value instanceof KvNull)) {
+        filters.add(nullOrMissing(path));
+      }
+      return OrDidFilter.of(filters);
+    }
+
+    @Override
+    public DidFilter visit(ExistsQueryCriteria criteria, Void arg) {
+      return exists(resolvePath(col, criteria.getAttributeReference()));
+    }
+
+    @Override
+    public DidFilter visit(TextQueryCriteria criteria, Void arg) {
+      List<Path> paths = criteria.getAttributeReferences().stream()
+          .map(attRef -> resolvePath(col, attRef))
+          .collect(Collectors.toList());
+      DidFilter positive;
+      if (!criteria.getPhrases().isEmpty()) {
+        positive = AndDidFilter.of(criteria.getPhrases().stream()
+            .map(phrase -> textSearch(paths, ColumnDidFilter.Operator.TEXT_PHRASE,
+                Collections.singletonList(phrase)))
+            .collect(Collectors.toList()));
+      } else if (!criteria.getTerms().isEmpty()) {
+        positive = textSearch(paths, ColumnDidFilter.Operator.TEXT_ANY, criteria.getTerms());
+      } else {
+        return ConstantDidFilter.FALSE;
+      }
+      if (criteria.getNegatedTerms().isEmpty()) {
+        return positive;
+      }
+      return AndDidFilter.of(ImmutableList.of(positive, NotDidFilter.of(
+          textSearch(paths, ColumnDidFilter.Operator.TEXT_ANY, criteria.getNegatedTerms()))));
+    }
+
+    /**
+     * Returns the filter that looks for the given words on the string columns of the given paths,
+     * which are the only ones text indexes contain.
+     */
+    private DidFilter textSearch(List<Path> paths, ColumnDidFilter.Operator operator,
+        List<String> words) {
+      List<KvValue<?>> values = words.stream()
+          .<KvValue<?>>map(StringKvString::new)
+          .collect(Collectors.toList());
+      return OrDidFilter.of(paths.stream()
+          .flatMap(Path::streamValueColumns)
+          .filter(column -> column.type == FieldType.STRING)
+          .map(column -> column.createFilter(operator, values))
+          .collect(Collectors.toList()));
+    }
+
+    private DidFilter exists(Path path) {
+      return OrDidFilter.of(path.streamFieldColumns()
+          .map(column -> column.createFilter(ColumnDidFilter.Operator.NOT_NULL,
+              Collections.emptyList()))
+          .collect(Collectors.toList()));
+    }
+
+    private DidFilter nullOrMissing(Path path) {
+      List<DidFilter> filters = path.streamValueColumns()
+          .filter(column -> column.type == FieldType.NULL)
+          .map(column -> column.createFilter(ColumnDidFilter.Operator.NOT_NULL,
+              Collections.emptyList()))
+          .collect(Collectors.toCollection(ArrayList::new));
+      filters.add(NotDidFilter.of(exists(path)));
+      return OrDidFilter.of(filters);
+    }
+  }
+
+  private static void checkScalar(KvValue<?> value) {
+    if (value instanceof KvDocument || value instanceof KvArray) {
+      throw new UnsupportedCriteriaException("conditions on documents or arrays are not supported");
+    }
+  }
+
+  private Path resolvePath(MetaCollection col, AttributeReference attRef) {
+    List<Key<?>> keys = attRef.getKeys();
+    if (keys.isEmpty()) {
+      throw new IllegalArgumentException("The empty attribute reference is not valid");
+    }
+    List<String> names = new ArrayList<>(keys.size());
+    for (Key<?> key : keys) {
+      if (!(key instanceof ObjectKey)) {
+        throw new UnsupportedCriteriaException("array keys are not supported");
+      }
+      String name = ((ObjectKey) key).getKey();
+      if (!name.isEmpty() && name.chars().allMatch(Character::isDigit)) {
+        throw new UnsupportedCriteriaException("numeric keys may refer to array positions");
+      }
+      names.add(name);
+    }
+
+    TableRef ref = tableRefFactory.createRoot();
+    MetaDocPart docPart = col.getMetaDocPartByTableRef(ref);
+    for (String name : names.subList(0, names.size() - 1)) {
+      if (docPart == null) {
+        return new Path(null, null, null);
+      }
+      checkNotOverflowed(docPart);
+      ref = tableRefFactory.createChild(ref, name);
+      docPart = col.getMetaDocPartByTableRef(ref);
+    }
+    if (docPart == null) {
+      return new Path(null, null, null);
+    }
+    checkNotOverflowed(docPart);
+    String lastKey = names.get(names.size() - 1);
+    MetaDocPart childDocPart = col.getMetaDocPartByTableRef(
+        tableRefFactory.createChild(ref, lastKey));
+    return new Path(docPart, lastKey, childDocPart);
+  }
+
+  private static void checkNotOverflowed(MetaDocPart docPart) {
+    if (docPart.streamFields().anyMatch(field -> field.getType() == FieldType.OVERFLOW)) {
+      throw new UnsupportedCriteriaException("doc part " + docPart.getTableRef()
+          + " has an overflow column");
+    }
+  }
+
+  private static boolean isNumeric(FieldType type) {
+    return type == FieldType.INTEGER || type == FieldType.LONG || type == FieldType.DOUBLE;
+  }
+
+  /**
+   * The doc parts where the values of an attribute reference may be stored.
+   */
+  private static class Path {
+
+    @Nullable
+    private final MetaDocPart parentDocPart;
+    @Nullable
+    private final String lastKey;
+    @Nullable
+    private final MetaDocPart childDocPart;
+
+    private Path(MetaDocPart parentDocPart, String lastKey, MetaDocPart childDocPart) {
+      this.parentDocPart = parentDocPart;
+      this.lastKey = lastKey;
+      this.childDocPart = childDocPart;
+    }
+
+    /**
+     * Returns the columns that store the attribute or that indicate that the attribute is a
+     * document or an array.
+     */
+    private Stream<Column> streamFieldColumns() {
+      if (parentDocPart == null) {
+        return Stream.empty();
+      }
+      return parentDocPart.streamMetaFieldByName(lastKey)
+          .map(field -> new Column(parentDocPart, field.getIdentifier(), field.getType()));
+    }
+
+    /**
+     * Returns the columns that store the scalar values of the attribute, including the ones it
+     * contains if it is an array.
+     */
+    private Stream<Column> streamValueColumns() {
+      Stream<Column> scalarColumns = childDocPart == null ? Stream.empty()
+          : childDocPart.streamScalars()
+              .map(scalar -> new Column(childDocPart, scalar.getIdentifier(), scalar.getType()));
+      return Stream.concat(streamFieldColumns(), scalarColumns)
+          .filter(column -> column.type != FieldType.CHILD);
+    }
+  }
+
+  private static class Column {
+
+    private final MetaDocPart docPart;
+    private final String identifier;
+    private final FieldType type;
+
+    private Column(MetaDocPart docPart, String identifier, FieldType type) {
+      this.docPart = docPart;
+      this.identifier = identifier;
+      this.type = type;
+    }
+
+    private DidFilter createFilter(ColumnDidFilter.Operator operator, List<KvValue<?>> values) {
+      return new ColumnDidFilter(docPart, identifier, type, operator, values);
+    }
+
+    private DidFilter filter(ComparisonQueryCriteria.Operator operator, KvValue<?> value) {
+      FieldType valueType = FieldType.from(value.getType());
+      if (valueType == type || type == FieldType.DOUBLE && isNumeric(valueType)) {
+        KvValue<?> columnValue = valueType == type ? value : toColumnValue(value).get();
+        return createFilter(toColumnOperator(operator), ImmutableList.<KvValue<?>>of(columnValue));
+      }
+      if (isNumeric(type) && isNumeric(valueType)) {
+        return integralFilter(operator, toBigDecimal((KvNumeric<?>) value));
+      }
+      return ConstantDidFilter.FALSE;
+    }
+
+    /**
+     * Returns the value of the type stored on this column that is equal to the given one, if
+     * there is one.
+     */
+    private Optional<KvValue<?>> toColumnValue(KvValue<?> value) {
+      FieldType valueType = FieldType.from(value.getType());
+      if (valueType == type) {
+        return Optional.of(value);
+      }
+      if (!isNumeric(type) || !isNumeric(valueType)) {
+        return Optional.empty();
+      }
+      KvNumeric<?> number = (KvNumeric<?>) value;
+      if (type == FieldType.DOUBLE) {
+        return Optional.of(KvDouble.of(number.doubleValue()));
+      }
+      BigDecimal decimal = toBigDecimal(number);
+      if (decimal == null || !isIntegral(decimal) || decimal.compareTo(getMin()) < 0
+          || decimal.compareTo(getMax()) > 0) {
+        return Optional.empty();
+      }
+      return Optional.of(toIntegralValue(decimal));
+    }
+
+    /**
+     * Returns the filter that compares this integral column with the given number, rounding it
+     * to the nearest integral value that keeps the comparison result and replacing comparisons
+     * with values out of the range of the column by constants.
+     */
+    private DidFilter integralFilter(ComparisonQueryCriteria.Operator operator,
+        @Nullable BigDecimal value) {
+      if (value == null) {
+        return ConstantDidFilter.FALSE;
+      }
+      BigDecimal floor = value.setScale(0, RoundingMode.FLOOR);
+      BigDecimal ceil = value.setScale(0, RoundingMode.CEILING);
+      BigDecimal min = getMin();
+      BigDecimal max = getMax();
+      switch (operator) {
+        case EQ:
+          if (!isIntegral(value) || value.compareTo(min) < 0 || value.compareTo(max) > 0) {
+            return ConstantDidFilter.FALSE;
+          }
+          return createIntegralFilter(ColumnDidFilter.Operator.EQ, value);
+        case GT:
+          if (floor.compareTo(max) >= 0) {
+            return ConstantDidFilter.FALSE;
+          }
+          if (floor.compareTo(min) < 0) {
+            return notNull();
+          }
+          return createIntegralFilter(ColumnDidFilter.Operator.GT, floor);
+        case GTE:
+          if (ceil.compareTo(max) > 0) {
+            return ConstantDidFilter.FALSE;
+          }
+          if (ceil.compareTo(min) <= 0) {
+            return notNull();
+          }
+          return createIntegralFilter(ColumnDidFilter.Operator.GTE, ceil);
+        case LT:
+          if (ceil.compareTo(min) <= 0) {
+            return ConstantDidFilter.FALSE;
+          }
+          if (ceil.compareTo(max) > 0) {
+            return notNull();
+          }
+          return createIntegralFilter(ColumnDidFilter.Operator.LT, ceil);
+        case LTE:
+          if (floor.compareTo(min) < 0) {
+            return ConstantDidFilter.FALSE;
+          }
+          if (floor.compareTo(max) >= 0) {
+            return notNull();
+          }
+          return createIntegralFilter(ColumnDidFilter.Operator.LTE, floor);
+        default:
+          throw new AssertionError("Unexpected operator " + operator);
+      }
+    }
+
+    private DidFilter createIntegralFilter(ColumnDidFilter.Operator operator, BigDecimal value) {
+      return createFilter(operator, ImmutableList.<KvValue<?>>of(toIntegralValue(value)));
+    }
+
+    private DidFilter notNull() {
+      return createFilter(ColumnDidFilter.Operator.NOT_NULL, Collections.emptyList());
+    }
+
+    private KvValue<?> toIntegralValue(BigDecimal value) {
+      if (type == FieldType.INTEGER) {
+        return KvInteger.of(value.intValueExact());
+      }
+      return KvLong.of(value.longValueExact());
+    }
+
+    private BigDecimal getMin() {
+      return type == FieldType.INTEGER ? MIN_INTEGER : MIN_LONG;
+    }
+
+    private BigDecimal getMax() {
+      return type == FieldType.INTEGER ? MAX_INTEGER : MAX_LONG;
+    }
+
+    /**
+     * Returns the given number as a decimal, where infinities are replaced by values out of the
+     * range of all integral columns, or null if it is not a number.
+     */
+    @Nullable
+    private BigDecimal toBigDecimal(KvNumeric<?> number) {
+      if (!(number instanceof KvDouble)) {
+        return BigDecimal.valueOf(number.longValue());
+      }
+      double value = number.doubleValue();
+      if (Double.isNaN(value)) {
+        return null;
+      }
+      if (Double.isInfinite(value)) {
+        return value > 0 ? MAX_LONG.add(BigDecimal.ONE) : MIN_LONG.subtract(BigDecimal.ONE);
+      }
+      return new BigDecimal(value);
+    }
+
+    private static boolean isIntegral(BigDecimal value) {
+      return value.signum() == 0 || value.stripTrailingZeros().scale() <= 0;
+    }
+
+    private static ColumnDidFilter.Operator toColumnOperator(
+        ComparisonQueryCriteria.Operator operator) {
+      switch (operator) {
+        case EQ:
+          return ColumnDidFilter.Operator.EQ;
+        case GT:
+          return ColumnDidFilter.Operator.GT;
+        case GTE:
+          return ColumnDidFilter.Operator.GTE;
+        case LT:
+          return ColumnDidFilter.Operator.LT;
+        case LTE:
+          return ColumnDidFilter.Operator.LTE;
+        default:
+          throw new AssertionError("Unexpected operator " + operator);
+      }
+    }
+  }
+
+  private static class UnsupportedCriteriaException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private UnsupportedCriteriaException(String message) {
+      super(message);
+    }
+  }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.query;
+
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.AttributeReference.Key;
+import com.torodb.core.language.AttributeReference.ObjectKey;
+import com.torodb.kvdocument.values.KvArray;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+/**
+ * Collects the distinct values of an attribute, following the semantics of the MongoDB
+ * {@code distinct} command.
+ *
+ * <p>Arrays found on the path of the attribute are traversed, so the values of the attribute on
+ * each document they contain are collected, and the elements of arrays found at the end of the
+ * path are collected instead of the arrays themselves. Values are compared like
+ * {@link DocumentGrouper} compares group keys, so numbers of different types that represent the
+ * same number are collected once.
+ */
+public class DistinctValues {
+
+  private final DocumentGrouper grouper = new DocumentGrouper(Collections.emptyList());
+
+  /**
+   * Returns the distinct values the given attribute has on the given documents, in the order they
+   * are found.
+   */
+  public static List<KvValue<?>> distinct(Stream<KvDocument> docs, AttributeReference attRef) {
+    DistinctValues distinctValues = new DistinctValues();
+    docs.forEach(doc -> distinctValues.addDocument(doc, attRef));
+    return distinctValues.getValues();
+  }
+
+  /**
+   * Adds the values the given attribute has on the given document.
+   */
+  public void addDocument(KvDocument doc, AttributeReference attRef) {
+    addValues(doc, attRef.getKeys(), 0);
+  }
+
+  /**
+   * Adds a value that has already been read from a document.
+   */
+  public void add(KvValue<?> value) {
+    grouper.getGroup(value);
+  }
+
+  public List<KvValue<?>> getValues() {
+    return grouper.getKeys();
+  }
+
+  private void addValues(KvValue<?> value, List<Key<?>> keys, int keyIndex) {
+    if (keyIndex == keys.size()) {
+      if (value instanceof KvArray) {
+        for (KvValue<?> element : (KvArray) value) {
+          add(element);
+        }
+      } else {
+        add(value);
+      }
+      return;
+    }
+    Key<?> key = keys.get(keyIndex);
+    if (!(key instanceof ObjectKey)) {
+      return;
+    }
+    String keyName = ((ObjectKey) key).getKey();
+    if (value instanceof KvDocument) {
+      KvValue<?> child = ((KvDocument) value).get(keyName);
+      if (child != null) {
+        addValues(child, keys, keyIndex + 1);
+      }
+    } else if (value instanceof KvArray) {
+      KvArray array = (KvArray) value;
+      for (KvValue<?> element : array) {
+        if (element instanceof KvDocument) {
+          addValues(element, keys, keyIndex);
+        }
+      }
+      Integer index = toIndex(keyName);
+      if (index != null && index < array.size()) {
+        addValues(array.get(index), keys, keyIndex + 1);
+      }
+    }
+  }
+
+  @Nullable
+  private static Integer toIndex(String keyName) {
+    if (keyName.isEmpty() || keyName.length() > 9) {
+      return null;
+    }
+    for (int i = 0; i < keyName.length(); i++) {
+      if (!Character.isDigit(keyName.charAt(i))) {
+        return null;
+      }
+    }
+    return Integer.parseInt(keyName);
+  }
+
+}
@@ -0,0 +1,277 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.query;
+
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.util.AttributeRefKvDocResolver;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvNumeric;
+import com.torodb.kvdocument.values.KvUndefined;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.torod.AccumulatorInfo;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+/**
+ * Groups documents and computes the {@link AccumulatorInfo accumulators} of each group, following
+ * the semantics of the MongoDB {@code $group} stage.
+ *
+ * <p>Group keys are compared like MongoDB does, so numbers of different types that represent the
+ * same number belong to the same group and documents without key belong to the null group. Each
+ * group is returned as a document whose {@code _id} is the key of the group, followed by the
+ * value of each accumulator.
+ */
+public class DocumentGrouper {
+
+  private static final String ID_KEY = "_id";
+  private static final BigDecimal MIN_INTEGER = BigDecimal.valueOf(Integer.MIN_VALUE);
+  private static final BigDecimal MAX_INTEGER = BigDecimal.valueOf(Integer.MAX_VALUE);
+  private static final BigDecimal MIN_LONG = BigDecimal.valueOf(Long.MIN_VALUE);
+  private static final BigDecimal MAX_LONG = BigDecimal.valueOf(Long.MAX_VALUE);
+
+  private final List<AccumulatorInfo> accumulators;
+  private final Map<GroupKey, Group> groups = new LinkedHashMap<>();
+
+  public DocumentGrouper(List<AccumulatorInfo> accumulators) {
+    this.accumulators = accumulators;
+  }
+
+  /**
+   * Groups the given documents by the value of the given attribute, or all of them on the same
+   * group if it is null.
+   */
+  public static List<KvDocument> group(Stream<KvDocument> docs,
+      @Nullable AttributeReference groupBy, List<AccumulatorInfo> accumulators) {
+    DocumentGrouper grouper = new DocumentGrouper(accumulators);
+    docs.forEach(doc -> {
+      KvValue<?> key = groupBy == null ? null
+          : AttributeRefKvDocResolver.resolve(groupBy, doc).orElse(null);
+      grouper.getGroup(key).add(doc);
+    });
+    return grouper.getResult();
+  }
+
+  /**
+   * Returns the group of the given key, creating it if it does not exist.
+   *
+   * @param key the key of the group. Null is equivalent to {@link KvNull}
+   */
+  public Group getGroup(@Nullable KvValue<?> key) {
+    KvValue<?> nonNullKey = key == null || key instanceof KvUndefined ? KvNull.getInstance() : key;
+    return groups.computeIfAbsent(new GroupKey(nonNullKey), groupKey -> new Group(groupKey.value));
+  }
+
+  /**
+   * Returns a document for each group, in the order the groups were created.
+   */
+  public List<KvDocument> getResult() {
+    return groups.values().stream()
+        .map(Group::toDocument)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the key of each group, in the order the groups were created.
+   */
+  public List<KvValue<?>> getKeys() {
+    return groups.values().stream()
+        .map(group -> group.key)
+        .collect(Collectors.<KvValue<?>>toList());
+  }
+
+  public class Group {
+
+    private final KvValue<?> key;
+    private final Accumulation[] accumulations;
+
+    private Group(KvValue<?> key) {
+      this.key = key;
+      this.accumulations = new Accumulation[accumulators.size()];
+      for (int i = 0; i < accumulations.length; i++) {
+        accumulations[i] = new Accumulation(accumulators.get(i).getOperator());
+      }
+    }
+
+    /**
+     * Adds a document to this group.
+     */
+    public void add(KvDocument doc) {
+      for (int i = 0; i < accumulations.length; i++) {
+        AttributeReference attRef = accumulators.get(i).getAttributeReference();
+        KvValue<?> value = attRef == null ? null
+            : AttributeRefKvDocResolver.resolve(attRef, doc).orElse(null);
+        accumulations[i].add(value, 1);
+      }
+    }
+
+    /**
+     * Adds the result of an accumulator that has already been computed on some documents of this
+     * group.
+     *
+     * @param accumulatorIndex the index of the accumulator on the list given on construction
+     * @param value            the sum of the values for {@link AccumulatorInfo.Operator#SUM} and
+     *                         {@link AccumulatorInfo.Operator#AVG} and the smallest or greatest
+     *                         value for {@link AccumulatorInfo.Operator#MIN} and
+     *                         {@link AccumulatorInfo.Operator#MAX}
+     * @param count            the number of documents (for {@link AccumulatorInfo.Operator#COUNT})
+     *                         or of numeric values (for {@link AccumulatorInfo.Operator#AVG}) the
+     *                         result was computed on
+     */
+    public void addPartialResult(int accumulatorIndex, @Nullable KvValue<?> value, long count) {
+      accumulations[accumulatorIndex].add(value, count);
+    }
+
+    private KvDocument toDocument() {
+      KvDocument.Builder builder = new KvDocument.Builder()
+          .putValue(ID_KEY, key);
+      for (int i = 0; i < accumulations.length; i++) {
+        builder.putValue(accumulators.get(i).getName(), accumulations[i].getResult());
+      }
+      return builder.build();
+    }
+  }
+
+  private static class Accumulation {
+
+    private final AccumulatorInfo.Operator operator;
+    private long count = 0;
+    private BigDecimal integralSum = BigDecimal.ZERO;
+    private double doubleSum = 0;
+    private boolean hasLong = false;
+    private boolean hasDouble = false;
+    @Nullable
+    private KvValue<?> selected = null;
+
+    private Accumulation(AccumulatorInfo.Operator operator) {
+      this.operator = operator;
+    }
+
+    private void add(@Nullable KvValue<?> value, long valueCount) {
+      switch (operator) {
+        case COUNT:
+          count += valueCount;
+          break;
+        case SUM:
+        case AVG:
+          if (value != null && QueryCriteriaMatcher.isNumeric(value)) {
+            addNumber((KvNumeric<?>) value);
+            count += valueCount;
+          }
+          break;
+        case MIN:
+        case MAX:
+          if (value != null && !(value instanceof KvNull) && !(value instanceof KvUndefined)) {
+            int comparison = selected == null ? 0 : DocumentSorter.compareValues(value, selected);
+            if (selected == null || operator == AccumulatorInfo.Operator.MIN && comparison < 0
+                || operator == AccumulatorInfo.Operator.MAX && comparison > 0) {
+              selected = value;
+            }
+          }
+          break;
+        default:
+          throw new AssertionError("Unexpected operator " + operator);
+      }
+    }
+
+    private void addNumber(KvNumeric<?> value) {
+      if (value instanceof KvDouble) {
+        hasDouble = true;
+        doubleSum += value.doubleValue();
+      } else {
+        hasLong |= value instanceof KvLong;
+        integralSum = integralSum.add(BigDecimal.valueOf(value.longValue()));
+      }
+    }
+
+    private KvValue<?> getResult() {
+      switch (operator) {
+        case COUNT:
+          return count <= Integer.MAX_VALUE ? KvInteger.of((int) count) : KvLong.of(count);
+        case SUM:
+          return getSum();
+        case AVG:
+          if (count == 0) {
+            return KvNull.getInstance();
+          }
+          return KvDouble.of((doubleSum + integralSum.doubleValue()) / count);
+        case MIN:
+        case MAX:
+          return selected == null ? KvNull.getInstance() : selected;
+        default:
+          throw new AssertionError("Unexpected operator " + operator);
+      }
+    }
+
+    private KvValue<?> getSum() {
+      if (hasDouble) {
+        return KvDouble.of(doubleSum + integralSum.doubleValue());
+      }
+      if (!hasLong && integralSum.compareTo(MIN_INTEGER) >= 0
+          && integralSum.compareTo(MAX_INTEGER) <= 0) {
+        return KvInteger.of(integralSum.intValue());
+      }
+      if (integralSum.compareTo(MIN_LONG) >= 0 && integralSum.compareTo(MAX_LONG) <= 0) {
+        return KvLong.of(integralSum.longValue());
+      }
+      return KvDouble.of(integralSum.doubleValue());
+    }
+  }
+
+  /**
+   * A wrapper that makes equal the keys MongoDB considers equal.
+   */
+  private static class GroupKey {
+
+    private final KvValue<?> value;
+
+    private GroupKey(KvValue<?> value) {
+      this.value = value;
+    }
+
+    @Override
+    public int hashCode() {
+      if (QueryCriteriaMatcher.isNumeric(value)) {
+        return Double.hashCode(((KvNumeric<?>) value).doubleValue());
+      }
+      return value.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof GroupKey)) {
+        return false;
+      }
+      return QueryCriteriaMatcher.equalValues(value, ((GroupKey) obj).value);
+    }
+  }
+}
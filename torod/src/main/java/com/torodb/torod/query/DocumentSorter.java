@@ -0,0 +1,167 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.torod.query;
+
+import com.torodb.core.document.ToroDocument;
+import com.torodb.kvdocument.values.KvArray;
+import com.torodb.kvdocument.values.KvBinary;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDate;
+import com.torodb.kvdocument.values.KvDecimal128;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvInstant;
+import com.torodb.kvdocument.values.KvMaxKey;
+import com.torodb.kvdocument.values.KvMinKey;
+import com.torodb.kvdocument.values.KvMongoObjectId;
+import com.torodb.kvdocument.values.KvMongoRegex;
+import com.torodb.kvdocument.values.KvMongoTimestamp;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvNumeric;
+import com.torodb.kvdocument.values.KvString;
+import com.torodb.kvdocument.values.KvUndefined;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.torod.SortFieldInfo;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Sorts and pages documents that are already in memory.
+ *
+ * <p>Values of different types are sorted following the MongoDB type order and missing attributes
+ * are sorted as nulls. When an attribute contains an array, its smallest element is used on
+ * ascending sorts and its greatest on descending ones. Documents, arrays and values whose type has
+ * no natural order are considered equal, so their relative order is kept.
+ */
+public class DocumentSorter {
+
+  private DocumentSorter() {
+  }
+
+  /**
+   * Returns the given documents sorted by the given fields, skipping the first {@code skip} ones
+   * and keeping at most {@code limit} of them (or all if {@code limit} is 0).
+   */
+  public static Stream<ToroDocument> sortAndPage(Stream<ToroDocument> docs,
+      List<SortFieldInfo> sort, long skip, long limit) {
+    Stream<ToroDocument> result = docs;
+    if (!sort.isEmpty()) {
+      result = result.sorted(createComparator(sort));
+    }
+    if (skip > 0) {
+      result = result.skip(skip);
+    }
+    if (limit > 0) {
+      result = result.limit(limit);
+    }
+    return result;
+  }
+
+  public static Comparator<ToroDocument> createComparator(List<SortFieldInfo> sort) {
+    return Comparator.comparing(ToroDocument::getRoot, createRootComparator(sort));
+  }
+
+  /**
+   * Like {@link #createComparator(List)}, but compares the documents themselves instead of the
+   * {@link ToroDocument} that contain them.
+   */
+  public static Comparator<KvDocument> createRootComparator(List<SortFieldInfo> sort) {
+    Comparator<KvDocument> comparator = (doc1, doc2) -> 0;
+    for (SortFieldInfo sortField : sort) {
+      Comparator<KvDocument> fieldComparator = (doc1, doc2) -> compareValues(
+          getSortValue(doc1, sortField), getSortValue(doc2, sortField));
+      comparator = comparator.thenComparing(sortField.isAscending() ? fieldComparator
+          : fieldComparator.reversed());
+    }
+    return comparator;
+  }
+
+  private static KvValue<?> getSortValue(KvDocument doc, SortFieldInfo sortField) {
+    Comparator<KvValue<?>> valueComparator = DocumentSorter::compareValues;
+    return QueryCriteriaMatcher.resolve(sortField.getAttributeReference(), doc).stream()
+        .filter(value -> !(value instanceof KvArray))
+        .reduce(sortField.isAscending() ? (v1, v2) -> min(valueComparator, v1, v2)
+            : (v1, v2) -> min(valueComparator.reversed(), v1, v2))
+        .orElse(KvNull.getInstance());
+  }
+
+  private static KvValue<?> min(Comparator<KvValue<?>> comparator, KvValue<?> value1,
+      KvValue<?> value2) {
+    return comparator.compare(value1, value2) <= 0 ? value1 : value2;
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  static int compareValues(KvValue<?> value1, KvValue<?> value2) {
+    int rankComparison = Integer.compare(getTypeRank(value1), getTypeRank(value2));
+    if (rankComparison != 0) {
+      return rankComparison;
+    }
+    if (value1 instanceof KvNumeric && value2 instanceof KvNumeric) {
+      return QueryCriteriaMatcher.compareNumbers((KvNumeric<?>) value1, (KvNumeric<?>) value2);
+    }
+    if (value1.getType().equals(value2.getType()) && value1.getValue() instanceof Comparable) {
+      return ((Comparable) value1.getValue()).compareTo(value2.getValue());
+    }
+    return 0;
+  }
+
+  private static int getTypeRank(KvValue<?> value) {
+    if (value instanceof KvMinKey) {
+      return 0;
+    }
+    if (value instanceof KvNull || value instanceof KvUndefined) {
+      return 1;
+    }
+    if (value instanceof KvNumeric || value instanceof KvDecimal128) {
+      return 2;
+    }
+    if (value instanceof KvString) {
+      return 3;
+    }
+    if (value instanceof KvDocument) {
+      return 4;
+    }
+    if (value instanceof KvArray) {
+      return 5;
+    }
+    if (value instanceof KvBinary) {
+      return 6;
+    }
+    if (value instanceof KvMongoObjectId) {
+      return 7;
+    }
+    if (value instanceof KvBoolean) {
+      return 8;
+    }
+    if (value instanceof KvInstant || value instanceof KvDate) {
+      return 9;
+    }
+    if (value instanceof KvMongoTimestamp) {
+      return 10;
+    }
+    if (value instanceof KvMongoRegex) {
+      return 11;
+    }
+    if (value instanceof KvMaxKey) {
+      return 13;
+    }
+    return 12;
+  }
+
+}
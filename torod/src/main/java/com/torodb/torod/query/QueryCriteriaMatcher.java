@@ -0,0 +1,271 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.torod.query;
+
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.AttributeReference.ArrayKey;
+import com.torodb.core.language.AttributeReference.Key;
+import com.torodb.core.language.AttributeReference.ObjectKey;
+import com.torodb.core.language.querycriteria.AndQueryCriteria;
+import com.torodb.core.language.querycriteria.ComparisonQueryCriteria;
+import com.torodb.core.language.querycriteria.ExistsQueryCriteria;
+import com.torodb.core.language.querycriteria.InQueryCriteria;
+import com.torodb.core.language.querycriteria.NotQueryCriteria;
+import com.torodb.core.language.querycriteria.OrQueryCriteria;
+import com.torodb.core.language.querycriteria.QueryCriteria;
+import com.torodb.core.language.querycriteria.QueryCriteriaVisitor;
+import com.torodb.core.language.querycriteria.TextQueryCriteria;
+import com.torodb.core.language.querycriteria.TrueQueryCriteria;
+import com.torodb.kvdocument.values.KvArray;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvNumeric;
+import com.torodb.kvdocument.values.KvString;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates {@link QueryCriteria query criterias} on documents that are already in memory.
+ *
+ * <p>It is used by backends that don't have a better way to evaluate them and when a criteria
+ * cannot be translated to a {@link com.torodb.core.backend.query.DidFilter}.
+ */
+public class QueryCriteriaMatcher {
+
+  private static final MatcherVisitor VISITOR = new MatcherVisitor();
+  private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private QueryCriteriaMatcher() {
+  }
+
+  public static boolean matches(QueryCriteria criteria, KvDocument doc) {
+    return criteria.accept(VISITOR, doc);
+  }
+
+  /**
+   * Returns the values the given reference points to on the document, following arrays as MongoDB
+   * does: a key applied to an array is applied to each document it contains and arrays found at
+   * the end of the path are returned with all their elements.
+   */
+  static List<KvValue<?>> resolve(AttributeReference attRef, KvDocument doc) {
+    List<KvValue<?>> result = new ArrayList<>();
+    resolve(doc, attRef.getKeys(), 0, result);
+    return result;
+  }
+
+  private static void resolve(KvValue<?> current, List<Key<?>> keys, int keyIndex,
+      List<KvValue<?>> result) {
+    if (keyIndex == keys.size()) {
+      result.add(current);
+      if (current instanceof KvArray) {
+        for (KvValue<?> element : (KvArray) current) {
+          result.add(element);
+        }
+      }
+      return;
+    }
+    Key<?> key = keys.get(keyIndex);
+    if (current instanceof KvDocument) {
+      if (key instanceof ObjectKey) {
+        KvValue<?> child = ((KvDocument) current).get(((ObjectKey) key).getKey());
+        if (child != null) {
+          resolve(child, keys, keyIndex + 1, result);
+        }
+      }
+    } else if (current instanceof KvArray) {
+      KvArray array = (KvArray) current;
+      OptionalInt index = getIndex(key);
+      if (index.isPresent() && index.getAsInt() < array.size()) {
+        resolve(array.get(index.getAsInt()), keys, keyIndex + 1, result);
+      }
+      for (KvValue<?> element : array) {
+        if (element instanceof KvDocument) {
+          resolve(element, keys, keyIndex, result);
+        }
+      }
+    }
+  }
+
+  private static OptionalInt getIndex(Key<?> key) {
+    if (key instanceof ArrayKey) {
+      return OptionalInt.of(((ArrayKey) key).getIndex());
+    }
+    String name = ((ObjectKey) key).getKey();
+    if (name.isEmpty() || name.length() > 9 || !name.chars().allMatch(Character::isDigit)) {
+      return OptionalInt.empty();
+    }
+    return OptionalInt.of(Integer.parseInt(name));
+  }
+
+  static boolean isNumeric(KvValue<?> value) {
+    return value instanceof KvInteger || value instanceof KvLong || value instanceof KvDouble;
+  }
+
+  /**
+   * Returns true iff both values are equal, considering numbers of different types equal when
+   * they represent the same number.
+   */
+  static boolean equalValues(KvValue<?> value1, KvValue<?> value2) {
+    if (isNumeric(value1) && isNumeric(value2)) {
+      return compareNumbers((KvNumeric<?>) value1, (KvNumeric<?>) value2) == 0;
+    }
+    return value1.equals(value2);
+  }
+
+  static int compareNumbers(KvNumeric<?> value1, KvNumeric<?> value2) {
+    if (value1 instanceof KvDouble || value2 instanceof KvDouble) {
+      return Double.compare(value1.doubleValue(), value2.doubleValue());
+    }
+    return Long.compare(value1.longValue(), value2.longValue());
+  }
+
+  static List<String> splitWords(String text) {
+    return Arrays.stream(WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+        .filter(word -> !word.isEmpty())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Returns true iff the given term has words and all of them are contained on the given set.
+   */
+  private static boolean containsTerm(Set<String> words, String term) {
+    List<String> termWords = splitWords(term);
+    return !termWords.isEmpty() && words.containsAll(termWords);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static boolean compare(KvValue<?> docValue, ComparisonQueryCriteria.Operator operator,
+      KvValue<?> value) {
+    int comparison;
+    if (isNumeric(docValue) && isNumeric(value)) {
+      comparison = compareNumbers((KvNumeric<?>) docValue, (KvNumeric<?>) value);
+    } else if (docValue.getType().equals(value.getType())
+        && docValue.getValue() instanceof Comparable) {
+      comparison = ((Comparable) docValue.getValue()).compareTo(value.getValue());
+    } else {
+      return operator == ComparisonQueryCriteria.Operator.EQ && docValue.equals(value);
+    }
+    switch (operator) {
+      case EQ:
+        return comparison == 0;
+      case GT:
+        return comparison > 0;
+      case GTE:
+        return comparison >= 0;
+      case LT:
+        return comparison < 0;
+      case LTE:
+        return comparison <= 0;
+      default:
+        throw new AssertionError("Unexpected operator " + operator);
+    }
+  }
+
+  private static class MatcherVisitor implements QueryCriteriaVisitor<Boolean, KvDocument> {
+
+    @Override
+    public Boolean visit(TrueQueryCriteria criteria, KvDocument arg) {
+      return true;
+    }
+
+    @Override
+    public Boolean visit(AndQueryCriteria criteria, KvDocument arg) {
+      return criteria.getSubQueryCriterias().stream()
+          .allMatch(subCriteria -> subCriteria.accept(this, arg));
+    }
+
+    @Override
+    public Boolean visit(OrQueryCriteria criteria, KvDocument arg) {
+      return criteria.getSubQueryCriterias().stream()
+          .anyMatch(subCriteria -> subCriteria.accept(this, arg));
+    }
+
+    @Override
+    public Boolean visit(NotQueryCriteria criteria, KvDocument arg) {
+      return !criteria.getSubQueryCriteria().accept(this, arg);
+    }
+
+    @Override
+    public Boolean visit(ComparisonQueryCriteria criteria, KvDocument arg) {
+      List<KvValue<?>> docValues = resolve(criteria.getAttributeReference(), arg);
+      if (criteria.getValue() instanceof KvNull && docValues.isEmpty()) {
+        return criteria.getOperator() == ComparisonQueryCriteria.Operator.EQ
+            || criteria.getOperator() == ComparisonQueryCriteria.Operator.GTE
+            || criteria.getOperator() == ComparisonQueryCriteria.Operator.LTE;
+      }
+      return docValues.stream()
+          .anyMatch(docValue -> compare(docValue, criteria.getOperator(), criteria.getValue()));
+    }
+
+    @Override
+    public Boolean visit(InQueryCriteria criteria, KvDocument arg) {
+      List<KvValue<?>> docValues = resolve(criteria.getAttributeReference(), arg);
+      if (docValues.isEmpty()) {
+        return criteria.getValues().stream().anyMatch(value -> value instanceof KvNull);
+      }
+      return docValues.stream()
+          .anyMatch(docValue -> criteria.getValues().stream()
+              .anyMatch(value -> equalValues(docValue, value)));
+    }
+
+    @Override
+    public Boolean visit(ExistsQueryCriteria criteria, KvDocument arg) {
+      return !resolve(criteria.getAttributeReference(), arg).isEmpty();
+    }
+
+    /**
+     * Words are compared ignoring their case, but they are not stemmed as the full text search of
+     * the backends usually does, so some documents found by the database are not found here.
+     */
+    @Override
+    public Boolean visit(TextQueryCriteria criteria, KvDocument arg) {
+      List<String> texts = criteria.getAttributeReferences().stream()
+          .flatMap(attRef -> resolve(attRef, arg).stream())
+          .filter(value -> value instanceof KvString)
+          .map(value -> ((KvString) value).getValue().toLowerCase(Locale.ROOT))
+          .collect(Collectors.toList());
+      Set<String> words = texts.stream()
+          .flatMap(text -> splitWords(text).stream())
+          .collect(Collectors.toSet());
+      boolean found;
+      if (!criteria.getPhrases().isEmpty()) {
+        found = criteria.getPhrases().stream()
+            .map(phrase -> phrase.toLowerCase(Locale.ROOT))
+            .allMatch(phrase -> texts.stream().anyMatch(text -> text.contains(phrase)));
+      } else {
+        found = criteria.getTerms().stream()
+            .anyMatch(term -> containsTerm(words, term));
+      }
+      return found && criteria.getNegatedTerms().stream()
+          .noneMatch(term -> containsTerm(words, term));
+    }
+
+  }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.torod.query;
+
+import com.torodb.core.document.ToroDocument;
+import com.torodb.core.language.querycriteria.AndQueryCriteria;
+import com.torodb.core.language.querycriteria.QueryCriteria;
+import com.torodb.core.language.querycriteria.TextQueryCriteria;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvString;
+
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Ranks the documents found by a text search that are already in memory, as the backends do when
+ * they run the search.
+ *
+ * <p>The score of a document is the number of words of its text indexed attributes that are
+ * searched terms or words of the searched phrases. Like on {@link QueryCriteriaMatcher}, words are
+ * compared ignoring their case but they are not stemmed, so the order may differ from the one of
+ * the backend.
+ */
+public class TextScorer {
+
+  private TextScorer() {
+  }
+
+  /**
+   * Returns the text search that must be fulfilled by the documents that fulfil the given
+   * criteria, if there is one.
+   */
+  public static Optional<TextQueryCriteria> getTextSearch(QueryCriteria criteria) {
+    if (criteria instanceof TextQueryCriteria) {
+      return Optional.of((TextQueryCriteria) criteria);
+    }
+    if (criteria instanceof AndQueryCriteria) {
+      for (QueryCriteria subCriteria : ((AndQueryCriteria) criteria).getSubQueryCriterias()) {
+        Optional<TextQueryCriteria> textSearch = getTextSearch(subCriteria);
+        if (textSearch.isPresent()) {
+          return textSearch;
+        }
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Returns the given documents sorted from the most to the least relevant for the given text
+   * search. Documents with the same score keep their relative order.
+   */
+  public static List<ToroDocument> sortByScore(List<ToroDocument> docs,
+      TextQueryCriteria textSearch) {
+    Set<String> searchedWords = Stream.concat(textSearch.getTerms().stream(),
+        textSearch.getPhrases().stream())
+        .flatMap(text -> QueryCriteriaMatcher.splitWords(text).stream())
+        .collect(Collectors.toSet());
+    Map<ToroDocument, Long> scores = new IdentityHashMap<>(docs.size());
+    for (ToroDocument doc : docs) {
+      scores.put(doc, score(textSearch, searchedWords, doc.getRoot()));
+    }
+    return docs.stream()
+        .sorted(Comparator.comparing(scores::get, Comparator.reverseOrder()))
+        .collect(Collectors.toList());
+  }
+
+  private static long score(TextQueryCriteria textSearch, Set<String> searchedWords,
+      KvDocument doc) {
+    return textSearch.getAttributeReferences().stream()
+        .flatMap(attRef -> QueryCriteriaMatcher.resolve(attRef, doc).stream())
+        .filter(value -> value instanceof KvString)
+        .flatMap(value -> QueryCriteriaMatcher.splitWords(((KvString) value).getValue()).stream())
+        .filter(searchedWords::contains)
+        .count();
+  }
+
+}
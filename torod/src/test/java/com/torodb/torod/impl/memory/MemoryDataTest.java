@@ -0,0 +1,125 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.torod.impl.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.torodb.core.exceptions.user.UniqueIndexViolationException;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvInteger;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class MemoryDataTest {
+
+  private MemoryData data;
+
+  @Before
+  public void setUp() {
+    data = new MemoryData();
+  }
+
+  @Test
+  public void testReadersSeeTheSnapshotTheyStartedWith() throws Exception {
+    try (MemoryData.MdWriteTransaction trans = data.openWriteTransaction()) {
+      trans.insert("db", "col", Stream.of(createDoc(1)));
+      trans.commit();
+    }
+
+    try (MemoryData.MdReadTransaction readTrans = data.openReadTransaction()) {
+      try (MemoryData.MdWriteTransaction trans = data.openWriteTransaction()) {
+        trans.insert("db", "col", Stream.of(createDoc(2)));
+        trans.commit();
+      }
+      assertEquals(1, readTrans.countAll("db", "col"));
+      assertFalse(readTrans.findById("db", "col", KvInteger.of(2)).isPresent());
+    }
+
+    try (MemoryData.MdReadTransaction readTrans = data.openReadTransaction()) {
+      assertEquals(2, readTrans.countAll("db", "col"));
+      assertTrue(readTrans.findById("db", "col", KvInteger.of(2)).isPresent());
+    }
+  }
+
+  @Test
+  public void testWritersOnDifferentCollectionsDoNotBlock() throws Exception {
+    try (MemoryData.MdWriteTransaction trans1 = data.openWriteTransaction()) {
+      trans1.insert("db", "col1", Stream.of(createDoc(1)));
+
+      CompletableFuture.runAsync(() -> {
+        try (MemoryData.MdWriteTransaction trans2 = data.openWriteTransaction()) {
+          trans2.insert("db", "col2", Stream.of(createDoc(1)));
+          trans2.commit();
+        } catch (UniqueIndexViolationException ex) {
+          throw new AssertionError(ex);
+        }
+      }).get(5, TimeUnit.SECONDS);
+
+      trans1.commit();
+    }
+
+    try (MemoryData.MdReadTransaction readTrans = data.openReadTransaction()) {
+      assertEquals(1, readTrans.countAll("db", "col1"));
+      assertEquals(1, readTrans.countAll("db", "col2"));
+    }
+  }
+
+  @Test
+  public void testRollbackDiscardsChanges() throws Exception {
+    try (MemoryData.MdWriteTransaction trans = data.openWriteTransaction()) {
+      trans.insert("db", "col", Stream.of(createDoc(1)));
+      trans.rollback();
+      trans.commit();
+    }
+
+    try (MemoryData.MdReadTransaction readTrans = data.openReadTransaction()) {
+      assertFalse(readTrans.existsCollection("db", "col"));
+    }
+  }
+
+  @Test(expected = UniqueIndexViolationException.class)
+  public void testRepeatedIdIsRejected() throws Exception {
+    try (MemoryData.MdWriteTransaction trans = data.openWriteTransaction()) {
+      trans.insert("db", "col", Stream.of(createDoc(1)));
+      trans.insert("db", "col", Stream.of(createDoc(1)));
+    }
+  }
+
+  @Test
+  public void testDroppingAMissingIndexReturnsFalse() throws Exception {
+    try (MemoryData.MdWriteTransaction trans = data.openWriteTransaction()) {
+      trans.insert("db", "col", Stream.of(createDoc(1)));
+
+      assertFalse(trans.dropIndex("db", "col", "missing_index"));
+      assertFalse(trans.dropIndex("db", "missing_col", "missing_index"));
+    }
+  }
+
+  private KvDocument createDoc(int id) {
+    return new KvDocument.Builder()
+        .putValue("_id", KvInteger.of(id))
+        .build();
+  }
+
+}
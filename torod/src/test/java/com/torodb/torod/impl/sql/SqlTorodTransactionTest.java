@@ -0,0 +1,213 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.torod.impl.sql;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.torodb.backend.derby.DerbyDbBackendBundle;
+import com.torodb.backend.derby.driver.DerbyDbBackendConfigBuilder;
+import com.torodb.core.backend.BackendBundle;
+import com.torodb.core.bundle.BundleConfig;
+import com.torodb.core.bundle.BundleConfigImpl;
+import com.torodb.core.cursors.Cursor;
+import com.torodb.core.document.ToroDocument;
+import com.torodb.core.guice.EssentialModule;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.querycriteria.QueryCriteria;
+import com.torodb.core.language.querycriteria.TextQueryCriteria;
+import com.torodb.core.language.querycriteria.TrueQueryCriteria;
+import com.torodb.core.logging.DefaultLoggerFactory;
+import com.torodb.core.supervision.Supervisor;
+import com.torodb.core.supervision.SupervisorDecision;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.torod.IndexFieldInfo;
+import com.torodb.torod.ReadOnlyTorodTransaction;
+import com.torodb.torod.SharedWriteTorodTransaction;
+import com.torodb.torod.SortFieldInfo;
+import com.torodb.torod.SqlTorodBundle;
+import com.torodb.torod.SqlTorodConfig;
+import com.torodb.torod.TorodConnection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Tests {@link SqlTorodTransaction} on an in memory Derby backend.
+ */
+public class SqlTorodTransactionTest {
+
+  private static final String DB_NAME = "test";
+
+  private BackendBundle backendBundle;
+  private SqlTorodBundle torodBundle;
+  private TorodConnection connection;
+
+  @Before
+  public void setUp() {
+    Supervisor supervisor = new Supervisor() {
+      @Override
+      public SupervisorDecision onError(Object supervised, Throwable error) {
+        throw new AssertionError("error on " + supervised, error);
+      }
+    };
+    Injector essentialInjector = Guice.createInjector(
+        new EssentialModule(
+            DefaultLoggerFactory.getInstance(),
+            () -> true,
+            Clock.systemUTC()
+        )
+    );
+
+    BundleConfig generalConfig = new BundleConfigImpl(essentialInjector, supervisor);
+    backendBundle = new DerbyDbBackendBundle(
+        new DerbyDbBackendConfigBuilder(generalConfig)
+        .setInMemory(true)
+        .setEmbedded(true)
+        .build()
+    );
+    backendBundle.start().join();
+
+    torodBundle = new SqlTorodBundle(new SqlTorodConfig(
+        backendBundle,
+        essentialInjector,
+        supervisor)
+    );
+    torodBundle.start().join();
+
+    connection = torodBundle.getExternalInterface().getTorodServer().openConnection();
+  }
+
+  @After
+  public void tearDown() {
+    if (connection != null) {
+      connection.close();
+    }
+    if (torodBundle != null) {
+      torodBundle.stop().join();
+    }
+    if (backendBundle != null) {
+      backendBundle.stop().join();
+    }
+  }
+
+  @Test
+  public void testSortedFindFollowsTheSortInsteadOfTheInsertionOrder() throws Exception {
+    String colName = "sortedFind";
+    insert(colName, 10, i -> new KvDocument.Builder()
+        .putValue("i", i)
+        .putValue("n", 100 - i)
+        .build());
+
+    List<SortFieldInfo> sort = ImmutableList.of(new SortFieldInfo(ref("n"), true));
+
+    assertEquals(ImmutableList.of(9, 8, 7, 6, 5, 4, 3, 2, 1, 0),
+        find(colName, sort, 0, 0, 3));
+    assertEquals(ImmutableList.of(7, 6, 5),
+        find(colName, sort, 2, 3, 2));
+  }
+
+  @Test
+  public void testStringsAreSortedByTheirBinaryRepresentation() throws Exception {
+    String colName = "sortedStrings";
+    List<String> values = ImmutableList.of("b", "a", "B", "A", "á", "_");
+    insert(colName, values.size(), i -> new KvDocument.Builder()
+        .putValue("i", i)
+        .putValue("s", values.get(i))
+        .build());
+
+    List<SortFieldInfo> sort = ImmutableList.of(new SortFieldInfo(ref("s"), true));
+
+    assertEquals(ImmutableList.of(3, 2, 5, 1, 0, 4), find(colName, sort, 0, 0, 100));
+  }
+
+  @Test
+  public void testTextSearchesWithoutSortAreSortedByRelevance() throws Exception {
+    String colName = "textSearch";
+    try (SharedWriteTorodTransaction trans = connection.openWriteTransaction(false)) {
+      trans.createIndex(DB_NAME, colName, "t_text",
+          ImmutableList.of(new IndexFieldInfo(ref("t"), FieldIndexOrdering.TEXT)), false);
+      trans.commit();
+    }
+    List<String> texts = ImmutableList.of("tea", "coffee", "coffee and cake", "cake");
+    insert(colName, texts.size(), i -> new KvDocument.Builder()
+        .putValue("i", i)
+        .putValue("t", texts.get(i))
+        .build());
+
+    QueryCriteria criteria = new TextQueryCriteria(ImmutableList.of(ref("t")),
+        ImmutableList.of("coffee", "cake"), ImmutableList.of(), ImmutableList.of());
+    List<Integer> found = find(colName, criteria, Collections.emptyList(), 0, 0, 100);
+    assertEquals(3, found.size());
+    assertEquals(Integer.valueOf(2), found.get(0));
+  }
+
+  private void insert(String colName, int count, IntFunction<KvDocument> docFunction)
+      throws Exception {
+    try (SharedWriteTorodTransaction trans = connection.openWriteTransaction(false)) {
+      List<KvDocument> docs = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        docs.add(docFunction.apply(i));
+      }
+      trans.insert(DB_NAME, colName, docs.stream());
+      trans.commit();
+    }
+  }
+
+  /**
+   * Returns the value of the attribute {@code i} of the documents found, reading them in batches
+   * of the given size.
+   */
+  private List<Integer> find(String colName, List<SortFieldInfo> sort, long skip, long limit,
+      int batchSize) {
+    return find(colName, TrueQueryCriteria.getInstance(), sort, skip, limit, batchSize);
+  }
+
+  private List<Integer> find(String colName, QueryCriteria criteria, List<SortFieldInfo> sort,
+      long skip, long limit, int batchSize) {
+    List<Integer> result = new ArrayList<>();
+    try (ReadOnlyTorodTransaction trans = connection.openReadOnlyTransaction();
+        Cursor<ToroDocument> cursor = trans.findByCriteria(DB_NAME, colName, criteria, sort, skip,
+            limit).asDocCursor()) {
+      while (cursor.hasNext()) {
+        result.addAll(cursor.getNextBatch(batchSize).stream()
+            .map(doc -> doc.getRoot().get("i"))
+            .map(value -> (Integer) value.getValue())
+            .collect(Collectors.toList()));
+      }
+    }
+    return result;
+  }
+
+  private static AttributeReference ref(String key) {
+    return new AttributeReference.Builder()
+        .addObjectKey(key)
+        .build();
+  }
+
+}
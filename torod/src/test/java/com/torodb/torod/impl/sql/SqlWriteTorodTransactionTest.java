@@ -0,0 +1,322 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.torod.impl.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.torodb.backend.derby.DerbyDbBackendBundle;
+import com.torodb.backend.derby.driver.DerbyDbBackendConfigBuilder;
+import com.torodb.core.backend.BackendBundle;
+import com.torodb.core.bundle.BundleConfig;
+import com.torodb.core.bundle.BundleConfigImpl;
+import com.torodb.core.d2r.MaxColumnsOverflowPolicy;
+import com.torodb.core.exceptions.user.UnsupportedCompoundIndexException;
+import com.torodb.core.exceptions.user.UnsupportedOverflowedIndexException;
+import com.torodb.core.exceptions.user.UnsupportedUniqueIndexException;
+import com.torodb.core.guice.EssentialModule;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.logging.DefaultLoggerFactory;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.MetaCollection;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaIndex;
+import com.torodb.core.supervision.Supervisor;
+import com.torodb.core.supervision.SupervisorDecision;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import com.torodb.torod.IndexFieldInfo;
+import com.torodb.torod.SharedWriteTorodTransaction;
+import com.torodb.torod.SqlTorodBundle;
+import com.torodb.torod.SqlTorodConfig;
+import com.torodb.torod.TorodConnection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Tests {@link SqlWriteTorodTransaction} on an in memory Derby backend.
+ */
+public class SqlWriteTorodTransactionTest {
+
+  private static final String DB_NAME = "test";
+
+  private BackendBundle backendBundle;
+  private SqlTorodBundle torodBundle;
+  private TorodConnection connection;
+
+  @Before
+  public void setUp() {
+    Supervisor supervisor = new Supervisor() {
+      @Override
+      public SupervisorDecision onError(Object supervised, Throwable error) {
+        throw new AssertionError("error on " + supervised, error);
+      }
+    };
+    Injector essentialInjector = Guice.createInjector(
+        new EssentialModule(
+            DefaultLoggerFactory.getInstance(),
+            () -> true,
+            Clock.systemUTC()
+        )
+    );
+
+    BundleConfig generalConfig = new BundleConfigImpl(essentialInjector, supervisor);
+    backendBundle = new DerbyDbBackendBundle(
+        new DerbyDbBackendConfigBuilder(generalConfig)
+        .setInMemory(true)
+        .setEmbedded(true)
+        .build()
+    );
+    backendBundle.start().join();
+
+    torodBundle = new SqlTorodBundle(new SqlTorodConfig(
+        backendBundle,
+        essentialInjector,
+        supervisor,
+        new MaxColumnsOverflowPolicy(2))
+    );
+    torodBundle.start().join();
+
+    connection = torodBundle.getExternalInterface().getTorodServer().openConnection();
+  }
+
+  @After
+  public void tearDown() {
+    if (connection != null) {
+      connection.close();
+    }
+    if (torodBundle != null) {
+      torodBundle.stop().join();
+    }
+    if (backendBundle != null) {
+      backendBundle.stop().join();
+    }
+  }
+
+  @Test
+  public void testIndexesOnOverflowedDocPartsAreRejected() throws Exception {
+    String colName = "overflowed";
+    //with at most two fields per doc part, b is stored on the overflow column
+    insert(colName, new KvDocument.Builder()
+        .putValue("_id", KvInteger.of(1))
+        .putValue("a", KvInteger.of(2))
+        .putValue("b", KvInteger.of(3))
+        .build());
+
+    assertCreateIndexIsRejected(colName, "a_1", ref("a"));
+    assertCreateIndexIsRejected(colName, "sub.x_1", ref("sub", "x"));
+  }
+
+  @Test
+  public void testIndexedKeysAreNotOverflowed() throws Exception {
+    String colName = "indexed";
+    try (SharedWriteTorodTransaction trans = connection.openWriteTransaction(false)) {
+      trans.createIndex(DB_NAME, colName, "c_1",
+          ImmutableList.of(new IndexFieldInfo(ref("c"), true)), false);
+      trans.commit();
+    }
+    insert(colName, new KvDocument.Builder()
+        .putValue("_id", KvInteger.of(1))
+        .putValue("a", KvInteger.of(2))
+        .putValue("b", KvInteger.of(3))
+        .putValue("c", KvInteger.of(4))
+        .build());
+
+    try (SharedWriteTorodTransaction trans = connection.openWriteTransaction(false)) {
+      MetaDocPart rootDocPart = getMetaCollection(trans, colName)
+          .streamContainedMetaDocParts()
+          .filter(docPart -> docPart.getTableRef().isRoot())
+          .findAny()
+          .get();
+      assertNull(rootDocPart.getMetaFieldByNameAndType("b", FieldType.INTEGER));
+      assertNotNull(rootDocPart.getMetaFieldByNameAndType("c", FieldType.INTEGER));
+    }
+  }
+
+  @Test
+  public void testCompoundIndexesOnOneDocPartAreAccepted() throws Exception {
+    String colName = "compound";
+    try (SharedWriteTorodTransaction trans = connection.openWriteTransaction(false)) {
+      assertTrue(trans.createIndex(DB_NAME, colName, "a_1_b_-1", ImmutableList.of(
+          new IndexFieldInfo(ref("a"), true),
+          new IndexFieldInfo(ref("b"), false)), false));
+      assertTrue(trans.createIndex(DB_NAME, colName, "sub.x_1_sub.y_1", ImmutableList.of(
+          new IndexFieldInfo(ref("sub", "x"), true),
+          new IndexFieldInfo(ref("sub", "y"), true)), true));
+      trans.commit();
+    }
+    insert(colName, new KvDocument.Builder()
+        .putValue("_id", KvInteger.of(1))
+        .putValue("a", KvInteger.of(2))
+        .putValue("b", KvInteger.of(3))
+        .putValue("sub", new KvDocument.Builder()
+            .putValue("x", KvInteger.of(4))
+            .putValue("y", KvInteger.of(5))
+            .build())
+        .build());
+
+    try (SharedWriteTorodTransaction trans = connection.openWriteTransaction(false)) {
+      MetaCollection metaCol = getMetaCollection(trans, colName);
+      assertEquals(2, metaCol.getMetaIndexByName("a_1_b_-1").size());
+      MetaIndex subIndex = metaCol.getMetaIndexByName("sub.x_1_sub.y_1");
+      assertEquals(2, subIndex.size());
+      assertTrue(subIndex.isUnique());
+    }
+  }
+
+  @Test
+  public void testCompoundIndexesAcrossDocPartsAreRejected() throws Exception {
+    String colName = "compound";
+    ImmutableList<IndexFieldInfo> fields = ImmutableList.of(
+        new IndexFieldInfo(ref("a"), true),
+        new IndexFieldInfo(ref("sub", "x"), true));
+
+    try (SharedWriteTorodTransaction trans = connection.openWriteTransaction(false)) {
+      trans.createIndex(DB_NAME, colName, "a_1_sub.x_1", fields, false);
+      fail("A compound index across doc parts should have been rejected");
+    } catch (UnsupportedCompoundIndexException ex) {
+      assertEquals("a_1_sub.x_1", ex.getIndex());
+    }
+    try (SharedWriteTorodTransaction trans = connection.openWriteTransaction(false)) {
+      trans.createIndex(DB_NAME, colName, "a_1_sub.x_1", fields, true);
+      fail("A unique index across doc parts should have been rejected");
+    } catch (UnsupportedUniqueIndexException ex) {
+      assertEquals("a_1_sub.x_1", ex.getIndex());
+    }
+  }
+
+  @Test
+  public void testDeleteByAttRefInDeletesNestedDocParts() throws Exception {
+    String colName = "deleteById";
+    insert(colName, createDocWithSubDoc(1, 10));
+    insert(colName, createDocWithSubDoc(2, 20));
+
+    try (SharedWriteTorodTransaction trans = connection.openWriteTransaction(false)) {
+      List<KvValue<?>> deleted = trans.deleteByAttRefIn(DB_NAME, colName, ref("_id"),
+          ImmutableList.of(KvInteger.of(1), KvInteger.of(3)));
+      assertEquals(Collections.singletonList(KvInteger.of(1)), deleted);
+      trans.commit();
+    }
+
+    try (SharedWriteTorodTransaction trans = connection.openWriteTransaction(false)) {
+      assertEquals(1, trans.countAll(DB_NAME, colName));
+      //the rows of the sub document must be deleted with the root one
+      assertTrue(trans.findByAttRefIn(DB_NAME, colName, ref("sub", "x"),
+          ImmutableList.of(KvInteger.of(10))).asDidCursor().getRemaining().isEmpty());
+      assertEquals(1, trans.findByAttRefIn(DB_NAME, colName, ref("sub", "x"),
+          ImmutableList.of(KvInteger.of(20))).asDidCursor().getRemaining().size());
+    }
+  }
+
+  @Test
+  public void testDeleteByAttRefInWithoutMatchingFieldDeletesNothing() throws Exception {
+    String colName = "deleteById";
+    insert(colName, createDocWithSubDoc(1, 10));
+
+    try (SharedWriteTorodTransaction trans = connection.openWriteTransaction(false)) {
+      assertTrue(trans.deleteByAttRefIn(DB_NAME, colName, ref("_id"),
+          Collections.emptyList()).isEmpty());
+      //there is no string _id field on the root doc part
+      assertTrue(trans.deleteByAttRefIn(DB_NAME, colName, ref("_id"),
+          ImmutableList.of(new StringKvString("1"))).isEmpty());
+      assertTrue(trans.deleteByAttRefIn(DB_NAME, colName, ref("missing"),
+          ImmutableList.of(KvInteger.of(1))).isEmpty());
+      assertTrue(trans.deleteByAttRefIn(DB_NAME, "missing", ref("_id"),
+          ImmutableList.of(KvInteger.of(1))).isEmpty());
+
+      assertEquals(1, trans.countAll(DB_NAME, colName));
+    }
+  }
+
+  @Test
+  public void testDeleteByAttRefInOnNestedFields() throws Exception {
+    String colName = "deleteBySubField";
+    insert(colName, createDocWithSubDoc(1, 10));
+    insert(colName, createDocWithSubDoc(2, 20));
+
+    try (SharedWriteTorodTransaction trans = connection.openWriteTransaction(false)) {
+      List<KvValue<?>> deleted = trans.deleteByAttRefIn(DB_NAME, colName, ref("sub", "x"),
+          ImmutableList.of(KvInteger.of(20)));
+      assertEquals(Collections.singletonList(KvInteger.of(20)), deleted);
+      trans.commit();
+    }
+
+    try (SharedWriteTorodTransaction trans = connection.openWriteTransaction(false)) {
+      assertEquals(1, trans.countAll(DB_NAME, colName));
+      assertEquals(1, trans.findByAttRefIn(DB_NAME, colName, ref("_id"),
+          ImmutableList.of(KvInteger.of(1))).asDidCursor().getRemaining().size());
+    }
+  }
+
+  private KvDocument createDocWithSubDoc(int id, int subValue) {
+    return new KvDocument.Builder()
+        .putValue("_id", KvInteger.of(id))
+        .putValue("sub", new KvDocument.Builder()
+            .putValue("x", KvInteger.of(subValue))
+            .build())
+        .build();
+  }
+
+  private MetaCollection getMetaCollection(SharedWriteTorodTransaction trans, String colName) {
+    return ((SqlWriteTorodTransaction<?>) trans).getInternalTransaction()
+        .getMetaSnapshot()
+        .getMetaDatabaseByName(DB_NAME)
+        .getMetaCollectionByName(colName);
+  }
+
+  private void insert(String colName, KvDocument doc) throws Exception {
+    try (SharedWriteTorodTransaction trans = connection.openWriteTransaction(false)) {
+      trans.insert(DB_NAME, colName, Stream.of(doc));
+      trans.commit();
+    }
+  }
+
+  private void assertCreateIndexIsRejected(String colName, String indexName,
+      AttributeReference attRef) throws Exception {
+    try (SharedWriteTorodTransaction trans = connection.openWriteTransaction(false)) {
+      trans.createIndex(DB_NAME, colName, indexName,
+          ImmutableList.of(new IndexFieldInfo(attRef, true)), false);
+      fail("Index " + indexName + " should have been rejected");
+    } catch (UnsupportedOverflowedIndexException ex) {
+      assertTrue(ex.getMessage().contains(indexName));
+    }
+  }
+
+  private static AttributeReference ref(String... keys) {
+    AttributeReference.Builder builder = new AttributeReference.Builder();
+    for (String key : keys) {
+      builder.addObjectKey(key);
+    }
+    return builder.build();
+  }
+
+}
@@ -58,12 +58,14 @@ import org.mockito.internal.creation.MockSettingsImpl;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import com.torodb.core.dsl.backend.AddDatabaseDdlJob;
 import com.torodb.core.dsl.backend.AddFieldDdlJob;
 import com.torodb.core.dsl.backend.AddScalarDddlJob;
 import com.torodb.core.dsl.backend.AddCollectionDdlJob;
+import com.torodb.core.dsl.backend.AddColumnsDdlJob;
 import com.torodb.core.dsl.backend.AddDocPartDdlJob;
 
 /**
@@ -177,13 +179,15 @@ public class DefaultToBackendFunctionTest {
       assertTrue(insertJob.isPresent());
       Optional<BackendTransactionJob> addFieldJob = resultList.stream()
           .filter((job) -> {
-            if (!(job instanceof AddFieldDdlJob)) {
+            if (!(job instanceof AddColumnsDdlJob)) {
               return false;
             }
-            AddFieldDdlJob castedJob = (AddFieldDdlJob) job;
+            AddColumnsDdlJob castedJob = (AddColumnsDdlJob) job;
             return castedJob.getDocPart().equals(withNewFieldsDocPart)
-                && castedJob.getField().getName().equals("newFieldName")
-                && castedJob.getField().getIdentifier().equals("newFieldId");
+                && castedJob.getScalars().isEmpty()
+                && castedJob.getFields().size() == 1
+                && castedJob.getFields().get(0).getName().equals("newFieldName")
+                && castedJob.getFields().get(0).getIdentifier().equals("newFieldId");
           })
           .findAny();
       assertTrue(addFieldJob.isPresent());
@@ -192,8 +196,8 @@ public class DefaultToBackendFunctionTest {
       int insertIndex = resultList.indexOf(insertJob.get());
       assert addFieldIndex >= 0;
       assert insertIndex >= 0;
-      assertTrue("For a given doc part, all related add fields jobs must be executed before insert "
-          + "jobs, but in this case the add scalar job has index " + addFieldIndex
+      assertTrue("For a given doc part, all related add columns jobs must be executed before "
+          + "insert jobs, but in this case the add columns job has index " + addFieldIndex
           + " and the insert job has index " + insertIndex,
           addFieldIndex < insertIndex);
     }
@@ -242,13 +246,15 @@ public class DefaultToBackendFunctionTest {
       assertTrue(insertJob.isPresent());
       Optional<BackendTransactionJob> addScalarJob = resultList.stream()
           .filter((job) -> {
-            if (!(job instanceof AddScalarDddlJob)) {
+            if (!(job instanceof AddColumnsDdlJob)) {
               return false;
             }
-            AddScalarDddlJob castedJob = (AddScalarDddlJob) job;
+            AddColumnsDdlJob castedJob = (AddColumnsDdlJob) job;
             return castedJob.getDocPart().equals(withNewScalarDocPart)
-                && castedJob.getScalar().getIdentifier().equals("newScalarId")
-                && castedJob.getScalar().getType().equals(FieldType.INTEGER);
+                && castedJob.getFields().isEmpty()
+                && castedJob.getScalars().size() == 1
+                && castedJob.getScalars().get(0).getIdentifier().equals("newScalarId")
+                && castedJob.getScalars().get(0).getType().equals(FieldType.INTEGER);
           })
           .findAny();
       assertTrue(addScalarJob.isPresent());
@@ -257,8 +263,8 @@ public class DefaultToBackendFunctionTest {
       int insertIndex = resultList.indexOf(insertJob.get());
       assert addScalarIndex >= 0;
       assert insertIndex >= 0;
-      assertTrue("For a given doc part, all related add scalar jobs must be executed before insert "
-          + "jobs, but in this case the add scalr job has index " + addScalarIndex
+      assertTrue("For a given doc part, all related add columns jobs must be executed before "
+          + "insert jobs, but in this case the add columns job has index " + addScalarIndex
           + " and the insert job has index " + insertIndex,
           addScalarIndex < insertIndex);
     }
@@ -273,11 +279,6 @@ public class DefaultToBackendFunctionTest {
     BatchMetaDocPart allNewDocPart = mock(BatchMetaDocPart.class, settings);
     doReturn(true)
         .when(allNewDocPart).isCreatedOnCurrentBatch();
-    doReturn(Lists.newArrayList(Lists.newArrayList(new ImmutableMetaField("newFieldName",
-        "newFieldId", FieldType.BOOLEAN))).stream())
-        .when(allNewDocPart).streamFields();
-    doReturn(Lists.newArrayList(new ImmutableMetaScalar("newScalarId", FieldType.BOOLEAN)).stream())
-        .when(allNewDocPart).streamScalars();
     DocPartData allNewData = mock(DocPartData.class);
     given(allNewData.getMetaDocPart())
         .willReturn(
@@ -296,7 +297,7 @@ public class DefaultToBackendFunctionTest {
     ArrayList<BackendTransactionJob> resultList = Lists.newArrayList(result);
 
     //then
-    assertEquals("Expected 4 jobs to do, but " + resultList.size() + " were recived", 4, resultList
+    assertEquals("Expected 2 jobs to do, but " + resultList.size() + " were recived", 2, resultList
         .size());
 
     {
@@ -306,30 +307,6 @@ public class DefaultToBackendFunctionTest {
                   .equals(allNewData))
           .findAny();
       assertTrue(insertJob.isPresent());
-      Optional<BackendTransactionJob> addFieldJob = resultList.stream()
-          .filter((job) -> {
-            if (!(job instanceof AddFieldDdlJob)) {
-              return false;
-            }
-            AddFieldDdlJob castedJob = (AddFieldDdlJob) job;
-            return castedJob.getDocPart().equals(allNewDocPart)
-                && castedJob.getField().getName().equals("newFieldName")
-                && castedJob.getField().getIdentifier().equals("newFieldId");
-          })
-          .findAny();
-      assertTrue(addFieldJob.isPresent());
-      Optional<BackendTransactionJob> addScalarJob = resultList.stream()
-          .filter((job) -> {
-            if (!(job instanceof AddScalarDddlJob)) {
-              return false;
-            }
-            AddScalarDddlJob castedJob = (AddScalarDddlJob) job;
-            return castedJob.getDocPart().equals(allNewDocPart)
-                && castedJob.getScalar().getIdentifier().equals("newScalarId")
-                && castedJob.getScalar().getType().equals(FieldType.BOOLEAN);
-          })
-          .findAny();
-      assertTrue(addScalarJob.isPresent());
       Optional<BackendTransactionJob> createDocPartJob = resultList.stream()
           .filter((job) -> {
             if (!(job instanceof AddDocPartDdlJob)) {
@@ -342,26 +319,13 @@ public class DefaultToBackendFunctionTest {
       assertTrue(createDocPartJob.isPresent());
 
       int createDocPartIndex = resultList.indexOf(createDocPartJob.get());
-      int addFieldIndex = resultList.indexOf(addFieldJob.get());
-      int addScalarIndex = resultList.indexOf(addScalarJob.get());
       int insertIndex = resultList.indexOf(insertJob.get());
       assert createDocPartIndex >= 0;
-      assert addFieldIndex >= 0;
-      assert addScalarIndex >= 0;
       assert insertIndex >= 0;
-      assertTrue("For a given doc part, all related add fields jobs must be executed before insert "
-          + "jobs, but in this case the add scalar job has index " + addFieldIndex
-          + " and the insert job has index " + insertIndex,
-          addFieldIndex < insertIndex);
-      assertTrue("For a given doc part, all related add scalar jobs must be executed before insert "
-          + "jobs, but in this case the add scalr job has index " + addScalarIndex
-          + " and the insert job has index " + insertIndex,
-          addScalarIndex < insertIndex);
       assertTrue("For a given doc part, all related create doc part jobs must be executed "
-          + "before add scalar jobs, but in this case the create doc part job has index "
-          + createDocPartIndex + " and "
-          + "the add scalar job has index " + addFieldIndex,
-          createDocPartIndex < addFieldIndex);
+          + "before insert jobs, but in this case the create doc part job has index "
+          + createDocPartIndex + " and the insert job has index " + insertIndex,
+          createDocPartIndex < insertIndex);
     }
   }
 
@@ -477,6 +441,49 @@ public class DefaultToBackendFunctionTest {
       };
     }
 
+    @Override
+    public AddDocPartDdlJob createAddDocPartWithColumnsDdlJob(MetaDatabase db, MetaCollection col,
+        MutableMetaDocPart docPart) {
+      return createAddDocPartDdlJob(db, col, docPart);
+    }
+
+    @Override
+    public AddColumnsDdlJob createAddColumnsDdlJob(MetaDatabase db, MetaCollection col,
+        MutableMetaDocPart docPart, List<? extends MetaScalar> scalars,
+        List<? extends MetaField> fields) {
+      return new AddColumnsDdlJob() {
+        @Override
+        public MetaDatabase getDatabase() {
+          return db;
+        }
+
+        @Override
+        public MetaCollection getCollection() {
+          return col;
+        }
+
+        @Override
+        public MetaDocPart getDocPart() {
+          return docPart;
+        }
+
+        @Override
+        public List<? extends MetaScalar> getScalars() {
+          return scalars;
+        }
+
+        @Override
+        public List<? extends MetaField> getFields() {
+          return fields;
+        }
+
+        @Override
+        public void execute(WriteBackendTransaction connection) throws UserException {
+          throw new UnsupportedOperationException("Not supported yet.");
+        }
+      };
+    }
+
     @Override
     public InsertBackendJob insert(MetaDatabase db, MetaCollection col, DocPartData data) {
       return new InsertBackendJob() {
@@ -0,0 +1,166 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.torod.SharedWriteTorodTransaction;
+import com.torodb.torod.TorodConnection;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class JsonDocumentImporterTest {
+
+  private static final String DB_NAME = "test";
+  private static final String COL_NAME = "imported";
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private TorodConnection connection;
+  private List<SharedWriteTorodTransaction> transactions;
+  private List<List<KvDocument>> chunks;
+
+  @Before
+  public void setUp() {
+    transactions = new ArrayList<>();
+    chunks = new ArrayList<>();
+    connection = mock(TorodConnection.class);
+    given(connection.openWriteTransaction(anyBoolean()))
+        .willAnswer(invocation -> createTransaction());
+  }
+
+  @Test
+  public void testDocumentsAreInsertedOnChunks() throws Exception {
+    JsonDocumentImporter importer = new JsonDocumentImporter(connection, 2, false);
+
+    long imported = importer.importFrom(DB_NAME, COL_NAME, toStream(json(1, 5)));
+
+    assertEquals(5, imported);
+    assertEquals(ImmutableList.of(ids(1, 2), ids(3, 4), ids(5, 5)), chunks.stream()
+        .map(JsonDocumentImporterTest::getIds)
+        .collect(Collectors.toList()));
+    for (SharedWriteTorodTransaction transaction : transactions) {
+      verify(transaction).commit();
+      verify(transaction).close();
+    }
+  }
+
+  @Test
+  public void testDocumentsCrossingMappedRegions() throws Exception {
+    String json = json(1, 10);
+    Path file = temporaryFolder.newFile().toPath();
+    Files.write(file, json.getBytes(Charsets.UTF_8));
+
+    //region sizes that split the file on every possible position, including document boundaries
+    for (int regionSize = 1; regionSize <= json.length(); regionSize++) {
+      chunks.clear();
+      JsonDocumentImporter importer = new JsonDocumentImporter(connection, 3, false, regionSize);
+
+      assertEquals(10, importer.importFile(DB_NAME, COL_NAME, file));
+      assertEquals("Unexpected documents with regions of " + regionSize + " bytes", ids(1, 10),
+          chunks.stream()
+              .flatMap(chunk -> getIds(chunk).stream())
+              .collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void testCommittedChunksAreKeptOnErrors() throws Exception {
+    JsonDocumentImporter importer = new JsonDocumentImporter(connection, 2, false);
+    String json = json(1, 3) + "{\"_id\": ";
+
+    try {
+      importer.importFrom(DB_NAME, COL_NAME, toStream(json));
+      fail("The malformed document should have been reported");
+    } catch (IOException ex) {
+      //expected
+    }
+
+    assertEquals(2, transactions.size());
+    verify(transactions.get(0)).commit();
+    verify(transactions.get(1), never()).commit();
+    verify(transactions.get(1)).close();
+    assertEquals(ids(1, 2), getIds(chunks.get(0)));
+  }
+
+  private SharedWriteTorodTransaction createTransaction() throws Exception {
+    SharedWriteTorodTransaction transaction = mock(SharedWriteTorodTransaction.class);
+    List<KvDocument> chunk = new ArrayList<>();
+    willAnswer(invocation -> {
+      Stream<KvDocument> docs = invocation.getArgument(2);
+      docs.forEachOrdered(chunk::add);
+      return null;
+    }).given(transaction).insert(anyString(), anyString(), any());
+    transactions.add(transaction);
+    chunks.add(chunk);
+    return transaction;
+  }
+
+  private static String json(int firstId, int lastId) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = firstId; i <= lastId; i++) {
+      sb.append("{\"_id\": ").append(i).append(", \"name\": \"doc").append(i).append("\"}\n");
+    }
+    return sb.toString();
+  }
+
+  private static ByteArrayInputStream toStream(String json) {
+    return new ByteArrayInputStream(json.getBytes(Charsets.UTF_8));
+  }
+
+  private static List<KvValue<?>> ids(int firstId, int lastId) {
+    List<KvValue<?>> result = new ArrayList<>();
+    for (int i = firstId; i <= lastId; i++) {
+      result.add(KvInteger.of(i));
+    }
+    return result;
+  }
+
+  private static List<KvValue<?>> getIds(List<KvDocument> docs) {
+    return docs.stream()
+        .map(doc -> doc.get("_id"))
+        .collect(Collectors.toList());
+  }
+
+}
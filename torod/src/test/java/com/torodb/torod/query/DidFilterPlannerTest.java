@@ -0,0 +1,247 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.torod.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.TableRef;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.backend.query.DidFilter;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.querycriteria.AndQueryCriteria;
+import com.torodb.core.language.querycriteria.ComparisonQueryCriteria;
+import com.torodb.core.language.querycriteria.ComparisonQueryCriteria.Operator;
+import com.torodb.core.language.querycriteria.ExistsQueryCriteria;
+import com.torodb.core.language.querycriteria.InQueryCriteria;
+import com.torodb.core.language.querycriteria.NotQueryCriteria;
+import com.torodb.core.language.querycriteria.OrQueryCriteria;
+import com.torodb.core.language.querycriteria.QueryCriteria;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.ImmutableMetaCollection;
+import com.torodb.core.transaction.metainf.ImmutableMetaDocPart;
+import com.torodb.core.transaction.metainf.MetaCollection;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import com.torodb.torod.SortFieldInfo;
+import org.junit.Test;
+
+import java.util.Optional;
+
+public class DidFilterPlannerTest {
+
+  private static final String A_EXISTS = "(col.a_d NOT_NULL [] or col.a_i NOT_NULL [] "
+      + "or col.a_l NOT_NULL [] or col.a_n NOT_NULL [] or col.a_s NOT_NULL [])";
+  private static final String A_NULL_OR_MISSING = "(col.a_n NOT_NULL [] or not " + A_EXISTS + ")";
+
+  private final TableRefFactory tableRefFactory = new TableRefFactoryImpl();
+  private final DidFilterPlanner planner = new DidFilterPlanner(tableRefFactory);
+  private final TableRef rootRef = tableRefFactory.createRoot();
+  private final TableRef subRef = tableRefFactory.createChild(rootRef, "sub");
+  private final TableRef deepRef = tableRefFactory.createChild(subRef, "deep");
+  private final TableRef arrRef = tableRefFactory.createChild(rootRef, "arr");
+
+  @Test
+  public void testFractionalBoundsAreRoundedOnIntegralColumns() {
+    assertPlan("(col.a_d GT [2.5] or col.a_i GT [2] or col.a_l GT [2])",
+        comparison("a", Operator.GT, KvDouble.of(2.5)));
+    assertPlan("(col.a_d GTE [2.5] or col.a_i GTE [3] or col.a_l GTE [3])",
+        comparison("a", Operator.GTE, KvDouble.of(2.5)));
+    assertPlan("(col.a_d LT [-2.5] or col.a_i LT [-2] or col.a_l LT [-2])",
+        comparison("a", Operator.LT, KvDouble.of(-2.5)));
+    assertPlan("(col.a_d LTE [-2.5] or col.a_i LTE [-3] or col.a_l LTE [-3])",
+        comparison("a", Operator.LTE, KvDouble.of(-2.5)));
+  }
+
+  @Test
+  public void testEqualityWithFractionalValuesOnlyUsesDoubleColumns() {
+    assertPlan("col.a_d EQ [2.5]", comparison("a", Operator.EQ, KvDouble.of(2.5)));
+    assertPlan("(col.a_d EQ [2.0] or col.a_i EQ [2] or col.a_l EQ [2])",
+        comparison("a", Operator.EQ, KvDouble.of(2)));
+  }
+
+  @Test
+  public void testBoundsOutOfTheRangeOfAColumnAreClamped() {
+    assertPlan("(col.a_d GT [3.0E9] or col.a_l GT [3000000000])",
+        comparison("a", Operator.GT, KvLong.of(3_000_000_000L)));
+    assertPlan("(col.a_d LT [3.0E9] or col.a_i NOT_NULL [] or col.a_l LT [3000000000])",
+        comparison("a", Operator.LT, KvLong.of(3_000_000_000L)));
+    assertPlan("(col.a_d EQ [3.0E9] or col.a_l EQ [3000000000])",
+        comparison("a", Operator.EQ, KvLong.of(3_000_000_000L)));
+    assertPlan("(col.a_d GT [-1.0E30] or col.a_i NOT_NULL [] or col.a_l NOT_NULL [])",
+        comparison("a", Operator.GT, KvDouble.of(-1e30)));
+    assertPlan("col.a_d LTE [-1.0E30]",
+        comparison("a", Operator.LTE, KvDouble.of(-1e30)));
+    assertPlan("col.a_d GT [Infinity]",
+        comparison("a", Operator.GT, KvDouble.of(Double.POSITIVE_INFINITY)));
+    assertPlan("(col.a_d GTE [-Infinity] or col.a_i NOT_NULL [] or col.a_l NOT_NULL [])",
+        comparison("a", Operator.GTE, KvDouble.of(Double.NEGATIVE_INFINITY)));
+  }
+
+  @Test
+  public void testInValuesAreConvertedToTheTypeOfEachColumn() {
+    assertPlan("(col.a_d IN [1.0, 2.5, 3.0E9] or col.a_i EQ [1] "
+        + "or col.a_l IN [1, 3000000000])",
+        new InQueryCriteria(ref("a"), ImmutableList.<KvValue<?>>of(KvInteger.of(1),
+            KvDouble.of(2.5), KvLong.of(3_000_000_000L))));
+  }
+
+  @Test
+  public void testNegationsKeepTheDocumentsWithoutTheAttribute() {
+    //$ne: 1
+    assertPlan("not (col.a_d EQ [1.0] or col.a_i EQ [1] or col.a_l EQ [1])",
+        new NotQueryCriteria(comparison("a", Operator.EQ, KvInteger.of(1))));
+    //$ne: null
+    assertPlan("not " + A_NULL_OR_MISSING,
+        new NotQueryCriteria(comparison("a", Operator.EQ, KvNull.getInstance())));
+    //$nin: [1, null]
+    assertPlan("not (col.a_d EQ [1.0] or col.a_i EQ [1] or col.a_l EQ [1] or "
+        + A_NULL_OR_MISSING + ")",
+        new NotQueryCriteria(new InQueryCriteria(ref("a"),
+            ImmutableList.<KvValue<?>>of(KvInteger.of(1), KvNull.getInstance()))));
+    //$not: {$gt: 1}
+    assertPlan("not (col.a_d GT [1.0] or col.a_i GT [1] or col.a_l GT [1])",
+        new NotQueryCriteria(comparison("a", Operator.GT, KvInteger.of(1))));
+    //$exists: false
+    assertPlan("not " + A_EXISTS, new NotQueryCriteria(new ExistsQueryCriteria(ref("a"))));
+  }
+
+  @Test
+  public void testNullComparisons() {
+    assertPlan(A_NULL_OR_MISSING, comparison("a", Operator.EQ, KvNull.getInstance()));
+    assertPlan(A_NULL_OR_MISSING, comparison("a", Operator.LTE, KvNull.getInstance()));
+    assertPlan("false", comparison("a", Operator.GT, KvNull.getInstance()));
+  }
+
+  @Test
+  public void testMissingAttributesAreSimplifiedToConstants() {
+    assertPlan("false", comparison("missing", Operator.EQ, KvInteger.of(1)));
+    assertPlan("true", new NotQueryCriteria(comparison("missing", Operator.EQ,
+        KvInteger.of(1))));
+    assertPlan("true", comparison("missing", Operator.EQ, KvNull.getInstance()));
+    assertPlan("false", new NotQueryCriteria(comparison("missing", Operator.EQ,
+        KvNull.getInstance())));
+    assertPlan("true", comparison("missing.deeper", Operator.EQ, KvNull.getInstance()));
+    assertPlan("false", new ExistsQueryCriteria(ref("sub.missing")));
+  }
+
+  @Test
+  public void testConditionsOnNestedDocPartsUseTheirTables() {
+    assertPlan("(col_sub_deep.y_s EQ [z] and not col_sub.x_i GT [1])",
+        new AndQueryCriteria(ImmutableList.of(
+            comparison("sub.deep.y", Operator.EQ, new StringKvString("z")),
+            new NotQueryCriteria(comparison("sub.x", Operator.GT, KvInteger.of(1))))));
+    assertPlan("(col_sub.x_i EQ [1] or col_arr.v_i EQ [5])",
+        new OrQueryCriteria(ImmutableList.of(
+            comparison("sub.x", Operator.EQ, KvInteger.of(1)),
+            comparison("arr", Operator.EQ, KvInteger.of(5)))));
+    assertPlan("col.sub_e NOT_NULL []", new ExistsQueryCriteria(ref("sub")));
+  }
+
+  @Test
+  public void testOverflowedDocPartsAreNotPlanned() {
+    MetaCollection col = new ImmutableMetaCollection.Builder("col", "col")
+        .put(new ImmutableMetaDocPart.Builder(rootRef, "col")
+            .putField("a", "a_i", FieldType.INTEGER)
+            .putField("sub", "sub_e", FieldType.CHILD))
+        .put(new ImmutableMetaDocPart.Builder(subRef, "col_sub")
+            .putField("x", "x_i", FieldType.INTEGER)
+            .putField("", "overflow", FieldType.OVERFLOW))
+        .build();
+
+    assertEquals("col.a_i EQ [1]", planner.plan(col,
+        comparison("a", Operator.EQ, KvInteger.of(1))).get().toString());
+    assertFalse(planner.plan(col, comparison("sub.x", Operator.EQ, KvInteger.of(1)))
+        .isPresent());
+    assertFalse(planner.plan(col, new AndQueryCriteria(ImmutableList.of(
+        comparison("a", Operator.EQ, KvInteger.of(1)),
+        new NotQueryCriteria(comparison("sub.y", Operator.EQ, KvNull.getInstance()))))
+    ).isPresent());
+
+    MetaCollection rootOverflowed = new ImmutableMetaCollection.Builder("col", "col")
+        .put(new ImmutableMetaDocPart.Builder(rootRef, "col")
+            .putField("a", "a_i", FieldType.INTEGER)
+            .putField("", "overflow", FieldType.OVERFLOW))
+        .build();
+    assertFalse(planner.plan(rootOverflowed, comparison("a", Operator.EQ, KvInteger.of(1)))
+        .isPresent());
+    assertFalse(planner.planOrder(rootOverflowed,
+        ImmutableList.of(new SortFieldInfo(ref("a"), true))).isPresent());
+  }
+
+  @Test
+  public void testArrayPositionsAndDocumentsAreNotPlanned() {
+    assertFalse(plan(comparison("arr.0", Operator.EQ, KvInteger.of(1))).isPresent());
+    assertTrue(plan(comparison("arr", Operator.EQ, KvInteger.of(1))).isPresent());
+  }
+
+  private void assertPlan(String expected, QueryCriteria criteria) {
+    Optional<DidFilter> filter = plan(criteria);
+    assertTrue("The criteria " + criteria + " should be planned", filter.isPresent());
+    assertEquals(expected, filter.get().toString());
+  }
+
+  private Optional<DidFilter> plan(QueryCriteria criteria) {
+    return planner.plan(createCollection(), criteria);
+  }
+
+  /**
+   * Returns a collection where {@code a} has been stored with all the numeric types, as a string
+   * and as null, {@code sub} is a document that contains the document {@code deep} and
+   * {@code arr} is an array of integers.
+   */
+  private MetaCollection createCollection() {
+    return new ImmutableMetaCollection.Builder("col", "col")
+        .put(new ImmutableMetaDocPart.Builder(rootRef, "col")
+            .putField("a", "a_i", FieldType.INTEGER)
+            .putField("a", "a_l", FieldType.LONG)
+            .putField("a", "a_d", FieldType.DOUBLE)
+            .putField("a", "a_s", FieldType.STRING)
+            .putField("a", "a_n", FieldType.NULL)
+            .putField("sub", "sub_e", FieldType.CHILD)
+            .putField("arr", "arr_e", FieldType.CHILD))
+        .put(new ImmutableMetaDocPart.Builder(subRef, "col_sub")
+            .putField("x", "x_i", FieldType.INTEGER)
+            .putField("deep", "deep_e", FieldType.CHILD))
+        .put(new ImmutableMetaDocPart.Builder(deepRef, "col_sub_deep")
+            .putField("y", "y_s", FieldType.STRING))
+        .put(new ImmutableMetaDocPart.Builder(arrRef, "col_arr")
+            .putScalar(FieldType.INTEGER, "v_i"))
+        .build();
+  }
+
+  private static QueryCriteria comparison(String path, Operator operator, KvValue<?> value) {
+    return new ComparisonQueryCriteria(ref(path), operator, value);
+  }
+
+  private static AttributeReference ref(String path) {
+    AttributeReference.Builder builder = new AttributeReference.Builder();
+    for (String key : path.split("\\.")) {
+      builder.addObjectKey(key);
+    }
+    return builder.build();
+  }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.query;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.ListKvArray;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import org.junit.Test;
+
+import java.util.List;
+
+public class DistinctValuesTest {
+
+  @Test
+  public void testDistinct() {
+    List<KvValue<?>> values = DistinctValues.distinct(ImmutableList.of(
+        new KvDocument.Builder()
+            .putValue("a", 1)
+            .build(),
+        new KvDocument.Builder()
+            .putValue("a", 1.0)
+            .build(),
+        new KvDocument.Builder()
+            .putValue("a", new ListKvArray(ImmutableList.of(KvInteger.of(2),
+                new StringKvString("x"), KvInteger.of(1))))
+            .build(),
+        new KvDocument.Builder()
+            .putValue("b", 3)
+            .build(),
+        new KvDocument.Builder()
+            .putNullValue("a")
+            .build()
+    ).stream(), ref("a"));
+
+    assertEquals(ImmutableList.of(KvInteger.of(1), KvInteger.of(2), new StringKvString("x"),
+        KvNull.getInstance()), values);
+  }
+
+  @Test
+  public void testDistinctInsideArrays() {
+    KvDocument doc = new KvDocument.Builder()
+        .putValue("a", new ListKvArray(ImmutableList.of(
+            new KvDocument.Builder()
+                .putValue("b", 1)
+                .build(),
+            new KvDocument.Builder()
+                .putValue("b", 2)
+                .build(),
+            KvInteger.of(3))))
+        .build();
+
+    assertEquals(ImmutableList.of(KvInteger.of(1), KvInteger.of(2)),
+        DistinctValues.distinct(ImmutableList.of(doc).stream(), ref("a", "b")));
+    assertEquals(ImmutableList.of(KvInteger.of(3)),
+        DistinctValues.distinct(ImmutableList.of(doc).stream(), ref("a", "2")));
+  }
+
+  private static AttributeReference ref(String... keys) {
+    AttributeReference.Builder builder = new AttributeReference.Builder();
+    for (String key : keys) {
+      builder.addObjectKey(key);
+    }
+    return builder.build();
+  }
+
+}
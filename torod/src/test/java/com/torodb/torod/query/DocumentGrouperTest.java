@@ -0,0 +1,116 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.torod.query;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import com.torodb.torod.AccumulatorInfo;
+import com.torodb.torod.AccumulatorInfo.Operator;
+import org.junit.Test;
+
+import java.util.List;
+
+public class DocumentGrouperTest {
+
+  private final List<AccumulatorInfo> accumulators = ImmutableList.of(
+      new AccumulatorInfo("count", Operator.COUNT, null),
+      new AccumulatorInfo("total", Operator.SUM, ref("v")),
+      new AccumulatorInfo("avg", Operator.AVG, ref("v")),
+      new AccumulatorInfo("min", Operator.MIN, ref("v")),
+      new AccumulatorInfo("max", Operator.MAX, ref("v"))
+  );
+
+  @Test
+  public void testGroup() {
+    List<KvDocument> groups = DocumentGrouper.group(ImmutableList.of(
+        new KvDocument.Builder()
+            .putValue("a", 1)
+            .putValue("v", 2)
+            .build(),
+        new KvDocument.Builder()
+            .putValue("a", "x")
+            .putValue("v", "text")
+            .build(),
+        new KvDocument.Builder()
+            .putValue("a", 1.0)
+            .putValue("v", 3.5)
+            .build(),
+        new KvDocument.Builder()
+            .putValue("v", 4)
+            .build(),
+        new KvDocument.Builder()
+            .putNullValue("a")
+            .putValue("v", 1L)
+            .build()
+    ).stream(), ref("a"), accumulators);
+
+    assertEquals(3, groups.size());
+    assertGroup(groups.get(0), KvInteger.of(1), KvInteger.of(2), KvDouble.of(5.5),
+        KvDouble.of(2.75), KvInteger.of(2), KvDouble.of(3.5));
+    assertGroup(groups.get(1), new StringKvString("x"), KvInteger.of(1), KvInteger.of(0),
+        KvNull.getInstance(), new StringKvString("text"), new StringKvString("text"));
+    assertGroup(groups.get(2), KvNull.getInstance(), KvInteger.of(2), KvLong.of(5),
+        KvDouble.of(2.5), KvLong.of(1), KvInteger.of(4));
+  }
+
+  @Test
+  public void testPartialResults() {
+    DocumentGrouper grouper = new DocumentGrouper(accumulators);
+    DocumentGrouper.Group group = grouper.getGroup(KvInteger.of(7));
+    group.addPartialResult(0, null, 3);
+    group.addPartialResult(1, KvInteger.of(Integer.MAX_VALUE), 2);
+    group.addPartialResult(2, KvInteger.of(6), 2);
+    group.addPartialResult(3, KvDouble.of(0.5), 1);
+    group.addPartialResult(4, KvInteger.of(5), 1);
+    grouper.getGroup(KvLong.of(7)).addPartialResult(0, null, 1);
+    grouper.getGroup(KvLong.of(7)).addPartialResult(1, KvInteger.of(1), 1);
+    grouper.getGroup(KvLong.of(7)).addPartialResult(2, KvDouble.of(6), 2);
+    grouper.getGroup(KvLong.of(7)).addPartialResult(3, KvInteger.of(0), 1);
+
+    List<KvDocument> groups = grouper.getResult();
+    assertEquals(1, groups.size());
+    assertGroup(groups.get(0), KvInteger.of(7), KvInteger.of(4),
+        KvLong.of(Integer.MAX_VALUE + 1L), KvDouble.of(3), KvInteger.of(0), KvInteger.of(5));
+  }
+
+  private static void assertGroup(KvDocument group, KvValue<?> id, KvValue<?> count,
+      KvValue<?> total, KvValue<?> avg, KvValue<?> min, KvValue<?> max) {
+    assertEquals(id, group.get("_id"));
+    assertEquals(count, group.get("count"));
+    assertEquals(total, group.get("total"));
+    assertEquals(avg, group.get("avg"));
+    assertEquals(min, group.get("min"));
+    assertEquals(max, group.get("max"));
+  }
+
+  private static AttributeReference ref(String key) {
+    return new AttributeReference.Builder()
+        .addObjectKey(key)
+        .build();
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.torod.query;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.document.ToroDocument;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.ListKvArray;
+import com.torodb.torod.SortFieldInfo;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class DocumentSorterTest {
+
+  private final List<ToroDocument> docs = ImmutableList.of(
+      createDoc(1, new KvDocument.Builder()
+          .putValue("a", "text")
+          .build()),
+      createDoc(2, new KvDocument.Builder()
+          .putValue("a", KvDouble.of(2.5))
+          .putValue("b", 1)
+          .build()),
+      createDoc(3, new KvDocument.Builder()
+          .build()),
+      createDoc(4, new KvDocument.Builder()
+          .putValue("a", new ListKvArray(ImmutableList.<KvValue<?>>of(
+              KvInteger.of(7), KvInteger.of(0))))
+          .build()),
+      createDoc(5, new KvDocument.Builder()
+          .putValue("a", 2.5)
+          .putValue("b", 0)
+          .build())
+  );
+
+  @Test
+  public void testAscendingSortFollowsTypeOrder() {
+    assertEquals(ImmutableList.of(3, 4, 5, 2, 1), sortAndPage(true, 0, 0));
+  }
+
+  @Test
+  public void testDescendingSortUsesTheGreatestArrayElement() {
+    assertEquals(ImmutableList.of(1, 4, 5, 2, 3), sortAndPage(false, 0, 0));
+  }
+
+  @Test
+  public void testSkipAndLimit() {
+    assertEquals(ImmutableList.of(4, 5), sortAndPage(true, 1, 2));
+  }
+
+  private List<Integer> sortAndPage(boolean ascending, long skip, long limit) {
+    List<SortFieldInfo> sort = ImmutableList.of(
+        new SortFieldInfo(ref("a"), ascending),
+        new SortFieldInfo(ref("b"), true));
+    return DocumentSorter.sortAndPage(docs.stream(), sort, skip, limit)
+        .map(ToroDocument::getId)
+        .collect(Collectors.toList());
+  }
+
+  private static ToroDocument createDoc(int did, KvDocument root) {
+    return new ToroDocument(did, root);
+  }
+
+  private static AttributeReference ref(String key) {
+    return new AttributeReference.Builder()
+        .addObjectKey(key)
+        .build();
+  }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.torod.query;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.querycriteria.ComparisonQueryCriteria;
+import com.torodb.core.language.querycriteria.ComparisonQueryCriteria.Operator;
+import com.torodb.core.language.querycriteria.ExistsQueryCriteria;
+import com.torodb.core.language.querycriteria.InQueryCriteria;
+import com.torodb.core.language.querycriteria.NotQueryCriteria;
+import com.torodb.core.language.querycriteria.OrQueryCriteria;
+import com.torodb.core.language.querycriteria.QueryCriteria;
+import com.torodb.core.language.querycriteria.TextQueryCriteria;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.ListKvArray;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import org.junit.Test;
+
+public class QueryCriteriaMatcherTest {
+
+  private final KvDocument doc = new KvDocument.Builder()
+      .putValue("a", KvInteger.of(3))
+      .putValue("b", new KvDocument.Builder()
+          .putValue("c", KvDouble.of(2.5))
+          .build())
+      .putValue("arr", new ListKvArray(ImmutableList.<KvValue<?>>of(
+          KvInteger.of(1), KvInteger.of(7))))
+      .putValue("title", new StringKvString("The Quick brown fox"))
+      .build();
+
+  @Test
+  public void testNumericComparisonAcrossTypes() {
+    assertTrue(matches(comparison("a", Operator.EQ, KvDouble.of(3.0))));
+    assertTrue(matches(comparison("b.c", Operator.GT, KvInteger.of(2))));
+    assertFalse(matches(comparison("b.c", Operator.LTE, KvInteger.of(2))));
+  }
+
+  @Test
+  public void testArraysMatchAnyElement() {
+    assertTrue(matches(comparison("arr", Operator.EQ, KvInteger.of(7))));
+    assertTrue(matches(comparison("arr", Operator.GT, KvInteger.of(5))));
+    assertFalse(matches(comparison("arr", Operator.GT, KvInteger.of(7))));
+  }
+
+  @Test
+  public void testNullMatchesMissingAttributes() {
+    assertTrue(matches(comparison("missing", Operator.EQ, KvNull.getInstance())));
+    assertFalse(matches(new ExistsQueryCriteria(ref("missing"))));
+    assertTrue(matches(new NotQueryCriteria(comparison("a", Operator.EQ, KvNull.getInstance()))));
+  }
+
+  @Test
+  public void testLogicalOperators() {
+    QueryCriteria in = new InQueryCriteria(ref("a"),
+        ImmutableList.<KvValue<?>>of(KvInteger.of(1), KvInteger.of(3)));
+    assertTrue(matches(in));
+    assertTrue(matches(new OrQueryCriteria(ImmutableList.of(
+        comparison("a", Operator.LT, KvInteger.of(0)), in))));
+    assertFalse(matches(new NotQueryCriteria(in)));
+  }
+
+  @Test
+  public void testTextSearch() {
+    assertTrue(matches(text(ImmutableList.of("slow", "QUICK"), ImmutableList.of(),
+        ImmutableList.of())));
+    assertFalse(matches(text(ImmutableList.of("quick"), ImmutableList.of("fox"),
+        ImmutableList.of())));
+    assertTrue(matches(text(ImmutableList.of("slow"), ImmutableList.of(),
+        ImmutableList.of("quick brown"))));
+    assertFalse(matches(text(ImmutableList.of("quick"), ImmutableList.of(),
+        ImmutableList.of("brown quick"))));
+  }
+
+  private boolean matches(QueryCriteria criteria) {
+    return QueryCriteriaMatcher.matches(criteria, doc);
+  }
+
+  private static QueryCriteria comparison(String path, Operator operator, KvValue<?> value) {
+    return new ComparisonQueryCriteria(ref(path), operator, value);
+  }
+
+  private static QueryCriteria text(ImmutableList<String> terms,
+      ImmutableList<String> negatedTerms, ImmutableList<String> phrases) {
+    return new TextQueryCriteria(ImmutableList.of(ref("title")), terms, negatedTerms, phrases);
+  }
+
+  private static AttributeReference ref(String path) {
+    AttributeReference.Builder builder = new AttributeReference.Builder();
+    for (String key : path.split("\\.")) {
+      builder.addObjectKey(key);
+    }
+    return builder.build();
+  }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.torod.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.document.ToroDocument;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.querycriteria.AndQueryCriteria;
+import com.torodb.core.language.querycriteria.TextQueryCriteria;
+import com.torodb.core.language.querycriteria.TrueQueryCriteria;
+import com.torodb.kvdocument.values.KvDocument;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TextScorerTest {
+
+  private final TextQueryCriteria textSearch = new TextQueryCriteria(
+      ImmutableList.of(ref("title"), ref("body")), ImmutableList.of("coffee", "cake"),
+      ImmutableList.of(), ImmutableList.of());
+
+  @Test
+  public void testDocumentsAreSortedByTheNumberOfSearchedWords() {
+    List<ToroDocument> docs = ImmutableList.of(
+        createDoc(1, "Tea", "Some coffee"),
+        createDoc(2, "Coffee cake", "Coffee and cake"),
+        createDoc(3, "Cake", "No coffee"),
+        createDoc(4, "Coffee", "Tea"));
+
+    assertEquals(ImmutableList.of(2, 3, 1, 4), sortByScore(docs));
+  }
+
+  @Test
+  public void testTheTextSearchIsFoundInsideConjunctions() {
+    assertEquals(textSearch, TextScorer.getTextSearch(textSearch).get());
+    assertEquals(textSearch, TextScorer.getTextSearch(new AndQueryCriteria(ImmutableList.of(
+        TrueQueryCriteria.getInstance(), textSearch))).get());
+    assertFalse(TextScorer.getTextSearch(TrueQueryCriteria.getInstance()).isPresent());
+  }
+
+  private List<Integer> sortByScore(List<ToroDocument> docs) {
+    return TextScorer.sortByScore(docs, textSearch).stream()
+        .map(ToroDocument::getId)
+        .collect(Collectors.toList());
+  }
+
+  private static ToroDocument createDoc(int did, String title, String body) {
+    return new ToroDocument(did, new KvDocument.Builder()
+        .putValue("title", title)
+        .putValue("body", body)
+        .build());
+  }
+
+  private static AttributeReference ref(String key) {
+    return new AttributeReference.Builder()
+        .addObjectKey(key)
+        .build();
+  }
+
+}